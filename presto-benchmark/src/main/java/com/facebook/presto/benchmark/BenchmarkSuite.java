@@ -43,10 +43,13 @@ public class BenchmarkSuite
                 new CountAggregationBenchmark(localQueryRunner),
                 new DoubleSumAggregationBenchmark(localQueryRunner),
                 new HashAggregationBenchmark(localQueryRunner),
+                new MultiChannelFixedWidthHashAggregationBenchmark(localQueryRunner),
                 new PredicateFilterBenchmark(localQueryRunner),
                 new RawStreamingBenchmark(localQueryRunner),
                 new Top100Benchmark(localQueryRunner),
                 new OrderByBenchmark(localQueryRunner),
+                new NormalizedKeyOrderByBenchmark(localQueryRunner, false),
+                new NormalizedKeyOrderByBenchmark(localQueryRunner, true),
                 new HashBuildBenchmark(localQueryRunner),
                 new HashJoinBenchmark(localQueryRunner),
                 new HashBuildAndJoinBenchmark(localQueryRunner.getDefaultSession(), localQueryRunner),
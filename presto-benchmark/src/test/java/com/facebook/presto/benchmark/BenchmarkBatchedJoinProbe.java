@@ -0,0 +1,148 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.benchmark;
+
+import com.facebook.presto.common.Page;
+import com.facebook.presto.common.block.BlockBuilder;
+import com.facebook.presto.operator.LookupSource;
+import com.facebook.presto.operator.PagesIndex;
+import com.google.common.collect.ImmutableList;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.VerboseMode;
+import org.testng.annotations.Test;
+
+import java.util.Optional;
+import java.util.OptionalInt;
+import java.util.Random;
+
+import static com.facebook.presto.common.type.BigintType.BIGINT;
+import static com.facebook.presto.testing.TestingSession.testSessionBuilder;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+import static org.openjdk.jmh.annotations.Mode.AverageTime;
+import static org.openjdk.jmh.annotations.Scope.Thread;
+import static org.testng.Assert.assertEquals;
+
+/**
+ * Compares looking up the probe rows of a page in a join hash one row at a time with
+ * looking them up as a batch through {@link LookupSource#getJoinPositions}.
+ */
+@SuppressWarnings("MethodMayBeStatic")
+@State(Thread)
+@OutputTimeUnit(NANOSECONDS)
+@BenchmarkMode(AverageTime)
+@Fork(2)
+@Warmup(iterations = 10, time = 500, timeUnit = MILLISECONDS)
+@Measurement(iterations = 10, time = 500, timeUnit = MILLISECONDS)
+@OperationsPerInvocation(BenchmarkBatchedJoinProbe.POSITIONS)
+public class BenchmarkBatchedJoinProbe
+{
+    static final int POSITIONS = 1024;
+
+    @State(Thread)
+    public static class Context
+    {
+        @Param({"1000", "100000", "10000000"})
+        private int buildRows = 100_000;
+
+        // fraction of the probe rows with a match on the build side
+        @Param({"0.1", "1.0"})
+        private double matchRate = 1.0;
+
+        private LookupSource lookupSource;
+        private Page probePage;
+        private final int[] positions = new int[POSITIONS];
+        private final long[] joinPositions = new long[POSITIONS];
+
+        @Setup
+        public void setup()
+        {
+            PagesIndex pagesIndex = new PagesIndex.TestingFactory(false).newPagesIndex(ImmutableList.of(BIGINT), buildRows);
+            for (int start = 0; start < buildRows; start += POSITIONS) {
+                int end = Math.min(start + POSITIONS, buildRows);
+                BlockBuilder blockBuilder = BIGINT.createBlockBuilder(null, end - start);
+                for (long value = start; value < end; value++) {
+                    BIGINT.writeLong(blockBuilder, value);
+                }
+                pagesIndex.addPage(new Page(blockBuilder.build()));
+            }
+            lookupSource = pagesIndex.createLookupSourceSupplier(testSessionBuilder().build(), ImmutableList.of(0), OptionalInt.empty(), Optional.empty(), Optional.empty(), ImmutableList.of()).get();
+
+            Random random = new Random(42);
+            BlockBuilder blockBuilder = BIGINT.createBlockBuilder(null, POSITIONS);
+            for (int position = 0; position < POSITIONS; position++) {
+                long value = random.nextInt(buildRows);
+                BIGINT.writeLong(blockBuilder, random.nextDouble() < matchRate ? value : -value - 1);
+                positions[position] = position;
+            }
+            probePage = new Page(blockBuilder.build());
+        }
+    }
+
+    @Benchmark
+    public long rowByRow(Context context)
+    {
+        long matches = 0;
+        for (int position = 0; position < POSITIONS; position++) {
+            if (context.lookupSource.getJoinPosition(position, context.probePage, context.probePage) >= 0) {
+                matches++;
+            }
+        }
+        return matches;
+    }
+
+    @Benchmark
+    public long batched(Context context)
+    {
+        context.lookupSource.getJoinPositions(context.positions, POSITIONS, context.probePage, context.probePage, null, context.joinPositions);
+        long matches = 0;
+        for (int position = 0; position < POSITIONS; position++) {
+            if (context.joinPositions[position] >= 0) {
+                matches++;
+            }
+        }
+        return matches;
+    }
+
+    @Test
+    public void verify()
+    {
+        Context context = new Context();
+        context.setup();
+        assertEquals(batched(context), rowByRow(context));
+    }
+
+    public static void main(String[] args)
+            throws RunnerException
+    {
+        Options options = new OptionsBuilder()
+                .verbosity(VerboseMode.NORMAL)
+                .include(".*" + BenchmarkBatchedJoinProbe.class.getSimpleName() + ".*")
+                .build();
+        new Runner(options).run();
+    }
+}
@@ -16,6 +16,7 @@ package com.facebook.presto.cache;
 import com.facebook.presto.hive.CacheQuota;
 import com.google.errorprone.annotations.ThreadSafe;
 import io.airlift.slice.Slice;
+import org.apache.hadoop.fs.PositionedReadable;
 
 @ThreadSafe
 public interface CacheManager
@@ -34,4 +35,12 @@ public interface CacheManager
      * Save data in cache
      */
     void put(FileReadRequest request, Slice data, CacheQuota cacheQuota);
+
+    /**
+     * Hint that the data following {@param request} is likely to be read next, so the cache may
+     * load it from {@param source} in the background. Caches without read-ahead ignore the hint.
+     */
+    default void readAhead(FileReadRequest request, PositionedReadable source, CacheQuota cacheQuota)
+    {
+    }
 }
@@ -46,6 +46,23 @@ public class CacheStats
         inMemoryRetainedBytes.addAndGet(bytes);
     }
 
+    /**
+     * Atomically adds {@code bytes} to the in-memory retained bytes, unless that would reach {@code limit}.
+     * @return whether the bytes were added
+     */
+    public boolean tryAddInMemoryRetainedBytes(long bytes, long limit)
+    {
+        while (true) {
+            long current = inMemoryRetainedBytes.get();
+            if (current + bytes >= limit) {
+                return false;
+            }
+            if (inMemoryRetainedBytes.compareAndSet(current, current + bytes)) {
+                return true;
+            }
+        }
+    }
+
     @Managed
     public long getInMemoryRetainedBytes()
     {
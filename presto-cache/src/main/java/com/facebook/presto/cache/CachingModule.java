@@ -28,6 +28,7 @@ import static com.facebook.airlift.concurrent.Threads.daemonThreadsNamed;
 import static com.facebook.airlift.configuration.ConfigBinder.configBinder;
 import static com.facebook.presto.cache.CacheType.FILE_MERGE;
 import static com.google.inject.multibindings.Multibinder.newSetBinder;
+import static java.util.concurrent.Executors.newFixedThreadPool;
 import static java.util.concurrent.Executors.newScheduledThreadPool;
 import static org.weakref.jmx.guice.ExportBinder.newExporter;
 
@@ -60,7 +61,8 @@ public class CachingModule
                     cacheStats,
                     newScheduledThreadPool(5, daemonThreadsNamed("hive-cache-flusher-%s")),
                     newScheduledThreadPool(1, daemonThreadsNamed("hive-cache-remover-%s")),
-                    newScheduledThreadPool(1, daemonThreadsNamed("hive-cache-size-calculator-%s")));
+                    newScheduledThreadPool(1, daemonThreadsNamed("hive-cache-size-calculator-%s")),
+                    newFixedThreadPool(5, daemonThreadsNamed("hive-cache-read-ahead-%s")));
         }
         return new NoOpCacheManager();
     }
@@ -17,9 +17,11 @@ import com.facebook.airlift.configuration.Config;
 import com.facebook.airlift.configuration.ConfigDescription;
 import com.facebook.airlift.units.DataSize;
 import com.facebook.airlift.units.Duration;
+import com.facebook.airlift.units.MaxDataSize;
 import com.facebook.airlift.units.MinDuration;
 import jakarta.validation.constraints.Min;
 
+import static com.facebook.airlift.units.DataSize.Unit.BYTE;
 import static com.facebook.airlift.units.DataSize.Unit.GIGABYTE;
 import static java.util.concurrent.TimeUnit.DAYS;
 
@@ -28,6 +30,8 @@ public class FileMergeCacheConfig
     private int maxCachedEntries = 1_000;
     private Duration cacheTtl = new Duration(2, DAYS);
     private DataSize maxInMemoryCacheSize = new DataSize(2, GIGABYTE);
+    private int metadataShardCount = 16;
+    private DataSize readAheadSize = new DataSize(0, BYTE);
 
     @Min(1)
     public int getMaxCachedEntries()
@@ -69,4 +73,32 @@ public class FileMergeCacheConfig
         this.cacheTtl = cacheTtl;
         return this;
     }
+
+    @Min(1)
+    public int getMetadataShardCount()
+    {
+        return metadataShardCount;
+    }
+
+    @Config("cache.metadata-shard-count")
+    @ConfigDescription("Number of independently locked shards of the cached file metadata")
+    public FileMergeCacheConfig setMetadataShardCount(int metadataShardCount)
+    {
+        this.metadataShardCount = metadataShardCount;
+        return this;
+    }
+
+    @MaxDataSize("1GB")
+    public DataSize getReadAheadSize()
+    {
+        return readAheadSize;
+    }
+
+    @Config("cache.read-ahead-size")
+    @ConfigDescription("Amount of data following a cache miss to load into the cache in the background. Zero disables read-ahead")
+    public FileMergeCacheConfig setReadAheadSize(DataSize readAheadSize)
+    {
+        this.readAheadSize = readAheadSize;
+        return this;
+    }
 }
@@ -35,6 +35,7 @@ import io.airlift.slice.Slice;
 import jakarta.annotation.PreDestroy;
 import jakarta.inject.Inject;
 import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.fs.PositionedReadable;
 
 import java.io.File;
 import java.io.FileInputStream;
@@ -85,6 +86,7 @@ public class FileMergeCacheManager
     private final ExecutorService cacheFlushExecutor;
     private final ExecutorService cacheRemovalExecutor;
     private final ScheduledExecutorService cacheSizeCalculateExecutor;
+    private final ExecutorService cacheReadAheadExecutor;
 
     // a mapping from remote file `F` to a range map `M`; the corresponding local cache file for each range in `M` represents the cached chunk of `F`
     private final Map<Path, CacheRange> persistedRanges = new ConcurrentHashMap<>();
@@ -94,6 +96,8 @@ public class FileMergeCacheManager
     // CacheScope identifier to its cached files mapping
     private final Map<Long, Set<Path>> cacheScopeFiles = new ConcurrentHashMap<>();
     private final Map<Long, Long> cacheScopeSizeInBytes = new ConcurrentHashMap<>();
+    // requests queued for a background flush or read-ahead; concurrent misses on the same range are only persisted once
+    private final Set<FileReadRequest> inflightRequests = ConcurrentHashMap.newKeySet();
 
     // stats
     private final CacheStats stats;
@@ -101,6 +105,7 @@ public class FileMergeCacheManager
     // config
     private final Path baseDirectory;
     private final long maxInflightBytes;
+    private final int readAheadSize;
 
     @Inject
     public FileMergeCacheManager(
@@ -109,13 +114,17 @@ public class FileMergeCacheManager
             CacheStats stats,
             ExecutorService cacheFlushExecutor,
             ExecutorService cacheRemovalExecutor,
-            ScheduledExecutorService cacheSizeCalculateExecutor)
+            ScheduledExecutorService cacheSizeCalculateExecutor,
+            ExecutorService cacheReadAheadExecutor)
     {
         requireNonNull(cacheConfig, "directory is null");
         this.cacheFlushExecutor = cacheFlushExecutor;
         this.cacheRemovalExecutor = cacheRemovalExecutor;
         this.cacheSizeCalculateExecutor = cacheSizeCalculateExecutor;
+        this.cacheReadAheadExecutor = requireNonNull(cacheReadAheadExecutor, "cacheReadAheadExecutor is null");
+        // every read touches the cache, so its segments are the shards that spread the lock contention
         this.cache = CacheBuilder.newBuilder()
+                .concurrencyLevel(fileMergeCacheConfig.getMetadataShardCount())
                 .maximumSize(fileMergeCacheConfig.getMaxCachedEntries())
                 .expireAfterAccess(fileMergeCacheConfig.getCacheTtl().toMillis(), MILLISECONDS)
                 .removalListener(new CacheRemovalListener())
@@ -125,6 +134,7 @@ public class FileMergeCacheManager
         this.baseDirectory = new Path(cacheConfig.getBaseDirectory());
         checkArgument(fileMergeCacheConfig.getMaxInMemoryCacheSize().toBytes() >= 0, "maxInflightBytes is negative");
         this.maxInflightBytes = fileMergeCacheConfig.getMaxInMemoryCacheSize().toBytes();
+        this.readAheadSize = toIntExact(fileMergeCacheConfig.getReadAheadSize().toBytes());
 
         File target = new File(baseDirectory.toUri());
         if (!target.exists()) {
@@ -172,6 +182,7 @@ public class FileMergeCacheManager
         cacheFlushExecutor.shutdownNow();
         cacheRemovalExecutor.shutdownNow();
         cacheSizeCalculateExecutor.shutdownNow();
+        cacheReadAheadExecutor.shutdownNow();
         buffers.remove();
     }
 
@@ -238,8 +249,8 @@ public class FileMergeCacheManager
     @Override
     public void put(FileReadRequest key, Slice data, CacheQuota cacheQuota)
     {
-        if (stats.getInMemoryRetainedBytes() + data.length() >= maxInflightBytes) {
-            // cannot accept more requests
+        if (!reserve(key, data.length())) {
+            // cannot accept more requests, or the same range is already being persisted
             return;
         }
 
@@ -247,18 +258,105 @@ public class FileMergeCacheManager
         paths.add(key.getPath());
 
         // make a copy given the input data could be a reusable buffer
-        stats.addInMemoryRetainedBytes(data.length());
         byte[] copy = data.getBytes();
 
         cacheFlushExecutor.submit(() -> {
-            Path newFilePath = new Path(baseDirectory.toUri() + "/" + randomUUID() + EXTENSION);
-            if (!write(key, copy, newFilePath)) {
-                log.warn("%s Fail to persist cache %s with length %s ", Thread.currentThread().getName(), newFilePath, key.getLength());
+            try {
+                flush(key, copy);
+            }
+            finally {
+                release(key, copy.length);
             }
-            stats.addInMemoryRetainedBytes(-copy.length);
         });
     }
 
+    @Override
+    public void readAhead(FileReadRequest request, PositionedReadable source, CacheQuota cacheQuota)
+    {
+        if (readAheadSize == 0) {
+            return;
+        }
+
+        FileReadRequest key = new FileReadRequest(request.getPath(), request.getOffset() + request.getLength(), readAheadSize);
+        if (isCached(key) || ifExceedQuota(cacheQuota, key) || !reserve(key, readAheadSize)) {
+            return;
+        }
+
+        Set<Path> paths = cacheScopeFiles.computeIfAbsent(cacheQuota.getIdentifier(), k -> new ConcurrentHashSet<>());
+        paths.add(key.getPath());
+
+        cacheReadAheadExecutor.submit(() -> {
+            try {
+                byte[] data = new byte[readAheadSize];
+                int length = 0;
+                try {
+                    while (length < data.length) {
+                        int bytesRead = source.read(key.getOffset() + length, data, length, data.length - length);
+                        if (bytesRead <= 0) {
+                            // end of file
+                            break;
+                        }
+                        length += bytesRead;
+                    }
+                }
+                catch (IOException e) {
+                    // the stream is closed once the split that opened it finishes, so this is expected
+                    log.debug(e, "%s stopped reading ahead of %s at offset %s", Thread.currentThread().getName(), key.getPath(), key.getOffset() + length);
+                }
+
+                if (length > 0) {
+                    flush(new FileReadRequest(key.getPath(), key.getOffset(), length), length == data.length ? data : Arrays.copyOf(data, length));
+                }
+            }
+            finally {
+                release(key, readAheadSize);
+            }
+        });
+    }
+
+    private boolean reserve(FileReadRequest key, int length)
+    {
+        if (!inflightRequests.add(key)) {
+            return false;
+        }
+        if (!stats.tryAddInMemoryRetainedBytes(length, maxInflightBytes)) {
+            inflightRequests.remove(key);
+            return false;
+        }
+        return true;
+    }
+
+    private void release(FileReadRequest key, int length)
+    {
+        inflightRequests.remove(key);
+        stats.addInMemoryRetainedBytes(-length);
+    }
+
+    private void flush(FileReadRequest key, byte[] data)
+    {
+        Path newFilePath = new Path(baseDirectory.toUri() + "/" + randomUUID() + EXTENSION);
+        if (!write(key, data, newFilePath)) {
+            log.warn("%s Fail to persist cache %s with length %s ", Thread.currentThread().getName(), newFilePath, key.getLength());
+        }
+    }
+
+    private boolean isCached(FileReadRequest request)
+    {
+        CacheRange cacheRange = persistedRanges.get(request.getPath());
+        if (cacheRange == null) {
+            return false;
+        }
+
+        Lock readLock = cacheRange.getLock().readLock();
+        readLock.lock();
+        try {
+            return cacheRange.getRange().get(request.getOffset()) != null;
+        }
+        finally {
+            readLock.unlock();
+        }
+    }
+
     private boolean read(FileReadRequest request, byte[] buffer, int offset)
     {
         if (request.getLength() <= 0) {
@@ -67,6 +67,7 @@ public final class FileMergeCachingInputStream
             case MISS:
                 inputStream.readFully(position, buffer, offset, length);
                 cacheManager.put(key, wrappedBuffer(buffer, offset, length), cacheQuota);
+                cacheManager.readAhead(key, inputStream, cacheQuota);
                 return;
             case CACHE_QUOTA_EXCEED:
                 inputStream.readFully(position, buffer, offset, length);
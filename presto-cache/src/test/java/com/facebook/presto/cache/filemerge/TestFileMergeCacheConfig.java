@@ -23,6 +23,7 @@ import java.util.Map;
 import static com.facebook.airlift.configuration.testing.ConfigAssertions.assertFullMapping;
 import static com.facebook.airlift.configuration.testing.ConfigAssertions.assertRecordedDefaults;
 import static com.facebook.airlift.configuration.testing.ConfigAssertions.recordDefaults;
+import static com.facebook.airlift.units.DataSize.Unit.BYTE;
 import static com.facebook.airlift.units.DataSize.Unit.GIGABYTE;
 import static com.facebook.airlift.units.DataSize.Unit.MEGABYTE;
 import static java.util.concurrent.TimeUnit.DAYS;
@@ -36,7 +37,9 @@ public class TestFileMergeCacheConfig
         assertRecordedDefaults(recordDefaults(FileMergeCacheConfig.class)
                 .setMaxCachedEntries(1_000)
                 .setMaxInMemoryCacheSize(new DataSize(2, GIGABYTE))
-                .setCacheTtl(new Duration(2, DAYS)));
+                .setCacheTtl(new Duration(2, DAYS))
+                .setMetadataShardCount(16)
+                .setReadAheadSize(new DataSize(0, BYTE)));
     }
 
     @Test
@@ -46,12 +49,16 @@ public class TestFileMergeCacheConfig
                 .put("cache.max-cached-entries", "5")
                 .put("cache.max-in-memory-cache-size", "42MB")
                 .put("cache.ttl", "10s")
+                .put("cache.metadata-shard-count", "64")
+                .put("cache.read-ahead-size", "4MB")
                 .build();
 
         FileMergeCacheConfig expected = new FileMergeCacheConfig()
                 .setMaxCachedEntries(5)
                 .setMaxInMemoryCacheSize(new DataSize(42, MEGABYTE))
-                .setCacheTtl(new Duration(10, SECONDS));
+                .setCacheTtl(new Duration(10, SECONDS))
+                .setMetadataShardCount(64)
+                .setReadAheadSize(new DataSize(4, MEGABYTE));
         assertFullMapping(properties, expected);
     }
 }
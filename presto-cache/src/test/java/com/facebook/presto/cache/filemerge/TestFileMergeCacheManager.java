@@ -21,6 +21,9 @@ import com.facebook.presto.cache.CacheStats;
 import com.facebook.presto.cache.FileReadRequest;
 import com.facebook.presto.hive.CacheQuota;
 import com.google.common.util.concurrent.SettableFuture;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FSDataInputStream;
+import org.apache.hadoop.fs.FileSystem;
 import org.apache.hadoop.fs.Path;
 import org.testng.annotations.AfterClass;
 import org.testng.annotations.BeforeClass;
@@ -46,6 +49,7 @@ import static com.google.common.base.Preconditions.checkState;
 import static io.airlift.slice.Slices.wrappedBuffer;
 import static java.nio.file.Files.createTempDirectory;
 import static java.nio.file.StandardOpenOption.CREATE_NEW;
+import static java.util.concurrent.Executors.newFixedThreadPool;
 import static java.util.concurrent.Executors.newScheduledThreadPool;
 import static java.util.concurrent.TimeUnit.MILLISECONDS;
 import static org.testng.Assert.assertEquals;
@@ -60,6 +64,7 @@ public class TestFileMergeCacheManager
     private final ExecutorService flushExecutor = newScheduledThreadPool(5, daemonThreadsNamed("test-cache-flusher-%s"));
     private final ExecutorService removeExecutor = newScheduledThreadPool(5, daemonThreadsNamed("test-cache-remover-%s"));
     private final ScheduledExecutorService cacheSizeCalculator = newScheduledThreadPool(1, daemonThreadsNamed("hive-cache-size-calculator-%s"));
+    private final ExecutorService readAheadExecutor = newFixedThreadPool(5, daemonThreadsNamed("test-cache-read-ahead-%s"));
 
     private URI cacheDirectory;
     private URI fileDirectory;
@@ -84,6 +89,7 @@ public class TestFileMergeCacheManager
     {
         flushExecutor.shutdown();
         removeExecutor.shutdown();
+        readAheadExecutor.shutdown();
 
         checkState(cacheDirectory != null);
         checkState(fileDirectory != null);
@@ -203,16 +209,56 @@ public class TestFileMergeCacheManager
         validateBuffer(data, 47, buffer, 0, 90);
     }
 
+    @Test(timeOut = 30_000)
+    public void testReadAhead()
+            throws InterruptedException, ExecutionException, IOException
+    {
+        TestingCacheStats stats = new TestingCacheStats();
+        CacheManager cacheManager = fileMergeCacheManager(stats, new FileMergeCacheConfig().setReadAheadSize(new DataSize(1, KILOBYTE)));
+        byte[] buffer = new byte[1024];
+        Path path = new Path(dataFile.getAbsolutePath());
+
+        try (FSDataInputStream source = FileSystem.getLocal(new Configuration()).getRawFileSystem().open(path)) {
+            // the range following a miss is loaded in the background
+            assertFalse(readFully(cacheManager, NO_CACHE_CONSTRAINTS, 0, buffer, 0, 100));
+            stats.trigger();
+            cacheManager.readAhead(new FileReadRequest(path, 0, 100), source, NO_CACHE_CONSTRAINTS);
+            stats.trigger();
+            assertEquals(stats.getInMemoryRetainedBytes(), 0);
+
+            assertTrue(readFully(cacheManager, NO_CACHE_CONSTRAINTS, 100, buffer, 0, 1024));
+            assertEquals(stats.getCacheMiss(), 1);
+            assertEquals(stats.getCacheHit(), 1);
+            validateBuffer(data, 100, buffer, 0, 1024);
+
+            // reading ahead stops at the end of the file
+            assertFalse(readFully(cacheManager, NO_CACHE_CONSTRAINTS, DATA_LENGTH - 600, buffer, 0, 100));
+            stats.trigger();
+            cacheManager.readAhead(new FileReadRequest(path, DATA_LENGTH - 600, 100), source, NO_CACHE_CONSTRAINTS);
+            stats.trigger();
+            assertEquals(stats.getInMemoryRetainedBytes(), 0);
+
+            assertTrue(readFully(cacheManager, NO_CACHE_CONSTRAINTS, DATA_LENGTH - 500, buffer, 0, 500));
+            assertEquals(stats.getCacheMiss(), 2);
+            assertEquals(stats.getCacheHit(), 2);
+            validateBuffer(data, DATA_LENGTH - 500, buffer, 0, 500);
+        }
+    }
+
     private CacheManager fileMergeCacheManager(CacheConfig cacheConfig, FileMergeCacheConfig fileMergeCacheConfig)
     {
-        return new FileMergeCacheManager(cacheConfig, fileMergeCacheConfig, new CacheStats(), flushExecutor, removeExecutor, cacheSizeCalculator);
+        return new FileMergeCacheManager(cacheConfig, fileMergeCacheConfig, new CacheStats(), flushExecutor, removeExecutor, cacheSizeCalculator, readAheadExecutor);
     }
 
     private CacheManager fileMergeCacheManager(CacheStats cacheStats)
+    {
+        return fileMergeCacheManager(cacheStats, new FileMergeCacheConfig());
+    }
+
+    private CacheManager fileMergeCacheManager(CacheStats cacheStats, FileMergeCacheConfig fileMergeCacheConfig)
     {
         CacheConfig cacheConfig = new CacheConfig();
-        FileMergeCacheConfig fileMergeCacheConfig = new FileMergeCacheConfig();
-        return new FileMergeCacheManager(cacheConfig.setBaseDirectory(cacheDirectory), fileMergeCacheConfig, cacheStats, flushExecutor, removeExecutor, cacheSizeCalculator);
+        return new FileMergeCacheManager(cacheConfig.setBaseDirectory(cacheDirectory), fileMergeCacheConfig, cacheStats, flushExecutor, removeExecutor, cacheSizeCalculator, readAheadExecutor);
     }
 
     private boolean readFully(CacheManager cacheManager, CacheQuota cacheQuota, long position, byte[] buffer, int offset, int length)
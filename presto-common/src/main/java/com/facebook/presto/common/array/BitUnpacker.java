@@ -0,0 +1,163 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.common.array;
+
+import io.airlift.slice.Slice;
+
+import static io.airlift.slice.Slices.wrappedBuffer;
+import static java.lang.Math.min;
+import static java.lang.Math.toIntExact;
+import static java.lang.String.format;
+import static java.util.Arrays.fill;
+
+/**
+ * Bulk unpacking of fixed width bit packed integers. Values are extracted from unaligned 8 byte
+ * words, so a run is decoded with one load, one shift and one mask per value instead of one
+ * load per input byte. Only the values at the very end of the input array, where a whole word
+ * cannot be loaded, fall back to reading a byte at a time.
+ */
+public final class BitUnpacker
+{
+    private static final int SIZE_OF_LONG = Long.BYTES;
+
+    // the largest width for which a value, starting at any bit of a byte, fits in a single word
+    private static final int MAX_SINGLE_WORD_BIT_WIDTH = Long.SIZE - 7;
+
+    private BitUnpacker() {}
+
+    /**
+     * Returns the number of bytes used by {@code count} values packed with {@code bitWidth} bits each.
+     */
+    public static int packedLength(int count, int bitWidth)
+    {
+        return toIntExact(((long) count * bitWidth + 7) / 8);
+    }
+
+    /**
+     * Unpacks {@code count} values stored with their most significant bit first, as in the ORC
+     * run length encodings.
+     */
+    public static void unpackBigEndian(byte[] input, int inputOffset, long[] output, int outputOffset, int count, int bitWidth)
+    {
+        checkArguments(input, inputOffset, output.length, outputOffset, count, bitWidth, Long.SIZE);
+        if (bitWidth == 0) {
+            fill(output, outputOffset, outputOffset + count, 0);
+            return;
+        }
+
+        long mask = bitWidth == Long.SIZE ? -1L : (1L << bitWidth) - 1;
+        int position = 0;
+        long bitOffset = 0;
+        if (bitWidth <= MAX_SINGLE_WORD_BIT_WIDTH) {
+            // slices read words in little endian order
+            Slice slice = wrappedBuffer(input);
+            int wordCount = min(count, singleWordValueCount(input.length - inputOffset, bitWidth));
+            for (; position < wordCount; position++) {
+                long word = Long.reverseBytes(slice.getLong(inputOffset + (int) (bitOffset >>> 3)));
+                output[outputOffset + position] = (word >>> (Long.SIZE - bitWidth - (int) (bitOffset & 7))) & mask;
+                bitOffset += bitWidth;
+            }
+        }
+        for (; position < count; position++) {
+            output[outputOffset + position] = readBigEndian(input, inputOffset, bitOffset, bitWidth);
+            bitOffset += bitWidth;
+        }
+    }
+
+    /**
+     * Unpacks {@code count} values stored with their least significant bit first, as in the
+     * Parquet RLE/bit-packing hybrid encoding.
+     */
+    public static void unpackLittleEndian(byte[] input, int inputOffset, int[] output, int outputOffset, int count, int bitWidth)
+    {
+        checkArguments(input, inputOffset, output.length, outputOffset, count, bitWidth, Integer.SIZE);
+        if (bitWidth == 0) {
+            fill(output, outputOffset, outputOffset + count, 0);
+            return;
+        }
+
+        long mask = (1L << bitWidth) - 1;
+        int position = 0;
+        long bitOffset = 0;
+        Slice slice = wrappedBuffer(input);
+        int wordCount = min(count, singleWordValueCount(input.length - inputOffset, bitWidth));
+        for (; position < wordCount; position++) {
+            long word = slice.getLong(inputOffset + (int) (bitOffset >>> 3));
+            output[outputOffset + position] = (int) ((word >>> (bitOffset & 7)) & mask);
+            bitOffset += bitWidth;
+        }
+        for (; position < count; position++) {
+            output[outputOffset + position] = (int) readLittleEndian(input, inputOffset, bitOffset, bitWidth);
+            bitOffset += bitWidth;
+        }
+    }
+
+    private static void checkArguments(byte[] input, int inputOffset, int outputLength, int outputOffset, int count, int bitWidth, int maxBitWidth)
+    {
+        if (bitWidth < 0 || bitWidth > maxBitWidth) {
+            throw new IllegalArgumentException("bitWidth must be between 0 and " + maxBitWidth);
+        }
+        checkRange(inputOffset, packedLength(count, bitWidth), input.length);
+        checkRange(outputOffset, count, outputLength);
+    }
+
+    private static void checkRange(int offset, int length, int arrayLength)
+    {
+        if (offset < 0 || length < 0 || offset > arrayLength - length) {
+            throw new IndexOutOfBoundsException(format("Invalid offset %s and length %s in array with %s elements", offset, length, arrayLength));
+        }
+    }
+
+    // number of leading values whose first byte is followed by at least a whole word of input
+    private static int singleWordValueCount(int inputLength, int bitWidth)
+    {
+        long lastWordOffset = inputLength - SIZE_OF_LONG;
+        if (lastWordOffset < 0) {
+            return 0;
+        }
+        return toIntExact(min(Integer.MAX_VALUE, lastWordOffset * 8 / bitWidth + 1));
+    }
+
+    private static long readBigEndian(byte[] input, int inputOffset, long bitOffset, int bitWidth)
+    {
+        int index = inputOffset + (int) (bitOffset >>> 3);
+        int bitsAvailable = 8 - (int) (bitOffset & 7);
+        int bitsRemaining = bitWidth;
+        long value = 0;
+        while (bitsRemaining > 0) {
+            int bits = min(bitsAvailable, bitsRemaining);
+            value = (value << bits) | (((input[index] & 0xFF) >>> (bitsAvailable - bits)) & ((1 << bits) - 1));
+            bitsRemaining -= bits;
+            bitsAvailable = 8;
+            index++;
+        }
+        return value;
+    }
+
+    private static long readLittleEndian(byte[] input, int inputOffset, long bitOffset, int bitWidth)
+    {
+        int index = inputOffset + (int) (bitOffset >>> 3);
+        int bitsSkipped = (int) (bitOffset & 7);
+        int shift = 0;
+        long value = 0;
+        while (shift < bitWidth) {
+            int bits = min(8 - bitsSkipped, bitWidth - shift);
+            value |= (long) (((input[index] & 0xFF) >>> bitsSkipped) & ((1 << bits) - 1)) << shift;
+            shift += bits;
+            bitsSkipped = 0;
+            index++;
+        }
+        return value;
+    }
+}
@@ -17,9 +17,11 @@ import io.airlift.slice.Slice;
 import io.airlift.slice.SliceOutput;
 import org.openjdk.jol.info.ClassLayout;
 
+import java.util.Arrays;
 import java.util.OptionalInt;
 import java.util.function.ObjLongConsumer;
 
+import static com.facebook.presto.common.block.BlockUtil.checkArrayRange;
 import static java.util.Objects.requireNonNull;
 
 public class LazyBlock
@@ -31,6 +33,8 @@ public class LazyBlock
     private LazyBlockLoader<LazyBlock> loader;
 
     private Block block;
+    // the block returned by getPositionsLazily, when this block was loaded selectively
+    private LazyBlock selectedPositionsBlock;
 
     public LazyBlock(int positionCount, LazyBlockLoader<LazyBlock> loader)
     {
@@ -298,6 +302,48 @@ public class LazyBlock
         return block != null;
     }
 
+    /**
+     * Returns whether positions of this block can be loaded without decoding the whole block.
+     */
+    public boolean isSelectivelyLoadable()
+    {
+        return block == null && loader instanceof SelectiveLazyBlockLoader;
+    }
+
+    /**
+     * Returns a lazy block over the given positions of this block. When this block is selectively
+     * loadable, only those positions are decoded, and this block itself can no longer be loaded.
+     */
+    public LazyBlock getPositionsLazily(int[] positions, int offset, int length)
+    {
+        checkArrayRange(positions, offset, length);
+        int[] selectedPositions = Arrays.copyOfRange(positions, offset, offset + length);
+        if (!isSelectivelyLoadable()) {
+            return new LazyBlock(length, lazyBlock -> lazyBlock.setBlock(getPositions(selectedPositions, 0, length)));
+        }
+
+        SelectiveLazyBlockLoader selectiveLoader = (SelectiveLazyBlockLoader) loader;
+        loader = lazyBlock -> {
+            throw new IllegalStateException("Lazy block was already loaded for a subset of its positions");
+        };
+        selectedPositionsBlock = new LazyBlock(length, lazyBlock -> lazyBlock.setBlock(selectiveLoader.load(selectedPositions, length)));
+        return selectedPositionsBlock;
+    }
+
+    /**
+     * Reads everything this block may still need from its source: the block itself, or only the
+     * selected positions when it was loaded with {@link #getPositionsLazily}. Producers call this
+     * before the data backing the block becomes unavailable.
+     */
+    public void loadFromSource()
+    {
+        if (selectedPositionsBlock != null) {
+            selectedPositionsBlock.loadFromSource();
+            return;
+        }
+        assureLoaded();
+    }
+
     @Override
     public Block getLoadedBlock()
     {
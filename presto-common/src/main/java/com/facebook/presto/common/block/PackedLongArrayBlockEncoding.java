@@ -0,0 +1,226 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.common.block;
+
+import io.airlift.slice.Slice;
+import io.airlift.slice.SliceInput;
+import io.airlift.slice.SliceOutput;
+import io.airlift.slice.Slices;
+
+import static com.facebook.presto.common.array.BitUnpacker.packedLength;
+import static com.facebook.presto.common.array.BitUnpacker.unpackBigEndian;
+import static com.facebook.presto.common.block.EncoderUtil.decodeNullBits;
+import static com.facebook.presto.common.block.EncoderUtil.encodeNullsAsBits;
+import static java.lang.Math.min;
+import static java.lang.String.format;
+
+/**
+ * Long array encoding for exchanges, where the non-null values of a block are written either as is,
+ * as bit packed offsets from the smallest value (frame of reference), or as bit packed differences
+ * between consecutive values (delta), whichever is smallest. A block with a single distinct value
+ * packs to zero bits per value. Blocks are always read back as {@link LongArrayBlock}.
+ */
+public class PackedLongArrayBlockEncoding
+        implements BlockEncoding
+{
+    public static final String NAME = "LONG_ARRAY_PACKED";
+
+    private static final byte PLAIN = 0;
+    private static final byte FRAME_OF_REFERENCE = 1;
+    private static final byte DELTA = 2;
+
+    @Override
+    public String getName()
+    {
+        return NAME;
+    }
+
+    @Override
+    public void writeBlock(BlockEncodingSerde blockEncodingSerde, SliceOutput sliceOutput, Block block)
+    {
+        int positionCount = block.getPositionCount();
+        sliceOutput.appendInt(positionCount);
+
+        encodeNullsAsBits(sliceOutput, block);
+
+        long[] values = new long[positionCount];
+        int valueCount = 0;
+        boolean mayHaveNull = block.mayHaveNull();
+        for (int position = 0; position < positionCount; position++) {
+            if (!mayHaveNull || !block.isNull(position)) {
+                values[valueCount++] = block.getLong(position);
+            }
+        }
+        writeValues(sliceOutput, Slices.wrappedLongArray(values, 0, valueCount), valueCount);
+    }
+
+    @Override
+    public Block readBlock(BlockEncodingSerde blockEncodingSerde, SliceInput sliceInput)
+    {
+        int positionCount = sliceInput.readInt();
+
+        boolean[] valueIsNull = decodeNullBits(sliceInput, positionCount).orElse(null);
+        int valueCount = positionCount;
+        if (valueIsNull != null) {
+            for (boolean isNull : valueIsNull) {
+                if (isNull) {
+                    valueCount--;
+                }
+            }
+        }
+
+        long[] values = new long[positionCount];
+        readValues(sliceInput, values, valueCount);
+        if (valueIsNull != null) {
+            // spread the non-null values, which are at the start of the array, over their positions
+            int valueIndex = valueCount - 1;
+            for (int position = positionCount - 1; position >= 0; position--) {
+                if (!valueIsNull[position]) {
+                    values[position] = values[valueIndex--];
+                }
+                else {
+                    values[position] = 0;
+                }
+            }
+        }
+
+        return new LongArrayBlock(0, positionCount, valueIsNull, values);
+    }
+
+    /**
+     * Writes {@code valueCount} longs stored in native byte order in {@code values}.
+     */
+    public static void writeValues(SliceOutput output, Slice values, int valueCount)
+    {
+        if (valueCount == 0) {
+            output.writeByte(PLAIN);
+            return;
+        }
+
+        long first = values.getLong(0);
+        long minValue = first;
+        long maxValue = first;
+        long minDelta = Long.MAX_VALUE;
+        long maxDelta = Long.MIN_VALUE;
+        long previous = first;
+        for (int i = 1; i < valueCount; i++) {
+            long value = values.getLong(i * Long.BYTES);
+            minValue = Math.min(minValue, value);
+            maxValue = Math.max(maxValue, value);
+            long delta = value - previous;
+            minDelta = Math.min(minDelta, delta);
+            maxDelta = Math.max(maxDelta, delta);
+            previous = value;
+        }
+
+        int frameOfReferenceBitWidth = bitWidth(maxValue - minValue);
+        long plainSize = (long) valueCount * Long.BYTES;
+        long frameOfReferenceSize = Long.BYTES + Byte.BYTES + packedLength(valueCount, frameOfReferenceBitWidth);
+        long deltaSize = Long.MAX_VALUE;
+        int deltaBitWidth = 0;
+        if (valueCount > 1) {
+            deltaBitWidth = bitWidth(maxDelta - minDelta);
+            deltaSize = 2 * Long.BYTES + Byte.BYTES + packedLength(valueCount - 1, deltaBitWidth);
+        }
+
+        if (plainSize <= frameOfReferenceSize && plainSize <= deltaSize) {
+            output.writeByte(PLAIN);
+            output.writeBytes(values, 0, valueCount * Long.BYTES);
+        }
+        else if (frameOfReferenceSize <= deltaSize) {
+            output.writeByte(FRAME_OF_REFERENCE);
+            output.writeLong(minValue);
+            output.writeByte(frameOfReferenceBitWidth);
+            byte[] packed = new byte[packedLength(valueCount, frameOfReferenceBitWidth)];
+            long bitOffset = 0;
+            for (int i = 0; i < valueCount; i++) {
+                packBigEndian(packed, bitOffset, values.getLong(i * Long.BYTES) - minValue, frameOfReferenceBitWidth);
+                bitOffset += frameOfReferenceBitWidth;
+            }
+            output.writeBytes(packed);
+        }
+        else {
+            output.writeByte(DELTA);
+            output.writeLong(first);
+            output.writeLong(minDelta);
+            output.writeByte(deltaBitWidth);
+            byte[] packed = new byte[packedLength(valueCount - 1, deltaBitWidth)];
+            long bitOffset = 0;
+            previous = first;
+            for (int i = 1; i < valueCount; i++) {
+                long value = values.getLong(i * Long.BYTES);
+                packBigEndian(packed, bitOffset, value - previous - minDelta, deltaBitWidth);
+                bitOffset += deltaBitWidth;
+                previous = value;
+            }
+            output.writeBytes(packed);
+        }
+    }
+
+    private static void readValues(SliceInput input, long[] values, int valueCount)
+    {
+        byte mode = input.readByte();
+        switch (mode) {
+            case PLAIN:
+                input.readBytes(Slices.wrappedLongArray(values, 0, valueCount));
+                return;
+            case FRAME_OF_REFERENCE: {
+                long minValue = input.readLong();
+                int bitWidth = input.readByte();
+                byte[] packed = new byte[packedLength(valueCount, bitWidth)];
+                input.readBytes(packed);
+                unpackBigEndian(packed, 0, values, 0, valueCount, bitWidth);
+                for (int i = 0; i < valueCount; i++) {
+                    values[i] += minValue;
+                }
+                return;
+            }
+            case DELTA: {
+                long first = input.readLong();
+                long minDelta = input.readLong();
+                int bitWidth = input.readByte();
+                byte[] packed = new byte[packedLength(valueCount - 1, bitWidth)];
+                input.readBytes(packed);
+                unpackBigEndian(packed, 0, values, 1, valueCount - 1, bitWidth);
+                values[0] = first;
+                for (int i = 1; i < valueCount; i++) {
+                    values[i] += values[i - 1] + minDelta;
+                }
+                return;
+            }
+            default:
+                throw new IllegalArgumentException(format("Unknown packed long array mode %s", mode));
+        }
+    }
+
+    // number of bits of the value when read as unsigned
+    private static int bitWidth(long value)
+    {
+        return Long.SIZE - Long.numberOfLeadingZeros(value);
+    }
+
+    private static void packBigEndian(byte[] output, long bitOffset, long value, int bitWidth)
+    {
+        int remaining = bitWidth;
+        while (remaining > 0) {
+            int index = (int) (bitOffset >>> 3);
+            int free = 8 - (int) (bitOffset & 7);
+            int bits = min(free, remaining);
+            int chunk = (int) ((value >>> (remaining - bits)) & ((1 << bits) - 1));
+            output[index] |= (byte) (chunk << (free - bits));
+            remaining -= bits;
+            bitOffset += bits;
+        }
+    }
+}
@@ -0,0 +1,27 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.common.block;
+
+/**
+ * A loader that can decode a subset of the positions of a lazy block without decoding the others.
+ * Only one of {@link #load(LazyBlock)} and {@link #load(int[], int)} may be called, and only once.
+ */
+public interface SelectiveLazyBlockLoader
+        extends LazyBlockLoader<LazyBlock>
+{
+    /**
+     * Returns a block holding the values at the given positions, which are in ascending order.
+     */
+    Block load(int[] positions, int positionCount);
+}
@@ -0,0 +1,140 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.common.predicate;
+
+import io.airlift.slice.Slice;
+import io.airlift.slice.Slices;
+import io.airlift.slice.XxHash64;
+import org.openjdk.jol.info.ClassLayout;
+
+import static com.facebook.presto.common.predicate.TupleDomainFilterUtils.checkArgument;
+import static io.airlift.slice.SizeOf.sizeOf;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * A Bloom filter over 64 bit hashes, split into blocks of 512 bits.
+ * <p>
+ * The upper half of a hash selects a block and the lower half sets one bit in each of the
+ * eight words of that block, so adding or testing a value touches a single cache line.
+ * With the default of 16 bits per expected value the false positive rate is below 1%.
+ * <p>
+ * Values are added with {@link #put(long)} while the filter is being built by a single thread.
+ * Once published, the filter is only read and can be shared between threads.
+ */
+public final class BlockedBloomFilter
+{
+    private static final int INSTANCE_SIZE = ClassLayout.parseClass(BlockedBloomFilter.class).instanceSize();
+
+    private static final int WORDS_PER_BLOCK = 8;
+    private static final int BITS_PER_BLOCK = WORDS_PER_BLOCK * Long.SIZE;
+    private static final int DEFAULT_BITS_PER_VALUE = 16;
+    private static final int[] SALT = {0x47b6137b, 0x44974d91, 0x8824ad5b, 0xa2b7289d, 0x705495c7, 0x2df1424b, 0x9efc4947, 0x5c6bfb31};
+
+    private final long[] words;
+    private final int blockCount;
+
+    private BlockedBloomFilter(long[] words)
+    {
+        this.words = requireNonNull(words, "words is null");
+        this.blockCount = words.length / WORDS_PER_BLOCK;
+    }
+
+    /**
+     * Creates an empty filter sized for {@code expectedValues} distinct values. Filters created for the same
+     * number of expected values have the same size and can be combined with {@link #union}.
+     */
+    public static BlockedBloomFilter create(long expectedValues)
+    {
+        checkArgument(expectedValues > 0, "expectedValues must be positive");
+        long blockCount = (expectedValues * DEFAULT_BITS_PER_VALUE + BITS_PER_BLOCK - 1) / BITS_PER_BLOCK;
+        checkArgument(blockCount * WORDS_PER_BLOCK <= Integer.MAX_VALUE, "expectedValues is too large");
+        return new BlockedBloomFilter(new long[(int) blockCount * WORDS_PER_BLOCK]);
+    }
+
+    public static long hashLong(long value)
+    {
+        return XxHash64.hash(value);
+    }
+
+    public static long hashBytes(byte[] buffer, int offset, int length)
+    {
+        return XxHash64.hash(Slices.wrappedBuffer(buffer), offset, length);
+    }
+
+    public static long hashSlice(Slice slice)
+    {
+        return XxHash64.hash(slice);
+    }
+
+    public void put(long hash)
+    {
+        int block = blockOffset(hash);
+        int key = (int) hash;
+        for (int i = 0; i < WORDS_PER_BLOCK; i++) {
+            words[block + i] |= 1L << ((key * SALT[i]) >>> 26);
+        }
+    }
+
+    public boolean mightContain(long hash)
+    {
+        int block = blockOffset(hash);
+        int key = (int) hash;
+        for (int i = 0; i < WORDS_PER_BLOCK; i++) {
+            if ((words[block + i] & (1L << ((key * SALT[i]) >>> 26))) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public boolean mightContainLong(long value)
+    {
+        return mightContain(hashLong(value));
+    }
+
+    public boolean mightContainBytes(byte[] buffer, int offset, int length)
+    {
+        return mightContain(hashBytes(buffer, offset, length));
+    }
+
+    /**
+     * Returns a filter that contains the values of both filters, which must have the same size.
+     */
+    public BlockedBloomFilter union(BlockedBloomFilter other)
+    {
+        checkArgument(words.length == other.words.length, "Bloom filters of different sizes cannot be combined");
+        long[] union = new long[words.length];
+        for (int i = 0; i < words.length; i++) {
+            union[i] = words[i] | other.words[i];
+        }
+        return new BlockedBloomFilter(union);
+    }
+
+    public long getRetainedSizeInBytes()
+    {
+        return INSTANCE_SIZE + sizeOf(words);
+    }
+
+    private int blockOffset(long hash)
+    {
+        // map the upper half of the hash to [0, blockCount) without a division
+        return (int) (((hash >>> 32) * blockCount) >>> 32) * WORDS_PER_BLOCK;
+    }
+
+    @Override
+    public String toString()
+    {
+        return "BlockedBloomFilter{blockCount=" + blockCount + "}";
+    }
+}
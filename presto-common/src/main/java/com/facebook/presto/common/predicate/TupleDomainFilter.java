@@ -1322,6 +1322,86 @@ public interface TupleDomainFilter
         }
     }
 
+    /**
+     * Combines a filter on a column with a {@link BlockedBloomFilter} of the values the column may take,
+     * e.g. the build side keys of a join. Nulls never pass.
+     */
+    class BloomFilterValues
+            extends AbstractTupleDomainFilter
+    {
+        private final BlockedBloomFilter bloomFilter;
+        private final TupleDomainFilter filter;
+
+        private BloomFilterValues(BlockedBloomFilter bloomFilter, TupleDomainFilter filter)
+        {
+            super(filter.isDeterministic(), false);
+            this.bloomFilter = requireNonNull(bloomFilter, "bloomFilter is null");
+            this.filter = requireNonNull(filter, "filter is null");
+        }
+
+        public static BloomFilterValues of(BlockedBloomFilter bloomFilter, TupleDomainFilter filter)
+        {
+            return new BloomFilterValues(bloomFilter, filter);
+        }
+
+        @Override
+        public boolean testNonNull()
+        {
+            return filter.testNonNull();
+        }
+
+        @Override
+        public boolean testLong(long value)
+        {
+            return filter.testLong(value) && bloomFilter.mightContainLong(value);
+        }
+
+        @Override
+        public boolean testBytes(byte[] buffer, int offset, int length)
+        {
+            return filter.testBytes(buffer, offset, length) && bloomFilter.mightContainBytes(buffer, offset, length);
+        }
+
+        @Override
+        public boolean testLength(int length)
+        {
+            return filter.testLength(length);
+        }
+
+        @Override
+        public boolean equals(Object o)
+        {
+            if (this == o) {
+                return true;
+            }
+
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+
+            BloomFilterValues that = (BloomFilterValues) o;
+            return bloomFilter == that.bloomFilter &&
+                    filter.equals(that.filter);
+        }
+
+        @Override
+        public int hashCode()
+        {
+            return Objects.hash(System.identityHashCode(bloomFilter), filter);
+        }
+
+        @Override
+        public String toString()
+        {
+            StringBuilder sb = new StringBuilder(this.getClass().getName());
+            sb.append("{bloomFilter=").append(bloomFilter);
+            sb.append(", filter=").append(filter);
+            sb.append("}");
+
+            return sb.toString();
+        }
+    }
+
     class BigintMultiRange
             extends AbstractTupleDomainFilter
     {
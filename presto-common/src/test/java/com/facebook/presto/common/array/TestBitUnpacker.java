@@ -0,0 +1,106 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.common.array;
+
+import org.testng.annotations.Test;
+
+import java.util.Random;
+
+import static com.facebook.presto.common.array.BitUnpacker.packedLength;
+import static com.facebook.presto.common.array.BitUnpacker.unpackBigEndian;
+import static com.facebook.presto.common.array.BitUnpacker.unpackLittleEndian;
+import static java.lang.String.format;
+import static org.testng.Assert.assertEquals;
+
+public class TestBitUnpacker
+{
+    private static final int MAX_LENGTH = 130;
+    private static final int INPUT_OFFSET = 3;
+    private static final int OUTPUT_OFFSET = 2;
+
+    @Test
+    public void testPackedLength()
+    {
+        assertEquals(packedLength(0, 7), 0);
+        assertEquals(packedLength(1, 1), 1);
+        assertEquals(packedLength(8, 1), 1);
+        assertEquals(packedLength(9, 1), 2);
+        assertEquals(packedLength(3, 13), 5);
+        assertEquals(packedLength(512, 64), 4096);
+    }
+
+    @Test
+    public void testUnpackBigEndian()
+    {
+        Random random = new Random(0);
+        for (int bitWidth = 0; bitWidth <= 64; bitWidth++) {
+            for (int length = 0; length < MAX_LENGTH; length++) {
+                // the input is sized exactly, so the values at the end exercise the byte at a time path
+                byte[] input = new byte[INPUT_OFFSET + packedLength(length, bitWidth)];
+                random.nextBytes(input);
+
+                long[] actual = new long[OUTPUT_OFFSET + length];
+                unpackBigEndian(input, INPUT_OFFSET, actual, OUTPUT_OFFSET, length, bitWidth);
+                for (int i = 0; i < length; i++) {
+                    long expected = 0;
+                    for (int bit = 0; bit < bitWidth; bit++) {
+                        expected = (expected << 1) | getBit(input, INPUT_OFFSET, (long) i * bitWidth + bit, true);
+                    }
+                    assertEquals(actual[OUTPUT_OFFSET + i], expected, format("index = %s, length = %s, width = %s", i, length, bitWidth));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testUnpackLittleEndian()
+    {
+        Random random = new Random(0);
+        for (int bitWidth = 0; bitWidth <= 32; bitWidth++) {
+            for (int length = 0; length < MAX_LENGTH; length++) {
+                byte[] input = new byte[INPUT_OFFSET + packedLength(length, bitWidth)];
+                random.nextBytes(input);
+
+                int[] actual = new int[OUTPUT_OFFSET + length];
+                unpackLittleEndian(input, INPUT_OFFSET, actual, OUTPUT_OFFSET, length, bitWidth);
+                for (int i = 0; i < length; i++) {
+                    long expected = 0;
+                    for (int bit = 0; bit < bitWidth; bit++) {
+                        expected |= getBit(input, INPUT_OFFSET, (long) i * bitWidth + bit, false) << bit;
+                    }
+                    assertEquals(actual[OUTPUT_OFFSET + i], (int) expected, format("index = %s, length = %s, width = %s", i, length, bitWidth));
+                }
+            }
+        }
+    }
+
+    @Test(expectedExceptions = IndexOutOfBoundsException.class)
+    public void testInputTooShort()
+    {
+        unpackLittleEndian(new byte[3], 0, new int[8], 0, 8, 4);
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void testInvalidBitWidth()
+    {
+        unpackLittleEndian(new byte[64], 0, new int[8], 0, 8, 33);
+    }
+
+    private static long getBit(byte[] input, int offset, long bitOffset, boolean mostSignificantBitFirst)
+    {
+        int value = input[offset + (int) (bitOffset >>> 3)] & 0xFF;
+        int bit = (int) (bitOffset & 7);
+        return (value >>> (mostSignificantBitFirst ? 7 - bit : bit)) & 1;
+    }
+}
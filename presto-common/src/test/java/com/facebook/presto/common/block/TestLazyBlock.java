@@ -0,0 +1,101 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.common.block;
+
+import org.testng.annotations.Test;
+
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+public class TestLazyBlock
+{
+    private static final long[] VALUES = {10, 11, 12, 13, 14, 15};
+
+    @Test
+    public void testGetPositionsLazily()
+    {
+        AtomicInteger loads = new AtomicInteger();
+        LazyBlock block = new LazyBlock(VALUES.length, lazyBlock -> {
+            loads.incrementAndGet();
+            lazyBlock.setBlock(new LongArrayBlock(VALUES.length, Optional.empty(), VALUES));
+        });
+        assertFalse(block.isSelectivelyLoadable());
+
+        LazyBlock positions = block.getPositionsLazily(new int[] {0, 2, 5, 1}, 1, 2);
+        assertEquals(loads.get(), 0);
+        assertEquals(positions.getPositionCount(), 2);
+        assertEquals(positions.getLong(0), 12);
+        assertEquals(positions.getLong(1), 15);
+        assertEquals(loads.get(), 1);
+
+        // the block itself is still usable
+        assertEquals(block.getLong(3), 13);
+        assertEquals(loads.get(), 1);
+    }
+
+    @Test
+    public void testGetPositionsLazilySelective()
+    {
+        TestingSelectiveLoader loader = new TestingSelectiveLoader();
+        LazyBlock block = new LazyBlock(VALUES.length, loader);
+        assertTrue(block.isSelectivelyLoadable());
+
+        LazyBlock positions = block.getPositionsLazily(new int[] {1, 4}, 0, 2);
+        assertFalse(block.isSelectivelyLoadable());
+        assertEquals(loader.loadedPositionCount, -1);
+
+        block.loadFromSource();
+        assertTrue(positions.isLoaded());
+        assertFalse(block.isLoaded());
+        assertEquals(loader.loadedPositionCount, 2);
+        assertEquals(positions.getLong(0), 11);
+        assertEquals(positions.getLong(1), 14);
+    }
+
+    @Test(expectedExceptions = IllegalStateException.class, expectedExceptionsMessageRegExp = "Lazy block was already loaded for a subset of its positions")
+    public void testLoadAfterSelectiveLoad()
+    {
+        LazyBlock block = new LazyBlock(VALUES.length, new TestingSelectiveLoader());
+        block.getPositionsLazily(new int[] {1}, 0, 1);
+        block.getLong(0);
+    }
+
+    private static class TestingSelectiveLoader
+            implements SelectiveLazyBlockLoader
+    {
+        private int loadedPositionCount = -1;
+
+        @Override
+        public void load(LazyBlock block)
+        {
+            loadedPositionCount = VALUES.length;
+            block.setBlock(new LongArrayBlock(VALUES.length, Optional.empty(), VALUES));
+        }
+
+        @Override
+        public Block load(int[] positions, int positionCount)
+        {
+            loadedPositionCount = positionCount;
+            long[] values = new long[positionCount];
+            for (int i = 0; i < positionCount; i++) {
+                values[i] = VALUES[positions[i]];
+            }
+            return new LongArrayBlock(positionCount, Optional.empty(), values);
+        }
+    }
+}
@@ -0,0 +1,124 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.common.block;
+
+import io.airlift.slice.DynamicSliceOutput;
+import io.airlift.slice.Slice;
+import org.testng.annotations.Test;
+
+import java.util.Optional;
+import java.util.Random;
+
+import static java.util.Arrays.fill;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+public class TestPackedLongArrayBlockEncoding
+{
+    private static final int POSITION_COUNT = 1000;
+
+    private final BlockEncoding encoding = new PackedLongArrayBlockEncoding();
+    private final BlockEncodingSerde blockEncodingSerde = new TestingBlockEncodingSerde();
+
+    @Test
+    public void testConstant()
+    {
+        long[] values = new long[POSITION_COUNT];
+        fill(values, 42);
+        Slice serialized = assertRoundTrip(values, null);
+        // header, null flag, mode, base and bit width
+        assertEquals(serialized.length(), Integer.BYTES + 1 + 1 + Long.BYTES + 1);
+    }
+
+    @Test
+    public void testFrameOfReference()
+    {
+        Random random = new Random(0);
+        long[] values = new long[POSITION_COUNT];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = 1_000_000_000L + random.nextInt(1000);
+        }
+        Slice serialized = assertRoundTrip(values, null);
+        assertTrue(serialized.length() < POSITION_COUNT * 2);
+    }
+
+    @Test
+    public void testDelta()
+    {
+        Random random = new Random(0);
+        long[] values = new long[POSITION_COUNT];
+        long timestamp = 1_600_000_000_000L;
+        for (int i = 0; i < values.length; i++) {
+            timestamp += random.nextInt(16);
+            values[i] = timestamp;
+        }
+        Slice serialized = assertRoundTrip(values, null);
+        assertTrue(serialized.length() < POSITION_COUNT);
+    }
+
+    @Test
+    public void testPlain()
+    {
+        Random random = new Random(0);
+        long[] values = new long[POSITION_COUNT];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = random.nextLong();
+        }
+        values[0] = Long.MIN_VALUE;
+        values[1] = Long.MAX_VALUE;
+        Slice serialized = assertRoundTrip(values, null);
+        assertEquals(serialized.length(), Integer.BYTES + 1 + 1 + POSITION_COUNT * Long.BYTES);
+    }
+
+    @Test
+    public void testNulls()
+    {
+        Random random = new Random(0);
+        long[] values = new long[POSITION_COUNT];
+        boolean[] valueIsNull = new boolean[POSITION_COUNT];
+        for (int i = 0; i < values.length; i++) {
+            valueIsNull[i] = random.nextInt(3) == 0;
+            values[i] = valueIsNull[i] ? 0 : i * 3L;
+        }
+        assertRoundTrip(values, valueIsNull);
+
+        boolean[] allNull = new boolean[10];
+        fill(allNull, true);
+        assertRoundTrip(new long[10], allNull);
+    }
+
+    @Test
+    public void testEmpty()
+    {
+        assertRoundTrip(new long[0], null);
+    }
+
+    private Slice assertRoundTrip(long[] values, boolean[] valueIsNull)
+    {
+        Block expected = new LongArrayBlock(values.length, Optional.ofNullable(valueIsNull), values);
+        DynamicSliceOutput output = new DynamicSliceOutput(1024);
+        encoding.writeBlock(blockEncodingSerde, output, expected);
+        Slice serialized = output.slice();
+
+        Block actual = encoding.readBlock(blockEncodingSerde, serialized.getInput());
+        assertEquals(actual.getPositionCount(), expected.getPositionCount());
+        for (int position = 0; position < expected.getPositionCount(); position++) {
+            assertEquals(actual.isNull(position), expected.isNull(position));
+            if (!expected.isNull(position)) {
+                assertEquals(actual.getLong(position), expected.getLong(position));
+            }
+        }
+        return serialized;
+    }
+}
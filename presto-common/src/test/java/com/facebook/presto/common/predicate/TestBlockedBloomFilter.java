@@ -0,0 +1,78 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.common.predicate;
+
+import org.testng.annotations.Test;
+
+import static io.airlift.slice.Slices.utf8Slice;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+public class TestBlockedBloomFilter
+{
+    @Test
+    public void testLongs()
+    {
+        BlockedBloomFilter filter = BlockedBloomFilter.create(10_000);
+        for (long value = 0; value < 10_000; value++) {
+            filter.put(BlockedBloomFilter.hashLong(value * 7));
+        }
+        for (long value = 0; value < 10_000; value++) {
+            assertTrue(filter.mightContainLong(value * 7));
+        }
+
+        int falsePositives = 0;
+        for (long value = 0; value < 100_000; value++) {
+            if (filter.mightContainLong(-value - 1)) {
+                falsePositives++;
+            }
+        }
+        assertTrue(falsePositives < 2_000, "false positive rate is too high: " + falsePositives);
+    }
+
+    @Test
+    public void testBytes()
+    {
+        BlockedBloomFilter filter = BlockedBloomFilter.create(100);
+        for (int i = 0; i < 100; i++) {
+            filter.put(BlockedBloomFilter.hashSlice(utf8Slice("value" + i)));
+        }
+        for (int i = 0; i < 100; i++) {
+            byte[] bytes = ("prefix-value" + i).getBytes(UTF_8);
+            assertTrue(filter.mightContainBytes(bytes, 7, bytes.length - 7));
+        }
+    }
+
+    @Test
+    public void testUnion()
+    {
+        BlockedBloomFilter left = BlockedBloomFilter.create(1_000);
+        BlockedBloomFilter right = BlockedBloomFilter.create(1_000);
+        left.put(BlockedBloomFilter.hashLong(1));
+        right.put(BlockedBloomFilter.hashLong(2));
+
+        BlockedBloomFilter union = left.union(right);
+        assertTrue(union.mightContainLong(1));
+        assertTrue(union.mightContainLong(2));
+        assertFalse(left.mightContainLong(2));
+        assertFalse(right.mightContainLong(1));
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void testUnionOfDifferentSizes()
+    {
+        BlockedBloomFilter.create(1_000).union(BlockedBloomFilter.create(10_000));
+    }
+}
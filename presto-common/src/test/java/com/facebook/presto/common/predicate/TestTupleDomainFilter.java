@@ -17,6 +17,7 @@ import com.facebook.presto.common.predicate.TupleDomainFilter.BigintMultiRange;
 import com.facebook.presto.common.predicate.TupleDomainFilter.BigintRange;
 import com.facebook.presto.common.predicate.TupleDomainFilter.BigintValuesUsingBitmask;
 import com.facebook.presto.common.predicate.TupleDomainFilter.BigintValuesUsingHashTable;
+import com.facebook.presto.common.predicate.TupleDomainFilter.BloomFilterValues;
 import com.facebook.presto.common.predicate.TupleDomainFilter.BooleanValue;
 import com.facebook.presto.common.predicate.TupleDomainFilter.BytesRange;
 import com.facebook.presto.common.predicate.TupleDomainFilter.BytesValues;
@@ -115,6 +116,27 @@ public class TestTupleDomainFilter
         assertFalse(filter.testLong(150));
     }
 
+    @Test
+    public void testBloomFilterValues()
+    {
+        BlockedBloomFilter bloomFilter = BlockedBloomFilter.create(100);
+        bloomFilter.put(BlockedBloomFilter.hashLong(5));
+        bloomFilter.put(BlockedBloomFilter.hashLong(50));
+        bloomFilter.put(BlockedBloomFilter.hashSlice(Slices.utf8Slice("abc")));
+
+        TupleDomainFilter filter = BloomFilterValues.of(bloomFilter, BigintRange.of(1, 10, false));
+        assertTrue(filter.testLong(5));
+        assertFalse(filter.testLong(50));
+        assertFalse(filter.testLong(7));
+        assertFalse(filter.testNull());
+
+        filter = BloomFilterValues.of(bloomFilter, TupleDomainFilter.IS_NOT_NULL);
+        assertTrue(filter.testLong(50));
+        assertTrue(filter.testBytes("abc".getBytes(), 0, 3));
+        assertFalse(filter.testBytes("abd".getBytes(), 0, 3));
+        assertFalse(filter.testNull());
+    }
+
     @Test
     public void testBooleanValue()
     {
@@ -79,6 +79,8 @@ public class HiveClientConfig
 
     private int maxConcurrentFileRenames = 20;
     private int maxConcurrentZeroRowFileCreations = 20;
+    private boolean orcParallelReadEnabled;
+    private int maxConcurrentOrcReads = 32;
 
     private boolean allowCorruptWritesForTesting;
 
@@ -169,6 +171,8 @@ public class HiveClientConfig
 
     private boolean isPartialAggregationPushdownEnabled;
     private boolean isPartialAggregationPushdownForVariableLengthDatatypesEnabled;
+    private boolean isGroupedPartialAggregationPushdownEnabled;
+    private DataSize groupedPartialAggregationPushdownMaxMemory = new DataSize(16, MEGABYTE);
 
     private boolean fileRenamingEnabled;
     private boolean preferManifestToListFiles;
@@ -194,6 +198,7 @@ public class HiveClientConfig
     private boolean userDefinedTypeEncodingEnabled;
 
     private boolean columnIndexFilterEnabled;
+    private boolean parquetBloomFilterEnabled;
     private boolean fileSplittable = true;
     private Protocol thriftProtocol = Protocol.BINARY;
     private DataSize thriftBufferSize = new DataSize(128, BYTE);
@@ -303,6 +308,33 @@ public class HiveClientConfig
         return this;
     }
 
+    public boolean isOrcParallelReadEnabled()
+    {
+        return orcParallelReadEnabled;
+    }
+
+    @Config("hive.orc.parallel-read-enabled")
+    @ConfigDescription("Issue the coalesced reads of an ORC stripe concurrently instead of one after another")
+    public HiveClientConfig setOrcParallelReadEnabled(boolean orcParallelReadEnabled)
+    {
+        this.orcParallelReadEnabled = orcParallelReadEnabled;
+        return this;
+    }
+
+    @Min(1)
+    public int getMaxConcurrentOrcReads()
+    {
+        return maxConcurrentOrcReads;
+    }
+
+    @Config("hive.orc.max-concurrent-reads")
+    @ConfigDescription("Maximum number of concurrent ORC reads issued by a worker when parallel reads are enabled")
+    public HiveClientConfig setMaxConcurrentOrcReads(int maxConcurrentOrcReads)
+    {
+        this.maxConcurrentOrcReads = maxConcurrentOrcReads;
+        return this;
+    }
+
     public boolean getRecursiveDirWalkerEnabled()
     {
         return recursiveDirWalkerEnabled;
@@ -1382,6 +1414,33 @@ public class HiveClientConfig
         return this.isPartialAggregationPushdownForVariableLengthDatatypesEnabled;
     }
 
+    @Config("hive.grouped_partial_aggregation_pushdown_enabled")
+    @ConfigDescription("enable partial aggregation pushdown of grouped aggregations into the ORC reader")
+    public HiveClientConfig setGroupedPartialAggregationPushdownEnabled(boolean groupedPartialAggregationPushdownEnabled)
+    {
+        this.isGroupedPartialAggregationPushdownEnabled = groupedPartialAggregationPushdownEnabled;
+        return this;
+    }
+
+    public boolean isGroupedPartialAggregationPushdownEnabled()
+    {
+        return this.isGroupedPartialAggregationPushdownEnabled;
+    }
+
+    @Config("hive.grouped_partial_aggregation_pushdown_max_memory")
+    @ConfigDescription("memory used by a grouped partial aggregation pushed into the ORC reader before it flushes its groups")
+    public HiveClientConfig setGroupedPartialAggregationPushdownMaxMemory(DataSize groupedPartialAggregationPushdownMaxMemory)
+    {
+        this.groupedPartialAggregationPushdownMaxMemory = groupedPartialAggregationPushdownMaxMemory;
+        return this;
+    }
+
+    @NotNull
+    public DataSize getGroupedPartialAggregationPushdownMaxMemory()
+    {
+        return groupedPartialAggregationPushdownMaxMemory;
+    }
+
     @Config("hive.file_renaming_enabled")
     @ConfigDescription("enable file renaming")
     public HiveClientConfig setFileRenamingEnabled(boolean fileRenamingEnabled)
@@ -1512,6 +1571,19 @@ public class HiveClientConfig
         return this.columnIndexFilterEnabled;
     }
 
+    @Config("hive.parquet-bloom-filter-enabled")
+    @ConfigDescription("enable pruning parquet row groups with bloom filters")
+    public HiveClientConfig setParquetBloomFilterEnabled(boolean parquetBloomFilterEnabled)
+    {
+        this.parquetBloomFilterEnabled = parquetBloomFilterEnabled;
+        return this;
+    }
+
+    public boolean isParquetBloomFilterEnabled()
+    {
+        return this.parquetBloomFilterEnabled;
+    }
+
     @Config("hive.size-based-split-weights-enabled")
     public HiveClientConfig setSizeBasedSplitWeightsEnabled(boolean sizeBasedSplitWeightsEnabled)
     {
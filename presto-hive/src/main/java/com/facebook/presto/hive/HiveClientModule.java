@@ -19,6 +19,7 @@ import com.facebook.airlift.event.client.EventClient;
 import com.facebook.drift.codec.guice.ThriftCodecModule;
 import com.facebook.drift.codec.utils.DefaultThriftCodecsModule;
 import com.facebook.presto.cache.ForCachingFileSystem;
+import com.facebook.presto.common.block.Block;
 import com.facebook.presto.hive.HiveDwrfEncryptionProvider.ForCryptoService;
 import com.facebook.presto.hive.HiveDwrfEncryptionProvider.ForUnknown;
 import com.facebook.presto.hive.cache.HiveCachingHdfsConfiguration;
@@ -58,6 +59,8 @@ import com.facebook.presto.orc.StripeReader.StripeId;
 import com.facebook.presto.orc.StripeReader.StripeStreamId;
 import com.facebook.presto.orc.UnsupportedEncryptionLibrary;
 import com.facebook.presto.orc.cache.CachingOrcFileTailSource;
+import com.facebook.presto.orc.cache.DecodedBlockCache;
+import com.facebook.presto.orc.cache.DecodedBlockId;
 import com.facebook.presto.orc.cache.OrcCacheConfig;
 import com.facebook.presto.orc.cache.OrcFileTailSource;
 import com.facebook.presto.orc.cache.StorageOrcFileTailSource;
@@ -275,6 +278,26 @@ public class HiveClientModule
                                 hiveClientConfig.getMaxConcurrentZeroRowFileCreations())));
     }
 
+    @ForOrcRead
+    @Singleton
+    @Provides
+    public ExecutorService createOrcReadExecutor(HiveConnectorId hiveClientId, HiveClientConfig hiveClientConfig)
+    {
+        return newFixedThreadPool(
+                hiveClientConfig.getMaxConcurrentOrcReads(),
+                daemonThreadsNamed("hive-orc-read-" + hiveClientId + "-%s"));
+    }
+
+    @ForOrcWrite
+    @Singleton
+    @Provides
+    public ExecutorService createOrcWriteExecutor(HiveConnectorId hiveClientId, OrcFileWriterConfig orcFileWriterConfig)
+    {
+        return newFixedThreadPool(
+                orcFileWriterConfig.getMaxStripeEncodingThreads(),
+                daemonThreadsNamed("hive-orc-write-" + hiveClientId + "-%s"));
+    }
+
     @Singleton
     @Provides
     public OrcFileTailSource createOrcFileTailSource(OrcCacheConfig orcCacheConfig, MBeanExporter exporter)
@@ -339,6 +362,24 @@ public class HiveClientModule
         return factory;
     }
 
+    @Singleton
+    @Provides
+    public DecodedBlockCache createDecodedBlockCache(OrcCacheConfig orcCacheConfig, MBeanExporter exporter)
+    {
+        if (!orcCacheConfig.isDecodedBlockCacheEnabled()) {
+            return DecodedBlockCache.disabled();
+        }
+        Cache<DecodedBlockId, Block> cache = CacheBuilder.newBuilder()
+                .maximumWeight(orcCacheConfig.getDecodedBlockCacheSize().toBytes())
+                .weigher((id, block) -> toIntExact(((Block) block).getRetainedSizeInBytes()))
+                .expireAfterAccess(orcCacheConfig.getDecodedBlockCacheTtlSinceLastAccess().toMillis(), MILLISECONDS)
+                .recordStats()
+                .build();
+        CacheStatsMBean cacheStatsMBean = new CacheStatsMBean(cache);
+        exporter.export(generatedNameOf(CacheStatsMBean.class, connectorId + "_OrcDecodedBlock"), cacheStatsMBean);
+        return new DecodedBlockCache(cache);
+    }
+
     @Singleton
     @Provides
     public ParquetMetadataSource createParquetMetadataSource(ParquetCacheConfig parquetCacheConfig, MBeanExporter exporter)
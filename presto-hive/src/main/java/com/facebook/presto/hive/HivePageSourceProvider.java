@@ -18,6 +18,7 @@ import com.facebook.presto.common.RuntimeStats;
 import com.facebook.presto.common.Subfield;
 import com.facebook.presto.common.Subfield.NestedField;
 import com.facebook.presto.common.Subfield.PathElement;
+import com.facebook.presto.common.predicate.BlockedBloomFilter;
 import com.facebook.presto.common.predicate.Domain;
 import com.facebook.presto.common.predicate.NullableValue;
 import com.facebook.presto.common.predicate.TupleDomain;
@@ -74,6 +75,10 @@ import static com.facebook.presto.hive.HiveErrorCode.HIVE_UNSUPPORTED_FORMAT;
 import static com.facebook.presto.hive.HivePageSourceProvider.ColumnMapping.toColumnHandles;
 import static com.facebook.presto.hive.HiveSessionProperties.isLegacyTimestampBucketing;
 import static com.facebook.presto.hive.HiveSessionProperties.isUseRecordPageSourceForCustomSplit;
+import static com.facebook.presto.hive.HiveStorageFormat.DWRF;
+import static com.facebook.presto.hive.HiveStorageFormat.ORC;
+import static com.facebook.presto.hive.HiveStorageFormat.PARQUET;
+import static com.facebook.presto.hive.HiveStorageFormat.getHiveStorageFormat;
 import static com.facebook.presto.hive.HiveUtil.getPrefilledColumnValue;
 import static com.facebook.presto.hive.HiveUtil.parsePartitionValue;
 import static com.facebook.presto.hive.HiveUtil.shouldUseRecordReaderFromInputFormat;
@@ -95,6 +100,8 @@ import static java.util.stream.Collectors.toList;
 public class HivePageSourceProvider
         implements ConnectorPageSourceProvider
 {
+    private static final Set<HiveStorageFormat> SHARED_SCAN_STORAGE_FORMATS = ImmutableSet.of(ORC, DWRF, PARQUET);
+
     private final DateTimeZone hiveStorageTimeZone;
     private final HdfsEnvironment hdfsEnvironment;
     private final Set<HiveRecordCursorProvider> cursorProviders;
@@ -173,9 +180,12 @@ public class HivePageSourceProvider
                 runtimeStats);
 
         if (columns.stream().anyMatch(columnHandle -> ((HiveColumnHandle) columnHandle).getColumnType().equals(AGGREGATED))) {
-            checkArgument(columns.stream().allMatch(columnHandle -> ((HiveColumnHandle) columnHandle).getColumnType().equals(AGGREGATED)), "Not all columns are of 'AGGREGATED' type");
+            // Grouped partial aggregations also read their grouping keys as regular columns
+            checkArgument(columns.stream().allMatch(columnHandle -> ((HiveColumnHandle) columnHandle).getColumnType().equals(AGGREGATED) || ((HiveColumnHandle) columnHandle).getColumnType().equals(REGULAR)),
+                    "Not all columns are of 'AGGREGATED' or 'REGULAR' type");
+            boolean grouped = columns.stream().anyMatch(columnHandle -> ((HiveColumnHandle) columnHandle).getColumnType().equals(REGULAR));
 
-            if (hiveLayout.isFooterStatsUnreliable()) {
+            if (!grouped && hiveLayout.isFooterStatsUnreliable()) {
                 throw new PrestoException(HIVE_UNSUPPORTED_FORMAT, format("Partial aggregation pushdown is not supported when footer stats are unreliable. " +
                                 "Table %s has file %s with unreliable footer stats. " +
                                 "Set session property [catalog-name].pushdown_partial_aggregations_into_scan=false and execute query again.",
@@ -250,6 +260,15 @@ public class HivePageSourceProvider
         throw new IllegalStateException("Could not find a file reader for split " + hiveSplit);
     }
 
+    @Override
+    public boolean supportsSharedScans(ConnectorSplit split)
+    {
+        // the columnar readers return the rows of a split in file order every time
+        return getHiveStorageFormat(((HiveSplit) split).getStorage().getStorageFormat())
+                .map(SHARED_SCAN_STORAGE_FORMATS::contains)
+                .orElse(false);
+    }
+
     private ConnectorPageSource createAggregatedPageSource(
             Set<HiveAggregatedPageSourceFactory> aggregatedPageSourceFactories,
             Configuration configuration,
@@ -373,6 +392,11 @@ public class HivePageSourceProvider
                 .map(filter -> filter.transform(handle -> new Subfield(((HiveColumnHandle) handle).getName())).intersect(layout.getDomainPredicate()))
                 .orElse(layout.getDomainPredicate());
 
+        // partition keys are already handled by the dynamic filter predicate
+        Map<String, BlockedBloomFilter> dynamicFilterBloomFilters = splitContext.getDynamicFilterBloomFilters().entrySet().stream()
+                .filter(entry -> ((HiveColumnHandle) entry.getKey()).getColumnType() == REGULAR)
+                .collect(toImmutableMap(entry -> ((HiveColumnHandle) entry.getKey()).getName(), Map.Entry::getValue));
+
         List<HiveColumnHandle> columnHandles = toColumnHandles(columnMappings, true);
         Optional<byte[]> rowIDPartitionComponent = split.getRowIdPartitionComponent();
         HiveUtil.checkRowIDPartitionComponent(columnHandles, rowIDPartitionComponent);
@@ -382,12 +406,14 @@ public class HivePageSourceProvider
                     session,
                     split.getFileSplit(),
                     split.getStorage(),
+                    layout.getSchemaTableName(),
                     columnHandles,
                     prefilledValues,
                     coercers,
                     bucketAdaptation,
                     outputColumns,
                     domainPredicate,
+                    dynamicFilterBloomFilters,
                     optimizedRemainingPredicate,
                     hiveStorageTimeZone,
                     fileContext,
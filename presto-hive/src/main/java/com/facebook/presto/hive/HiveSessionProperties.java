@@ -57,6 +57,7 @@ public final class HiveSessionProperties
     private static final String ORC_OPTIMIZED_WRITER_STRING_DICTIONARY_SORTING_ENABLED = "orc_optimized_writer_string_dictionary_sorting_enabled";
     private static final String ORC_OPTIMIZED_WRITER_FLAT_MAP_WRITER_ENABLED = "orc_optimized_writer_flat_map_writer_enabled";
     private static final String ORC_OPTIMIZED_WRITER_COMPRESSION_LEVEL = "orc_optimized_writer_compression_level";
+    private static final String ORC_OPTIMIZED_WRITER_PARALLEL_STRIPE_ENCODING_ENABLED = "orc_optimized_writer_parallel_stripe_encoding_enabled";
     private static final String PAGEFILE_WRITER_MAX_STRIPE_SIZE = "pagefile_writer_max_stripe_size";
     public static final String HIVE_STORAGE_FORMAT = "hive_storage_format";
     static final String COMPRESSION_CODEC = "compression_codec";
@@ -106,6 +107,8 @@ public final class HiveSessionProperties
     public static final String IGNORE_UNREADABLE_PARTITION = "ignore_unreadable_partition";
     public static final String PARTIAL_AGGREGATION_PUSHDOWN_ENABLED = "partial_aggregation_pushdown_enabled";
     public static final String PARTIAL_AGGREGATION_PUSHDOWN_FOR_VARIABLE_LENGTH_DATATYPES_ENABLED = "partial_aggregation_pushdown_for_variable_length_datatypes_enabled";
+    public static final String GROUPED_PARTIAL_AGGREGATION_PUSHDOWN_ENABLED = "grouped_partial_aggregation_pushdown_enabled";
+    public static final String GROUPED_PARTIAL_AGGREGATION_PUSHDOWN_MAX_MEMORY = "grouped_partial_aggregation_pushdown_max_memory";
     public static final String FILE_RENAMING_ENABLED = "file_renaming_enabled";
     public static final String PREFER_MANIFESTS_TO_LIST_FILES = "prefer_manifests_to_list_files";
     public static final String MANIFEST_VERIFICATION_ENABLED = "manifest_verification_enabled";
@@ -119,6 +122,8 @@ public final class HiveSessionProperties
     private static final String DWRF_WRITER_STRIPE_CACHE_ENABLED = "dwrf_writer_stripe_cache_enabled";
     private static final String DWRF_WRITER_STRIPE_CACHE_SIZE = "dwrf_writer_stripe_cache_size";
     public static final String USE_COLUMN_INDEX_FILTER = "use_column_index_filter";
+    public static final String PARQUET_BLOOM_FILTER_ENABLED = "parquet_bloom_filter_enabled";
+    public static final String ORC_PARALLEL_READ_ENABLED = "orc_parallel_read_enabled";
     public static final String SIZE_BASED_SPLIT_WEIGHTS_ENABLED = "size_based_split_weights_enabled";
     public static final String MINIMUM_ASSIGNED_SPLIT_WEIGHT = "minimum_assigned_split_weight";
     private static final String USE_RECORD_PAGE_SOURCE_FOR_CUSTOM_SPLIT = "use_record_page_source_for_custom_split";
@@ -221,6 +226,11 @@ public final class HiveSessionProperties
                         "Experimental: ORC: Compression level, works only for ZSTD and ZLIB compression kinds",
                         orcFileWriterConfig.getCompressionLevel(),
                         false),
+                booleanProperty(
+                        ORC_OPTIMIZED_WRITER_PARALLEL_STRIPE_ENCODING_ENABLED,
+                        "ORC: Close the column writers of a stripe in parallel and write it in the background while the next stripe is buffered",
+                        orcFileWriterConfig.isParallelStripeEncodingEnabled(),
+                        false),
                 dataSizeSessionProperty(
                         PAGEFILE_WRITER_MAX_STRIPE_SIZE,
                         "PAGEFILE: Max stripe size",
@@ -490,6 +500,16 @@ public final class HiveSessionProperties
                         "Is partial aggregation pushdown enabled for variable length datatypes",
                         hiveClientConfig.isPartialAggregationPushdownForVariableLengthDatatypesEnabled(),
                         false),
+                booleanProperty(
+                        GROUPED_PARTIAL_AGGREGATION_PUSHDOWN_ENABLED,
+                        "Is partial aggregation pushdown enabled for grouped aggregations over ORC and DWRF files",
+                        hiveClientConfig.isGroupedPartialAggregationPushdownEnabled(),
+                        false),
+                dataSizeSessionProperty(
+                        GROUPED_PARTIAL_AGGREGATION_PUSHDOWN_MAX_MEMORY,
+                        "Memory used by a grouped partial aggregation pushed into an ORC or DWRF scan before it flushes its groups",
+                        hiveClientConfig.getGroupedPartialAggregationPushdownMaxMemory(),
+                        false),
                 booleanProperty(
                         FILE_RENAMING_ENABLED,
                         "Enable renaming the files written by writers",
@@ -569,6 +589,16 @@ public final class HiveSessionProperties
                         "should use column index statistics filtering",
                         hiveClientConfig.getReadColumnIndexFilter(),
                         false),
+                booleanProperty(
+                        PARQUET_BLOOM_FILTER_ENABLED,
+                        "Prune parquet row groups with the bloom filters of columns with equality predicates",
+                        hiveClientConfig.isParquetBloomFilterEnabled(),
+                        false),
+                booleanProperty(
+                        ORC_PARALLEL_READ_ENABLED,
+                        "ORC: Issue the coalesced reads of a stripe concurrently. Applies when small ranges are not read lazily",
+                        hiveClientConfig.isOrcParallelReadEnabled(),
+                        false),
                 booleanProperty(
                         SIZE_BASED_SPLIT_WEIGHTS_ENABLED,
                         "Enable estimating split weights based on size in bytes",
@@ -756,6 +786,11 @@ public final class HiveSessionProperties
         return session.getProperty(ORC_OPTIMIZED_WRITER_STRING_DICTIONARY_SORTING_ENABLED, Boolean.class);
     }
 
+    public static boolean isOrcOptimizedWriterParallelStripeEncodingEnabled(ConnectorSession session)
+    {
+        return session.getProperty(ORC_OPTIMIZED_WRITER_PARALLEL_STRIPE_ENCODING_ENABLED, Boolean.class);
+    }
+
     public static boolean isFlatMapWriterEnabled(ConnectorSession session)
     {
         return session.getProperty(ORC_OPTIMIZED_WRITER_FLAT_MAP_WRITER_ENABLED, Boolean.class);
@@ -1031,6 +1066,16 @@ public final class HiveSessionProperties
         return session.getProperty(PARTIAL_AGGREGATION_PUSHDOWN_FOR_VARIABLE_LENGTH_DATATYPES_ENABLED, Boolean.class);
     }
 
+    public static boolean isGroupedPartialAggregationPushdownEnabled(ConnectorSession session)
+    {
+        return session.getProperty(GROUPED_PARTIAL_AGGREGATION_PUSHDOWN_ENABLED, Boolean.class);
+    }
+
+    public static DataSize getGroupedPartialAggregationPushdownMaxMemory(ConnectorSession session)
+    {
+        return session.getProperty(GROUPED_PARTIAL_AGGREGATION_PUSHDOWN_MAX_MEMORY, DataSize.class);
+    }
+
     public static boolean isFileRenamingEnabled(ConnectorSession session)
     {
         return session.getProperty(FILE_RENAMING_ENABLED, Boolean.class);
@@ -1096,6 +1141,16 @@ public final class HiveSessionProperties
         return session.getProperty(USE_COLUMN_INDEX_FILTER, Boolean.class);
     }
 
+    public static boolean isParquetBloomFilterEnabled(ConnectorSession session)
+    {
+        return session.getProperty(PARQUET_BLOOM_FILTER_ENABLED, Boolean.class);
+    }
+
+    public static boolean isOrcParallelReadEnabled(ConnectorSession session)
+    {
+        return session.getProperty(ORC_PARALLEL_READ_ENABLED, Boolean.class);
+    }
+
     public static boolean isSizeBasedSplitWeightsEnabled(ConnectorSession session)
     {
         return session.getProperty(SIZE_BASED_SPLIT_WEIGHTS_ENABLED, Boolean.class);
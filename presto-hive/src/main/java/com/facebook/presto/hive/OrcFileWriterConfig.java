@@ -20,6 +20,7 @@ import com.facebook.presto.orc.DefaultOrcWriterFlushPolicy;
 import com.facebook.presto.orc.OrcWriterOptions;
 import com.facebook.presto.orc.metadata.DwrfStripeCacheMode;
 import com.facebook.presto.orc.writer.StreamLayoutFactory;
+import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotNull;
 
 import java.util.OptionalInt;
@@ -55,6 +56,8 @@ public class OrcFileWriterConfig
     private boolean isStringDictionarySortingEnabled = OrcWriterOptions.DEFAULT_STRING_DICTIONARY_SORTING_ENABLED;
     private boolean isFlatMapWriterEnabled = DEFAULT_FLAT_MAP_WRITER_ENABLED;
     private boolean addHostnameToFileMetadataEnabled = true;
+    private boolean parallelStripeEncodingEnabled;
+    private int maxStripeEncodingThreads = 16;
 
     public OrcWriterOptions.Builder toOrcWriterOptionsBuilder()
     {
@@ -296,6 +299,33 @@ public class OrcFileWriterConfig
         return this;
     }
 
+    public boolean isParallelStripeEncodingEnabled()
+    {
+        return parallelStripeEncodingEnabled;
+    }
+
+    @Config("hive.orc.writer.parallel-stripe-encoding-enabled")
+    @ConfigDescription("Close the column writers of a stripe in parallel and write it in the background while the next stripe is buffered")
+    public OrcFileWriterConfig setParallelStripeEncodingEnabled(boolean parallelStripeEncodingEnabled)
+    {
+        this.parallelStripeEncodingEnabled = parallelStripeEncodingEnabled;
+        return this;
+    }
+
+    @Min(1)
+    public int getMaxStripeEncodingThreads()
+    {
+        return maxStripeEncodingThreads;
+    }
+
+    @Config("hive.orc.writer.max-stripe-encoding-threads")
+    @ConfigDescription("Size of the pool shared by all ORC writers of a worker for parallel stripe encoding")
+    public OrcFileWriterConfig setMaxStripeEncodingThreads(int maxStripeEncodingThreads)
+    {
+        this.maxStripeEncodingThreads = maxStripeEncodingThreads;
+        return this;
+    }
+
     private static StreamLayoutFactory getStreamLayoutFactory(StreamLayoutType type)
     {
         switch (type) {
@@ -59,6 +59,8 @@ import java.util.Optional;
 import java.util.Properties;
 import java.util.Set;
 import java.util.concurrent.Callable;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
 import java.util.function.Supplier;
 import java.util.stream.IntStream;
 
@@ -83,16 +85,19 @@ import static com.facebook.presto.hive.HiveSessionProperties.isDwrfWriterStripeC
 import static com.facebook.presto.hive.HiveSessionProperties.isExecutionBasedMemoryAccountingEnabled;
 import static com.facebook.presto.hive.HiveSessionProperties.isFlatMapWriterEnabled;
 import static com.facebook.presto.hive.HiveSessionProperties.isIntegerDictionaryEncodingEnabled;
+import static com.facebook.presto.hive.HiveSessionProperties.isOrcOptimizedWriterParallelStripeEncodingEnabled;
 import static com.facebook.presto.hive.HiveSessionProperties.isStringDictionaryEncodingEnabled;
 import static com.facebook.presto.hive.HiveSessionProperties.isStringDictionarySortingEnabled;
 import static com.facebook.presto.hive.HiveType.toHiveTypes;
 import static com.facebook.presto.orc.OrcEncoding.DWRF;
 import static com.facebook.presto.orc.OrcEncoding.ORC;
+import static com.facebook.presto.orc.OrcWriterOptions.DEFAULT_BLOOM_FILTER_FPP;
 import static com.facebook.presto.orc.OrcWriterOptions.DEFAULT_MAX_FLATTENED_MAP_KEY_COUNT;
 import static com.facebook.presto.orc.metadata.KeyProvider.CRYPTO_SERVICE;
 import static com.facebook.presto.orc.metadata.KeyProvider.UNKNOWN;
 import static com.google.common.collect.ImmutableList.toImmutableList;
 import static com.google.common.collect.ImmutableMap.toImmutableMap;
+import static com.google.common.collect.ImmutableSet.toImmutableSet;
 import static java.lang.Boolean.parseBoolean;
 import static java.lang.String.format;
 import static java.util.Locale.ENGLISH;
@@ -131,9 +136,22 @@ public class OrcFileWriterFactory
      */
     static final String ORC_MAP_STATISTICS_KEY = "orc.map.statistics";
 
+    /**
+     * A comma separated list of column names, stored in the table properties,
+     * indicating which columns should have bloom filters in ORC files.
+     */
+    static final String ORC_BLOOM_FILTER_COLUMNS_KEY = "orc.bloom.filter.columns";
+
+    /**
+     * A double value, stored in the table properties as a string, indicating
+     * the false positive probability of the bloom filters.
+     */
+    static final String ORC_BLOOM_FILTER_FPP_KEY = "orc.bloom.filter.fpp";
+
     private static final String HOSTNAME_METADATA_KEY = "orc.writer.host";
     private static final Supplier<Optional<String>> HOSTNAME = Suppliers.memoize(OrcFileWriterFactory::getHostname);
     private static final Splitter FLAT_MAP_COLUMN_NUMBERS_SPLITTER = Splitter.on(',').omitEmptyStrings().trimResults();
+    private static final Splitter COLUMN_NAMES_SPLITTER = Splitter.on(',').omitEmptyStrings().trimResults();
 
     private final DateTimeZone hiveStorageTimeZone;
     private final HdfsEnvironment hdfsEnvironment;
@@ -144,6 +162,7 @@ public class OrcFileWriterFactory
     private final OrcWriterStats stats = new OrcWriterStats();
     private final OrcFileWriterConfig orcFileWriterConfig;
     private final DwrfEncryptionProvider dwrfEncryptionProvider;
+    private final Optional<Executor> stripeEncodingExecutor;
 
     @Inject
     public OrcFileWriterFactory(
@@ -154,7 +173,8 @@ public class OrcFileWriterFactory
             HiveClientConfig hiveClientConfig,
             FileFormatDataSourceStats readStats,
             OrcFileWriterConfig orcFileWriterConfig,
-            HiveDwrfEncryptionProvider dwrfEncryptionProvider)
+            HiveDwrfEncryptionProvider dwrfEncryptionProvider,
+            @ForOrcWrite ExecutorService stripeEncodingExecutor)
     {
         this(
                 hdfsEnvironment,
@@ -164,7 +184,8 @@ public class OrcFileWriterFactory
                 requireNonNull(hiveClientConfig, "hiveClientConfig is null").getDateTimeZone(),
                 readStats,
                 orcFileWriterConfig,
-                dwrfEncryptionProvider);
+                dwrfEncryptionProvider,
+                Optional.of(stripeEncodingExecutor));
     }
 
     public OrcFileWriterFactory(
@@ -176,6 +197,29 @@ public class OrcFileWriterFactory
             FileFormatDataSourceStats readStats,
             OrcFileWriterConfig orcFileWriterConfig,
             HiveDwrfEncryptionProvider dwrfEncryptionProvider)
+    {
+        this(
+                hdfsEnvironment,
+                dataSinkFactory,
+                typeManager,
+                nodeVersion,
+                hiveStorageTimeZone,
+                readStats,
+                orcFileWriterConfig,
+                dwrfEncryptionProvider,
+                Optional.empty());
+    }
+
+    public OrcFileWriterFactory(
+            HdfsEnvironment hdfsEnvironment,
+            DataSinkFactory dataSinkFactory,
+            TypeManager typeManager,
+            NodeVersion nodeVersion,
+            DateTimeZone hiveStorageTimeZone,
+            FileFormatDataSourceStats readStats,
+            OrcFileWriterConfig orcFileWriterConfig,
+            HiveDwrfEncryptionProvider dwrfEncryptionProvider,
+            Optional<Executor> stripeEncodingExecutor)
     {
         this.hdfsEnvironment = requireNonNull(hdfsEnvironment, "hdfsEnvironment is null");
         this.dataSinkFactory = requireNonNull(dataSinkFactory, "dataSinkFactory is null");
@@ -185,6 +229,7 @@ public class OrcFileWriterFactory
         this.readStats = requireNonNull(readStats, "stats is null");
         this.orcFileWriterConfig = requireNonNull(orcFileWriterConfig, "orcFileWriterConfig is null");
         this.dwrfEncryptionProvider = requireNonNull(dwrfEncryptionProvider, "DwrfEncryptionProvider is null").toDwrfEncryptionProvider();
+        this.stripeEncodingExecutor = requireNonNull(stripeEncodingExecutor, "stripeEncodingExecutor is null");
     }
 
     @Managed
@@ -322,6 +367,9 @@ public class OrcFileWriterFactory
                 .withMaxFlattenedMapKeyCount(flatMapKeyLimit)
                 .withMapStatisticsEnabled(mapStatisticsEnabled)
                 .withCompressionLevel(getCompressionLevel(session))
+                .withBloomFilterColumns(getBloomFilterColumns(schema))
+                .withBloomFilterFpp(getBloomFilterFpp(schema))
+                .withStripeEncodingExecutor(isOrcOptimizedWriterParallelStripeEncodingEnabled(session) ? stripeEncodingExecutor : Optional.empty())
                 .build();
     }
 
@@ -413,6 +461,39 @@ public class OrcFileWriterFactory
         return flattenedColumns;
     }
 
+    private static Set<Integer> getBloomFilterColumns(Properties schema)
+    {
+        Set<String> bloomFilterColumnNames = COLUMN_NAMES_SPLITTER.splitToList(schema.getProperty(ORC_BLOOM_FILTER_COLUMNS_KEY, "")).stream()
+                .map(name -> name.toLowerCase(ENGLISH))
+                .collect(toImmutableSet());
+        if (bloomFilterColumnNames.isEmpty()) {
+            return ImmutableSet.of();
+        }
+
+        List<String> fileColumnNames = COLUMN_NAMES_SPLITTER.splitToList(schema.getProperty(META_TABLE_COLUMNS, ""));
+        return IntStream.range(0, fileColumnNames.size())
+                .filter(column -> bloomFilterColumnNames.contains(fileColumnNames.get(column).toLowerCase(ENGLISH)))
+                .boxed()
+                .collect(toImmutableSet());
+    }
+
+    private static double getBloomFilterFpp(Properties schema)
+    {
+        String value = schema.getProperty(ORC_BLOOM_FILTER_FPP_KEY);
+        if (value == null) {
+            return DEFAULT_BLOOM_FILTER_FPP;
+        }
+        try {
+            double fpp = Double.parseDouble(value.trim());
+            if (fpp > 0.0 && fpp < 1.0) {
+                return fpp;
+            }
+        }
+        catch (NumberFormatException ignored) {
+        }
+        throw new PrestoException(HIVE_INVALID_METADATA, format("Invalid value for %s table property: %s", ORC_BLOOM_FILTER_FPP_KEY, value));
+    }
+
     private boolean isMapStatisticsEnabled(Properties schema)
     {
         return parseBoolean(schema.getProperty(ORC_MAP_STATISTICS_KEY, "false"));
@@ -17,6 +17,7 @@ import com.facebook.hive.orc.OrcSerde;
 import com.facebook.presto.common.type.TypeManager;
 import com.facebook.presto.hive.EncryptionInformation;
 import com.facebook.presto.hive.FileFormatDataSourceStats;
+import com.facebook.presto.hive.ForOrcRead;
 import com.facebook.presto.hive.HdfsEnvironment;
 import com.facebook.presto.hive.HiveAggregatedPageSourceFactory;
 import com.facebook.presto.hive.HiveColumnHandle;
@@ -34,6 +35,8 @@ import org.apache.hadoop.conf.Configuration;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
 
 import static com.facebook.presto.hive.HiveCommonSessionProperties.isUseOrcColumnNames;
 import static com.facebook.presto.hive.HiveErrorCode.HIVE_BAD_DATA;
@@ -51,6 +54,7 @@ public class DwrfAggregatedPageSourceFactory
     private final FileFormatDataSourceStats stats;
     private final OrcFileTailSource orcFileTailSource;
     private final StripeMetadataSourceFactory stripeMetadataSourceFactory;
+    private final Executor orcReadExecutor;
 
     @Inject
     public DwrfAggregatedPageSourceFactory(
@@ -59,7 +63,8 @@ public class DwrfAggregatedPageSourceFactory
             HdfsEnvironment hdfsEnvironment,
             FileFormatDataSourceStats stats,
             OrcFileTailSource orcFileTailSource,
-            StripeMetadataSourceFactory stripeMetadataSourceFactory)
+            StripeMetadataSourceFactory stripeMetadataSourceFactory,
+            @ForOrcRead ExecutorService orcReadExecutor)
     {
         this.typeManager = requireNonNull(typeManager, "typeManager is null");
         this.functionResolution = requireNonNull(functionResolution, "functionResolution is null");
@@ -67,6 +72,7 @@ public class DwrfAggregatedPageSourceFactory
         this.stats = requireNonNull(stats, "stats is null");
         this.orcFileTailSource = requireNonNull(orcFileTailSource, "orcFileTailCache is null");
         this.stripeMetadataSourceFactory = requireNonNull(stripeMetadataSourceFactory, "stripeMetadataSourceFactory is null");
+        this.orcReadExecutor = requireNonNull(orcReadExecutor, "orcReadExecutor is null");
     }
 
     @Override
@@ -98,6 +104,7 @@ public class DwrfAggregatedPageSourceFactory
                 typeManager,
                 functionResolution,
                 stats,
+                orcReadExecutor,
                 orcFileTailSource,
                 stripeMetadataSourceFactory,
                 hiveFileContext,
@@ -18,6 +18,7 @@ import com.facebook.presto.common.predicate.TupleDomain;
 import com.facebook.presto.common.type.TypeManager;
 import com.facebook.presto.hive.EncryptionInformation;
 import com.facebook.presto.hive.FileFormatDataSourceStats;
+import com.facebook.presto.hive.ForOrcRead;
 import com.facebook.presto.hive.HdfsEnvironment;
 import com.facebook.presto.hive.HiveBatchPageSourceFactory;
 import com.facebook.presto.hive.HiveClientConfig;
@@ -29,6 +30,7 @@ import com.facebook.presto.hive.metastore.Storage;
 import com.facebook.presto.orc.DwrfEncryptionProvider;
 import com.facebook.presto.orc.OrcReaderOptions;
 import com.facebook.presto.orc.StripeMetadataSourceFactory;
+import com.facebook.presto.orc.cache.DecodedBlockCache;
 import com.facebook.presto.orc.cache.OrcFileTailSource;
 import com.facebook.presto.spi.ConnectorPageSource;
 import com.facebook.presto.spi.ConnectorSession;
@@ -42,6 +44,8 @@ import org.joda.time.DateTimeZone;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
 
 import static com.facebook.presto.hive.HiveCommonSessionProperties.getOrcMaxMergeDistance;
 import static com.facebook.presto.hive.HiveCommonSessionProperties.getOrcMaxReadBlockSize;
@@ -63,6 +67,8 @@ public class DwrfBatchPageSourceFactory
     private final OrcFileTailSource orcFileTailSource;
     private final StripeMetadataSourceFactory stripeMetadataSourceFactory;
     private final DwrfEncryptionProvider dwrfEncryptionProvider;
+    private final Executor orcReadExecutor;
+    private final DecodedBlockCache decodedBlockCache;
 
     @Inject
     public DwrfBatchPageSourceFactory(
@@ -73,7 +79,9 @@ public class DwrfBatchPageSourceFactory
             FileFormatDataSourceStats stats,
             OrcFileTailSource orcFileTailSource,
             StripeMetadataSourceFactory stripeMetadataSourceFactory,
-            HiveDwrfEncryptionProvider dwrfEncryptionProvider)
+            HiveDwrfEncryptionProvider dwrfEncryptionProvider,
+            @ForOrcRead ExecutorService orcReadExecutor,
+            DecodedBlockCache decodedBlockCache)
     {
         this.typeManager = requireNonNull(typeManager, "typeManager is null");
         this.functionResolution = requireNonNull(functionResolution, "functionResolution is null");
@@ -83,6 +91,8 @@ public class DwrfBatchPageSourceFactory
         this.orcFileTailSource = requireNonNull(orcFileTailSource, "orcFileTailSource is null");
         this.stripeMetadataSourceFactory = requireNonNull(stripeMetadataSourceFactory, "stripeMetadataSourceFactory is null");
         this.dwrfEncryptionProvider = requireNonNull(dwrfEncryptionProvider, "dwrfEncryptionProvider is null").toDwrfEncryptionProvider();
+        this.orcReadExecutor = requireNonNull(orcReadExecutor, "orcReadExecutor is null");
+        this.decodedBlockCache = requireNonNull(decodedBlockCache, "decodedBlockCache is null");
     }
 
     @Override
@@ -120,6 +130,7 @@ public class DwrfBatchPageSourceFactory
                 typeManager,
                 false,
                 stats,
+                orcReadExecutor,
                 domainCompactionThreshold,
                 orcFileTailSource,
                 stripeMetadataSourceFactory,
@@ -133,6 +144,8 @@ public class DwrfBatchPageSourceFactory
                 encryptionInformation,
                 dwrfEncryptionProvider,
                 session,
-                rowIDPartitionComponent));
+                rowIDPartitionComponent,
+                // decrypted column data is never kept beyond the lifetime of the split
+                encryptionInformation.isPresent() ? DecodedBlockCache.disabled() : decodedBlockCache));
     }
 }
@@ -15,11 +15,13 @@ package com.facebook.presto.hive.orc;
 
 import com.facebook.hive.orc.OrcSerde;
 import com.facebook.presto.common.Subfield;
+import com.facebook.presto.common.predicate.BlockedBloomFilter;
 import com.facebook.presto.common.predicate.TupleDomain;
 import com.facebook.presto.common.type.TypeManager;
 import com.facebook.presto.hive.BucketAdaptation;
 import com.facebook.presto.hive.EncryptionInformation;
 import com.facebook.presto.hive.FileFormatDataSourceStats;
+import com.facebook.presto.hive.ForOrcRead;
 import com.facebook.presto.hive.HdfsEnvironment;
 import com.facebook.presto.hive.HiveClientConfig;
 import com.facebook.presto.hive.HiveCoercer;
@@ -35,6 +37,7 @@ import com.facebook.presto.orc.cache.OrcFileTailSource;
 import com.facebook.presto.spi.ConnectorPageSource;
 import com.facebook.presto.spi.ConnectorSession;
 import com.facebook.presto.spi.PrestoException;
+import com.facebook.presto.spi.SchemaTableName;
 import com.facebook.presto.spi.function.StandardFunctionResolution;
 import com.facebook.presto.spi.relation.RowExpression;
 import com.facebook.presto.spi.relation.RowExpressionService;
@@ -45,6 +48,8 @@ import org.joda.time.DateTimeZone;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
 
 import static com.facebook.presto.hive.HiveErrorCode.HIVE_BAD_DATA;
 import static com.facebook.presto.hive.HiveUtil.checkRowIDPartitionComponent;
@@ -65,6 +70,7 @@ public class DwrfSelectivePageSourceFactory
     private final StripeMetadataSourceFactory stripeMetadataSourceFactory;
     private final TupleDomainFilterCache tupleDomainFilterCache;
     private final DwrfEncryptionProvider dwrfEncryptionProvider;
+    private final Executor orcReadExecutor;
 
     @Inject
     public DwrfSelectivePageSourceFactory(
@@ -77,7 +83,8 @@ public class DwrfSelectivePageSourceFactory
             OrcFileTailSource orcFileTailSource,
             StripeMetadataSourceFactory stripeMetadataSourceFactory,
             TupleDomainFilterCache tupleDomainFilterCache,
-            HiveDwrfEncryptionProvider dwrfEncryptionProvider)
+            HiveDwrfEncryptionProvider dwrfEncryptionProvider,
+            @ForOrcRead ExecutorService orcReadExecutor)
     {
         this.typeManager = requireNonNull(typeManager, "typeManager is null");
         this.functionResolution = requireNonNull(functionResolution, "functionResolution is null");
@@ -89,6 +96,7 @@ public class DwrfSelectivePageSourceFactory
         this.stripeMetadataSourceFactory = requireNonNull(stripeMetadataSourceFactory, "stripeMetadataSourceFactory is null");
         this.tupleDomainFilterCache = requireNonNull(tupleDomainFilterCache, "tupleDomainFilterCache is null");
         this.dwrfEncryptionProvider = requireNonNull(dwrfEncryptionProvider, "dwrfEncryptionProvider is null").toDwrfEncryptionProvider();
+        this.orcReadExecutor = requireNonNull(orcReadExecutor, "orcReadExecutor is null");
     }
 
     @Override
@@ -97,12 +105,14 @@ public class DwrfSelectivePageSourceFactory
             ConnectorSession session,
             HiveFileSplit fileSplit,
             Storage storage,
+            SchemaTableName tableName,
             List<HiveColumnHandle> columns,
             Map<Integer, String> prefilledValues,
             Map<Integer, HiveCoercer> coercers,
             Optional<BucketAdaptation> bucketAdaptation,
             List<Integer> outputColumns,
             TupleDomain<Subfield> domainPredicate,
+            Map<String, BlockedBloomFilter> dynamicFilterBloomFilters,
             RowExpression remainingPredicate,
             DateTimeZone hiveStorageTimeZone,
             HiveFileContext hiveFileContext,
@@ -132,6 +142,7 @@ public class DwrfSelectivePageSourceFactory
                 bucketAdaptation,
                 outputColumns,
                 domainPredicate,
+                dynamicFilterBloomFilters,
                 remainingPredicate,
                 false,
                 hiveStorageTimeZone,
@@ -140,6 +151,7 @@ public class DwrfSelectivePageSourceFactory
                 rowExpressionService,
                 false,
                 stats,
+                orcReadExecutor,
                 domainCompactionThreshold,
                 orcFileTailSource,
                 stripeMetadataSourceFactory,
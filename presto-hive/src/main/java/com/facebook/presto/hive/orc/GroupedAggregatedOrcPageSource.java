@@ -0,0 +1,682 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.hive.orc;
+
+import com.facebook.presto.common.Page;
+import com.facebook.presto.common.PageBuilder;
+import com.facebook.presto.common.array.BooleanBigArray;
+import com.facebook.presto.common.array.DoubleBigArray;
+import com.facebook.presto.common.array.LongBigArray;
+import com.facebook.presto.common.array.ObjectBigArray;
+import com.facebook.presto.common.block.Block;
+import com.facebook.presto.common.block.BlockBuilder;
+import com.facebook.presto.common.block.DictionaryBlock;
+import com.facebook.presto.common.block.RunLengthEncodedBlock;
+import com.facebook.presto.common.type.Type;
+import com.facebook.presto.common.type.TypeManager;
+import com.facebook.presto.hive.HiveColumnHandle;
+import com.facebook.presto.orc.OrcAggregatedMemoryContext;
+import com.facebook.presto.orc.OrcBatchRecordReader;
+import com.facebook.presto.orc.OrcCorruptionException;
+import com.facebook.presto.orc.OrcDataSource;
+import com.facebook.presto.orc.OrcLocalMemoryContext;
+import com.facebook.presto.spi.ConnectorPageSource;
+import com.facebook.presto.spi.PrestoException;
+import com.facebook.presto.spi.function.FunctionHandle;
+import com.facebook.presto.spi.function.StandardFunctionResolution;
+import com.facebook.presto.spi.plan.AggregationNode.Aggregation;
+import com.google.common.collect.ImmutableList;
+import io.airlift.slice.Slice;
+import io.airlift.slice.Slices;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static com.facebook.presto.common.type.DoubleType.DOUBLE;
+import static com.facebook.presto.common.type.RealType.REAL;
+import static com.facebook.presto.common.type.TypeUtils.readNativeValue;
+import static com.facebook.presto.common.type.TypeUtils.writeNativeValue;
+import static com.facebook.presto.hive.BaseHiveColumnHandle.ColumnType.REGULAR;
+import static com.facebook.presto.hive.HiveErrorCode.HIVE_BAD_DATA;
+import static com.facebook.presto.hive.HiveErrorCode.HIVE_CURSOR_ERROR;
+import static com.facebook.presto.spi.StandardErrorCode.NUMERIC_VALUE_OUT_OF_RANGE;
+import static com.google.common.base.Preconditions.checkArgument;
+import static io.airlift.slice.SizeOf.sizeOf;
+import static java.lang.Float.intBitsToFloat;
+import static java.lang.Math.toIntExact;
+import static java.lang.String.format;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Computes a partial aggregation grouped by regular columns while reading an ORC file, so that
+ * only one row per distinct grouping key leaves the scan. Grouping keys read from a dictionary
+ * encoded column are resolved once per dictionary entry rather than once per row.
+ * <p>
+ * When the groups reach {@code maxMemoryInBytes}, they are flushed and the aggregation starts over
+ * with the remaining rows of the file, so a key may be returned more than once. This is correct for
+ * a partial aggregation, whose results are combined by the final aggregation.
+ */
+public class GroupedAggregatedOrcPageSource
+        implements ConnectorPageSource
+{
+    // hash map entry, key list, boxed group id and group list slot of every group
+    private static final long GROUP_OVERHEAD_BYTES = 128;
+    // boxed value of a fixed width grouping key
+    private static final long BOXED_KEY_BYTES = 16;
+
+    private final List<HiveColumnHandle> columnHandles;
+    private final List<Type> types;
+    private final OrcBatchRecordReader recordReader;
+    private final OrcDataSource orcDataSource;
+    private final OrcAggregatedMemoryContext systemMemoryContext;
+    private final OrcLocalMemoryContext groupsMemoryContext;
+    private final StandardFunctionResolution functionResolution;
+    private final long maxMemoryInBytes;
+
+    // hive column indexes and types of the grouping keys, in the order of the key lists
+    private final int[] keyColumnIndexes;
+    private final List<Type> keyTypes;
+    // for every output column, the position of its value in the grouping key or its accumulator
+    private final int[] keyChannels;
+    private GroupedAccumulator[] accumulators;
+
+    private final Map<List<Object>, Integer> groupIds = new HashMap<>();
+    private final List<List<Object>> groupKeys = new ArrayList<>();
+    private long groupKeysSizeInBytes;
+
+    private Block lastDictionary;
+    private int[] dictionaryGroupIds;
+
+    private boolean fileAggregated;
+    private boolean flushing;
+    private int nextOutputGroup;
+    private boolean closed;
+    private long completedPositions;
+
+    public GroupedAggregatedOrcPageSource(
+            List<HiveColumnHandle> columnHandles,
+            OrcBatchRecordReader recordReader,
+            OrcDataSource orcDataSource,
+            TypeManager typeManager,
+            StandardFunctionResolution functionResolution,
+            OrcAggregatedMemoryContext systemMemoryContext,
+            long maxMemoryInBytes)
+    {
+        this.columnHandles = ImmutableList.copyOf(requireNonNull(columnHandles, "columnHandles is null"));
+        this.recordReader = requireNonNull(recordReader, "recordReader is null");
+        this.orcDataSource = requireNonNull(orcDataSource, "orcDataSource is null");
+        this.systemMemoryContext = requireNonNull(systemMemoryContext, "systemMemoryContext is null");
+        this.groupsMemoryContext = systemMemoryContext.newOrcLocalMemoryContext(GroupedAggregatedOrcPageSource.class.getSimpleName());
+        this.functionResolution = requireNonNull(functionResolution, "functionResolution is null");
+        checkArgument(maxMemoryInBytes > 0, "maxMemoryInBytes must be positive");
+        this.maxMemoryInBytes = maxMemoryInBytes;
+        requireNonNull(typeManager, "typeManager is null");
+
+        ImmutableList.Builder<Type> types = ImmutableList.builder();
+        ImmutableList.Builder<Type> keyTypes = ImmutableList.builder();
+        List<Integer> keyColumnIndexes = new ArrayList<>();
+        this.keyChannels = new int[columnHandles.size()];
+        this.accumulators = new GroupedAccumulator[columnHandles.size()];
+        for (int channel = 0; channel < columnHandles.size(); channel++) {
+            HiveColumnHandle columnHandle = columnHandles.get(channel);
+            Type type = typeManager.getType(columnHandle.getTypeSignature());
+            types.add(type);
+            if (columnHandle.getColumnType() == REGULAR) {
+                keyChannels[channel] = keyColumnIndexes.size();
+                keyColumnIndexes.add(columnHandle.getHiveColumnIndex());
+                keyTypes.add(type);
+            }
+            else {
+                keyChannels[channel] = -1;
+            }
+        }
+        this.types = types.build();
+        this.keyTypes = keyTypes.build();
+        this.keyColumnIndexes = keyColumnIndexes.stream().mapToInt(Integer::intValue).toArray();
+        this.accumulators = createAccumulators();
+    }
+
+    @Override
+    public long getCompletedBytes()
+    {
+        return orcDataSource.getReadBytes();
+    }
+
+    @Override
+    public long getCompletedPositions()
+    {
+        return completedPositions;
+    }
+
+    @Override
+    public long getReadTimeNanos()
+    {
+        return orcDataSource.getReadTimeNanos();
+    }
+
+    @Override
+    public boolean isFinished()
+    {
+        return closed;
+    }
+
+    @Override
+    public Page getNextPage()
+    {
+        try {
+            if (flushing && nextOutputGroup >= groupKeys.size()) {
+                resetGroups();
+            }
+            if (!flushing) {
+                if (fileAggregated) {
+                    close();
+                    return null;
+                }
+                aggregate();
+                flushing = true;
+                if (groupKeys.isEmpty()) {
+                    close();
+                    return null;
+                }
+            }
+
+            PageBuilder pageBuilder = new PageBuilder(types);
+            while (!pageBuilder.isFull() && nextOutputGroup < groupKeys.size()) {
+                pageBuilder.declarePosition();
+                List<Object> key = groupKeys.get(nextOutputGroup);
+                for (int channel = 0; channel < types.size(); channel++) {
+                    BlockBuilder blockBuilder = pageBuilder.getBlockBuilder(channel);
+                    if (keyChannels[channel] >= 0) {
+                        writeNativeValue(types.get(channel), blockBuilder, key.get(keyChannels[channel]));
+                    }
+                    else {
+                        accumulators[channel].write(nextOutputGroup, blockBuilder);
+                    }
+                }
+                nextOutputGroup++;
+            }
+            return pageBuilder.build();
+        }
+        catch (PrestoException e) {
+            closeWithSuppression(e);
+            throw e;
+        }
+        catch (OrcCorruptionException e) {
+            closeWithSuppression(e);
+            throw new PrestoException(HIVE_BAD_DATA, e);
+        }
+        catch (IOException | RuntimeException e) {
+            closeWithSuppression(e);
+            throw new PrestoException(HIVE_CURSOR_ERROR, format("Failed to read ORC file: %s", orcDataSource.getId()), e);
+        }
+    }
+
+    /**
+     * Aggregates batches until the file is exhausted or the groups reach the memory limit. At least one
+     * batch is aggregated, so every flush makes progress.
+     */
+    private void aggregate()
+            throws IOException
+    {
+        Map<Integer, Block> blocks = new HashMap<>();
+        do {
+            int batchSize = recordReader.nextBatch();
+            if (batchSize <= 0) {
+                fileAggregated = true;
+                return;
+            }
+
+            // a column may be both a grouping key and an aggregation argument, but can only be read once per batch
+            blocks.clear();
+            Block[] keyBlocks = new Block[keyColumnIndexes.length];
+            for (int i = 0; i < keyColumnIndexes.length; i++) {
+                keyBlocks[i] = readBlock(blocks, keyColumnIndexes[i], keyTypes.get(i), batchSize);
+            }
+            int[] groups = getGroupIds(keyBlocks, batchSize);
+
+            for (int channel = 0; channel < accumulators.length; channel++) {
+                GroupedAccumulator accumulator = accumulators[channel];
+                if (accumulator == null) {
+                    continue;
+                }
+                accumulator.ensureCapacity(groupKeys.size());
+                Block block = accumulator.getInputColumnIndex() < 0 ? null : readBlock(blocks, accumulator.getInputColumnIndex(), accumulator.getInputType(), batchSize);
+                accumulator.add(groups, block, batchSize);
+            }
+            completedPositions += batchSize;
+            groupsMemoryContext.setBytes(getGroupsSizeInBytes());
+        }
+        while (getGroupsSizeInBytes() < maxMemoryInBytes);
+    }
+
+    private long getGroupsSizeInBytes()
+    {
+        long sizeInBytes = groupKeysSizeInBytes + sizeOf(dictionaryGroupIds);
+        for (GroupedAccumulator accumulator : accumulators) {
+            if (accumulator != null) {
+                sizeInBytes += accumulator.getEstimatedSize();
+            }
+        }
+        return sizeInBytes;
+    }
+
+    private void resetGroups()
+    {
+        groupIds.clear();
+        groupKeys.clear();
+        groupKeysSizeInBytes = 0;
+        lastDictionary = null;
+        dictionaryGroupIds = null;
+        accumulators = createAccumulators();
+        nextOutputGroup = 0;
+        flushing = false;
+        groupsMemoryContext.setBytes(0);
+    }
+
+    private GroupedAccumulator[] createAccumulators()
+    {
+        GroupedAccumulator[] accumulators = new GroupedAccumulator[columnHandles.size()];
+        for (int channel = 0; channel < columnHandles.size(); channel++) {
+            if (keyChannels[channel] < 0) {
+                accumulators[channel] = createAccumulator(columnHandles.get(channel), types.get(channel), functionResolution);
+            }
+        }
+        return accumulators;
+    }
+
+    private Block readBlock(Map<Integer, Block> blocks, int columnIndex, Type type, int batchSize)
+            throws IOException
+    {
+        Block block = blocks.get(columnIndex);
+        if (block == null) {
+            if (recordReader.isColumnPresent(columnIndex)) {
+                block = recordReader.readBlock(columnIndex).getLoadedBlock();
+            }
+            else {
+                block = RunLengthEncodedBlock.create(type, null, batchSize);
+            }
+            blocks.put(columnIndex, block);
+        }
+        return block;
+    }
+
+    private int[] getGroupIds(Block[] keyBlocks, int positionCount)
+    {
+        int[] groups = new int[positionCount];
+        if (keyBlocks.length == 1 && keyBlocks[0] instanceof DictionaryBlock) {
+            DictionaryBlock dictionaryBlock = (DictionaryBlock) keyBlocks[0];
+            Block dictionary = dictionaryBlock.getDictionary();
+            if (dictionary != lastDictionary) {
+                // stripes and row groups sharing a dictionary reuse the group ids of its entries
+                lastDictionary = dictionary;
+                dictionaryGroupIds = new int[dictionary.getPositionCount()];
+                Arrays.fill(dictionaryGroupIds, -1);
+            }
+            for (int position = 0; position < positionCount; position++) {
+                int id = dictionaryBlock.getId(position);
+                int group = dictionaryGroupIds[id];
+                if (group < 0) {
+                    group = getGroupId(new Block[] {dictionary}, id);
+                    dictionaryGroupIds[id] = group;
+                }
+                groups[position] = group;
+            }
+            return groups;
+        }
+
+        for (int position = 0; position < positionCount; position++) {
+            groups[position] = getGroupId(keyBlocks, position);
+        }
+        return groups;
+    }
+
+    private int getGroupId(Block[] keyBlocks, int position)
+    {
+        Object[] key = new Object[keyBlocks.length];
+        for (int i = 0; i < keyBlocks.length; i++) {
+            Object value = readNativeValue(keyTypes.get(i), keyBlocks[i], position);
+            // do not retain the whole block through a slice view
+            key[i] = value instanceof Slice ? Slices.copyOf((Slice) value) : value;
+        }
+        List<Object> keyList = Arrays.asList(key);
+        Integer group = groupIds.get(keyList);
+        if (group == null) {
+            group = groupKeys.size();
+            groupIds.put(keyList, group);
+            groupKeys.add(keyList);
+            groupKeysSizeInBytes += getKeySizeInBytes(key);
+        }
+        return group;
+    }
+
+    private static long getKeySizeInBytes(Object[] key)
+    {
+        long sizeInBytes = GROUP_OVERHEAD_BYTES + sizeOf(key);
+        for (Object value : key) {
+            if (value instanceof Slice) {
+                sizeInBytes += ((Slice) value).getRetainedSize();
+            }
+            else if (value != null) {
+                sizeInBytes += BOXED_KEY_BYTES;
+            }
+        }
+        return sizeInBytes;
+    }
+
+    @Override
+    public void close()
+    {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        groupIds.clear();
+        groupKeys.clear();
+        groupsMemoryContext.close();
+
+        try {
+            recordReader.close();
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public long getSystemMemoryUsage()
+    {
+        return systemMemoryContext.getBytes();
+    }
+
+    private void closeWithSuppression(Throwable throwable)
+    {
+        requireNonNull(throwable, "throwable is null");
+        try {
+            close();
+        }
+        catch (RuntimeException e) {
+            // Self-suppression not permitted
+            if (throwable != e) {
+                throwable.addSuppressed(e);
+            }
+        }
+    }
+
+    private static GroupedAccumulator createAccumulator(HiveColumnHandle columnHandle, Type outputType, StandardFunctionResolution functionResolution)
+    {
+        Aggregation aggregation = columnHandle.getPartialAggregation().get();
+        FunctionHandle functionHandle = aggregation.getFunctionHandle();
+        if (functionResolution.isCountFunction(functionHandle)) {
+            if (aggregation.getArguments().isEmpty()) {
+                return new CountAccumulator(-1, outputType);
+            }
+            return new CountAccumulator(columnHandle.getHiveColumnIndex(), aggregation.getArguments().get(0).getType());
+        }
+
+        Type inputType = aggregation.getArguments().get(0).getType();
+        if (functionResolution.isSumFunction(functionHandle)) {
+            if (inputType.equals(DOUBLE)) {
+                return new DoubleSumAccumulator(columnHandle.getHiveColumnIndex(), inputType);
+            }
+            return new LongSumAccumulator(columnHandle.getHiveColumnIndex(), inputType);
+        }
+        if (functionResolution.isMinFunction(functionHandle)) {
+            return new MinMaxAccumulator(columnHandle.getHiveColumnIndex(), inputType, true);
+        }
+        if (functionResolution.isMaxFunction(functionHandle)) {
+            return new MinMaxAccumulator(columnHandle.getHiveColumnIndex(), inputType, false);
+        }
+        throw new UnsupportedOperationException(functionHandle + " is not supported");
+    }
+
+    private abstract static class GroupedAccumulator
+    {
+        private final int inputColumnIndex;
+        private final Type inputType;
+
+        protected GroupedAccumulator(int inputColumnIndex, Type inputType)
+        {
+            this.inputColumnIndex = inputColumnIndex;
+            this.inputType = requireNonNull(inputType, "inputType is null");
+        }
+
+        public int getInputColumnIndex()
+        {
+            return inputColumnIndex;
+        }
+
+        public Type getInputType()
+        {
+            return inputType;
+        }
+
+        public abstract void ensureCapacity(int groupCount);
+
+        public abstract void add(int[] groups, Block block, int positionCount);
+
+        public abstract void write(int group, BlockBuilder blockBuilder);
+
+        public abstract long getEstimatedSize();
+    }
+
+    private static class CountAccumulator
+            extends GroupedAccumulator
+    {
+        private final LongBigArray counts = new LongBigArray();
+
+        public CountAccumulator(int inputColumnIndex, Type inputType)
+        {
+            super(inputColumnIndex, inputType);
+        }
+
+        @Override
+        public void ensureCapacity(int groupCount)
+        {
+            counts.ensureCapacity(groupCount);
+        }
+
+        @Override
+        public void add(int[] groups, Block block, int positionCount)
+        {
+            for (int position = 0; position < positionCount; position++) {
+                if (block == null || !block.isNull(position)) {
+                    counts.increment(groups[position]);
+                }
+            }
+        }
+
+        @Override
+        public void write(int group, BlockBuilder blockBuilder)
+        {
+            blockBuilder.writeLong(counts.get(group));
+        }
+
+        @Override
+        public long getEstimatedSize()
+        {
+            return counts.sizeOf();
+        }
+    }
+
+    private static class LongSumAccumulator
+            extends GroupedAccumulator
+    {
+        private final LongBigArray sums = new LongBigArray();
+        private final BooleanBigArray nonNull = new BooleanBigArray();
+
+        public LongSumAccumulator(int inputColumnIndex, Type inputType)
+        {
+            super(inputColumnIndex, inputType);
+        }
+
+        @Override
+        public void ensureCapacity(int groupCount)
+        {
+            sums.ensureCapacity(groupCount);
+            nonNull.ensureCapacity(groupCount);
+        }
+
+        @Override
+        public void add(int[] groups, Block block, int positionCount)
+        {
+            for (int position = 0; position < positionCount; position++) {
+                if (!block.isNull(position)) {
+                    int group = groups[position];
+                    try {
+                        sums.set(group, Math.addExact(sums.get(group), getInputType().getLong(block, position)));
+                    }
+                    catch (ArithmeticException e) {
+                        throw new PrestoException(NUMERIC_VALUE_OUT_OF_RANGE, "bigint addition overflow", e);
+                    }
+                    nonNull.set(group, true);
+                }
+            }
+        }
+
+        @Override
+        public void write(int group, BlockBuilder blockBuilder)
+        {
+            if (nonNull.get(group)) {
+                blockBuilder.writeLong(sums.get(group));
+            }
+            else {
+                blockBuilder.appendNull();
+            }
+        }
+
+        @Override
+        public long getEstimatedSize()
+        {
+            return sums.sizeOf() + nonNull.sizeOf();
+        }
+    }
+
+    private static class DoubleSumAccumulator
+            extends GroupedAccumulator
+    {
+        private final DoubleBigArray sums = new DoubleBigArray();
+        private final BooleanBigArray nonNull = new BooleanBigArray();
+
+        public DoubleSumAccumulator(int inputColumnIndex, Type inputType)
+        {
+            super(inputColumnIndex, inputType);
+        }
+
+        @Override
+        public void ensureCapacity(int groupCount)
+        {
+            sums.ensureCapacity(groupCount);
+            nonNull.ensureCapacity(groupCount);
+        }
+
+        @Override
+        public void add(int[] groups, Block block, int positionCount)
+        {
+            for (int position = 0; position < positionCount; position++) {
+                if (!block.isNull(position)) {
+                    sums.add(groups[position], DOUBLE.getDouble(block, position));
+                    nonNull.set(groups[position], true);
+                }
+            }
+        }
+
+        @Override
+        public void write(int group, BlockBuilder blockBuilder)
+        {
+            if (nonNull.get(group)) {
+                DOUBLE.writeDouble(blockBuilder, sums.get(group));
+            }
+            else {
+                blockBuilder.appendNull();
+            }
+        }
+
+        @Override
+        public long getEstimatedSize()
+        {
+            return sums.sizeOf() + nonNull.sizeOf();
+        }
+    }
+
+    private static class MinMaxAccumulator
+            extends GroupedAccumulator
+    {
+        private final ObjectBigArray<Object> values = new ObjectBigArray<>();
+        private final boolean min;
+        private long valuesSizeInBytes;
+
+        public MinMaxAccumulator(int inputColumnIndex, Type inputType, boolean min)
+        {
+            super(inputColumnIndex, inputType);
+            this.min = min;
+        }
+
+        @Override
+        public void ensureCapacity(int groupCount)
+        {
+            values.ensureCapacity(groupCount);
+        }
+
+        @Override
+        public void add(int[] groups, Block block, int positionCount)
+        {
+            for (int position = 0; position < positionCount; position++) {
+                if (block.isNull(position)) {
+                    continue;
+                }
+                Object value = readNativeValue(getInputType(), block, position);
+                Object current = values.get(groups[position]);
+                if (current == null || (min ? compare(value, current) < 0 : compare(value, current) > 0)) {
+                    Object newValue = value instanceof Slice ? Slices.copyOf((Slice) value) : value;
+                    valuesSizeInBytes += getValueSize(newValue) - getValueSize(current);
+                    values.set(groups[position], newValue);
+                }
+            }
+        }
+
+        @SuppressWarnings("unchecked")
+        private int compare(Object left, Object right)
+        {
+            if (getInputType().equals(REAL)) {
+                return Float.compare(intBitsToFloat(toIntExact((long) left)), intBitsToFloat(toIntExact((long) right)));
+            }
+            return ((Comparable<Object>) left).compareTo(right);
+        }
+
+        @Override
+        public void write(int group, BlockBuilder blockBuilder)
+        {
+            writeNativeValue(getInputType(), blockBuilder, values.get(group));
+        }
+
+        @Override
+        public long getEstimatedSize()
+        {
+            return values.sizeOf() + valuesSizeInBytes;
+        }
+
+        private static long getValueSize(Object value)
+        {
+            if (value == null) {
+                return 0;
+            }
+            return value instanceof Slice ? ((Slice) value).getRetainedSize() : BOXED_KEY_BYTES;
+        }
+    }
+}
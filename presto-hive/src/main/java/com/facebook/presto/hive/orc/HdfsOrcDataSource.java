@@ -21,6 +21,8 @@ import com.facebook.presto.spi.PrestoException;
 import org.apache.hadoop.fs.FSDataInputStream;
 
 import java.io.IOException;
+import java.util.Optional;
+import java.util.concurrent.Executor;
 
 import static com.facebook.presto.hive.HiveErrorCode.HIVE_FILESYSTEM_ERROR;
 import static com.facebook.presto.hive.HiveErrorCode.HIVE_MISSING_DATA;
@@ -44,7 +46,22 @@ public class HdfsOrcDataSource
             FSDataInputStream inputStream,
             FileFormatDataSourceStats stats)
     {
-        super(id, size, maxMergeDistance, maxReadSize, streamBufferSize, lazyReadSmallRanges);
+        this(id, size, maxMergeDistance, maxReadSize, streamBufferSize, lazyReadSmallRanges, inputStream, stats, Optional.empty());
+    }
+
+    public HdfsOrcDataSource(
+            OrcDataSourceId id,
+            long size,
+            DataSize maxMergeDistance,
+            DataSize maxReadSize,
+            DataSize streamBufferSize,
+            boolean lazyReadSmallRanges,
+            FSDataInputStream inputStream,
+            FileFormatDataSourceStats stats,
+            Optional<Executor> parallelReadExecutor)
+    {
+        // positional reads of FSDataInputStream are safe to issue concurrently
+        super(id, size, maxMergeDistance, maxReadSize, streamBufferSize, lazyReadSmallRanges, parallelReadExecutor);
         this.inputStream = requireNonNull(inputStream, "inputStream is null");
         this.stats = requireNonNull(stats, "stats is null");
     }
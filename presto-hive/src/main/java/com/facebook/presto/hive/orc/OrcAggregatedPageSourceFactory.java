@@ -14,18 +14,25 @@
 package com.facebook.presto.hive.orc;
 
 import com.facebook.airlift.units.DataSize;
+import com.facebook.presto.common.type.Type;
 import com.facebook.presto.common.type.TypeManager;
 import com.facebook.presto.hive.EncryptionInformation;
 import com.facebook.presto.hive.FileFormatDataSourceStats;
+import com.facebook.presto.hive.ForOrcRead;
 import com.facebook.presto.hive.HdfsEnvironment;
 import com.facebook.presto.hive.HiveAggregatedPageSourceFactory;
 import com.facebook.presto.hive.HiveColumnHandle;
 import com.facebook.presto.hive.HiveFileContext;
 import com.facebook.presto.hive.HiveFileSplit;
+import com.facebook.presto.hive.HiveOrcAggregatedMemoryContext;
 import com.facebook.presto.hive.metastore.Storage;
 import com.facebook.presto.orc.DwrfEncryptionProvider;
+import com.facebook.presto.orc.OrcAggregatedMemoryContext;
+import com.facebook.presto.orc.OrcBatchRecordReader;
+import com.facebook.presto.orc.OrcCorruptionException;
 import com.facebook.presto.orc.OrcDataSource;
 import com.facebook.presto.orc.OrcEncoding;
+import com.facebook.presto.orc.OrcPredicate;
 import com.facebook.presto.orc.OrcReader;
 import com.facebook.presto.orc.OrcReaderOptions;
 import com.facebook.presto.orc.StripeMetadataSourceFactory;
@@ -35,27 +42,36 @@ import com.facebook.presto.spi.ConnectorSession;
 import com.facebook.presto.spi.FixedPageSource;
 import com.facebook.presto.spi.function.StandardFunctionResolution;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
 import jakarta.inject.Inject;
 import org.apache.hadoop.conf.Configuration;
 import org.apache.hadoop.fs.Path;
 import org.apache.hadoop.hive.ql.io.orc.OrcSerde;
 
 import java.io.IOException;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
 
+import static com.facebook.presto.hive.BaseHiveColumnHandle.ColumnType.REGULAR;
 import static com.facebook.presto.hive.HiveCommonSessionProperties.getOrcMaxMergeDistance;
 import static com.facebook.presto.hive.HiveCommonSessionProperties.getOrcMaxReadBlockSize;
 import static com.facebook.presto.hive.HiveCommonSessionProperties.getOrcTinyStripeThreshold;
 import static com.facebook.presto.hive.HiveCommonSessionProperties.isOrcZstdJniDecompressionEnabled;
 import static com.facebook.presto.hive.HiveCommonSessionProperties.isUseOrcColumnNames;
+import static com.facebook.presto.hive.HiveSessionProperties.getGroupedPartialAggregationPushdownMaxMemory;
 import static com.facebook.presto.hive.HiveUtil.getPhysicalHiveColumnHandles;
 import static com.facebook.presto.hive.orc.OrcPageSourceFactoryUtils.getOrcDataSource;
 import static com.facebook.presto.hive.orc.OrcPageSourceFactoryUtils.getOrcReader;
 import static com.facebook.presto.hive.orc.OrcPageSourceFactoryUtils.mapToPrestoException;
 import static com.facebook.presto.orc.DwrfEncryptionProvider.NO_ENCRYPTION;
 import static com.facebook.presto.orc.OrcEncoding.ORC;
+import static com.facebook.presto.orc.OrcReader.INITIAL_BATCH_SIZE;
 import static java.util.Objects.requireNonNull;
+import static org.joda.time.DateTimeZone.UTC;
 
 public class OrcAggregatedPageSourceFactory
         implements HiveAggregatedPageSourceFactory
@@ -66,6 +82,7 @@ public class OrcAggregatedPageSourceFactory
     private final FileFormatDataSourceStats stats;
     private final OrcFileTailSource orcFileTailSource;
     private final StripeMetadataSourceFactory stripeMetadataSourceFactory;
+    private final Executor orcReadExecutor;
 
     @Inject
     public OrcAggregatedPageSourceFactory(
@@ -74,7 +91,8 @@ public class OrcAggregatedPageSourceFactory
             HdfsEnvironment hdfsEnvironment,
             FileFormatDataSourceStats stats,
             OrcFileTailSource orcFileTailSource,
-            StripeMetadataSourceFactory stripeMetadataSourceFactory)
+            StripeMetadataSourceFactory stripeMetadataSourceFactory,
+            @ForOrcRead ExecutorService orcReadExecutor)
     {
         this.typeManager = requireNonNull(typeManager, "typeManager is null");
         this.functionResolution = requireNonNull(functionResolution, "functionResolution is null");
@@ -82,6 +100,7 @@ public class OrcAggregatedPageSourceFactory
         this.stats = requireNonNull(stats, "stats is null");
         this.orcFileTailSource = requireNonNull(orcFileTailSource, "orcFileTailCache is null");
         this.stripeMetadataSourceFactory = requireNonNull(stripeMetadataSourceFactory, "stripeMetadataSourceFactory is null");
+        this.orcReadExecutor = requireNonNull(orcReadExecutor, "orcReadExecutor is null");
     }
 
     @Override
@@ -114,6 +133,7 @@ public class OrcAggregatedPageSourceFactory
                 typeManager,
                 functionResolution,
                 stats,
+                orcReadExecutor,
                 orcFileTailSource,
                 stripeMetadataSourceFactory,
                 hiveFileContext,
@@ -134,6 +154,7 @@ public class OrcAggregatedPageSourceFactory
             TypeManager typeManager,
             StandardFunctionResolution functionResolution,
             FileFormatDataSourceStats stats,
+            Executor orcReadExecutor,
             OrcFileTailSource orcFileTailSource,
             StripeMetadataSourceFactory stripeMetadataSourceFactory,
             HiveFileContext hiveFileContext,
@@ -142,7 +163,7 @@ public class OrcAggregatedPageSourceFactory
             boolean appendRowNumberEnabled,
             Optional<byte[]> rowIDPartitionComponent)
     {
-        OrcDataSource orcDataSource = getOrcDataSource(session, fileSplit, hdfsEnvironment, configuration, hiveFileContext, stats);
+        OrcDataSource orcDataSource = getOrcDataSource(session, fileSplit, hdfsEnvironment, configuration, hiveFileContext, stats, orcReadExecutor);
 
         DataSize maxMergeDistance = getOrcMaxMergeDistance(session);
         DataSize tinyStripeThreshold = getOrcTinyStripeThreshold(session);
@@ -173,6 +194,12 @@ public class OrcAggregatedPageSourceFactory
 
             List<HiveColumnHandle> physicalColumns = getPhysicalHiveColumnHandles(columns, useOrcColumnNames, reader.getTypes(), path);
 
+            if (physicalColumns.stream().anyMatch(column -> column.getColumnType() == REGULAR)) {
+                ConnectorPageSource pageSource = createGroupedAggregatedPageSource(reader, fileSplit, physicalColumns, typeManager, functionResolution, getGroupedPartialAggregationPushdownMaxMemory(session));
+                // the data source is now owned by the record reader of the page source
+                orcDataSource = null;
+                return pageSource;
+            }
             return new AggregatedOrcPageSource(physicalColumns, reader.getFooter(), typeManager, functionResolution);
         }
         catch (Exception e) {
@@ -180,10 +207,44 @@ public class OrcAggregatedPageSourceFactory
         }
         finally {
             try {
-                orcDataSource.close();
+                if (orcDataSource != null) {
+                    orcDataSource.close();
+                }
             }
             catch (IOException ignored) {
             }
         }
     }
+
+    private static ConnectorPageSource createGroupedAggregatedPageSource(
+            OrcReader reader,
+            HiveFileSplit fileSplit,
+            List<HiveColumnHandle> physicalColumns,
+            TypeManager typeManager,
+            StandardFunctionResolution functionResolution,
+            DataSize maxMemory)
+            throws OrcCorruptionException
+    {
+        // read the grouping keys and the arguments of the aggregations
+        Map<Integer, Type> includedColumns = new HashMap<>();
+        for (HiveColumnHandle column : physicalColumns) {
+            if (column.getColumnType() == REGULAR) {
+                includedColumns.put(column.getHiveColumnIndex(), typeManager.getType(column.getTypeSignature()));
+            }
+            else if (!column.getPartialAggregation().get().getArguments().isEmpty()) {
+                includedColumns.put(column.getHiveColumnIndex(), column.getPartialAggregation().get().getArguments().get(0).getType());
+            }
+        }
+
+        OrcAggregatedMemoryContext systemMemoryUsage = new HiveOrcAggregatedMemoryContext();
+        OrcBatchRecordReader recordReader = reader.createBatchRecordReader(
+                ImmutableMap.copyOf(includedColumns),
+                OrcPredicate.TRUE,
+                fileSplit.getStart(),
+                fileSplit.getLength(),
+                UTC,
+                systemMemoryUsage,
+                INITIAL_BATCH_SIZE);
+        return new GroupedAggregatedOrcPageSource(physicalColumns, recordReader, reader.getOrcDataSource(), typeManager, functionResolution, systemMemoryUsage, maxMemory.toBytes());
+    }
 }
@@ -18,6 +18,7 @@ import com.facebook.presto.common.type.Type;
 import com.facebook.presto.common.type.TypeManager;
 import com.facebook.presto.hive.EncryptionInformation;
 import com.facebook.presto.hive.FileFormatDataSourceStats;
+import com.facebook.presto.hive.ForOrcRead;
 import com.facebook.presto.hive.HdfsEnvironment;
 import com.facebook.presto.hive.HiveBatchPageSourceFactory;
 import com.facebook.presto.hive.HiveClientConfig;
@@ -37,6 +38,7 @@ import com.facebook.presto.orc.OrcReaderOptions;
 import com.facebook.presto.orc.StripeMetadataSourceFactory;
 import com.facebook.presto.orc.TupleDomainOrcPredicate;
 import com.facebook.presto.orc.TupleDomainOrcPredicate.ColumnReference;
+import com.facebook.presto.orc.cache.DecodedBlockCache;
 import com.facebook.presto.orc.cache.OrcFileTailSource;
 import com.facebook.presto.spi.ConnectorPageSource;
 import com.facebook.presto.spi.ConnectorSession;
@@ -56,6 +58,8 @@ import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.OptionalInt;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
 
 import static com.facebook.presto.hive.BaseHiveColumnHandle.ColumnType.REGULAR;
 import static com.facebook.presto.hive.HiveCommonSessionProperties.getOrcMaxMergeDistance;
@@ -73,6 +77,7 @@ import static com.facebook.presto.orc.DwrfEncryptionProvider.NO_ENCRYPTION;
 import static com.facebook.presto.orc.OrcEncoding.ORC;
 import static com.facebook.presto.orc.OrcReader.INITIAL_BATCH_SIZE;
 import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.util.concurrent.MoreExecutors.directExecutor;
 import static java.util.Objects.requireNonNull;
 
 public class OrcBatchPageSourceFactory
@@ -84,6 +89,8 @@ public class OrcBatchPageSourceFactory
     private final int domainCompactionThreshold;
     private final OrcFileTailSource orcFileTailSource;
     private final StripeMetadataSourceFactory stripeMetadataSourceFactory;
+    private final Executor orcReadExecutor;
+    private final DecodedBlockCache decodedBlockCache;
 
     @Inject
     public OrcBatchPageSourceFactory(
@@ -93,7 +100,9 @@ public class OrcBatchPageSourceFactory
             HdfsEnvironment hdfsEnvironment,
             FileFormatDataSourceStats stats,
             OrcFileTailSource orcFileTailSource,
-            StripeMetadataSourceFactory stripeMetadataSourceFactory)
+            StripeMetadataSourceFactory stripeMetadataSourceFactory,
+            @ForOrcRead ExecutorService orcReadExecutor,
+            DecodedBlockCache decodedBlockCache)
     {
         this(
                 typeManager,
@@ -101,7 +110,9 @@ public class OrcBatchPageSourceFactory
                 stats,
                 config.getDomainCompactionThreshold(),
                 orcFileTailSource,
-                stripeMetadataSourceFactory);
+                stripeMetadataSourceFactory,
+                orcReadExecutor,
+                decodedBlockCache);
     }
 
     public OrcBatchPageSourceFactory(
@@ -111,6 +122,46 @@ public class OrcBatchPageSourceFactory
             int domainCompactionThreshold,
             OrcFileTailSource orcFileTailSource,
             StripeMetadataSourceFactory stripeMetadataSourceFactory)
+    {
+        this(
+                typeManager,
+                hdfsEnvironment,
+                stats,
+                domainCompactionThreshold,
+                orcFileTailSource,
+                stripeMetadataSourceFactory,
+                directExecutor());
+    }
+
+    public OrcBatchPageSourceFactory(
+            TypeManager typeManager,
+            HdfsEnvironment hdfsEnvironment,
+            FileFormatDataSourceStats stats,
+            int domainCompactionThreshold,
+            OrcFileTailSource orcFileTailSource,
+            StripeMetadataSourceFactory stripeMetadataSourceFactory,
+            Executor orcReadExecutor)
+    {
+        this(
+                typeManager,
+                hdfsEnvironment,
+                stats,
+                domainCompactionThreshold,
+                orcFileTailSource,
+                stripeMetadataSourceFactory,
+                orcReadExecutor,
+                DecodedBlockCache.disabled());
+    }
+
+    public OrcBatchPageSourceFactory(
+            TypeManager typeManager,
+            HdfsEnvironment hdfsEnvironment,
+            FileFormatDataSourceStats stats,
+            int domainCompactionThreshold,
+            OrcFileTailSource orcFileTailSource,
+            StripeMetadataSourceFactory stripeMetadataSourceFactory,
+            Executor orcReadExecutor,
+            DecodedBlockCache decodedBlockCache)
     {
         this.typeManager = requireNonNull(typeManager, "typeManager is null");
         this.hdfsEnvironment = requireNonNull(hdfsEnvironment, "hdfsEnvironment is null");
@@ -118,6 +169,8 @@ public class OrcBatchPageSourceFactory
         this.domainCompactionThreshold = domainCompactionThreshold;
         this.orcFileTailSource = requireNonNull(orcFileTailSource, "orcFileTailSource is null");
         this.stripeMetadataSourceFactory = requireNonNull(stripeMetadataSourceFactory, "stripeMetadataSourceFactory is null");
+        this.orcReadExecutor = requireNonNull(orcReadExecutor, "orcReadExecutor is null");
+        this.decodedBlockCache = requireNonNull(decodedBlockCache, "decodedBlockCache is null");
     }
 
     @Override
@@ -156,6 +209,7 @@ public class OrcBatchPageSourceFactory
                 typeManager,
                 isOrcBloomFiltersEnabled(session),
                 stats,
+                orcReadExecutor,
                 domainCompactionThreshold,
                 orcFileTailSource,
                 stripeMetadataSourceFactory,
@@ -169,7 +223,8 @@ public class OrcBatchPageSourceFactory
                 encryptionInformation,
                 NO_ENCRYPTION,
                 session,
-                rowIDPartitionComponent));
+                rowIDPartitionComponent,
+                decodedBlockCache));
     }
 
     public static ConnectorPageSource createOrcPageSource(
@@ -184,6 +239,7 @@ public class OrcBatchPageSourceFactory
             TypeManager typeManager,
             boolean orcBloomFiltersEnabled,
             FileFormatDataSourceStats stats,
+            Executor orcReadExecutor,
             int domainCompactionThreshold,
             OrcFileTailSource orcFileTailSource,
             StripeMetadataSourceFactory stripeMetadataSourceFactory,
@@ -192,12 +248,13 @@ public class OrcBatchPageSourceFactory
             Optional<EncryptionInformation> encryptionInformation,
             DwrfEncryptionProvider dwrfEncryptionProvider,
             ConnectorSession session,
-            Optional<byte[]> rowIDPartitionComponent)
+            Optional<byte[]> rowIDPartitionComponent,
+            DecodedBlockCache decodedBlockCache)
     {
         checkArgument(domainCompactionThreshold >= 1, "domainCompactionThreshold must be at least 1");
         checkRowIDPartitionComponent(columns, rowIDPartitionComponent);
 
-        OrcDataSource orcDataSource = getOrcDataSource(session, fileSplit, hdfsEnvironment, configuration, hiveFileContext, stats);
+        OrcDataSource orcDataSource = getOrcDataSource(session, fileSplit, hdfsEnvironment, configuration, hiveFileContext, stats, orcReadExecutor);
         Path path = new Path(fileSplit.getPath());
 
         OrcAggregatedMemoryContext systemMemoryUsage = new HiveOrcAggregatedMemoryContext();
@@ -235,7 +292,8 @@ public class OrcBatchPageSourceFactory
                     fileSplit.getLength(),
                     hiveStorageTimeZone,
                     systemMemoryUsage,
-                    INITIAL_BATCH_SIZE);
+                    INITIAL_BATCH_SIZE,
+                    decodedBlockCache);
 
             byte[] partitionID = rowIDPartitionComponent.orElseGet(() -> new byte[0]);
             String rowGroupID = path.getName();
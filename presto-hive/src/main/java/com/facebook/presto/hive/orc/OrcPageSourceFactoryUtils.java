@@ -42,6 +42,7 @@ import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.Executor;
 
 import static com.facebook.presto.hive.HiveCommonSessionProperties.getOrcLazyReadSmallRanges;
 import static com.facebook.presto.hive.HiveCommonSessionProperties.getOrcMaxBufferSize;
@@ -49,6 +50,7 @@ import static com.facebook.presto.hive.HiveCommonSessionProperties.getOrcMaxMerg
 import static com.facebook.presto.hive.HiveCommonSessionProperties.getOrcStreamBufferSize;
 import static com.facebook.presto.hive.HiveErrorCode.HIVE_CANNOT_OPEN_SPLIT;
 import static com.facebook.presto.hive.HiveErrorCode.HIVE_MISSING_DATA;
+import static com.facebook.presto.hive.HiveSessionProperties.isOrcParallelReadEnabled;
 import static com.google.common.base.Strings.nullToEmpty;
 import static java.lang.String.format;
 
@@ -56,12 +58,13 @@ public class OrcPageSourceFactoryUtils
 {
     private OrcPageSourceFactoryUtils() {}
 
-    public static HdfsOrcDataSource getOrcDataSource(ConnectorSession session, HiveFileSplit fileSplit, HdfsEnvironment hdfsEnvironment, Configuration configuration, HiveFileContext hiveFileContext, FileFormatDataSourceStats stats)
+    public static HdfsOrcDataSource getOrcDataSource(ConnectorSession session, HiveFileSplit fileSplit, HdfsEnvironment hdfsEnvironment, Configuration configuration, HiveFileContext hiveFileContext, FileFormatDataSourceStats stats, Executor orcReadExecutor)
     {
         DataSize maxMergeDistance = getOrcMaxMergeDistance(session);
         DataSize maxBufferSize = getOrcMaxBufferSize(session);
         DataSize streamBufferSize = getOrcStreamBufferSize(session);
         boolean lazyReadSmallRanges = getOrcLazyReadSmallRanges(session);
+        Optional<Executor> parallelReadExecutor = isOrcParallelReadEnabled(session) ? Optional.of(orcReadExecutor) : Optional.empty();
 
         Path path = new Path(fileSplit.getPath());
         try {
@@ -74,7 +77,8 @@ public class OrcPageSourceFactoryUtils
                     streamBufferSize,
                     lazyReadSmallRanges,
                     inputStream,
-                    stats);
+                    stats,
+                    parallelReadExecutor);
         }
         catch (Exception e) {
             if (nullToEmpty(e.getMessage()).trim().equals("Filesystem closed") ||
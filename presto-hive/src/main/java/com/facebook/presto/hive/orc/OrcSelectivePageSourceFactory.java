@@ -17,9 +17,11 @@ import com.facebook.airlift.units.DataSize;
 import com.facebook.presto.common.Page;
 import com.facebook.presto.common.Subfield;
 import com.facebook.presto.common.function.SqlFunctionProperties;
+import com.facebook.presto.common.predicate.BlockedBloomFilter;
 import com.facebook.presto.common.predicate.FilterFunction;
 import com.facebook.presto.common.predicate.TupleDomain;
 import com.facebook.presto.common.predicate.TupleDomainFilter;
+import com.facebook.presto.common.predicate.TupleDomainFilter.BloomFilterValues;
 import com.facebook.presto.common.relation.Predicate;
 import com.facebook.presto.common.type.Type;
 import com.facebook.presto.common.type.TypeManager;
@@ -28,6 +30,7 @@ import com.facebook.presto.expressions.DynamicFilters.DynamicFilterExtractResult
 import com.facebook.presto.hive.BucketAdaptation;
 import com.facebook.presto.hive.EncryptionInformation;
 import com.facebook.presto.hive.FileFormatDataSourceStats;
+import com.facebook.presto.hive.ForOrcRead;
 import com.facebook.presto.hive.HdfsEnvironment;
 import com.facebook.presto.hive.HiveClientConfig;
 import com.facebook.presto.hive.HiveCoercer;
@@ -54,6 +57,7 @@ import com.facebook.presto.spi.ConnectorPageSource;
 import com.facebook.presto.spi.ConnectorSession;
 import com.facebook.presto.spi.FixedPageSource;
 import com.facebook.presto.spi.PrestoException;
+import com.facebook.presto.spi.SchemaTableName;
 import com.facebook.presto.spi.function.StandardFunctionResolution;
 import com.facebook.presto.spi.relation.CallExpression;
 import com.facebook.presto.spi.relation.DeterminismEvaluator;
@@ -87,10 +91,13 @@ import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
 import java.util.function.Consumer;
 import java.util.function.Function;
 import java.util.stream.IntStream;
 
+import static com.facebook.presto.common.predicate.TupleDomainFilter.IS_NOT_NULL;
 import static com.facebook.presto.expressions.DynamicFilters.extractDynamicFilters;
 import static com.facebook.presto.expressions.LogicalRowExpressions.TRUE_CONSTANT;
 import static com.facebook.presto.expressions.LogicalRowExpressions.and;
@@ -139,6 +146,7 @@ public class OrcSelectivePageSourceFactory
     private final OrcFileTailSource orcFileTailSource;
     private final StripeMetadataSourceFactory stripeMetadataSourceFactory;
     private final TupleDomainFilterCache tupleDomainFilterCache;
+    private final Executor orcReadExecutor;
 
     @Inject
     public OrcSelectivePageSourceFactory(
@@ -150,7 +158,8 @@ public class OrcSelectivePageSourceFactory
             FileFormatDataSourceStats stats,
             OrcFileTailSource orcFileTailSource,
             StripeMetadataSourceFactory stripeMetadataSourceFactory,
-            TupleDomainFilterCache tupleDomainFilterCache)
+            TupleDomainFilterCache tupleDomainFilterCache,
+            @ForOrcRead ExecutorService orcReadExecutor)
     {
         this(
                 typeManager,
@@ -161,7 +170,8 @@ public class OrcSelectivePageSourceFactory
                 config.getDomainCompactionThreshold(),
                 orcFileTailSource,
                 stripeMetadataSourceFactory,
-                tupleDomainFilterCache);
+                tupleDomainFilterCache,
+                orcReadExecutor);
     }
 
     public OrcSelectivePageSourceFactory(
@@ -173,7 +183,8 @@ public class OrcSelectivePageSourceFactory
             int domainCompactionThreshold,
             OrcFileTailSource orcFileTailSource,
             StripeMetadataSourceFactory stripeMetadataSourceFactory,
-            TupleDomainFilterCache tupleDomainFilterCache)
+            TupleDomainFilterCache tupleDomainFilterCache,
+            Executor orcReadExecutor)
     {
         this.typeManager = requireNonNull(typeManager, "typeManager is null");
         this.functionResolution = requireNonNull(functionResolution, "functionResolution is null");
@@ -184,6 +195,7 @@ public class OrcSelectivePageSourceFactory
         this.orcFileTailSource = requireNonNull(orcFileTailSource, "orcFileTailCache is null");
         this.stripeMetadataSourceFactory = requireNonNull(stripeMetadataSourceFactory, "stripeMetadataSourceFactory is null");
         this.tupleDomainFilterCache = requireNonNull(tupleDomainFilterCache, "tupleDomainFilterCache is null");
+        this.orcReadExecutor = requireNonNull(orcReadExecutor, "orcReadExecutor is null");
     }
 
     @Override
@@ -192,12 +204,14 @@ public class OrcSelectivePageSourceFactory
             ConnectorSession session,
             HiveFileSplit fileSplit,
             Storage storage,
+            SchemaTableName tableName,
             List<HiveColumnHandle> selectedColumns,
             Map<Integer, String> prefilledValues,
             Map<Integer, HiveCoercer> coercers,
             Optional<BucketAdaptation> bucketAdaptation,
             List<Integer> outputColumns,
             TupleDomain<Subfield> domainPredicate,
+            Map<String, BlockedBloomFilter> dynamicFilterBloomFilters,
             RowExpression remainingPredicate,
             DateTimeZone hiveStorageTimeZone,
             HiveFileContext hiveFileContext,
@@ -226,6 +240,7 @@ public class OrcSelectivePageSourceFactory
                 bucketAdaptation,
                 outputColumns,
                 domainPredicate,
+                dynamicFilterBloomFilters,
                 remainingPredicate,
                 isUseOrcColumnNames(session),
                 hiveStorageTimeZone,
@@ -234,6 +249,7 @@ public class OrcSelectivePageSourceFactory
                 rowExpressionService,
                 isOrcBloomFiltersEnabled(session),
                 stats,
+                orcReadExecutor,
                 domainCompactionThreshold,
                 orcFileTailSource,
                 stripeMetadataSourceFactory,
@@ -257,6 +273,7 @@ public class OrcSelectivePageSourceFactory
             Optional<BucketAdaptation> bucketAdaptation,
             List<Integer> outputColumns,
             TupleDomain<Subfield> domainPredicate,
+            Map<String, BlockedBloomFilter> dynamicFilterBloomFilters,
             RowExpression remainingPredicate,
             boolean useOrcColumnNames,
             DateTimeZone hiveStorageTimeZone,
@@ -265,6 +282,7 @@ public class OrcSelectivePageSourceFactory
             RowExpressionService rowExpressionService,
             boolean orcBloomFiltersEnabled,
             FileFormatDataSourceStats stats,
+            Executor orcReadExecutor,
             int domainCompactionThreshold,
             OrcFileTailSource orcFileTailSource,
             StripeMetadataSourceFactory stripeMetadataSourceFactory,
@@ -277,7 +295,7 @@ public class OrcSelectivePageSourceFactory
     {
         checkArgument(domainCompactionThreshold >= 1, "domainCompactionThreshold must be at least 1");
 
-        OrcDataSource orcDataSource = getOrcDataSource(session, fileSplit, hdfsEnvironment, configuration, hiveFileContext, stats);
+        OrcDataSource orcDataSource = getOrcDataSource(session, fileSplit, hdfsEnvironment, configuration, hiveFileContext, stats, orcReadExecutor);
         Path path = new Path(fileSplit.getPath());
 
         boolean supplyRowIDs = selectedColumns.stream().anyMatch(column -> HiveColumnHandle.isRowIdColumnHandle(column));
@@ -326,7 +344,7 @@ public class OrcSelectivePageSourceFactory
             OrcPredicate orcPredicate = toOrcPredicate(domainPredicate, physicalColumns, mappedCoercers, typeManager, domainCompactionThreshold, orcBloomFiltersEnabled);
 
             Map<String, Integer> columnIndices = ImmutableBiMap.copyOf(columnNames).inverse();
-            Map<Integer, Map<Subfield, TupleDomainFilter>> tupleDomainFilters = toTupleDomainFilters(domainPredicate, columnIndices, mappedCoercers, tupleDomainFilterCache);
+            Map<Integer, Map<Subfield, TupleDomainFilter>> tupleDomainFilters = toTupleDomainFilters(domainPredicate, dynamicFilterBloomFilters, columnIndices, mappedCoercers, tupleDomainFilterCache);
 
             List<Integer> outputIndices = outputColumns.stream().map(indexMapping::get).collect(toImmutableList());
             Map<Integer, List<Subfield>> requiredSubfields = collectRequiredSubfields(physicalColumns, outputIndices, tupleDomainFilters, remainingPredicate, columnIndices, functionResolution, rowExpressionService, session);
@@ -541,9 +559,25 @@ public class OrcSelectivePageSourceFactory
         }
     }
 
-    private static Map<Integer, Map<Subfield, TupleDomainFilter>> toTupleDomainFilters(TupleDomain<Subfield> domainPredicate, Map<String, Integer> columnIndices, Map<Integer, HiveCoercer> coercers, TupleDomainFilterCache tupleDomainFilterCache)
+    public static Map<Integer, Map<Subfield, TupleDomainFilter>> toTupleDomainFilters(
+            TupleDomain<Subfield> domainPredicate,
+            Map<String, BlockedBloomFilter> dynamicFilterBloomFilters,
+            Map<String, Integer> columnIndices,
+            Map<Integer, HiveCoercer> coercers,
+            TupleDomainFilterCache tupleDomainFilterCache)
     {
-        Map<Subfield, TupleDomainFilter> filtersBySubfield = Maps.transformValues(domainPredicate.getDomains().get(), tupleDomainFilterCache::getFilter);
+        Map<Subfield, TupleDomainFilter> filtersBySubfield = new HashMap<>(Maps.transformValues(domainPredicate.getDomains().get(), tupleDomainFilterCache::getFilter));
+
+        // Bloom filters of dynamic filters apply to whole columns; values of coerced columns are tested before coercion, so these are skipped
+        for (Map.Entry<String, BlockedBloomFilter> entry : dynamicFilterBloomFilters.entrySet()) {
+            Integer columnIndex = columnIndices.get(entry.getKey());
+            if (columnIndex == null || coercers.containsKey(columnIndex)) {
+                continue;
+            }
+            // null join keys never match, so the filter rejects nulls even if the column predicate allows them
+            Subfield subfield = new Subfield(entry.getKey());
+            filtersBySubfield.put(subfield, BloomFilterValues.of(entry.getValue(), filtersBySubfield.getOrDefault(subfield, IS_NOT_NULL)));
+        }
 
         Map<Integer, Map<Subfield, TupleDomainFilter>> filtersByColumn = new HashMap<>();
         for (Map.Entry<Subfield, TupleDomainFilter> entry : filtersBySubfield.entrySet()) {
@@ -581,6 +615,11 @@ public class OrcSelectivePageSourceFactory
      * Split filter expression into groups of conjuncts that depend on the same set of inputs,
      * then compile each group into FilterFunction.
      */
+    public static List<FilterFunction> toFilterFunctions(RowExpression filter, ConnectorSession session, DeterminismEvaluator determinismEvaluator, PredicateCompiler predicateCompiler)
+    {
+        return toFilterFunctions(filter, Optional.empty(), session, determinismEvaluator, predicateCompiler);
+    }
+
     private static List<FilterFunction> toFilterFunctions(RowExpression filter, Optional<BucketAdapter> bucketAdapter, ConnectorSession session, DeterminismEvaluator determinismEvaluator, PredicateCompiler predicateCompiler)
     {
         ImmutableList.Builder<FilterFunction> filterFunctions = ImmutableList.builder();
@@ -106,6 +106,7 @@ import static com.facebook.presto.hive.HiveCommonSessionProperties.isParquetBatc
 import static com.facebook.presto.hive.HiveCommonSessionProperties.isUseParquetColumnNames;
 import static com.facebook.presto.hive.HiveErrorCode.HIVE_PARTITION_SCHEMA_MISMATCH;
 import static com.facebook.presto.hive.HiveSessionProperties.columnIndexFilterEnabled;
+import static com.facebook.presto.hive.HiveSessionProperties.isParquetBloomFilterEnabled;
 import static com.facebook.presto.hive.parquet.HdfsParquetDataSource.buildHdfsParquetDataSource;
 import static com.facebook.presto.hive.parquet.ParquetPageSourceFactoryUtils.mapToPrestoException;
 import static com.facebook.presto.memory.context.AggregatedMemoryContext.newSimpleAggregatedMemoryContext;
@@ -183,12 +184,44 @@ public class ParquetPageSourceFactory
             FileFormatDataSourceStats stats,
             HiveFileContext hiveFileContext,
             ParquetMetadataSource parquetMetadataSource)
+    {
+        return createParquetPageSource(
+                hdfsEnvironment,
+                session,
+                configuration,
+                fileSplit,
+                columns,
+                tableName,
+                typeManager,
+                functionResolution,
+                effectivePredicate,
+                stats,
+                hiveFileContext,
+                parquetMetadataSource,
+                (parquetReader, types, fields, rowPositionColumnIndex, names) -> new ParquetPageSource(parquetReader, types, fields, rowPositionColumnIndex, names, hiveFileContext.getStats()));
+    }
+
+    static ConnectorPageSource createParquetPageSource(
+            HdfsEnvironment hdfsEnvironment,
+            ConnectorSession session,
+            Configuration configuration,
+            HiveFileSplit fileSplit,
+            List<HiveColumnHandle> columns,
+            SchemaTableName tableName,
+            TypeManager typeManager,
+            StandardFunctionResolution functionResolution,
+            TupleDomain<HiveColumnHandle> effectivePredicate,
+            FileFormatDataSourceStats stats,
+            HiveFileContext hiveFileContext,
+            ParquetMetadataSource parquetMetadataSource,
+            ParquetPageSourceCreator pageSourceCreator)
     {
         AggregatedMemoryContext systemMemoryContext = newSimpleAggregatedMemoryContext();
 
         String user = session.getUser();
         boolean useParquetColumnNames = isUseParquetColumnNames(session);
         boolean columnIndexFilterEnabled = columnIndexFilterEnabled(session);
+        boolean bloomFilterEnabled = isParquetBloomFilterEnabled(session);
         boolean readMaskedValue = getReadNullMaskedParquetEncryptedValue(session);
 
         ParquetDataSource dataSource = null;
@@ -242,7 +275,7 @@ public class ParquetPageSourceFactory
             ImmutableList.Builder<Long> blockStarts = ImmutableList.builder();
             for (BlockMetaData block : footerBlocks.build()) {
                 Optional<ColumnIndexStore> columnIndexStore = ColumnIndexFilterUtils.getColumnIndexStore(parquetPredicate, finalDataSource, block, descriptorsByPath, columnIndexFilterEnabled);
-                if (predicateMatches(parquetPredicate, block, finalDataSource, descriptorsByPath, parquetTupleDomain, columnIndexStore, columnIndexFilterEnabled, Optional.of(session.getWarningCollector()))) {
+                if (predicateMatches(parquetPredicate, block, finalDataSource, descriptorsByPath, parquetTupleDomain, columnIndexStore, columnIndexFilterEnabled, Optional.of(session.getWarningCollector()), bloomFilterEnabled)) {
                     blocks.add(block);
                     blockStarts.add(nextStart);
                     blockIndexStores.add(columnIndexStore.orElse(null));
@@ -319,7 +352,7 @@ public class ParquetPageSourceFactory
                     fieldsBuilder.add(Optional.empty());
                 }
             }
-            return new ParquetPageSource(parquetReader, typesBuilder.build(), fieldsBuilder.build(), rowPositionColumnIndex, namesBuilder.build(), hiveFileContext.getStats());
+            return pageSourceCreator.create(parquetReader, typesBuilder.build(), fieldsBuilder.build(), rowPositionColumnIndex, namesBuilder.build());
         }
         catch (Exception e) {
             try {
@@ -548,4 +581,13 @@ public class ParquetPageSourceFactory
                 hiveFileContext,
                 parquetMetadataSource));
     }
+
+    /**
+     * Creates the page source over a reader of the requested columns
+     */
+    interface ParquetPageSourceCreator
+    {
+        ConnectorPageSource create(ParquetReader parquetReader, List<Type> types, List<Optional<Field>> fields, OptionalInt rowPositionColumnIndex, List<String> columnNames)
+                throws IOException;
+    }
 }
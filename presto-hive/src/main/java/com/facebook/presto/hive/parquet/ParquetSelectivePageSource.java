@@ -0,0 +1,150 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.hive.parquet;
+
+import com.facebook.presto.common.InvalidFunctionArgumentException;
+import com.facebook.presto.common.Page;
+import com.facebook.presto.common.RuntimeStats;
+import com.facebook.presto.parquet.ParquetCorruptionException;
+import com.facebook.presto.parquet.reader.ParquetSelectiveReader;
+import com.facebook.presto.spi.ConnectorPageSource;
+import com.facebook.presto.spi.PrestoException;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+import static com.facebook.presto.hive.HiveErrorCode.HIVE_BAD_DATA;
+import static com.facebook.presto.hive.HiveErrorCode.HIVE_CURSOR_ERROR;
+import static com.facebook.presto.spi.StandardErrorCode.INVALID_FUNCTION_ARGUMENT;
+import static com.google.common.base.MoreObjects.toStringHelper;
+import static java.lang.String.format;
+import static java.util.Objects.requireNonNull;
+
+public class ParquetSelectivePageSource
+        implements ConnectorPageSource
+{
+    private final ParquetSelectiveReader reader;
+    private final RuntimeStats runtimeStats;
+    private boolean closed;
+
+    ParquetSelectivePageSource(ParquetSelectiveReader reader, RuntimeStats runtimeStats)
+    {
+        this.reader = requireNonNull(reader, "reader is null");
+        this.runtimeStats = requireNonNull(runtimeStats, "runtimeStats is null");
+    }
+
+    @Override
+    public RuntimeStats getRuntimeStats()
+    {
+        return runtimeStats;
+    }
+
+    @Override
+    public long getCompletedBytes()
+    {
+        return reader.getDataSource().getReadBytes();
+    }
+
+    @Override
+    public long getCompletedPositions()
+    {
+        return reader.getCompletedPositions();
+    }
+
+    @Override
+    public long getReadTimeNanos()
+    {
+        return reader.getDataSource().getReadTimeNanos();
+    }
+
+    @Override
+    public boolean isFinished()
+    {
+        return closed;
+    }
+
+    @Override
+    public Page getNextPage()
+    {
+        if (closed) {
+            return null;
+        }
+
+        try {
+            Page page = reader.getNextPage();
+            if (page == null) {
+                close();
+            }
+            return page;
+        }
+        catch (InvalidFunctionArgumentException e) {
+            closeWithSuppression(e);
+            throw new PrestoException(INVALID_FUNCTION_ARGUMENT, e.getMessage(), e);
+        }
+        catch (PrestoException e) {
+            closeWithSuppression(e);
+            throw e;
+        }
+        catch (ParquetCorruptionException e) {
+            closeWithSuppression(e);
+            throw new PrestoException(HIVE_BAD_DATA, e);
+        }
+        catch (IOException | RuntimeException e) {
+            closeWithSuppression(e);
+            throw new PrestoException(HIVE_CURSOR_ERROR, format("Failed to read Parquet file: %s", reader.getDataSource().getId()), e);
+        }
+    }
+
+    @Override
+    public long getSystemMemoryUsage()
+    {
+        return reader.getSystemMemoryUsage();
+    }
+
+    @Override
+    public void close()
+    {
+        if (closed) {
+            return;
+        }
+        closed = true;
+
+        try {
+            reader.close();
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public String toString()
+    {
+        return toStringHelper(this).toString();
+    }
+
+    private void closeWithSuppression(Throwable throwable)
+    {
+        requireNonNull(throwable, "throwable is null");
+        try {
+            close();
+        }
+        catch (RuntimeException e) {
+            // Self-suppression not permitted
+            if (e != throwable) {
+                throwable.addSuppressed(e);
+            }
+        }
+    }
+}
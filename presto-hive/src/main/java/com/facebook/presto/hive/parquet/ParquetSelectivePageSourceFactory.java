@@ -14,31 +14,63 @@
 package com.facebook.presto.hive.parquet;
 
 import com.facebook.presto.common.Subfield;
+import com.facebook.presto.common.block.Block;
+import com.facebook.presto.common.predicate.BlockedBloomFilter;
+import com.facebook.presto.common.predicate.FilterFunction;
 import com.facebook.presto.common.predicate.TupleDomain;
+import com.facebook.presto.common.predicate.TupleDomainFilter;
+import com.facebook.presto.common.type.Type;
+import com.facebook.presto.common.type.TypeManager;
 import com.facebook.presto.hive.BucketAdaptation;
 import com.facebook.presto.hive.EncryptionInformation;
+import com.facebook.presto.hive.FileFormatDataSourceStats;
+import com.facebook.presto.hive.HdfsEnvironment;
 import com.facebook.presto.hive.HiveCoercer;
 import com.facebook.presto.hive.HiveColumnHandle;
 import com.facebook.presto.hive.HiveFileContext;
 import com.facebook.presto.hive.HiveFileSplit;
 import com.facebook.presto.hive.HiveSelectivePageSourceFactory;
 import com.facebook.presto.hive.metastore.Storage;
+import com.facebook.presto.hive.orc.TupleDomainFilterCache;
+import com.facebook.presto.parquet.Field;
+import com.facebook.presto.parquet.cache.ParquetMetadataSource;
+import com.facebook.presto.parquet.reader.ParquetSelectiveReader;
 import com.facebook.presto.spi.ConnectorPageSource;
 import com.facebook.presto.spi.ConnectorSession;
-import com.facebook.presto.spi.PrestoException;
+import com.facebook.presto.spi.SchemaTableName;
+import com.facebook.presto.spi.function.StandardFunctionResolution;
+import com.facebook.presto.spi.relation.InputReferenceExpression;
 import com.facebook.presto.spi.relation.RowExpression;
+import com.facebook.presto.spi.relation.RowExpressionService;
+import com.facebook.presto.spi.relation.VariableReferenceExpression;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
 import jakarta.inject.Inject;
 import org.apache.hadoop.conf.Configuration;
 import org.joda.time.DateTimeZone;
 
+import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 
-import static com.facebook.presto.spi.StandardErrorCode.NOT_SUPPORTED;
+import static com.facebook.presto.common.Utils.nativeValueToBlock;
+import static com.facebook.presto.expressions.RowExpressionNodeInliner.replaceExpression;
+import static com.facebook.presto.hive.BaseHiveColumnHandle.ColumnType.REGULAR;
+import static com.facebook.presto.hive.HiveUtil.typedPartitionKey;
+import static com.facebook.presto.hive.MetadataUtils.isEntireColumn;
+import static com.facebook.presto.hive.orc.OrcSelectivePageSourceFactory.toFilterFunctions;
+import static com.facebook.presto.hive.orc.OrcSelectivePageSourceFactory.toTupleDomainFilters;
+import static com.facebook.presto.hive.parquet.ParquetPageSourceFactory.createParquetPageSource;
+import static com.facebook.presto.parquet.reader.ParquetSelectiveReader.isSupportedFilterType;
+import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkState;
+import static com.google.common.collect.ImmutableList.toImmutableList;
+import static com.google.common.collect.ImmutableMap.toImmutableMap;
+import static java.util.Objects.requireNonNull;
 
 public class ParquetSelectivePageSourceFactory
         implements HiveSelectivePageSourceFactory
@@ -48,9 +80,31 @@ public class ParquetSelectivePageSourceFactory
             .add("parquet.hive.serde.ParquetHiveSerDe")
             .build();
 
+    private final TypeManager typeManager;
+    private final StandardFunctionResolution functionResolution;
+    private final RowExpressionService rowExpressionService;
+    private final HdfsEnvironment hdfsEnvironment;
+    private final FileFormatDataSourceStats stats;
+    private final ParquetMetadataSource parquetMetadataSource;
+    private final TupleDomainFilterCache tupleDomainFilterCache;
+
     @Inject
-    public ParquetSelectivePageSourceFactory()
+    public ParquetSelectivePageSourceFactory(
+            TypeManager typeManager,
+            StandardFunctionResolution functionResolution,
+            RowExpressionService rowExpressionService,
+            HdfsEnvironment hdfsEnvironment,
+            FileFormatDataSourceStats stats,
+            ParquetMetadataSource parquetMetadataSource,
+            TupleDomainFilterCache tupleDomainFilterCache)
     {
+        this.typeManager = requireNonNull(typeManager, "typeManager is null");
+        this.functionResolution = requireNonNull(functionResolution, "functionResolution is null");
+        this.rowExpressionService = requireNonNull(rowExpressionService, "rowExpressionService is null");
+        this.hdfsEnvironment = requireNonNull(hdfsEnvironment, "hdfsEnvironment is null");
+        this.stats = requireNonNull(stats, "stats is null");
+        this.parquetMetadataSource = requireNonNull(parquetMetadataSource, "parquetMetadataSource is null");
+        this.tupleDomainFilterCache = requireNonNull(tupleDomainFilterCache, "tupleDomainFilterCache is null");
     }
 
     @Override
@@ -59,12 +113,14 @@ public class ParquetSelectivePageSourceFactory
             ConnectorSession session,
             HiveFileSplit fileSplit,
             Storage storage,
+            SchemaTableName tableName,
             List<HiveColumnHandle> columns,
             Map<Integer, String> prefilledValues,
             Map<Integer, HiveCoercer> coercers,
             Optional<BucketAdaptation> bucketAdaptation,
             List<Integer> outputColumns,
             TupleDomain<Subfield> domainPredicate,
+            Map<String, BlockedBloomFilter> dynamicFilterBloomFilters,
             RowExpression remainingPredicate,
             DateTimeZone hiveStorageTimeZone,
             HiveFileContext hiveFileContext,
@@ -76,6 +132,101 @@ public class ParquetSelectivePageSourceFactory
             return Optional.empty();
         }
         checkState(!appendRowNumberEnabled, "append row number is not supported for Parquet Reader");
-        throw new PrestoException(NOT_SUPPORTED, "Parquet reader doesn't support filter pushdown yet");
+        checkArgument(!domainPredicate.isNone(), "Unexpected NONE domain");
+
+        // schema evolution, bucket conversion and row IDs are handled by the batch reader followed by a filtering page source
+        if (!coercers.isEmpty() || bucketAdaptation.isPresent() || columns.stream().anyMatch(HiveColumnHandle::isRowIdColumnHandle)) {
+            return Optional.empty();
+        }
+
+        Map<String, Integer> columnIndices = columns.stream()
+                .collect(toImmutableMap(HiveColumnHandle::getName, HiveColumnHandle::getHiveColumnIndex));
+        Map<Integer, Integer> channels = new HashMap<>();
+        for (int channel = 0; channel < columns.size(); channel++) {
+            channels.put(columns.get(channel).getHiveColumnIndex(), channel);
+        }
+        List<Type> types = columns.stream()
+                .map(column -> typeManager.getType(column.getTypeSignature()))
+                .collect(toImmutableList());
+
+        ImmutableMap.Builder<Integer, TupleDomainFilter> filtersBuilder = ImmutableMap.builder();
+        for (Map.Entry<Integer, Map<Subfield, TupleDomainFilter>> entry : toTupleDomainFilters(domainPredicate, dynamicFilterBloomFilters, columnIndices, coercers, tupleDomainFilterCache).entrySet()) {
+            int channel = channels.get(entry.getKey());
+            HiveColumnHandle column = columns.get(channel);
+            if (entry.getValue().size() != 1) {
+                return Optional.empty();
+            }
+            Map.Entry<Subfield, TupleDomainFilter> filter = entry.getValue().entrySet().iterator().next();
+            boolean prefilled = prefilledValues.containsKey(column.getHiveColumnIndex());
+            if (!isEntireColumn(filter.getKey()) || !isSupportedFilterType(types.get(channel)) || (!prefilled && column.getColumnType() != REGULAR)) {
+                return Optional.empty();
+            }
+            filtersBuilder.put(channel, filter.getValue());
+        }
+        Map<Integer, TupleDomainFilter> filters = filtersBuilder.build();
+
+        ImmutableMap.Builder<Integer, Block> constantValuesBuilder = ImmutableMap.builder();
+        for (Map.Entry<Integer, String> entry : prefilledValues.entrySet()) {
+            int channel = channels.get(entry.getKey());
+            HiveColumnHandle column = columns.get(channel);
+            Object value = typedPartitionKey(session, entry.getValue(), types.get(channel), column.getName(), hiveStorageTimeZone);
+            constantValuesBuilder.put(channel, nativeValueToBlock(types.get(channel), value));
+        }
+        Map<Integer, Block> constantValues = constantValuesBuilder.build();
+
+        Map<VariableReferenceExpression, InputReferenceExpression> variableToInput = new HashMap<>();
+        for (int channel = 0; channel < columns.size(); channel++) {
+            variableToInput.put(
+                    new VariableReferenceExpression(Optional.empty(), columns.get(channel).getName(), types.get(channel)),
+                    new InputReferenceExpression(Optional.empty(), channel, types.get(channel)));
+        }
+        List<FilterFunction> filterFunctions = toFilterFunctions(
+                replaceExpression(remainingPredicate, variableToInput),
+                session,
+                rowExpressionService.getDeterminismEvaluator(),
+                rowExpressionService.getPredicateCompiler());
+
+        List<Integer> outputChannels = outputColumns.stream()
+                .map(channels::get)
+                .collect(toImmutableList());
+
+        Map<String, HiveColumnHandle> readColumnsByName = columns.stream()
+                .filter(column -> !prefilledValues.containsKey(column.getHiveColumnIndex()))
+                .collect(toImmutableMap(HiveColumnHandle::getName, column -> column));
+        List<HiveColumnHandle> readColumns = ImmutableList.copyOf(readColumnsByName.values());
+        // row groups are pruned with the statistics of regular columns only
+        TupleDomain<HiveColumnHandle> effectivePredicate = domainPredicate
+                .transform(subfield -> isEntireColumn(subfield) ? readColumnsByName.get(subfield.getRootName()) : null)
+                .transform(column -> column.getColumnType() == REGULAR ? column : null);
+
+        return Optional.of(createParquetPageSource(
+                hdfsEnvironment,
+                session,
+                configuration,
+                fileSplit,
+                readColumns,
+                tableName,
+                typeManager,
+                functionResolution,
+                effectivePredicate,
+                stats,
+                hiveFileContext,
+                parquetMetadataSource,
+                (parquetReader, readTypes, readFields, rowPositionColumnIndex, columnNames) -> {
+                    Iterator<Optional<Field>> readField = readFields.iterator();
+                    ImmutableList.Builder<Optional<Field>> fields = ImmutableList.builder();
+                    for (HiveColumnHandle column : columns) {
+                        fields.add(prefilledValues.containsKey(column.getHiveColumnIndex()) ? Optional.empty() : readField.next());
+                    }
+                    ParquetSelectiveReader reader = new ParquetSelectiveReader(
+                            parquetReader,
+                            types,
+                            fields.build(),
+                            constantValues,
+                            filters,
+                            filterFunctions,
+                            outputChannels);
+                    return new ParquetSelectivePageSource(reader, hiveFileContext.getStats());
+                }));
     }
 }
@@ -14,6 +14,7 @@
 package com.facebook.presto.hive.rule;
 
 import com.facebook.presto.common.type.Type;
+import com.facebook.presto.common.type.VarcharType;
 import com.facebook.presto.hive.HiveColumnHandle;
 import com.facebook.presto.hive.HiveStorageFormat;
 import com.facebook.presto.hive.HiveTableHandle;
@@ -43,19 +44,27 @@ import com.facebook.presto.spi.relation.RowExpression;
 import com.facebook.presto.spi.relation.VariableReferenceExpression;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
 
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.function.Supplier;
 
+import static com.facebook.presto.common.type.BigintType.BIGINT;
 import static com.facebook.presto.common.type.BooleanType.BOOLEAN;
+import static com.facebook.presto.common.type.DateType.DATE;
+import static com.facebook.presto.common.type.DoubleType.DOUBLE;
+import static com.facebook.presto.common.type.IntegerType.INTEGER;
+import static com.facebook.presto.common.type.SmallintType.SMALLINT;
 import static com.facebook.presto.common.type.TimestampType.TIMESTAMP;
 import static com.facebook.presto.common.type.TinyintType.TINYINT;
 import static com.facebook.presto.common.type.VarbinaryType.VARBINARY;
 import static com.facebook.presto.common.type.VarcharType.VARCHAR;
 import static com.facebook.presto.hive.BaseHiveColumnHandle.ColumnType.REGULAR;
+import static com.facebook.presto.hive.HiveSessionProperties.isGroupedPartialAggregationPushdownEnabled;
 import static com.facebook.presto.hive.HiveSessionProperties.isPartialAggregationPushdownEnabled;
 import static com.facebook.presto.hive.HiveSessionProperties.isPartialAggregationPushdownForVariableLengthDatatypesEnabled;
 import static com.facebook.presto.hive.HiveStorageFormat.DWRF;
@@ -76,6 +85,8 @@ public class HivePartialAggregationPushdown
     private final Supplier<TransactionalMetadata> metadataFactory;
 
     private static final int DUMMY_AGGREGATED_COLUMN_INDEX = -20;
+    private static final Set<Type> SUPPORTED_GROUPING_KEY_TYPES = ImmutableSet.of(BOOLEAN, TINYINT, SMALLINT, INTEGER, BIGINT, DATE, VARCHAR);
+    private static final Set<Type> SUPPORTED_SUM_TYPES = ImmutableSet.of(TINYINT, SMALLINT, INTEGER, BIGINT, DOUBLE);
 
     public HivePartialAggregationPushdown(
             StandardFunctionResolution standardFunctionResolution,
@@ -123,7 +134,8 @@ public class HivePartialAggregationPushdown
 
         private boolean isAggregationPushdownSupported(AggregationNode partialAggregationNode, Map<VariableReferenceExpression, ColumnHandle> assignments)
         {
-            if (partialAggregationNode.hasNonEmptyGroupingSet()) {
+            boolean grouped = partialAggregationNode.hasNonEmptyGroupingSet();
+            if (grouped && !isGroupedPartialAggregationPushdownEnabled(session)) {
                 return false;
             }
 
@@ -139,6 +151,11 @@ public class HivePartialAggregationPushdown
                 return false;
             }
 
+            // Grouped aggregations are computed by reading the grouping key and argument columns, which is only implemented for ORC
+            if (grouped && (hiveStorageFormat == PARQUET || !isGroupingSupported(partialAggregationNode, assignments))) {
+                return false;
+            }
+
             if (tableScanNode.getTable().getLayout().isPresent()) {
                 HiveTableLayoutHandle hiveTableLayoutHandle = (HiveTableLayoutHandle) tableScanNode.getTable().getLayout().get();
                 if (!hiveTableLayoutHandle.getPredicateColumns().isEmpty()) {
@@ -148,13 +165,14 @@ public class HivePartialAggregationPushdown
 
             /**
              * Aggregation push downs are supported only on primitive types and supported aggregation functions are:
-             * count(*), count(columnName), min(columnName), max(columnName)
+             * count(*), count(columnName), min(columnName), max(columnName), and sum(columnName) when grouped
              */
             for (Aggregation aggregation : partialAggregationNode.getAggregations().values()) {
                 FunctionHandle functionHandle = aggregation.getFunctionHandle();
                 if (!(standardFunctionResolution.isCountFunction(functionHandle) ||
                         standardFunctionResolution.isMaxFunction(functionHandle) ||
-                        standardFunctionResolution.isMinFunction(functionHandle))) {
+                        standardFunctionResolution.isMinFunction(functionHandle) ||
+                        (grouped && standardFunctionResolution.isSumFunction(functionHandle)))) {
                     return false;
                 }
 
@@ -175,6 +193,10 @@ public class HivePartialAggregationPushdown
                     }
                 }
 
+                if (standardFunctionResolution.isSumFunction(functionHandle) && !SUPPORTED_SUM_TYPES.contains(arguments.get(0).getType())) {
+                    return false;
+                }
+
                 if (standardFunctionResolution.isMinFunction(functionHandle) || standardFunctionResolution.isMaxFunction(functionHandle)) {
                     // Only allow supported datatypes for min/max
                     Type type = arguments.get(0).getType();
@@ -198,6 +220,47 @@ public class HivePartialAggregationPushdown
             return true;
         }
 
+        private boolean isGroupingSupported(AggregationNode partialAggregationNode, Map<VariableReferenceExpression, ColumnHandle> assignments)
+        {
+            if (partialAggregationNode.getGroupingSetCount() != 1 ||
+                    !partialAggregationNode.getGlobalGroupingSets().isEmpty() ||
+                    partialAggregationNode.getHashVariable().isPresent() ||
+                    partialAggregationNode.getGroupIdVariable().isPresent()) {
+                return false;
+            }
+
+            for (VariableReferenceExpression groupingKey : partialAggregationNode.getGroupingKeys()) {
+                HiveColumnHandle columnHandle = (HiveColumnHandle) assignments.get(groupingKey);
+                if (columnHandle == null ||
+                        columnHandle.getColumnType() != REGULAR ||
+                        !SUPPORTED_GROUPING_KEY_TYPES.contains(groupingKey.getType())) {
+                    return false;
+                }
+            }
+
+            for (Aggregation aggregation : partialAggregationNode.getAggregations().values()) {
+                if (aggregation.isDistinct() ||
+                        aggregation.getFilter().isPresent() ||
+                        aggregation.getMask().isPresent() ||
+                        aggregation.getOrderBy().isPresent()) {
+                    return false;
+                }
+                FunctionHandle functionHandle = aggregation.getFunctionHandle();
+                if ((standardFunctionResolution.isMinFunction(functionHandle) || standardFunctionResolution.isMaxFunction(functionHandle)) &&
+                        aggregation.getArguments().size() == 1 &&
+                        !isSupportedGroupedMinMaxType(aggregation.getArguments().get(0).getType())) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        // Grouped min/max values are compared as longs, doubles or strings
+        private boolean isSupportedGroupedMinMaxType(Type type)
+        {
+            return type.getJavaType() == long.class || type.getJavaType() == double.class || type instanceof VarcharType;
+        }
+
         private boolean isNotSupportedOrcTypeForMinMax(Type type)
         {
             return BOOLEAN.equals(type) ||
@@ -280,6 +343,11 @@ public class HivePartialAggregationPushdown
                 assignments.put(aggregationEntry.getKey(), newColumnHandle);
             }
 
+            // Grouping keys are read from the file as they are
+            for (VariableReferenceExpression groupingKey : partialAggregationNode.getGroupingKeys()) {
+                assignments.put(groupingKey, oldTableScanNode.getAssignments().get(groupingKey));
+            }
+
             HiveTableLayoutHandle oldTableLayoutHandle = (HiveTableLayoutHandle) oldTableHandle.getLayout().get();
             HiveTableLayoutHandle newTableLayoutHandle = oldTableLayoutHandle.builder().setPartialAggregationsPushedDown(true).build();
 
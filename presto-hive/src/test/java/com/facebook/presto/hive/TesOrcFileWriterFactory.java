@@ -16,6 +16,7 @@ package com.facebook.presto.hive;
 import com.facebook.presto.cache.CacheConfig;
 import com.facebook.presto.orc.OrcWriterOptions;
 import com.facebook.presto.spi.ConnectorSession;
+import com.facebook.presto.spi.PrestoException;
 import com.facebook.presto.testing.TestingConnectorSession;
 import com.google.common.collect.ImmutableSet;
 import org.testng.annotations.Test;
@@ -25,11 +26,15 @@ import java.util.Properties;
 import static com.facebook.presto.hive.HiveTestUtils.HIVE_CLIENT_CONFIG;
 import static com.facebook.presto.hive.HiveTestUtils.METASTORE_CLIENT_CONFIG;
 import static com.facebook.presto.hive.HiveTestUtils.getDefaultOrcFileWriterFactory;
+import static com.facebook.presto.hive.OrcFileWriterFactory.ORC_BLOOM_FILTER_COLUMNS_KEY;
+import static com.facebook.presto.hive.OrcFileWriterFactory.ORC_BLOOM_FILTER_FPP_KEY;
 import static com.facebook.presto.hive.OrcFileWriterFactory.ORC_FLAT_MAP_COLUMN_NUMBERS_KEY;
 import static com.facebook.presto.hive.OrcFileWriterFactory.ORC_FLAT_MAP_KEY_LIMIT_KEY;
 import static com.facebook.presto.hive.OrcFileWriterFactory.ORC_FLAT_MAP_WRITER_ENABLED_KEY;
 import static com.facebook.presto.hive.OrcFileWriterFactory.ORC_MAP_STATISTICS_KEY;
+import static com.facebook.presto.orc.OrcWriterOptions.DEFAULT_BLOOM_FILTER_FPP;
 import static com.facebook.presto.orc.OrcWriterOptions.DEFAULT_MAX_FLATTENED_MAP_KEY_COUNT;
+import static org.apache.hadoop.hive.metastore.api.hive_metastoreConstants.META_TABLE_COLUMNS;
 import static org.testng.Assert.assertEquals;
 import static org.testng.Assert.assertFalse;
 import static org.testng.Assert.assertTrue;
@@ -88,6 +93,30 @@ public class TesOrcFileWriterFactory
         assertTrue(orcWriterOptions.isMapStatisticsEnabled());
     }
 
+    @Test
+    public void testBloomFilterColumns()
+    {
+        Properties serDe = new Properties();
+        OrcWriterOptions orcWriterOptions = getOrcWriterOptions(serDe);
+        assertEquals(orcWriterOptions.getBloomFilterColumns(), ImmutableSet.of());
+        assertEquals(orcWriterOptions.getBloomFilterFpp(), DEFAULT_BLOOM_FILTER_FPP);
+
+        serDe.setProperty(META_TABLE_COLUMNS, "id,name,value");
+        serDe.setProperty(ORC_BLOOM_FILTER_COLUMNS_KEY, "Name, id,missing");
+        serDe.setProperty(ORC_BLOOM_FILTER_FPP_KEY, "0.01");
+        orcWriterOptions = getOrcWriterOptions(serDe);
+        assertEquals(orcWriterOptions.getBloomFilterColumns(), ImmutableSet.of(0, 1));
+        assertEquals(orcWriterOptions.getBloomFilterFpp(), 0.01);
+    }
+
+    @Test(expectedExceptions = PrestoException.class, expectedExceptionsMessageRegExp = "Invalid value for orc.bloom.filter.fpp table property: 1.5")
+    public void testInvalidBloomFilterFpp()
+    {
+        Properties serDe = new Properties();
+        serDe.setProperty(ORC_BLOOM_FILTER_FPP_KEY, "1.5");
+        getOrcWriterOptions(serDe);
+    }
+
     private static OrcWriterOptions getOrcWriterOptions(Properties serDe)
     {
         OrcFileWriterConfig orcFileWriterConfig = new OrcFileWriterConfig();
@@ -62,6 +62,8 @@ public class TestHiveClientConfig
                 .setDomainCompactionThreshold(100)
                 .setMaxConcurrentFileRenames(20)
                 .setMaxConcurrentZeroRowFileCreations(20)
+                .setOrcParallelReadEnabled(false)
+                .setMaxConcurrentOrcReads(32)
                 .setRecursiveDirWalkerEnabled(false)
                 .setDfsTimeout(new Duration(60, TimeUnit.SECONDS))
                 .setIpcPingInterval(new Duration(10, TimeUnit.SECONDS))
@@ -130,6 +132,8 @@ public class TestHiveClientConfig
                 .setIgnoreUnreadablePartition(false)
                 .setPartialAggregationPushdownEnabled(false)
                 .setPartialAggregationPushdownForVariableLengthDatatypesEnabled(false)
+                .setGroupedPartialAggregationPushdownEnabled(false)
+                .setGroupedPartialAggregationPushdownMaxMemory(new DataSize(16, Unit.MEGABYTE))
                 .setFileRenamingEnabled(false)
                 .setPreferManifestsToListFiles(false)
                 .setManifestVerificationEnabled(false)
@@ -140,6 +144,7 @@ public class TestHiveClientConfig
                 .setMaterializedViewMissingPartitionsThreshold(100)
                 .setLooseMemoryAccountingEnabled(false)
                 .setReadColumnIndexFilter(false)
+                .setParquetBloomFilterEnabled(false)
                 .setSizeBasedSplitWeightsEnabled(true)
                 .setDynamicSplitSizesEnabled(false)
                 .setMinimumAssignedSplitWeight(0.05)
@@ -208,6 +213,8 @@ public class TestHiveClientConfig
                 .put("hive.write-validation-threads", "11")
                 .put("hive.max-concurrent-file-renames", "100")
                 .put("hive.max-concurrent-zero-row-file-creations", "100")
+                .put("hive.orc.parallel-read-enabled", "true")
+                .put("hive.orc.max-concurrent-reads", "64")
                 .put("hive.assume-canonical-partition-keys", "true")
                 .put("hive.text.max-line-length", "13MB")
                 .put("hive.orc.default-bloom-filter-fpp", "0.96")
@@ -257,6 +264,8 @@ public class TestHiveClientConfig
                 .put("hive.ignore-unreadable-partition", "true")
                 .put("hive.partial_aggregation_pushdown_enabled", "true")
                 .put("hive.partial_aggregation_pushdown_for_variable_length_datatypes_enabled", "true")
+                .put("hive.grouped_partial_aggregation_pushdown_enabled", "true")
+                .put("hive.grouped_partial_aggregation_pushdown_max_memory", "4MB")
                 .put("hive.file_renaming_enabled", "true")
                 .put("hive.prefer-manifests-to-list-files", "true")
                 .put("hive.manifest-verification-enabled", "true")
@@ -267,6 +276,7 @@ public class TestHiveClientConfig
                 .put("hive.verbose-runtime-stats-enabled", "true")
                 .put("hive.materialized-view-missing-partitions-threshold", "50")
                 .put("hive.parquet-column-index-filter-enabled", "true")
+                .put("hive.parquet-bloom-filter-enabled", "true")
                 .put("hive.size-based-split-weights-enabled", "false")
                 .put("hive.dynamic-split-sizes-enabled", "true")
                 .put("hive.user-defined-type-encoding-enabled", "true")
@@ -313,6 +323,8 @@ public class TestHiveClientConfig
                 .setDomainCompactionThreshold(42)
                 .setMaxConcurrentFileRenames(100)
                 .setMaxConcurrentZeroRowFileCreations(100)
+                .setOrcParallelReadEnabled(true)
+                .setMaxConcurrentOrcReads(64)
                 .setRecursiveDirWalkerEnabled(true)
                 .setIpcPingInterval(new Duration(34, TimeUnit.SECONDS))
                 .setDfsTimeout(new Duration(33, TimeUnit.SECONDS))
@@ -380,6 +392,8 @@ public class TestHiveClientConfig
                 .setIgnoreUnreadablePartition(true)
                 .setPartialAggregationPushdownEnabled(true)
                 .setPartialAggregationPushdownForVariableLengthDatatypesEnabled(true)
+                .setGroupedPartialAggregationPushdownEnabled(true)
+                .setGroupedPartialAggregationPushdownMaxMemory(new DataSize(4, Unit.MEGABYTE))
                 .setFileRenamingEnabled(true)
                 .setPreferManifestsToListFiles(true)
                 .setManifestVerificationEnabled(true)
@@ -390,6 +404,7 @@ public class TestHiveClientConfig
                 .setMaterializedViewMissingPartitionsThreshold(50)
                 .setLooseMemoryAccountingEnabled(true)
                 .setReadColumnIndexFilter(true)
+                .setParquetBloomFilterEnabled(true)
                 .setSizeBasedSplitWeightsEnabled(false)
                 .setDynamicSplitSizesEnabled(true)
                 .setMinimumAssignedSplitWeight(1.0)
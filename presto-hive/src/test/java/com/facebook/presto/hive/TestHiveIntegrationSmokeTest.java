@@ -111,6 +111,8 @@ import static com.facebook.presto.hive.HiveQueryRunner.createBucketedSession;
 import static com.facebook.presto.hive.HiveQueryRunner.createMaterializeExchangesSession;
 import static com.facebook.presto.hive.HiveSessionProperties.COMPRESSION_CODEC;
 import static com.facebook.presto.hive.HiveSessionProperties.FILE_RENAMING_ENABLED;
+import static com.facebook.presto.hive.HiveSessionProperties.GROUPED_PARTIAL_AGGREGATION_PUSHDOWN_ENABLED;
+import static com.facebook.presto.hive.HiveSessionProperties.GROUPED_PARTIAL_AGGREGATION_PUSHDOWN_MAX_MEMORY;
 import static com.facebook.presto.hive.HiveSessionProperties.MANIFEST_VERIFICATION_ENABLED;
 import static com.facebook.presto.hive.HiveSessionProperties.OPTIMIZED_PARTITION_UPDATE_SERIALIZATION_ENABLED;
 import static com.facebook.presto.hive.HiveSessionProperties.PARTIAL_AGGREGATION_PUSHDOWN_ENABLED;
@@ -5868,7 +5870,42 @@ public class TestHiveIntegrationSmokeTest
     }
 
     @Test
-    public void testParquetSelectivePageSourceFails()
+    public void testGroupedPartialAggregationPushdown()
+    {
+        Session session = Session.builder(getSession())
+                .setCatalogSessionProperty(catalog, PARTIAL_AGGREGATION_PUSHDOWN_ENABLED, "true")
+                .setCatalogSessionProperty(catalog, GROUPED_PARTIAL_AGGREGATION_PUSHDOWN_ENABLED, "true")
+                .build();
+        try {
+            assertUpdate("CREATE TABLE test_grouped_aggregation_pushdown WITH (format = 'ORC') AS " +
+                    "SELECT orderkey, custkey, orderstatus, orderpriority, shippriority, totalprice, clerk FROM orders", "SELECT count(*) FROM orders");
+
+            assertQuery(
+                    session,
+                    "SELECT orderstatus, count(*), count(clerk), sum(custkey), sum(totalprice), min(orderkey), max(clerk) " +
+                            "FROM test_grouped_aggregation_pushdown GROUP BY orderstatus",
+                    "SELECT orderstatus, count(*), count(clerk), sum(custkey), sum(totalprice), min(orderkey), max(clerk) FROM orders GROUP BY orderstatus");
+            assertQuery(
+                    session,
+                    "SELECT orderstatus, orderpriority, shippriority, max(totalprice) FROM test_grouped_aggregation_pushdown GROUP BY orderstatus, orderpriority, shippriority",
+                    "SELECT orderstatus, orderpriority, shippriority, max(totalprice) FROM orders GROUP BY orderstatus, orderpriority, shippriority");
+
+            // groups are flushed after every batch and combined by the final aggregation
+            Session flushingSession = Session.builder(session)
+                    .setCatalogSessionProperty(catalog, GROUPED_PARTIAL_AGGREGATION_PUSHDOWN_MAX_MEMORY, "1kB")
+                    .build();
+            assertQuery(
+                    flushingSession,
+                    "SELECT custkey, count(*), sum(totalprice), min(clerk) FROM test_grouped_aggregation_pushdown GROUP BY custkey",
+                    "SELECT custkey, count(*), sum(totalprice), min(clerk) FROM orders GROUP BY custkey");
+        }
+        finally {
+            assertUpdate("DROP TABLE IF EXISTS test_grouped_aggregation_pushdown");
+        }
+    }
+
+    @Test
+    public void testParquetSelectivePageSource()
     {
         assertUpdate("CREATE TABLE test_parquet_filter_pushdoown (a BIGINT, b BOOLEAN) WITH (format = 'parquet')");
         assertUpdate(getSession(), "INSERT INTO test_parquet_filter_pushdoown VALUES (1, true)", 1);
@@ -5893,9 +5930,11 @@ public class TestHiveIntegrationSmokeTest
                 .setCatalogSessionProperty("hive", "pushdown_filter_enabled", "true")
                 .setCatalogSessionProperty("hive", "parquet_pushdown_filter_enabled", "true")
                 .build();
-        assertQueryFails(parquetFilterPushdownSession, "SELECT a FROM test_parquet_filter_pushdoown", "Parquet reader doesn't support filter pushdown yet");
-        assertQueryFails(parquetFilterPushdownSession, "SELECT a FROM test_parquet_filter_pushdoown WHERE b = true", "Parquet reader doesn't support filter pushdown yet");
-        assertQueryFails(parquetFilterPushdownSession, "SELECT a FROM test_parquet_filter_pushdoown WHERE b = false", "Parquet reader doesn't support filter pushdown yet");
+        assertQuery(parquetFilterPushdownSession, "SELECT a FROM test_parquet_filter_pushdoown", "select 1");
+        assertQuery(parquetFilterPushdownSession, "SELECT a FROM test_parquet_filter_pushdoown WHERE b = true", "select 1");
+        assertQueryReturnsEmptyResult(parquetFilterPushdownSession, "SELECT a FROM test_parquet_filter_pushdoown WHERE b = false");
+        assertQuery(parquetFilterPushdownSession, "SELECT b FROM test_parquet_filter_pushdoown WHERE a + 1 = 2", "select true");
+        assertQueryReturnsEmptyResult(parquetFilterPushdownSession, "SELECT b FROM test_parquet_filter_pushdoown WHERE a % 2 = 0");
     }
 
     @DataProvider(name = "testFormatAndCompressionCodecs")
@@ -18,6 +18,7 @@ import com.facebook.presto.cache.CacheConfig;
 import com.facebook.presto.common.Page;
 import com.facebook.presto.common.RuntimeStats;
 import com.facebook.presto.common.Subfield;
+import com.facebook.presto.common.predicate.BlockedBloomFilter;
 import com.facebook.presto.common.predicate.TupleDomain;
 import com.facebook.presto.common.type.TestingTypeManager;
 import com.facebook.presto.common.type.Type;
@@ -716,6 +717,7 @@ public class TestHivePageSourceProvider
                 ConnectorSession session,
                 HiveFileSplit fileSplit,
                 Storage storage,
+                SchemaTableName tableName,
                 List<HiveColumnHandle> columns,
                 Map<Integer,
                         String> prefilledValues,
@@ -724,6 +726,7 @@ public class TestHivePageSourceProvider
                 Optional<BucketAdaptation> bucketAdaptation,
                 List<Integer> outputColumns,
                 TupleDomain<Subfield> domainPredicate,
+                Map<String, BlockedBloomFilter> dynamicFilterBloomFilters,
                 RowExpression remainingPredicate,
                 DateTimeZone hiveStorageTimeZone,
                 HiveFileContext hiveFileContext,
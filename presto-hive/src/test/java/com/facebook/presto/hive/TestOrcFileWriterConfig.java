@@ -65,7 +65,9 @@ public class TestOrcFileWriterConfig
                 .setStringDictionaryEncodingEnabled(true)
                 .setStringDictionarySortingEnabled(true)
                 .setFlatMapWriterEnabled(false)
-                .setAddHostnameToFileMetadataEnabled(true));
+                .setAddHostnameToFileMetadataEnabled(true)
+                .setParallelStripeEncodingEnabled(false)
+                .setMaxStripeEncodingThreads(16));
     }
 
     @Test
@@ -89,6 +91,8 @@ public class TestOrcFileWriterConfig
                 .put("hive.orc.writer.string-dictionary-sorting-enabled", "false")
                 .put("hive.orc.writer.flat-map-writer-enabled", "true")
                 .put("hive.orc.writer.add-hostname-to-file-metadata-enabled", "false")
+                .put("hive.orc.writer.parallel-stripe-encoding-enabled", "true")
+                .put("hive.orc.writer.max-stripe-encoding-threads", "4")
                 .build();
 
         OrcFileWriterConfig expected = new OrcFileWriterConfig()
@@ -108,7 +112,9 @@ public class TestOrcFileWriterConfig
                 .setStringDictionaryEncodingEnabled(false)
                 .setStringDictionarySortingEnabled(false)
                 .setFlatMapWriterEnabled(true)
-                .setAddHostnameToFileMetadataEnabled(false);
+                .setAddHostnameToFileMetadataEnabled(false)
+                .setParallelStripeEncodingEnabled(true)
+                .setMaxStripeEncodingThreads(4);
 
         assertFullMapping(properties, expected);
     }
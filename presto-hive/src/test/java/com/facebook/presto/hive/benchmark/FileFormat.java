@@ -48,6 +48,7 @@ import com.facebook.presto.orc.OrcWriter;
 import com.facebook.presto.orc.OrcWriterOptions;
 import com.facebook.presto.orc.StorageStripeMetadataSource;
 import com.facebook.presto.orc.StripeMetadataSourceFactory;
+import com.facebook.presto.orc.cache.DecodedBlockCache;
 import com.facebook.presto.orc.cache.StorageOrcFileTailSource;
 import com.facebook.presto.parquet.cache.MetadataReader;
 import com.facebook.presto.parquet.writer.ParquetSchemaConverter;
@@ -97,6 +98,7 @@ import static com.facebook.presto.orc.NoOpOrcWriterStats.NOOP_WRITER_STATS;
 import static com.facebook.presto.orc.OrcEncoding.DWRF;
 import static com.facebook.presto.orc.OrcEncoding.ORC;
 import static com.facebook.presto.orc.OrcWriteValidation.OrcWriteValidationMode.BOTH;
+import static com.google.common.util.concurrent.MoreExecutors.newDirectExecutorService;
 import static java.util.stream.Collectors.joining;
 import static org.apache.hadoop.hive.metastore.api.hive_metastoreConstants.FILE_INPUT_FORMAT;
 import static org.apache.hadoop.hive.metastore.api.hive_metastoreConstants.META_TABLE_COLUMNS;
@@ -200,7 +202,9 @@ public enum FileFormat
                     new FileFormatDataSourceStats(),
                     new StorageOrcFileTailSource(),
                     StripeMetadataSourceFactory.of(new StorageStripeMetadataSource()),
-                    HiveDwrfEncryptionProvider.NO_ENCRYPTION);
+                    HiveDwrfEncryptionProvider.NO_ENCRYPTION,
+                    newDirectExecutorService(),
+                    DecodedBlockCache.disabled());
             return createPageSource(pageSourceFactory, session, targetFile, columnNames, columnTypes, HiveStorageFormat.DWRF, MODIFICATION_TIME_NOT_SET);
         }
 
@@ -24,6 +24,7 @@ import com.facebook.presto.hive.DynamicConfigurationProvider;
 import com.facebook.presto.hive.FileFormatDataSourceStats;
 import com.facebook.presto.hive.ForCachingHiveMetastore;
 import com.facebook.presto.hive.ForMetastoreHdfsEnvironment;
+import com.facebook.presto.hive.ForOrcWrite;
 import com.facebook.presto.hive.HdfsConfiguration;
 import com.facebook.presto.hive.HdfsConfigurationInitializer;
 import com.facebook.presto.hive.HdfsEnvironment;
@@ -258,6 +259,16 @@ public class IcebergCommonModule
                 daemonThreadsNamed("hive-metastore-iceberg-%s"));
     }
 
+    @ForOrcWrite
+    @Singleton
+    @Provides
+    public ExecutorService createOrcWriteExecutor(OrcFileWriterConfig orcFileWriterConfig)
+    {
+        return newFixedThreadPool(
+                orcFileWriterConfig.getMaxStripeEncodingThreads(),
+                daemonThreadsNamed("iceberg-orc-write-" + connectorId + "-%s"));
+    }
+
     @Provides
     @Singleton
     @ForIcebergSplitManager
@@ -177,6 +177,7 @@ public final class SystemSessionProperties
     public static final String RUNTIME_OPTIMIZER_ENABLED = "runtime_optimizer_enabled";
     public static final String EXCHANGE_COMPRESSION_CODEC = "exchange_compression_codec";
     public static final String EXCHANGE_CHECKSUM = "exchange_checksum";
+    public static final String EXCHANGE_PACKED_LONG_ENCODING = "exchange_packed_long_encoding";
     public static final String LEGACY_TIMESTAMP = "legacy_timestamp";
     public static final String ENABLE_INTERMEDIATE_AGGREGATIONS = "enable_intermediate_aggregations";
     public static final String PARALLELIZE_CHAINED_AGGREGATION = "parallelize_chained_aggregation";
@@ -196,6 +197,7 @@ public final class SystemSessionProperties
     public static final String FILTER_AND_PROJECT_MIN_OUTPUT_PAGE_SIZE = "filter_and_project_min_output_page_size";
     public static final String FILTER_AND_PROJECT_MIN_OUTPUT_PAGE_ROW_COUNT = "filter_and_project_min_output_page_row_count";
     public static final String DISTRIBUTED_SORT = "distributed_sort";
+    public static final String VECTORIZED_GROUPED_ACCUMULATORS_ENABLED = "vectorized_grouped_accumulators_enabled";
     public static final String USE_MARK_DISTINCT = "use_mark_distinct";
     public static final String EXPLOIT_CONSTRAINTS = "exploit_constraints";
     public static final String PREFER_PARTIAL_AGGREGATION = "prefer_partial_aggregation";
@@ -244,6 +246,7 @@ public final class SystemSessionProperties
     public static final String DYNAMIC_FILTERING_MAX_PER_DRIVER_ROW_COUNT = "dynamic_filtering_max_per_driver_row_count";
     public static final String DYNAMIC_FILTERING_MAX_PER_DRIVER_SIZE = "dynamic_filtering_max_per_driver_size";
     public static final String DYNAMIC_FILTERING_RANGE_ROW_LIMIT_PER_DRIVER = "dynamic_filtering_range_row_limit_per_driver";
+    public static final String DYNAMIC_FILTERING_BLOOM_FILTER_ROW_LIMIT_PER_DRIVER = "dynamic_filtering_bloom_filter_row_limit_per_driver";
     public static final String DISTRIBUTED_DYNAMIC_FILTER_STRATEGY = "distributed_dynamic_filter_strategy";
     public static final String DISTRIBUTED_DYNAMIC_FILTER_MAX_WAIT_TIME = "distributed_dynamic_filter_max_wait_time";
     public static final String DISTRIBUTED_DYNAMIC_FILTER_MAX_WAIT_EXTENSIONS = "distributed_dynamic_filter_max_wait_extensions";
@@ -251,6 +254,7 @@ public final class SystemSessionProperties
     public static final String DISTRIBUTED_DYNAMIC_FILTER_CARDINALITY_RATIO_THRESHOLD = "distributed_dynamic_filter_cardinality_ratio_threshold";
     public static final String DISTRIBUTED_DYNAMIC_FILTER_ON_REPLICATED_JOINS = "distributed_dynamic_filter_on_replicated_joins";
     public static final String FRAGMENT_RESULT_CACHING_ENABLED = "fragment_result_caching_enabled";
+    public static final String SHARED_SCAN_ENABLED = "shared_scan_enabled";
     public static final String INLINE_SQL_FUNCTIONS = "inline_sql_functions";
     public static final String REMOTE_FUNCTIONS_ENABLED = "remote_functions_enabled";
     public static final String RPC_FUNCTION_OPTIMIZER_ENABLED = "rpc_function_optimizer_enabled";
@@ -347,6 +351,7 @@ public final class SystemSessionProperties
     public static final String PREFILTER_FOR_GROUPBY_LIMIT = "prefilter_for_groupby_limit";
     public static final String PREFILTER_FOR_GROUPBY_LIMIT_TIMEOUT_MS = "prefilter_for_groupby_limit_timeout_ms";
     public static final String OPTIMIZE_JOIN_PROBE_FOR_EMPTY_BUILD_RUNTIME = "optimize_join_probe_for_empty_build_runtime";
+    public static final String JOIN_LATE_MATERIALIZATION_ENABLED = "join_late_materialization_enabled";
     public static final String USE_DEFAULTS_FOR_CORRELATED_AGGREGATION_PUSHDOWN_THROUGH_OUTER_JOINS = "use_defaults_for_correlated_aggregation_pushdown_through_outer_joins";
     public static final String MERGE_DUPLICATE_AGGREGATIONS = "merge_duplicate_aggregations";
     public static final String MERGE_AGGREGATIONS_WITH_AND_WITHOUT_FILTER = "merge_aggregations_with_and_without_filter";
@@ -970,6 +975,11 @@ public final class SystemSessionProperties
                         "Enable checksum in exchanges",
                         featuresConfig.isExchangeChecksumEnabled(),
                         false),
+                booleanProperty(
+                        EXCHANGE_PACKED_LONG_ENCODING,
+                        "Bit pack long columns of repartitioned pages with frame of reference or delta encoding",
+                        featuresConfig.isExchangePackedLongEncodingEnabled(),
+                        false),
                 booleanProperty(
                         LEGACY_TIMESTAMP,
                         "Use legacy TIME & TIMESTAMP semantics (warning: this will be removed)",
@@ -1069,6 +1079,11 @@ public final class SystemSessionProperties
                         "Parallelize sort across multiple nodes",
                         featuresConfig.isDistributedSortEnabled(),
                         false),
+                booleanProperty(
+                        VECTORIZED_GROUPED_ACCUMULATORS_ENABLED,
+                        "Use batch-at-a-time grouped accumulators for simple aggregations over fixed width types",
+                        featuresConfig.isVectorizedGroupedAccumulatorsEnabled(),
+                        false),
                 booleanProperty(
                         USE_MARK_DISTINCT,
                         "Implement DISTINCT aggregations using MarkDistinct",
@@ -1376,6 +1391,11 @@ public final class SystemSessionProperties
                         "Maximum number of build-side rows per driver up to which min and max values will be collected for dynamic filtering",
                         featuresConfig.getDynamicFilteringRangeRowLimitPerDriver(),
                         false),
+                integerProperty(
+                        DYNAMIC_FILTERING_BLOOM_FILTER_ROW_LIMIT_PER_DRIVER,
+                        "Maximum number of build-side rows per driver up to which a Bloom filter will be collected for dynamic filtering, when the exact values are too many",
+                        featuresConfig.getDynamicFilteringBloomFilterRowLimitPerDriver(),
+                        false),
                 new PropertyMetadata<>(
                         DISTRIBUTED_DYNAMIC_FILTER_STRATEGY,
                         format("When to add distributed dynamic filters to joins for split-level pruning. Value must be one of: %s",
@@ -1426,6 +1446,11 @@ public final class SystemSessionProperties
                         "Enable fragment result caching and read/write leaf fragment result pages from/to cache when applicable",
                         featuresConfig.isFragmentResultCachingEnabled(),
                         false),
+                booleanProperty(
+                        SHARED_SCAN_ENABLED,
+                        "Share the pages read by concurrent table scans of the same split and columns",
+                        featuresConfig.isSharedScanEnabled(),
+                        false),
                 booleanProperty(
                         SKIP_REDUNDANT_SORT,
                         "Skip redundant sort operations",
@@ -2084,6 +2109,11 @@ public final class SystemSessionProperties
                         "Optimize join probe at runtime if build side is empty",
                         featuresConfig.isOptimizeJoinProbeForEmptyBuildRuntimeEnabled(),
                         false),
+                booleanProperty(
+                        JOIN_LATE_MATERIALIZATION_ENABLED,
+                        "Decode the lazily loaded probe columns of an inner join only for the rows that have a match on the build side",
+                        featuresConfig.isJoinLateMaterializationEnabled(),
+                        false),
                 booleanProperty(
                         USE_DEFAULTS_FOR_CORRELATED_AGGREGATION_PUSHDOWN_THROUGH_OUTER_JOINS,
                         "Coalesce with defaults for correlated aggregations",
@@ -2941,6 +2971,11 @@ public final class SystemSessionProperties
         return session.getSystemProperty(EXCHANGE_CHECKSUM, Boolean.class);
     }
 
+    public static boolean isExchangePackedLongEncodingEnabled(Session session)
+    {
+        return session.getSystemProperty(EXCHANGE_PACKED_LONG_ENCODING, Boolean.class);
+    }
+
     public static boolean isEnableIntermediateAggregations(Session session)
     {
         return session.getSystemProperty(ENABLE_INTERMEDIATE_AGGREGATIONS, Boolean.class);
@@ -3122,6 +3157,11 @@ public final class SystemSessionProperties
         return session.getSystemProperty(DISTRIBUTED_SORT, Boolean.class);
     }
 
+    public static boolean isVectorizedGroupedAccumulatorsEnabled(Session session)
+    {
+        return session.getSystemProperty(VECTORIZED_GROUPED_ACCUMULATORS_ENABLED, Boolean.class);
+    }
+
     public static int getMaxGroupingSets(Session session)
     {
         return session.getSystemProperty(MAX_GROUPING_SETS, Integer.class);
@@ -3362,6 +3402,11 @@ public final class SystemSessionProperties
         return session.getSystemProperty(DYNAMIC_FILTERING_RANGE_ROW_LIMIT_PER_DRIVER, Integer.class);
     }
 
+    public static int getDynamicFilteringBloomFilterRowLimitPerDriver(Session session)
+    {
+        return session.getSystemProperty(DYNAMIC_FILTERING_BLOOM_FILTER_ROW_LIMIT_PER_DRIVER, Integer.class);
+    }
+
     public static DistributedDynamicFilterStrategy getDistributedDynamicFilterStrategy(Session session)
     {
         return session.getSystemProperty(DISTRIBUTED_DYNAMIC_FILTER_STRATEGY, DistributedDynamicFilterStrategy.class);
@@ -3415,6 +3460,11 @@ public final class SystemSessionProperties
         return session.getSystemProperty(FRAGMENT_RESULT_CACHING_ENABLED, Boolean.class);
     }
 
+    public static boolean isSharedScanEnabled(Session session)
+    {
+        return session.getSystemProperty(SHARED_SCAN_ENABLED, Boolean.class);
+    }
+
     public static boolean isInlineSqlFunctions(Session session)
     {
         return session.getSystemProperty(INLINE_SQL_FUNCTIONS, Boolean.class);
@@ -3871,6 +3921,11 @@ public final class SystemSessionProperties
         return session.getSystemProperty(OPTIMIZE_JOIN_PROBE_FOR_EMPTY_BUILD_RUNTIME, Boolean.class);
     }
 
+    public static boolean isJoinLateMaterializationEnabled(Session session)
+    {
+        return session.getSystemProperty(JOIN_LATE_MATERIALIZATION_ENABLED, Boolean.class);
+    }
+
     public static boolean useDefaultsForCorrelatedAggregationPushdownThroughOuterJoins(Session session)
     {
         return session.getSystemProperty(USE_DEFAULTS_FOR_CORRELATED_AGGREGATION_PUSHDOWN_THROUGH_OUTER_JOINS, Boolean.class);
@@ -65,6 +65,8 @@ public class TaskManagerConfig
 
     private DataSize sinkMaxBufferSize = new DataSize(32, Unit.MEGABYTE);
     private DataSize maxPagePartitioningBufferSize = new DataSize(32, Unit.MEGABYTE);
+    private DataSize pagesSerdeMaxPooledBufferSize = new DataSize(16, Unit.MEGABYTE);
+    private DataSize pagesSerdeBufferPoolSize = new DataSize(64, Unit.MEGABYTE);
 
     private Duration clientTimeout = new Duration(2, TimeUnit.MINUTES);
     private Duration infoMaxAge = new Duration(15, TimeUnit.MINUTES);
@@ -88,6 +90,8 @@ public class TaskManagerConfig
 
     private boolean legacyLifespanCompletionCondition;
     private TaskPriorityTracking taskPriorityTracking = TaskPriorityTracking.TASK_FAIR;
+    private boolean workStealingEnabled;
+    private int runnerThreadGroups = 1;
 
     private Duration interruptRunawaySplitsTimeout = new Duration(600, SECONDS);
 
@@ -413,6 +417,34 @@ public class TaskManagerConfig
         return this;
     }
 
+    @NotNull
+    public DataSize getPagesSerdeMaxPooledBufferSize()
+    {
+        return pagesSerdeMaxPooledBufferSize;
+    }
+
+    @Config("driver.pages-serde-max-pooled-buffer-size")
+    @ConfigDescription("Largest exchange serialization buffer that is returned to the shared pool")
+    public TaskManagerConfig setPagesSerdeMaxPooledBufferSize(DataSize size)
+    {
+        this.pagesSerdeMaxPooledBufferSize = size;
+        return this;
+    }
+
+    @NotNull
+    public DataSize getPagesSerdeBufferPoolSize()
+    {
+        return pagesSerdeBufferPoolSize;
+    }
+
+    @Config("driver.pages-serde-buffer-pool-size")
+    @ConfigDescription("Maximum size of the exchange serialization buffers retained by the shared pool")
+    public TaskManagerConfig setPagesSerdeBufferPoolSize(DataSize size)
+    {
+        this.pagesSerdeBufferPoolSize = size;
+        return this;
+    }
+
     @MinDuration("5s")
     @NotNull
     public Duration getClientTimeout()
@@ -580,6 +612,33 @@ public class TaskManagerConfig
         return this;
     }
 
+    public boolean isWorkStealingEnabled()
+    {
+        return workStealingEnabled;
+    }
+
+    @Config("task.work-stealing-enabled")
+    @ConfigDescription("Give each runner thread a local split queue and let idle runners steal splits from the queues of other runners")
+    public TaskManagerConfig setWorkStealingEnabled(boolean workStealingEnabled)
+    {
+        this.workStealingEnabled = workStealingEnabled;
+        return this;
+    }
+
+    @Min(1)
+    public int getRunnerThreadGroups()
+    {
+        return runnerThreadGroups;
+    }
+
+    @Config("task.runner-thread-groups")
+    @ConfigDescription("Number of groups, usually the number of sockets, the runner threads are divided into. Idle runners steal splits from their own group first")
+    public TaskManagerConfig setRunnerThreadGroups(int runnerThreadGroups)
+    {
+        this.runnerThreadGroups = runnerThreadGroups;
+        return this;
+    }
+
     public enum TaskPriorityTracking
     {
         TASK_FAIR,
@@ -23,9 +23,8 @@ import com.google.errorprone.annotations.Immutable;
 import com.google.errorprone.annotations.ThreadSafe;
 import com.google.errorprone.annotations.concurrent.GuardedBy;
 
-import java.util.ArrayList;
+import java.util.ArrayDeque;
 import java.util.Collection;
-import java.util.LinkedList;
 import java.util.List;
 import java.util.Optional;
 import java.util.concurrent.atomic.AtomicBoolean;
@@ -57,7 +56,7 @@ class ClientBuffer
     private final AtomicLong currentSequenceId = new AtomicLong();
 
     @GuardedBy("this")
-    private final LinkedList<SerializedPageReference> pages = new LinkedList<>();
+    private final ArrayDeque<SerializedPageReference> pages = new ArrayDeque<>();
 
     @GuardedBy("this")
     private boolean noMorePages;
@@ -362,18 +361,23 @@ class ClientBuffer
         verify(sequenceId == currentSequenceId.get(), "Invalid sequence id");
 
         // read the new pages
-        List<SerializedPage> result = new ArrayList<>();
+        // The result references the buffered pages rather than copies of them. The pages stay referenced by
+        // this buffer until the client acknowledges them with its next request, so the transport can write
+        // them straight from their backing slices after the lock is released.
+        ImmutableList.Builder<SerializedPage> result = ImmutableList.builder();
+        int pageCount = 0;
         long bytesReturned = 0;
 
         for (SerializedPageReference page : pages) {
             bytesReturned += page.getRetainedSizeInBytes();
             // break (and don't add) if this page would exceed the limit
-            if (!result.isEmpty() && bytesReturned > maxSizeInBytes) {
+            if (pageCount > 0 && bytesReturned > maxSizeInBytes) {
                 break;
             }
             result.add(page.getSerializedPage());
+            pageCount++;
         }
-        return new BufferResult(taskInstanceId, sequenceId, sequenceId + result.size(), false, Math.max(bufferedBytes - bytesReturned, 0), result);
+        return new BufferResult(taskInstanceId, sequenceId, sequenceId + pageCount, false, Math.max(bufferedBytes - bytesReturned, 0), result.build());
     }
 
     /**
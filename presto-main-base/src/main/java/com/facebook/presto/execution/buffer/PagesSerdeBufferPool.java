@@ -0,0 +1,65 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.execution.buffer;
+
+import com.facebook.airlift.units.DataSize;
+import com.facebook.presto.execution.TaskManagerConfig;
+import com.facebook.presto.spi.page.PageBufferPool;
+import com.google.inject.Inject;
+import org.weakref.jmx.Managed;
+
+import static java.lang.Math.toIntExact;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Process wide pool of the scratch buffers used by the exchange serdes. Each buffer is only
+ * borrowed for a single page, so one pool serves all the output operators of the worker.
+ */
+public class PagesSerdeBufferPool
+{
+    private final PageBufferPool pool;
+    private final long maxRetainedSizeInBytes;
+
+    @Inject
+    public PagesSerdeBufferPool(TaskManagerConfig config)
+    {
+        this(config.getPagesSerdeMaxPooledBufferSize(), config.getPagesSerdeBufferPoolSize());
+    }
+
+    public PagesSerdeBufferPool(DataSize maxPooledBufferSize, DataSize maxRetainedSize)
+    {
+        requireNonNull(maxPooledBufferSize, "maxPooledBufferSize is null");
+        requireNonNull(maxRetainedSize, "maxRetainedSize is null");
+        // the pool hands out power of two size classes
+        this.pool = new PageBufferPool(Integer.highestOneBit(toIntExact(maxPooledBufferSize.toBytes())), maxRetainedSize.toBytes());
+        this.maxRetainedSizeInBytes = maxRetainedSize.toBytes();
+    }
+
+    public PageBufferPool getPool()
+    {
+        return pool;
+    }
+
+    @Managed
+    public long getRetainedSizeInBytes()
+    {
+        return pool.getRetainedSizeInBytes();
+    }
+
+    @Managed
+    public long getMaxRetainedSizeInBytes()
+    {
+        return maxRetainedSizeInBytes;
+    }
+}
@@ -15,6 +15,7 @@ package com.facebook.presto.execution.buffer;
 
 import com.facebook.presto.CompressionCodec;
 import com.facebook.presto.common.block.BlockEncodingSerde;
+import com.facebook.presto.spi.page.PageBufferPool;
 import com.facebook.presto.spi.page.PageCompressor;
 import com.facebook.presto.spi.page.PageDecompressor;
 import com.facebook.presto.spi.page.PagesSerde;
@@ -38,6 +39,7 @@ public class PagesSerdeFactory
     private final BlockEncodingSerde blockEncodingSerde;
     private final CompressionCodec compressionCodec;
     private final boolean checksumEnabled;
+    private final Optional<PageBufferPool> bufferPool;
 
     public PagesSerdeFactory(BlockEncodingSerde blockEncodingSerde, CompressionCodec compressionCodec)
     {
@@ -45,10 +47,16 @@ public class PagesSerdeFactory
     }
 
     public PagesSerdeFactory(BlockEncodingSerde blockEncodingSerde, CompressionCodec compressionCodec, boolean checksumEnabled)
+    {
+        this(blockEncodingSerde, compressionCodec, checksumEnabled, Optional.empty());
+    }
+
+    public PagesSerdeFactory(BlockEncodingSerde blockEncodingSerde, CompressionCodec compressionCodec, boolean checksumEnabled, Optional<PageBufferPool> bufferPool)
     {
         this.blockEncodingSerde = requireNonNull(blockEncodingSerde, "blockEncodingSerde is null");
         this.compressionCodec = requireNonNull(compressionCodec, "compressionCodec is null");
         this.checksumEnabled = checksumEnabled;
+        this.bufferPool = requireNonNull(bufferPool, "bufferPool is null");
     }
 
     public PagesSerde createPagesSerde()
@@ -63,7 +71,7 @@ public class PagesSerdeFactory
 
     private PagesSerde createPagesSerdeInternal(Optional<SpillCipher> spillCipher)
     {
-        return new PagesSerde(blockEncodingSerde, getPageCompressor(), getPageDecompressor(), spillCipher, checksumEnabled);
+        return new PagesSerde(blockEncodingSerde, getPageCompressor(), getPageDecompressor(), spillCipher, checksumEnabled, bufferPool);
     }
 
     private Optional<PageCompressor> getPageCompressor()
@@ -40,6 +40,7 @@ import io.airlift.slice.SliceInput;
 
 import java.io.IOException;
 import java.util.ArrayDeque;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Deque;
 import java.util.Iterator;
@@ -65,6 +66,7 @@ import static com.google.common.base.Verify.verify;
 import static com.google.common.collect.ImmutableList.toImmutableList;
 import static com.google.common.collect.Iterators.advance;
 import static com.google.common.collect.Range.closedOpen;
+import static com.google.common.util.concurrent.Futures.allAsList;
 import static com.google.common.util.concurrent.Futures.catchingAsync;
 import static com.google.common.util.concurrent.Futures.immediateFailedFuture;
 import static com.google.common.util.concurrent.Futures.immediateFuture;
@@ -84,6 +86,7 @@ public class SpoolingOutputBuffer
     private final TempDataOperationContext tempDataOperationContext;
     private final TempStorage tempStorage;
     private final long thresholdInBytes;
+    private final boolean replayEnabled;
     private final FinalizerService finalizerService;
     private final ListeningExecutorService executor;
 
@@ -113,6 +116,18 @@ public class SpoolingOutputBuffer
     @GuardedBy("this")
     private final Queue<SerializedPage> pages = new ArrayDeque<>();
 
+    // spooled files whose pages have all been acknowledged, kept for replay until the buffer is destroyed
+    @GuardedBy("this")
+    private final List<HandleInfo> acknowledgedHandleInfos = new ArrayList<>();
+
+    // pages acknowledged from memory, spooled for replay once they reach the threshold
+    @GuardedBy("this")
+    private final List<SerializedPage> acknowledgedPages = new ArrayList<>();
+    @GuardedBy("this")
+    private long acknowledgedPagesStartSequenceId;
+    @GuardedBy("this")
+    private long acknowledgedPagesBytes;
+
     @GuardedBy("this")
     private PendingRead pendingRead;
 
@@ -123,6 +138,7 @@ public class SpoolingOutputBuffer
             StateMachine<BufferState> state,
             TempStorage tempStorage,
             long thresholdInBytes,
+            boolean replayEnabled,
             ListeningExecutorService executor,
             FinalizerService finalizerService)
     {
@@ -133,6 +149,7 @@ public class SpoolingOutputBuffer
         this.tempStorage = requireNonNull(tempStorage, "tempStorage is null");
         checkArgument(thresholdInBytes >= 0, "thresholdInBytes must be >= 0");
         this.thresholdInBytes = thresholdInBytes;
+        this.replayEnabled = replayEnabled;
         this.executor = requireNonNull(executor, "executor is null");
         this.finalizerService = requireNonNull(finalizerService, "finalizerService is null");
         this.finalizerService.addFinalizer(this, this::close);
@@ -253,26 +270,10 @@ public class SpoolingOutputBuffer
 
     private synchronized void flush()
     {
-        List<DataOutput> dataOutputs = pages.stream()
-                .map(PageDataOutput::new)
-                .collect(toImmutableList());
-
-        // create a future that will hold the handle
-        ListenableFuture<TempStorageHandle> handleFuture = executor.submit(() -> {
-            TempDataSink dataSink = tempStorage.create(tempDataOperationContext);
-            dataSink.write(dataOutputs);
-            return dataSink.commit();
-        });
-
         // store the handleFuture and file information
         long bytes = totalInMemoryBytes.get();
         int pageCount = pages.size();
-        HandleInfo handleInfo = new HandleInfo(
-                closedOpen(currentMemorySequenceId.get(), currentMemorySequenceId.get() + pageCount),
-                handleFuture,
-                bytes,
-                pageCount);
-        handleInfoQueue.add(handleInfo);
+        handleInfoQueue.add(spool(pages, currentMemorySequenceId.get(), bytes));
 
         // update cutoff for file pages
         currentMemorySequenceId.addAndGet(pageCount);
@@ -286,6 +287,26 @@ public class SpoolingOutputBuffer
         totalInMemoryBytes.set(0);
     }
 
+    private HandleInfo spool(Collection<SerializedPage> pages, long startSequenceId, long bytes)
+    {
+        List<DataOutput> dataOutputs = pages.stream()
+                .map(PageDataOutput::new)
+                .collect(toImmutableList());
+
+        // create a future that will hold the handle
+        ListenableFuture<TempStorageHandle> handleFuture = executor.submit(() -> {
+            TempDataSink dataSink = tempStorage.create(tempDataOperationContext);
+            dataSink.write(dataOutputs);
+            return dataSink.commit();
+        });
+
+        return new HandleInfo(
+                closedOpen(startSequenceId, startSequenceId + dataOutputs.size()),
+                handleFuture,
+                bytes,
+                dataOutputs.size());
+    }
+
     @Override
     public synchronized ListenableFuture<BufferResult> get(OutputBufferId bufferId, long startSequenceId, long maxSizeInBytes)
     {
@@ -329,6 +350,9 @@ public class SpoolingOutputBuffer
 
         // startSequenceId is for a page before the current page position
         if (startSequenceId < currentSequenceId) {
+            if (replayEnabled) {
+                return replay(startSequenceId, currentSequenceId, maxSizeInBytes);
+            }
             return immediateFuture(emptyResults(taskInstanceId, startSequenceId, false));
         }
 
@@ -372,6 +396,94 @@ public class SpoolingOutputBuffer
         }, executor);
     }
 
+    /**
+     * Reads already acknowledged pages back from the retained files, or from memory for pages that are not
+     * spooled yet, so that a consumer which lost its state can restart from an earlier token. The result stops at the first unacknowledged page, after
+     * which the consumer continues with the regular read path.
+     */
+    private synchronized ListenableFuture<BufferResult> replay(long startSequenceId, long endSequenceId, long maxSizeInBytes)
+    {
+        if (!acknowledgedPages.isEmpty() && startSequenceId >= acknowledgedPagesStartSequenceId && startSequenceId < acknowledgedPagesStartSequenceId + acknowledgedPages.size()) {
+            return immediateFuture(readAcknowledgedPages(startSequenceId, maxSizeInBytes));
+        }
+
+        // the files before the acknowledged pages are not contiguous with the files after them
+        long replayEndSequenceId = !acknowledgedPages.isEmpty() && startSequenceId < acknowledgedPagesStartSequenceId ? acknowledgedPagesStartSequenceId : endSequenceId;
+        List<HandleInfo> handleInfos = ImmutableList.<HandleInfo>builder()
+                .addAll(acknowledgedHandleInfos)
+                .addAll(handleInfoQueue)
+                .build()
+                .stream()
+                .filter(handleInfo -> handleInfo.getRange().upperEndpoint() > startSequenceId && handleInfo.getRange().lowerEndpoint() < replayEndSequenceId)
+                .collect(toImmutableList());
+        if (handleInfos.isEmpty() || handleInfos.get(0).getRange().lowerEndpoint() > startSequenceId) {
+            return immediateFuture(emptyResults(taskInstanceId, startSequenceId, false));
+        }
+
+        ListenableFuture<List<TempStorageHandle>> handles = allAsList(handleInfos.stream()
+                .map(HandleInfo::getHandleFuture)
+                .collect(toImmutableList()));
+        ListenableFuture<BufferResult> resultFuture = transform(
+                handles,
+                input -> readRetainedPages(handleInfos, input, startSequenceId, replayEndSequenceId, maxSizeInBytes),
+                executor);
+
+        return catchingAsync(resultFuture, Exception.class, e -> {
+            log.error("Task %s: Failed to replay pages with startSequenceId %s", taskId, startSequenceId);
+            return immediateFailedFuture(e);
+        }, executor);
+    }
+
+    private synchronized BufferResult readAcknowledgedPages(long startSequenceId, long maxSizeInBytes)
+    {
+        ImmutableList.Builder<SerializedPage> result = ImmutableList.builder();
+        long bytes = 0;
+        int pageCount = 0;
+
+        for (SerializedPage page : acknowledgedPages.subList(toIntExact(startSequenceId - acknowledgedPagesStartSequenceId), acknowledgedPages.size())) {
+            bytes += page.getRetainedSizeInBytes();
+            if (pageCount != 0 && bytes > maxSizeInBytes) {
+                break;
+            }
+            result.add(page);
+            pageCount++;
+        }
+        return new BufferResult(taskInstanceId, startSequenceId, startSequenceId + pageCount, false, 0, result.build());
+    }
+
+    private BufferResult readRetainedPages(List<HandleInfo> handleInfos, List<TempStorageHandle> handles, long startSequenceId, long endSequenceId, long maxSizeInBytes)
+    {
+        ImmutableList.Builder<SerializedPage> result = ImmutableList.builder();
+        long bytes = 0;
+        int pageCount = 0;
+
+        for (int i = 0; i < handleInfos.size(); i++) {
+            long sequenceId = handleInfos.get(i).getRange().lowerEndpoint();
+            try (SliceInput inputStream = new InputStreamSliceInput(tempStorage.open(tempDataOperationContext, handles.get(i)))) {
+                Iterator<SerializedPage> serializedPages = readSerializedPages(inputStream);
+                if (sequenceId < startSequenceId) {
+                    advance(serializedPages, toIntExact(startSequenceId - sequenceId));
+                    sequenceId = startSequenceId;
+                }
+
+                while (serializedPages.hasNext() && sequenceId < endSequenceId) {
+                    SerializedPage page = serializedPages.next();
+                    bytes += page.getRetainedSizeInBytes();
+                    if (pageCount != 0 && bytes > maxSizeInBytes) {
+                        return new BufferResult(taskInstanceId, startSequenceId, startSequenceId + pageCount, false, 0, result.build());
+                    }
+                    result.add(page);
+                    pageCount++;
+                    sequenceId++;
+                }
+            }
+            catch (IOException e) {
+                throw new PrestoException(SPOOLING_STORAGE_ERROR, "Failed to read file from TempStorage", e);
+            }
+        }
+        return new BufferResult(taskInstanceId, startSequenceId, startSequenceId + pageCount, false, 0, result.build());
+    }
+
     private ListenableFuture<List<SerializedPage>> getPagesFromStorage(long startSequenceId, GetTracker getTracker)
     {
         if (startSequenceId >= currentMemorySequenceId.get()) {
@@ -468,6 +580,10 @@ public class SpoolingOutputBuffer
         }
 
         verify(this.currentSequenceId.compareAndSet(oldSequenceId, oldSequenceId + pagesToRemove));
+
+        if (replayEnabled) {
+            checkFlushComplete();
+        }
     }
 
     private synchronized long acknowledgePagesFromStorage(long sequenceId)
@@ -481,7 +597,14 @@ public class SpoolingOutputBuffer
             Range<Long> range = handleInfo.getRange();
 
             if (range.upperEndpoint() <= sequenceId) {
-                handleInfo.removeFile();
+                if (replayEnabled) {
+                    // keep the retained files ordered by sequence id
+                    spoolAcknowledgedPages();
+                    acknowledgedHandleInfos.add(handleInfo);
+                }
+                else {
+                    handleInfo.removeFile();
+                }
                 handleInfoQueue.removeFirst();
 
                 pagesAcknowledged += handleInfo.getPageCount() - startPage.get();
@@ -515,12 +638,36 @@ public class SpoolingOutputBuffer
             SerializedPage removedPage = pages.remove();
             bytesRemoved += removedPage.getRetainedSizeInBytes();
             currentMemorySequenceId.incrementAndGet();
+
+            // pages served from memory were never spooled, so they are kept until there are enough to fill a file
+            if (replayEnabled) {
+                if (acknowledgedPages.isEmpty()) {
+                    acknowledgedPagesStartSequenceId = startSequenceId + i;
+                }
+                acknowledgedPages.add(removedPage);
+                acknowledgedPagesBytes += removedPage.getRetainedSizeInBytes();
+            }
+        }
+
+        if (acknowledgedPagesBytes >= thresholdInBytes) {
+            spoolAcknowledgedPages();
         }
 
         totalBufferedPages.addAndGet(-pagesToRemove);
         totalBufferedBytes.addAndGet(-bytesRemoved);
         totalInMemoryBytes.addAndGet(-bytesRemoved);
         totalPagesRemaining.addAndGet(-pagesToRemove);
+        peakMemoryUsage.accumulateAndGet(totalInMemoryBytes.get() + acknowledgedPagesBytes, Math::max);
+    }
+
+    private synchronized void spoolAcknowledgedPages()
+    {
+        if (acknowledgedPages.isEmpty()) {
+            return;
+        }
+        acknowledgedHandleInfos.add(spool(acknowledgedPages, acknowledgedPagesStartSequenceId, acknowledgedPagesBytes));
+        acknowledgedPages.clear();
+        acknowledgedPagesBytes = 0;
     }
 
     @Override
@@ -558,16 +705,32 @@ public class SpoolingOutputBuffer
         }
 
         if (totalBufferedPages.get() == 0) {
-            destroy();
+            if (replayEnabled) {
+                finish();
+            }
+            else {
+                destroy();
+            }
         }
     }
 
+    /**
+     * Finishes the buffer once every page has been acknowledged, keeping the retained files for replay
+     * until the buffer is destroyed.
+     */
+    private synchronized void finish()
+    {
+        spoolAcknowledgedPages();
+        state.setIf(FINISHED, oldState -> !oldState.isTerminal());
+    }
+
     @Override
     public void destroy()
     {
         PendingRead pendingRead;
         synchronized (this) {
-            if (state.setIf(FINISHED, oldState -> !oldState.isTerminal())) {
+            // a buffer finished with replay enabled still holds the retained files
+            if (state.setIf(FINISHED, oldState -> !oldState.isTerminal()) || replayEnabled) {
                 close();
             }
             pendingRead = this.pendingRead;
@@ -590,8 +753,14 @@ public class SpoolingOutputBuffer
         for (HandleInfo handleInfo : handleInfoQueue) {
             handleInfo.removeFile();
         }
+        for (HandleInfo handleInfo : acknowledgedHandleInfos) {
+            handleInfo.removeFile();
+        }
         pages.clear();
         handleInfoQueue.clear();
+        acknowledgedHandleInfos.clear();
+        acknowledgedPages.clear();
+        acknowledgedPagesBytes = 0;
         noMorePages.set(true);
         totalBufferedPages.set(0);
         totalBufferedBytes.set(0);
@@ -30,6 +30,7 @@ import java.util.PriorityQueue;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.locks.Condition;
 import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.IntPredicate;
 
 import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkState;
@@ -103,14 +104,7 @@ public class MultilevelSplitQueue
         lock.lock();
         try {
             if (levelWaitingSplits.get(level).isEmpty()) {
-                // Accesses to levelScheduledTime are not synchronized, so we have a data race
-                // here - our level time math will be off. However, the staleness is bounded by
-                // the fact that only running splits that complete during this computation
-                // can update the level time. Therefore, this is benign.
-                long level0Time = getLevel0TargetTime();
-                long levelExpectedTime = (long) (level0Time / Math.pow(levelTimeMultiplier, level));
-                long delta = levelExpectedTime - levelScheduledTime[level].get();
-                levelScheduledTime[level].addAndGet(delta);
+                resetLevelScheduledTime(level);
             }
 
             levelWaitingSplits.get(level).offer(split);
@@ -121,6 +115,18 @@ public class MultilevelSplitQueue
         }
     }
 
+    void resetLevelScheduledTime(int level)
+    {
+        // Accesses to levelScheduledTime are not synchronized, so we have a data race
+        // here - our level time math will be off. However, the staleness is bounded by
+        // the fact that only running splits that complete during this computation
+        // can update the level time. Therefore, this is benign.
+        long level0Time = getLevel0TargetTime();
+        long levelExpectedTime = (long) (level0Time / Math.pow(levelTimeMultiplier, level));
+        long delta = levelExpectedTime - levelScheduledTime[level].get();
+        levelScheduledTime[level].addAndGet(delta);
+    }
+
     public PrioritizedSplitRunner take()
             throws InterruptedException
     {
@@ -137,10 +143,7 @@ public class MultilevelSplitQueue
                     continue;
                 }
 
-                int selectedLevel = result.getPriority().getLevel();
-                levelMinPriority[selectedLevel].set(result.getPriority().getLevelPriority());
-                selectedLevelCounters.get(selectedLevel).update(1);
-
+                recordSelected(result);
                 return result;
             }
             finally {
@@ -159,12 +162,29 @@ public class MultilevelSplitQueue
      */
     @GuardedBy("lock")
     private PrioritizedSplitRunner pollSplit()
+    {
+        int selectedLevel = selectLevel(level -> !levelWaitingSplits.get(level).isEmpty());
+        if (selectedLevel == -1) {
+            return null;
+        }
+
+        PrioritizedSplitRunner result = levelWaitingSplits.get(selectedLevel).poll();
+        checkState(result != null, "pollSplit cannot return null");
+
+        return result;
+    }
+
+    /**
+     * Returns the level with waiting splits that is furthest behind its target scheduled time,
+     * or -1 if no level has waiting splits.
+     */
+    int selectLevel(IntPredicate hasWaitingSplits)
     {
         long targetScheduledTime = getLevel0TargetTime();
         double worstRatio = 1;
         int selectedLevel = -1;
         for (int level = 0; level < LEVEL_THRESHOLD_SECONDS.length; level++) {
-            if (!levelWaitingSplits.get(level).isEmpty()) {
+            if (hasWaitingSplits.test(level)) {
                 long levelTime = levelScheduledTime[level].get();
                 double ratio = levelTime == 0 ? 0 : targetScheduledTime / (1.0 * levelTime);
                 if (selectedLevel == -1 || ratio > worstRatio) {
@@ -175,18 +195,16 @@ public class MultilevelSplitQueue
 
             targetScheduledTime /= levelTimeMultiplier;
         }
+        return selectedLevel;
+    }
 
-        if (selectedLevel == -1) {
-            return null;
-        }
-
-        PrioritizedSplitRunner result = levelWaitingSplits.get(selectedLevel).poll();
-        checkState(result != null, "pollSplit cannot return null");
-
-        return result;
+    void recordSelected(PrioritizedSplitRunner split)
+    {
+        int selectedLevel = split.getPriority().getLevel();
+        levelMinPriority[selectedLevel].set(split.getPriority().getLevelPriority());
+        selectedLevelCounters.get(selectedLevel).update(1);
     }
 
-    @GuardedBy("lock")
     private long getLevel0TargetTime()
     {
         long level0TargetTime = levelScheduledTime[0].get();
@@ -65,6 +65,7 @@ import java.util.concurrent.atomic.AtomicLongArray;
 import java.util.function.DoubleSupplier;
 import java.util.function.Function;
 import java.util.function.Predicate;
+import java.util.function.ToLongFunction;
 
 import static com.facebook.airlift.concurrent.Threads.daemonThreadsNamed;
 import static com.facebook.presto.execution.executor.MultilevelSplitQueue.computeLevel;
@@ -720,6 +721,45 @@ public class TaskExecutor
         return waitingSplits.size();
     }
 
+    @Managed
+    public long getLocalSplits()
+    {
+        return getWorkStealingStat(queue -> queue.getLocalSplits().getTotalCount());
+    }
+
+    @Managed
+    public long getStolenSplits()
+    {
+        return getWorkStealingStat(queue -> queue.getStolenSplits().getTotalCount());
+    }
+
+    @Managed
+    public long getRemoteGroupStolenSplits()
+    {
+        return getWorkStealingStat(queue -> queue.getRemoteGroupStolenSplits().getTotalCount());
+    }
+
+    @Managed
+    public long getMaxRunnerQueueSize()
+    {
+        return getWorkStealingStat(WorkStealingSplitQueue::getMaxRunnerQueueSize);
+    }
+
+    @Managed
+    public long getIdleRunners()
+    {
+        return getWorkStealingStat(WorkStealingSplitQueue::getIdleRunners);
+    }
+
+    private long getWorkStealingStat(ToLongFunction<WorkStealingSplitQueue> stat)
+    {
+        // the stats are only tracked by the work stealing queue
+        if (waitingSplits instanceof WorkStealingSplitQueue) {
+            return stat.applyAsLong((WorkStealingSplitQueue) waitingSplits);
+        }
+        return 0;
+    }
+
     @Managed
     public int getRunningSplits()
     {
@@ -0,0 +1,400 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.execution.executor;
+
+import com.facebook.airlift.stats.CounterStat;
+import com.facebook.presto.execution.TaskManagerConfig;
+import com.google.common.annotations.VisibleForTesting;
+import com.google.errorprone.annotations.ThreadSafe;
+import com.google.errorprone.annotations.concurrent.GuardedBy;
+import org.weakref.jmx.Managed;
+import org.weakref.jmx.Nested;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkState;
+
+/**
+ * A {@link MultilevelSplitQueue} that gives every runner thread a local queue instead of sharing a
+ * single queue, and its lock, between all of them.
+ * <p>
+ * A runner takes splits from its own queue and re-queues the splits it ran there, so a split tends
+ * to stay on the thread whose caches hold its state. Splits offered by other threads are spread
+ * over the queues round robin. A runner with an empty queue steals from the other runners of its
+ * group first and only then from the other groups, so with one group per socket splits rarely move
+ * between sockets.
+ * <p>
+ * The scheduled time of the levels is still accounted globally, and every queue selects the level
+ * that is furthest behind its target, so the levels keep their share of the threads. Within a level
+ * the split order is only kept per queue.
+ */
+@ThreadSafe
+public class WorkStealingSplitQueue
+        extends MultilevelSplitQueue
+{
+    private final List<RunnerQueue> runnerQueues;
+    private final int runnerGroups;
+
+    private final AtomicInteger nextRunner = new AtomicInteger();
+    private final AtomicInteger nextOfferQueue = new AtomicInteger();
+    private final ThreadLocal<RunnerQueue> localQueue = new ThreadLocal<>();
+
+    private final AtomicInteger[] levelWaitingSplitCounts = new AtomicInteger[LEVEL_THRESHOLD_SECONDS.length];
+    private final AtomicInteger waitingSplitCount = new AtomicInteger();
+
+    private final ReentrantLock idleLock = new ReentrantLock();
+    private final Condition notEmpty = idleLock.newCondition();
+    private final AtomicInteger idleRunners = new AtomicInteger();
+
+    private final CounterStat localSplits = new CounterStat();
+    private final CounterStat stolenSplits = new CounterStat();
+    private final CounterStat remoteGroupStolenSplits = new CounterStat();
+
+    public WorkStealingSplitQueue(TaskManagerConfig taskManagerConfig)
+    {
+        this(taskManagerConfig.getLevelTimeMultiplier().doubleValue(), taskManagerConfig.getMaxWorkerThreads(), taskManagerConfig.getRunnerThreadGroups());
+    }
+
+    public WorkStealingSplitQueue(double levelTimeMultiplier, int runnerQueueCount, int runnerGroups)
+    {
+        super(levelTimeMultiplier);
+        checkArgument(runnerQueueCount > 0, "runnerQueueCount must be at least 1");
+        checkArgument(runnerGroups > 0 && runnerGroups <= runnerQueueCount, "runnerGroups must be between 1 and runnerQueueCount");
+
+        this.runnerGroups = runnerGroups;
+        List<RunnerQueue> runnerQueues = new ArrayList<>(runnerQueueCount);
+        for (int i = 0; i < runnerQueueCount; i++) {
+            // assign contiguous ranges of queues to a group
+            runnerQueues.add(new RunnerQueue(i, (int) ((long) i * runnerGroups / runnerQueueCount)));
+        }
+        this.runnerQueues = runnerQueues;
+        for (int level = 0; level < LEVEL_THRESHOLD_SECONDS.length; level++) {
+            levelWaitingSplitCounts[level] = new AtomicInteger();
+        }
+    }
+
+    @Override
+    public void offer(PrioritizedSplitRunner split)
+    {
+        checkArgument(split != null, "split is null");
+
+        split.setReady();
+        RunnerQueue queue = localQueue.get();
+        if (queue == null) {
+            queue = runnerQueues.get(Math.floorMod(nextOfferQueue.getAndIncrement(), runnerQueues.size()));
+        }
+
+        int level = split.getPriority().getLevel();
+        if (levelWaitingSplitCounts[level].getAndIncrement() == 0) {
+            resetLevelScheduledTime(level);
+        }
+        // the count is incremented before idle runners are checked, and an idle runner re-checks
+        // the count after registering itself, so a split cannot be missed by all runners
+        waitingSplitCount.incrementAndGet();
+        queue.offer(split, level);
+
+        if (idleRunners.get() > 0) {
+            idleLock.lock();
+            try {
+                notEmpty.signal();
+            }
+            finally {
+                idleLock.unlock();
+            }
+        }
+    }
+
+    @Override
+    public PrioritizedSplitRunner take()
+            throws InterruptedException
+    {
+        RunnerQueue queue = localQueue.get();
+        if (queue == null) {
+            queue = runnerQueues.get(Math.floorMod(nextRunner.getAndIncrement(), runnerQueues.size()));
+            localQueue.set(queue);
+        }
+
+        while (true) {
+            PrioritizedSplitRunner result = queue.poll();
+            if (result != null) {
+                localSplits.update(1);
+            }
+            else {
+                result = steal(queue);
+            }
+
+            if (result == null) {
+                awaitSplits();
+                continue;
+            }
+
+            if (result.updateLevelPriority()) {
+                offer(result);
+                continue;
+            }
+
+            recordSelected(result);
+            return result;
+        }
+    }
+
+    private PrioritizedSplitRunner steal(RunnerQueue thief)
+    {
+        // start at the queue after the thief so that idle runners do not all steal from the same queue
+        int queueCount = runnerQueues.size();
+        for (int i = 1; i < queueCount; i++) {
+            RunnerQueue victim = runnerQueues.get((thief.getIndex() + i) % queueCount);
+            if (victim.getGroup() == thief.getGroup()) {
+                PrioritizedSplitRunner split = victim.poll();
+                if (split != null) {
+                    stolenSplits.update(1);
+                    return split;
+                }
+            }
+        }
+        if (runnerGroups > 1) {
+            for (int i = 1; i < queueCount; i++) {
+                RunnerQueue victim = runnerQueues.get((thief.getIndex() + i) % queueCount);
+                if (victim.getGroup() != thief.getGroup()) {
+                    PrioritizedSplitRunner split = victim.poll();
+                    if (split != null) {
+                        stolenSplits.update(1);
+                        remoteGroupStolenSplits.update(1);
+                        return split;
+                    }
+                }
+            }
+        }
+        return null;
+    }
+
+    private void awaitSplits()
+            throws InterruptedException
+    {
+        idleLock.lockInterruptibly();
+        try {
+            idleRunners.incrementAndGet();
+            try {
+                while (waitingSplitCount.get() == 0) {
+                    notEmpty.await();
+                }
+            }
+            finally {
+                idleRunners.decrementAndGet();
+            }
+        }
+        finally {
+            idleLock.unlock();
+        }
+    }
+
+    @Override
+    public void remove(PrioritizedSplitRunner split)
+    {
+        checkArgument(split != null, "split is null");
+        for (RunnerQueue queue : runnerQueues) {
+            queue.remove(split);
+        }
+    }
+
+    @Override
+    public void removeAll(Collection<PrioritizedSplitRunner> splits)
+    {
+        for (RunnerQueue queue : runnerQueues) {
+            queue.removeAll(splits);
+        }
+    }
+
+    @Override
+    public int size()
+    {
+        return waitingSplitCount.get();
+    }
+
+    @VisibleForTesting
+    int getRunnerQueueSize(int runnerQueue)
+    {
+        return runnerQueues.get(runnerQueue).size();
+    }
+
+    @Managed
+    public int getRunnerQueues()
+    {
+        return runnerQueues.size();
+    }
+
+    @Managed
+    public int getRunnerGroups()
+    {
+        return runnerGroups;
+    }
+
+    @Managed
+    public int getMaxRunnerQueueSize()
+    {
+        int max = 0;
+        for (RunnerQueue queue : runnerQueues) {
+            max = Math.max(max, queue.size());
+        }
+        return max;
+    }
+
+    @Managed
+    public int getIdleRunners()
+    {
+        return idleRunners.get();
+    }
+
+    @Managed
+    @Nested
+    public CounterStat getLocalSplits()
+    {
+        return localSplits;
+    }
+
+    @Managed
+    @Nested
+    public CounterStat getStolenSplits()
+    {
+        return stolenSplits;
+    }
+
+    @Managed
+    @Nested
+    public CounterStat getRemoteGroupStolenSplits()
+    {
+        return remoteGroupStolenSplits;
+    }
+
+    private void splitRemoved(int level)
+    {
+        levelWaitingSplitCounts[level].decrementAndGet();
+        waitingSplitCount.decrementAndGet();
+    }
+
+    @ThreadSafe
+    private class RunnerQueue
+    {
+        private final int index;
+        private final int group;
+
+        private final ReentrantLock lock = new ReentrantLock();
+        @GuardedBy("lock")
+        private final List<PriorityQueue<PrioritizedSplitRunner>> levelWaitingSplits = new ArrayList<>(LEVEL_THRESHOLD_SECONDS.length);
+        @GuardedBy("lock")
+        private int size;
+
+        RunnerQueue(int index, int group)
+        {
+            this.index = index;
+            this.group = group;
+            for (int level = 0; level < LEVEL_THRESHOLD_SECONDS.length; level++) {
+                levelWaitingSplits.add(new PriorityQueue<>());
+            }
+        }
+
+        int getIndex()
+        {
+            return index;
+        }
+
+        int getGroup()
+        {
+            return group;
+        }
+
+        void offer(PrioritizedSplitRunner split, int level)
+        {
+            lock.lock();
+            try {
+                levelWaitingSplits.get(level).offer(split);
+                size++;
+            }
+            finally {
+                lock.unlock();
+            }
+        }
+
+        PrioritizedSplitRunner poll()
+        {
+            lock.lock();
+            try {
+                if (size == 0) {
+                    return null;
+                }
+                int selectedLevel = selectLevel(level -> !levelWaitingSplits.get(level).isEmpty());
+                PrioritizedSplitRunner result = levelWaitingSplits.get(selectedLevel).poll();
+                checkState(result != null, "poll cannot return null");
+                size--;
+                splitRemoved(selectedLevel);
+                return result;
+            }
+            finally {
+                lock.unlock();
+            }
+        }
+
+        void remove(PrioritizedSplitRunner split)
+        {
+            lock.lock();
+            try {
+                for (int level = 0; level < levelWaitingSplits.size(); level++) {
+                    if (levelWaitingSplits.get(level).remove(split)) {
+                        size--;
+                        splitRemoved(level);
+                    }
+                }
+            }
+            finally {
+                lock.unlock();
+            }
+        }
+
+        void removeAll(Collection<PrioritizedSplitRunner> splits)
+        {
+            lock.lock();
+            try {
+                for (int level = 0; level < levelWaitingSplits.size(); level++) {
+                    for (PrioritizedSplitRunner split : splits) {
+                        if (levelWaitingSplits.get(level).remove(split)) {
+                            size--;
+                            splitRemoved(level);
+                        }
+                    }
+                }
+            }
+            finally {
+                lock.unlock();
+            }
+        }
+
+        int size()
+        {
+            lock.lock();
+            try {
+                return size;
+            }
+            finally {
+                lock.unlock();
+            }
+        }
+    }
+}
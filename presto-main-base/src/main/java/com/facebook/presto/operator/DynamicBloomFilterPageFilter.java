@@ -0,0 +1,150 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.operator;
+
+import com.facebook.airlift.concurrent.NotThreadSafe;
+import com.facebook.presto.common.Page;
+import com.facebook.presto.common.block.Block;
+import com.facebook.presto.common.block.LazyBlock;
+import com.facebook.presto.common.predicate.BlockedBloomFilter;
+import com.facebook.presto.common.type.Type;
+import com.facebook.presto.spi.ColumnHandle;
+import com.google.common.annotations.VisibleForTesting;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static com.facebook.presto.operator.DynamicFilterSourceOperator.hashBloomFilterValue;
+import static com.facebook.presto.operator.DynamicFilterSourceOperator.isBloomFilterSupported;
+import static com.google.common.base.Preconditions.checkArgument;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Removes the rows of scanned pages whose join keys are not contained in the Bloom filters of the
+ * dynamic filters. Readers may already have applied the filters, in which case nearly all rows pass
+ * and the filter disables itself to avoid hashing every key twice.
+ */
+@NotThreadSafe
+public final class DynamicBloomFilterPageFilter
+{
+    @VisibleForTesting
+    static final int MIN_SAMPLED_POSITIONS = 10_000;
+    private static final double MAX_PASS_RATIO = 0.9;
+
+    private final int[] channels;
+    private final Type[] types;
+    private final BlockedBloomFilter[] bloomFilters;
+
+    private long inputPositions;
+    private long outputPositions;
+    private boolean disabled;
+    private int[] positions = new int[0];
+
+    private DynamicBloomFilterPageFilter(int[] channels, Type[] types, BlockedBloomFilter[] bloomFilters)
+    {
+        this.channels = requireNonNull(channels, "channels is null");
+        this.types = requireNonNull(types, "types is null");
+        this.bloomFilters = requireNonNull(bloomFilters, "bloomFilters is null");
+    }
+
+    /**
+     * Creates a filter for the Bloom filters of the scanned columns, or nothing if none of the columns has one.
+     */
+    public static Optional<DynamicBloomFilterPageFilter> create(Map<ColumnHandle, BlockedBloomFilter> bloomFilters, List<ColumnHandle> columns, List<Type> columnTypes)
+    {
+        checkArgument(columns.size() == columnTypes.size(), "columns and columnTypes must have the same size");
+        int count = 0;
+        int[] channels = new int[columns.size()];
+        Type[] types = new Type[columns.size()];
+        BlockedBloomFilter[] filters = new BlockedBloomFilter[columns.size()];
+        for (int channel = 0; channel < columns.size(); channel++) {
+            BlockedBloomFilter bloomFilter = bloomFilters.get(columns.get(channel));
+            if (bloomFilter != null && isBloomFilterSupported(columnTypes.get(channel))) {
+                channels[count] = channel;
+                types[count] = columnTypes.get(channel);
+                filters[count] = bloomFilter;
+                count++;
+            }
+        }
+        if (count == 0) {
+            return Optional.empty();
+        }
+        return Optional.of(new DynamicBloomFilterPageFilter(
+                Arrays.copyOf(channels, count),
+                Arrays.copyOf(types, count),
+                Arrays.copyOf(filters, count)));
+    }
+
+    public boolean isDisabled()
+    {
+        return disabled;
+    }
+
+    public Page filter(Page page)
+    {
+        if (disabled) {
+            return page;
+        }
+        int positionCount = page.getPositionCount();
+        if (positions.length < positionCount) {
+            positions = new int[positionCount];
+        }
+        for (int i = 0; i < positionCount; i++) {
+            positions[i] = i;
+        }
+        int retainedCount = positionCount;
+        for (int i = 0; i < channels.length && retainedCount > 0; i++) {
+            Block block = page.getBlock(channels[i]);
+            int count = 0;
+            for (int j = 0; j < retainedCount; j++) {
+                int position = positions[j];
+                // null keys never match an equi-join
+                if (!block.isNull(position) && bloomFilters[i].mightContain(hashBloomFilterValue(types[i], block, position))) {
+                    positions[count++] = position;
+                }
+            }
+            retainedCount = count;
+        }
+
+        inputPositions += positionCount;
+        outputPositions += retainedCount;
+        if (inputPositions >= MIN_SAMPLED_POSITIONS && outputPositions > inputPositions * MAX_PASS_RATIO) {
+            disabled = true;
+        }
+
+        if (retainedCount == positionCount) {
+            return page;
+        }
+        return getPositions(page, positions, retainedCount);
+    }
+
+    private static Page getPositions(Page page, int[] positions, int length)
+    {
+        // positions is reused for the next page, while the returned blocks may keep referencing the selected positions
+        int[] retainedPositions = Arrays.copyOf(positions, length);
+        Block[] blocks = new Block[page.getChannelCount()];
+        for (int channel = 0; channel < blocks.length; channel++) {
+            Block block = page.getBlock(channel);
+            if (block instanceof LazyBlock && !((LazyBlock) block).isLoaded()) {
+                blocks[channel] = new LazyBlock(length, lazyBlock -> lazyBlock.setBlock(block.getPositions(retainedPositions, 0, length)));
+            }
+            else {
+                blocks[channel] = block.getPositions(retainedPositions, 0, length);
+            }
+        }
+        return new Page(length, blocks);
+    }
+}
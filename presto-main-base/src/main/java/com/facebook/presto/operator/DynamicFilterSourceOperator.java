@@ -17,10 +17,12 @@ import com.facebook.airlift.units.DataSize;
 import com.facebook.presto.common.Page;
 import com.facebook.presto.common.block.Block;
 import com.facebook.presto.common.block.BlockBuilder;
+import com.facebook.presto.common.predicate.BlockedBloomFilter;
 import com.facebook.presto.common.predicate.Domain;
 import com.facebook.presto.common.predicate.TupleDomain;
 import com.facebook.presto.common.predicate.ValueSet;
 import com.facebook.presto.common.type.Type;
+import com.facebook.presto.common.type.VarcharType;
 import com.facebook.presto.operator.aggregation.TypedSet;
 import com.facebook.presto.spi.plan.PlanNodeId;
 import com.google.common.collect.ImmutableList;
@@ -28,12 +30,18 @@ import com.google.common.collect.ImmutableMap;
 import jakarta.annotation.Nullable;
 
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.function.Consumer;
 
 import static com.facebook.presto.common.predicate.Range.range;
+import static com.facebook.presto.common.type.BigintType.BIGINT;
+import static com.facebook.presto.common.type.DateType.DATE;
 import static com.facebook.presto.common.type.DoubleType.DOUBLE;
+import static com.facebook.presto.common.type.IntegerType.INTEGER;
 import static com.facebook.presto.common.type.RealType.REAL;
+import static com.facebook.presto.common.type.SmallintType.SMALLINT;
+import static com.facebook.presto.common.type.TinyintType.TINYINT;
 import static com.facebook.presto.common.type.TypeUtils.readNativeValue;
 import static com.google.common.base.Preconditions.checkState;
 import static com.google.common.base.Verify.verify;
@@ -45,6 +53,8 @@ import static java.util.stream.Collectors.toSet;
  * The collected pages' value are used for creating a run-time filtering constraint (for probe-side table scan in an inner join).
  * We record all values for the run-time filter only for small build-side pages (which should be the case when using "broadcast" join).
  * For large inputs on build side, we can optionally record the min and max values per channel for orderable types (except Double and Real).
+ * For integral, date and varchar channels, we can additionally collect a {@link BlockedBloomFilter} of the values once there are too many to record
+ * exactly, which is reported separately when the input is finished.
  */
 public class DynamicFilterSourceOperator
         implements Operator
@@ -86,10 +96,12 @@ public class DynamicFilterSourceOperator
         private final int operatorId;
         private final PlanNodeId planNodeId;
         private final Consumer<TupleDomain<String>> dynamicPredicateConsumer;
+        private final Consumer<Optional<Map<String, BlockedBloomFilter>>> bloomFilterConsumer;
         private final List<Channel> channels;
         private final int maxFilterPositionsCount;
         private final DataSize maxFilterSize;
         private final int minMaxCollectionLimit;
+        private final int bloomFilterCollectionLimit;
 
         private boolean closed;
 
@@ -101,10 +113,25 @@ public class DynamicFilterSourceOperator
                 int maxFilterPositionsCount,
                 DataSize maxFilterSize,
                 int minMaxCollectionLimit)
+        {
+            this(operatorId, planNodeId, dynamicPredicateConsumer, bloomFilters -> {}, channels, maxFilterPositionsCount, maxFilterSize, minMaxCollectionLimit, 0);
+        }
+
+        public DynamicFilterSourceOperatorFactory(
+                int operatorId,
+                PlanNodeId planNodeId,
+                Consumer<TupleDomain<String>> dynamicPredicateConsumer,
+                Consumer<Optional<Map<String, BlockedBloomFilter>>> bloomFilterConsumer,
+                List<Channel> channels,
+                int maxFilterPositionsCount,
+                DataSize maxFilterSize,
+                int minMaxCollectionLimit,
+                int bloomFilterCollectionLimit)
         {
             this.operatorId = operatorId;
             this.planNodeId = requireNonNull(planNodeId, "planNodeId is null");
             this.dynamicPredicateConsumer = requireNonNull(dynamicPredicateConsumer, "dynamicPredicateConsumer is null");
+            this.bloomFilterConsumer = requireNonNull(bloomFilterConsumer, "bloomFilterConsumer is null");
             this.channels = requireNonNull(channels, "channels is null");
             verify(
                     channels.stream().map(channel -> channel.getFilterId()).collect(toSet()).size() == channels.size(),
@@ -115,6 +142,7 @@ public class DynamicFilterSourceOperator
             this.maxFilterPositionsCount = maxFilterPositionsCount;
             this.maxFilterSize = maxFilterSize;
             this.minMaxCollectionLimit = minMaxCollectionLimit;
+            this.bloomFilterCollectionLimit = bloomFilterCollectionLimit;
         }
 
         @Override
@@ -124,11 +152,13 @@ public class DynamicFilterSourceOperator
             return new DynamicFilterSourceOperator(
                     driverContext.addOperatorContext(operatorId, planNodeId, DynamicFilterSourceOperator.class.getSimpleName()),
                     dynamicPredicateConsumer,
+                    bloomFilterConsumer,
                     channels,
                     planNodeId,
                     maxFilterPositionsCount,
                     maxFilterSize,
-                    minMaxCollectionLimit);
+                    minMaxCollectionLimit,
+                    bloomFilterCollectionLimit);
         }
 
         @Override
@@ -147,10 +177,13 @@ public class DynamicFilterSourceOperator
 
     private final OperatorContext context;
     private final Consumer<TupleDomain<String>> dynamicPredicateConsumer;
+    private final Consumer<Optional<Map<String, BlockedBloomFilter>>> bloomFilterConsumer;
     private final int maxFilterPositionsCount;
     private final long maxFilterSizeInBytes;
     private final List<Channel> channels;
     private final List<Integer> minMaxChannels;
+    private final List<Integer> bloomFilterChannels;
+    private final int bloomFilterCollectionLimit;
 
     private boolean finished;
     private Page current;
@@ -167,31 +200,44 @@ public class DynamicFilterSourceOperator
     @Nullable
     private Block[] maxValues;
 
+    // Created when the exact values become too many, dropped when there are too many rows for the Bloom filters to stay selective.
+    @Nullable
+    private BlockedBloomFilter[] bloomFilters;
+    private long bloomFilterRowCount;
+
     private DynamicFilterSourceOperator(
             OperatorContext context,
             Consumer<TupleDomain<String>> dynamicPredicateConsumer,
+            Consumer<Optional<Map<String, BlockedBloomFilter>>> bloomFilterConsumer,
             List<Channel> channels,
             PlanNodeId planNodeId,
             int maxFilterPositionsCount,
             DataSize maxFilterSize,
-            int minMaxCollectionLimit)
+            int minMaxCollectionLimit,
+            int bloomFilterCollectionLimit)
     {
         this.context = requireNonNull(context, "context is null");
         this.maxFilterPositionsCount = maxFilterPositionsCount;
         this.maxFilterSizeInBytes = maxFilterSize.toBytes();
 
         this.dynamicPredicateConsumer = requireNonNull(dynamicPredicateConsumer, "dynamicPredicateConsumer is null");
+        this.bloomFilterConsumer = requireNonNull(bloomFilterConsumer, "bloomFilterConsumer is null");
         this.channels = requireNonNull(channels, "channels is null");
+        this.bloomFilterCollectionLimit = bloomFilterCollectionLimit;
 
         this.blockBuilders = new BlockBuilder[channels.size()];
         this.valueSets = new TypedSet[channels.size()];
         ImmutableList.Builder<Integer> minMaxChannelsBuilder = ImmutableList.builder();
+        ImmutableList.Builder<Integer> bloomFilterChannelsBuilder = ImmutableList.builder();
         for (int channelIndex = 0; channelIndex < channels.size(); ++channelIndex) {
             Type type = channels.get(channelIndex).getType();
             // Skipping DOUBLE and REAL in collectMinMaxValues to avoid dealing with NaN values
             if (minMaxCollectionLimit > 0 && type.isOrderable() && !type.equals(DOUBLE) && !type.equals(REAL)) {
                 minMaxChannelsBuilder.add(channelIndex);
             }
+            if (bloomFilterCollectionLimit > 0 && isBloomFilterSupported(type)) {
+                bloomFilterChannelsBuilder.add(channelIndex);
+            }
             this.blockBuilders[channelIndex] = type.createBlockBuilder(null, EXPECTED_BLOCK_BUILDER_SIZE);
             this.valueSets[channelIndex] = new TypedSet(
                     type,
@@ -203,6 +249,7 @@ public class DynamicFilterSourceOperator
         }
         this.minMaxCollectionLimit = minMaxCollectionLimit;
         minMaxChannels = minMaxChannelsBuilder.build();
+        bloomFilterChannels = bloomFilterChannelsBuilder.build();
         if (!minMaxChannels.isEmpty()) {
             minValues = new Block[channels.size()];
             maxValues = new Block[channels.size()];
@@ -228,6 +275,7 @@ public class DynamicFilterSourceOperator
         current = page;
         if (valueSets == null) {
             // the exact predicate became too large.
+            addBloomFilterValues(page);
             if (minValues == null) {
                 // there are too many rows to collect min/max range
                 return;
@@ -267,6 +315,11 @@ public class DynamicFilterSourceOperator
     private void handleTooLargePredicate()
     {
         // The resulting predicate is too large
+        Block[] values = new Block[channels.size()];
+        for (int channelIndex = 0; channelIndex < channels.size(); ++channelIndex) {
+            values[channelIndex] = blockBuilders[channelIndex].build();
+        }
+        createBloomFilters(values);
         if (minMaxChannels.isEmpty()) {
             // allow all probe-side values to be read.
             dynamicPredicateConsumer.accept(TupleDomain.all());
@@ -278,8 +331,7 @@ public class DynamicFilterSourceOperator
             else {
                 // convert to min/max per column for orderable types
                 for (Integer channelIndex : minMaxChannels) {
-                    Block block = blockBuilders[channelIndex].build();
-                    updateMinMaxValues(block, channelIndex);
+                    updateMinMaxValues(values[channelIndex], channelIndex);
                 }
             }
         }
@@ -298,6 +350,90 @@ public class DynamicFilterSourceOperator
         maxValues = null;
     }
 
+    private void createBloomFilters(Block[] values)
+    {
+        if (bloomFilterChannels.isEmpty()) {
+            return;
+        }
+        // the distinct values collected so far already include the current page
+        for (Integer channelIndex : bloomFilterChannels) {
+            bloomFilterRowCount = Math.max(bloomFilterRowCount, values[channelIndex].getPositionCount());
+        }
+        if (bloomFilterRowCount > bloomFilterCollectionLimit) {
+            return;
+        }
+        bloomFilters = new BlockedBloomFilter[channels.size()];
+        for (Integer channelIndex : bloomFilterChannels) {
+            bloomFilters[channelIndex] = BlockedBloomFilter.create(bloomFilterCollectionLimit);
+            addBloomFilterValues(bloomFilters[channelIndex], channels.get(channelIndex).getType(), values[channelIndex]);
+        }
+    }
+
+    private void addBloomFilterValues(Page page)
+    {
+        if (bloomFilters == null) {
+            return;
+        }
+        bloomFilterRowCount += page.getPositionCount();
+        if (bloomFilterRowCount > bloomFilterCollectionLimit) {
+            // too many values for the Bloom filters to be selective
+            bloomFilters = null;
+            return;
+        }
+        for (Integer channelIndex : bloomFilterChannels) {
+            addBloomFilterValues(bloomFilters[channelIndex], channels.get(channelIndex).getType(), page.getBlock(channels.get(channelIndex).getIndex()));
+        }
+    }
+
+    private static void addBloomFilterValues(BlockedBloomFilter bloomFilter, Type type, Block block)
+    {
+        for (int position = 0; position < block.getPositionCount(); ++position) {
+            if (!block.isNull(position)) {
+                bloomFilter.put(hashBloomFilterValue(type, block, position));
+            }
+        }
+    }
+
+    /**
+     * Hashes a non-null value of a type supported by {@link #isBloomFilterSupported} the way it is added to the Bloom filters.
+     */
+    static long hashBloomFilterValue(Type type, Block block, int position)
+    {
+        if (type instanceof VarcharType) {
+            return BlockedBloomFilter.hashSlice(type.getSlice(block, position));
+        }
+        return BlockedBloomFilter.hashLong(type.getLong(block, position));
+    }
+
+    /**
+     * Reports nothing when the exact values were collected, since the predicate already contains them. Otherwise reports
+     * the Bloom filters that could be collected, which is none when there were too many rows.
+     */
+    private void publishBloomFilters()
+    {
+        if (valueSets != null) {
+            bloomFilterConsumer.accept(Optional.empty());
+            return;
+        }
+        ImmutableMap.Builder<String, BlockedBloomFilter> bloomFiltersBuilder = ImmutableMap.builder();
+        if (bloomFilters != null) {
+            for (Integer channelIndex : bloomFilterChannels) {
+                bloomFiltersBuilder.put(channels.get(channelIndex).getFilterId(), bloomFilters[channelIndex]);
+            }
+            bloomFilters = null;
+        }
+        bloomFilterConsumer.accept(Optional.of(bloomFiltersBuilder.build()));
+    }
+
+    /**
+     * Whether the values of the type can be collected into a {@link BlockedBloomFilter}. Values are hashed
+     * the same way readers see them, i.e. as longs for integral and date types and as bytes for varchar.
+     */
+    public static boolean isBloomFilterSupported(Type type)
+    {
+        return type.equals(BIGINT) || type.equals(INTEGER) || type.equals(SMALLINT) || type.equals(TINYINT) || type.equals(DATE) || type instanceof VarcharType;
+    }
+
     private void updateMinMaxValues(Block block, int channelIndex)
     {
         checkState(minValues != null && maxValues != null);
@@ -358,6 +494,7 @@ public class DynamicFilterSourceOperator
             return;
         }
         finished = true;
+        publishBloomFilters();
         ImmutableMap.Builder<String, Domain> domainsBuilder = ImmutableMap.builder();
         if (valueSets == null) {
             if (minValues == null) {
@@ -31,16 +31,17 @@ import jakarta.annotation.Nullable;
 import java.io.Closeable;
 import java.net.URI;
 import java.util.ArrayList;
-import java.util.Deque;
-import java.util.LinkedList;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
 import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.Executor;
-import java.util.concurrent.LinkedBlockingDeque;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicReference;
 
 import static com.facebook.airlift.units.DataSize.Unit.BYTE;
@@ -89,12 +90,16 @@ public class ExchangeClient
     private final ConcurrentMap<TaskId, URI> taskIdToLocationMap = new ConcurrentHashMap<>();
     private final Set<TaskId> removedRemoteSourceTaskIds = ConcurrentHashMap.newKeySet();
 
+    // insertion ordered, so clients are scheduled in the order they became idle, and requeueing a client is constant time
     @GuardedBy("this")
-    private final Deque<PageBufferClient> queuedClients = new LinkedList<>();
+    private final Set<PageBufferClient> queuedClients = new LinkedHashSet<>();
 
     private final Set<PageBufferClient> completedClients = newConcurrentHashSet();
     private final Set<PageBufferClient> removedClients = newConcurrentHashSet();
-    private final LinkedBlockingDeque<SerializedPage> pageBuffer = new LinkedBlockingDeque<>();
+    // lock free, so the page buffer clients adding pages do not contend with the operator polling them
+    private final ConcurrentLinkedDeque<SerializedPage> pageBuffer = new ConcurrentLinkedDeque<>();
+    // size() of the deque walks every node, so the number of buffered pages is tracked separately
+    private final AtomicInteger bufferedPages = new AtomicInteger();
 
     @GuardedBy("this")
     private final List<SettableFuture<?>> blockedCallers = new ArrayList<>();
@@ -153,11 +158,7 @@ public class ExchangeClient
         }
         List<PageBufferClientStatus> pageBufferClientStatus = pageBufferClientStatusBuilder.build();
         synchronized (this) {
-            int bufferedPages = pageBuffer.size();
-            if (bufferedPages > 0 && pageBuffer.peekLast() == NO_MORE_PAGES) {
-                bufferedPages--;
-            }
-            return new ExchangeClientStatus(bufferRetainedSizeInBytes, maxBufferRetainedSizeInBytes, responseSizeExponentialMovingAverage.get(), successfulRequests, bufferedPages, noMoreLocations, pageBufferClientStatus);
+            return new ExchangeClientStatus(bufferRetainedSizeInBytes, maxBufferRetainedSizeInBytes, responseSizeExponentialMovingAverage.get(), successfulRequests, bufferedPages.get(), noMoreLocations, pageBufferClientStatus);
         }
     }
 
@@ -278,11 +279,16 @@ public class ExchangeClient
         }
 
         synchronized (this) {
+            // close() resets the counter, so the pages polled before it must not be subtracted again
             if (!closed.get()) {
+                bufferedPages.decrementAndGet();
                 bufferRetainedSizeInBytes -= page.getRetainedSizeInBytes();
                 systemMemoryContext.setBytes(bufferRetainedSizeInBytes);
             }
-            scheduleRequestIfNecessary();
+            // with every client either in flight or finished, there is nothing to schedule
+            if (!queuedClients.isEmpty()) {
+                scheduleRequestIfNecessary();
+            }
         }
 
         return page;
@@ -311,6 +317,7 @@ public class ExchangeClient
             closeQuietly(client);
         }
         pageBuffer.clear();
+        bufferedPages.set(0);
         systemMemoryContext.setBytes(0);
         bufferRetainedSizeInBytes = 0;
         if (pageBuffer.peekLast() != NO_MORE_PAGES) {
@@ -348,12 +355,14 @@ public class ExchangeClient
         int pendingClients = allClients.size() - queuedClients.size() - completedClients.size();
         clientCount -= pendingClients;
 
+        Iterator<PageBufferClient> iterator = queuedClients.iterator();
         for (int i = 0; i < clientCount; ) {
-            PageBufferClient client = queuedClients.poll();
-            if (client == null) {
+            if (!iterator.hasNext()) {
                 // no more clients available
                 return;
             }
+            PageBufferClient client = iterator.next();
+            iterator.remove();
 
             if (removedClients.contains(client)) {
                 continue;
@@ -399,6 +408,8 @@ public class ExchangeClient
             }
 
             if (!pages.isEmpty()) {
+                // count the pages before they can be polled, so the counter never drops below zero
+                bufferedPages.addAndGet(pages.size());
                 pageBuffer.addAll(pages);
 
                 bufferRetainedSizeInBytes += pagesRetainedSizeInBytes;
@@ -406,8 +417,10 @@ public class ExchangeClient
                 systemMemoryContext.setBytes(bufferRetainedSizeInBytes);
 
                 // Notify pending listeners that a page has been added
-                notify = ImmutableList.copyOf(blockedCallers);
-                blockedCallers.clear();
+                if (!blockedCallers.isEmpty()) {
+                    notify = ImmutableList.copyOf(blockedCallers);
+                    blockedCallers.clear();
+                }
             }
 
             successfulRequests++;
@@ -423,6 +436,9 @@ public class ExchangeClient
     {
         List<SettableFuture<?>> callers;
         synchronized (this) {
+            if (blockedCallers.isEmpty()) {
+                return;
+            }
             callers = ImmutableList.copyOf(blockedCallers);
             blockedCallers.clear();
         }
@@ -439,9 +455,7 @@ public class ExchangeClient
 
     private synchronized void requestComplete(PageBufferClient client)
     {
-        if (!queuedClients.contains(client)) {
-            queuedClients.add(client);
-        }
+        queuedClients.add(client);
         scheduleRequestIfNecessary();
     }
 
@@ -0,0 +1,581 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.operator;
+
+import com.facebook.presto.common.Page;
+import com.facebook.presto.common.PageBuilder;
+import com.facebook.presto.common.array.LongBigArray;
+import com.facebook.presto.common.block.Block;
+import com.facebook.presto.common.block.BlockBuilder;
+import com.facebook.presto.common.type.AbstractLongType;
+import com.facebook.presto.common.type.Type;
+import com.facebook.presto.operator.scalar.CombineHashFunction;
+import com.facebook.presto.spi.PrestoException;
+import com.facebook.presto.spi.function.aggregation.GroupByIdBlock;
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.ImmutableList;
+import org.openjdk.jol.info.ClassLayout;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import static com.facebook.presto.common.type.BigintType.BIGINT;
+import static com.facebook.presto.common.type.DateType.DATE;
+import static com.facebook.presto.common.type.IntegerType.INTEGER;
+import static com.facebook.presto.spi.StandardErrorCode.GENERIC_INSUFFICIENT_RESOURCES;
+import static com.facebook.presto.sql.planner.PlannerUtils.INITIAL_HASH_VALUE;
+import static com.facebook.presto.type.TypeUtils.NULL_HASH_CODE;
+import static com.facebook.presto.util.HashCollisionsEstimator.estimateNumberOfHashCollisions;
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkState;
+import static com.google.common.collect.ImmutableList.toImmutableList;
+import static io.airlift.slice.SizeOf.sizeOf;
+import static it.unimi.dsi.fastutil.HashCommon.arraySize;
+import static it.unimi.dsi.fastutil.HashCommon.murmurHash3;
+import static java.lang.Math.toIntExact;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Group by hash for two or more BIGINT, INTEGER or DATE key channels.
+ * <p>
+ * Instead of copying keys into block builders and comparing them through a generated
+ * {@link PagesHashStrategy}, every group is stored as a fixed-width row of longs
+ * (a null mask followed by one long per key channel). Incoming pages are decoded
+ * column by column into primitive arrays, and the rows are then probed against the
+ * packed layout with plain long comparisons.
+ * <p>
+ * The raw hash of a row is computed exactly like {@link InterpretedHashGenerator} does,
+ * so the output of this class is interchangeable with {@link MultiChannelGroupByHash}.
+ */
+// This implementation assumes arrays used in the hash are always a power of 2
+public class FixedWidthGroupByHash
+        implements GroupByHash
+{
+    private static final int INSTANCE_SIZE = ClassLayout.parseClass(FixedWidthGroupByHash.class).instanceSize();
+    private static final float FILL_RATIO = 0.75f;
+    private static final List<Type> SUPPORTED_TYPES = ImmutableList.of(BIGINT, INTEGER, DATE);
+
+    private final List<Type> types;
+    private final List<Type> hashTypes;
+    private final int[] channels;
+    private final Optional<Integer> inputHashChannel;
+
+    // each row is a null mask followed by the values of the key channels
+    private final int rowWidth;
+
+    private int hashCapacity;
+    private int maxFill;
+    private int mask;
+    private int[] groupIdsByHash;
+    private byte[] rawHashByHashPosition;
+
+    // packed rows and raw hashes indexed by groupId
+    private final LongBigArray rowsByGroupId;
+    private final LongBigArray rawHashByGroupId;
+
+    private int nextGroupId;
+    private long hashCollisions;
+    private double expectedHashCollisions;
+
+    // reserve enough memory before rehash
+    private final UpdateMemory updateMemory;
+    private long preallocatedMemoryInBytes;
+    private long currentPageSizeInBytes;
+
+    public static boolean isSupportedType(List<? extends Type> hashTypes, int[] hashChannels)
+    {
+        if (hashChannels.length < 2 || hashChannels.length >= Long.SIZE || hashTypes.size() != hashChannels.length) {
+            return false;
+        }
+        return hashTypes.stream().allMatch(SUPPORTED_TYPES::contains);
+    }
+
+    public FixedWidthGroupByHash(
+            List<? extends Type> hashTypes,
+            int[] hashChannels,
+            Optional<Integer> inputHashChannel,
+            int expectedSize,
+            UpdateMemory updateMemory)
+    {
+        this.hashTypes = ImmutableList.copyOf(requireNonNull(hashTypes, "hashTypes is null"));
+        requireNonNull(hashChannels, "hashChannels is null");
+        checkArgument(isSupportedType(hashTypes, hashChannels), "unsupported hash types: %s", hashTypes);
+        checkArgument(expectedSize > 0, "expectedSize must be greater than zero");
+
+        this.inputHashChannel = requireNonNull(inputHashChannel, "inputHashChannel is null");
+        this.types = inputHashChannel.isPresent() ? Stream.concat(this.hashTypes.stream(), Stream.of(BIGINT)).collect(toImmutableList()) : this.hashTypes;
+        this.channels = hashChannels.clone();
+        this.rowWidth = hashChannels.length + 1;
+
+        hashCapacity = arraySize(expectedSize, FILL_RATIO);
+
+        maxFill = calculateMaxFill(hashCapacity);
+        mask = hashCapacity - 1;
+        groupIdsByHash = new int[hashCapacity];
+        Arrays.fill(groupIdsByHash, -1);
+        rawHashByHashPosition = new byte[hashCapacity];
+
+        rowsByGroupId = new LongBigArray();
+        rowsByGroupId.ensureCapacity((long) maxFill * rowWidth);
+        rawHashByGroupId = new LongBigArray();
+        rawHashByGroupId.ensureCapacity(maxFill);
+
+        // This interface is used for actively reserving memory (push model) for rehash.
+        // The caller can also query memory usage on this object (pull model)
+        this.updateMemory = requireNonNull(updateMemory, "updateMemory is null");
+    }
+
+    @Override
+    public long getEstimatedSize()
+    {
+        return INSTANCE_SIZE +
+                sizeOf(groupIdsByHash) +
+                sizeOf(rawHashByHashPosition) +
+                rowsByGroupId.sizeOf() +
+                rawHashByGroupId.sizeOf() +
+                preallocatedMemoryInBytes;
+    }
+
+    @Override
+    public long getHashCollisions()
+    {
+        return hashCollisions;
+    }
+
+    @Override
+    public double getExpectedHashCollisions()
+    {
+        return expectedHashCollisions + estimateNumberOfHashCollisions(getGroupCount(), hashCapacity);
+    }
+
+    @Override
+    public List<Type> getTypes()
+    {
+        return types;
+    }
+
+    @Override
+    public int getGroupCount()
+    {
+        return nextGroupId;
+    }
+
+    @Override
+    public void appendValuesTo(int groupId, PageBuilder pageBuilder, int outputChannelOffset)
+    {
+        checkArgument(groupId >= 0, "groupId is negative");
+        appendKeysTo(groupId, pageBuilder, outputChannelOffset);
+        if (inputHashChannel.isPresent()) {
+            BIGINT.writeLong(pageBuilder.getBlockBuilder(outputChannelOffset + channels.length), rawHashByGroupId.get(groupId));
+        }
+    }
+
+    private void appendKeysTo(int groupId, PageBuilder pageBuilder, int outputChannelOffset)
+    {
+        long rowOffset = (long) groupId * rowWidth;
+        long nullMask = rowsByGroupId.get(rowOffset);
+        for (int i = 0; i < channels.length; i++) {
+            BlockBuilder blockBuilder = pageBuilder.getBlockBuilder(outputChannelOffset + i);
+            if ((nullMask & (1L << i)) != 0) {
+                blockBuilder.appendNull();
+            }
+            else {
+                hashTypes.get(i).writeLong(blockBuilder, rowsByGroupId.get(rowOffset + 1 + i));
+            }
+        }
+    }
+
+    @Override
+    public Work<?> addPage(Page page)
+    {
+        currentPageSizeInBytes = page.getRetainedSizeInBytes();
+        return new AddPageWork(new PageBatch(page));
+    }
+
+    @Override
+    public List<Page> getBufferedPages()
+    {
+        PageBuilder pageBuilder = new PageBuilder(hashTypes);
+        ImmutableList.Builder<Page> pages = ImmutableList.builder();
+        for (int groupId = 0; groupId < nextGroupId; groupId++) {
+            pageBuilder.declarePosition();
+            appendKeysTo(groupId, pageBuilder, 0);
+            if (pageBuilder.isFull()) {
+                pages.add(pageBuilder.build());
+                pageBuilder.reset();
+            }
+        }
+        if (!pageBuilder.isEmpty()) {
+            pages.add(pageBuilder.build());
+        }
+        return pages.build();
+    }
+
+    @Override
+    public Work<GroupByIdBlock> getGroupIds(Page page)
+    {
+        currentPageSizeInBytes = page.getRetainedSizeInBytes();
+        return new GetGroupIdsWork(new PageBatch(page));
+    }
+
+    @Override
+    public boolean contains(int position, Page page, int[] hashChannels)
+    {
+        long rawHash = INITIAL_HASH_VALUE;
+        for (int i = 0; i < hashChannels.length; i++) {
+            Block block = page.getBlock(hashChannels[i]);
+            long valueHash = block.isNull(position) ? NULL_HASH_CODE : AbstractLongType.hash(hashTypes.get(i).getLong(block, position));
+            rawHash = CombineHashFunction.getHash(rawHash, valueHash);
+        }
+        return contains(position, page, hashChannels, rawHash);
+    }
+
+    @Override
+    public boolean contains(int position, Page page, int[] hashChannels, long rawHash)
+    {
+        int hashPosition = (int) getHashPosition(rawHash, mask);
+
+        // look for a slot containing this key
+        while (groupIdsByHash[hashPosition] != -1) {
+            if (rawHashByHashPosition[hashPosition] == (byte) rawHash && rowEqualsPosition(groupIdsByHash[hashPosition], position, page, hashChannels)) {
+                // found an existing slot for this key
+                return true;
+            }
+            // increment position and mask to handle wrap around
+            hashPosition = (hashPosition + 1) & mask;
+        }
+
+        return false;
+    }
+
+    @Override
+    public long getRawHash(int groupId)
+    {
+        return rawHashByGroupId.get(groupId);
+    }
+
+    @VisibleForTesting
+    @Override
+    public int getCapacity()
+    {
+        return hashCapacity;
+    }
+
+    private int putIfAbsent(PageBatch batch, int position)
+    {
+        long rawHash = batch.rawHashes[position];
+        int hashPosition = (int) getHashPosition(rawHash, mask);
+
+        // look for an empty slot or a slot containing this key
+        while (groupIdsByHash[hashPosition] != -1) {
+            int groupId = groupIdsByHash[hashPosition];
+            if (rawHashByHashPosition[hashPosition] == (byte) rawHash && rowEqualsBatchPosition(groupId, batch, position)) {
+                // found an existing slot for this key
+                return groupId;
+            }
+            // increment position and mask to handle wrap around
+            hashPosition = (hashPosition + 1) & mask;
+            hashCollisions++;
+        }
+
+        return addNewGroup(hashPosition, batch, position);
+    }
+
+    private int addNewGroup(int hashPosition, PageBatch batch, int position)
+    {
+        // record group id in hash
+        int groupId = nextGroupId++;
+        long rawHash = batch.rawHashes[position];
+
+        long rowOffset = (long) groupId * rowWidth;
+        rowsByGroupId.set(rowOffset, batch.nullMasks[position]);
+        for (int i = 0; i < channels.length; i++) {
+            rowsByGroupId.set(rowOffset + 1 + i, batch.values[i][position]);
+        }
+        rawHashByGroupId.set(groupId, rawHash);
+
+        groupIdsByHash[hashPosition] = groupId;
+        rawHashByHashPosition[hashPosition] = (byte) rawHash;
+
+        // increase capacity, if necessary
+        if (needRehash()) {
+            tryRehash();
+        }
+        return groupId;
+    }
+
+    private boolean rowEqualsBatchPosition(int groupId, PageBatch batch, int position)
+    {
+        long rowOffset = (long) groupId * rowWidth;
+        if (rowsByGroupId.get(rowOffset) != batch.nullMasks[position]) {
+            return false;
+        }
+        for (int i = 0; i < channels.length; i++) {
+            if (rowsByGroupId.get(rowOffset + 1 + i) != batch.values[i][position]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean rowEqualsPosition(int groupId, int position, Page page, int[] hashChannels)
+    {
+        long rowOffset = (long) groupId * rowWidth;
+        long nullMask = rowsByGroupId.get(rowOffset);
+        for (int i = 0; i < hashChannels.length; i++) {
+            Block block = page.getBlock(hashChannels[i]);
+            boolean rowIsNull = (nullMask & (1L << i)) != 0;
+            if (block.isNull(position)) {
+                if (!rowIsNull) {
+                    return false;
+                }
+            }
+            else if (rowIsNull || rowsByGroupId.get(rowOffset + 1 + i) != hashTypes.get(i).getLong(block, position)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean needRehash()
+    {
+        return nextGroupId >= maxFill;
+    }
+
+    private boolean tryRehash()
+    {
+        long newCapacityLong = hashCapacity * 2L;
+        if (newCapacityLong > Integer.MAX_VALUE) {
+            throw new PrestoException(GENERIC_INSUFFICIENT_RESOURCES, "Size of hash table cannot exceed 1 billion entries");
+        }
+        int newCapacity = toIntExact(newCapacityLong);
+        int newMaxFill = calculateMaxFill(newCapacity);
+
+        // An estimate of how much extra memory is needed before we can go ahead and expand the hash table.
+        // This includes the new capacity for groupIdsByHash and rawHashByHashPosition, the growth of the packed rows
+        // and raw hashes by groupId, as well as the size of the current page
+        preallocatedMemoryInBytes = newCapacity * (long) (Integer.BYTES + Byte.BYTES) +
+                (newMaxFill - maxFill) * (long) (rowWidth + 1) * Long.BYTES +
+                currentPageSizeInBytes;
+        if (!updateMemory.update()) {
+            // reserved memory but has exceeded the limit
+            return false;
+        }
+
+        expectedHashCollisions += estimateNumberOfHashCollisions(getGroupCount(), hashCapacity);
+
+        int newMask = newCapacity - 1;
+        int[] newGroupIds = new int[newCapacity];
+        Arrays.fill(newGroupIds, -1);
+        byte[] newRawHashes = new byte[newCapacity];
+
+        for (int groupId = 0; groupId < nextGroupId; groupId++) {
+            long rawHash = rawHashByGroupId.get(groupId);
+
+            // find an empty slot for the group
+            int hashPosition = (int) getHashPosition(rawHash, newMask);
+            while (newGroupIds[hashPosition] != -1) {
+                hashPosition = (hashPosition + 1) & newMask;
+                hashCollisions++;
+            }
+
+            // record the mapping
+            newGroupIds[hashPosition] = groupId;
+            newRawHashes[hashPosition] = (byte) rawHash;
+        }
+
+        this.mask = newMask;
+        this.hashCapacity = newCapacity;
+        this.maxFill = newMaxFill;
+        this.groupIdsByHash = newGroupIds;
+        this.rawHashByHashPosition = newRawHashes;
+        rowsByGroupId.ensureCapacity((long) maxFill * rowWidth);
+        rawHashByGroupId.ensureCapacity(maxFill);
+
+        preallocatedMemoryInBytes = 0;
+        // release temporary memory reservation
+        updateMemory.update();
+        return true;
+    }
+
+    private static long getHashPosition(long rawHash, int mask)
+    {
+        return murmurHash3(rawHash) & mask;
+    }
+
+    private static int calculateMaxFill(int hashSize)
+    {
+        checkArgument(hashSize > 0, "hashSize must be greater than 0");
+        int maxFill = (int) Math.ceil(hashSize * FILL_RATIO);
+        if (maxFill == hashSize) {
+            maxFill--;
+        }
+        checkArgument(hashSize > maxFill, "hashSize must be larger than maxFill");
+        return maxFill;
+    }
+
+    /**
+     * Key columns of a page decoded into primitive arrays, one loop per column,
+     * together with the null mask and raw hash of every position.
+     */
+    private final class PageBatch
+    {
+        private final int positionCount;
+        private final long[][] values;
+        private final long[] nullMasks;
+        private final long[] rawHashes;
+
+        private PageBatch(Page page)
+        {
+            requireNonNull(page, "page is null");
+            this.positionCount = page.getPositionCount();
+            this.values = new long[channels.length][positionCount];
+            this.nullMasks = new long[positionCount];
+            this.rawHashes = new long[positionCount];
+
+            for (int i = 0; i < channels.length; i++) {
+                Type type = hashTypes.get(i);
+                Block block = page.getBlock(channels[i]);
+                long[] columnValues = values[i];
+                if (block.mayHaveNull()) {
+                    long nullBit = 1L << i;
+                    for (int position = 0; position < positionCount; position++) {
+                        if (block.isNull(position)) {
+                            nullMasks[position] |= nullBit;
+                        }
+                        else {
+                            columnValues[position] = type.getLong(block, position);
+                        }
+                    }
+                }
+                else {
+                    for (int position = 0; position < positionCount; position++) {
+                        columnValues[position] = type.getLong(block, position);
+                    }
+                }
+            }
+
+            if (inputHashChannel.isPresent()) {
+                Block hashBlock = page.getBlock(inputHashChannel.get());
+                for (int position = 0; position < positionCount; position++) {
+                    rawHashes[position] = BIGINT.getLong(hashBlock, position);
+                }
+                return;
+            }
+
+            // must logically match InterpretedHashGenerator.hashPosition
+            Arrays.fill(rawHashes, INITIAL_HASH_VALUE);
+            for (int i = 0; i < channels.length; i++) {
+                long[] columnValues = values[i];
+                long nullBit = 1L << i;
+                for (int position = 0; position < positionCount; position++) {
+                    long valueHash = (nullMasks[position] & nullBit) != 0 ? NULL_HASH_CODE : AbstractLongType.hash(columnValues[position]);
+                    rawHashes[position] = CombineHashFunction.getHash(rawHashes[position], valueHash);
+                }
+            }
+        }
+    }
+
+    private class AddPageWork
+            implements Work<Void>
+    {
+        private final PageBatch batch;
+
+        private int lastPosition;
+
+        public AddPageWork(PageBatch batch)
+        {
+            this.batch = requireNonNull(batch, "batch is null");
+        }
+
+        @Override
+        public boolean process()
+        {
+            int positionCount = batch.positionCount;
+            checkState(lastPosition <= positionCount, "position count out of bound");
+
+            // needRehash() == true indicates we have reached capacity boundary and a rehash is needed.
+            // We can only proceed if tryRehash() successfully did a rehash.
+            if (needRehash() && !tryRehash()) {
+                return false;
+            }
+
+            // putIfAbsent will rehash automatically if rehash is needed, unless there isn't enough memory to do so.
+            // Therefore needRehash will not generally return true even if we have just crossed the capacity boundary.
+            while (lastPosition < positionCount && !needRehash()) {
+                // get the group for the current row
+                putIfAbsent(batch, lastPosition);
+                lastPosition++;
+            }
+            return lastPosition == positionCount;
+        }
+
+        @Override
+        public Void getResult()
+        {
+            throw new UnsupportedOperationException();
+        }
+    }
+
+    private class GetGroupIdsWork
+            implements Work<GroupByIdBlock>
+    {
+        private final BlockBuilder blockBuilder;
+        private final PageBatch batch;
+
+        private boolean finished;
+        private int lastPosition;
+
+        public GetGroupIdsWork(PageBatch batch)
+        {
+            this.batch = requireNonNull(batch, "batch is null");
+            // we know the exact size required for the block
+            this.blockBuilder = BIGINT.createFixedSizeBlockBuilder(batch.positionCount);
+        }
+
+        @Override
+        public boolean process()
+        {
+            int positionCount = batch.positionCount;
+            checkState(lastPosition <= positionCount, "position count out of bound");
+            checkState(!finished);
+
+            // needRehash() == true indicates we have reached capacity boundary and a rehash is needed.
+            // We can only proceed if tryRehash() successfully did a rehash.
+            if (needRehash() && !tryRehash()) {
+                return false;
+            }
+
+            // putIfAbsent will rehash automatically if rehash is needed, unless there isn't enough memory to do so.
+            // Therefore needRehash will not generally return true even if we have just crossed the capacity boundary.
+            while (lastPosition < positionCount && !needRehash()) {
+                // output the group id for this row
+                BIGINT.writeLong(blockBuilder, putIfAbsent(batch, lastPosition));
+                lastPosition++;
+            }
+            return lastPosition == positionCount;
+        }
+
+        @Override
+        public GroupByIdBlock getResult()
+        {
+            checkState(lastPosition == batch.positionCount, "process has not yet finished");
+            checkState(!finished, "result has produced");
+            finished = true;
+            return new GroupByIdBlock(nextGroupId, blockBuilder.build());
+        }
+    }
+}
@@ -91,6 +91,15 @@ public final class JoinHash
         return startJoinPosition(addressIndex, position, allChannelsPage);
     }
 
+    @Override
+    public void getJoinPositions(int[] positions, int positionCount, Page hashChannelsPage, Page allChannelsPage, @Nullable long[] rawHashes, long[] joinPositions)
+    {
+        pagesHash.getAddressIndexes(positions, positionCount, hashChannelsPage, rawHashes, joinPositions);
+        for (int i = 0; i < positionCount; i++) {
+            joinPositions[i] = startJoinPosition((int) joinPositions[i], positions[i], allChannelsPage);
+        }
+    }
+
     private long startJoinPosition(int currentJoinPosition, int probePosition, Page allProbeChannelsPage)
     {
         if (currentJoinPosition == -1) {
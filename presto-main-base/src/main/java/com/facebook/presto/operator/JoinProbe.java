@@ -18,10 +18,12 @@ import com.facebook.presto.common.block.Block;
 import com.google.common.primitives.Ints;
 import jakarta.annotation.Nullable;
 
+import java.util.Arrays;
 import java.util.List;
 import java.util.OptionalInt;
 
 import static com.facebook.presto.common.type.BigintType.BIGINT;
+import static com.google.common.base.Preconditions.checkState;
 
 public class JoinProbe
 {
@@ -56,6 +58,12 @@ public class JoinProbe
     private int position = -1;
     private int nullRowCount;
 
+    // join positions of the rows from the first lookup onwards, looked up as a batch in the lookup source they belong to
+    @Nullable
+    private long[] joinPositions;
+    @Nullable
+    private LookupSource joinPositionsLookupSource;
+
     private JoinProbe(int[] probeOutputChannels, Page page, Page probePage, @Nullable Block probeHashBlock)
     {
         this.probeOutputChannels = probeOutputChannels;
@@ -78,15 +86,67 @@ public class JoinProbe
 
     public long getCurrentJoinPosition(LookupSource lookupSource)
     {
-        if (probeMayHaveNull && currentRowContainsNull()) {
+        if (probeMayHaveNull && rowContainsNull(position)) {
             ++nullRowCount;
             return -1;
         }
+        if (joinPositionsLookupSource != lookupSource) {
+            lookupJoinPositions(lookupSource, position);
+        }
+        return joinPositions[position];
+    }
+
+    /**
+     * Returns the positions of the rows that have at least one match in the lookup source, not
+     * taking the join filter into account. Must be called before the probe is advanced.
+     */
+    public int[] getMatchingPositions(LookupSource lookupSource)
+    {
+        checkState(position == -1, "probe has already been advanced");
+        if (positionCount == 0) {
+            return new int[0];
+        }
+        lookupJoinPositions(lookupSource, 0);
+
+        int[] matchingPositions = new int[positionCount];
+        int count = 0;
+        for (int i = 0; i < positionCount; i++) {
+            if (probeMayHaveNull && rowContainsNull(i)) {
+                ++nullRowCount;
+            }
+            else if (joinPositions[i] >= 0) {
+                matchingPositions[count++] = i;
+            }
+        }
+        return Arrays.copyOf(matchingPositions, count);
+    }
+
+    private void lookupJoinPositions(LookupSource lookupSource, int startPosition)
+    {
+        int[] positions = new int[positionCount - startPosition];
+        int count = 0;
+        for (int i = startPosition; i < positionCount; i++) {
+            if (!probeMayHaveNull || !rowContainsNull(i)) {
+                positions[count++] = i;
+            }
+        }
+
+        long[] rawHashes = null;
         if (probeHashBlock != null) {
-            long rawHash = BIGINT.getLong(probeHashBlock, position);
-            return lookupSource.getJoinPosition(position, probePage, page, rawHash);
+            rawHashes = new long[count];
+            for (int i = 0; i < count; i++) {
+                rawHashes[i] = BIGINT.getLong(probeHashBlock, positions[i]);
+            }
+        }
+
+        long[] batchJoinPositions = new long[count];
+        lookupSource.getJoinPositions(positions, count, probePage, page, rawHashes, batchJoinPositions);
+
+        joinPositions = new long[positionCount];
+        for (int i = 0; i < count; i++) {
+            joinPositions[positions[i]] = batchJoinPositions[i];
         }
-        return lookupSource.getJoinPosition(position, probePage, page);
+        joinPositionsLookupSource = lookupSource;
     }
 
     public int getPosition()
@@ -99,7 +159,7 @@ public class JoinProbe
         return page;
     }
 
-    private boolean currentRowContainsNull()
+    private boolean rowContainsNull(int position)
     {
         for (int i = 0; i < probePage.getChannelCount(); i++) {
             if (probePage.getBlock(i).isNull(position)) {
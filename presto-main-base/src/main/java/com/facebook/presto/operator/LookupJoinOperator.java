@@ -14,6 +14,8 @@
 package com.facebook.presto.operator;
 
 import com.facebook.presto.common.Page;
+import com.facebook.presto.common.block.Block;
+import com.facebook.presto.common.block.LazyBlock;
 import com.facebook.presto.common.type.Type;
 import com.facebook.presto.operator.JoinProbe.JoinProbeFactory;
 import com.facebook.presto.operator.LookupJoinOperators.JoinType;
@@ -40,6 +42,7 @@ import java.util.function.Supplier;
 
 import static com.facebook.airlift.concurrent.MoreFutures.addSuccessCallback;
 import static com.facebook.airlift.concurrent.MoreFutures.getDone;
+import static com.facebook.presto.SystemSessionProperties.isJoinLateMaterializationEnabled;
 import static com.facebook.presto.operator.LookupJoinOperators.JoinType.FULL_OUTER;
 import static com.facebook.presto.operator.LookupJoinOperators.JoinType.PROBE_OUTER;
 import static com.facebook.presto.operator.SpillingUtils.checkSpillSucceeded;
@@ -66,6 +69,7 @@ public class LookupJoinOperator
     private final LookupJoinPageBuilder pageBuilder;
 
     private final boolean probeOnOuterSide;
+    private final boolean lateMaterializationEnabled;
 
     private final ListenableFuture<LookupSourceProvider> lookupSourceProviderFuture;
     private LookupSourceProvider lookupSourceProvider;
@@ -117,6 +121,8 @@ public class LookupJoinOperator
         requireNonNull(joinType, "joinType is null");
         // Cannot use switch case here, because javac will synthesize an inner class and cause IllegalAccessError
         probeOnOuterSide = joinType == PROBE_OUTER || joinType == FULL_OUTER;
+        // rows without a match are only dropped when the probe is not on the outer side
+        lateMaterializationEnabled = !probeOnOuterSide && isJoinLateMaterializationEnabled(operatorContext.getSession());
 
         this.joinProbeFactory = requireNonNull(joinProbeFactory, "joinProbeFactory is null");
         this.afterClose = requireNonNull(afterClose, "afterClose is null");
@@ -230,6 +236,12 @@ public class LookupJoinOperator
                 return;
             }
         }
+        else if (lateMaterializationEnabled && hasSelectivelyLoadableBlock(page)) {
+            page = removeUnmatchedRows(page);
+            if (page.getPositionCount() == 0) {
+                return;
+            }
+        }
 
         // create probe
         inputPageSpillEpoch = spillInfoSnapshot.getSpillEpoch();
@@ -239,6 +251,51 @@ public class LookupJoinOperator
         joinPosition = -1;
     }
 
+    /**
+     * Drops the rows that have no match before any column other than the join keys is read, so the
+     * selectively loadable columns are only decoded for rows that can be part of the output.
+     */
+    private Page removeUnmatchedRows(Page page)
+    {
+        JoinProbe matchingProbe = joinProbeFactory.createJoinProbe(page);
+        int[] matchingPositions = lookupSourceProvider.withLease(lookupSourceLease -> matchingProbe.getMatchingPositions(lookupSourceLease.getLookupSource()));
+        int matchingPositionCount = matchingPositions.length;
+        int unmatchedPositionCount = page.getPositionCount() - matchingPositionCount;
+        if (unmatchedPositionCount == 0) {
+            return page;
+        }
+
+        // the matching rows are counted when the pruned page is probed
+        nullProbeRowCount += matchingProbe.getNullRowCount();
+        inputProbeRowCount += unmatchedPositionCount;
+        for (int i = 0; i < unmatchedPositionCount; i++) {
+            statisticsCounter.recordProbe(0);
+        }
+
+        Block[] blocks = new Block[page.getChannelCount()];
+        for (int channel = 0; channel < blocks.length; channel++) {
+            Block block = page.getBlock(channel);
+            if (block instanceof LazyBlock && !((LazyBlock) block).isLoaded()) {
+                blocks[channel] = ((LazyBlock) block).getPositionsLazily(matchingPositions, 0, matchingPositionCount);
+            }
+            else {
+                blocks[channel] = block.getPositions(matchingPositions, 0, matchingPositionCount);
+            }
+        }
+        return new Page(matchingPositionCount, blocks);
+    }
+
+    private static boolean hasSelectivelyLoadableBlock(Page page)
+    {
+        for (int channel = 0; channel < page.getChannelCount(); channel++) {
+            Block block = page.getBlock(channel);
+            if (block instanceof LazyBlock && ((LazyBlock) block).isSelectivelyLoadable()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     private boolean tryFetchLookupSourceProvider()
     {
         if (lookupSourceProvider == null) {
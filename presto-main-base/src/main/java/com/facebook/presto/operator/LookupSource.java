@@ -16,6 +16,7 @@ package com.facebook.presto.operator;
 import com.facebook.airlift.concurrent.NotThreadSafe;
 import com.facebook.presto.common.Page;
 import com.facebook.presto.common.PageBuilder;
+import jakarta.annotation.Nullable;
 
 import java.io.Closeable;
 
@@ -35,6 +36,24 @@ public interface LookupSource
 
     long getJoinPosition(int position, Page hashChannelsPage, Page allChannelsPage);
 
+    /**
+     * Looks up the first join position of each of the first {@code positionCount} probe rows in {@code positions}
+     * and stores it, or -1 if the row has no match, at the same index of {@code joinPositions}.
+     *
+     * @param rawHashes the hashes of the probe rows at the same indexes as {@code positions}, or null if they are not precomputed
+     */
+    default void getJoinPositions(int[] positions, int positionCount, Page hashChannelsPage, Page allChannelsPage, @Nullable long[] rawHashes, long[] joinPositions)
+    {
+        for (int i = 0; i < positionCount; i++) {
+            if (rawHashes == null) {
+                joinPositions[i] = getJoinPosition(positions[i], hashChannelsPage, allChannelsPage);
+            }
+            else {
+                joinPositions[i] = getJoinPosition(positions[i], hashChannelsPage, allChannelsPage, rawHashes[i]);
+            }
+        }
+    }
+
     long getNextJoinPosition(long currentJoinPosition, int probePosition, Page allProbeChannelsPage);
 
     void appendTo(long position, PageBuilder pageBuilder, int outputChannelOffset);
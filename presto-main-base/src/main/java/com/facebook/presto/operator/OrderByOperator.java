@@ -222,7 +222,7 @@ public class OrderByOperator
                 }
             }
 
-            pageIndex.sort(sortChannels, sortOrder);
+            pageIndex.sort(sortChannels, sortOrder, localUserMemoryContext);
             Iterator<Page> sortedPagesIndex = pageIndex.getSortedPages();
 
             List<WorkProcessor<Page>> spilledPages = getSpilledPages();
@@ -310,7 +310,7 @@ public class OrderByOperator
                     operatorContext.aggregateSystemMemoryContext()));
         }
 
-        pageIndex.sort(sortChannels, sortOrder);
+        pageIndex.sort(sortChannels, sortOrder, localUserMemoryContext);
         spillInProgress = spiller.get().spill(pageIndex.getSortedPages());
         finishMemoryRevoke = () -> {
             pageIndex.clear();
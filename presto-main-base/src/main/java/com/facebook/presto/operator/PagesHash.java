@@ -18,6 +18,7 @@ import com.facebook.presto.common.Page;
 import com.facebook.presto.common.PageBuilder;
 import com.facebook.presto.common.array.AdaptiveLongBigArray;
 import it.unimi.dsi.fastutil.HashCommon;
+import jakarta.annotation.Nullable;
 import org.openjdk.jol.info.ClassLayout;
 
 import java.util.Arrays;
@@ -180,6 +181,35 @@ public final class PagesHash
         return -1;
     }
 
+    /**
+     * Batch version of {@link #getAddressIndex(int, Page, long)} for the first {@code positionCount} rows in {@code positions},
+     * which stores the address indexes at the same indexes of {@code addressIndexes}.
+     */
+    public void getAddressIndexes(int[] positions, int positionCount, Page hashChannelsPage, @Nullable long[] rawHashes, long[] addressIndexes)
+    {
+        long[] hashes = rawHashes;
+        if (hashes == null) {
+            hashes = new long[positionCount];
+            for (int i = 0; i < positionCount; i++) {
+                hashes[i] = pagesHashStrategy.hashRow(positions[i], hashChannelsPage);
+            }
+        }
+
+        // Load the first slot of every row before comparing any values, so that the
+        // cache misses of the random accesses to the hash table overlap with each other.
+        for (int i = 0; i < positionCount; i++) {
+            addressIndexes[i] = key[getHashPosition(hashes[i], mask)];
+        }
+
+        for (int i = 0; i < positionCount; i++) {
+            int addressIndex = (int) addressIndexes[i];
+            if (addressIndex != -1 && !positionEqualsCurrentRowIgnoreNulls(addressIndex, (byte) hashes[i], positions[i], hashChannelsPage)) {
+                // the first slot holds a different key, so keep probing
+                addressIndexes[i] = getAddressIndex(positions[i], hashChannelsPage, hashes[i]);
+            }
+        }
+    }
+
     public void appendTo(long position, PageBuilder pageBuilder, int outputChannelOffset)
     {
         long pageAddress = addresses.get(toIntExact(position));
@@ -86,6 +86,7 @@ public class PagesIndex
     private final AdaptiveLongBigArray valueAddresses;
     private final ObjectArrayList<Block>[] channels;
     private final boolean eagerCompact;
+    private final boolean normalizedKeySort;
 
     private int nextBlockToCompact;
     private int positionCount;
@@ -98,7 +99,8 @@ public class PagesIndex
             FunctionAndTypeManager functionAndTypeManager,
             List<Type> types,
             int expectedPositions,
-            boolean eagerCompact)
+            boolean eagerCompact,
+            boolean normalizedKeySort)
     {
         this.orderingCompiler = requireNonNull(orderingCompiler, "orderingCompiler is null");
         this.joinCompiler = requireNonNull(joinCompiler, "joinCompiler is null");
@@ -107,6 +109,7 @@ public class PagesIndex
         this.valueAddresses = new AdaptiveLongBigArray();
         this.valueAddresses.ensureCapacity(expectedPositions);
         this.eagerCompact = eagerCompact;
+        this.normalizedKeySort = normalizedKeySort;
 
         //noinspection rawtypes
         channels = (ObjectArrayList<Block>[]) new ObjectArrayList[types.size()];
@@ -128,16 +131,23 @@ public class PagesIndex
         private static final OrderingCompiler ORDERING_COMPILER = new OrderingCompiler();
         private static final JoinCompiler JOIN_COMPILER = new JoinCompiler(MetadataManager.createTestMetadataManager());
         private final boolean eagerCompact;
+        private final boolean normalizedKeySort;
 
         public TestingFactory(boolean eagerCompact)
+        {
+            this(eagerCompact, false);
+        }
+
+        public TestingFactory(boolean eagerCompact, boolean normalizedKeySort)
         {
             this.eagerCompact = eagerCompact;
+            this.normalizedKeySort = normalizedKeySort;
         }
 
         @Override
         public PagesIndex newPagesIndex(List<Type> types, int expectedPositions)
         {
-            return new PagesIndex(ORDERING_COMPILER, JOIN_COMPILER, MetadataManager.createTestMetadataManager().getFunctionAndTypeManager(), types, expectedPositions, eagerCompact);
+            return new PagesIndex(ORDERING_COMPILER, JOIN_COMPILER, MetadataManager.createTestMetadataManager().getFunctionAndTypeManager(), types, expectedPositions, eagerCompact, normalizedKeySort);
         }
     }
 
@@ -147,6 +157,7 @@ public class PagesIndex
         private final OrderingCompiler orderingCompiler;
         private final JoinCompiler joinCompiler;
         private final boolean eagerCompact;
+        private final boolean normalizedKeySort;
         private final FunctionAndTypeManager functionAndTypeManager;
 
         @Inject
@@ -155,13 +166,14 @@ public class PagesIndex
             this.orderingCompiler = requireNonNull(orderingCompiler, "orderingCompiler is null");
             this.joinCompiler = requireNonNull(joinCompiler, "joinCompiler is null");
             this.eagerCompact = requireNonNull(featuresConfig, "featuresConfig is null").isPagesIndexEagerCompactionEnabled();
+            this.normalizedKeySort = featuresConfig.isPagesIndexNormalizedKeySortEnabled();
             this.functionAndTypeManager = requireNonNull(metadata, "metadata is null").getFunctionAndTypeManager();
         }
 
         @Override
         public PagesIndex newPagesIndex(List<Type> types, int expectedPositions)
         {
-            return new PagesIndex(orderingCompiler, joinCompiler, functionAndTypeManager, types, expectedPositions, eagerCompact);
+            return new PagesIndex(orderingCompiler, joinCompiler, functionAndTypeManager, types, expectedPositions, eagerCompact, normalizedKeySort);
         }
     }
 
@@ -378,6 +390,31 @@ public class PagesIndex
         createPagesIndexComparator(sortChannels, sortOrders).sort(this, startPosition, endPosition);
     }
 
+    /**
+     * Sorts the index like {@link #sort(List, List)}. The buffers of the normalized key sort are
+     * reserved in {@code sortMemoryContext}, and the comparator is used if the reservation fails.
+     */
+    public void sort(List<Integer> sortChannels, List<SortOrder> sortOrders, LocalMemoryContext sortMemoryContext)
+    {
+        sort(sortChannels, sortOrders, 0, getPositionCount(), sortMemoryContext);
+    }
+
+    public void sort(List<Integer> sortChannels, List<SortOrder> sortOrders, int startPosition, int endPosition, LocalMemoryContext sortMemoryContext)
+    {
+        requireNonNull(sortMemoryContext, "sortMemoryContext is null");
+        if (normalizedKeySort && PagesIndexNormalizedKeySorter.canSort(types, sortChannels, endPosition - startPosition)) {
+            // the compiled comparator is only needed to break ties on channels that cannot be normalized
+            Optional<PagesIndexOrdering> tieBreakOrdering = Optional.empty();
+            if (PagesIndexNormalizedKeySorter.getNormalizedKeyCount(types, sortChannels) < sortChannels.size()) {
+                tieBreakOrdering = Optional.of(createPagesIndexComparator(sortChannels, sortOrders));
+            }
+            if (PagesIndexNormalizedKeySorter.sort(this, sortChannels, sortOrders, startPosition, endPosition, tieBreakOrdering, sortMemoryContext)) {
+                return;
+            }
+        }
+        sort(sortChannels, sortOrders, startPosition, endPosition);
+    }
+
     public boolean positionEqualsPosition(PagesHashStrategy partitionHashStrategy, int leftPosition, int rightPosition)
     {
         long leftAddress = valueAddresses.get(leftPosition);
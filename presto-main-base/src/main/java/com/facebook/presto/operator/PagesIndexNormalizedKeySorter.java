@@ -0,0 +1,231 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.operator;
+
+import com.facebook.presto.common.array.AdaptiveLongBigArray;
+import com.facebook.presto.common.block.Block;
+import com.facebook.presto.common.block.SortOrder;
+import com.facebook.presto.common.type.Type;
+import com.facebook.presto.memory.context.LocalMemoryContext;
+import com.google.common.collect.ImmutableSet;
+import it.unimi.dsi.fastutil.objects.ObjectArrayList;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import static com.facebook.presto.common.type.BigintType.BIGINT;
+import static com.facebook.presto.common.type.DateType.DATE;
+import static com.facebook.presto.common.type.IntegerType.INTEGER;
+import static com.facebook.presto.common.type.SmallintType.SMALLINT;
+import static com.facebook.presto.common.type.TinyintType.TINYINT;
+import static com.facebook.presto.operator.SyntheticAddress.decodePosition;
+import static com.facebook.presto.operator.SyntheticAddress.decodeSliceIndex;
+import static com.google.common.base.Preconditions.checkArgument;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Sorts a range of a {@link PagesIndex} on a contiguous buffer of normalized keys.
+ * <p>
+ * The leading sort channels with an integral representation are copied into a single
+ * {@code long[]}, one fixed-width row per position (a null mask followed by one long per key),
+ * with descending keys stored bitwise inverted so that every key compares as a plain signed long.
+ * The rows and their synthetic addresses are sorted together without touching any {@link Block},
+ * and the sorted addresses are written back to the index. Runs of rows with equal normalized keys
+ * are then sorted with the compiled ordering when there are sort channels that could not be normalized.
+ */
+final class PagesIndexNormalizedKeySorter
+{
+    // some VMs reserve header words in an array
+    private static final int MAX_ARRAY_SIZE = Integer.MAX_VALUE - 8;
+    private static final Set<Type> NORMALIZABLE_TYPES = ImmutableSet.of(BIGINT, INTEGER, SMALLINT, TINYINT, DATE);
+
+    private final int keyCount;
+    private final int rowWidth;
+    private final boolean[] nullsFirst;
+
+    private long[] keys;
+    private long[] addresses;
+
+    private PagesIndexNormalizedKeySorter(List<SortOrder> sortOrders, int keyCount)
+    {
+        this.keyCount = keyCount;
+        this.rowWidth = keyCount + 1;
+        this.nullsFirst = new boolean[keyCount];
+        for (int i = 0; i < keyCount; i++) {
+            nullsFirst[i] = sortOrders.get(i).isNullsFirst();
+        }
+    }
+
+    /**
+     * Returns the number of leading sort channels that can be normalized into a long.
+     */
+    public static int getNormalizedKeyCount(List<Type> types, List<Integer> sortChannels)
+    {
+        int keyCount = 0;
+        while (keyCount < sortChannels.size() && keyCount < Long.SIZE && NORMALIZABLE_TYPES.contains(types.get(sortChannels.get(keyCount)))) {
+            keyCount++;
+        }
+        return keyCount;
+    }
+
+    public static boolean canSort(List<Type> types, List<Integer> sortChannels, int positionCount)
+    {
+        int keyCount = getNormalizedKeyCount(types, sortChannels);
+        return keyCount > 0 && (long) positionCount * (keyCount + 1) <= MAX_ARRAY_SIZE;
+    }
+
+    /**
+     * Sorts positions {@code [startPosition, endPosition)} of the index. The tie-break ordering
+     * must be present when not all sort channels can be normalized. The key buffers are reserved
+     * in {@code memoryContext} for the duration of the sort. Returns false without sorting if the
+     * reservation is refused.
+     */
+    public static boolean sort(
+            PagesIndex pagesIndex,
+            List<Integer> sortChannels,
+            List<SortOrder> sortOrders,
+            int startPosition,
+            int endPosition,
+            Optional<PagesIndexOrdering> tieBreakOrdering,
+            LocalMemoryContext memoryContext)
+    {
+        requireNonNull(pagesIndex, "pagesIndex is null");
+        requireNonNull(tieBreakOrdering, "tieBreakOrdering is null");
+        requireNonNull(memoryContext, "memoryContext is null");
+        checkArgument(sortChannels.size() == sortOrders.size(), "sortChannels and sortOrders have different sizes");
+        checkArgument(canSort(pagesIndex.getTypes(), sortChannels, endPosition - startPosition), "sort channels cannot be normalized");
+
+        int keyCount = getNormalizedKeyCount(pagesIndex.getTypes(), sortChannels);
+        checkArgument(keyCount == sortChannels.size() || tieBreakOrdering.isPresent(), "tieBreakOrdering is required when not all sort channels are normalized");
+
+        int positionCount = endPosition - startPosition;
+        // the addresses and the rows of keys
+        long sortBytes = (long) (keyCount + 2) * Long.BYTES * positionCount;
+        if (!memoryContext.trySetBytes(memoryContext.getBytes() + sortBytes)) {
+            return false;
+        }
+        try {
+            sort(pagesIndex, sortChannels, sortOrders, startPosition, endPosition, tieBreakOrdering, keyCount);
+        }
+        finally {
+            memoryContext.setBytes(memoryContext.getBytes() - sortBytes);
+        }
+        return true;
+    }
+
+    private static void sort(
+            PagesIndex pagesIndex,
+            List<Integer> sortChannels,
+            List<SortOrder> sortOrders,
+            int startPosition,
+            int endPosition,
+            Optional<PagesIndexOrdering> tieBreakOrdering,
+            int keyCount)
+    {
+        PagesIndexNormalizedKeySorter sorter = new PagesIndexNormalizedKeySorter(sortOrders, keyCount);
+        sorter.loadKeys(pagesIndex, sortChannels, sortOrders, startPosition, endPosition);
+        int positionCount = endPosition - startPosition;
+        it.unimi.dsi.fastutil.Arrays.quickSort(0, positionCount, sorter::compare, sorter::swap);
+
+        AdaptiveLongBigArray valueAddresses = pagesIndex.getValueAddresses();
+        for (int i = 0; i < positionCount; i++) {
+            valueAddresses.set(startPosition + i, sorter.addresses[i]);
+        }
+
+        if (keyCount < sortChannels.size()) {
+            // resolve ties on the remaining channels through the Block based comparator
+            PagesIndexOrdering ordering = tieBreakOrdering.get();
+            int runStart = 0;
+            for (int i = 1; i <= positionCount; i++) {
+                if (i == positionCount || sorter.compare(runStart, i) != 0) {
+                    if (i - runStart > 1) {
+                        ordering.sort(pagesIndex, startPosition + runStart, startPosition + i);
+                    }
+                    runStart = i;
+                }
+            }
+        }
+    }
+
+    private void loadKeys(PagesIndex pagesIndex, List<Integer> sortChannels, List<SortOrder> sortOrders, int startPosition, int endPosition)
+    {
+        int positionCount = endPosition - startPosition;
+        AdaptiveLongBigArray valueAddresses = pagesIndex.getValueAddresses();
+
+        addresses = new long[positionCount];
+        for (int i = 0; i < positionCount; i++) {
+            addresses[i] = valueAddresses.get(startPosition + i);
+        }
+
+        keys = new long[positionCount * rowWidth];
+        for (int key = 0; key < keyCount; key++) {
+            int channel = sortChannels.get(key);
+            Type type = pagesIndex.getType(channel);
+            ObjectArrayList<Block> blocks = pagesIndex.getChannel(channel);
+            // descending keys are inverted, which reverses the signed order without overflow
+            long invert = sortOrders.get(key).isAscending() ? 0 : -1L;
+            long nullBit = 1L << key;
+            for (int i = 0; i < positionCount; i++) {
+                long address = addresses[i];
+                Block block = blocks.get(decodeSliceIndex(address));
+                int blockPosition = decodePosition(address);
+                if (block.isNull(blockPosition)) {
+                    keys[i * rowWidth] |= nullBit;
+                }
+                else {
+                    keys[i * rowWidth + 1 + key] = type.getLong(block, blockPosition) ^ invert;
+                }
+            }
+        }
+    }
+
+    private int compare(int left, int right)
+    {
+        int leftOffset = left * rowWidth;
+        int rightOffset = right * rowWidth;
+        long leftNulls = keys[leftOffset];
+        long rightNulls = keys[rightOffset];
+        for (int key = 0; key < keyCount; key++) {
+            long nullBit = 1L << key;
+            boolean leftIsNull = (leftNulls & nullBit) != 0;
+            boolean rightIsNull = (rightNulls & nullBit) != 0;
+            if (leftIsNull || rightIsNull) {
+                if (leftIsNull == rightIsNull) {
+                    continue;
+                }
+                return leftIsNull == nullsFirst[key] ? -1 : 1;
+            }
+            int comparison = Long.compare(keys[leftOffset + 1 + key], keys[rightOffset + 1 + key]);
+            if (comparison != 0) {
+                return comparison;
+            }
+        }
+        return 0;
+    }
+
+    private void swap(int left, int right)
+    {
+        int leftOffset = left * rowWidth;
+        int rightOffset = right * rowWidth;
+        for (int i = 0; i < rowWidth; i++) {
+            long key = keys[leftOffset + i];
+            keys[leftOffset + i] = keys[rightOffset + i];
+            keys[rightOffset + i] = key;
+        }
+        long address = addresses[left];
+        addresses[left] = addresses[right];
+        addresses[right] = address;
+    }
+}
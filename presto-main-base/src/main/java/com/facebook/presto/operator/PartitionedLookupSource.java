@@ -142,6 +142,65 @@ public class PartitionedLookupSource
         return encodePartitionedJoinPosition(partition, toIntExact(joinPosition));
     }
 
+    @Override
+    public void getJoinPositions(int[] positions, int positionCount, Page hashChannelsPage, Page allChannelsPage, @Nullable long[] rawHashes, long[] joinPositions)
+    {
+        long[] hashes = rawHashes;
+        if (hashes == null) {
+            hashes = new long[positionCount];
+            for (int i = 0; i < positionCount; i++) {
+                hashes[i] = partitionGenerator.getRawHash(hashChannelsPage, positions[i]);
+            }
+        }
+
+        if (lookupSources.length == 1) {
+            lookupSources[0].getJoinPositions(positions, positionCount, hashChannelsPage, allChannelsPage, hashes, joinPositions);
+            for (int i = 0; i < positionCount; i++) {
+                if (joinPositions[i] >= 0) {
+                    joinPositions[i] = encodePartitionedJoinPosition(0, toIntExact(joinPositions[i]));
+                }
+            }
+            return;
+        }
+
+        // group the rows by partition, so that each partition is probed with a single batch
+        int[] partitions = new int[positionCount];
+        int[] partitionOffsets = new int[lookupSources.length + 1];
+        for (int i = 0; i < positionCount; i++) {
+            partitions[i] = partitionGenerator.getPartition(hashes[i]);
+            partitionOffsets[partitions[i] + 1]++;
+        }
+        for (int partition = 0; partition < lookupSources.length; partition++) {
+            partitionOffsets[partition + 1] += partitionOffsets[partition];
+        }
+        int[] indexes = new int[positionCount];
+        int[] partitionPositions = new int[positionCount];
+        long[] partitionHashes = new long[positionCount];
+        int[] nextOffsets = Arrays.copyOf(partitionOffsets, lookupSources.length);
+        for (int i = 0; i < positionCount; i++) {
+            int offset = nextOffsets[partitions[i]]++;
+            indexes[offset] = i;
+            partitionPositions[offset] = positions[i];
+            partitionHashes[offset] = hashes[i];
+        }
+
+        for (int partition = 0; partition < lookupSources.length; partition++) {
+            int start = partitionOffsets[partition];
+            int count = partitionOffsets[partition + 1] - start;
+            if (count == 0) {
+                continue;
+            }
+            int[] batchPositions = Arrays.copyOfRange(partitionPositions, start, start + count);
+            long[] batchHashes = Arrays.copyOfRange(partitionHashes, start, start + count);
+            long[] batchJoinPositions = new long[count];
+            lookupSources[partition].getJoinPositions(batchPositions, count, hashChannelsPage, allChannelsPage, batchHashes, batchJoinPositions);
+            for (int i = 0; i < count; i++) {
+                long joinPosition = batchJoinPositions[i];
+                joinPositions[indexes[start + i]] = joinPosition < 0 ? joinPosition : encodePartitionedJoinPosition(partition, toIntExact(joinPosition));
+            }
+        }
+    }
+
     @Override
     public long getNextJoinPosition(long currentJoinPosition, int probePosition, Page allProbeChannelsPage)
     {
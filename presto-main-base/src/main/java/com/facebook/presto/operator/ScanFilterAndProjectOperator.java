@@ -21,6 +21,7 @@ import com.facebook.presto.common.block.Block;
 import com.facebook.presto.common.block.LazyBlock;
 import com.facebook.presto.common.block.LazyBlockLoader;
 import com.facebook.presto.common.function.SqlFunctionProperties;
+import com.facebook.presto.common.predicate.BlockedBloomFilter;
 import com.facebook.presto.common.predicate.TupleDomain;
 import com.facebook.presto.common.type.Type;
 import com.facebook.presto.execution.ScheduledSplit;
@@ -34,6 +35,7 @@ import com.facebook.presto.spi.ColumnHandle;
 import com.facebook.presto.spi.ConnectorPageSource;
 import com.facebook.presto.spi.RecordCursor;
 import com.facebook.presto.spi.RecordPageSource;
+import com.facebook.presto.spi.SplitContext;
 import com.facebook.presto.spi.TableHandle;
 import com.facebook.presto.spi.UpdatablePageSource;
 import com.facebook.presto.spi.plan.PlanNodeId;
@@ -42,6 +44,7 @@ import com.facebook.presto.split.EmptySplitPageSource;
 import com.facebook.presto.split.PageSourceProvider;
 import com.google.common.base.Suppliers;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
 import com.google.common.util.concurrent.ListenableFuture;
 import com.google.common.util.concurrent.SettableFuture;
 
@@ -81,8 +84,12 @@ public class ScanFilterAndProjectOperator
     private final LocalMemoryContext outputMemoryContext;
     private final SettableFuture<?> blocked = SettableFuture.create();
     private final Optional<Supplier<TupleDomain<ColumnHandle>>> dynamicFilterSupplier;
+    private final Optional<Supplier<Map<ColumnHandle, BlockedBloomFilter>>> dynamicBloomFilterSupplier;
+    private final List<Type> columnTypes;
     private final MergingPageOutput mergingOutput;
 
+    private Optional<DynamicBloomFilterPageFilter> dynamicBloomFilter = Optional.empty();
+
     private RecordCursor cursor;
     private ConnectorPageSource pageSource;
 
@@ -104,6 +111,8 @@ public class ScanFilterAndProjectOperator
             Iterable<ColumnHandle> columns,
             Iterable<Type> types,
             Optional<Supplier<TupleDomain<ColumnHandle>>> dynamicFilterSupplier,
+            Optional<Supplier<Map<ColumnHandle, BlockedBloomFilter>>> dynamicBloomFilterSupplier,
+            List<Type> columnTypes,
             MergingPageOutput mergingOutput)
     {
         this.cursorProcessor = requireNonNull(cursorProcessor, "cursorProcessor is null");
@@ -118,6 +127,8 @@ public class ScanFilterAndProjectOperator
         this.pageProcessorMemoryContext = newSimpleAggregatedMemoryContext().newLocalMemoryContext(ScanFilterAndProjectOperator.class.getSimpleName());
         this.outputMemoryContext = operatorContext.newLocalSystemMemoryContext(ScanFilterAndProjectOperator.class.getSimpleName());
         this.dynamicFilterSupplier = requireNonNull(dynamicFilterSupplier, "dynamicFilterSupplier is null");
+        this.dynamicBloomFilterSupplier = requireNonNull(dynamicBloomFilterSupplier, "dynamicBloomFilterSupplier is null");
+        this.columnTypes = ImmutableList.copyOf(requireNonNull(columnTypes, "columnTypes is null"));
         this.mergingOutput = requireNonNull(mergingOutput, "mergingOutput is null");
 
         this.pageBuilder = new PageBuilder(ImmutableList.copyOf(requireNonNull(types, "types is null")));
@@ -247,6 +258,19 @@ public class ScanFilterAndProjectOperator
         }
 
         if (!finishing && pageSource == null && cursor == null) {
+            Map<ColumnHandle, BlockedBloomFilter> bloomFilters = dynamicBloomFilterSupplier.map(Supplier::get).orElse(ImmutableMap.of());
+            if (!bloomFilters.isEmpty()) {
+                // let the connector skip rows while reading, and filter the remaining ones below
+                split = new Split(
+                        split.getConnectorId(),
+                        split.getTransactionHandle(),
+                        split.getConnectorSplit(),
+                        split.getLifespan(),
+                        new SplitContext(split.getSplitContext().isCacheable(), split.getSplitContext().getDynamicFilterPredicate(), bloomFilters));
+                if (!dynamicBloomFilter.isPresent() && columnTypes.size() == columns.size()) {
+                    dynamicBloomFilter = DynamicBloomFilterPageFilter.create(bloomFilters, columns, columnTypes);
+                }
+            }
             ConnectorPageSource source = pageSourceProvider.createPageSource(operatorContext.getSession(), split, dynamicFilterSupplier.map(table::withDynamicFilter).orElse(table), columns, operatorContext.getRuntimeStats());
             if (source instanceof RecordPageSource) {
                 cursor = ((RecordPageSource) source).getCursor();
@@ -300,6 +324,9 @@ public class ScanFilterAndProjectOperator
             if (page != null) {
                 // update operator stats
                 page = recordProcessedInput(page);
+                if (dynamicBloomFilter.isPresent()) {
+                    page = dynamicBloomFilter.get().filter(page);
+                }
 
                 Iterator<Optional<Page>> output = pageProcessor.process(sqlFunctionProperties, yieldSignal, pageProcessorMemoryContext, page);
                 mergingOutput.addInput(output);
@@ -417,6 +444,8 @@ public class ScanFilterAndProjectOperator
         private final List<ColumnHandle> columns;
         private final List<Type> types;
         private final Optional<Supplier<TupleDomain<ColumnHandle>>> dynamicFilterSupplier;
+        private final Optional<Supplier<Map<ColumnHandle, BlockedBloomFilter>>> dynamicBloomFilterSupplier;
+        private final List<Type> columnTypes;
         private final DataSize minOutputPageSize;
         private final int minOutputPageRowCount;
         private boolean closed;
@@ -434,6 +463,25 @@ public class ScanFilterAndProjectOperator
                 Optional<Supplier<TupleDomain<ColumnHandle>>> dynamicFilterSupplier,
                 DataSize minOutputPageSize,
                 int minOutputPageRowCount)
+        {
+            this(operatorId, planNodeId, sourceId, pageSourceProvider, cursorProcessor, pageProcessor, table, columns, types, dynamicFilterSupplier, Optional.empty(), ImmutableList.of(), minOutputPageSize, minOutputPageRowCount);
+        }
+
+        public ScanFilterAndProjectOperatorFactory(
+                int operatorId,
+                PlanNodeId planNodeId,
+                PlanNodeId sourceId,
+                PageSourceProvider pageSourceProvider,
+                Supplier<CursorProcessor> cursorProcessor,
+                Supplier<PageProcessor> pageProcessor,
+                TableHandle table,
+                Iterable<ColumnHandle> columns,
+                List<Type> types,
+                Optional<Supplier<TupleDomain<ColumnHandle>>> dynamicFilterSupplier,
+                Optional<Supplier<Map<ColumnHandle, BlockedBloomFilter>>> dynamicBloomFilterSupplier,
+                List<Type> columnTypes,
+                DataSize minOutputPageSize,
+                int minOutputPageRowCount)
         {
             this.operatorId = operatorId;
             this.planNodeId = requireNonNull(planNodeId, "planNodeId is null");
@@ -445,6 +493,8 @@ public class ScanFilterAndProjectOperator
             this.columns = ImmutableList.copyOf(requireNonNull(columns, "columns is null"));
             this.types = requireNonNull(types, "types is null");
             this.dynamicFilterSupplier = requireNonNull(dynamicFilterSupplier, "dynamicFilterSupplier is null");
+            this.dynamicBloomFilterSupplier = requireNonNull(dynamicBloomFilterSupplier, "dynamicBloomFilterSupplier is null");
+            this.columnTypes = ImmutableList.copyOf(requireNonNull(columnTypes, "columnTypes is null"));
             this.minOutputPageSize = requireNonNull(minOutputPageSize, "minOutputPageSize is null");
             this.minOutputPageRowCount = minOutputPageRowCount;
         }
@@ -470,6 +520,8 @@ public class ScanFilterAndProjectOperator
                     columns,
                     types,
                     dynamicFilterSupplier,
+                    dynamicBloomFilterSupplier,
+                    columnTypes,
                     new MergingPageOutput(types, minOutputPageSize.toBytes(), minOutputPageRowCount));
         }
 
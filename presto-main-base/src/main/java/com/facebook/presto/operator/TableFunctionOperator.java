@@ -444,7 +444,7 @@ public class TableFunctionOperator
             // sorting serves two purposes:
             // - sort by the remaining partition channels so that the input is fully partitioned,
             // - sort by all the sort channels so that the input is fully sorted
-            sortCurrentGroup(pagesIndex, hashStrategies);
+            sortCurrentGroup(pagesIndex, hashStrategies, memoryContext);
             resetPagesIndex = true;
             return WorkProcessor.TransformationState.ofResult(pagesIndex, false);
         }
@@ -481,7 +481,7 @@ public class TableFunctionOperator
         return startPosition;
     }
 
-    private static void sortCurrentGroup(PagesIndex pagesIndex, HashStrategies hashStrategies)
+    private static void sortCurrentGroup(PagesIndex pagesIndex, HashStrategies hashStrategies, LocalMemoryContext sortMemoryContext)
     {
         PagesHashStrategy preSortedStrategy = hashStrategies.preSortedStrategy;
         List<Integer> remainingPartitionAndSortChannels = hashStrategies.remainingPartitionAndSortChannels;
@@ -491,7 +491,7 @@ public class TableFunctionOperator
             int startPosition = 0;
             while (startPosition < pagesIndex.getPositionCount()) {
                 int endPosition = findGroupEnd(pagesIndex, preSortedStrategy, startPosition);
-                pagesIndex.sort(remainingPartitionAndSortChannels, remainingSortOrders, startPosition, endPosition);
+                pagesIndex.sort(remainingPartitionAndSortChannels, remainingSortOrders, startPosition, endPosition, sortMemoryContext);
                 startPosition = endPosition;
             }
         }
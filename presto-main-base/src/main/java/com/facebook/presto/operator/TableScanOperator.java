@@ -15,6 +15,8 @@ package com.facebook.presto.operator;
 
 import com.facebook.presto.common.Page;
 import com.facebook.presto.common.RuntimeStats;
+import com.facebook.presto.common.block.Block;
+import com.facebook.presto.common.block.LazyBlock;
 import com.facebook.presto.execution.ScheduledSplit;
 import com.facebook.presto.memory.context.LocalMemoryContext;
 import com.facebook.presto.metadata.Split;
@@ -30,6 +32,7 @@ import com.google.common.base.Suppliers;
 import com.google.common.collect.ImmutableList;
 import com.google.common.util.concurrent.ListenableFuture;
 import com.google.common.util.concurrent.SettableFuture;
+import jakarta.annotation.Nullable;
 
 import java.io.Closeable;
 import java.io.IOException;
@@ -59,6 +62,7 @@ public class TableScanOperator
         private final PageSourceProvider pageSourceProvider;
         private final TableHandle table;
         private final List<ColumnHandle> columns;
+        private final boolean lazyOutput;
         private boolean closed;
 
         public TableScanOperatorFactory(
@@ -67,12 +71,28 @@ public class TableScanOperator
                 PageSourceProvider pageSourceProvider,
                 TableHandle table,
                 Iterable<ColumnHandle> columns)
+        {
+            this(operatorId, sourceId, pageSourceProvider, table, columns, false);
+        }
+
+        /**
+         * When {@code lazyOutput} is set, pages are handed to the next operator without being loaded.
+         * This is only safe when that operator is a lookup join that loads them before the next page.
+         */
+        public TableScanOperatorFactory(
+                int operatorId,
+                PlanNodeId sourceId,
+                PageSourceProvider pageSourceProvider,
+                TableHandle table,
+                Iterable<ColumnHandle> columns,
+                boolean lazyOutput)
         {
             this.operatorId = operatorId;
             this.sourceId = requireNonNull(sourceId, "sourceId is null");
             this.pageSourceProvider = requireNonNull(pageSourceProvider, "pageSourceProvider is null");
             this.table = requireNonNull(table, "table is null");
             this.columns = ImmutableList.copyOf(requireNonNull(columns, "columns is null"));
+            this.lazyOutput = lazyOutput;
         }
 
         @Override
@@ -91,7 +111,8 @@ public class TableScanOperator
                     sourceId,
                     pageSourceProvider,
                     table,
-                    columns);
+                    columns,
+                    lazyOutput);
         }
 
         @Override
@@ -108,9 +129,13 @@ public class TableScanOperator
     private final List<ColumnHandle> columns;
     private final LocalMemoryContext systemMemoryContext;
     private final SettableFuture<?> blocked = SettableFuture.create();
+    private final boolean lazyOutput;
 
     private Split split;
     private ConnectorPageSource source;
+    // the last page returned, while it may still have blocks to load from the source
+    @Nullable
+    private Page lazyPage;
 
     private boolean finished;
 
@@ -124,6 +149,17 @@ public class TableScanOperator
             PageSourceProvider pageSourceProvider,
             TableHandle table,
             Iterable<ColumnHandle> columns)
+    {
+        this(operatorContext, planNodeId, pageSourceProvider, table, columns, false);
+    }
+
+    public TableScanOperator(
+            OperatorContext operatorContext,
+            PlanNodeId planNodeId,
+            PageSourceProvider pageSourceProvider,
+            TableHandle table,
+            Iterable<ColumnHandle> columns,
+            boolean lazyOutput)
     {
         this.operatorContext = requireNonNull(operatorContext, "operatorContext is null");
         this.planNodeId = requireNonNull(planNodeId, "planNodeId is null");
@@ -131,6 +167,7 @@ public class TableScanOperator
         this.table = requireNonNull(table, "table is null");
         this.columns = ImmutableList.copyOf(requireNonNull(columns, "columns is null"));
         this.systemMemoryContext = operatorContext.localSystemMemoryContext();
+        this.lazyOutput = lazyOutput;
     }
 
     @Override
@@ -203,6 +240,7 @@ public class TableScanOperator
     {
         finished = true;
         blocked.set(null);
+        lazyPage = null;
 
         if (source != null) {
             try {
@@ -263,10 +301,19 @@ public class TableScanOperator
             source = pageSourceProvider.createPageSource(operatorContext.getSession(), split, table, columns, operatorContext.getRuntimeStats());
         }
 
+        // the blocks of the previous page can no longer be loaded once the source moves on
+        loadLazyPage();
+
         Page page = source.getNextPage();
         if (page != null) {
-            // assure the page is in memory before handing to another operator
-            page = page.getLoadedPage();
+            if (lazyOutput) {
+                // the lookup join that follows decides which positions of the lazy blocks to load
+                lazyPage = page;
+            }
+            else {
+                // assure the page is in memory before handing to another operator
+                page = page.getLoadedPage();
+            }
         }
 
         // update operator stats
@@ -278,6 +325,20 @@ public class TableScanOperator
         return page;
     }
 
+    private void loadLazyPage()
+    {
+        if (lazyPage == null) {
+            return;
+        }
+        for (int channel = 0; channel < lazyPage.getChannelCount(); channel++) {
+            Block block = lazyPage.getBlock(channel);
+            if (block instanceof LazyBlock) {
+                ((LazyBlock) block).loadFromSource();
+            }
+        }
+        lazyPage = null;
+    }
+
     private void recordInputStats()
     {
         checkState(source != null, "source must not be null");
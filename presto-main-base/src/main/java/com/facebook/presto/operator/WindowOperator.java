@@ -187,6 +187,7 @@ public class WindowOperator
     }
 
     private final OperatorContext operatorContext;
+    private final LocalMemoryContext sortMemoryContext;
     private final List<Type> outputTypes;
     private final int[] outputChannels;
     private final List<FramedWindowFunction> windowFunctions;
@@ -231,6 +232,7 @@ public class WindowOperator
         checkArgument(preSortedChannelPrefix == 0 || ImmutableSet.copyOf(preGroupedChannels).equals(ImmutableSet.copyOf(partitionChannels)), "preSortedChannelPrefix can only be greater than zero if all partition channels are pre-grouped");
 
         this.operatorContext = operatorContext;
+        this.sortMemoryContext = operatorContext.aggregateUserMemoryContext().newLocalMemoryContext(WindowOperator.class.getSimpleName());
         this.outputChannels = Ints.toArray(outputChannels);
         this.windowFunctions = windowFunctionDefinitions.stream()
                 .map(functionDefinition -> new FramedWindowFunction(functionDefinition.createWindowFunction(), functionDefinition.getFrameInfo()))
@@ -883,7 +885,7 @@ public class WindowOperator
             int startPosition = 0;
             while (startPosition < pagesIndexWithHashStrategies.pagesIndex.getPositionCount()) {
                 int endPosition = findGroupEnd(pagesIndexWithHashStrategies.pagesIndex, pagesIndexWithHashStrategies.preSortedPartitionHashStrategy, startPosition);
-                pagesIndexWithHashStrategies.pagesIndex.sort(orderChannels, ordering, startPosition, endPosition);
+                pagesIndexWithHashStrategies.pagesIndex.sort(orderChannels, ordering, startPosition, endPosition, sortMemoryContext);
                 startPosition = endPosition;
             }
         }
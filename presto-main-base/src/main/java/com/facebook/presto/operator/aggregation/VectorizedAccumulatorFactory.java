@@ -0,0 +1,156 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.operator.aggregation;
+
+import com.facebook.presto.common.QualifiedObjectName;
+import com.facebook.presto.common.type.Type;
+import com.facebook.presto.common.type.TypeSignature;
+import com.facebook.presto.operator.UpdateMemory;
+import com.facebook.presto.spi.function.aggregation.Accumulator;
+import com.facebook.presto.spi.function.aggregation.AggregationMetadata.AccumulatorStateDescriptor;
+import com.facebook.presto.spi.function.aggregation.GroupedAccumulator;
+
+import java.util.List;
+import java.util.Optional;
+
+import static com.facebook.presto.common.type.BigintType.BIGINT;
+import static com.facebook.presto.common.type.DoubleType.DOUBLE;
+import static com.facebook.presto.metadata.BuiltInTypeAndFunctionNamespaceManager.JAVA_BUILTIN_NAMESPACE;
+import static com.google.common.base.Preconditions.checkArgument;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Replaces the grouped accumulators of a generated {@link AccumulatorFactory} with a
+ * {@link VectorizedGroupedAccumulator} for the aggregations listed in {@link VectorizedAggregation}.
+ */
+public class VectorizedAccumulatorFactory
+        implements AccumulatorFactory
+{
+    private static final QualifiedObjectName COUNT = QualifiedObjectName.valueOf(JAVA_BUILTIN_NAMESPACE, "count");
+    private static final QualifiedObjectName SUM = QualifiedObjectName.valueOf(JAVA_BUILTIN_NAMESPACE, "sum");
+    private static final QualifiedObjectName MIN = QualifiedObjectName.valueOf(JAVA_BUILTIN_NAMESPACE, "min");
+    private static final QualifiedObjectName MAX = QualifiedObjectName.valueOf(JAVA_BUILTIN_NAMESPACE, "max");
+    private static final QualifiedObjectName AVG = QualifiedObjectName.valueOf(JAVA_BUILTIN_NAMESPACE, "avg");
+
+    public enum VectorizedAggregation
+    {
+        COUNT_ALL,
+        COUNT,
+        LONG_SUM,
+        DOUBLE_SUM,
+        LONG_MIN,
+        LONG_MAX,
+        LONG_AVERAGE,
+        DOUBLE_AVERAGE,
+    }
+
+    private final AccumulatorFactory delegate;
+    private final VectorizedAggregation aggregation;
+    private final AccumulatorStateDescriptor stateDescriptor;
+    private final Optional<Integer> maskChannel;
+    private final Type finalType;
+
+    public VectorizedAccumulatorFactory(
+            AccumulatorFactory delegate,
+            VectorizedAggregation aggregation,
+            AccumulatorStateDescriptor stateDescriptor,
+            Optional<Integer> maskChannel,
+            Type finalType)
+    {
+        this.delegate = requireNonNull(delegate, "delegate is null");
+        this.aggregation = requireNonNull(aggregation, "aggregation is null");
+        this.stateDescriptor = requireNonNull(stateDescriptor, "stateDescriptor is null");
+        this.maskChannel = requireNonNull(maskChannel, "maskChannel is null");
+        this.finalType = requireNonNull(finalType, "finalType is null");
+        checkArgument(!delegate.hasDistinct() && !delegate.hasOrderBy(), "distinct and ordered aggregations are not supported");
+        checkArgument(delegate.getInputChannels().size() == (aggregation == VectorizedAggregation.COUNT_ALL ? 0 : 1), "unexpected input channels for %s: %s", aggregation, delegate.getInputChannels());
+    }
+
+    /**
+     * Returns the vectorized implementation of the builtin aggregation function with the given name and argument types, if there is one.
+     */
+    public static Optional<VectorizedAggregation> getVectorizedAggregation(QualifiedObjectName name, List<TypeSignature> argumentTypes)
+    {
+        if (name.equals(COUNT)) {
+            if (argumentTypes.isEmpty()) {
+                return Optional.of(VectorizedAggregation.COUNT_ALL);
+            }
+            return argumentTypes.size() == 1 ? Optional.of(VectorizedAggregation.COUNT) : Optional.empty();
+        }
+        if (argumentTypes.size() != 1) {
+            return Optional.empty();
+        }
+        TypeSignature argumentType = argumentTypes.get(0);
+        boolean bigint = argumentType.equals(BIGINT.getTypeSignature());
+        boolean doubleType = argumentType.equals(DOUBLE.getTypeSignature());
+        if (name.equals(SUM)) {
+            return bigint ? Optional.of(VectorizedAggregation.LONG_SUM) : doubleType ? Optional.of(VectorizedAggregation.DOUBLE_SUM) : Optional.empty();
+        }
+        if (name.equals(AVG)) {
+            return bigint ? Optional.of(VectorizedAggregation.LONG_AVERAGE) : doubleType ? Optional.of(VectorizedAggregation.DOUBLE_AVERAGE) : Optional.empty();
+        }
+        // min and max over doubles are left to the generated accumulators, which order NaN specially
+        if (name.equals(MIN)) {
+            return bigint ? Optional.of(VectorizedAggregation.LONG_MIN) : Optional.empty();
+        }
+        if (name.equals(MAX)) {
+            return bigint ? Optional.of(VectorizedAggregation.LONG_MAX) : Optional.empty();
+        }
+        return Optional.empty();
+    }
+
+    @Override
+    public List<Integer> getInputChannels()
+    {
+        return delegate.getInputChannels();
+    }
+
+    @Override
+    public Accumulator createAccumulator(UpdateMemory updateMemory)
+    {
+        return delegate.createAccumulator(updateMemory);
+    }
+
+    @Override
+    public Accumulator createIntermediateAccumulator()
+    {
+        return delegate.createIntermediateAccumulator();
+    }
+
+    @Override
+    public GroupedAccumulator createGroupedAccumulator(UpdateMemory updateMemory)
+    {
+        Optional<Integer> inputChannel = delegate.getInputChannels().stream().findFirst();
+        return VectorizedGroupedAccumulator.create(aggregation, stateDescriptor, inputChannel, maskChannel, finalType);
+    }
+
+    @Override
+    public GroupedAccumulator createGroupedIntermediateAccumulator(UpdateMemory updateMemory)
+    {
+        // intermediate input is passed to addIntermediate as a block, so no channels are needed
+        return VectorizedGroupedAccumulator.create(aggregation, stateDescriptor, Optional.empty(), Optional.empty(), finalType);
+    }
+
+    @Override
+    public boolean hasOrderBy()
+    {
+        return false;
+    }
+
+    @Override
+    public boolean hasDistinct()
+    {
+        return false;
+    }
+}
@@ -0,0 +1,557 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.operator.aggregation;
+
+import com.facebook.presto.common.Page;
+import com.facebook.presto.common.array.BooleanBigArray;
+import com.facebook.presto.common.array.DoubleBigArray;
+import com.facebook.presto.common.array.LongBigArray;
+import com.facebook.presto.common.block.Block;
+import com.facebook.presto.common.block.BlockBuilder;
+import com.facebook.presto.common.block.RunLengthEncodedBlock;
+import com.facebook.presto.common.type.Type;
+import com.facebook.presto.operator.aggregation.VectorizedAccumulatorFactory.VectorizedAggregation;
+import com.facebook.presto.operator.aggregation.state.LongAndDoubleState;
+import com.facebook.presto.operator.aggregation.state.LongState;
+import com.facebook.presto.operator.aggregation.state.NullableDoubleState;
+import com.facebook.presto.operator.aggregation.state.NullableLongState;
+import com.facebook.presto.spi.function.AccumulatorStateSerializer;
+import com.facebook.presto.spi.function.aggregation.AggregationMetadata.AccumulatorStateDescriptor;
+import com.facebook.presto.spi.function.aggregation.GroupByIdBlock;
+import com.facebook.presto.spi.function.aggregation.GroupedAccumulator;
+import com.facebook.presto.type.BigintOperators;
+import org.openjdk.jol.info.ClassLayout;
+
+import java.util.Optional;
+
+import static com.facebook.presto.common.type.BigintType.BIGINT;
+import static com.facebook.presto.common.type.DoubleType.DOUBLE;
+import static com.facebook.presto.operator.aggregation.AggregationUtils.extractMaskBlock;
+import static com.facebook.presto.sql.gen.CompilerOperations.testMask;
+import static io.airlift.slice.SizeOf.sizeOf;
+import static java.lang.Double.longBitsToDouble;
+import static java.lang.Math.toIntExact;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * A {@link GroupedAccumulator} for simple aggregations over fixed width values that updates
+ * its state a page at a time instead of a position at a time.
+ * <p>
+ * {@link #addInput} first gathers the group ids and raw values of the positions that pass the mask
+ * and are not null into dense primitive arrays, so the null and mask checks are done once per position
+ * for all aggregations and skipped entirely when a page has neither. The subclasses then update their
+ * state big arrays in a single loop over those arrays. The intermediate state is read and written
+ * through the serializer of the aggregation function, so it is interchangeable with the state of
+ * the generated accumulator.
+ */
+public abstract class VectorizedGroupedAccumulator
+        implements GroupedAccumulator
+{
+    private static final int INSTANCE_SIZE = ClassLayout.parseClass(VectorizedGroupedAccumulator.class).instanceSize();
+
+    private final int inputChannel;
+    private final int maskChannel;
+    private final Type finalType;
+    private final AccumulatorStateSerializer<Object> serializer;
+    private final Object intermediateState;
+
+    private int[] groupIds = new int[0];
+    private long[] values = new long[0];
+
+    @SuppressWarnings("unchecked")
+    protected VectorizedGroupedAccumulator(AccumulatorStateDescriptor stateDescriptor, Optional<Integer> inputChannel, Optional<Integer> maskChannel, Type finalType)
+    {
+        requireNonNull(stateDescriptor, "stateDescriptor is null");
+        this.inputChannel = requireNonNull(inputChannel, "inputChannel is null").orElse(-1);
+        this.maskChannel = requireNonNull(maskChannel, "maskChannel is null").orElse(-1);
+        this.finalType = requireNonNull(finalType, "finalType is null");
+        this.serializer = (AccumulatorStateSerializer<Object>) stateDescriptor.getSerializer();
+        this.intermediateState = stateDescriptor.getFactory().createSingleState();
+    }
+
+    public static GroupedAccumulator create(VectorizedAggregation aggregation, AccumulatorStateDescriptor stateDescriptor, Optional<Integer> inputChannel, Optional<Integer> maskChannel, Type finalType)
+    {
+        switch (aggregation) {
+            case COUNT_ALL:
+            case COUNT:
+                return new CountGroupedAccumulator(stateDescriptor, inputChannel, maskChannel, finalType);
+            case LONG_SUM:
+                return new LongSumGroupedAccumulator(stateDescriptor, inputChannel, maskChannel, finalType);
+            case DOUBLE_SUM:
+                return new DoubleSumGroupedAccumulator(stateDescriptor, inputChannel, maskChannel, finalType);
+            case LONG_MIN:
+                return new LongMinMaxGroupedAccumulator(stateDescriptor, inputChannel, maskChannel, finalType, true);
+            case LONG_MAX:
+                return new LongMinMaxGroupedAccumulator(stateDescriptor, inputChannel, maskChannel, finalType, false);
+            case LONG_AVERAGE:
+                return new AverageGroupedAccumulator(stateDescriptor, inputChannel, maskChannel, finalType, false);
+            case DOUBLE_AVERAGE:
+                return new AverageGroupedAccumulator(stateDescriptor, inputChannel, maskChannel, finalType, true);
+            default:
+                throw new IllegalArgumentException("Unsupported aggregation: " + aggregation);
+        }
+    }
+
+    @Override
+    public long getEstimatedSize()
+    {
+        return INSTANCE_SIZE + sizeOf(groupIds) + sizeOf(values) + getStateSize();
+    }
+
+    @Override
+    public Type getFinalType()
+    {
+        return finalType;
+    }
+
+    @Override
+    public Type getIntermediateType()
+    {
+        return serializer.getSerializedType();
+    }
+
+    @Override
+    public void addInput(GroupByIdBlock groupIdsBlock, Page page)
+    {
+        ensureCapacity(groupIdsBlock.getGroupCount());
+        int positionCount = page.getPositionCount();
+        Block masks = extractMaskBlock(maskChannel, page);
+        if (positionCount == 0 || (masks instanceof RunLengthEncodedBlock && !testMask(masks, 0))) {
+            return;
+        }
+
+        Block block = inputChannel < 0 ? null : page.getBlock(inputChannel);
+        boolean mayHaveNull = block != null && block.mayHaveNull();
+        boolean loadValues = block != null && needsValues();
+        if (groupIds.length < positionCount) {
+            groupIds = new int[positionCount];
+            if (loadValues) {
+                values = new long[positionCount];
+            }
+        }
+        else if (loadValues && values.length < positionCount) {
+            values = new long[positionCount];
+        }
+
+        int count = 0;
+        if (masks == null && !mayHaveNull) {
+            for (int position = 0; position < positionCount; position++) {
+                groupIds[position] = toIntExact(groupIdsBlock.getLong(position));
+            }
+            if (loadValues) {
+                for (int position = 0; position < positionCount; position++) {
+                    values[position] = block.getLong(position);
+                }
+            }
+            count = positionCount;
+        }
+        else {
+            for (int position = 0; position < positionCount; position++) {
+                if ((masks == null || testMask(masks, position)) && !(mayHaveNull && block.isNull(position))) {
+                    groupIds[count] = toIntExact(groupIdsBlock.getLong(position));
+                    if (loadValues) {
+                        values[count] = block.getLong(position);
+                    }
+                    count++;
+                }
+            }
+        }
+        accumulate(groupIds, values, count);
+    }
+
+    @Override
+    public void addIntermediate(GroupByIdBlock groupIdsBlock, Block block)
+    {
+        ensureCapacity(groupIdsBlock.getGroupCount());
+        for (int position = 0; position < block.getPositionCount(); position++) {
+            // a null intermediate state holds no input
+            if (!block.isNull(position)) {
+                serializer.deserialize(block, position, intermediateState);
+                combine(toIntExact(groupIdsBlock.getLong(position)), intermediateState);
+            }
+        }
+    }
+
+    @Override
+    public void evaluateIntermediate(int groupId, BlockBuilder output)
+    {
+        copyToState(groupId, intermediateState);
+        serializer.serialize(intermediateState, output);
+    }
+
+    @Override
+    public void prepareFinal()
+    {
+    }
+
+    /**
+     * Returns false when the aggregation only depends on the input being present, like {@code count}.
+     */
+    protected boolean needsValues()
+    {
+        return true;
+    }
+
+    protected abstract long getStateSize();
+
+    protected abstract void ensureCapacity(long groupCount);
+
+    /**
+     * Adds the first {@code count} values to their groups. The values are the raw longs read from
+     * the input block, which for {@code double} holds the bits of the value.
+     */
+    protected abstract void accumulate(int[] groupIds, long[] values, int count);
+
+    protected abstract void combine(int groupId, Object state);
+
+    protected abstract void copyToState(int groupId, Object state);
+
+    private static final class CountGroupedAccumulator
+            extends VectorizedGroupedAccumulator
+    {
+        private final LongBigArray counts = new LongBigArray();
+
+        public CountGroupedAccumulator(AccumulatorStateDescriptor stateDescriptor, Optional<Integer> inputChannel, Optional<Integer> maskChannel, Type finalType)
+        {
+            super(stateDescriptor, inputChannel, maskChannel, finalType);
+        }
+
+        @Override
+        protected boolean needsValues()
+        {
+            return false;
+        }
+
+        @Override
+        protected long getStateSize()
+        {
+            return counts.sizeOf();
+        }
+
+        @Override
+        protected void ensureCapacity(long groupCount)
+        {
+            counts.ensureCapacity(groupCount);
+        }
+
+        @Override
+        protected void accumulate(int[] groupIds, long[] values, int count)
+        {
+            for (int i = 0; i < count; i++) {
+                counts.increment(groupIds[i]);
+            }
+        }
+
+        @Override
+        protected void combine(int groupId, Object state)
+        {
+            counts.add(groupId, ((LongState) state).getLong());
+        }
+
+        @Override
+        protected void copyToState(int groupId, Object state)
+        {
+            ((LongState) state).setLong(counts.get(groupId));
+        }
+
+        @Override
+        public void evaluateFinal(int groupId, BlockBuilder output)
+        {
+            BIGINT.writeLong(output, counts.get(groupId));
+        }
+    }
+
+    private static final class LongSumGroupedAccumulator
+            extends VectorizedGroupedAccumulator
+    {
+        private final LongBigArray sums = new LongBigArray();
+        private final BooleanBigArray hasValue = new BooleanBigArray();
+
+        public LongSumGroupedAccumulator(AccumulatorStateDescriptor stateDescriptor, Optional<Integer> inputChannel, Optional<Integer> maskChannel, Type finalType)
+        {
+            super(stateDescriptor, inputChannel, maskChannel, finalType);
+        }
+
+        @Override
+        protected long getStateSize()
+        {
+            return sums.sizeOf() + hasValue.sizeOf();
+        }
+
+        @Override
+        protected void ensureCapacity(long groupCount)
+        {
+            sums.ensureCapacity(groupCount);
+            hasValue.ensureCapacity(groupCount);
+        }
+
+        @Override
+        protected void accumulate(int[] groupIds, long[] values, int count)
+        {
+            for (int i = 0; i < count; i++) {
+                int groupId = groupIds[i];
+                sums.set(groupId, BigintOperators.add(sums.get(groupId), values[i]));
+                hasValue.set(groupId, true);
+            }
+        }
+
+        @Override
+        protected void combine(int groupId, Object state)
+        {
+            NullableLongState longState = (NullableLongState) state;
+            if (!longState.isNull()) {
+                sums.set(groupId, BigintOperators.add(sums.get(groupId), longState.getLong()));
+                hasValue.set(groupId, true);
+            }
+        }
+
+        @Override
+        protected void copyToState(int groupId, Object state)
+        {
+            NullableLongState longState = (NullableLongState) state;
+            longState.setNull(!hasValue.get(groupId));
+            longState.setLong(sums.get(groupId));
+        }
+
+        @Override
+        public void evaluateFinal(int groupId, BlockBuilder output)
+        {
+            if (hasValue.get(groupId)) {
+                BIGINT.writeLong(output, sums.get(groupId));
+            }
+            else {
+                output.appendNull();
+            }
+        }
+    }
+
+    private static final class DoubleSumGroupedAccumulator
+            extends VectorizedGroupedAccumulator
+    {
+        private final DoubleBigArray sums = new DoubleBigArray();
+        private final BooleanBigArray hasValue = new BooleanBigArray();
+
+        public DoubleSumGroupedAccumulator(AccumulatorStateDescriptor stateDescriptor, Optional<Integer> inputChannel, Optional<Integer> maskChannel, Type finalType)
+        {
+            super(stateDescriptor, inputChannel, maskChannel, finalType);
+        }
+
+        @Override
+        protected long getStateSize()
+        {
+            return sums.sizeOf() + hasValue.sizeOf();
+        }
+
+        @Override
+        protected void ensureCapacity(long groupCount)
+        {
+            sums.ensureCapacity(groupCount);
+            hasValue.ensureCapacity(groupCount);
+        }
+
+        @Override
+        protected void accumulate(int[] groupIds, long[] values, int count)
+        {
+            for (int i = 0; i < count; i++) {
+                int groupId = groupIds[i];
+                sums.add(groupId, longBitsToDouble(values[i]));
+                hasValue.set(groupId, true);
+            }
+        }
+
+        @Override
+        protected void combine(int groupId, Object state)
+        {
+            NullableDoubleState doubleState = (NullableDoubleState) state;
+            if (!doubleState.isNull()) {
+                sums.add(groupId, doubleState.getDouble());
+                hasValue.set(groupId, true);
+            }
+        }
+
+        @Override
+        protected void copyToState(int groupId, Object state)
+        {
+            NullableDoubleState doubleState = (NullableDoubleState) state;
+            doubleState.setNull(!hasValue.get(groupId));
+            doubleState.setDouble(sums.get(groupId));
+        }
+
+        @Override
+        public void evaluateFinal(int groupId, BlockBuilder output)
+        {
+            if (hasValue.get(groupId)) {
+                DOUBLE.writeDouble(output, sums.get(groupId));
+            }
+            else {
+                output.appendNull();
+            }
+        }
+    }
+
+    private static final class LongMinMaxGroupedAccumulator
+            extends VectorizedGroupedAccumulator
+    {
+        private final LongBigArray extremes = new LongBigArray();
+        private final BooleanBigArray hasValue = new BooleanBigArray();
+        private final boolean min;
+
+        public LongMinMaxGroupedAccumulator(AccumulatorStateDescriptor stateDescriptor, Optional<Integer> inputChannel, Optional<Integer> maskChannel, Type finalType, boolean min)
+        {
+            super(stateDescriptor, inputChannel, maskChannel, finalType);
+            this.min = min;
+        }
+
+        @Override
+        protected long getStateSize()
+        {
+            return extremes.sizeOf() + hasValue.sizeOf();
+        }
+
+        @Override
+        protected void ensureCapacity(long groupCount)
+        {
+            extremes.ensureCapacity(groupCount);
+            hasValue.ensureCapacity(groupCount);
+        }
+
+        @Override
+        protected void accumulate(int[] groupIds, long[] values, int count)
+        {
+            if (min) {
+                for (int i = 0; i < count; i++) {
+                    int groupId = groupIds[i];
+                    if (!hasValue.get(groupId) || values[i] < extremes.get(groupId)) {
+                        extremes.set(groupId, values[i]);
+                        hasValue.set(groupId, true);
+                    }
+                }
+            }
+            else {
+                for (int i = 0; i < count; i++) {
+                    int groupId = groupIds[i];
+                    if (!hasValue.get(groupId) || values[i] > extremes.get(groupId)) {
+                        extremes.set(groupId, values[i]);
+                        hasValue.set(groupId, true);
+                    }
+                }
+            }
+        }
+
+        @Override
+        protected void combine(int groupId, Object state)
+        {
+            NullableLongState longState = (NullableLongState) state;
+            if (longState.isNull()) {
+                return;
+            }
+            long value = longState.getLong();
+            if (!hasValue.get(groupId) || (min ? value < extremes.get(groupId) : value > extremes.get(groupId))) {
+                extremes.set(groupId, value);
+                hasValue.set(groupId, true);
+            }
+        }
+
+        @Override
+        protected void copyToState(int groupId, Object state)
+        {
+            NullableLongState longState = (NullableLongState) state;
+            longState.setNull(!hasValue.get(groupId));
+            longState.setLong(extremes.get(groupId));
+        }
+
+        @Override
+        public void evaluateFinal(int groupId, BlockBuilder output)
+        {
+            if (hasValue.get(groupId)) {
+                BIGINT.writeLong(output, extremes.get(groupId));
+            }
+            else {
+                output.appendNull();
+            }
+        }
+    }
+
+    private static final class AverageGroupedAccumulator
+            extends VectorizedGroupedAccumulator
+    {
+        private final LongBigArray counts = new LongBigArray();
+        private final DoubleBigArray sums = new DoubleBigArray();
+        private final boolean doubleInput;
+
+        public AverageGroupedAccumulator(AccumulatorStateDescriptor stateDescriptor, Optional<Integer> inputChannel, Optional<Integer> maskChannel, Type finalType, boolean doubleInput)
+        {
+            super(stateDescriptor, inputChannel, maskChannel, finalType);
+            this.doubleInput = doubleInput;
+        }
+
+        @Override
+        protected long getStateSize()
+        {
+            return counts.sizeOf() + sums.sizeOf();
+        }
+
+        @Override
+        protected void ensureCapacity(long groupCount)
+        {
+            counts.ensureCapacity(groupCount);
+            sums.ensureCapacity(groupCount);
+        }
+
+        @Override
+        protected void accumulate(int[] groupIds, long[] values, int count)
+        {
+            if (doubleInput) {
+                for (int i = 0; i < count; i++) {
+                    counts.increment(groupIds[i]);
+                    sums.add(groupIds[i], longBitsToDouble(values[i]));
+                }
+            }
+            else {
+                for (int i = 0; i < count; i++) {
+                    counts.increment(groupIds[i]);
+                    sums.add(groupIds[i], values[i]);
+                }
+            }
+        }
+
+        @Override
+        protected void combine(int groupId, Object state)
+        {
+            LongAndDoubleState averageState = (LongAndDoubleState) state;
+            counts.add(groupId, averageState.getLong());
+            sums.add(groupId, averageState.getDouble());
+        }
+
+        @Override
+        protected void copyToState(int groupId, Object state)
+        {
+            LongAndDoubleState averageState = (LongAndDoubleState) state;
+            averageState.setLong(counts.get(groupId));
+            averageState.setDouble(sums.get(groupId));
+        }
+
+        @Override
+        public void evaluateFinal(int groupId, BlockBuilder output)
+        {
+            long count = counts.get(groupId);
+            if (count == 0) {
+                output.appendNull();
+            }
+            else {
+                DOUBLE.writeDouble(output, sums.get(groupId) / count);
+            }
+        }
+    }
+}
@@ -19,20 +19,26 @@ import com.facebook.presto.operator.WorkProcessor.ProcessState;
 import com.google.common.util.concurrent.ListenableFuture;
 import com.google.common.util.concurrent.SettableFuture;
 import com.google.errorprone.annotations.ThreadSafe;
-import com.google.errorprone.annotations.concurrent.GuardedBy;
-import jakarta.annotation.Nullable;
 
-import java.util.ArrayList;
-import java.util.List;
-import java.util.concurrent.BlockingQueue;
-import java.util.concurrent.LinkedBlockingDeque;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Consumer;
 
-import static com.google.common.base.Preconditions.checkState;
 import static com.google.common.util.concurrent.Futures.immediateFuture;
 import static java.util.Objects.requireNonNull;
 
+/**
+ * Buffer between the sinks of a local exchange and one of its consumers.
+ * <p>
+ * Producers and the consumer never take a lock: pages are handed off through a
+ * non-blocking queue and the reader's blocked future is published through an
+ * atomic reference. Producers announce themselves in {@code pendingAdds} before
+ * checking {@code finishing}, so the source is only reported as finished once no
+ * producer can still enqueue a page that raced with {@link #finish} or {@link #close}.
+ */
 @ThreadSafe
 public class LocalExchangeSource
 {
@@ -40,14 +46,16 @@ public class LocalExchangeSource
 
     private final Consumer<LocalExchangeSource> onFinish;
 
-    private final BlockingQueue<PageReference> buffer = new LinkedBlockingDeque<>();
+    private final Queue<PageReference> buffer = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger bufferedPages = new AtomicInteger();
     private final AtomicLong bufferedBytes = new AtomicLong();
+    private final AtomicInteger pendingAdds = new AtomicInteger();
 
-    @Nullable
-    @GuardedBy("this")
-    private SettableFuture<?> notEmptyFuture; // null indicates no callback present
+    // null indicates no callback present
+    private final AtomicReference<SettableFuture<?>> notEmptyFuture = new AtomicReference<>();
 
     private volatile boolean finishing;
+    private volatile boolean closed;
 
     public LocalExchangeSource(Consumer<LocalExchangeSource> onFinish)
     {
@@ -58,41 +66,46 @@ public class LocalExchangeSource
     {
         // This must be lock free to assure task info creation is fast
         // Note: the stats my be internally inconsistent
-        return new LocalExchangeBufferInfo(bufferedBytes.get(), buffer.size());
+        return new LocalExchangeBufferInfo(bufferedBytes.get(), bufferedPages.get());
     }
 
     void addPage(PageReference pageReference)
     {
-        checkNotHoldsLock();
-
+        pendingAdds.incrementAndGet();
         boolean added = false;
-        SettableFuture<?> notEmptyFuture = null;
-        long retainedSizeInBytes = pageReference.getRetainedSizeInBytes();
-        synchronized (this) {
+        try {
             // ignore pages after finish
             if (!finishing) {
                 // buffered bytes must be updated before adding to the buffer to assure
                 // the count does not go negative
-                bufferedBytes.addAndGet(retainedSizeInBytes);
+                bufferedBytes.addAndGet(pageReference.getRetainedSizeInBytes());
+                bufferedPages.incrementAndGet();
                 buffer.add(pageReference);
                 added = true;
-            }
 
-            // we just added a page (or we are finishing) so we are not empty
-            if (this.notEmptyFuture != null) {
-                notEmptyFuture = this.notEmptyFuture;
-                this.notEmptyFuture = null;
+                // a concurrent close may have drained the buffer before this page was added
+                if (closed) {
+                    drainBuffer();
+                }
             }
         }
+        finally {
+            pendingAdds.decrementAndGet();
+        }
 
         if (!added) {
-            // dereference the page outside of lock
             pageReference.removePage();
         }
 
-        // notify readers outside of lock since this may result in a callback
-        if (notEmptyFuture != null) {
-            notEmptyFuture.set(null);
+        // we just added a page (or we are finishing) so we are not empty; the
+        // plain read avoids an atomic write per page when no reader is blocked
+        if (notEmptyFuture.get() != null) {
+            notifyReaders();
+        }
+
+        if (finishing) {
+            // the finishing source may have been waiting for this add to complete
+            checkFinished();
         }
     }
 
@@ -119,17 +132,14 @@ public class LocalExchangeSource
 
     public Page removePage()
     {
-        checkNotHoldsLock();
-
-        // NOTE: there is no need to acquire a lock here. The buffer is concurrent
-        // and buffered bytes is not expected to be consistent with the buffer (only
-        // best effort).
+        // NOTE: buffered bytes is not expected to be consistent with the buffer (only best effort).
         PageReference pageReference = buffer.poll();
         if (pageReference == null) {
             return null;
         }
+        bufferedPages.decrementAndGet();
 
-        // dereference the page outside of lock, since may trigger a callback
+        // dereference the page, since may trigger a callback
         Page page = pageReference.removePage();
         bufferedBytes.addAndGet(-page.getRetainedSizeInBytes());
 
@@ -140,105 +150,91 @@ public class LocalExchangeSource
 
     public ListenableFuture<?> waitForReading()
     {
-        checkNotHoldsLock();
-
         //  Fast path, definitely not blocked
         if (finishing || !buffer.isEmpty()) {
             return NOT_BLOCKED;
         }
 
-        synchronized (this) {
-            // re-check after synchronizing
-            if (finishing || !buffer.isEmpty()) {
+        // if we need to block readers, and the current future is complete, create a new one
+        SettableFuture<?> future = notEmptyFuture.get();
+        if (future == null) {
+            SettableFuture<?> newFuture = SettableFuture.create();
+            future = notEmptyFuture.compareAndSet(null, newFuture) ? newFuture : notEmptyFuture.get();
+            if (future == null) {
+                // a producer completed the future in between
                 return NOT_BLOCKED;
             }
-            // if we need to block readers, and the current future is complete, create a new one
-            if (notEmptyFuture == null) {
-                notEmptyFuture = SettableFuture.create();
-            }
-            return notEmptyFuture;
         }
+
+        // re-check after publishing the future, a producer may have added a page
+        // before it could observe the future
+        if (finishing || !buffer.isEmpty()) {
+            notifyReaders();
+            return NOT_BLOCKED;
+        }
+        return future;
     }
 
     public boolean isFinished()
     {
-        // Common case fast-path without synchronizing
-        if (!finishing) {
-            return false;
-        }
-        synchronized (this) {
-            // Synchronize to ensure effects of an in-flight close() or finish() are observed
-            return finishing && buffer.isEmpty();
-        }
+        // the order of reads matters: a producer that has not observed finishing
+        // is counted in pendingAdds until its page is in the buffer
+        return finishing && pendingAdds.get() == 0 && buffer.isEmpty();
     }
 
     public void finish()
     {
-        checkNotHoldsLock();
-
-        SettableFuture<?> notEmptyFuture;
-        synchronized (this) {
-            if (finishing) {
-                return;
-            }
-            finishing = true;
-
-            notEmptyFuture = this.notEmptyFuture;
-            this.notEmptyFuture = null;
+        if (finishing) {
+            return;
         }
+        finishing = true;
 
-        // notify readers outside of lock since this may result in a callback
-        if (notEmptyFuture != null) {
-            notEmptyFuture.set(null);
-        }
+        // notify readers since this may result in a callback
+        notifyReaders();
 
         checkFinished();
     }
 
     public void close()
     {
-        checkNotHoldsLock();
-
-        List<PageReference> remainingPages = new ArrayList<>();
-        SettableFuture<?> notEmptyFuture;
-        synchronized (this) {
-            finishing = true;
+        finishing = true;
+        closed = true;
 
-            buffer.drainTo(remainingPages);
-            bufferedBytes.addAndGet(-remainingPages.stream().mapToLong(PageReference::getRetainedSizeInBytes).sum());
+        // free all the remaining pages
+        drainBuffer();
 
-            notEmptyFuture = this.notEmptyFuture;
-            this.notEmptyFuture = null;
-        }
+        // notify readers since this may result in a callback
+        notifyReaders();
 
-        // free all the remaining pages
-        remainingPages.forEach(PageReference::removePage);
+        // a producer that is still adding a page fires the finished event once it is done
+        checkFinished();
+    }
 
-        // notify readers outside of lock since this may result in a callback
-        if (notEmptyFuture != null) {
-            notEmptyFuture.set(null);
+    private void drainBuffer()
+    {
+        PageReference pageReference;
+        while ((pageReference = buffer.poll()) != null) {
+            bufferedPages.decrementAndGet();
+            bufferedBytes.addAndGet(-pageReference.getRetainedSizeInBytes());
+            pageReference.removePage();
         }
+    }
 
-        // this will always fire the finished event
-        checkState(isFinished(), "Expected buffer to be finished");
-        checkFinished();
+    private void notifyReaders()
+    {
+        SettableFuture<?> future = notEmptyFuture.getAndSet(null);
+        if (future != null) {
+            future.set(null);
+        }
     }
 
     private void checkFinished()
     {
-        checkNotHoldsLock();
-
         if (isFinished()) {
-            // notify finish listener outside of lock, since it may make a callback
             // NOTE: due the race in this method, the onFinish may be called multiple times
             // it is expected that the implementer handles this (which is why this source
             // is passed to the function)
             onFinish.accept(this);
         }
     }
-
-    private void checkNotHoldsLock()
-    {
-        checkState(!Thread.holdsLock(this), "Can not execute this method while holding the lock");
-    }
 }
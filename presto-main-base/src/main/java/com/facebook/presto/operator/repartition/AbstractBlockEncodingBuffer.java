@@ -135,6 +135,14 @@ public abstract class AbstractBlockEncodingBuffer
     }
 
     public static BlockEncodingBuffer createBlockEncodingBuffers(DecodedBlockNode decodedBlockNode, ArrayAllocator bufferAllocator, boolean isNested)
+    {
+        return createBlockEncodingBuffers(decodedBlockNode, bufferAllocator, isNested, false);
+    }
+
+    /**
+     * @param packedLongEncodingEnabled whether top level long columns are serialized with the packed long array encoding
+     */
+    public static BlockEncodingBuffer createBlockEncodingBuffers(DecodedBlockNode decodedBlockNode, ArrayAllocator bufferAllocator, boolean isNested, boolean packedLongEncodingEnabled)
     {
         requireNonNull(decodedBlockNode, "decodedBlockNode is null");
         requireNonNull(bufferAllocator, "bufferAllocator is null");
@@ -158,7 +166,7 @@ public abstract class AbstractBlockEncodingBuffer
         verify(!(decodedBlock instanceof RunLengthEncodedBlock), "Nested RLEs and dictionaries are not supported");
 
         if (decodedBlock instanceof LongArrayBlock) {
-            return new LongArrayBlockEncodingBuffer(bufferAllocator, isNested);
+            return new LongArrayBlockEncodingBuffer(bufferAllocator, isNested, packedLongEncodingEnabled && !isNested);
         }
 
         if (decodedBlock instanceof Int128ArrayBlock) {
@@ -15,6 +15,7 @@ package com.facebook.presto.operator.repartition;
 
 import com.facebook.presto.common.block.ArrayAllocator;
 import com.facebook.presto.common.block.Block;
+import com.facebook.presto.common.block.PackedLongArrayBlockEncoding;
 import com.google.common.annotations.VisibleForTesting;
 import io.airlift.slice.SliceOutput;
 import org.openjdk.jol.info.ClassLayout;
@@ -22,9 +23,13 @@ import org.openjdk.jol.info.ClassLayout;
 import static com.facebook.presto.common.array.Arrays.ExpansionFactor.LARGE;
 import static com.facebook.presto.common.array.Arrays.ExpansionOption.PRESERVE;
 import static com.facebook.presto.common.array.Arrays.ensureCapacity;
+import static com.facebook.presto.common.block.PackedLongArrayBlockEncoding.writeValues;
 import static com.facebook.presto.operator.UncheckedByteArrays.setLongUnchecked;
 import static com.google.common.base.MoreObjects.toStringHelper;
+import static io.airlift.slice.SizeOf.SIZE_OF_BYTE;
 import static io.airlift.slice.SizeOf.SIZE_OF_INT;
+import static io.airlift.slice.Slices.EMPTY_SLICE;
+import static io.airlift.slice.Slices.wrappedBuffer;
 import static java.util.Objects.requireNonNull;
 import static sun.misc.Unsafe.ARRAY_LONG_INDEX_SCALE;
 
@@ -35,15 +40,24 @@ public class LongArrayBlockEncodingBuffer
     static final int POSITION_SIZE = Long.BYTES + Byte.BYTES;
 
     private static final String NAME = "LONG_ARRAY";
+    private static final String PACKED_NAME = PackedLongArrayBlockEncoding.NAME;
     private static final int INSTANCE_SIZE = ClassLayout.parseClass(LongArrayBlockEncodingBuffer.class).instanceSize();
 
+    private final boolean packed;
+
     private byte[] valuesBuffer;
     private int valuesBufferIndex;
     private int estimatedValueBufferMaxCapacity;
 
     public LongArrayBlockEncodingBuffer(ArrayAllocator bufferAllocator, boolean isNested)
+    {
+        this(bufferAllocator, isNested, false);
+    }
+
+    public LongArrayBlockEncodingBuffer(ArrayAllocator bufferAllocator, boolean isNested, boolean packed)
     {
         super(bufferAllocator, isNested);
+        this.packed = packed;
     }
 
     @Override
@@ -68,13 +82,17 @@ public class LongArrayBlockEncodingBuffer
     @Override
     public void serializeTo(SliceOutput output)
     {
-        writeLengthPrefixedString(output, NAME);
+        writeLengthPrefixedString(output, packed ? PACKED_NAME : NAME);
 
         output.writeInt(bufferedPositionCount);
 
         serializeNullsTo(output);
 
-        if (valuesBufferIndex > 0) {
+        if (packed) {
+            // the values buffer holds only the non-null values, as the packed encoding expects
+            writeValues(output, valuesBufferIndex > 0 ? wrappedBuffer(valuesBuffer, 0, valuesBufferIndex) : EMPTY_SLICE, valuesBufferIndex / ARRAY_LONG_INDEX_SCALE);
+        }
+        else if (valuesBufferIndex > 0) {
             output.appendBytes(valuesBuffer, 0, valuesBufferIndex);
         }
     }
@@ -108,6 +126,14 @@ public class LongArrayBlockEncodingBuffer
     @Override
     public long getSerializedSizeInBytes()
     {
+        if (packed) {
+            // an upper bound, as the values are never written larger than as plain longs
+            return PACKED_NAME.length() + SIZE_OF_INT +     // NAME
+                    SIZE_OF_INT +                           // positionCount
+                    getNullsBufferSerializedSizeInBytes() + // nulls buffer
+                    SIZE_OF_BYTE +                          // packing mode
+                    valuesBufferIndex;                      // values buffer
+        }
         return NAME.length() + SIZE_OF_INT +    // NAME
                 SIZE_OF_INT +                   // positionCount
                 getNullsBufferSerializedSizeInBytes() +   // nulls buffer
@@ -122,6 +148,7 @@ public class LongArrayBlockEncodingBuffer
                 .add("estimatedValueBufferMaxCapacity", estimatedValueBufferMaxCapacity)
                 .add("valuesBufferCapacity", valuesBuffer == null ? 0 : valuesBuffer.length)
                 .add("valuesBufferIndex", valuesBufferIndex)
+                .add("packed", packed)
                 .toString();
     }
 
@@ -104,7 +104,8 @@ public class OptimizedPartitionedOutputOperator
             OptionalInt nullChannel,
             OutputBuffer outputBuffer,
             PagesSerdeFactory serdeFactory,
-            DataSize maxMemory)
+            DataSize maxMemory,
+            boolean packedLongEncodingEnabled)
     {
         this.operatorContext = requireNonNull(operatorContext, "operatorContext is null");
         this.pagePreprocessor = requireNonNull(pagePreprocessor, "pagePreprocessor is null");
@@ -118,6 +119,7 @@ public class OptimizedPartitionedOutputOperator
                 serdeFactory,
                 sourceTypes,
                 maxMemory,
+                packedLongEncodingEnabled,
                 operatorContext);
 
         operatorContext.setInfoSupplier(pagePartitioner.getPartitionedOutputInfoSupplier());
@@ -262,11 +264,18 @@ public class OptimizedPartitionedOutputOperator
     {
         private final OutputBuffer outputBuffer;
         private final DataSize maxMemory;
+        private final boolean packedLongEncodingEnabled;
 
         public OptimizedPartitionedOutputFactory(OutputBuffer outputBuffer, DataSize maxMemory)
+        {
+            this(outputBuffer, maxMemory, false);
+        }
+
+        public OptimizedPartitionedOutputFactory(OutputBuffer outputBuffer, DataSize maxMemory, boolean packedLongEncodingEnabled)
         {
             this.outputBuffer = requireNonNull(outputBuffer, "outputBuffer is null");
             this.maxMemory = requireNonNull(maxMemory, "maxMemory is null");
+            this.packedLongEncodingEnabled = packedLongEncodingEnabled;
         }
 
         @Override
@@ -291,7 +300,8 @@ public class OptimizedPartitionedOutputOperator
                     outputPartitioning.get().getNullChannel(),
                     outputBuffer,
                     serdeFactory,
-                    maxMemory);
+                    maxMemory,
+                    packedLongEncodingEnabled);
         }
     }
 
@@ -310,6 +320,7 @@ public class OptimizedPartitionedOutputOperator
         private final OutputBuffer outputBuffer;
         private final PagesSerdeFactory serdeFactory;
         private final DataSize maxMemory;
+        private final boolean packedLongEncodingEnabled;
 
         public OptimizedPartitionedOutputOperatorFactory(
                 int operatorId,
@@ -323,7 +334,8 @@ public class OptimizedPartitionedOutputOperator
                 OptionalInt nullChannel,
                 OutputBuffer outputBuffer,
                 PagesSerdeFactory serdeFactory,
-                DataSize maxMemory)
+                DataSize maxMemory,
+                boolean packedLongEncodingEnabled)
         {
             this.operatorId = operatorId;
             this.planNodeId = requireNonNull(planNodeId, "planNodeId is null");
@@ -337,6 +349,7 @@ public class OptimizedPartitionedOutputOperator
             this.outputBuffer = requireNonNull(outputBuffer, "outputBuffer is null");
             this.serdeFactory = requireNonNull(serdeFactory, "serdeFactory is null");
             this.maxMemory = requireNonNull(maxMemory, "maxMemory is null");
+            this.packedLongEncodingEnabled = packedLongEncodingEnabled;
         }
 
         @Override
@@ -354,7 +367,8 @@ public class OptimizedPartitionedOutputOperator
                     nullChannel,
                     outputBuffer,
                     serdeFactory,
-                    maxMemory);
+                    maxMemory,
+                    packedLongEncodingEnabled);
         }
 
         @Override
@@ -377,7 +391,8 @@ public class OptimizedPartitionedOutputOperator
                     nullChannel,
                     outputBuffer,
                     serdeFactory,
-                    maxMemory);
+                    maxMemory,
+                    packedLongEncodingEnabled);
         }
     }
 
@@ -421,6 +436,7 @@ public class OptimizedPartitionedOutputOperator
                 PagesSerdeFactory serdeFactory,
                 List<Type> sourceTypes,
                 DataSize maxMemory,
+                boolean packedLongEncodingEnabled,
                 OperatorContext operatorContext)
         {
             this.partitionFunction = requireNonNull(partitionFunction, "pagePartitioner is null");
@@ -453,7 +469,7 @@ public class OptimizedPartitionedOutputOperator
 
             partitionBuffers = new PartitionBuffer[partitionCount];
             for (int i = 0; i < partitionCount; i++) {
-                partitionBuffers[i] = new PartitionBuffer(i, sourceTypes.size(), partitionBufferCapacity, pagesAdded, rowsAdded, serde, bufferAllocator, operatorContext);
+                partitionBuffers[i] = new PartitionBuffer(i, sourceTypes.size(), partitionBufferCapacity, pagesAdded, rowsAdded, serde, bufferAllocator, packedLongEncodingEnabled, operatorContext);
             }
 
             this.sourceTypes = sourceTypes;
@@ -627,6 +643,7 @@ public class OptimizedPartitionedOutputOperator
         private final int capacity;
         private final int channelCount;
         private final ArrayAllocator bufferAllocator;
+        private final boolean packedLongEncodingEnabled;
 
         private int[] positions;   // the default positions array for top level BlockEncodingBuffer
         private int positionCount;  // number of positions to be copied for this partition
@@ -636,7 +653,7 @@ public class OptimizedPartitionedOutputOperator
         private boolean bufferFull;
         private OperatorContext operatorContext;
 
-        PartitionBuffer(int partition, int channelCount, int capacity, AtomicLong pagesAdded, AtomicLong rowsAdded, PagesSerde serde, ArrayAllocator bufferAllocator, OperatorContext operatorContext)
+        PartitionBuffer(int partition, int channelCount, int capacity, AtomicLong pagesAdded, AtomicLong rowsAdded, PagesSerde serde, ArrayAllocator bufferAllocator, boolean packedLongEncodingEnabled, OperatorContext operatorContext)
         {
             this.partition = partition;
             this.channelCount = channelCount;
@@ -645,6 +662,7 @@ public class OptimizedPartitionedOutputOperator
             this.rowsAdded = requireNonNull(rowsAdded, "rowsAdded is null");
             this.serde = requireNonNull(serde, "serde is null");
             this.bufferAllocator = requireNonNull(bufferAllocator, "bufferAllocator is null");
+            this.packedLongEncodingEnabled = packedLongEncodingEnabled;
             this.operatorContext = requireNonNull(operatorContext, "operatorContext is null");
             this.lifespan = operatorContext.getDriverContext().getLifespan();
         }
@@ -721,7 +739,7 @@ public class OptimizedPartitionedOutputOperator
             if (blockEncodingBuffers == null) {
                 BlockEncodingBuffer[] buffers = new BlockEncodingBuffer[channelCount];
                 for (int i = 0; i < channelCount; i++) {
-                    buffers[i] = createBlockEncodingBuffers(decodedBlocks[i], bufferAllocator, false);
+                    buffers[i] = createBlockEncodingBuffers(decodedBlocks[i], bufferAllocator, false, packedLongEncodingEnabled);
                 }
                 blockEncodingBuffers = buffers;
             }
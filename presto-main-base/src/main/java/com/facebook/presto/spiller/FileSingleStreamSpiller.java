@@ -48,10 +48,14 @@ import static com.facebook.presto.spi.StandardErrorCode.GENERIC_SPILL_FAILURE;
 import static com.facebook.presto.spi.page.PagesSerdeUtil.writeSerializedPage;
 import static com.facebook.presto.spiller.FileSingleStreamSpillerFactory.SPILL_FILE_PREFIX;
 import static com.facebook.presto.spiller.FileSingleStreamSpillerFactory.SPILL_FILE_SUFFIX;
+import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkState;
 import static com.google.common.collect.Iterators.transform;
+import static java.lang.Math.toIntExact;
 import static java.lang.String.format;
 import static java.nio.file.StandardOpenOption.APPEND;
+import static java.nio.file.StandardOpenOption.READ;
+import static java.nio.file.StandardOpenOption.WRITE;
 import static java.util.Objects.requireNonNull;
 
 @NotThreadSafe
@@ -60,6 +64,7 @@ public class FileSingleStreamSpiller
 {
     @VisibleForTesting
     static final int BUFFER_SIZE = 4 * 1024;
+    private static final int IO_ALIGNMENT = 4 * 1024;
 
     private final FileHolder targetFile;
     private final Closer closer = Closer.create();
@@ -68,6 +73,8 @@ public class FileSingleStreamSpiller
     private final SpillContext localSpillContext;
     private final LocalMemoryContext memoryContext;
     private final Optional<SpillCipher> spillCipher;
+    private final boolean pipelinedIoEnabled;
+    private final int ioChunkSize;
 
     private final ListeningExecutorService executor;
 
@@ -75,6 +82,7 @@ public class FileSingleStreamSpiller
     private boolean committed;
     private volatile long spilledPagesInMemorySize;
     private ListenableFuture<?> spillInProgress = Futures.immediateFuture(null);
+    private PipelinedSpillOutputStream pipelinedOutput;
 
     public FileSingleStreamSpiller(
             PagesSerde serde,
@@ -84,6 +92,25 @@ public class FileSingleStreamSpiller
             SpillContext spillContext,
             LocalMemoryContext memoryContext,
             Optional<SpillCipher> spillCipher)
+    {
+        this(serde, executor, spillPath, spillerStats, spillContext, memoryContext, spillCipher, false, BUFFER_SIZE);
+    }
+
+    /**
+     * With {@code pipelinedIoEnabled}, pages are serialized into one of two {@code ioBufferSize} buffers
+     * while the other one is written to disk, and read back with the next chunk read ahead.
+     * The buffer size is rounded up to a multiple of the 4kB I/O alignment.
+     */
+    public FileSingleStreamSpiller(
+            PagesSerde serde,
+            ListeningExecutorService executor,
+            Path spillPath,
+            SpillerStats spillerStats,
+            SpillContext spillContext,
+            LocalMemoryContext memoryContext,
+            Optional<SpillCipher> spillCipher,
+            boolean pipelinedIoEnabled,
+            int ioBufferSize)
     {
         this.serde = requireNonNull(serde, "serde is null");
         this.executor = requireNonNull(executor, "executor is null");
@@ -93,6 +120,9 @@ public class FileSingleStreamSpiller
         this.spillCipher = requireNonNull(spillCipher, "spillCipher is null");
         checkState(!spillCipher.isPresent() || !spillCipher.get().isDestroyed(), "spillCipher is already destroyed");
         this.spillCipher.ifPresent(cipher -> closer.register(cipher::destroy));
+        checkArgument(ioBufferSize > 0, "ioBufferSize must be positive");
+        this.pipelinedIoEnabled = pipelinedIoEnabled;
+        this.ioChunkSize = toIntExact(roundUpToAlignment(ioBufferSize));
         // HACK!
         // The writePages() method is called in a separate thread pool and it's possible that
         // these spiller thread can run concurrently with the close() method.
@@ -103,7 +133,8 @@ public class FileSingleStreamSpiller
         // This means we start accounting for the memory before the spiller thread allocates it, and we release the memory reservation
         // before/after the spiller thread allocates that memory -- -- whether before or after depends on whether writePages() is in the
         // middle of execution when close() is called (note that this applies to both readPages() and writePages() methods).
-        this.memoryContext.setBytes(BUFFER_SIZE);
+        // Pipelined I/O additionally holds two chunk buffers for writing, and later two for reading.
+        this.memoryContext.setBytes(pipelinedIoEnabled ? BUFFER_SIZE + 2L * ioChunkSize : BUFFER_SIZE);
         try {
             this.targetFile = closer.register(new FileHolder(Files.createTempFile(spillPath, SPILL_FILE_PREFIX, SPILL_FILE_SUFFIX)));
         }
@@ -117,7 +148,17 @@ public class FileSingleStreamSpiller
     {
         requireNonNull(pageIterator, "pageIterator is null");
         checkNoSpillInProgress();
-        spillInProgress = executor.submit(() -> writePages(pageIterator));
+        long submitted = System.nanoTime();
+        spillInProgress = executor.submit(() -> {
+            long start = System.nanoTime();
+            spillerStats.addToTotalSpillQueueWaitNanos(start - submitted);
+            try {
+                writePages(pageIterator);
+            }
+            finally {
+                spillerStats.addToTotalSpillWriteNanos(System.nanoTime() - start);
+            }
+        });
         return spillInProgress;
     }
 
@@ -150,19 +191,20 @@ public class FileSingleStreamSpiller
     {
         checkState(writable, "Spilling no longer allowed. The spiller has been made non-writable on first read for subsequent reads to be consistent");
         checkState(!committed, "Spilling no longer allowed. Spill file is already committed");
-        try (SliceOutput output = new OutputStreamSliceOutput(targetFile.newOutputStream(APPEND), BUFFER_SIZE)) {
-            while (pageIterator.hasNext()) {
-                Page page = pageIterator.next();
-                spilledPagesInMemorySize += page.getSizeInBytes();
-                // page serialization requires  page.getSizeInBytes() + Integer.BYTES to fit in an integer
-                splitPage(page, DEFAULT_MAX_PAGE_SIZE_IN_BYTES).stream()
-                        .map(serde::serialize)
-                        .forEach(serializedPage -> {
-                            long pageSize = serializedPage.getSizeInBytes();
-                            localSpillContext.updateBytes(pageSize);
-                            spillerStats.addToTotalSpilledBytes(pageSize);
-                            writeSerializedPage(output, serializedPage);
-                        });
+        try {
+            if (pipelinedIoEnabled) {
+                if (pipelinedOutput == null) {
+                    pipelinedOutput = closer.register(new PipelinedSpillOutputStream(targetFile.newAsynchronousFileChannel(WRITE), ioChunkSize, spillerStats));
+                }
+                // the stream outlives this spill, so a partially filled chunk is only pushed out on the first read
+                SliceOutput output = new OutputStreamSliceOutput(pipelinedOutput, BUFFER_SIZE);
+                writePages(pageIterator, output);
+                output.flush();
+            }
+            else {
+                try (SliceOutput output = new OutputStreamSliceOutput(targetFile.newOutputStream(APPEND), BUFFER_SIZE)) {
+                    writePages(pageIterator, output);
+                }
             }
         }
         catch (UncheckedIOException | IOException e) {
@@ -170,6 +212,23 @@ public class FileSingleStreamSpiller
         }
     }
 
+    private void writePages(Iterator<Page> pageIterator, SliceOutput output)
+    {
+        while (pageIterator.hasNext()) {
+            Page page = pageIterator.next();
+            spilledPagesInMemorySize += page.getSizeInBytes();
+            // page serialization requires  page.getSizeInBytes() + Integer.BYTES to fit in an integer
+            splitPage(page, DEFAULT_MAX_PAGE_SIZE_IN_BYTES).stream()
+                    .map(serde::serialize)
+                    .forEach(serializedPage -> {
+                        long pageSize = serializedPage.getSizeInBytes();
+                        localSpillContext.updateBytes(pageSize);
+                        spillerStats.addToTotalSpilledBytes(pageSize);
+                        writeSerializedPage(output, serializedPage);
+                    });
+        }
+    }
+
     private Iterator<Page> readPages()
     {
         checkState(writable, "Repeated reads are disallowed to prevent potential resource leaks");
@@ -181,7 +240,17 @@ public class FileSingleStreamSpiller
             }
 
             checkState(committed, "Cannot read pages since spill file is not committed");
-            InputStream input = closer.register(targetFile.newInputStream());
+            InputStream input;
+            if (pipelinedIoEnabled) {
+                if (pipelinedOutput != null) {
+                    pipelinedOutput.close();
+                    pipelinedOutput = null;
+                }
+                input = closer.register(new ReadAheadSpillInputStream(targetFile.newAsynchronousFileChannel(READ), ioChunkSize, spillerStats));
+            }
+            else {
+                input = closer.register(targetFile.newInputStream());
+            }
             Iterator<Page> deserializedPages = PagesSerdeUtil.readPages(serde, new InputStreamSliceInput(input, BUFFER_SIZE));
             Iterator<Page> compactPages = transform(deserializedPages, Page::compact);
             spillerStats.addToTotalSpilledBytesRead(getSpilledPagesInMemorySize());
@@ -205,6 +274,11 @@ public class FileSingleStreamSpiller
         }
     }
 
+    private static long roundUpToAlignment(long size)
+    {
+        return (size + IO_ALIGNMENT - 1) / IO_ALIGNMENT * IO_ALIGNMENT;
+    }
+
     private void checkNoSpillInProgress()
     {
         checkState(spillInProgress.isDone(), "spill in progress");
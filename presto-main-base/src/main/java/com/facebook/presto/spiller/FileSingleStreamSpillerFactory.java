@@ -41,6 +41,7 @@ import java.util.Optional;
 import static com.facebook.airlift.concurrent.Threads.daemonThreadsNamed;
 import static com.facebook.presto.spi.StandardErrorCode.OUT_OF_SPILL_SPACE;
 import static com.google.common.util.concurrent.MoreExecutors.listeningDecorator;
+import static java.lang.Math.toIntExact;
 import static java.lang.String.format;
 import static java.nio.file.Files.createDirectories;
 import static java.nio.file.Files.delete;
@@ -66,6 +67,8 @@ public class FileSingleStreamSpillerFactory
     private final SpillerStats spillerStats;
     private final double maxUsedSpaceThreshold;
     private final boolean spillEncryptionEnabled;
+    private final boolean spillPipelinedIoEnabled;
+    private final int spillIoBufferSize;
     private int roundRobinIndex;
 
     @Inject
@@ -80,7 +83,9 @@ public class FileSingleStreamSpillerFactory
                 requireNonNull(featuresConfig, "featuresConfig is null").getSpillerSpillPaths(),
                 requireNonNull(featuresConfig, "featuresConfig is null").getSpillMaxUsedSpaceThreshold(),
                 requireNonNull(nodeSpillConfig, "nodeSpillConfig is null").getSpillCompressionCodec(),
-                requireNonNull(nodeSpillConfig, "nodeSpillConfig is null").isSpillEncryptionEnabled());
+                requireNonNull(nodeSpillConfig, "nodeSpillConfig is null").isSpillEncryptionEnabled(),
+                nodeSpillConfig.isSpillPipelinedIoEnabled(),
+                toIntExact(nodeSpillConfig.getSpillIoBufferSize().toBytes()));
     }
 
     @VisibleForTesting
@@ -92,6 +97,21 @@ public class FileSingleStreamSpillerFactory
             double maxUsedSpaceThreshold,
             CompressionCodec spillCompressionCodec,
             boolean spillEncryptionEnabled)
+    {
+        this(executor, blockEncodingSerde, spillerStats, spillPaths, maxUsedSpaceThreshold, spillCompressionCodec, spillEncryptionEnabled, false, FileSingleStreamSpiller.BUFFER_SIZE);
+    }
+
+    @VisibleForTesting
+    public FileSingleStreamSpillerFactory(
+            ListeningExecutorService executor,
+            BlockEncodingSerde blockEncodingSerde,
+            SpillerStats spillerStats,
+            List<Path> spillPaths,
+            double maxUsedSpaceThreshold,
+            CompressionCodec spillCompressionCodec,
+            boolean spillEncryptionEnabled,
+            boolean spillPipelinedIoEnabled,
+            int spillIoBufferSize)
     {
         this.serdeFactory = new PagesSerdeFactory(requireNonNull(blockEncodingSerde, "blockEncodingSerde is null"), spillCompressionCodec);
         this.executor = requireNonNull(executor, "executor is null");
@@ -113,6 +133,8 @@ public class FileSingleStreamSpillerFactory
         });
         this.maxUsedSpaceThreshold = maxUsedSpaceThreshold;
         this.spillEncryptionEnabled = spillEncryptionEnabled;
+        this.spillPipelinedIoEnabled = spillPipelinedIoEnabled;
+        this.spillIoBufferSize = spillIoBufferSize;
         this.roundRobinIndex = 0;
     }
 
@@ -154,7 +176,7 @@ public class FileSingleStreamSpillerFactory
             spillCipher = Optional.of(new AesSpillCipher());
         }
         PagesSerde serde = serdeFactory.createPagesSerdeForSpill(spillCipher);
-        return new FileSingleStreamSpiller(serde, executor, getNextSpillPath(), spillerStats, spillContext, memoryContext, spillCipher);
+        return new FileSingleStreamSpiller(serde, executor, getNextSpillPath(), spillerStats, spillContext, memoryContext, spillCipher, spillPipelinedIoEnabled, spillIoBufferSize);
     }
 
     private synchronized Path getNextSpillPath()
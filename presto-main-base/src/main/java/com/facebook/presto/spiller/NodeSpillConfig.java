@@ -14,7 +14,9 @@
 package com.facebook.presto.spiller;
 
 import com.facebook.airlift.configuration.Config;
+import com.facebook.airlift.configuration.ConfigDescription;
 import com.facebook.airlift.units.DataSize;
+import com.facebook.airlift.units.MinDataSize;
 import com.facebook.presto.CompressionCodec;
 import jakarta.validation.constraints.NotNull;
 
@@ -27,6 +29,8 @@ public class NodeSpillConfig
 
     private CompressionCodec spillCompressionCodec = CompressionCodec.NONE;
     private boolean spillEncryptionEnabled;
+    private boolean spillPipelinedIoEnabled;
+    private DataSize spillIoBufferSize = new DataSize(1, DataSize.Unit.MEGABYTE);
 
     @NotNull
     public DataSize getMaxSpillPerNode()
@@ -103,4 +107,32 @@ public class NodeSpillConfig
         this.tempStorageBufferSize = tempStorageBufferSize;
         return this;
     }
+
+    public boolean isSpillPipelinedIoEnabled()
+    {
+        return spillPipelinedIoEnabled;
+    }
+
+    @Config("experimental.spill-pipelined-io-enabled")
+    @ConfigDescription("Overlap spill page serialization with asynchronous, chunked file writes and read back spill files with read-ahead")
+    public NodeSpillConfig setSpillPipelinedIoEnabled(boolean spillPipelinedIoEnabled)
+    {
+        this.spillPipelinedIoEnabled = spillPipelinedIoEnabled;
+        return this;
+    }
+
+    @NotNull
+    @MinDataSize("4kB")
+    public DataSize getSpillIoBufferSize()
+    {
+        return spillIoBufferSize;
+    }
+
+    @Config("experimental.spill-io-buffer-size")
+    @ConfigDescription("Size of each of the two buffers used by pipelined spill I/O; rounded up to a multiple of 4kB")
+    public NodeSpillConfig setSpillIoBufferSize(DataSize spillIoBufferSize)
+    {
+        this.spillIoBufferSize = spillIoBufferSize;
+        return this;
+    }
 }
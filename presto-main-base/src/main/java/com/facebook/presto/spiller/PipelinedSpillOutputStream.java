@@ -0,0 +1,158 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.spiller;
+
+import com.facebook.airlift.concurrent.NotThreadSafe;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.AsynchronousFileChannel;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkPositionIndexes;
+import static com.google.common.base.Preconditions.checkState;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Writes a spill file through two buffers of {@code chunkSize} bytes.
+ * <p>
+ * While one buffer is written by the {@link AsynchronousFileChannel}, the caller keeps serializing
+ * into the other one, and only blocks when it fills up before the previous write has completed.
+ * Only full buffers are written until the stream is closed, so every write but the last one covers
+ * a whole chunk at a chunk aligned file offset. {@link #flush()} deliberately does not write a partially
+ * filled buffer, which lets consecutive spills share chunks.
+ */
+@NotThreadSafe
+final class PipelinedSpillOutputStream
+        extends OutputStream
+{
+    private final AsynchronousFileChannel channel;
+    private final SpillerStats spillerStats;
+
+    private ByteBuffer buffer;
+    private ByteBuffer writeBuffer;
+    private Future<Integer> pendingWrite;
+    private long writePosition;
+    private long bufferPosition;
+    private boolean closed;
+
+    public PipelinedSpillOutputStream(AsynchronousFileChannel channel, int chunkSize, SpillerStats spillerStats)
+    {
+        checkArgument(chunkSize > 0, "chunkSize must be positive");
+        this.channel = requireNonNull(channel, "channel is null");
+        this.spillerStats = requireNonNull(spillerStats, "spillerStats is null");
+        this.buffer = ByteBuffer.allocate(chunkSize);
+        this.writeBuffer = ByteBuffer.allocate(chunkSize);
+    }
+
+    @Override
+    public void write(int value)
+            throws IOException
+    {
+        checkState(!closed, "stream is closed");
+        if (!buffer.hasRemaining()) {
+            writeBuffer();
+        }
+        buffer.put((byte) value);
+    }
+
+    @Override
+    public void write(byte[] source, int offset, int length)
+            throws IOException
+    {
+        checkState(!closed, "stream is closed");
+        checkPositionIndexes(offset, offset + length, source.length);
+        while (length > 0) {
+            if (!buffer.hasRemaining()) {
+                writeBuffer();
+            }
+            int chunkLength = Math.min(length, buffer.remaining());
+            buffer.put(source, offset, chunkLength);
+            offset += chunkLength;
+            length -= chunkLength;
+        }
+    }
+
+    @Override
+    public void close()
+            throws IOException
+    {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            if (buffer.position() > 0) {
+                writeBuffer();
+            }
+            awaitPendingWrite();
+        }
+        finally {
+            // the stream stays registered with the spiller until it closes, so the chunks are released here
+            buffer = null;
+            writeBuffer = null;
+            channel.close();
+        }
+    }
+
+    private void writeBuffer()
+            throws IOException
+    {
+        // the other buffer can only be reused once its write has completed
+        awaitPendingWrite();
+
+        ByteBuffer filled = buffer;
+        buffer = writeBuffer;
+        buffer.clear();
+        writeBuffer = filled;
+        writeBuffer.flip();
+
+        writePosition = bufferPosition;
+        bufferPosition += writeBuffer.remaining();
+        pendingWrite = channel.write(writeBuffer, writePosition);
+    }
+
+    private void awaitPendingWrite()
+            throws IOException
+    {
+        if (pendingWrite == null) {
+            return;
+        }
+        long start = System.nanoTime();
+        try {
+            while (true) {
+                writePosition += pendingWrite.get();
+                if (!writeBuffer.hasRemaining()) {
+                    break;
+                }
+                pendingWrite = channel.write(writeBuffer, writePosition);
+            }
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while writing spill file");
+        }
+        catch (ExecutionException e) {
+            throw new IOException("Failed to write spill file", e.getCause());
+        }
+        finally {
+            pendingWrite = null;
+            spillerStats.addToTotalSpillIoWaitNanos(System.nanoTime() - start);
+        }
+    }
+}
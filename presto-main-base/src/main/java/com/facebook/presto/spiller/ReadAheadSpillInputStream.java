@@ -0,0 +1,143 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.spiller;
+
+import com.facebook.airlift.concurrent.NotThreadSafe;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.AsynchronousFileChannel;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkPositionIndexes;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Reads a spill file in chunks of {@code chunkSize} bytes, always keeping the read of the
+ * next chunk in flight while the current chunk is being deserialized.
+ */
+@NotThreadSafe
+final class ReadAheadSpillInputStream
+        extends InputStream
+{
+    private final AsynchronousFileChannel channel;
+    private final SpillerStats spillerStats;
+
+    private ByteBuffer buffer;
+    private ByteBuffer readBuffer;
+    private Future<Integer> pendingRead;
+    private long readPosition;
+    private boolean closed;
+
+    public ReadAheadSpillInputStream(AsynchronousFileChannel channel, int chunkSize, SpillerStats spillerStats)
+    {
+        checkArgument(chunkSize > 0, "chunkSize must be positive");
+        this.channel = requireNonNull(channel, "channel is null");
+        this.spillerStats = requireNonNull(spillerStats, "spillerStats is null");
+        this.buffer = ByteBuffer.allocate(chunkSize);
+        this.buffer.flip();
+        this.readBuffer = ByteBuffer.allocate(chunkSize);
+        startRead();
+    }
+
+    @Override
+    public int read()
+            throws IOException
+    {
+        if (!buffer.hasRemaining() && !nextChunk()) {
+            return -1;
+        }
+        return buffer.get() & 0xFF;
+    }
+
+    @Override
+    public int read(byte[] destination, int offset, int length)
+            throws IOException
+    {
+        checkPositionIndexes(offset, offset + length, destination.length);
+        if (length == 0) {
+            return 0;
+        }
+        if (!buffer.hasRemaining() && !nextChunk()) {
+            return -1;
+        }
+        int chunkLength = Math.min(length, buffer.remaining());
+        buffer.get(destination, offset, chunkLength);
+        return chunkLength;
+    }
+
+    @Override
+    public int available()
+    {
+        return buffer.remaining();
+    }
+
+    @Override
+    public void close()
+            throws IOException
+    {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        pendingRead = null;
+        // an outstanding read fails with AsynchronousCloseException, which nobody waits for
+        channel.close();
+    }
+
+    private void startRead()
+    {
+        readBuffer.clear();
+        pendingRead = channel.read(readBuffer, readPosition);
+    }
+
+    private boolean nextChunk()
+            throws IOException
+    {
+        if (pendingRead == null) {
+            return false;
+        }
+        long start = System.nanoTime();
+        int bytesRead;
+        try {
+            bytesRead = pendingRead.get();
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while reading spill file");
+        }
+        catch (ExecutionException e) {
+            throw new IOException("Failed to read spill file", e.getCause());
+        }
+        finally {
+            spillerStats.addToTotalSpillIoWaitNanos(System.nanoTime() - start);
+        }
+        if (bytesRead < 0) {
+            pendingRead = null;
+            return false;
+        }
+        readPosition += bytesRead;
+
+        ByteBuffer filled = readBuffer;
+        readBuffer = buffer;
+        buffer = filled;
+        buffer.flip();
+        startRead();
+        return buffer.hasRemaining() || nextChunk();
+    }
+}
@@ -17,10 +17,15 @@ import org.weakref.jmx.Managed;
 
 import java.util.concurrent.atomic.AtomicLong;
 
+import static java.util.concurrent.TimeUnit.SECONDS;
+
 public class SpillerStats
 {
     protected final AtomicLong totalSpilledBytes = new AtomicLong();
     protected final AtomicLong totalSpilledBytesRead = new AtomicLong();
+    protected final AtomicLong totalSpillWriteNanos = new AtomicLong();
+    protected final AtomicLong totalSpillQueueWaitNanos = new AtomicLong();
+    protected final AtomicLong totalSpillIoWaitNanos = new AtomicLong();
 
     @Managed
     public long getTotalSpilledBytes()
@@ -34,6 +39,43 @@ public class SpillerStats
         return totalSpilledBytesRead.get();
     }
 
+    /**
+     * Bytes spilled per second of time spent in spill write tasks, including serialization.
+     */
+    @Managed
+    public double getSpillWriteBytesPerSecond()
+    {
+        long writeNanos = totalSpillWriteNanos.get();
+        if (writeNanos == 0) {
+            return 0;
+        }
+        return totalSpilledBytes.get() * (double) SECONDS.toNanos(1) / writeNanos;
+    }
+
+    @Managed
+    public long getTotalSpillWriteNanos()
+    {
+        return totalSpillWriteNanos.get();
+    }
+
+    /**
+     * Time spill write tasks spent queued for a spiller thread.
+     */
+    @Managed
+    public long getTotalSpillQueueWaitNanos()
+    {
+        return totalSpillQueueWaitNanos.get();
+    }
+
+    /**
+     * Time spent blocked on the disk by pipelined spill writes and read-ahead.
+     */
+    @Managed
+    public long getTotalSpillIoWaitNanos()
+    {
+        return totalSpillIoWaitNanos.get();
+    }
+
     public void addToTotalSpilledBytes(long delta)
     {
         totalSpilledBytes.addAndGet(delta);
@@ -43,4 +85,19 @@ public class SpillerStats
     {
         totalSpilledBytesRead.addAndGet(delta);
     }
+
+    public void addToTotalSpillWriteNanos(long delta)
+    {
+        totalSpillWriteNanos.addAndGet(delta);
+    }
+
+    public void addToTotalSpillQueueWaitNanos(long delta)
+    {
+        totalSpillQueueWaitNanos.addAndGet(delta);
+    }
+
+    public void addToTotalSpillIoWaitNanos(long delta)
+    {
+        totalSpillIoWaitNanos.addAndGet(delta);
+    }
 }
@@ -25,7 +25,10 @@ import com.facebook.presto.spi.FixedPageSource;
 import com.facebook.presto.spi.SplitContext;
 import com.facebook.presto.spi.TableHandle;
 import com.facebook.presto.spi.connector.ConnectorPageSourceProvider;
+import com.facebook.presto.split.SharedScanManager.SharedScanKey;
+import com.facebook.presto.sql.analyzer.FeaturesConfig;
 import com.google.common.collect.ImmutableList;
+import jakarta.inject.Inject;
 
 import java.util.List;
 import java.util.Optional;
@@ -33,6 +36,8 @@ import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 import java.util.function.Supplier;
 
+import static com.facebook.presto.SystemSessionProperties.isSharedScanEnabled;
+import static com.facebook.presto.common.plan.PlanCanonicalizationStrategy.DEFAULT;
 import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkState;
 import static java.util.Objects.requireNonNull;
@@ -41,6 +46,18 @@ public class PageSourceManager
         implements PageSourceProvider
 {
     private final ConcurrentMap<ConnectorId, ConnectorPageSourceProvider> pageSourceProviders = new ConcurrentHashMap<>();
+    private final SharedScanManager sharedScanManager;
+
+    public PageSourceManager()
+    {
+        this(new SharedScanManager(new FeaturesConfig()));
+    }
+
+    @Inject
+    public PageSourceManager(SharedScanManager sharedScanManager)
+    {
+        this.sharedScanManager = requireNonNull(sharedScanManager, "sharedScanManager is null");
+    }
 
     public void addConnectorPageSourceProvider(ConnectorId connectorId, ConnectorPageSourceProvider pageSourceProvider)
     {
@@ -73,19 +90,36 @@ public class PageSourceManager
                     split.getTransactionHandle(),
                     split.getConnectorSplit(),
                     split.getLifespan(),
-                    new SplitContext(split.getSplitContext().isCacheable(), dynamicFilter.get().get()));
+                    new SplitContext(split.getSplitContext().isCacheable(), Optional.of(dynamicFilter.get().get()), split.getSplitContext().getDynamicFilterBloomFilters()));
         }
 
         ConnectorSession connectorSession = session.toConnectorSession(split.getConnectorId());
         if (table.getLayout().isPresent()) {
-            return getPageSourceProvider(split).createPageSource(
-                    split.getTransactionHandle(),
+            ConnectorPageSourceProvider pageSourceProvider = getPageSourceProvider(split);
+            Split connectorSplit = split;
+            Supplier<ConnectorPageSource> pageSourceFactory = () -> pageSourceProvider.createPageSource(
+                    connectorSplit.getTransactionHandle(),
                     connectorSession,
-                    split.getConnectorSplit(),
+                    connectorSplit.getConnectorSplit(),
                     table.getLayout().get(),
                     columns,
-                    split.getSplitContext(),
+                    connectorSplit.getSplitContext(),
                     runtimeStats);
+            // scans with dynamic filters read different rows, even of the same split
+            if (isSharedScanEnabled(session)
+                    && !dynamicFilter.isPresent()
+                    && split.getSplitContext().getDynamicFilterBloomFilters().isEmpty()
+                    && pageSourceProvider.supportsSharedScans(split.getConnectorSplit())) {
+                SharedScanKey key = new SharedScanKey(
+                        split.getSplitIdentifier(),
+                        table.getLayout().get().getIdentifier(Optional.of(split.getConnectorSplit()), DEFAULT),
+                        columns,
+                        session.getUser(),
+                        session.getTimeZoneKey(),
+                        session.getConnectorProperties(split.getConnectorId()));
+                return sharedScanManager.createPageSource(key, pageSourceFactory);
+            }
+            return pageSourceFactory.get();
         }
         return getPageSourceProvider(split).createPageSource(split.getTransactionHandle(), connectorSession, split.getConnectorSplit(), columns, split.getSplitContext());
     }
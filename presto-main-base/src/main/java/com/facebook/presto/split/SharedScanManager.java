@@ -0,0 +1,776 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.split;
+
+import com.facebook.airlift.stats.CounterStat;
+import com.facebook.presto.common.Page;
+import com.facebook.presto.common.type.TimeZoneKey;
+import com.facebook.presto.metadata.Split.SplitIdentifier;
+import com.facebook.presto.spi.ColumnHandle;
+import com.facebook.presto.spi.ConnectorPageSource;
+import com.facebook.presto.sql.analyzer.FeaturesConfig;
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.errorprone.annotations.ThreadSafe;
+import com.google.errorprone.annotations.concurrent.GuardedBy;
+import jakarta.inject.Inject;
+import org.weakref.jmx.Managed;
+import org.weakref.jmx.Nested;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayDeque;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Supplier;
+
+import static com.google.common.base.MoreObjects.toStringHelper;
+import static com.google.common.base.Throwables.throwIfUnchecked;
+import static java.lang.Math.max;
+import static java.lang.Math.min;
+import static java.lang.Math.toIntExact;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Lets table scans of concurrent queries that read the same split with the same columns and the
+ * same pushed down layout share one page source.
+ * <p>
+ * The first scan of a split starts a shared scan. Scans of the same split that start while it is
+ * in flight attach to it and receive the pages that are still buffered and all pages read after
+ * that. Whichever scan needs a page that has not been read yet reads it from the underlying page
+ * source, and the page is buffered until all attached scans have received it.
+ * <p>
+ * When the buffer grows beyond its limit because a scan falls behind, that scan detaches and
+ * continues with a page source of its own. A scan that attached late, or detached, reads the
+ * rows it did not receive from the shared scan with a page source of its own. Both rely on the
+ * page source returning the rows of a split in the same order every time, which is why only
+ * connectors that declare {@link com.facebook.presto.spi.connector.ConnectorPageSourceProvider#supportsSharedScans}
+ * share scans.
+ * <p>
+ * The underlying page source is created by the scan that started the shared scan, and belongs to
+ * its query. When that scan ends, or the underlying page source fails, the other scans detach and
+ * read the rest of the split with page sources of their own.
+ */
+@ThreadSafe
+public class SharedScanManager
+{
+    private final long maxBufferedBytes;
+    private final ConcurrentMap<SharedScanKey, SharedScan> sharedScans = new ConcurrentHashMap<>();
+
+    private final CounterStat startedScans = new CounterStat();
+    private final CounterStat attachedScans = new CounterStat();
+    private final CounterStat detachedScans = new CounterStat();
+    private final CounterStat sharedPages = new CounterStat();
+
+    @Inject
+    public SharedScanManager(FeaturesConfig featuresConfig)
+    {
+        this(featuresConfig.getSharedScanMaxBufferSize().toBytes());
+    }
+
+    @VisibleForTesting
+    public SharedScanManager(long maxBufferedBytes)
+    {
+        this.maxBufferedBytes = maxBufferedBytes;
+    }
+
+    /**
+     * Returns a page source for the split identified by {@code key}, attached to a shared scan of
+     * the split if there is one in flight. {@code pageSourceFactory} creates a page source for the
+     * split, and is used to start the shared scan and to read rows the shared scan does not return.
+     */
+    public ConnectorPageSource createPageSource(SharedScanKey key, Supplier<ConnectorPageSource> pageSourceFactory)
+    {
+        requireNonNull(key, "key is null");
+        requireNonNull(pageSourceFactory, "pageSourceFactory is null");
+        while (true) {
+            SharedScan sharedScan = sharedScans.computeIfAbsent(key, ignored -> {
+                startedScans.update(1);
+                return new SharedScan(key);
+            });
+            SharedScanPageSource pageSource = sharedScan.attach(pageSourceFactory);
+            if (pageSource != null) {
+                return pageSource;
+            }
+            // the shared scan was closed after it was looked up
+            sharedScans.remove(key, sharedScan);
+        }
+    }
+
+    @VisibleForTesting
+    int getSharedScanCount()
+    {
+        return sharedScans.size();
+    }
+
+    @Managed
+    public int getActiveSharedScans()
+    {
+        return sharedScans.size();
+    }
+
+    @Managed
+    @Nested
+    public CounterStat getStartedScans()
+    {
+        return startedScans;
+    }
+
+    @Managed
+    @Nested
+    public CounterStat getAttachedScans()
+    {
+        return attachedScans;
+    }
+
+    @Managed
+    @Nested
+    public CounterStat getDetachedScans()
+    {
+        return detachedScans;
+    }
+
+    @Managed
+    @Nested
+    public CounterStat getSharedPages()
+    {
+        return sharedPages;
+    }
+
+    private class SharedScan
+    {
+        private final SharedScanKey key;
+
+        // the first consumer, whose page source factory creates the source
+        @GuardedBy("this")
+        private SharedScanPageSource owner;
+        @GuardedBy("this")
+        private Supplier<ConnectorPageSource> pageSourceFactory;
+        @GuardedBy("this")
+        private ConnectorPageSource source;
+        @GuardedBy("this")
+        private final Set<SharedScanPageSource> consumers = new HashSet<>();
+        @GuardedBy("this")
+        private final ArrayDeque<BufferedPage> pages = new ArrayDeque<>();
+        // index of the first buffered page, and the number of rows before it
+        @GuardedBy("this")
+        private long firstPageIndex;
+        @GuardedBy("this")
+        private long firstPageRow;
+        @GuardedBy("this")
+        private long bufferedBytes;
+        @GuardedBy("this")
+        private boolean sourceFinished;
+        @GuardedBy("this")
+        private boolean closed;
+        // set while a consumer reads from the source, and completed when it is done
+        @GuardedBy("this")
+        private CompletableFuture<?> reading;
+        @GuardedBy("this")
+        private long sourceMemoryUsage;
+
+        SharedScan(SharedScanKey key)
+        {
+            this.key = requireNonNull(key, "key is null");
+        }
+
+        synchronized SharedScanPageSource attach(Supplier<ConnectorPageSource> privatePageSourceFactory)
+        {
+            if (closed) {
+                return null;
+            }
+            if (!consumers.isEmpty()) {
+                attachedScans.update(1);
+            }
+            SharedScanPageSource consumer = new SharedScanPageSource(this, privatePageSourceFactory, firstPageIndex, firstPageRow);
+            if (owner == null) {
+                owner = consumer;
+                pageSourceFactory = privatePageSourceFactory;
+            }
+            consumers.add(consumer);
+            return consumer;
+        }
+
+        /**
+         * Returns the next page for the consumer, or null if the consumer has to wait for a page or
+         * has received all pages it can get from the shared scan.
+         */
+        Page getNextPage(SharedScanPageSource consumer)
+        {
+            synchronized (this) {
+                if (consumer.isDetached()) {
+                    return null;
+                }
+                Page page = pollBufferedPage(consumer);
+                if (page != null || sourceFinished || reading != null) {
+                    return page;
+                }
+                reading = new CompletableFuture<>();
+            }
+
+            BufferedPage bufferedPage = null;
+            boolean finished;
+            long memoryUsage = 0;
+            Throwable readFailure = null;
+            try {
+                // read outside of the lock, so that the other consumers can take buffered pages in the meantime
+                ConnectorPageSource source = getSource();
+                if (source == null) {
+                    // the shared scan was closed before the read started
+                    finished = false;
+                }
+                else {
+                    long completedBytesBefore = source.getCompletedBytes();
+                    long readTimeBefore = source.getReadTimeNanos();
+                    Page page = source.getNextPage();
+                    if (page != null) {
+                        // lazy blocks can only be loaded by the reader before it advances to the next page
+                        page = page.getLoadedPage();
+                        bufferedPage = new BufferedPage(page, source.getCompletedBytes() - completedBytesBefore, source.getReadTimeNanos() - readTimeBefore);
+                    }
+                    finished = source.isFinished();
+                    memoryUsage = source.getSystemMemoryUsage();
+                }
+            }
+            catch (Throwable t) {
+                readFailure = t;
+                finished = false;
+            }
+
+            CompletableFuture<?> readFinished;
+            Page page = null;
+            ConnectorPageSource sourceToClose = null;
+            synchronized (this) {
+                readFinished = reading;
+                reading = null;
+                if (closed) {
+                    // the scan that owns the source ended during the read, and left closing the source to the reader
+                    sourceToClose = source;
+                }
+                else if (readFailure != null) {
+                    // only this consumer fails, the others continue with page sources of their own
+                    consumers.remove(consumer);
+                    sourceToClose = closeScan();
+                }
+                else {
+                    if (bufferedPage != null) {
+                        pages.addLast(bufferedPage);
+                        bufferedBytes += bufferedPage.getRetainedSizeInBytes();
+                    }
+                    sourceFinished = finished;
+                    sourceMemoryUsage = memoryUsage;
+                    page = pollBufferedPage(consumer);
+                    sourceToClose = detachLaggingConsumers();
+                }
+            }
+            readFinished.complete(null);
+
+            if (readFailure != null) {
+                try {
+                    closeSource(sourceToClose);
+                }
+                catch (RuntimeException e) {
+                    if (e != readFailure) {
+                        readFailure.addSuppressed(e);
+                    }
+                }
+                throwIfUnchecked(readFailure);
+                throw new RuntimeException(readFailure);
+            }
+            closeSource(sourceToClose);
+            return page;
+        }
+
+        @GuardedBy("this")
+        private Page pollBufferedPage(SharedScanPageSource consumer)
+        {
+            long index = consumer.getNextPageIndex();
+            if (index >= firstPageIndex + pages.size()) {
+                return null;
+            }
+            BufferedPage bufferedPage = getBufferedPage(toIntExact(index - firstPageIndex));
+            consumer.pageReceived(bufferedPage);
+            if (consumers.size() > 1) {
+                sharedPages.update(1);
+            }
+            releasePages();
+            return bufferedPage.getPage();
+        }
+
+        @GuardedBy("this")
+        private BufferedPage getBufferedPage(int offset)
+        {
+            // the buffer is short, since pages are released once every consumer received them
+            Iterator<BufferedPage> iterator = pages.iterator();
+            for (int i = 0; i < offset; i++) {
+                iterator.next();
+            }
+            return iterator.next();
+        }
+
+        /**
+         * Detaches the consumers that fall behind, and returns the source if it has to be closed
+         * because the owner was one of them.
+         */
+        @GuardedBy("this")
+        private ConnectorPageSource detachLaggingConsumers()
+        {
+            while (bufferedBytes > maxBufferedBytes && consumers.size() > 1) {
+                SharedScanPageSource lagging = null;
+                for (SharedScanPageSource consumer : consumers) {
+                    if (lagging == null || consumer.getNextPageIndex() < lagging.getNextPageIndex()) {
+                        lagging = consumer;
+                    }
+                }
+                if (lagging == owner) {
+                    return closeScan();
+                }
+                consumers.remove(lagging);
+                lagging.detach();
+                detachedScans.update(1);
+                releasePages();
+            }
+            return null;
+        }
+
+        /**
+         * Closes the shared scan to new consumers. Unless the source is finished, the attached
+         * consumers detach, since no more pages are read for them. Returns the source to close, or
+         * null if a consumer is reading from it and closes it once the read is done.
+         */
+        @GuardedBy("this")
+        private ConnectorPageSource closeScan()
+        {
+            closed = true;
+            sharedScans.remove(key, this);
+            if (!sourceFinished) {
+                for (SharedScanPageSource consumer : consumers) {
+                    consumer.detach();
+                    detachedScans.update(1);
+                }
+                consumers.clear();
+                releasePages();
+            }
+            sourceMemoryUsage = 0;
+            return reading == null ? source : null;
+        }
+
+        @GuardedBy("this")
+        private void releasePages()
+        {
+            long minPageIndex = Long.MAX_VALUE;
+            for (SharedScanPageSource consumer : consumers) {
+                minPageIndex = min(minPageIndex, consumer.getNextPageIndex());
+            }
+            while (!pages.isEmpty() && firstPageIndex < minPageIndex) {
+                BufferedPage page = pages.removeFirst();
+                bufferedBytes -= page.getRetainedSizeInBytes();
+                firstPageIndex++;
+                firstPageRow += page.getPage().getPositionCount();
+            }
+        }
+
+        private synchronized ConnectorPageSource getSource()
+        {
+            if (closed) {
+                return null;
+            }
+            if (source == null) {
+                source = pageSourceFactory.get();
+            }
+            return source;
+        }
+
+        synchronized boolean isFinished(SharedScanPageSource consumer)
+        {
+            return consumer.isDetached() || (sourceFinished && consumer.getNextPageIndex() >= firstPageIndex + pages.size());
+        }
+
+        synchronized CompletableFuture<?> isBlocked()
+        {
+            if (reading != null) {
+                return reading;
+            }
+            if (source != null && !sourceFinished && !closed) {
+                return source.isBlocked();
+            }
+            return ConnectorPageSource.NOT_BLOCKED;
+        }
+
+        synchronized long getSystemMemoryUsage()
+        {
+            // every consumer accounts for the whole shared scan, since any of them may be the last to release it
+            return bufferedBytes + sourceMemoryUsage;
+        }
+
+        void detach(SharedScanPageSource consumer)
+        {
+            ConnectorPageSource sourceToClose;
+            synchronized (this) {
+                consumers.remove(consumer);
+                releasePages();
+                // the source belongs to the query of the owner, and must not outlive it
+                if (closed || (consumer != owner && !consumers.isEmpty())) {
+                    return;
+                }
+                sourceToClose = closeScan();
+            }
+            closeSource(sourceToClose);
+        }
+
+        private void closeSource(ConnectorPageSource source)
+        {
+            if (source == null) {
+                return;
+            }
+            try {
+                source.close();
+            }
+            catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    private static class BufferedPage
+    {
+        private final Page page;
+        private final long completedBytes;
+        private final long readTimeNanos;
+
+        BufferedPage(Page page, long completedBytes, long readTimeNanos)
+        {
+            this.page = requireNonNull(page, "page is null");
+            this.completedBytes = completedBytes;
+            this.readTimeNanos = readTimeNanos;
+        }
+
+        Page getPage()
+        {
+            return page;
+        }
+
+        long getCompletedBytes()
+        {
+            return completedBytes;
+        }
+
+        long getReadTimeNanos()
+        {
+            return readTimeNanos;
+        }
+
+        long getRetainedSizeInBytes()
+        {
+            return page.getRetainedSizeInBytes();
+        }
+    }
+
+    /**
+     * The page source of one table scan attached to a shared scan. Once it received all pages it
+     * can get from the shared scan, it reads the rows it missed with a page source of its own: the
+     * rows before {@code firstRow}, and, if it detached, the rows after the ones it received.
+     */
+    private static class SharedScanPageSource
+            implements ConnectorPageSource
+    {
+        private final SharedScan sharedScan;
+        private final Supplier<ConnectorPageSource> privatePageSourceFactory;
+        private final long firstRow;
+
+        // accessed by the driver of the scan and, guarded by the shared scan, by the other consumers
+        private volatile long nextPageIndex;
+        private volatile boolean detached;
+        private long receivedRows;
+        private long completedBytes;
+        private long completedPositions;
+        private long readTimeNanos;
+
+        private boolean sharedScanFinished;
+        private ConnectorPageSource privateSource;
+        private long privateRow;
+        private boolean finished;
+
+        SharedScanPageSource(SharedScan sharedScan, Supplier<ConnectorPageSource> privatePageSourceFactory, long firstPageIndex, long firstRow)
+        {
+            this.sharedScan = requireNonNull(sharedScan, "sharedScan is null");
+            this.privatePageSourceFactory = requireNonNull(privatePageSourceFactory, "privatePageSourceFactory is null");
+            this.nextPageIndex = firstPageIndex;
+            this.firstRow = firstRow;
+        }
+
+        long getNextPageIndex()
+        {
+            return nextPageIndex;
+        }
+
+        boolean isDetached()
+        {
+            return detached;
+        }
+
+        void detach()
+        {
+            detached = true;
+        }
+
+        void pageReceived(BufferedPage page)
+        {
+            nextPageIndex++;
+            receivedRows += page.getPage().getPositionCount();
+            completedBytes += page.getCompletedBytes();
+            completedPositions += page.getPage().getPositionCount();
+            readTimeNanos += page.getReadTimeNanos();
+        }
+
+        @Override
+        public Page getNextPage()
+        {
+            if (finished) {
+                return null;
+            }
+            if (!sharedScanFinished) {
+                Page page = sharedScan.getNextPage(this);
+                if (page != null) {
+                    return page;
+                }
+                if (!sharedScan.isFinished(this)) {
+                    return null;
+                }
+                sharedScanFinished = true;
+                sharedScan.detach(this);
+            }
+            return getNextPrivatePage();
+        }
+
+        /**
+         * Returns the rows of the split that were not received from the shared scan, that is all rows
+         * except the range starting at {@code firstRow}, which ends after the received rows if the
+         * scan detached and at the end of the split otherwise.
+         */
+        private Page getNextPrivatePage()
+        {
+            long skipEnd = detached ? firstRow + receivedRows : Long.MAX_VALUE;
+            while (true) {
+                if (privateRow >= firstRow && skipEnd == Long.MAX_VALUE) {
+                    finishPrivateSource();
+                    return null;
+                }
+                if (privateSource == null) {
+                    privateSource = privatePageSourceFactory.get();
+                }
+                if (privateSource.isFinished()) {
+                    finishPrivateSource();
+                    return null;
+                }
+                Page page = privateSource.getNextPage();
+                if (page == null) {
+                    return null;
+                }
+
+                long pageStart = privateRow;
+                long pageEnd = pageStart + page.getPositionCount();
+                privateRow = pageEnd;
+                Page retained = removeRows(page, pageStart, firstRow, skipEnd);
+                if (retained.getPositionCount() > 0) {
+                    completedPositions += retained.getPositionCount();
+                    return retained;
+                }
+            }
+        }
+
+        private void finishPrivateSource()
+        {
+            finished = true;
+            if (privateSource != null) {
+                completedBytes += privateSource.getCompletedBytes();
+                readTimeNanos += privateSource.getReadTimeNanos();
+                closePrivateSource();
+            }
+        }
+
+        @Override
+        public boolean isFinished()
+        {
+            return finished;
+        }
+
+        @Override
+        public CompletableFuture<?> isBlocked()
+        {
+            if (privateSource != null) {
+                return privateSource.isBlocked();
+            }
+            if (!sharedScanFinished) {
+                return sharedScan.isBlocked();
+            }
+            return NOT_BLOCKED;
+        }
+
+        @Override
+        public long getCompletedBytes()
+        {
+            return completedBytes + (privateSource == null ? 0 : privateSource.getCompletedBytes());
+        }
+
+        @Override
+        public long getCompletedPositions()
+        {
+            return completedPositions;
+        }
+
+        @Override
+        public long getReadTimeNanos()
+        {
+            return readTimeNanos + (privateSource == null ? 0 : privateSource.getReadTimeNanos());
+        }
+
+        @Override
+        public long getSystemMemoryUsage()
+        {
+            if (privateSource != null) {
+                return privateSource.getSystemMemoryUsage();
+            }
+            return sharedScanFinished ? 0 : sharedScan.getSystemMemoryUsage();
+        }
+
+        @Override
+        public void close()
+        {
+            finished = true;
+            if (!sharedScanFinished) {
+                sharedScanFinished = true;
+                sharedScan.detach(this);
+            }
+            closePrivateSource();
+        }
+
+        private void closePrivateSource()
+        {
+            if (privateSource == null) {
+                return;
+            }
+            try {
+                privateSource.close();
+            }
+            catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            finally {
+                privateSource = null;
+            }
+        }
+    }
+
+    /**
+     * Removes the rows in {@code [skipStart, skipEnd)} from a page whose first row is row {@code pageStart} of the split.
+     */
+    @VisibleForTesting
+    static Page removeRows(Page page, long pageStart, long skipStart, long skipEnd)
+    {
+        long pageEnd = pageStart + page.getPositionCount();
+        if (skipEnd <= pageStart || skipStart >= pageEnd) {
+            return page;
+        }
+        int prefix = toIntExact(max(0, skipStart - pageStart));
+        int suffixStart = toIntExact(min(page.getPositionCount(), max(0, skipEnd - pageStart)));
+        int suffix = page.getPositionCount() - suffixStart;
+        if (suffix == 0) {
+            return page.getRegion(0, prefix);
+        }
+        if (prefix == 0) {
+            return page.getRegion(suffixStart, suffix);
+        }
+        int[] positions = new int[prefix + suffix];
+        for (int i = 0; i < prefix; i++) {
+            positions[i] = i;
+        }
+        for (int i = 0; i < suffix; i++) {
+            positions[prefix + i] = suffixStart + i;
+        }
+        return page.getPositions(positions, 0, positions.length);
+    }
+
+    /**
+     * Identifies the scans that produce the same pages: the same split read with the same columns,
+     * the same pushed down layout and the same session settings that affect how values are decoded.
+     */
+    public static class SharedScanKey
+    {
+        private final SplitIdentifier splitIdentifier;
+        private final Object layoutIdentifier;
+        private final List<ColumnHandle> columns;
+        private final String user;
+        private final TimeZoneKey timeZoneKey;
+        private final Map<String, String> connectorProperties;
+
+        public SharedScanKey(
+                SplitIdentifier splitIdentifier,
+                Object layoutIdentifier,
+                List<ColumnHandle> columns,
+                String user,
+                TimeZoneKey timeZoneKey,
+                Map<String, String> connectorProperties)
+        {
+            this.splitIdentifier = requireNonNull(splitIdentifier, "splitIdentifier is null");
+            this.layoutIdentifier = requireNonNull(layoutIdentifier, "layoutIdentifier is null");
+            this.columns = ImmutableList.copyOf(requireNonNull(columns, "columns is null"));
+            this.user = requireNonNull(user, "user is null");
+            this.timeZoneKey = requireNonNull(timeZoneKey, "timeZoneKey is null");
+            this.connectorProperties = ImmutableMap.copyOf(requireNonNull(connectorProperties, "connectorProperties is null"));
+        }
+
+        @Override
+        public boolean equals(Object o)
+        {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            SharedScanKey other = (SharedScanKey) o;
+            return splitIdentifier.equals(other.splitIdentifier) &&
+                    layoutIdentifier.equals(other.layoutIdentifier) &&
+                    columns.equals(other.columns) &&
+                    user.equals(other.user) &&
+                    timeZoneKey.equals(other.timeZoneKey) &&
+                    connectorProperties.equals(other.connectorProperties);
+        }
+
+        @Override
+        public int hashCode()
+        {
+            return Objects.hash(splitIdentifier, layoutIdentifier, columns, user, timeZoneKey, connectorProperties);
+        }
+
+        @Override
+        public String toString()
+        {
+            return toStringHelper(this)
+                    .add("splitIdentifier", splitIdentifier.getSplitIdentifier())
+                    .add("columns", columns)
+                    .add("user", user)
+                    .toString();
+        }
+    }
+}
@@ -133,9 +133,12 @@ public class FeaturesConfig
     private boolean pushTableWriteThroughUnion = true;
     private CompressionCodec exchangeCompressionCodec = CompressionCodec.NONE;
     private boolean exchangeChecksumEnabled;
+    private boolean exchangePackedLongEncodingEnabled;
     private boolean optimizeMixedDistinctAggregations;
     private boolean forceSingleNodeOutput = true;
     private boolean pagesIndexEagerCompactionEnabled;
+    private boolean pagesIndexNormalizedKeySortEnabled;
+    private boolean vectorizedGroupedAccumulatorsEnabled;
     private boolean distributedSort = true;
     private boolean optimizeJoinsWithEmptySources;
     private boolean logFormattedQueryEnabled;
@@ -192,6 +195,7 @@ public class FeaturesConfig
     private int dynamicFilteringMaxPerDriverRowCount = 100;
     private DataSize dynamicFilteringMaxPerDriverSize = new DataSize(10, KILOBYTE);
     private int dynamicFilteringRangeRowLimitPerDriver;
+    private int dynamicFilteringBloomFilterRowLimitPerDriver;
     private DistributedDynamicFilterStrategy distributedDynamicFilterStrategy = DistributedDynamicFilterStrategy.DISABLED;
     private Duration distributedDynamicFilterMaxWaitTime = new Duration(2, SECONDS);
     private int distributedDynamicFilterMaxWaitExtensions = 2;
@@ -200,6 +204,8 @@ public class FeaturesConfig
     private boolean distributedDynamicFilterOnReplicatedJoins;
 
     private boolean fragmentResultCachingEnabled;
+    private boolean sharedScanEnabled;
+    private DataSize sharedScanMaxBufferSize = new DataSize(16, MEGABYTE);
 
     private DataSize filterAndProjectMinOutputPageSize = new DataSize(500, KILOBYTE);
     private int filterAndProjectMinOutputPageRowCount = 256;
@@ -237,6 +243,7 @@ public class FeaturesConfig
     private boolean spoolingOutputBufferEnabled;
     private DataSize spoolingOutputBufferThreshold = new DataSize(8, MEGABYTE);
     private String spoolingOutputBufferTempStorage = "local";
+    private boolean spoolingOutputBufferReplayEnabled;
 
     private String warnOnNoTableLayoutFilter = "";
 
@@ -299,6 +306,7 @@ public class FeaturesConfig
     private double pushAggregationBelowJoinByteReductionThreshold = 1;
     private boolean prefilterForGroupbyLimit;
     private boolean isOptimizeJoinProbeWithEmptyBuildRuntime;
+    private boolean joinLateMaterializationEnabled;
     private boolean useDefaultsForCorrelatedAggregationPushdownThroughOuterJoins = true;
     private boolean mergeDuplicateAggregationsEnabled = true;
     private boolean mergeAggregationsWithAndWithoutFilter;
@@ -1677,6 +1685,19 @@ public class FeaturesConfig
         return this;
     }
 
+    public int getDynamicFilteringBloomFilterRowLimitPerDriver()
+    {
+        return dynamicFilteringBloomFilterRowLimitPerDriver;
+    }
+
+    @Config("dynamic-filtering-bloom-filter-row-limit-per-driver")
+    @ConfigDescription("Maximum number of build-side rows per driver up to which a Bloom filter will be collected for dynamic filtering, when the exact values are too many")
+    public FeaturesConfig setDynamicFilteringBloomFilterRowLimitPerDriver(int dynamicFilteringBloomFilterRowLimitPerDriver)
+    {
+        this.dynamicFilteringBloomFilterRowLimitPerDriver = dynamicFilteringBloomFilterRowLimitPerDriver;
+        return this;
+    }
+
     public DistributedDynamicFilterStrategy getDistributedDynamicFilterStrategy()
     {
         return distributedDynamicFilterStrategy;
@@ -1771,6 +1792,33 @@ public class FeaturesConfig
         return this;
     }
 
+    public boolean isSharedScanEnabled()
+    {
+        return sharedScanEnabled;
+    }
+
+    @Config("shared-scan-enabled")
+    @ConfigDescription("Share the pages read by concurrent table scans of the same split and columns")
+    public FeaturesConfig setSharedScanEnabled(boolean sharedScanEnabled)
+    {
+        this.sharedScanEnabled = sharedScanEnabled;
+        return this;
+    }
+
+    @NotNull
+    public DataSize getSharedScanMaxBufferSize()
+    {
+        return sharedScanMaxBufferSize;
+    }
+
+    @Config("shared-scan-max-buffer-size")
+    @ConfigDescription("Maximum size of the pages a shared scan buffers for scans that fall behind, before they read the split on their own")
+    public FeaturesConfig setSharedScanMaxBufferSize(DataSize sharedScanMaxBufferSize)
+    {
+        this.sharedScanMaxBufferSize = sharedScanMaxBufferSize;
+        return this;
+    }
+
     public boolean isOptimizeMixedDistinctAggregations()
     {
         return optimizeMixedDistinctAggregations;
@@ -1807,6 +1855,19 @@ public class FeaturesConfig
         return this;
     }
 
+    public boolean isExchangePackedLongEncodingEnabled()
+    {
+        return exchangePackedLongEncodingEnabled;
+    }
+
+    @Config("exchange.packed-long-encoding-enabled")
+    @ConfigDescription("Serialize long columns of repartitioned pages with frame of reference or delta bit packing before compression")
+    public FeaturesConfig setExchangePackedLongEncodingEnabled(boolean exchangePackedLongEncodingEnabled)
+    {
+        this.exchangePackedLongEncodingEnabled = exchangePackedLongEncodingEnabled;
+        return this;
+    }
+
     public boolean isEnableIntermediateAggregations()
     {
         return enableIntermediateAggregations;
@@ -1993,6 +2054,32 @@ public class FeaturesConfig
         return this;
     }
 
+    public boolean isPagesIndexNormalizedKeySortEnabled()
+    {
+        return pagesIndexNormalizedKeySortEnabled;
+    }
+
+    @Config("pages-index.normalized-key-sort-enabled")
+    @ConfigDescription("Sort fixed-width leading sort keys of a PagesIndex through a primitive normalized key buffer")
+    public FeaturesConfig setPagesIndexNormalizedKeySortEnabled(boolean pagesIndexNormalizedKeySortEnabled)
+    {
+        this.pagesIndexNormalizedKeySortEnabled = pagesIndexNormalizedKeySortEnabled;
+        return this;
+    }
+
+    public boolean isVectorizedGroupedAccumulatorsEnabled()
+    {
+        return vectorizedGroupedAccumulatorsEnabled;
+    }
+
+    @Config("vectorized-grouped-accumulators-enabled")
+    @ConfigDescription("Use batch-at-a-time grouped accumulators for count, sum, min, max and avg over fixed width types")
+    public FeaturesConfig setVectorizedGroupedAccumulatorsEnabled(boolean vectorizedGroupedAccumulatorsEnabled)
+    {
+        this.vectorizedGroupedAccumulatorsEnabled = vectorizedGroupedAccumulatorsEnabled;
+        return this;
+    }
+
     @MaxDataSize("1MB")
     public DataSize getFilterAndProjectMinOutputPageSize()
     {
@@ -2440,6 +2527,19 @@ public class FeaturesConfig
         return this;
     }
 
+    public boolean isSpoolingOutputBufferReplayEnabled()
+    {
+        return spoolingOutputBufferReplayEnabled;
+    }
+
+    @Config("spooling-output-buffer-replay-enabled")
+    @ConfigDescription("Keep spooled output in temp storage after it is acknowledged, so that a restarted consumer can read it again")
+    public FeaturesConfig setSpoolingOutputBufferReplayEnabled(boolean spoolingOutputBufferReplayEnabled)
+    {
+        this.spoolingOutputBufferReplayEnabled = spoolingOutputBufferReplayEnabled;
+        return this;
+    }
+
     public boolean isPrestoSparkAssignBucketToPartitionForPartitionedTableWriteEnabled()
     {
         return prestoSparkAssignBucketToPartitionForPartitionedTableWriteEnabled;
@@ -3094,6 +3194,19 @@ public class FeaturesConfig
         return this;
     }
 
+    public boolean isJoinLateMaterializationEnabled()
+    {
+        return joinLateMaterializationEnabled;
+    }
+
+    @Config("join-late-materialization-enabled")
+    @ConfigDescription("Decode the lazily loaded probe columns of an inner join only for the rows that have a match on the build side")
+    public FeaturesConfig setJoinLateMaterializationEnabled(boolean joinLateMaterializationEnabled)
+    {
+        this.joinLateMaterializationEnabled = joinLateMaterializationEnabled;
+        return this;
+    }
+
     public boolean isUseDefaultsForCorrelatedAggregationPushdownThroughOuterJoins()
     {
         return useDefaultsForCorrelatedAggregationPushdownThroughOuterJoins;
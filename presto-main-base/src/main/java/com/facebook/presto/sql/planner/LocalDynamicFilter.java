@@ -13,7 +13,9 @@
  */
 package com.facebook.presto.sql.planner;
 
+import com.facebook.presto.common.predicate.BlockedBloomFilter;
 import com.facebook.presto.common.predicate.Domain;
+import com.facebook.presto.common.predicate.Range;
 import com.facebook.presto.common.predicate.TupleDomain;
 import com.facebook.presto.expressions.DynamicFilters.DynamicFilterExtractResult;
 import com.facebook.presto.expressions.DynamicFilters.DynamicFilterPlaceholder;
@@ -27,14 +29,17 @@ import com.google.common.collect.ImmutableMultimap;
 import com.google.common.collect.Multimap;
 import com.google.common.util.concurrent.ListenableFuture;
 import com.google.common.util.concurrent.SettableFuture;
+import io.airlift.slice.Slice;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 import java.util.function.Consumer;
 
+import static com.facebook.presto.common.function.OperatorType.EQUAL;
 import static com.facebook.presto.expressions.DynamicFilters.extractDynamicFilters;
 import static com.google.common.base.MoreObjects.toStringHelper;
 import static com.google.common.base.Verify.verify;
@@ -51,12 +56,17 @@ public class LocalDynamicFilter
 
     private final SettableFuture<TupleDomain<VariableReferenceExpression>> resultFuture;
 
+    private final SettableFuture<Map<VariableReferenceExpression, BlockedBloomFilter>> bloomFilterResultFuture;
+
     // Number of build-side partitions to be collected.
     private final int partitionCount;
 
     // The resulting predicates from each build-side partition.
     private final List<TupleDomain<String>> partitions;
 
+    // The Bloom filters from each build-side partition, empty for partitions that collected the exact values.
+    private final List<Optional<Map<String, BlockedBloomFilter>>> bloomFilterPartitions;
+
     public LocalDynamicFilter(Multimap<String, DynamicFilterPlaceholder> probeVariables, Map<String, Integer> buildChannels, int partitionCount)
     {
         this.probeVariables = requireNonNull(probeVariables, "probeVariables is null");
@@ -64,9 +74,11 @@ public class LocalDynamicFilter
         verify(probeVariables.keySet().equals(buildChannels.keySet()), "probeVariables and buildChannels must have same keys");
 
         this.resultFuture = SettableFuture.create();
+        this.bloomFilterResultFuture = SettableFuture.create();
 
         this.partitionCount = partitionCount;
         this.partitions = new ArrayList<>(partitionCount);
+        this.bloomFilterPartitions = new ArrayList<>(partitionCount);
     }
 
     private synchronized void addPartition(TupleDomain<String> tupleDomain)
@@ -80,7 +92,75 @@ public class LocalDynamicFilter
             // No more partitions are left to be processed.
             TupleDomain<VariableReferenceExpression> result = convertTupleDomain(TupleDomain.columnWiseUnion(partitions));
             verify(resultFuture.set(result), "dynamic filter result is provided more than once");
+            setBloomFilterResultIfComplete();
+        }
+    }
+
+    private synchronized void addBloomFilterPartition(Optional<Map<String, BlockedBloomFilter>> bloomFilters)
+    {
+        // Called concurrently by each DynamicFilterSourceOperator instance when its input is finished.
+        verify(bloomFilterPartitions.size() < partitionCount);
+        bloomFilterPartitions.add(bloomFilters);
+        setBloomFilterResultIfComplete();
+    }
+
+    private void setBloomFilterResultIfComplete()
+    {
+        if (partitions.size() < partitionCount || bloomFilterPartitions.size() < partitionCount) {
+            return;
+        }
+        Map<VariableReferenceExpression, BlockedBloomFilter> result = new HashMap<>();
+        for (String filterId : buildChannels.keySet()) {
+            Optional<BlockedBloomFilter> bloomFilter = mergeBloomFilters(filterId);
+            if (!bloomFilter.isPresent()) {
+                continue;
+            }
+            // Only equality placeholders can be tested against the build-side values.
+            for (DynamicFilterPlaceholder placeholder : probeVariables.get(filterId)) {
+                if (placeholder.getOperator() == EQUAL) {
+                    result.putIfAbsent((VariableReferenceExpression) placeholder.getInput(), bloomFilter.get());
+                }
+            }
+        }
+        verify(bloomFilterResultFuture.set(ImmutableMap.copyOf(result)), "dynamic filter Bloom filters are provided more than once");
+    }
+
+    private Optional<BlockedBloomFilter> mergeBloomFilters(String filterId)
+    {
+        BlockedBloomFilter merged = null;
+        for (Optional<Map<String, BlockedBloomFilter>> partition : bloomFilterPartitions) {
+            if (!partition.isPresent()) {
+                continue;
+            }
+            BlockedBloomFilter bloomFilter = partition.get().get(filterId);
+            if (bloomFilter == null) {
+                // a partition with too many values to collect either exactly or in a Bloom filter
+                return Optional.empty();
+            }
+            merged = merged == null ? bloomFilter : merged.union(bloomFilter);
+        }
+        if (merged == null) {
+            // all partitions collected the exact values, which the predicate already contains
+            return Optional.empty();
+        }
+
+        // Add the values of the partitions that collected them exactly. Predicates of the other
+        // partitions may also consist of single values, which is harmless.
+        for (TupleDomain<String> partition : partitions) {
+            Domain domain = partition.getDomains().map(domains -> domains.get(filterId)).orElse(null);
+            if (domain == null || domain.isNone() || domain.isAll()) {
+                continue;
+            }
+            List<Range> ranges = domain.getValues().getRanges().getOrderedRanges();
+            if (!ranges.stream().allMatch(Range::isSingleValue)) {
+                continue;
+            }
+            for (Range range : ranges) {
+                Object value = range.getSingleValue();
+                merged.put(value instanceof Slice ? BlockedBloomFilter.hashSlice((Slice) value) : BlockedBloomFilter.hashLong((Long) value));
+            }
         }
+        return Optional.of(merged);
     }
 
     private TupleDomain<VariableReferenceExpression> convertTupleDomain(TupleDomain<String> result)
@@ -156,11 +236,21 @@ public class LocalDynamicFilter
         return resultFuture;
     }
 
+    public ListenableFuture<Map<VariableReferenceExpression, BlockedBloomFilter>> getBloomFilterResultFuture()
+    {
+        return bloomFilterResultFuture;
+    }
+
     public Consumer<TupleDomain<String>> getTupleDomainConsumer()
     {
         return this::addPartition;
     }
 
+    public Consumer<Optional<Map<String, BlockedBloomFilter>>> getBloomFilterConsumer()
+    {
+        return this::addBloomFilterPartition;
+    }
+
     @Override
     public String toString()
     {
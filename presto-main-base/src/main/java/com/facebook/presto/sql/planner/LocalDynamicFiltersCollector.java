@@ -13,11 +13,16 @@
  */
 package com.facebook.presto.sql.planner;
 
+import com.facebook.presto.common.predicate.BlockedBloomFilter;
 import com.facebook.presto.common.predicate.TupleDomain;
 import com.facebook.presto.spi.relation.VariableReferenceExpression;
+import com.google.common.collect.ImmutableMap;
 import com.google.errorprone.annotations.ThreadSafe;
 import com.google.errorprone.annotations.concurrent.GuardedBy;
 
+import java.util.HashMap;
+import java.util.Map;
+
 @ThreadSafe
 public class LocalDynamicFiltersCollector
 {
@@ -28,6 +33,13 @@ public class LocalDynamicFiltersCollector
     @GuardedBy ("this")
     private TupleDomain<VariableReferenceExpression> predicate;
 
+    /**
+     * Bloom filters for probe variables whose build side had too many distinct values
+     * to be represented exactly in the predicate.
+     */
+    @GuardedBy ("this")
+    private final Map<VariableReferenceExpression, BlockedBloomFilter> bloomFilters = new HashMap<>();
+
     public LocalDynamicFiltersCollector()
     {
         this.predicate = TupleDomain.all();
@@ -42,4 +54,15 @@ public class LocalDynamicFiltersCollector
     {
         this.predicate = this.predicate.intersect(predicate);
     }
+
+    public synchronized Map<VariableReferenceExpression, BlockedBloomFilter> getBloomFilters()
+    {
+        return ImmutableMap.copyOf(bloomFilters);
+    }
+
+    public synchronized void addBloomFilters(Map<VariableReferenceExpression, BlockedBloomFilter> bloomFilters)
+    {
+        // Bloom filters cannot be intersected, so the first filter for a variable is kept
+        bloomFilters.forEach(this.bloomFilters::putIfAbsent);
+    }
 }
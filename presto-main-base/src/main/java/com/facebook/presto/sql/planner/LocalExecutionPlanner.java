@@ -24,6 +24,7 @@ import com.facebook.presto.common.block.BlockEncodingSerde;
 import com.facebook.presto.common.block.SortOrder;
 import com.facebook.presto.common.function.OperatorType;
 import com.facebook.presto.common.function.SqlFunctionProperties;
+import com.facebook.presto.common.predicate.BlockedBloomFilter;
 import com.facebook.presto.common.predicate.TupleDomain;
 import com.facebook.presto.common.type.Type;
 import com.facebook.presto.common.type.TypeSignature;
@@ -32,6 +33,7 @@ import com.facebook.presto.execution.FragmentResultCacheContext;
 import com.facebook.presto.execution.StageExecutionId;
 import com.facebook.presto.execution.TaskManagerConfig;
 import com.facebook.presto.execution.buffer.OutputBuffer;
+import com.facebook.presto.execution.buffer.PagesSerdeBufferPool;
 import com.facebook.presto.execution.buffer.PagesSerdeFactory;
 import com.facebook.presto.execution.scheduler.ExecutionWriterTarget;
 import com.facebook.presto.execution.scheduler.ExecutionWriterTarget.CreateHandle;
@@ -117,6 +119,8 @@ import com.facebook.presto.operator.WindowFunctionDefinition;
 import com.facebook.presto.operator.WindowOperator.WindowOperatorFactory;
 import com.facebook.presto.operator.aggregation.AccumulatorFactory;
 import com.facebook.presto.operator.aggregation.BuiltInAggregationFunctionImplementation;
+import com.facebook.presto.operator.aggregation.VectorizedAccumulatorFactory;
+import com.facebook.presto.operator.aggregation.VectorizedAccumulatorFactory.VectorizedAggregation;
 import com.facebook.presto.operator.aggregation.partial.PartialAggregationController;
 import com.facebook.presto.operator.exchange.LocalExchange.LocalExchangeFactory;
 import com.facebook.presto.operator.exchange.LocalExchangeSinkOperator.LocalExchangeSinkOperatorFactory;
@@ -273,6 +277,7 @@ import java.util.stream.IntStream;
 import static com.facebook.airlift.concurrent.MoreFutures.addSuccessCallback;
 import static com.facebook.airlift.units.DataSize.Unit.BYTE;
 import static com.facebook.presto.SystemSessionProperties.getAdaptivePartialAggregationRowsReductionRatioThreshold;
+import static com.facebook.presto.SystemSessionProperties.getDynamicFilteringBloomFilterRowLimitPerDriver;
 import static com.facebook.presto.SystemSessionProperties.getDynamicFilteringMaxPerDriverRowCount;
 import static com.facebook.presto.SystemSessionProperties.getDynamicFilteringMaxPerDriverSize;
 import static com.facebook.presto.SystemSessionProperties.getDynamicFilteringRangeRowLimitPerDriver;
@@ -286,6 +291,8 @@ import static com.facebook.presto.SystemSessionProperties.getTaskWriterCount;
 import static com.facebook.presto.SystemSessionProperties.isAdaptivePartialAggregationEnabled;
 import static com.facebook.presto.SystemSessionProperties.isEnableDynamicFiltering;
 import static com.facebook.presto.SystemSessionProperties.isExchangeChecksumEnabled;
+import static com.facebook.presto.SystemSessionProperties.isExchangePackedLongEncodingEnabled;
+import static com.facebook.presto.SystemSessionProperties.isJoinLateMaterializationEnabled;
 import static com.facebook.presto.SystemSessionProperties.isJoinSpillingEnabled;
 import static com.facebook.presto.SystemSessionProperties.isNativeExecutionEnabled;
 import static com.facebook.presto.SystemSessionProperties.isOptimizeCommonSubExpressions;
@@ -293,6 +300,7 @@ import static com.facebook.presto.SystemSessionProperties.isOptimizeJoinProbeFor
 import static com.facebook.presto.SystemSessionProperties.isOptimizedRepartitioningEnabled;
 import static com.facebook.presto.SystemSessionProperties.isQuickDistinctLimitEnabled;
 import static com.facebook.presto.SystemSessionProperties.isSpillEnabled;
+import static com.facebook.presto.SystemSessionProperties.isVectorizedGroupedAccumulatorsEnabled;
 import static com.facebook.presto.common.type.BigintType.BIGINT;
 import static com.facebook.presto.common.type.TypeSignature.parseTypeSignature;
 import static com.facebook.presto.common.type.TypeUtils.writeNativeValue;
@@ -408,6 +416,7 @@ public class LocalExecutionPlanner
     private final ObjectMapper sortedMapObjectMapper;
     private final boolean tableFinishOperatorMemoryTrackingEnabled;
     private final StandaloneSpillerFactory standaloneSpillerFactory;
+    private final PagesSerdeBufferPool pagesSerdeBufferPool;
     private static final TypeSignature SPHERICAL_GEOGRAPHY_TYPE_SIGNATURE = parseTypeSignature("SphericalGeography");
 
     @Inject
@@ -437,7 +446,8 @@ public class LocalExecutionPlanner
             DeterminismEvaluator determinismEvaluator,
             FragmentResultCacheManager fragmentResultCacheManager,
             ObjectMapper objectMapper,
-            StandaloneSpillerFactory standaloneSpillerFactory)
+            StandaloneSpillerFactory standaloneSpillerFactory,
+            PagesSerdeBufferPool pagesSerdeBufferPool)
     {
         this.explainAnalyzeContext = requireNonNull(explainAnalyzeContext, "explainAnalyzeContext is null");
         this.pageSourceProvider = requireNonNull(pageSourceProvider, "pageSourceProvider is null");
@@ -488,6 +498,7 @@ public class LocalExecutionPlanner
         }
         this.tableFinishOperatorMemoryTrackingEnabled = requireNonNull(memoryManagerConfig, "memoryManagerConfig is null").isTableFinishOperatorMemoryTrackingEnabled();
         this.standaloneSpillerFactory = requireNonNull(standaloneSpillerFactory, "standaloneSpillerFactory is null");
+        this.pagesSerdeBufferPool = requireNonNull(pagesSerdeBufferPool, "pagesSerdeBufferPool is null");
     }
 
     public LocalExecutionPlan plan(
@@ -571,7 +582,7 @@ public class LocalExecutionPlanner
         }
 
         if (isOptimizedRepartitioningEnabled(taskContext.getSession())) {
-            return new OptimizedPartitionedOutputFactory(outputBuffer, maxPagePartitioningBufferSize);
+            return new OptimizedPartitionedOutputFactory(outputBuffer, maxPagePartitioningBufferSize, isExchangePackedLongEncodingEnabled(taskContext.getSession()));
         }
         else {
             return new PartitionedOutputFactory(outputBuffer, maxPagePartitioningBufferSize);
@@ -668,7 +679,7 @@ public class LocalExecutionPlanner
                                 outputTypes,
                                 pagePreprocessor,
                                 outputPartitioning,
-                                new PagesSerdeFactory(blockEncodingSerde, getExchangeCompressionCodec(session), isExchangeChecksumEnabled(session))))
+                                new PagesSerdeFactory(blockEncodingSerde, getExchangeCompressionCodec(session), isExchangeChecksumEnabled(session), Optional.of(pagesSerdeBufferPool.getPool()))))
                         .build(),
                 context.getDriverInstanceCount(),
                 physicalOperation.getPipelineExecutionStrategy(),
@@ -1621,6 +1632,8 @@ public class LocalExecutionPlanner
 
             Optional<List<DynamicFilterPlaceholder>> dynamicFilters = extractDynamicFilterResult.map(DynamicFilterExtractResult::getDynamicConjuncts);
             Optional<Supplier<TupleDomain<ColumnHandle>>> dynamicFilterSupplier = Optional.empty();
+            Optional<Supplier<Map<ColumnHandle, BlockedBloomFilter>>> dynamicBloomFilterSupplier = Optional.empty();
+            List<Type> columnTypes = ImmutableList.of();
             if (dynamicFilters.isPresent() && !dynamicFilters.get().isEmpty() && sourceNode instanceof TableScanNode) {
                 TableScanNode tableScanNode = (TableScanNode) sourceNode;
                 LocalDynamicFiltersCollector collector = context.getDynamicFiltersCollector();
@@ -1628,6 +1641,12 @@ public class LocalExecutionPlanner
                     TupleDomain<VariableReferenceExpression> predicate = collector.getPredicate();
                     return predicate.transform(tableScanNode.getAssignments()::get);
                 });
+                dynamicBloomFilterSupplier = Optional.of(() -> collector.getBloomFilters().entrySet().stream()
+                        .filter(entry -> tableScanNode.getAssignments().containsKey(entry.getKey()))
+                        .collect(toImmutableMap(entry -> tableScanNode.getAssignments().get(entry.getKey()), Map.Entry::getValue, (first, second) -> first)));
+                columnTypes = tableScanNode.getOutputVariables().stream()
+                        .map(VariableReferenceExpression::getType)
+                        .collect(toImmutableList());
             }
 
             // compiler uses inputs instead of variables, so rewrite the expressions first
@@ -1671,6 +1690,8 @@ public class LocalExecutionPlanner
                             columns,
                             projections.stream().map(RowExpression::getType).collect(toImmutableList()),
                             dynamicFilterSupplier,
+                            dynamicBloomFilterSupplier,
+                            columnTypes,
                             getFilterAndProjectMinOutputPageSize(session),
                             getFilterAndProjectMinOutputPageRowCount(session));
 
@@ -1731,6 +1752,11 @@ public class LocalExecutionPlanner
 
         @Override
         public PhysicalOperation visitTableScan(TableScanNode node, LocalExecutionPlanContext context)
+        {
+            return planTableScan(node, context, false);
+        }
+
+        private PhysicalOperation planTableScan(TableScanNode node, LocalExecutionPlanContext context, boolean lazyOutput)
         {
             List<ColumnHandle> columns = new ArrayList<>();
             for (VariableReferenceExpression variable : node.getOutputVariables()) {
@@ -1738,7 +1764,7 @@ public class LocalExecutionPlanner
             }
 
             TableHandle tableHandle = node.getTable();
-            OperatorFactory operatorFactory = new TableScanOperatorFactory(context.getNextOperatorId(), node.getId(), pageSourceProvider, tableHandle, columns);
+            OperatorFactory operatorFactory = new TableScanOperatorFactory(context.getNextOperatorId(), node.getId(), pageSourceProvider, tableHandle, columns, lazyOutput);
             return new PhysicalOperation(operatorFactory, makeLayout(node), context, stageExecutionDescriptor.isScanGroupedExecution(node.getId()) ? GROUPED_EXECUTION : UNGROUPED_EXECUTION);
         }
 
@@ -2440,7 +2466,14 @@ public class LocalExecutionPlanner
                 LocalExecutionPlanContext context)
         {
             // Plan probe
-            PhysicalOperation probeSource = probeNode.accept(this, context);
+            PhysicalOperation probeSource;
+            if (isLateMaterializedProbe(node, probeNode, context.getSession())) {
+                // the lookup join directly follows the scan, so it can load the probe pages for the matching rows only
+                probeSource = planTableScan((TableScanNode) probeNode, context, true);
+            }
+            else {
+                probeSource = probeNode.accept(this, context);
+            }
 
             // Plan build
             LocalExecutionPlanContext buildContext = context.createSubContext();
@@ -2472,6 +2505,14 @@ public class LocalExecutionPlanner
             return new PhysicalOperation(operator, outputMappings.build(), context, probeSource);
         }
 
+        private boolean isLateMaterializedProbe(JoinNode node, PlanNode probeNode, Session session)
+        {
+            // rows without a match are only dropped when the probe is not on the outer side
+            return isJoinLateMaterializationEnabled(session) &&
+                    (node.getType() == INNER || node.getType() == RIGHT) &&
+                    probeNode instanceof TableScanNode;
+        }
+
         private JoinBridgeManager<PartitionedLookupSourceFactory> createLookupSourceFactory(
                 JoinNode node,
                 PhysicalOperation buildSource,
@@ -2596,10 +2637,12 @@ public class LocalExecutionPlanner
                     context.getNextOperatorId(),
                     planNodeId,
                     dynamicFilter.getTupleDomainConsumer(),
+                    dynamicFilter.getBloomFilterConsumer(),
                     filterBuildChannels,
                     getDynamicFilteringMaxPerDriverRowCount(context.getSession()),
                     getDynamicFilteringMaxPerDriverSize(context.getSession()),
-                    getDynamicFilteringRangeRowLimitPerDriver(context.getSession()));
+                    getDynamicFilteringRangeRowLimitPerDriver(context.getSession()),
+                    getDynamicFilteringBloomFilterRowLimitPerDriver(context.getSession()));
         }
 
         private Optional<LocalDynamicFilter> createDynamicFilter(PhysicalOperation buildSource, AbstractJoinNode node, LocalExecutionPlanContext context, int partitionCount)
@@ -2620,6 +2663,7 @@ public class LocalExecutionPlanner
                         // Intersect dynamic filters' predicates when they become ready,
                         // in order to support multiple join nodes in the same plan fragment.
                         addSuccessCallback(filter.getResultFuture(), collector::intersect);
+                        addSuccessCallback(filter.getBloomFilterResultFuture(), collector::addBloomFilters);
                         return filter;
                     });
         }
@@ -3482,7 +3526,7 @@ public class LocalExecutionPlanner
                 sortKeys = orderBy.getOrderByVariables();
                 sortOrders = getOrderingList(orderBy);
             }
-            return generateAccumulatorFactory(
+            AccumulatorFactory accumulatorFactory = generateAccumulatorFactory(
                     javaAggregateFunctionImplementation,
                     valueChannels,
                     maskChannel,
@@ -3496,6 +3540,25 @@ public class LocalExecutionPlanner
                     spillEnabled,
                     session,
                     standaloneSpillerFactory);
+
+            if (isVectorizedGroupedAccumulatorsEnabled(session)
+                    && !aggregation.isDistinct()
+                    && !aggregation.getOrderBy().isPresent()
+                    && lambdas.isEmpty()
+                    && javaAggregateFunctionImplementation instanceof BuiltInAggregationFunctionImplementation) {
+                FunctionMetadata functionMetadata = functionAndTypeManager.getFunctionMetadata(aggregation.getFunctionHandle());
+                Optional<VectorizedAggregation> vectorizedAggregation = VectorizedAccumulatorFactory.getVectorizedAggregation(functionMetadata.getName(), functionMetadata.getArgumentTypes());
+                BuiltInAggregationFunctionImplementation builtInImplementation = (BuiltInAggregationFunctionImplementation) javaAggregateFunctionImplementation;
+                if (vectorizedAggregation.isPresent() && builtInImplementation.getAggregationMetadata().getAccumulatorStateDescriptors().size() == 1) {
+                    return new VectorizedAccumulatorFactory(
+                            accumulatorFactory,
+                            vectorizedAggregation.get(),
+                            builtInImplementation.getAggregationMetadata().getAccumulatorStateDescriptors().get(0),
+                            maskChannel,
+                            builtInImplementation.getFinalType());
+                }
+            }
+            return accumulatorFactory;
         }
 
         private PhysicalOperation planGlobalAggregation(AggregationNode node, PhysicalOperation source, LocalExecutionPlanContext context)
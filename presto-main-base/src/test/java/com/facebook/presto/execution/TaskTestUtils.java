@@ -23,6 +23,7 @@ import com.facebook.presto.event.SplitMonitor;
 import com.facebook.presto.eventlistener.EventListenerConfig;
 import com.facebook.presto.eventlistener.EventListenerManager;
 import com.facebook.presto.execution.buffer.OutputBuffers;
+import com.facebook.presto.execution.buffer.PagesSerdeBufferPool;
 import com.facebook.presto.execution.scheduler.LegacyNetworkTopology;
 import com.facebook.presto.execution.scheduler.NodeScheduler;
 import com.facebook.presto.execution.scheduler.NodeSchedulerConfig;
@@ -193,7 +194,8 @@ public final class TaskTestUtils
                         .configure(SerializationFeature.FAIL_ON_EMPTY_BEANS, false),
                 (session) -> {
                     throw new UnsupportedOperationException();
-                });
+                },
+                new PagesSerdeBufferPool(new TaskManagerConfig()));
     }
 
     public static TaskInfo updateTask(SqlTask sqlTask, List<TaskSource> taskSources, OutputBuffers outputBuffers)
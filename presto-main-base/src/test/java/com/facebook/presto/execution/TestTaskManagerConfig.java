@@ -60,6 +60,8 @@ public class TestTaskManagerConfig
                 .setMaxLocalExchangeBufferSize(new DataSize(32, Unit.MEGABYTE))
                 .setSinkMaxBufferSize(new DataSize(32, Unit.MEGABYTE))
                 .setMaxPagePartitioningBufferSize(new DataSize(32, Unit.MEGABYTE))
+                .setPagesSerdeMaxPooledBufferSize(new DataSize(16, Unit.MEGABYTE))
+                .setPagesSerdeBufferPoolSize(new DataSize(64, Unit.MEGABYTE))
                 .setWriterCount(1)
                 .setPartitionedWriterCount(null)
                 .setTaskConcurrency(16)
@@ -72,6 +74,8 @@ public class TestTaskManagerConfig
                 .setStatisticsCpuTimerEnabled(true)
                 .setLegacyLifespanCompletionCondition(false)
                 .setTaskPriorityTracking(TASK_FAIR)
+                .setWorkStealingEnabled(false)
+                .setRunnerThreadGroups(1)
                 .setInterruptRunawaySplitsTimeout(new Duration(600, SECONDS))
                 .setMemoryBasedSlowDownThreshold(1.0)
                 .setHighMemoryTaskKillerEnabled(false)
@@ -109,6 +113,8 @@ public class TestTaskManagerConfig
                 .put("task.client.timeout", "10s")
                 .put("sink.max-buffer-size", "42MB")
                 .put("driver.max-page-partitioning-buffer-size", "40MB")
+                .put("driver.pages-serde-max-pooled-buffer-size", "4MB")
+                .put("driver.pages-serde-buffer-pool-size", "128MB")
                 .put("task.writer-count", "4")
                 .put("task.partitioned-writer-count", "8")
                 .put("task.concurrency", "8")
@@ -121,6 +127,8 @@ public class TestTaskManagerConfig
                 .put("task.statistics-cpu-timer-enabled", "false")
                 .put("task.legacy-lifespan-completion-condition", "true")
                 .put("task.task-priority-tracking", "QUERY_FAIR")
+                .put("task.work-stealing-enabled", "true")
+                .put("task.runner-thread-groups", "2")
                 .put("task.interrupt-runaway-splits-timeout", "599s")
                 .put("experimental.task.memory-based-slowdown-threshold", "0.9")
                 .put("experimental.task.high-memory-task-killer-enabled", "true")
@@ -155,6 +163,8 @@ public class TestTaskManagerConfig
                 .setClientTimeout(new Duration(10, SECONDS))
                 .setSinkMaxBufferSize(new DataSize(42, Unit.MEGABYTE))
                 .setMaxPagePartitioningBufferSize(new DataSize(40, Unit.MEGABYTE))
+                .setPagesSerdeMaxPooledBufferSize(new DataSize(4, Unit.MEGABYTE))
+                .setPagesSerdeBufferPoolSize(new DataSize(128, Unit.MEGABYTE))
                 .setWriterCount(4)
                 .setPartitionedWriterCount(8)
                 .setTaskConcurrency(8)
@@ -167,6 +177,8 @@ public class TestTaskManagerConfig
                 .setStatisticsCpuTimerEnabled(false)
                 .setLegacyLifespanCompletionCondition(true)
                 .setTaskPriorityTracking(QUERY_FAIR)
+                .setWorkStealingEnabled(true)
+                .setRunnerThreadGroups(2)
                 .setInterruptRunawaySplitsTimeout(new Duration(599, SECONDS))
                 .setMemoryBasedSlowDownThreshold(0.9)
                 .setHighMemoryTaskKillerEnabled(true)
@@ -17,16 +17,22 @@ import com.facebook.presto.CompressionCodec;
 import com.facebook.presto.common.Page;
 import com.facebook.presto.common.block.Block;
 import com.facebook.presto.common.block.BlockBuilder;
+import com.facebook.presto.common.block.BlockEncodingManager;
 import com.facebook.presto.common.type.Type;
+import com.facebook.presto.spi.page.PageBufferPool;
 import com.facebook.presto.spi.page.PagesSerde;
+import com.facebook.presto.spi.page.SerializedPage;
 import com.google.common.collect.ImmutableList;
 import io.airlift.slice.DynamicSliceOutput;
 import io.airlift.slice.Slice;
 import org.testng.annotations.DataProvider;
 import org.testng.annotations.Test;
 
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
 import java.util.stream.LongStream;
 
@@ -35,6 +41,7 @@ import static com.facebook.presto.common.type.VarcharType.VARCHAR;
 import static com.facebook.presto.operator.PageAssertions.assertPageEquals;
 import static com.facebook.presto.spi.page.PagesSerdeUtil.readPages;
 import static com.facebook.presto.spi.page.PagesSerdeUtil.writePages;
+import static com.google.common.collect.ImmutableList.toImmutableList;
 import static org.testng.Assert.assertEquals;
 import static org.testng.Assert.assertFalse;
 import static org.testng.Assert.assertTrue;
@@ -79,6 +86,44 @@ public class TestPagesSerde
         assertFalse(pageIterator.hasNext());
     }
 
+    @Test(dataProvider = "testCompressionCodec")
+    public void testSerializedPagesDoNotShareBuffers(CompressionCodec codec)
+    {
+        PagesSerde serde = new TestingPagesSerdeFactory(codec).createPagesSerde();
+        List<Page> expectedPages = ImmutableList.of(createBigintPage(0, 1000), createBigintPage(5, 10), createBigintPage(1000, 3000));
+
+        // the serialization and compression buffers are reused, so every page is serialized before any is read back
+        List<SerializedPage> serializedPages = expectedPages.stream()
+                .map(serde::serialize)
+                .collect(toImmutableList());
+        for (int i = 0; i < expectedPages.size(); i++) {
+            assertPageEquals(ImmutableList.of(BIGINT), serde.deserialize(serializedPages.get(i)), expectedPages.get(i));
+        }
+    }
+
+    @Test(dataProvider = "testCompressionCodec")
+    public void testPooledSerializationBuffers(CompressionCodec codec)
+    {
+        PageBufferPool bufferPool = new PageBufferPool(1024 * 1024, 8 * 1024 * 1024);
+        PagesSerde serde = new PagesSerdeFactory(new BlockEncodingManager(), codec, false, Optional.of(bufferPool)).createPagesSerde();
+
+        // a single row over many columns serializes to more than its size in bytes, which overflows the pooled buffer
+        Block[] blocks = new Block[300];
+        Arrays.fill(blocks, createBigintPage(0, 1).getBlock(0));
+        Page widePage = new Page(blocks);
+        List<Page> expectedPages = ImmutableList.of(createBigintPage(0, 1000), widePage, createBigintPage(1000, 3000));
+
+        List<SerializedPage> serializedPages = expectedPages.stream()
+                .map(serde::serialize)
+                .collect(toImmutableList());
+        for (int i = 0; i < expectedPages.size(); i++) {
+            Page expectedPage = expectedPages.get(i);
+            List<Type> types = Collections.nCopies(expectedPage.getChannelCount(), BIGINT);
+            assertPageEquals(types, serde.deserialize(serializedPages.get(i)), expectedPage);
+        }
+        assertTrue(bufferPool.getRetainedSizeInBytes() <= 8 * 1024 * 1024);
+    }
+
     @Test(dataProvider = "testCompressionCodec")
     public void testBigintSerializedSize(CompressionCodec codec)
     {
@@ -154,6 +199,15 @@ public class TestPagesSerde
         assertTrue(actualSize < expectedMaxSize, "Expected round trip size difference less than 20% of original page");
     }
 
+    private static Page createBigintPage(int start, int end)
+    {
+        BlockBuilder builder = BIGINT.createBlockBuilder(null, end - start);
+        for (int i = start; i < end; i++) {
+            BIGINT.writeLong(builder, i % 7);
+        }
+        return new Page(builder.build());
+    }
+
     private static int serializedSize(List<? extends Type> types, Page expectedPage, CompressionCodec codec)
     {
         PagesSerde serde = new TestingPagesSerdeFactory(codec).createPagesSerde();
@@ -549,10 +549,64 @@ public class TestSpoolingOutputBuffer
         assertTrue(buffer.isFinished());
     }
 
+    @Test
+    public void testReplayAcknowledgedPages()
+            throws IOException
+    {
+        SpoolingOutputBufferFactory replayFactory = new SpoolingOutputBufferFactory(new FeaturesConfig()
+                .setSpoolingOutputBufferThreshold(THRESHOLD)
+                .setSpoolingOutputBufferReplayEnabled(true));
+        try {
+            SpoolingOutputBuffer buffer = createSpoolingOutputBuffer(replayFactory);
+
+            // add three pages into a file and two pages in memory
+            for (int i = 0; i < 5; i++) {
+                addPage(buffer, createPage(i));
+            }
+
+            // read and acknowledge all pages
+            assertBufferResultEquals(TYPES, getBufferResult(buffer, BUFFER_ID, 0, sizeOfPages(10), MAX_WAIT), bufferResult(0, createPage(0), createPage(1), createPage(2), createPage(3), createPage(4)));
+            acknowledgeBufferResult(buffer, BUFFER_ID, 5);
+            compareTotalBuffered(buffer, 0);
+
+            // a restarted consumer reads the acknowledged pages again, first from storage and then from memory
+            assertBufferResultEquals(TYPES, getBufferResult(buffer, BUFFER_ID, 0, sizeOfPages(10), MAX_WAIT), bufferResult(0, createPage(0), createPage(1), createPage(2)));
+            assertBufferResultEquals(TYPES, getBufferResult(buffer, BUFFER_ID, 1, sizeOfPages(1), MAX_WAIT), bufferResult(1, createPage(1)));
+            assertBufferResultEquals(TYPES, getBufferResult(buffer, BUFFER_ID, 3, sizeOfPages(10), MAX_WAIT), bufferResult(3, createPage(3), createPage(4)));
+
+            // the replay stops at the first unacknowledged page
+            addPage(buffer, createPage(5));
+            assertBufferResultEquals(TYPES, getBufferResult(buffer, BUFFER_ID, 4, sizeOfPages(10), MAX_WAIT), bufferResult(4, createPage(4)));
+
+            // acknowledging the last page spools the acknowledged memory pages as one file and finishes the buffer
+            buffer.setNoMorePages();
+            assertBufferResultEquals(TYPES, getBufferResult(buffer, BUFFER_ID, 5, sizeOfPages(10), MAX_WAIT), bufferResult(5, createPage(5)));
+            assertFalse(buffer.isFinished());
+            acknowledgeBufferResult(buffer, BUFFER_ID, 6);
+            assertTrue(buffer.isFinished());
+
+            // the retained files can be replayed until the buffer is destroyed
+            assertBufferResultEquals(TYPES, getBufferResult(buffer, BUFFER_ID, 3, sizeOfPages(10), MAX_WAIT), bufferResult(3, createPage(3), createPage(4), createPage(5)));
+            assertBufferResultEquals(TYPES, getBufferResult(buffer, BUFFER_ID, 6, sizeOfPages(10), MAX_WAIT), emptyResults(TASK_INSTANCE_ID, 6, true));
+
+            buffer.destroy();
+            assertTrue(buffer.isFinished());
+            assertBufferResultEquals(TYPES, getBufferResult(buffer, BUFFER_ID, 0, sizeOfPages(10), NO_WAIT), emptyResults(TASK_INSTANCE_ID, 0, false));
+        }
+        finally {
+            replayFactory.shutdown();
+        }
+    }
+
     private SpoolingOutputBuffer createSpoolingOutputBuffer()
+    {
+        return createSpoolingOutputBuffer(spoolingOutputBufferFactory);
+    }
+
+    private SpoolingOutputBuffer createSpoolingOutputBuffer(SpoolingOutputBufferFactory factory)
     {
         TaskId taskId = new TaskId(queryIdGenerator.createNextQueryId().toString(), 0, 0, 0, 0);
-        return spoolingOutputBufferFactory.createSpoolingOutputBuffer(
+        return factory.createSpoolingOutputBuffer(
                 taskId,
                 TASK_INSTANCE_ID,
                 OUTPUT_BUFFERS,
@@ -13,6 +13,8 @@
  */
 package com.facebook.presto.execution.executor;
 
+import com.facebook.airlift.stats.CounterStat;
+import com.facebook.airlift.stats.TimeStat;
 import com.facebook.airlift.testing.TestingTicker;
 import com.facebook.airlift.units.Duration;
 import com.facebook.presto.execution.SplitRunner;
@@ -36,17 +38,20 @@ import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
 
 import static com.facebook.airlift.testing.Assertions.assertGreaterThan;
+import static com.facebook.airlift.testing.Assertions.assertGreaterThanOrEqual;
 import static com.facebook.airlift.testing.Assertions.assertLessThan;
 import static com.facebook.presto.execution.TaskManagerConfig.TaskPriorityTracking.QUERY_FAIR;
 import static com.facebook.presto.execution.TaskManagerConfig.TaskPriorityTracking.TASK_FAIR;
 import static com.facebook.presto.execution.executor.MultilevelSplitQueue.LEVEL_CONTRIBUTION_CAP;
 import static com.facebook.presto.execution.executor.MultilevelSplitQueue.LEVEL_THRESHOLD_SECONDS;
 import static com.google.common.collect.MoreCollectors.onlyElement;
+import static java.util.concurrent.TimeUnit.MICROSECONDS;
 import static java.util.concurrent.TimeUnit.MILLISECONDS;
 import static java.util.concurrent.TimeUnit.MINUTES;
 import static java.util.concurrent.TimeUnit.SECONDS;
 import static org.testng.Assert.assertEquals;
 import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertSame;
 import static org.testng.Assert.assertTrue;
 
 public class TestTaskExecutor
@@ -456,6 +461,71 @@ public class TestTaskExecutor
         }
     }
 
+    @Test
+    public void testWorkStealingSplitQueue()
+            throws Exception
+    {
+        WorkStealingSplitQueue splitQueue = new WorkStealingSplitQueue(2, 2, 1);
+        TestingTicker ticker = new TestingTicker();
+        TaskHandle taskHandle = new TaskHandle(new TaskId("test", 0, 0, 0, 0), new TaskPriorityTracker(splitQueue), () -> 1, 1, new Duration(1, SECONDS), OptionalInt.empty());
+        PrioritizedSplitRunner split0 = newPrioritizedSplitRunner(taskHandle, ticker);
+        PrioritizedSplitRunner split1 = newPrioritizedSplitRunner(taskHandle, ticker);
+
+        // splits offered by a thread that is not a runner are spread over the runner queues
+        splitQueue.offer(split0);
+        splitQueue.offer(split1);
+        assertEquals(splitQueue.size(), 2);
+        assertEquals(splitQueue.getRunnerQueueSize(0), 1);
+        assertEquals(splitQueue.getRunnerQueueSize(1), 1);
+
+        // the first take makes this thread the runner of the first queue
+        assertSame(splitQueue.take(), split0);
+        assertEquals(splitQueue.getLocalSplits().getTotalCount(), 1);
+
+        // once its own queue is empty, the runner steals from the other queue
+        assertSame(splitQueue.take(), split1);
+        assertEquals(splitQueue.getStolenSplits().getTotalCount(), 1);
+        assertEquals(splitQueue.size(), 0);
+
+        // splits offered by a runner stay in its own queue
+        splitQueue.offer(split0);
+        splitQueue.offer(split1);
+        assertEquals(splitQueue.getRunnerQueueSize(0), 2);
+        assertEquals(splitQueue.getRunnerQueueSize(1), 0);
+
+        splitQueue.remove(split0);
+        assertEquals(splitQueue.size(), 1);
+        assertSame(splitQueue.take(), split1);
+        assertEquals(splitQueue.getLocalSplits().getTotalCount(), 2);
+    }
+
+    @Test(timeOut = 30_000)
+    public void testWorkStealingTasksComplete()
+            throws Exception
+    {
+        TestingTicker ticker = new TestingTicker();
+        TaskExecutor taskExecutor = new TaskExecutor(4, 8, 3, 4, TASK_FAIR, new WorkStealingSplitQueue(2, 4, 2), ticker);
+        taskExecutor.start();
+        try {
+            TaskHandle taskHandle = taskExecutor.addTask(new TaskId("test", 0, 0, 0, 0), () -> 0, 10, new Duration(1, MILLISECONDS), OptionalInt.empty());
+
+            ImmutableList.Builder<SplitRunner> splits = ImmutableList.builder();
+            for (int i = 0; i < 32; i++) {
+                splits.add(new TestingJob(ticker, new Phaser(), new Phaser(), new Phaser(), 10, 0));
+            }
+            for (ListenableFuture<?> future : taskExecutor.enqueueSplits(taskHandle, true, splits.build())) {
+                future.get(10, SECONDS);
+            }
+
+            assertEquals(taskExecutor.getWaitingSplits(), 0);
+            assertGreaterThanOrEqual(taskExecutor.getLocalSplits() + taskExecutor.getStolenSplits(), 32L * 10);
+            taskExecutor.removeTask(taskHandle);
+        }
+        finally {
+            taskExecutor.stop();
+        }
+    }
+
     @Test
     public void testTaskExecutorRunawaySplitInterrupt()
             throws Exception
@@ -491,6 +561,18 @@ public class TestTaskExecutor
         }
     }
 
+    private static PrioritizedSplitRunner newPrioritizedSplitRunner(TaskHandle taskHandle, TestingTicker ticker)
+    {
+        return new PrioritizedSplitRunner(
+                taskHandle,
+                new TestingJob(ticker, new Phaser(), new Phaser(), new Phaser(), 1, 0),
+                ticker,
+                new CounterStat(),
+                new CounterStat(),
+                new TimeStat(MICROSECONDS),
+                new TimeStat(MICROSECONDS));
+    }
+
     private void assertSplitStates(int endIndex, TestingJob[] splits)
     {
         // assert that splits up to and including endIndex are all started
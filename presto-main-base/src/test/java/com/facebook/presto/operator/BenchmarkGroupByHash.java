@@ -175,6 +175,34 @@ public class BenchmarkGroupByHash
         return pageBuilder.build();
     }
 
+    @Benchmark
+    @OperationsPerInvocation(POSITIONS)
+    public Object fixedWidthGroupByHash(FixedWidthBenchmarkData data)
+    {
+        GroupByHash groupByHash = new FixedWidthGroupByHash(data.getTypes(), data.getChannels(), data.getHashChannel(), EXPECTED_SIZE, NOOP);
+        for (Page page : data.getPages()) {
+            Work<?> work = groupByHash.addPage(page);
+            boolean finished;
+            do {
+                finished = work.process();
+            }
+            while (!finished);
+        }
+
+        ImmutableList.Builder<Page> pages = ImmutableList.builder();
+        PageBuilder pageBuilder = new PageBuilder(groupByHash.getTypes());
+        for (int groupId = 0; groupId < groupByHash.getGroupCount(); groupId++) {
+            pageBuilder.declarePosition();
+            groupByHash.appendValuesTo(groupId, pageBuilder, 0);
+            if (pageBuilder.isFull()) {
+                pages.add(pageBuilder.build());
+                pageBuilder.reset();
+            }
+        }
+        pages.add(pageBuilder.build());
+        return pageBuilder.build();
+    }
+
     @Benchmark
     @OperationsPerInvocation(POSITIONS)
     public long baseline(BaselinePagesData data)
@@ -359,6 +387,57 @@ public class BenchmarkGroupByHash
         }
     }
 
+    @SuppressWarnings("FieldMayBeFinal")
+    @State(Scope.Thread)
+    public static class FixedWidthBenchmarkData
+    {
+        @Param({"2", "3", "4"})
+        private int channelCount = 2;
+
+        @Param({"true", "false"})
+        private boolean hashEnabled = true;
+
+        @Param(GROUP_COUNT_STRING)
+        private int groupCount = GROUP_COUNT;
+
+        private List<Page> pages;
+        private Optional<Integer> hashChannel;
+        private List<Type> types;
+        private int[] channels;
+
+        @Setup
+        public void setup()
+        {
+            pages = createBigintPages(POSITIONS, groupCount, channelCount, hashEnabled);
+            types = Collections.nCopies(channelCount, BIGINT);
+            hashChannel = hashEnabled ? Optional.of(channelCount) : Optional.empty();
+            channels = new int[channelCount];
+            for (int i = 0; i < channelCount; i++) {
+                channels[i] = i;
+            }
+        }
+
+        public List<Page> getPages()
+        {
+            return pages;
+        }
+
+        public Optional<Integer> getHashChannel()
+        {
+            return hashChannel;
+        }
+
+        public List<Type> getTypes()
+        {
+            return types;
+        }
+
+        public int[] getChannels()
+        {
+            return channels;
+        }
+    }
+
     @SuppressWarnings("FieldMayBeFinal")
     @State(Scope.Thread)
     public static class BenchmarkData
@@ -442,6 +521,10 @@ public class BenchmarkGroupByHash
         singleChannelBenchmarkData.setup();
         new BenchmarkGroupByHash().bigintGroupByHash(singleChannelBenchmarkData);
 
+        FixedWidthBenchmarkData fixedWidthBenchmarkData = new FixedWidthBenchmarkData();
+        fixedWidthBenchmarkData.setup();
+        new BenchmarkGroupByHash().fixedWidthGroupByHash(fixedWidthBenchmarkData);
+
         Options options = new OptionsBuilder()
                 .verbosity(VerboseMode.NORMAL)
                 .include(".*" + BenchmarkGroupByHash.class.getSimpleName() + ".*")
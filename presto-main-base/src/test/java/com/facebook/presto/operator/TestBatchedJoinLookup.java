@@ -0,0 +1,114 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.operator;
+
+import com.facebook.presto.common.Page;
+import com.facebook.presto.common.block.BlockBuilder;
+import com.facebook.presto.operator.JoinProbe.JoinProbeFactory;
+import com.google.common.collect.ImmutableList;
+import org.testng.annotations.Test;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.OptionalInt;
+import java.util.function.Supplier;
+
+import static com.facebook.presto.SessionTestUtils.TEST_SESSION;
+import static com.facebook.presto.common.type.BigintType.BIGINT;
+import static com.facebook.presto.operator.PartitionedLookupSource.createPartitionedLookupSourceSupplier;
+import static org.testng.Assert.assertEquals;
+
+public class TestBatchedJoinLookup
+{
+    @Test
+    public void testJoinHash()
+    {
+        LookupSource lookupSource = createJoinHash(0, 1000);
+        assertBatchedLookupMatches(lookupSource, createProbePage(-100, 1100));
+    }
+
+    @Test
+    public void testPartitionedLookupSource()
+    {
+        List<Supplier<LookupSource>> partitions = ImmutableList.of(
+                () -> createJoinHash(0, 500),
+                () -> createJoinHash(250, 1000),
+                () -> createJoinHash(900, 2000),
+                () -> createJoinHash(0, 0));
+        LookupSource lookupSource = createPartitionedLookupSourceSupplier(partitions, ImmutableList.of(BIGINT), false).getLookupSource();
+        assertBatchedLookupMatches(lookupSource, createProbePage(-100, 2100));
+    }
+
+    @Test
+    public void testJoinProbe()
+    {
+        LookupSource lookupSource = createJoinHash(0, 1000);
+        Page page = createProbePage(500, 1500);
+
+        JoinProbe probe = new JoinProbeFactory(new int[] {0}, ImmutableList.of(0), OptionalInt.empty()).createJoinProbe(page);
+        int nullRows = 0;
+        while (probe.advanceNextPosition()) {
+            int position = probe.getPosition();
+            long expected = page.getBlock(0).isNull(position) ? -1 : lookupSource.getJoinPosition(position, page, page);
+            nullRows += page.getBlock(0).isNull(position) ? 1 : 0;
+            assertEquals(probe.getCurrentJoinPosition(lookupSource), expected);
+        }
+        assertEquals(probe.getNullRowCount(), nullRows);
+    }
+
+    private static void assertBatchedLookupMatches(LookupSource lookupSource, Page page)
+    {
+        // probe every other row, in reverse order
+        int[] positions = new int[page.getPositionCount()];
+        int count = 0;
+        for (int position = page.getPositionCount() - 1; position >= 0; position -= 2) {
+            if (!page.getBlock(0).isNull(position)) {
+                positions[count++] = position;
+            }
+        }
+
+        long[] joinPositions = new long[count];
+        lookupSource.getJoinPositions(positions, count, page, page, null, joinPositions);
+        for (int i = 0; i < count; i++) {
+            assertEquals(joinPositions[i], lookupSource.getJoinPosition(positions[i], page, page));
+        }
+    }
+
+    private static LookupSource createJoinHash(int start, int end)
+    {
+        PagesIndex pagesIndex = new PagesIndex.TestingFactory(false).newPagesIndex(ImmutableList.of(BIGINT), end - start);
+        BlockBuilder blockBuilder = BIGINT.createBlockBuilder(null, 2 * (end - start));
+        for (long value = start; value < end; value++) {
+            // every key has a duplicate, so that the rows are linked
+            BIGINT.writeLong(blockBuilder, value);
+            BIGINT.writeLong(blockBuilder, value);
+        }
+        pagesIndex.addPage(new Page(blockBuilder.build()));
+        return pagesIndex.createLookupSourceSupplier(TEST_SESSION, ImmutableList.of(0), OptionalInt.empty(), Optional.empty(), Optional.empty(), ImmutableList.of()).get();
+    }
+
+    private static Page createProbePage(int start, int end)
+    {
+        BlockBuilder blockBuilder = BIGINT.createBlockBuilder(null, end - start);
+        for (long value = start; value < end; value++) {
+            if (value % 7 == 0) {
+                blockBuilder.appendNull();
+            }
+            else {
+                BIGINT.writeLong(blockBuilder, value);
+            }
+        }
+        return new Page(blockBuilder.build());
+    }
+}
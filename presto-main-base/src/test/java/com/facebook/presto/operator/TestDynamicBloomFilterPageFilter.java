@@ -0,0 +1,85 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.operator;
+
+import com.facebook.presto.common.Page;
+import com.facebook.presto.common.block.LazyBlock;
+import com.facebook.presto.common.predicate.BlockedBloomFilter;
+import com.facebook.presto.spi.ColumnHandle;
+import com.facebook.presto.testing.TestingMetadata.TestingColumnHandle;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import org.testng.annotations.Test;
+
+import java.util.List;
+
+import static com.facebook.presto.block.BlockAssertions.createLongSequenceBlock;
+import static com.facebook.presto.block.BlockAssertions.createStringSequenceBlock;
+import static com.facebook.presto.common.type.BigintType.BIGINT;
+import static com.facebook.presto.common.type.DoubleType.DOUBLE;
+import static com.facebook.presto.common.type.VarcharType.VARCHAR;
+import static com.facebook.presto.operator.DynamicBloomFilterPageFilter.MIN_SAMPLED_POSITIONS;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertSame;
+import static org.testng.Assert.assertTrue;
+
+public class TestDynamicBloomFilterPageFilter
+{
+    private static final ColumnHandle KEY = new TestingColumnHandle("key");
+    private static final ColumnHandle VALUE = new TestingColumnHandle("value");
+    private static final List<ColumnHandle> COLUMNS = ImmutableList.of(KEY, VALUE);
+
+    @Test
+    public void testFilter()
+    {
+        BlockedBloomFilter bloomFilter = BlockedBloomFilter.create(100);
+        for (long value = 0; value < 100; value += 10) {
+            bloomFilter.put(BlockedBloomFilter.hashLong(value));
+        }
+        DynamicBloomFilterPageFilter filter = DynamicBloomFilterPageFilter.create(ImmutableMap.of(KEY, bloomFilter), COLUMNS, ImmutableList.of(BIGINT, VARCHAR)).get();
+
+        LazyBlock lazyValues = new LazyBlock(100, block -> block.setBlock(createStringSequenceBlock(0, 100)));
+        Page page = filter.filter(new Page(createLongSequenceBlock(0, 100), lazyValues));
+
+        // columns which are not filtered on stay lazy
+        assertFalse(lazyValues.isLoaded());
+        assertTrue(page.getPositionCount() >= 10);
+        assertTrue(page.getPositionCount() < 20);
+        for (int position = 0; position < page.getPositionCount(); position++) {
+            assertEquals(BIGINT.getLong(page.getBlock(0), position), Long.parseLong(VARCHAR.getSlice(page.getBlock(1), position).toStringUtf8()));
+        }
+    }
+
+    @Test
+    public void testDisabledWhenMostRowsPass()
+    {
+        BlockedBloomFilter bloomFilter = BlockedBloomFilter.create(MIN_SAMPLED_POSITIONS);
+        for (long value = 0; value < MIN_SAMPLED_POSITIONS; value++) {
+            bloomFilter.put(BlockedBloomFilter.hashLong(value));
+        }
+        DynamicBloomFilterPageFilter filter = DynamicBloomFilterPageFilter.create(ImmutableMap.of(KEY, bloomFilter), ImmutableList.of(KEY), ImmutableList.of(BIGINT)).get();
+
+        Page page = new Page(createLongSequenceBlock(0, MIN_SAMPLED_POSITIONS));
+        assertSame(filter.filter(page), page);
+        assertTrue(filter.isDisabled());
+    }
+
+    @Test
+    public void testUnsupportedColumns()
+    {
+        assertFalse(DynamicBloomFilterPageFilter.create(ImmutableMap.of(KEY, BlockedBloomFilter.create(100)), ImmutableList.of(KEY), ImmutableList.of(DOUBLE)).isPresent());
+        assertFalse(DynamicBloomFilterPageFilter.create(ImmutableMap.of(VALUE, BlockedBloomFilter.create(100)), ImmutableList.of(KEY), ImmutableList.of(BIGINT)).isPresent());
+    }
+}
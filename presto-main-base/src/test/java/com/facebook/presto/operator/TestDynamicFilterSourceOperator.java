@@ -17,6 +17,7 @@ import com.facebook.airlift.units.DataSize;
 import com.facebook.presto.common.Page;
 import com.facebook.presto.common.block.Block;
 import com.facebook.presto.common.block.BlockBuilder;
+import com.facebook.presto.common.predicate.BlockedBloomFilter;
 import com.facebook.presto.common.predicate.Domain;
 import com.facebook.presto.common.predicate.TupleDomain;
 import com.facebook.presto.common.predicate.ValueSet;
@@ -25,16 +26,22 @@ import com.facebook.presto.spi.plan.PlanNodeId;
 import com.facebook.presto.testing.MaterializedResult;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
 import org.testng.annotations.AfterMethod;
 import org.testng.annotations.BeforeMethod;
 import org.testng.annotations.Test;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.ScheduledExecutorService;
+import java.util.function.Consumer;
 import java.util.stream.IntStream;
+import java.util.stream.LongStream;
 
 import static com.facebook.airlift.concurrent.Threads.daemonThreadsNamed;
 import static com.facebook.airlift.units.DataSize.Unit.KILOBYTE;
@@ -49,6 +56,7 @@ import static com.facebook.presto.block.BlockAssertions.createLongRepeatBlock;
 import static com.facebook.presto.block.BlockAssertions.createLongSequenceBlock;
 import static com.facebook.presto.block.BlockAssertions.createLongsBlock;
 import static com.facebook.presto.block.BlockAssertions.createSequenceBlockOfReal;
+import static com.facebook.presto.block.BlockAssertions.createStringSequenceBlock;
 import static com.facebook.presto.block.BlockAssertions.createStringsBlock;
 import static com.facebook.presto.common.predicate.Range.range;
 import static com.facebook.presto.common.type.BigintType.BIGINT;
@@ -67,8 +75,10 @@ import static com.google.common.base.Strings.repeat;
 import static com.google.common.collect.ImmutableList.toImmutableList;
 import static io.airlift.slice.Slices.utf8Slice;
 import static java.lang.Float.floatToRawIntBits;
+import static java.nio.charset.StandardCharsets.UTF_8;
 import static java.util.concurrent.Executors.newCachedThreadPool;
 import static java.util.concurrent.Executors.newScheduledThreadPool;
+import static org.testng.Assert.assertTrue;
 
 @Test(singleThreaded = true)
 public class TestDynamicFilterSourceOperator
@@ -537,4 +547,81 @@ public class TestDynamicFilterSourceOperator
                         new Page(createLongSequenceBlock(0, maxPositionsCount + 1))),
                 ImmutableList.of(TupleDomain.all()));
     }
+
+    @Test
+    public void testBloomFilterNotReportedForExactValues()
+    {
+        List<Optional<Map<String, BlockedBloomFilter>>> bloomFilters = new ArrayList<>();
+        OperatorFactory operatorFactory = createBloomFilterOperatorFactory(100, 1_000, bloomFilters::add, channel(0, BIGINT));
+        verifyPassthrough(createOperator(operatorFactory), ImmutableList.of(BIGINT), new Page(createLongsBlock(1, 2, 3)));
+        operatorFactory.noMoreOperators();
+
+        assertEquals(bloomFilters, ImmutableList.of(Optional.empty()));
+    }
+
+    @Test
+    public void testCollectBloomFilterWhenTooManyPositions()
+    {
+        List<Optional<Map<String, BlockedBloomFilter>>> bloomFilters = new ArrayList<>();
+        OperatorFactory operatorFactory = createBloomFilterOperatorFactory(100, 1_000, bloomFilters::add, channel(0, BIGINT), channel(1, VARCHAR));
+        List<Type> types = ImmutableList.of(BIGINT, VARCHAR);
+        Page page = new Page(createLongSequenceBlock(0, 300), createStringSequenceBlock(0, 300));
+        verifyPassthrough(createOperator(operatorFactory), types, page, page);
+        operatorFactory.noMoreOperators();
+
+        assertEquals(bloomFilters.size(), 1);
+        Map<String, BlockedBloomFilter> filters = bloomFilters.get(0).get();
+        assertEquals(filters.keySet(), ImmutableSet.of("0", "1"));
+        for (int value = 0; value < 300; value++) {
+            assertTrue(filters.get("0").mightContainLong(value));
+            byte[] bytes = String.valueOf(value).getBytes(UTF_8);
+            assertTrue(filters.get("1").mightContainBytes(bytes, 0, bytes.length));
+        }
+        long falsePositives = LongStream.range(1_000, 11_000).filter(filters.get("0")::mightContainLong).count();
+        assertTrue(falsePositives < 500, "too many false positives: " + falsePositives);
+    }
+
+    @Test
+    public void testBloomFilterDroppedWhenTooManyRows()
+    {
+        List<Optional<Map<String, BlockedBloomFilter>>> bloomFilters = new ArrayList<>();
+        OperatorFactory operatorFactory = createBloomFilterOperatorFactory(100, 500, bloomFilters::add, channel(0, BIGINT));
+        verifyPassthrough(
+                createOperator(operatorFactory),
+                ImmutableList.of(BIGINT),
+                new Page(createLongSequenceBlock(0, 300)),
+                new Page(createLongSequenceBlock(300, 600)));
+        operatorFactory.noMoreOperators();
+
+        assertEquals(bloomFilters, ImmutableList.of(Optional.of(ImmutableMap.of())));
+    }
+
+    @Test
+    public void testBloomFilterNotCollectedForUnsupportedTypes()
+    {
+        List<Optional<Map<String, BlockedBloomFilter>>> bloomFilters = new ArrayList<>();
+        OperatorFactory operatorFactory = createBloomFilterOperatorFactory(100, 1_000, bloomFilters::add, channel(0, DOUBLE));
+        verifyPassthrough(createOperator(operatorFactory), ImmutableList.of(DOUBLE), new Page(createDoubleSequenceBlock(0, 300)));
+        operatorFactory.noMoreOperators();
+
+        assertEquals(bloomFilters, ImmutableList.of(Optional.of(ImmutableMap.of())));
+    }
+
+    private OperatorFactory createBloomFilterOperatorFactory(
+            int maxFilterPositionsCount,
+            int bloomFilterCollectionLimit,
+            Consumer<Optional<Map<String, BlockedBloomFilter>>> bloomFilterConsumer,
+            DynamicFilterSourceOperator.Channel... buildChannels)
+    {
+        return new DynamicFilterSourceOperator.DynamicFilterSourceOperatorFactory(
+                0,
+                new PlanNodeId("PLAN_NODE_ID"),
+                this::consumePredicate,
+                bloomFilterConsumer,
+                ImmutableList.copyOf(buildChannels),
+                maxFilterPositionsCount,
+                new DataSize(10, KILOBYTE),
+                1_000_000,
+                bloomFilterCollectionLimit);
+    }
 }
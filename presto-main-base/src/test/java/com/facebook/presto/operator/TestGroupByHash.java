@@ -18,6 +18,7 @@ import com.facebook.presto.block.BlockAssertions;
 import com.facebook.presto.common.Page;
 import com.facebook.presto.common.PageBuilder;
 import com.facebook.presto.common.block.Block;
+import com.facebook.presto.common.block.BlockBuilder;
 import com.facebook.presto.common.block.DictionaryBlock;
 import com.facebook.presto.common.block.DictionaryId;
 import com.facebook.presto.common.type.Type;
@@ -37,12 +38,15 @@ import java.util.Optional;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.IntStream;
 
+import static com.facebook.presto.block.BlockAssertions.createIntsBlock;
 import static com.facebook.presto.block.BlockAssertions.createLongSequenceBlock;
 import static com.facebook.presto.block.BlockAssertions.createLongsBlock;
 import static com.facebook.presto.block.BlockAssertions.createStringSequenceBlock;
 import static com.facebook.presto.common.block.DictionaryId.randomDictionaryId;
 import static com.facebook.presto.common.type.BigintType.BIGINT;
+import static com.facebook.presto.common.type.DateType.DATE;
 import static com.facebook.presto.common.type.DoubleType.DOUBLE;
+import static com.facebook.presto.common.type.IntegerType.INTEGER;
 import static com.facebook.presto.common.type.VarcharType.VARCHAR;
 import static com.facebook.presto.operator.GroupByHash.createGroupByHash;
 import static com.facebook.presto.type.TypeUtils.getHashBlock;
@@ -232,6 +236,60 @@ public class TestGroupByHash
         assertTrue(groupByHash.contains(0, new Page(testValuesBlock, testStringValuesBlock, testHashBlock), hashChannels));
     }
 
+    @Test
+    public void testFixedWidthMultipleColumns()
+    {
+        List<Type> types = ImmutableList.of(BIGINT, INTEGER, DATE);
+        int[] hashChannels = {0, 1, 2};
+        int positionCount = 1_000;
+
+        List<Long> longs = new ArrayList<>();
+        List<Integer> ints = new ArrayList<>();
+        BlockBuilder dateBlockBuilder = DATE.createBlockBuilder(null, positionCount);
+        for (int position = 0; position < positionCount; position++) {
+            longs.add(position % 11 == 0 ? null : (long) (position % 7));
+            ints.add(position % 13 == 0 ? null : -(position % 5));
+            DATE.writeLong(dateBlockBuilder, position % 3);
+        }
+        Block[] blocks = {createLongsBlock(longs), createIntsBlock(ints), dateBlockBuilder.build()};
+        Page page = new Page(blocks[0], blocks[1], blocks[2], getHashBlock(types, blocks));
+
+        GroupByHash groupByHash = createGroupByHash(TEST_SESSION, types, hashChannels, Optional.of(3), 4, JOIN_COMPILER);
+        assertTrue(groupByHash instanceof FixedWidthGroupByHash);
+        GroupByHash expectedGroupByHash = new MultiChannelGroupByHash(types, hashChannels, Optional.of(3), 4, false, JOIN_COMPILER, UpdateMemory.NOOP);
+
+        Work<GroupByIdBlock> work = groupByHash.getGroupIds(page);
+        assertTrue(work.process());
+        GroupByIdBlock groupIds = work.getResult();
+        Work<GroupByIdBlock> expectedWork = expectedGroupByHash.getGroupIds(page);
+        assertTrue(expectedWork.process());
+        GroupByIdBlock expectedGroupIds = expectedWork.getResult();
+
+        assertEquals(groupByHash.getGroupCount(), expectedGroupByHash.getGroupCount());
+        for (int position = 0; position < positionCount; position++) {
+            assertEquals(groupIds.getGroupId(position), expectedGroupIds.getGroupId(position));
+            assertTrue(groupByHash.contains(position, page, hashChannels));
+        }
+
+        PageBuilder pageBuilder = new PageBuilder(groupByHash.getTypes());
+        PageBuilder expectedPageBuilder = new PageBuilder(expectedGroupByHash.getTypes());
+        for (int groupId = 0; groupId < groupByHash.getGroupCount(); groupId++) {
+            assertEquals(groupByHash.getRawHash(groupId), expectedGroupByHash.getRawHash(groupId));
+            pageBuilder.declarePosition();
+            groupByHash.appendValuesTo(groupId, pageBuilder, 0);
+            expectedPageBuilder.declarePosition();
+            expectedGroupByHash.appendValuesTo(groupId, expectedPageBuilder, 0);
+        }
+        Page groups = pageBuilder.build();
+        Page expectedGroups = expectedPageBuilder.build();
+        for (int channel = 0; channel < groups.getChannelCount(); channel++) {
+            BlockAssertions.assertBlockEquals(groupByHash.getTypes().get(channel), groups.getBlock(channel), expectedGroups.getBlock(channel));
+        }
+
+        Block[] missingBlocks = {createLongsBlock(8L), createIntsBlock(0), DATE.createFixedSizeBlockBuilder(1).writeInt(0).closeEntry().build()};
+        assertFalse(groupByHash.contains(0, new Page(missingBlocks), hashChannels));
+    }
+
     @Test
     public void testForceRehash()
     {
@@ -18,6 +18,9 @@ import com.facebook.presto.ExceededMemoryLimitException;
 import com.facebook.presto.RowPagesBuilder;
 import com.facebook.presto.Session;
 import com.facebook.presto.common.Page;
+import com.facebook.presto.common.block.Block;
+import com.facebook.presto.common.block.LazyBlock;
+import com.facebook.presto.common.block.SelectiveLazyBlockLoader;
 import com.facebook.presto.common.type.Type;
 import com.facebook.presto.execution.Lifespan;
 import com.facebook.presto.execution.TaskId;
@@ -77,12 +80,15 @@ import static com.facebook.airlift.units.DataSize.Unit.BYTE;
 import static com.facebook.airlift.units.DataSize.Unit.MEGABYTE;
 import static com.facebook.presto.RowPagesBuilder.rowPagesBuilder;
 import static com.facebook.presto.SessionTestUtils.TEST_SESSION;
+import static com.facebook.presto.SystemSessionProperties.JOIN_LATE_MATERIALIZATION_ENABLED;
 import static com.facebook.presto.SystemSessionProperties.QUERY_MAX_MEMORY_PER_NODE;
 import static com.facebook.presto.SystemSessionProperties.getQueryMaxMemoryPerNode;
 import static com.facebook.presto.common.type.BigintType.BIGINT;
 import static com.facebook.presto.common.type.VarcharType.VARCHAR;
 import static com.facebook.presto.operator.OperatorAssertion.assertOperatorEquals;
 import static com.facebook.presto.operator.OperatorAssertion.dropChannel;
+import static com.facebook.presto.operator.OperatorAssertion.toMaterializedResult;
+import static com.facebook.presto.operator.OperatorAssertion.toPages;
 import static com.facebook.presto.operator.OperatorAssertion.without;
 import static com.facebook.presto.operator.PipelineExecutionStrategy.UNGROUPED_EXECUTION;
 import static com.facebook.presto.spi.StandardErrorCode.GENERIC_INTERNAL_ERROR;
@@ -92,6 +98,7 @@ import static com.facebook.presto.testing.assertions.Assert.assertEquals;
 import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkState;
 import static com.google.common.collect.ImmutableList.toImmutableList;
+import static com.google.common.collect.Iterables.getOnlyElement;
 import static com.google.common.collect.Iterators.unmodifiableIterator;
 import static com.google.common.util.concurrent.Futures.immediateFailedFuture;
 import static com.google.common.util.concurrent.Futures.immediateFuture;
@@ -206,6 +213,53 @@ public class TestHashJoinOperator
         assertOperatorEquals(joinOperatorFactory, taskContext.addPipelineContext(0, true, true, false).addDriverContext(), probeInput, expected, true, getHashChannels(probePages, buildPages));
     }
 
+    @Test
+    public void testInnerJoinWithLateMaterialization()
+    {
+        Session lateMaterializationSession = testSessionBuilder()
+                .setSystemProperty(JOIN_LATE_MATERIALIZATION_ENABLED, "true")
+                .build();
+        TaskContext taskContext = TestingTaskContext.createTaskContext(executor, scheduledExecutor, lateMaterializationSession);
+
+        // build factory
+        RowPagesBuilder buildPages = rowPagesBuilder(false, Ints.asList(0), ImmutableList.of(BIGINT, BIGINT))
+                .addSequencePage(10, 20, 30);
+        BuildSideSetup buildSideSetup = setupBuildSide(false, taskContext, Ints.asList(0), buildPages, Optional.empty(), false, SINGLE_STREAM_SPILLER_FACTORY);
+        JoinBridgeManager<PartitionedLookupSourceFactory> lookupSourceFactory = buildSideSetup.getLookupSourceFactoryManager();
+
+        // probe page as returned by the selective ORC reader: the join key is loaded and the payload is decoded on demand
+        RowPagesBuilder probePages = rowPagesBuilder(false, Ints.asList(0), ImmutableList.of(BIGINT, BIGINT));
+        Page probePage = getOnlyElement(probePages.addSequencePage(100, 0, 1000).build());
+        RecordingSelectiveLazyBlockLoader payloadLoader = new RecordingSelectiveLazyBlockLoader(probePage.getBlock(1));
+        Page lazyProbePage = new Page(probePage.getBlock(0), new LazyBlock(probePage.getPositionCount(), payloadLoader));
+        OperatorFactory joinOperatorFactory = innerJoinOperatorFactory(lookupSourceFactory, probePages, PARTITIONING_SPILLER_FACTORY);
+
+        // build drivers and operators
+        instantiateBuildDrivers(buildSideSetup, taskContext);
+        buildLookupSource(buildSideSetup);
+
+        DriverContext driverContext = taskContext.addPipelineContext(0, true, true, false).addDriverContext();
+        List<Page> actualPages = toPages(joinOperatorFactory, driverContext, ImmutableList.of(lazyProbePage));
+
+        MaterializedResult.Builder expected = MaterializedResult.resultBuilder(lateMaterializationSession, BIGINT, BIGINT, BIGINT, BIGINT);
+        for (long key = 20; key < 30; key++) {
+            expected.row(key, key + 1000, key, key + 10);
+        }
+        List<Type> outputTypes = ImmutableList.of(BIGINT, BIGINT, BIGINT, BIGINT);
+        assertEqualsIgnoreOrder(toMaterializedResult(lateMaterializationSession, outputTypes, actualPages).getMaterializedRows(), expected.build().getMaterializedRows());
+
+        // the rows without a match are dropped before the payload is decoded
+        assertEquals(payloadLoader.getLoadedPositions(), IntStream.range(20, 30).boxed().collect(toList()));
+
+        // the dropped rows are still counted by the join statistics
+        OperatorStats joinStats = getOnlyElement(driverContext.getOperatorContexts()).getOperatorStats();
+        assertEquals(joinStats.getJoinProbeKeyCount(), 100L);
+        JoinOperatorInfo joinInfo = (JoinOperatorInfo) joinStats.getInfo();
+        assertEquals(joinInfo.getLogHistogramProbes()[0], 90L);
+        assertEquals(joinInfo.getLogHistogramProbes()[1], 10L);
+        assertEquals(joinInfo.getLogHistogramOutput()[1], 10L);
+    }
+
     @Test
     public void testYield()
     {
@@ -1774,6 +1828,36 @@ public class TestHashJoinOperator
         }
     }
 
+    private static class RecordingSelectiveLazyBlockLoader
+            implements SelectiveLazyBlockLoader
+    {
+        private final Block block;
+        private List<Integer> loadedPositions;
+
+        private RecordingSelectiveLazyBlockLoader(Block block)
+        {
+            this.block = requireNonNull(block, "block is null");
+        }
+
+        @Override
+        public void load(LazyBlock lazyBlock)
+        {
+            fail("Only the selected positions should be loaded");
+        }
+
+        @Override
+        public Block load(int[] positions, int positionCount)
+        {
+            loadedPositions = Ints.asList(Arrays.copyOf(positions, positionCount));
+            return block.getPositions(positions, 0, positionCount);
+        }
+
+        public List<Integer> getLoadedPositions()
+        {
+            return loadedPositions;
+        }
+    }
+
     private static class DummySpillerFactory
             implements SingleStreamSpillerFactory
     {
@@ -14,18 +14,34 @@
 package com.facebook.presto.operator;
 
 import com.facebook.presto.common.Page;
+import com.facebook.presto.common.block.BlockBuilder;
+import com.facebook.presto.common.block.SortOrder;
 import com.facebook.presto.common.type.Type;
+import com.facebook.presto.memory.context.LocalMemoryContext;
+import com.facebook.presto.memory.context.MemoryReservationHandler;
 import com.google.common.collect.ImmutableList;
+import com.google.common.util.concurrent.ListenableFuture;
 import org.testng.annotations.Test;
 
 import java.util.Arrays;
+import java.util.Iterator;
 import java.util.List;
 
 import static com.facebook.presto.SequencePageBuilder.createSequencePage;
+import static com.facebook.presto.block.BlockAssertions.assertBlockEquals;
+import static com.facebook.presto.common.block.SortOrder.ASC_NULLS_LAST;
+import static com.facebook.presto.common.block.SortOrder.DESC_NULLS_FIRST;
+import static com.facebook.presto.common.block.SortOrder.DESC_NULLS_LAST;
 import static com.facebook.presto.common.type.BigintType.BIGINT;
+import static com.facebook.presto.common.type.IntegerType.INTEGER;
 import static com.facebook.presto.common.type.VarcharType.VARCHAR;
+import static com.facebook.presto.memory.context.AggregatedMemoryContext.newRootAggregatedMemoryContext;
+import static com.facebook.presto.memory.context.AggregatedMemoryContext.newSimpleAggregatedMemoryContext;
+import static com.google.common.util.concurrent.Futures.immediateFuture;
+import static io.airlift.slice.Slices.utf8Slice;
 import static java.lang.String.format;
 import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
 import static org.testng.Assert.assertTrue;
 
 public class TestPagesIndex
@@ -82,11 +98,117 @@ public class TestPagesIndex
         assertEquals(lazyCompactPagesIndex.getEstimatedSize(), eagerCompactPagesIndex.getEstimatedSize());
     }
 
+    @Test
+    public void testNormalizedKeySort()
+    {
+        List<Type> types = ImmutableList.of(BIGINT, INTEGER, VARCHAR);
+
+        // fully normalized keys
+        assertNormalizedKeySort(types, ImmutableList.of(0, 1), ImmutableList.of(ASC_NULLS_LAST, DESC_NULLS_FIRST));
+        assertNormalizedKeySort(types, ImmutableList.of(1), ImmutableList.of(DESC_NULLS_LAST));
+        // ties on the leading keys are resolved on the variable width channel
+        assertNormalizedKeySort(types, ImmutableList.of(1, 2), ImmutableList.of(ASC_NULLS_LAST, DESC_NULLS_LAST));
+        assertNormalizedKeySort(types, ImmutableList.of(1, 2, 0), ImmutableList.of(DESC_NULLS_FIRST, ASC_NULLS_LAST, DESC_NULLS_LAST));
+    }
+
+    @Test
+    public void testNormalizedKeySortReservationRefused()
+    {
+        List<Type> types = ImmutableList.of(BIGINT, INTEGER, VARCHAR);
+        RefusingMemoryReservationHandler reservationHandler = new RefusingMemoryReservationHandler();
+        LocalMemoryContext memoryContext = newRootAggregatedMemoryContext(reservationHandler, 0).newLocalMemoryContext("test");
+
+        // the index is sorted with the comparator
+        assertNormalizedKeySort(types, ImmutableList.of(1, 2), ImmutableList.of(ASC_NULLS_LAST, DESC_NULLS_LAST), memoryContext);
+        assertTrue(reservationHandler.getRefusedReservations() > 0);
+    }
+
+    private static void assertNormalizedKeySort(List<Type> types, List<Integer> sortChannels, List<SortOrder> sortOrders)
+    {
+        assertNormalizedKeySort(types, sortChannels, sortOrders, newSimpleAggregatedMemoryContext().newLocalMemoryContext("test"));
+    }
+
+    private static void assertNormalizedKeySort(List<Type> types, List<Integer> sortChannels, List<SortOrder> sortOrders, LocalMemoryContext memoryContext)
+    {
+        PagesIndex expectedPagesIndex = new PagesIndex.TestingFactory(false).newPagesIndex(types, 100);
+        PagesIndex pagesIndex = new PagesIndex.TestingFactory(false, true).newPagesIndex(types, 100);
+        for (int i = 0; i < 3; i++) {
+            Page page = duplicateKeysPage(i * 1000, 1000);
+            expectedPagesIndex.addPage(page);
+            pagesIndex.addPage(page);
+        }
+
+        expectedPagesIndex.sort(sortChannels, sortOrders);
+        pagesIndex.sort(sortChannels, sortOrders, memoryContext);
+        // the key buffers are released once the index is sorted
+        assertEquals(memoryContext.getBytes(), 0);
+
+        Iterator<Page> expectedPages = expectedPagesIndex.getSortedPages();
+        Iterator<Page> actualPages = pagesIndex.getSortedPages();
+        while (expectedPages.hasNext()) {
+            assertTrue(actualPages.hasNext());
+            Page expected = expectedPages.next();
+            Page actual = actualPages.next();
+            // rows with equal sort keys may come out in any order, so only the sort channels are compared
+            for (int channel : sortChannels) {
+                assertBlockEquals(types.get(channel), actual.getBlock(channel), expected.getBlock(channel));
+            }
+        }
+        assertFalse(actualPages.hasNext());
+    }
+
+    private static Page duplicateKeysPage(int start, int positionCount)
+    {
+        BlockBuilder bigintBlockBuilder = BIGINT.createBlockBuilder(null, positionCount);
+        BlockBuilder integerBlockBuilder = INTEGER.createBlockBuilder(null, positionCount);
+        BlockBuilder varcharBlockBuilder = VARCHAR.createBlockBuilder(null, positionCount);
+        for (int i = start; i < start + positionCount; i++) {
+            if (i % 17 == 0) {
+                bigintBlockBuilder.appendNull();
+            }
+            else {
+                BIGINT.writeLong(bigintBlockBuilder, (i * 7919L) % 101 - 50);
+            }
+            if (i % 13 == 0) {
+                integerBlockBuilder.appendNull();
+            }
+            else {
+                INTEGER.writeLong(integerBlockBuilder, i % 11 - 5);
+            }
+            VARCHAR.writeSlice(varcharBlockBuilder, utf8Slice(String.valueOf(i % 97)));
+        }
+        return new Page(bigintBlockBuilder.build(), integerBlockBuilder.build(), varcharBlockBuilder.build());
+    }
+
     private static PagesIndex newPagesIndex(List<Type> types, int expectedPositions, boolean eagerCompact)
     {
         return new PagesIndex.TestingFactory(eagerCompact).newPagesIndex(types, expectedPositions);
     }
 
+    private static class RefusingMemoryReservationHandler
+            implements MemoryReservationHandler
+    {
+        private int refusedReservations;
+
+        @Override
+        public ListenableFuture<?> reserveMemory(String allocationTag, long delta, boolean enforceBroadcastMemoryLimit)
+        {
+            return immediateFuture(null);
+        }
+
+        @Override
+        public boolean tryReserveMemory(String allocationTag, long delta, boolean enforceBroadcastMemoryLimit)
+        {
+            refusedReservations++;
+            return false;
+        }
+
+        public int getRefusedReservations()
+        {
+            return refusedReservations;
+        }
+    }
+
     private static Page somePage(List<Type> types)
     {
         int[] initialValues = new int[types.size()];
@@ -0,0 +1,230 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.operator.aggregation;
+
+import com.facebook.presto.common.Page;
+import com.facebook.presto.common.block.Block;
+import com.facebook.presto.common.block.BlockBuilder;
+import com.facebook.presto.common.type.Type;
+import com.facebook.presto.metadata.FunctionAndTypeManager;
+import com.facebook.presto.metadata.MetadataManager;
+import com.facebook.presto.operator.UpdateMemory;
+import com.facebook.presto.operator.aggregation.VectorizedAccumulatorFactory.VectorizedAggregation;
+import com.facebook.presto.spi.function.FunctionHandle;
+import com.facebook.presto.spi.function.FunctionMetadata;
+import com.facebook.presto.spi.function.aggregation.GroupByIdBlock;
+import com.facebook.presto.spi.function.aggregation.GroupedAccumulator;
+import com.google.common.collect.ImmutableList;
+import org.testng.annotations.Test;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.Random;
+
+import static com.facebook.presto.block.BlockAssertions.assertBlockEquals;
+import static com.facebook.presto.common.type.BigintType.BIGINT;
+import static com.facebook.presto.common.type.BooleanType.BOOLEAN;
+import static com.facebook.presto.common.type.DoubleType.DOUBLE;
+import static com.facebook.presto.common.type.VarcharType.VARCHAR;
+import static com.facebook.presto.operator.aggregation.GenericAccumulatorFactory.generateAccumulatorFactory;
+import static com.facebook.presto.sql.analyzer.TypeSignatureProvider.fromTypes;
+import static io.airlift.slice.Slices.utf8Slice;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+public class TestVectorizedGroupedAccumulator
+{
+    private static final FunctionAndTypeManager FUNCTION_AND_TYPE_MANAGER = MetadataManager.createTestMetadataManager().getFunctionAndTypeManager();
+    private static final int GROUP_COUNT = 37;
+
+    @Test
+    public void testVectorizedAggregationLookup()
+    {
+        assertEquals(getVectorizedAggregation("count"), Optional.of(VectorizedAggregation.COUNT_ALL));
+        assertEquals(getVectorizedAggregation("count", VARCHAR), Optional.of(VectorizedAggregation.COUNT));
+        assertEquals(getVectorizedAggregation("sum", BIGINT), Optional.of(VectorizedAggregation.LONG_SUM));
+        assertEquals(getVectorizedAggregation("sum", DOUBLE), Optional.of(VectorizedAggregation.DOUBLE_SUM));
+        assertEquals(getVectorizedAggregation("min", BIGINT), Optional.of(VectorizedAggregation.LONG_MIN));
+        assertEquals(getVectorizedAggregation("max", BIGINT), Optional.of(VectorizedAggregation.LONG_MAX));
+        assertEquals(getVectorizedAggregation("avg", BIGINT), Optional.of(VectorizedAggregation.LONG_AVERAGE));
+        assertEquals(getVectorizedAggregation("avg", DOUBLE), Optional.of(VectorizedAggregation.DOUBLE_AVERAGE));
+        assertFalse(getVectorizedAggregation("min", DOUBLE).isPresent());
+        assertFalse(getVectorizedAggregation("max", VARCHAR).isPresent());
+        assertFalse(getVectorizedAggregation("approx_distinct", BIGINT).isPresent());
+    }
+
+    @Test
+    public void testCountAll()
+    {
+        assertMatchesGeneratedAccumulator("count", ImmutableList.of(), false);
+        assertMatchesGeneratedAccumulator("count", ImmutableList.of(), true);
+    }
+
+    @Test
+    public void testCount()
+    {
+        assertMatchesGeneratedAccumulator("count", ImmutableList.of(VARCHAR), false);
+        assertMatchesGeneratedAccumulator("count", ImmutableList.of(BIGINT), true);
+    }
+
+    @Test
+    public void testSum()
+    {
+        assertMatchesGeneratedAccumulator("sum", ImmutableList.of(BIGINT), false);
+        assertMatchesGeneratedAccumulator("sum", ImmutableList.of(BIGINT), true);
+        assertMatchesGeneratedAccumulator("sum", ImmutableList.of(DOUBLE), false);
+        assertMatchesGeneratedAccumulator("sum", ImmutableList.of(DOUBLE), true);
+    }
+
+    @Test
+    public void testMinMax()
+    {
+        assertMatchesGeneratedAccumulator("min", ImmutableList.of(BIGINT), false);
+        assertMatchesGeneratedAccumulator("min", ImmutableList.of(BIGINT), true);
+        assertMatchesGeneratedAccumulator("max", ImmutableList.of(BIGINT), false);
+        assertMatchesGeneratedAccumulator("max", ImmutableList.of(BIGINT), true);
+    }
+
+    @Test
+    public void testAverage()
+    {
+        assertMatchesGeneratedAccumulator("avg", ImmutableList.of(BIGINT), false);
+        assertMatchesGeneratedAccumulator("avg", ImmutableList.of(BIGINT), true);
+        assertMatchesGeneratedAccumulator("avg", ImmutableList.of(DOUBLE), false);
+        assertMatchesGeneratedAccumulator("avg", ImmutableList.of(DOUBLE), true);
+    }
+
+    private static Optional<VectorizedAggregation> getVectorizedAggregation(String name, Type... argumentTypes)
+    {
+        FunctionMetadata functionMetadata = FUNCTION_AND_TYPE_MANAGER.getFunctionMetadata(FUNCTION_AND_TYPE_MANAGER.lookupFunction(name, fromTypes(argumentTypes)));
+        return VectorizedAccumulatorFactory.getVectorizedAggregation(functionMetadata.getName(), functionMetadata.getArgumentTypes());
+    }
+
+    private static void assertMatchesGeneratedAccumulator(String name, List<Type> argumentTypes, boolean masked)
+    {
+        FunctionHandle functionHandle = FUNCTION_AND_TYPE_MANAGER.lookupFunction(name, fromTypes(argumentTypes));
+        BuiltInAggregationFunctionImplementation function = (BuiltInAggregationFunctionImplementation) FUNCTION_AND_TYPE_MANAGER.getJavaAggregateFunctionImplementation(functionHandle);
+        Optional<VectorizedAggregation> vectorizedAggregation = getVectorizedAggregation(name, argumentTypes.toArray(new Type[0]));
+        assertTrue(vectorizedAggregation.isPresent());
+
+        // the argument, if any, is in channel 0 and the mask in the last channel
+        List<Integer> inputChannels = argumentTypes.isEmpty() ? ImmutableList.of() : ImmutableList.of(0);
+        Optional<Integer> maskChannel = masked ? Optional.of(argumentTypes.size()) : Optional.empty();
+        AccumulatorFactory generatedFactory = generateAccumulatorFactory(function, inputChannels, maskChannel);
+        AccumulatorFactory vectorizedFactory = new VectorizedAccumulatorFactory(
+                generatedFactory,
+                vectorizedAggregation.get(),
+                function.getAggregationMetadata().getAccumulatorStateDescriptors().get(0),
+                maskChannel,
+                function.getFinalType());
+
+        Random random = new Random(name.hashCode());
+        List<Page> pages = ImmutableList.of(
+                createPage(random, argumentTypes, masked, 1000, 0.0),
+                createPage(random, argumentTypes, masked, 1000, 0.2),
+                createPage(random, argumentTypes, masked, 0, 0.0),
+                createPage(random, argumentTypes, masked, 500, 1.0));
+        List<GroupByIdBlock> groupIds = ImmutableList.of(
+                createGroupIds(random, 1000, GROUP_COUNT - 7),
+                createGroupIds(random, 1000, GROUP_COUNT),
+                createGroupIds(random, 0, GROUP_COUNT),
+                createGroupIds(random, 500, GROUP_COUNT));
+
+        GroupedAccumulator generated = generatedFactory.createGroupedAccumulator(UpdateMemory.NOOP);
+        GroupedAccumulator vectorized = vectorizedFactory.createGroupedAccumulator(UpdateMemory.NOOP);
+        for (int i = 0; i < pages.size(); i++) {
+            generated.addInput(groupIds.get(i), pages.get(i));
+            vectorized.addInput(groupIds.get(i), pages.get(i));
+        }
+        assertEquals(vectorized.getFinalType(), generated.getFinalType());
+        assertEquals(vectorized.getIntermediateType(), generated.getIntermediateType());
+        Block generatedIntermediate = evaluateIntermediate(generated);
+        Block vectorizedIntermediate = evaluateIntermediate(vectorized);
+        assertBlockEquals(vectorized.getIntermediateType(), vectorizedIntermediate, generatedIntermediate);
+        assertBlockEquals(vectorized.getFinalType(), evaluateFinal(vectorized), evaluateFinal(generated));
+
+        // the intermediate states are interchangeable, so combine each with the other
+        GroupByIdBlock intermediateGroupIds = createGroupIds(random, GROUP_COUNT, GROUP_COUNT);
+        GroupedAccumulator generatedCombined = generatedFactory.createGroupedIntermediateAccumulator(UpdateMemory.NOOP);
+        GroupedAccumulator vectorizedCombined = vectorizedFactory.createGroupedIntermediateAccumulator(UpdateMemory.NOOP);
+        generatedCombined.addIntermediate(intermediateGroupIds, vectorizedIntermediate);
+        vectorizedCombined.addIntermediate(intermediateGroupIds, generatedIntermediate);
+        assertBlockEquals(vectorizedCombined.getIntermediateType(), evaluateIntermediate(vectorizedCombined), evaluateIntermediate(generatedCombined));
+        assertBlockEquals(vectorizedCombined.getFinalType(), evaluateFinal(vectorizedCombined), evaluateFinal(generatedCombined));
+    }
+
+    private static Page createPage(Random random, List<Type> argumentTypes, boolean masked, int positionCount, double nullRatio)
+    {
+        ImmutableList.Builder<Block> blocks = ImmutableList.builder();
+        for (Type type : argumentTypes) {
+            BlockBuilder blockBuilder = type.createBlockBuilder(null, positionCount);
+            for (int position = 0; position < positionCount; position++) {
+                if (random.nextDouble() < nullRatio) {
+                    blockBuilder.appendNull();
+                }
+                else if (type.equals(BIGINT)) {
+                    BIGINT.writeLong(blockBuilder, random.nextInt());
+                }
+                else if (type.equals(DOUBLE)) {
+                    DOUBLE.writeDouble(blockBuilder, random.nextDouble() * 1000);
+                }
+                else {
+                    VARCHAR.writeSlice(blockBuilder, utf8Slice(String.valueOf(random.nextInt(100))));
+                }
+            }
+            blocks.add(blockBuilder.build());
+        }
+        if (masked) {
+            BlockBuilder maskBuilder = BOOLEAN.createBlockBuilder(null, positionCount);
+            for (int position = 0; position < positionCount; position++) {
+                if (random.nextInt(10) == 0) {
+                    maskBuilder.appendNull();
+                }
+                else {
+                    BOOLEAN.writeBoolean(maskBuilder, random.nextBoolean());
+                }
+            }
+            blocks.add(maskBuilder.build());
+        }
+        return new Page(positionCount, blocks.build().toArray(new Block[0]));
+    }
+
+    private static GroupByIdBlock createGroupIds(Random random, int positionCount, int groupCount)
+    {
+        BlockBuilder blockBuilder = BIGINT.createBlockBuilder(null, positionCount);
+        for (int position = 0; position < positionCount; position++) {
+            BIGINT.writeLong(blockBuilder, random.nextInt(groupCount));
+        }
+        return new GroupByIdBlock(groupCount, blockBuilder.build());
+    }
+
+    private static Block evaluateIntermediate(GroupedAccumulator accumulator)
+    {
+        BlockBuilder blockBuilder = accumulator.getIntermediateType().createBlockBuilder(null, GROUP_COUNT);
+        for (int groupId = 0; groupId < GROUP_COUNT; groupId++) {
+            accumulator.evaluateIntermediate(groupId, blockBuilder);
+        }
+        return blockBuilder.build();
+    }
+
+    private static Block evaluateFinal(GroupedAccumulator accumulator)
+    {
+        BlockBuilder blockBuilder = accumulator.getFinalType().createBlockBuilder(null, GROUP_COUNT);
+        for (int groupId = 0; groupId < GROUP_COUNT; groupId++) {
+            accumulator.evaluateFinal(groupId, blockBuilder);
+        }
+        return blockBuilder.build();
+    }
+}
@@ -0,0 +1,199 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.operator.exchange;
+
+import com.facebook.airlift.units.DataSize;
+import com.facebook.presto.common.Page;
+import com.facebook.presto.operator.exchange.LocalExchange.LocalExchangeSinkFactory;
+import com.facebook.presto.operator.exchange.LocalExchange.LocalExchangeSinkFactoryId;
+import com.facebook.presto.spi.plan.PartitioningHandle;
+import com.facebook.presto.sql.planner.PartitioningProviderManager;
+import com.google.common.collect.ImmutableList;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.VerboseMode;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+import static com.facebook.airlift.concurrent.Threads.daemonThreadsNamed;
+import static com.facebook.airlift.units.DataSize.Unit.MEGABYTE;
+import static com.facebook.presto.SequencePageBuilder.createSequencePage;
+import static com.facebook.presto.common.type.BigintType.BIGINT;
+import static com.facebook.presto.sql.planner.SystemPartitioningHandle.FIXED_ARBITRARY_DISTRIBUTION;
+import static com.facebook.presto.sql.planner.SystemPartitioningHandle.FIXED_HASH_DISTRIBUTION;
+import static com.facebook.presto.testing.TestingSession.testSessionBuilder;
+import static java.util.concurrent.Executors.newCachedThreadPool;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static org.testng.Assert.assertEquals;
+
+/**
+ * Drives N producer threads through {@link LocalExchangeSink}s into M {@link LocalExchangeSource}s,
+ * each drained by its own consumer thread.
+ */
+@SuppressWarnings("MethodMayBeStatic")
+@State(Scope.Thread)
+@OutputTimeUnit(MILLISECONDS)
+@Fork(2)
+@Warmup(iterations = 10, time = 500, timeUnit = MILLISECONDS)
+@Measurement(iterations = 10, time = 500, timeUnit = MILLISECONDS)
+@BenchmarkMode(Mode.AverageTime)
+public class BenchmarkLocalExchange
+{
+    private static final int PAGES_PER_PRODUCER = 500;
+    private static final int POSITIONS_PER_PAGE = 1024;
+
+    @Benchmark
+    public long exchange(BenchmarkData data)
+            throws Exception
+    {
+        return data.run();
+    }
+
+    @Test
+    public void verifyExchange()
+            throws Exception
+    {
+        BenchmarkData data = new BenchmarkData();
+        data.setup();
+        try {
+            long expectedPositions = (long) data.producers * PAGES_PER_PRODUCER * POSITIONS_PER_PAGE;
+            assertEquals(exchange(data), expectedPositions);
+        }
+        finally {
+            data.tearDown();
+        }
+    }
+
+    @SuppressWarnings("FieldMayBeFinal")
+    @State(Scope.Thread)
+    public static class BenchmarkData
+    {
+        @Param({"1", "8", "32"})
+        private int producers = 4;
+
+        @Param({"1", "8", "32"})
+        private int consumers = 4;
+
+        @Param({"FIXED_HASH_DISTRIBUTION", "FIXED_ARBITRARY_DISTRIBUTION"})
+        private String partitioning = "FIXED_HASH_DISTRIBUTION";
+
+        private PartitioningProviderManager partitioningProviderManager;
+        private ExecutorService executor;
+        private Page page;
+
+        @Setup
+        public void setup()
+        {
+            partitioningProviderManager = new PartitioningProviderManager();
+            executor = newCachedThreadPool(daemonThreadsNamed("benchmark-local-exchange-%s"));
+            page = createSequencePage(ImmutableList.of(BIGINT, BIGINT), POSITIONS_PER_PAGE, 0, 0);
+        }
+
+        @TearDown
+        public void tearDown()
+        {
+            executor.shutdownNow();
+        }
+
+        public long run()
+                throws Exception
+        {
+            PartitioningHandle partitioningHandle = partitioning.equals("FIXED_HASH_DISTRIBUTION") ? FIXED_HASH_DISTRIBUTION : FIXED_ARBITRARY_DISTRIBUTION;
+            LocalExchange exchange = new LocalExchange(
+                    partitioningProviderManager,
+                    testSessionBuilder().build(),
+                    1,
+                    consumers,
+                    partitioningHandle,
+                    ImmutableList.of(0),
+                    ImmutableList.of(BIGINT),
+                    Optional.empty(),
+                    new DataSize(32, MEGABYTE));
+
+            LocalExchangeSinkFactory sinkFactory = exchange.getSinkFactory(new LocalExchangeSinkFactoryId(0));
+            List<LocalExchangeSink> sinks = new ArrayList<>();
+            for (int i = 0; i < producers; i++) {
+                sinks.add(sinkFactory.createSink());
+            }
+            sinkFactory.close();
+
+            List<Future<Long>> consumerFutures = new ArrayList<>();
+            for (int i = 0; i < consumers; i++) {
+                LocalExchangeSource source = exchange.getSource(i);
+                consumerFutures.add(executor.submit(() -> {
+                    long positions = 0;
+                    while (!source.isFinished()) {
+                        Page received = source.removePage();
+                        if (received == null) {
+                            source.waitForReading().get();
+                            continue;
+                        }
+                        positions += received.getPositionCount();
+                    }
+                    return positions;
+                }));
+            }
+
+            List<Future<?>> producerFutures = new ArrayList<>();
+            for (LocalExchangeSink sink : sinks) {
+                producerFutures.add(executor.submit(() -> {
+                    for (int i = 0; i < PAGES_PER_PRODUCER; i++) {
+                        sink.waitForWriting().get();
+                        sink.addPage(page);
+                    }
+                    sink.finish();
+                    return null;
+                }));
+            }
+
+            for (Future<?> future : producerFutures) {
+                future.get();
+            }
+            long positions = 0;
+            for (Future<Long> future : consumerFutures) {
+                positions += future.get();
+            }
+            return positions;
+        }
+    }
+
+    public static void main(String[] args)
+            throws RunnerException
+    {
+        Options options = new OptionsBuilder()
+                .verbosity(VerboseMode.NORMAL)
+                .include(".*" + BenchmarkLocalExchange.class.getSimpleName() + ".*")
+                .build();
+        new Runner(options).run();
+    }
+}
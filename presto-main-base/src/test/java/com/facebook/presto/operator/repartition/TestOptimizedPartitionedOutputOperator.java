@@ -347,6 +347,20 @@ public class TestOptimizedPartitionedOutputOperator
         testPartitionedMultiplePages(ImmutableList.of(withDefaultFieldNames(ImmutableList.of(new ArrayType(VARCHAR), createMapType(VARCHAR, withDefaultFieldNames(ImmutableList.of(VARCHAR, VARCHAR)))))));
     }
 
+    @Test
+    public void testPartitionedWithPackedLongEncoding()
+    {
+        List<Type> targetTypes = ImmutableList.of(BIGINT, createDecimalType(MAX_SHORT_PRECISION - 1), VARCHAR);
+        List<Type> types = updateBlockTypesWithHashBlockAndNullBlock(targetTypes, true, false);
+        List<Page> pages = ImmutableList.of(
+                PageAssertions.createPageWithRandomData(targetTypes, POSITION_COUNT, true, false, 0.2f, 0.2f, false, ImmutableList.of()),
+                PageAssertions.createPageWithRandomData(targetTypes, POSITION_COUNT, true, false, 0.2f, 0.2f, true, ImmutableList.of(DICTIONARY, RUN_LENGTH)),
+                PageAssertions.createPageWithRandomData(targetTypes, POSITION_COUNT, true, false, 0.0f, 0.0f, false, ImmutableList.of()));
+
+        testPartitioned(types, pages, new DataSize(128, MEGABYTE), ImmutableList.of(0), new PrecomputedHashGenerator(0), true);
+        testPartitioned(types, pages, new DataSize(1, KILOBYTE), ImmutableList.of(0), new PrecomputedHashGenerator(0), true);
+    }
+
     @Test
     public void testReplicatedSinglePagePrimitiveTypes()
     {
@@ -698,6 +712,11 @@ public class TestOptimizedPartitionedOutputOperator
     }
 
     private void testPartitioned(List<Type> types, List<Page> pages, DataSize maxMemory, List<Integer> partitionChannel, HashGenerator hashGenerator)
+    {
+        testPartitioned(types, pages, maxMemory, partitionChannel, hashGenerator, false);
+    }
+
+    private void testPartitioned(List<Type> types, List<Page> pages, DataSize maxMemory, List<Integer> partitionChannel, HashGenerator hashGenerator, boolean packedLongEncodingEnabled)
     {
         TestingPartitionedOutputBuffer outputBuffer = createPartitionedOutputBuffer();
         PartitionFunction partitionFunction = new LocalPartitionGenerator(hashGenerator, PARTITION_COUNT);
@@ -707,7 +726,8 @@ public class TestOptimizedPartitionedOutputOperator
                 partitionFunction,
                 outputBuffer,
                 OptionalInt.empty(),
-                maxMemory);
+                maxMemory,
+                packedLongEncodingEnabled);
 
         Map<Integer, List<Page>> expectedPageList = new HashMap<>();
 
@@ -897,6 +917,18 @@ public class TestOptimizedPartitionedOutputOperator
             PartitionedOutputBuffer buffer,
             OptionalInt nullChannel,
             DataSize maxMemory)
+    {
+        return createOptimizedPartitionedOutputOperator(types, partitionChannel, partitionFunction, buffer, nullChannel, maxMemory, false);
+    }
+
+    private OptimizedPartitionedOutputOperator createOptimizedPartitionedOutputOperator(
+            List<Type> types,
+            List<Integer> partitionChannel,
+            PartitionFunction partitionFunction,
+            PartitionedOutputBuffer buffer,
+            OptionalInt nullChannel,
+            DataSize maxMemory,
+            boolean packedLongEncodingEnabled)
     {
         PagesSerdeFactory serdeFactory = new PagesSerdeFactory(new BlockEncodingManager(), CompressionCodec.NONE);
 
@@ -907,7 +939,7 @@ public class TestOptimizedPartitionedOutputOperator
                 false,
                 nullChannel);
 
-        OptimizedPartitionedOutputFactory operatorFactory = new OptimizedPartitionedOutputFactory(buffer, maxMemory);
+        OptimizedPartitionedOutputFactory operatorFactory = new OptimizedPartitionedOutputFactory(buffer, maxMemory, packedLongEncodingEnabled);
 
         return (OptimizedPartitionedOutputOperator) operatorFactory
                 .createOutputOperator(0, new PlanNodeId("plan-node-0"), types, Function.identity(), Optional.of(outputPartitioning), serdeFactory)
@@ -95,6 +95,47 @@ public class TestFileSingleStreamSpiller
         assertSpill(codec, true);
     }
 
+    @Test(dataProvider = "testCompressionCodec")
+    public void testPipelinedSpill(CompressionCodec codec)
+            throws Exception
+    {
+        File spillPath = tempDirectory.toPath().resolve(UUID.randomUUID().toString()).toFile();
+        SpillerStats spillerStats = new SpillerStats();
+        FileSingleStreamSpillerFactory spillerFactory = new FileSingleStreamSpillerFactory(
+                executor, // executor won't be closed, because we don't call destroy() on the spiller factory
+                new BlockEncodingManager(),
+                spillerStats,
+                ImmutableList.of(spillPath.toPath()),
+                1.0,
+                codec,
+                true,
+                true,
+                5000);
+        LocalMemoryContext memoryContext = newSimpleAggregatedMemoryContext().newLocalMemoryContext("test");
+        SingleStreamSpiller spiller = spillerFactory.create(TYPES, new TestingSpillContext(), memoryContext);
+
+        // the I/O buffer size is rounded up to 8kB
+        assertEquals(memoryContext.getBytes(), FileSingleStreamSpiller.BUFFER_SIZE + 2 * 8192);
+
+        Page page = buildPage(1000);
+        // several spills that end in the middle of a chunk, spanning many chunks in total
+        for (int i = 0; i < 10; i++) {
+            spiller.spill(Iterators.forArray(page, page, page)).get();
+        }
+        assertTrue(spillerStats.getTotalSpilledBytes() > 3 * 8192);
+        assertTrue(spillerStats.getSpillWriteBytesPerSecond() > 0);
+
+        List<Page> spilledPages = ImmutableList.copyOf(spiller.getSpilledPages());
+        assertEquals(spilledPages.size(), 30);
+        for (Page spilledPage : spilledPages) {
+            PageAssertions.assertPageEquals(TYPES, page, spilledPage);
+        }
+
+        spiller.close();
+        assertEquals(listFiles(spillPath.toPath()).size(), 0);
+        assertEquals(memoryContext.getBytes(), 0);
+    }
+
     private void assertSpill(CompressionCodec compressionCodec, boolean encryption)
             throws Exception
     {
@@ -152,13 +193,20 @@ public class TestFileSingleStreamSpiller
 
     private Page buildPage()
     {
-        BlockBuilder col1 = BIGINT.createBlockBuilder(null, 1);
-        BlockBuilder col2 = DOUBLE.createBlockBuilder(null, 1);
-        BlockBuilder col3 = VARBINARY.createBlockBuilder(null, 1);
+        return buildPage(1);
+    }
 
-        col1.writeLong(42).closeEntry();
-        col2.writeLong(doubleToLongBits(43.0)).closeEntry();
-        col3.writeLong(doubleToLongBits(43.0)).writeLong(1).closeEntry();
+    private Page buildPage(int positionCount)
+    {
+        BlockBuilder col1 = BIGINT.createBlockBuilder(null, positionCount);
+        BlockBuilder col2 = DOUBLE.createBlockBuilder(null, positionCount);
+        BlockBuilder col3 = VARBINARY.createBlockBuilder(null, positionCount);
+
+        for (int i = 0; i < positionCount; i++) {
+            col1.writeLong(42 + i).closeEntry();
+            col2.writeLong(doubleToLongBits(43.0 + i)).closeEntry();
+            col3.writeLong(doubleToLongBits(43.0)).writeLong(i + 1).closeEntry();
+        }
 
         return new Page(col1.build(), col2.build(), col3.build());
     }
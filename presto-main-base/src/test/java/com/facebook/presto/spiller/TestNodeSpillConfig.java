@@ -38,7 +38,9 @@ public class TestNodeSpillConfig
                 .setQueryMaxSpillPerNode(new DataSize(100, GIGABYTE))
                 .setSpillCompressionCodec(CompressionCodec.NONE)
                 .setSpillEncryptionEnabled(false)
-                .setTempStorageBufferSize(new DataSize(4, KILOBYTE)));
+                .setTempStorageBufferSize(new DataSize(4, KILOBYTE))
+                .setSpillPipelinedIoEnabled(false)
+                .setSpillIoBufferSize(new DataSize(1, MEGABYTE)));
     }
 
     @Test
@@ -51,6 +53,8 @@ public class TestNodeSpillConfig
                 .put("experimental.spill-compression-codec", "LZ4")
                 .put("experimental.spill-encryption-enabled", "true")
                 .put("experimental.temp-storage-buffer-size", "24MB")
+                .put("experimental.spill-pipelined-io-enabled", "true")
+                .put("experimental.spill-io-buffer-size", "8MB")
                 .build();
 
         NodeSpillConfig expected = new NodeSpillConfig()
@@ -59,7 +63,9 @@ public class TestNodeSpillConfig
                 .setQueryMaxSpillPerNode(new DataSize(15, MEGABYTE))
                 .setSpillCompressionCodec(CompressionCodec.LZ4)
                 .setSpillEncryptionEnabled(true)
-                .setTempStorageBufferSize(new DataSize(24, MEGABYTE));
+                .setTempStorageBufferSize(new DataSize(24, MEGABYTE))
+                .setSpillPipelinedIoEnabled(true)
+                .setSpillIoBufferSize(new DataSize(8, MEGABYTE));
 
         assertFullMapping(properties, expected);
     }
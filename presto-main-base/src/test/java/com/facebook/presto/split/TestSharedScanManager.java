@@ -0,0 +1,359 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.split;
+
+import com.facebook.presto.common.Page;
+import com.facebook.presto.common.block.Block;
+import com.facebook.presto.common.block.BlockBuilder;
+import com.facebook.presto.metadata.Split.SplitIdentifier;
+import com.facebook.presto.spi.ConnectorId;
+import com.facebook.presto.spi.ConnectorPageSource;
+import com.facebook.presto.split.SharedScanManager.SharedScanKey;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static com.facebook.presto.common.type.BigintType.BIGINT;
+import static com.facebook.presto.common.type.TimeZoneKey.UTC_KEY;
+import static com.facebook.presto.split.SharedScanManager.removeRows;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertSame;
+import static org.testng.Assert.assertThrows;
+import static org.testng.Assert.assertTrue;
+
+public class TestSharedScanManager
+{
+    private static final int PAGE_COUNT = 10;
+    private static final int ROWS_PER_PAGE = 100;
+    private static final SharedScanKey KEY = new SharedScanKey(
+            new SplitIdentifier(new ConnectorId("test"), "split"),
+            "layout",
+            ImmutableList.of(),
+            "user",
+            UTC_KEY,
+            ImmutableMap.of());
+
+    @Test
+    public void testConcurrentScansShareSource()
+            throws Exception
+    {
+        SharedScanManager manager = new SharedScanManager(Long.MAX_VALUE);
+        AtomicInteger createdSources = new AtomicInteger();
+        Supplier<ConnectorPageSource> factory = () -> {
+            createdSources.incrementAndGet();
+            return new SequencePageSource();
+        };
+
+        ConnectorPageSource first = manager.createPageSource(KEY, factory);
+        ConnectorPageSource second = manager.createPageSource(KEY, factory);
+
+        // interleave the scans, so that either of them reads from the source
+        List<Long> firstValues = new ArrayList<>();
+        List<Long> secondValues = new ArrayList<>();
+        while (!first.isFinished() || !second.isFinished()) {
+            readPage(first, firstValues);
+            readPage(second, secondValues);
+            readPage(second, secondValues);
+        }
+        assertAllRows(firstValues);
+        assertAllRows(secondValues);
+        assertEquals(createdSources.get(), 1);
+        assertEquals(manager.getAttachedScans().getTotalCount(), 1);
+
+        first.close();
+        second.close();
+        assertEquals(manager.getSharedScanCount(), 0);
+    }
+
+    @Test
+    public void testLateAttach()
+            throws Exception
+    {
+        SharedScanManager manager = new SharedScanManager(Long.MAX_VALUE);
+        AtomicInteger createdSources = new AtomicInteger();
+        Supplier<ConnectorPageSource> factory = () -> {
+            createdSources.incrementAndGet();
+            return new SequencePageSource();
+        };
+
+        ConnectorPageSource first = manager.createPageSource(KEY, factory);
+        List<Long> firstValues = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            readPage(first, firstValues);
+        }
+
+        // the second scan misses the pages already read, and reads them on its own at the end
+        ConnectorPageSource second = manager.createPageSource(KEY, factory);
+        List<Long> secondValues = new ArrayList<>();
+        while (!first.isFinished() || !second.isFinished()) {
+            readPage(first, firstValues);
+            readPage(second, secondValues);
+        }
+        assertAllRows(firstValues);
+        assertAllRows(secondValues);
+        assertEquals(createdSources.get(), 2);
+
+        first.close();
+        second.close();
+        assertEquals(manager.getSharedScanCount(), 0);
+    }
+
+    @Test
+    public void testLaggingScanDetaches()
+            throws Exception
+    {
+        // buffer a single page
+        SharedScanManager manager = new SharedScanManager(createPage(0, ROWS_PER_PAGE).getRetainedSizeInBytes());
+        AtomicInteger createdSources = new AtomicInteger();
+        Supplier<ConnectorPageSource> factory = () -> {
+            createdSources.incrementAndGet();
+            return new SequencePageSource();
+        };
+
+        ConnectorPageSource first = manager.createPageSource(KEY, factory);
+        ConnectorPageSource second = manager.createPageSource(KEY, factory);
+        List<Long> firstValues = new ArrayList<>();
+        List<Long> secondValues = new ArrayList<>();
+        readPage(second, secondValues);
+        readPage(first, firstValues);
+        readPage(first, firstValues);
+        assertEquals(manager.getDetachedScans().getTotalCount(), 0);
+
+        // the second scan falls two pages behind, and continues on its own
+        readPage(first, firstValues);
+        assertEquals(manager.getDetachedScans().getTotalCount(), 1);
+        assertEquals(manager.getSharedScanCount(), 1);
+        while (!first.isFinished() || !second.isFinished()) {
+            readPage(first, firstValues);
+            readPage(second, secondValues);
+        }
+        assertAllRows(firstValues);
+        assertAllRows(secondValues);
+        assertEquals(createdSources.get(), 2);
+
+        first.close();
+        second.close();
+        assertEquals(manager.getSharedScanCount(), 0);
+    }
+
+    @Test
+    public void testCloseBeforeFinished()
+            throws Exception
+    {
+        SharedScanManager manager = new SharedScanManager(Long.MAX_VALUE);
+        ConnectorPageSource first = manager.createPageSource(KEY, SequencePageSource::new);
+        ConnectorPageSource second = manager.createPageSource(KEY, SequencePageSource::new);
+        List<Long> values = new ArrayList<>();
+        readPage(second, values);
+        second.close();
+        assertEquals(manager.getSharedScanCount(), 1);
+
+        while (!first.isFinished()) {
+            readPage(first, values);
+        }
+        first.close();
+        assertEquals(manager.getSharedScanCount(), 0);
+        assertEquals(values.size(), (PAGE_COUNT + 1) * ROWS_PER_PAGE);
+    }
+
+    @Test
+    public void testOwnerCloseDetachesOtherScans()
+            throws Exception
+    {
+        SharedScanManager manager = new SharedScanManager(Long.MAX_VALUE);
+        List<SequencePageSource> ownerSources = new ArrayList<>();
+        ConnectorPageSource first = manager.createPageSource(KEY, () -> {
+            SequencePageSource source = new SequencePageSource();
+            ownerSources.add(source);
+            return source;
+        });
+        ConnectorPageSource second = manager.createPageSource(KEY, SequencePageSource::new);
+        List<Long> firstValues = new ArrayList<>();
+        List<Long> secondValues = new ArrayList<>();
+        readPage(first, firstValues);
+        readPage(first, firstValues);
+        readPage(second, secondValues);
+
+        // the source of the first query is closed with it, and the second scan reads the rest on its own
+        first.close();
+        assertEquals(ownerSources.size(), 1);
+        assertTrue(ownerSources.get(0).isClosed());
+        assertEquals(manager.getSharedScanCount(), 0);
+        assertEquals(manager.getDetachedScans().getTotalCount(), 1);
+
+        while (!second.isFinished()) {
+            readPage(second, secondValues);
+        }
+        second.close();
+        assertAllRows(secondValues);
+        assertEquals(ownerSources.size(), 1);
+    }
+
+    @Test
+    public void testReadFailure()
+            throws Exception
+    {
+        SharedScanManager manager = new SharedScanManager(Long.MAX_VALUE);
+        AtomicInteger createdSources = new AtomicInteger();
+        // only the first source fails
+        Supplier<ConnectorPageSource> factory = () -> new SequencePageSource(createdSources.getAndIncrement() == 0 ? 2 : -1);
+
+        ConnectorPageSource first = manager.createPageSource(KEY, factory);
+        ConnectorPageSource second = manager.createPageSource(KEY, factory);
+        List<Long> firstValues = new ArrayList<>();
+        List<Long> secondValues = new ArrayList<>();
+        readPage(first, firstValues);
+        readPage(first, firstValues);
+        readPage(second, secondValues);
+        readPage(second, secondValues);
+
+        // the scan that reads the failing page fails, and the other one continues on its own
+        assertThrows(IllegalStateException.class, () -> readPage(second, secondValues));
+        assertEquals(manager.getSharedScanCount(), 0);
+        while (!first.isFinished()) {
+            readPage(first, firstValues);
+        }
+        first.close();
+        second.close();
+        assertAllRows(firstValues);
+        assertEquals(createdSources.get(), 2);
+    }
+
+    @Test
+    public void testRemoveRows()
+    {
+        Page page = createPage(10, 5);
+        assertSame(removeRows(page, 10, 0, 10), page);
+        assertSame(removeRows(page, 10, 15, 20), page);
+        assertValues(removeRows(page, 10, 0, 12), 12, 13, 14);
+        assertValues(removeRows(page, 10, 13, Long.MAX_VALUE), 10, 11, 12);
+        assertValues(removeRows(page, 10, 11, 13), 10, 13, 14);
+        assertValues(removeRows(page, 10, 0, Long.MAX_VALUE));
+    }
+
+    private static void readPage(ConnectorPageSource pageSource, List<Long> values)
+    {
+        if (pageSource.isFinished()) {
+            return;
+        }
+        Page page = pageSource.getNextPage();
+        if (page == null) {
+            return;
+        }
+        Block block = page.getBlock(0);
+        for (int position = 0; position < block.getPositionCount(); position++) {
+            values.add(BIGINT.getLong(block, position));
+        }
+    }
+
+    private static void assertAllRows(List<Long> values)
+    {
+        assertEquals(values.size(), PAGE_COUNT * ROWS_PER_PAGE);
+        assertEquals(values.stream().distinct().count(), PAGE_COUNT * ROWS_PER_PAGE);
+        assertEquals(values.stream().mapToLong(Long::longValue).sum(), (long) PAGE_COUNT * ROWS_PER_PAGE * (PAGE_COUNT * ROWS_PER_PAGE - 1) / 2);
+    }
+
+    private static void assertValues(Page page, long... values)
+    {
+        assertEquals(page.getPositionCount(), values.length);
+        for (int position = 0; position < values.length; position++) {
+            assertEquals(BIGINT.getLong(page.getBlock(0), position), values[position]);
+        }
+    }
+
+    private static Page createPage(long start, int rows)
+    {
+        BlockBuilder blockBuilder = BIGINT.createBlockBuilder(null, rows);
+        for (long value = start; value < start + rows; value++) {
+            BIGINT.writeLong(blockBuilder, value);
+        }
+        return new Page(blockBuilder.build());
+    }
+
+    private static class SequencePageSource
+            implements ConnectorPageSource
+    {
+        private final int failingPage;
+        private int nextPage;
+        private boolean closed;
+
+        public SequencePageSource()
+        {
+            this(-1);
+        }
+
+        public SequencePageSource(int failingPage)
+        {
+            this.failingPage = failingPage;
+        }
+
+        public boolean isClosed()
+        {
+            return closed;
+        }
+
+        @Override
+        public long getCompletedBytes()
+        {
+            return nextPage;
+        }
+
+        @Override
+        public long getCompletedPositions()
+        {
+            return (long) nextPage * ROWS_PER_PAGE;
+        }
+
+        @Override
+        public long getReadTimeNanos()
+        {
+            return 0;
+        }
+
+        @Override
+        public boolean isFinished()
+        {
+            return closed || nextPage == PAGE_COUNT;
+        }
+
+        @Override
+        public Page getNextPage()
+        {
+            if (isFinished()) {
+                return null;
+            }
+            if (nextPage == failingPage) {
+                throw new IllegalStateException("read failed");
+            }
+            return createPage((long) nextPage++ * ROWS_PER_PAGE, ROWS_PER_PAGE);
+        }
+
+        @Override
+        public long getSystemMemoryUsage()
+        {
+            return 0;
+        }
+
+        @Override
+        public void close()
+        {
+            closed = true;
+        }
+    }
+}
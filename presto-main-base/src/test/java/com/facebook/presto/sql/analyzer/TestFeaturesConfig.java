@@ -131,6 +131,7 @@ public class TestFeaturesConfig
                 .setDynamicFilteringMaxPerDriverRowCount(100)
                 .setDynamicFilteringMaxPerDriverSize(new DataSize(10, KILOBYTE))
                 .setDynamicFilteringRangeRowLimitPerDriver(0)
+                .setDynamicFilteringBloomFilterRowLimitPerDriver(0)
                 .setDistributedDynamicFilterStrategy(DistributedDynamicFilterStrategy.DISABLED)
                 .setDistributedDynamicFilterMaxWaitTime(new Duration(2, SECONDS))
                 .setDistributedDynamicFilterMaxWaitExtensions(2)
@@ -138,6 +139,8 @@ public class TestFeaturesConfig
                 .setDistributedDynamicFilterCardinalityRatioThreshold(0.1)
                 .setDistributedDynamicFilterOnReplicatedJoins(false)
                 .setFragmentResultCachingEnabled(false)
+                .setSharedScanEnabled(false)
+                .setSharedScanMaxBufferSize(new DataSize(16, MEGABYTE))
                 .setEnableStatsCalculator(true)
                 .setEnableStatsCollectionForTemporaryTable(false)
                 .setIgnoreStatsCalculatorFailures(true)
@@ -145,6 +148,7 @@ public class TestFeaturesConfig
                 .setDefaultFilterFactorEnabled(false)
                 .setExchangeCompressionCodec(CompressionCodec.NONE)
                 .setExchangeChecksumEnabled(false)
+                .setExchangePackedLongEncodingEnabled(false)
                 .setEnableIntermediateAggregations(false)
                 .setEnableParallelizeChainedAggregations(false)
                 .setPushAggregationThroughJoin(true)
@@ -160,6 +164,8 @@ public class TestFeaturesConfig
                 .setPushProjectionThroughCrossJoin(false)
                 .setForceSingleNodeOutput(true)
                 .setPagesIndexEagerCompactionEnabled(false)
+                .setPagesIndexNormalizedKeySortEnabled(false)
+                .setVectorizedGroupedAccumulatorsEnabled(false)
                 .setFilterAndProjectMinOutputPageSize(new DataSize(500, KILOBYTE))
                 .setFilterAndProjectMinOutputPageRowCount(256)
                 .setUseMarkDistinct(true)
@@ -207,6 +213,7 @@ public class TestFeaturesConfig
                 .setSpoolingOutputBufferEnabled(false)
                 .setSpoolingOutputBufferThreshold(new DataSize(8, MEGABYTE))
                 .setSpoolingOutputBufferTempStorage("local")
+                .setSpoolingOutputBufferReplayEnabled(false)
                 .setPrestoSparkAssignBucketToPartitionForPartitionedTableWriteEnabled(false)
                 .setPartialResultsEnabled(false)
                 .setPartialResultsCompletionRatioThreshold(0.5)
@@ -258,6 +265,7 @@ public class TestFeaturesConfig
                 .setPushAggregationBelowJoinByteReductionThreshold(1)
                 .setPrefilterForGroupbyLimit(false)
                 .setOptimizeJoinProbeForEmptyBuildRuntimeEnabled(false)
+                .setJoinLateMaterializationEnabled(false)
                 .setUseDefaultsForCorrelatedAggregationPushdownThroughOuterJoins(true)
                 .setMergeDuplicateAggregationsEnabled(true)
                 .setMergeAggregationsWithAndWithoutFilter(false)
@@ -342,7 +350,10 @@ public class TestFeaturesConfig
                 .put("dynamic-filtering-max-per-driver-row-count", "256")
                 .put("dynamic-filtering-max-per-driver-size", "64kB")
                 .put("dynamic-filtering-range-row-limit-per-driver", "1000")
+                .put("dynamic-filtering-bloom-filter-row-limit-per-driver", "1000000")
                 .put("fragment-result-cache.enabled", "true")
+                .put("shared-scan-enabled", "true")
+                .put("shared-scan-max-buffer-size", "32MB")
                 .put("experimental.enable-stats-calculator", "false")
                 .put("experimental.enable-stats-collection-for-temporary-table", "true")
                 .put("optimizer.ignore-stats-calculator-failures", "false")
@@ -418,10 +429,13 @@ public class TestFeaturesConfig
                 .put("experimental.spiller.max-revocable-task-memory", "1GB")
                 .put("exchange.compression-codec", "LZ4")
                 .put("exchange.checksum-enabled", "true")
+                .put("exchange.packed-long-encoding-enabled", "true")
                 .put("optimizer.enable-intermediate-aggregations", "true")
                 .put("optimizer.parallelize-chained-aggregation", "true")
                 .put("optimizer.force-single-node-output", "false")
                 .put("pages-index.eager-compaction-enabled", "true")
+                .put("pages-index.normalized-key-sort-enabled", "true")
+                .put("vectorized-grouped-accumulators-enabled", "true")
                 .put("experimental.filter-and-project-min-output-page-size", "1MB")
                 .put("experimental.filter-and-project-min-output-page-row-count", "2048")
                 .put("optimizer.use-mark-distinct", "false")
@@ -468,6 +482,7 @@ public class TestFeaturesConfig
                 .put("spooling-output-buffer-enabled", "true")
                 .put("spooling-output-buffer-threshold", "16MB")
                 .put("spooling-output-buffer-temp-storage", "tempfs")
+                .put("spooling-output-buffer-replay-enabled", "true")
                 .put("spark.assign-bucket-to-partition-for-partitioned-table-write-enabled", "true")
                 .put("partial-results-enabled", "true")
                 .put("partial-results-completion-ratio-threshold", "0.9")
@@ -519,6 +534,7 @@ public class TestFeaturesConfig
                 .put("optimizer.push-aggregation-below-join-byte-reduction-threshold", "0.9")
                 .put("optimizer.prefilter-for-groupby-limit", "true")
                 .put("optimizer.optimize-probe-for-empty-build-runtime", "true")
+                .put("join-late-materialization-enabled", "true")
                 .put("optimizer.use-defaults-for-correlated-aggregation-pushdown-through-outer-joins", "false")
                 .put("optimizer.merge-duplicate-aggregations", "false")
                 .put("optimizer.merge-aggregations-with-and-without-filter", "true")
@@ -605,6 +621,7 @@ public class TestFeaturesConfig
                 .setDynamicFilteringMaxPerDriverRowCount(256)
                 .setDynamicFilteringMaxPerDriverSize(new DataSize(64, KILOBYTE))
                 .setDynamicFilteringRangeRowLimitPerDriver(1000)
+                .setDynamicFilteringBloomFilterRowLimitPerDriver(1000000)
                 .setDistributedDynamicFilterStrategy(DistributedDynamicFilterStrategy.COST_BASED)
                 .setDistributedDynamicFilterMaxWaitTime(new Duration(5, SECONDS))
                 .setDistributedDynamicFilterMaxWaitExtensions(3)
@@ -612,6 +629,8 @@ public class TestFeaturesConfig
                 .setDistributedDynamicFilterCardinalityRatioThreshold(0.2)
                 .setDistributedDynamicFilterOnReplicatedJoins(true)
                 .setFragmentResultCachingEnabled(true)
+                .setSharedScanEnabled(true)
+                .setSharedScanMaxBufferSize(new DataSize(32, MEGABYTE))
                 .setEnableStatsCalculator(false)
                 .setEnableStatsCollectionForTemporaryTable(true)
                 .setIgnoreStatsCalculatorFailures(false)
@@ -684,10 +703,13 @@ public class TestFeaturesConfig
                 .setMaxRevocableMemoryPerTask(new DataSize(1, GIGABYTE))
                 .setExchangeCompressionCodec(CompressionCodec.LZ4)
                 .setExchangeChecksumEnabled(true)
+                .setExchangePackedLongEncodingEnabled(true)
                 .setEnableIntermediateAggregations(true)
                 .setEnableParallelizeChainedAggregations(true)
                 .setForceSingleNodeOutput(false)
                 .setPagesIndexEagerCompactionEnabled(true)
+                .setPagesIndexNormalizedKeySortEnabled(true)
+                .setVectorizedGroupedAccumulatorsEnabled(true)
                 .setFilterAndProjectMinOutputPageSize(new DataSize(1, MEGABYTE))
                 .setFilterAndProjectMinOutputPageRowCount(2048)
                 .setUseMarkDistinct(false)
@@ -737,6 +759,7 @@ public class TestFeaturesConfig
                 .setSpoolingOutputBufferEnabled(true)
                 .setSpoolingOutputBufferThreshold(new DataSize(16, MEGABYTE))
                 .setSpoolingOutputBufferTempStorage("tempfs")
+                .setSpoolingOutputBufferReplayEnabled(true)
                 .setPrestoSparkAssignBucketToPartitionForPartitionedTableWriteEnabled(true)
                 .setPartialResultsEnabled(true)
                 .setPartialResultsCompletionRatioThreshold(0.9)
@@ -788,6 +811,7 @@ public class TestFeaturesConfig
                 .setPushAggregationBelowJoinByteReductionThreshold(0.9)
                 .setPrefilterForGroupbyLimit(true)
                 .setOptimizeJoinProbeForEmptyBuildRuntimeEnabled(true)
+                .setJoinLateMaterializationEnabled(true)
                 .setUseDefaultsForCorrelatedAggregationPushdownThroughOuterJoins(false)
                 .setMergeDuplicateAggregationsEnabled(false)
                 .setMergeAggregationsWithAndWithoutFilter(true)
@@ -15,8 +15,10 @@
 package com.facebook.presto.sql.planner;
 
 import com.facebook.presto.Session;
+import com.facebook.presto.common.predicate.BlockedBloomFilter;
 import com.facebook.presto.common.predicate.Domain;
 import com.facebook.presto.common.predicate.TupleDomain;
+import com.facebook.presto.common.predicate.ValueSet;
 import com.facebook.presto.expressions.DynamicFilters.DynamicFilterPlaceholder;
 import com.facebook.presto.spi.plan.JoinNode;
 import com.facebook.presto.spi.relation.VariableReferenceExpression;
@@ -40,12 +42,14 @@ import static com.facebook.presto.SystemSessionProperties.ENABLE_DYNAMIC_FILTERI
 import static com.facebook.presto.SystemSessionProperties.FORCE_SINGLE_NODE_OUTPUT;
 import static com.facebook.presto.SystemSessionProperties.JOIN_DISTRIBUTION_TYPE;
 import static com.facebook.presto.common.function.OperatorType.EQUAL;
+import static com.facebook.presto.common.predicate.Range.range;
 import static com.facebook.presto.common.type.BigintType.BIGINT;
 import static com.facebook.presto.common.type.IntegerType.INTEGER;
 import static com.facebook.presto.testing.assertions.Assert.assertEquals;
 import static com.google.common.collect.ImmutableList.toImmutableList;
 import static com.google.common.collect.MoreCollectors.onlyElement;
 import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
 
 public class TestLocalDynamicFilter
         extends BasePlanTest
@@ -123,6 +127,70 @@ public class TestLocalDynamicFilter
                 new VariableReferenceExpression(Optional.empty(), "a", INTEGER), Domain.multipleValues(INTEGER, ImmutableList.of(10L, 20L)))));
     }
 
+    @Test
+    public void testBloomFilterPartitions()
+            throws ExecutionException, InterruptedException
+    {
+        VariableReferenceExpression variable = new VariableReferenceExpression(Optional.empty(), "a", BIGINT);
+        LocalDynamicFilter filter = new LocalDynamicFilter(
+                ImmutableMultimap.of("123", new DynamicFilterPlaceholder("123", variable, EQUAL)),
+                ImmutableMap.of("123", 0),
+                2);
+        ListenableFuture<Map<VariableReferenceExpression, BlockedBloomFilter>> result = filter.getBloomFilterResultFuture();
+
+        // the first partition collected the exact values
+        filter.getTupleDomainConsumer().accept(TupleDomain.withColumnDomains(ImmutableMap.of("123", Domain.singleValue(BIGINT, 10L))));
+        filter.getBloomFilterConsumer().accept(Optional.empty());
+        assertFalse(result.isDone());
+
+        // the second partition had too many values and collected a Bloom filter
+        BlockedBloomFilter bloomFilter = BlockedBloomFilter.create(1_000);
+        for (long value = 100; value < 1_000; value++) {
+            bloomFilter.put(BlockedBloomFilter.hashLong(value));
+        }
+        filter.getBloomFilterConsumer().accept(Optional.of(ImmutableMap.of("123", bloomFilter)));
+        assertFalse(result.isDone());
+        filter.getTupleDomainConsumer().accept(TupleDomain.withColumnDomains(ImmutableMap.of("123", Domain.create(ValueSet.ofRanges(range(BIGINT, 100L, true, 999L, true)), false))));
+
+        BlockedBloomFilter merged = result.get().get(variable);
+        assertTrue(merged.mightContainLong(10));
+        for (long value = 100; value < 1_000; value++) {
+            assertTrue(merged.mightContainLong(value));
+        }
+    }
+
+    @Test
+    public void testBloomFilterPartitionsWithExactValues()
+            throws ExecutionException, InterruptedException
+    {
+        LocalDynamicFilter filter = new LocalDynamicFilter(
+                ImmutableMultimap.of("123", new DynamicFilterPlaceholder("123", new VariableReferenceExpression(Optional.empty(), "a", BIGINT), EQUAL)),
+                ImmutableMap.of("123", 0),
+                1);
+        filter.getTupleDomainConsumer().accept(TupleDomain.withColumnDomains(ImmutableMap.of("123", Domain.singleValue(BIGINT, 10L))));
+        filter.getBloomFilterConsumer().accept(Optional.empty());
+
+        // the predicate already contains the exact values
+        assertEquals(filter.getBloomFilterResultFuture().get(), ImmutableMap.of());
+    }
+
+    @Test
+    public void testBloomFilterMissingFromPartition()
+            throws ExecutionException, InterruptedException
+    {
+        LocalDynamicFilter filter = new LocalDynamicFilter(
+                ImmutableMultimap.of("123", new DynamicFilterPlaceholder("123", new VariableReferenceExpression(Optional.empty(), "a", BIGINT), EQUAL)),
+                ImmutableMap.of("123", 0),
+                2);
+        filter.getTupleDomainConsumer().accept(TupleDomain.all());
+        filter.getBloomFilterConsumer().accept(Optional.of(ImmutableMap.of("123", BlockedBloomFilter.create(1_000))));
+        filter.getTupleDomainConsumer().accept(TupleDomain.all());
+        filter.getBloomFilterConsumer().accept(Optional.of(ImmutableMap.of()));
+
+        // one of the partitions had too many values even for a Bloom filter
+        assertEquals(filter.getBloomFilterResultFuture().get(), ImmutableMap.of());
+    }
+
     @Test
     public void testNone()
             throws ExecutionException, InterruptedException
@@ -15,13 +15,14 @@ package com.facebook.presto.server;
 
 import com.facebook.airlift.log.Logger;
 import com.facebook.presto.spi.page.SerializedPage;
+import io.airlift.slice.Slice;
 import io.airlift.slice.SliceOutput;
 import jakarta.servlet.AsyncContext;
 import jakarta.servlet.ServletOutputStream;
 import jakarta.servlet.WriteListener;
 
 import java.io.IOException;
-import java.util.ArrayDeque;
+import java.util.Iterator;
 import java.util.List;
 
 import static com.facebook.presto.spi.page.PagesSerdeUtil.PAGE_METADATA_SIZE;
@@ -29,14 +30,18 @@ import static com.facebook.presto.spi.page.PagesSerdeUtil.writeSerializedPageMet
 import static com.google.common.base.Preconditions.checkArgument;
 import static io.airlift.slice.Slices.allocate;
 import static java.util.Objects.requireNonNull;
-import static sun.misc.Unsafe.ARRAY_BYTE_BASE_OFFSET;
 
+/**
+ * Streams the pages of a buffer result without copying them. The page bodies are written directly
+ * from the byte arrays backing their slices; the pages remain referenced by the output buffer until
+ * the client acknowledges them, which cannot happen before this response has been written.
+ */
 public class SerializedPageWriteListener
         implements WriteListener
 {
     private static final Logger log = Logger.get(SerializedPageWriteListener.class);
 
-    private final ArrayDeque<SerializedPage> serializedPages;
+    private final Iterator<SerializedPage> serializedPages;
     private final AsyncContext asyncContext;
     private final ServletOutputStream output;
     private final SliceOutput pageMetadataSliceOutput;
@@ -47,7 +52,7 @@ public class SerializedPageWriteListener
             AsyncContext asyncContext,
             ServletOutputStream output)
     {
-        this.serializedPages = new ArrayDeque<>(requireNonNull(serializedPages, "serializedPages is null"));
+        this.serializedPages = requireNonNull(serializedPages, "serializedPages is null").iterator();
         this.asyncContext = requireNonNull(asyncContext, "asyncContext is null");
         this.output = requireNonNull(output, "output is null");
         this.pageMetadataSliceOutput = allocate(PAGE_METADATA_SIZE).getOutput();
@@ -64,15 +69,15 @@ public class SerializedPageWriteListener
             }
 
             if (page == null) {
-                page = serializedPages.poll();
+                page = serializedPages.next();
                 pageMetadataSliceOutput.reset();
                 writeSerializedPageMetadata(pageMetadataSliceOutput, page);
                 output.write(pageMetadataSliceOutput.getUnderlyingSlice().byteArray(), 0, pageMetadataSliceOutput.size());
             }
             else {
-                Object base = page.getSlice().getBase();
-                checkArgument(base instanceof byte[], "serialization type only supports byte[]");
-                output.write((byte[]) base, (int) ((page.getSlice().getAddress() - ARRAY_BYTE_BASE_OFFSET)), page.getSizeInBytes());
+                Slice slice = page.getSlice();
+                checkArgument(slice.hasByteArray(), "serialization type only supports byte[]");
+                output.write(slice.byteArray(), slice.byteArrayOffset(), page.getSizeInBytes());
                 page = null;
             }
         }
@@ -87,6 +92,6 @@ public class SerializedPageWriteListener
 
     private boolean writeComplete()
     {
-        return serializedPages.isEmpty() && page == null;
+        return !serializedPages.hasNext() && page == null;
     }
 }
@@ -74,9 +74,11 @@ import com.facebook.presto.execution.TaskManagerConfig;
 import com.facebook.presto.execution.TaskSource;
 import com.facebook.presto.execution.TaskStatus;
 import com.facebook.presto.execution.TaskThresholdMemoryRevokingScheduler;
+import com.facebook.presto.execution.buffer.PagesSerdeBufferPool;
 import com.facebook.presto.execution.buffer.SpoolingOutputBufferFactory;
 import com.facebook.presto.execution.executor.MultilevelSplitQueue;
 import com.facebook.presto.execution.executor.TaskExecutor;
+import com.facebook.presto.execution.executor.WorkStealingSplitQueue;
 import com.facebook.presto.execution.scheduler.FlatNetworkTopology;
 import com.facebook.presto.execution.scheduler.LegacyNetworkTopology;
 import com.facebook.presto.execution.scheduler.NetworkTopology;
@@ -201,6 +203,7 @@ import com.facebook.presto.split.PageSinkManager;
 import com.facebook.presto.split.PageSinkProvider;
 import com.facebook.presto.split.PageSourceManager;
 import com.facebook.presto.split.PageSourceProvider;
+import com.facebook.presto.split.SharedScanManager;
 import com.facebook.presto.split.SplitManager;
 import com.facebook.presto.sql.Serialization.ExpressionDeserializer;
 import com.facebook.presto.sql.Serialization.ExpressionSerializer;
@@ -579,9 +582,10 @@ public class ServerMainModule
         newExporter(binder).export(TaskManager.class).withGeneratedName();
         binder.bind(TaskExecutor.class).in(Scopes.SINGLETON);
         newExporter(binder).export(TaskExecutor.class).withGeneratedName();
-        binder.bind(MultilevelSplitQueue.class).in(Scopes.SINGLETON);
         newExporter(binder).export(MultilevelSplitQueue.class).withGeneratedName();
         binder.bind(LocalExecutionPlanner.class).in(Scopes.SINGLETON);
+        binder.bind(PagesSerdeBufferPool.class).in(Scopes.SINGLETON);
+        newExporter(binder).export(PagesSerdeBufferPool.class).withGeneratedName();
         configBinder(binder).bindConfig(FileFragmentResultCacheConfig.class);
         binder.bind(FragmentCacheStats.class).in(Scopes.SINGLETON);
         newExporter(binder).export(FragmentCacheStats.class).withGeneratedName();
@@ -665,6 +669,8 @@ public class ServerMainModule
         configBinder(binder).bindConfig(TransactionManagerConfig.class);
 
         // data stream provider
+        binder.bind(SharedScanManager.class).in(Scopes.SINGLETON);
+        newExporter(binder).export(SharedScanManager.class).withGeneratedName();
         binder.bind(PageSourceManager.class).in(Scopes.SINGLETON);
         binder.bind(PageSourceProvider.class).to(PageSourceManager.class).in(Scopes.SINGLETON);
 
@@ -909,6 +915,16 @@ public class ServerMainModule
         binder.bind(NodeManager.class).to(PluginNodeManager.class).in(Scopes.SINGLETON);
     }
 
+    @Provides
+    @Singleton
+    public static MultilevelSplitQueue createSplitQueue(TaskManagerConfig config)
+    {
+        if (config.isWorkStealingEnabled()) {
+            return new WorkStealingSplitQueue(config);
+        }
+        return new MultilevelSplitQueue(config);
+    }
+
     @Provides
     @Singleton
     @ForExchange
@@ -215,6 +215,38 @@ public class TestExchangeClient
         assertStatus(statuses.get(location2), location2, "closed", 3, 3, 3, "not scheduled");
     }
 
+    @Test(timeOut = 60000)
+    public void testManySources()
+    {
+        DataSize bufferCapacity = new DataSize(32, MEGABYTE);
+        // every response holds a single page, so each client is requeued once per page
+        DataSize maxResponseSize = new DataSize(1, BYTE);
+        MockExchangeRequestProcessor processor = new MockExchangeRequestProcessor(maxResponseSize);
+
+        ExchangeClient exchangeClient = createExchangeClient(processor, bufferCapacity, maxResponseSize);
+
+        int sourceCount = 200;
+        int pagesPerSource = 3;
+        for (int source = 0; source < sourceCount; source++) {
+            URI location = URI.create("http://localhost:8080/" + source);
+            for (int page = 0; page < pagesPerSource; page++) {
+                processor.addPage(location, createPage(page + 1));
+            }
+            processor.setComplete(location);
+            exchangeClient.addLocation(location, TaskId.valueOf("queryid.0.0." + source + ".0"));
+        }
+        exchangeClient.noMoreLocations();
+
+        int pageCount = 0;
+        while (getNextPage(exchangeClient) != null) {
+            pageCount++;
+        }
+        assertEquals(pageCount, sourceCount * pagesPerSource);
+        assertTrue(exchangeClient.isClosed());
+        assertEquals(exchangeClient.getStatus().getBufferedPages(), 0);
+        assertEquals(exchangeClient.getStatus().getBufferedBytes(), 0);
+    }
+
     @Test
     public void testBufferLimit()
     {
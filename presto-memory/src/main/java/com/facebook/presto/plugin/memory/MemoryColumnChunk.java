@@ -0,0 +1,382 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.plugin.memory;
+
+import com.facebook.presto.common.block.Block;
+import com.facebook.presto.common.block.ByteArrayBlock;
+import com.facebook.presto.common.block.DictionaryBlock;
+import com.facebook.presto.common.block.IntArrayBlock;
+import com.facebook.presto.common.block.LongArrayBlock;
+import com.facebook.presto.common.block.RunLengthEncodedBlock;
+import com.facebook.presto.common.block.ShortArrayBlock;
+import com.facebook.presto.common.predicate.Domain;
+import com.facebook.presto.common.predicate.Range;
+import com.facebook.presto.common.predicate.ValueSet;
+import com.facebook.presto.common.type.FixedWidthType;
+import com.facebook.presto.common.type.Type;
+import com.facebook.presto.common.type.VarcharType;
+import com.google.common.collect.ImmutableSet;
+import io.airlift.slice.Slice;
+import io.airlift.slice.Slices;
+
+import java.util.Arrays;
+import java.util.Optional;
+import java.util.Set;
+
+import static com.facebook.presto.common.type.BigintType.BIGINT;
+import static com.facebook.presto.common.type.DateType.DATE;
+import static com.facebook.presto.common.type.IntegerType.INTEGER;
+import static com.facebook.presto.common.type.SmallintType.SMALLINT;
+import static com.facebook.presto.common.type.TimestampType.TIMESTAMP;
+import static com.facebook.presto.common.type.TinyintType.TINYINT;
+import static com.facebook.presto.common.type.TypeUtils.readNativeValue;
+import static io.airlift.slice.SizeOf.sizeOf;
+import static java.lang.Math.toIntExact;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * An immutable, lightly encoded column of a {@link MemoryPageChunk}.
+ * <p>
+ * A column is stored run length encoded when all its values are equal, as a {@link DictionaryBlock}
+ * when it has few distinct values, or bit packed relative to its minimum when it is an integral
+ * column with a narrow value range, whichever takes the least memory. Run length encoded and
+ * dictionary columns are returned as is, bit packed columns are decoded on every read.
+ * Integral and varchar columns also keep their minimum and maximum values for chunk skipping.
+ */
+final class MemoryColumnChunk
+{
+    private static final Set<Type> INTEGRAL_TYPES = ImmutableSet.of(BIGINT, INTEGER, SMALLINT, TINYINT, DATE, TIMESTAMP);
+
+    private final Optional<Type> type;
+    private final Block block;
+    private final PackedValues packedValues;
+
+    private final boolean hasNulls;
+    private final Optional<Object> min;
+    private final Optional<Object> max;
+
+    private MemoryColumnChunk(Optional<Type> type, Block block, PackedValues packedValues, boolean hasNulls, Optional<Object> min, Optional<Object> max)
+    {
+        this.type = requireNonNull(type, "type is null");
+        this.block = block;
+        this.packedValues = packedValues;
+        this.hasNulls = hasNulls;
+        this.min = requireNonNull(min, "min is null");
+        this.max = requireNonNull(max, "max is null");
+    }
+
+    public static MemoryColumnChunk encode(Block block, Optional<Type> type)
+    {
+        requireNonNull(block, "block is null");
+        requireNonNull(type, "type is null");
+        int positionCount = block.getPositionCount();
+
+        boolean hasNulls = block.mayHaveNull() && hasNull(block);
+        if (!type.isPresent() || positionCount == 0) {
+            return new MemoryColumnChunk(type, block, null, hasNulls, Optional.empty(), Optional.empty());
+        }
+
+        Type columnType = type.get();
+        Optional<Object> min = Optional.empty();
+        Optional<Object> max = Optional.empty();
+        if (hasStatistics(columnType)) {
+            int minPosition = -1;
+            int maxPosition = -1;
+            for (int position = 0; position < positionCount; position++) {
+                if (block.isNull(position)) {
+                    continue;
+                }
+                if (minPosition < 0 || columnType.compareTo(block, position, block, minPosition) < 0) {
+                    minPosition = position;
+                }
+                if (maxPosition < 0 || columnType.compareTo(block, position, block, maxPosition) > 0) {
+                    maxPosition = position;
+                }
+            }
+            if (minPosition >= 0) {
+                min = Optional.of(copyValue(readNativeValue(columnType, block, minPosition)));
+                max = Optional.of(copyValue(readNativeValue(columnType, block, maxPosition)));
+            }
+        }
+
+        Block encoded = block;
+        PackedValues packed = null;
+        long encodedSize = block.getRetainedSizeInBytes();
+
+        if (columnType.isComparable()) {
+            Optional<Block> dictionaryEncoded = dictionaryEncode(columnType, block);
+            if (dictionaryEncoded.isPresent() && dictionaryEncoded.get().getRetainedSizeInBytes() < encodedSize) {
+                encoded = dictionaryEncoded.get();
+                encodedSize = encoded.getRetainedSizeInBytes();
+            }
+        }
+        if (INTEGRAL_TYPES.contains(columnType) && !(encoded instanceof RunLengthEncodedBlock)) {
+            Optional<PackedValues> packedEncoded = PackedValues.pack(columnType, block);
+            if (packedEncoded.isPresent() && packedEncoded.get().getRetainedSizeInBytes() < encodedSize) {
+                encoded = null;
+                packed = packedEncoded.get();
+            }
+        }
+        return new MemoryColumnChunk(type, encoded, packed, hasNulls, min, max);
+    }
+
+    public Block getBlock()
+    {
+        if (packedValues != null) {
+            return packedValues.unpack(type.get());
+        }
+        return block;
+    }
+
+    /**
+     * Returns a domain covering all values of this column, when it is known.
+     */
+    public Optional<Domain> getDomain()
+    {
+        if (!type.isPresent() || !hasStatistics(type.get())) {
+            return Optional.empty();
+        }
+        if (!min.isPresent()) {
+            return Optional.of(Domain.onlyNull(type.get()));
+        }
+        return Optional.of(Domain.create(ValueSet.ofRanges(Range.range(type.get(), min.get(), true, max.get(), true)), hasNulls));
+    }
+
+    public long getRetainedSizeInBytes()
+    {
+        return packedValues != null ? packedValues.getRetainedSizeInBytes() : block.getRetainedSizeInBytes();
+    }
+
+    private static boolean hasStatistics(Type type)
+    {
+        return INTEGRAL_TYPES.contains(type) || type instanceof VarcharType;
+    }
+
+    private static Object copyValue(Object value)
+    {
+        // do not retain the block the value was read from
+        if (value instanceof Slice) {
+            return Slices.copyOf((Slice) value);
+        }
+        return value;
+    }
+
+    private static boolean hasNull(Block block)
+    {
+        for (int position = 0; position < block.getPositionCount(); position++) {
+            if (block.isNull(position)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns the block as a run length encoded block or dictionary block, if it has at most
+     * half as many distinct values as positions.
+     */
+    private static Optional<Block> dictionaryEncode(Type type, Block block)
+    {
+        int positionCount = block.getPositionCount();
+        int maxDistinctCount = Math.max(1, positionCount / 2);
+
+        int hashCapacity = Integer.highestOneBit(Math.max(maxDistinctCount, 1) * 2 - 1) << 1;
+        int hashMask = hashCapacity - 1;
+        int[] dictionaryPositionByHash = new int[hashCapacity];
+        Arrays.fill(dictionaryPositionByHash, -1);
+
+        int[] ids = new int[positionCount];
+        int[] dictionaryPositions = new int[maxDistinctCount];
+        int distinctCount = 0;
+        int nullId = -1;
+        for (int position = 0; position < positionCount; position++) {
+            int id;
+            if (block.isNull(position)) {
+                if (nullId < 0) {
+                    if (distinctCount == maxDistinctCount) {
+                        return Optional.empty();
+                    }
+                    nullId = distinctCount;
+                    dictionaryPositions[distinctCount++] = position;
+                }
+                id = nullId;
+            }
+            else {
+                int hashPosition = (int) murmurHash3(type.hash(block, position)) & hashMask;
+                while (true) {
+                    int dictionaryId = dictionaryPositionByHash[hashPosition];
+                    if (dictionaryId < 0) {
+                        if (distinctCount == maxDistinctCount) {
+                            return Optional.empty();
+                        }
+                        dictionaryPositionByHash[hashPosition] = distinctCount;
+                        dictionaryPositions[distinctCount] = position;
+                        id = distinctCount++;
+                        break;
+                    }
+                    if (type.equalTo(block, dictionaryPositions[dictionaryId], block, position)) {
+                        id = dictionaryId;
+                        break;
+                    }
+                    hashPosition = (hashPosition + 1) & hashMask;
+                }
+            }
+            ids[position] = id;
+        }
+
+        if (distinctCount == 1) {
+            return Optional.of(new RunLengthEncodedBlock(block.getSingleValueBlock(0), positionCount));
+        }
+        Block dictionary = block.copyPositions(dictionaryPositions, 0, distinctCount);
+        return Optional.of(new DictionaryBlock(positionCount, dictionary, ids));
+    }
+
+    private static long murmurHash3(long value)
+    {
+        value ^= value >>> 33;
+        value *= 0xff51afd7ed558ccdL;
+        value ^= value >>> 33;
+        value *= 0xc4ceb9fe1a85ec53L;
+        value ^= value >>> 33;
+        return value;
+    }
+
+    /**
+     * Integral values stored as {@code bitWidth} bit offsets from the minimum value.
+     */
+    private static final class PackedValues
+    {
+        private final int positionCount;
+        private final long minValue;
+        private final int bitWidth;
+        private final long[] packed;
+        private final Optional<boolean[]> valueIsNull;
+
+        private PackedValues(int positionCount, long minValue, int bitWidth, long[] packed, Optional<boolean[]> valueIsNull)
+        {
+            this.positionCount = positionCount;
+            this.minValue = minValue;
+            this.bitWidth = bitWidth;
+            this.packed = packed;
+            this.valueIsNull = valueIsNull;
+        }
+
+        /**
+         * Returns the packed values, if they are narrower than the fixed width of the type.
+         */
+        public static Optional<PackedValues> pack(Type type, Block block)
+        {
+            int positionCount = block.getPositionCount();
+            boolean[] valueIsNull = null;
+            long minValue = Long.MAX_VALUE;
+            long maxValue = Long.MIN_VALUE;
+            for (int position = 0; position < positionCount; position++) {
+                if (block.isNull(position)) {
+                    if (valueIsNull == null) {
+                        valueIsNull = new boolean[positionCount];
+                    }
+                    valueIsNull[position] = true;
+                    continue;
+                }
+                long value = type.getLong(block, position);
+                minValue = Math.min(minValue, value);
+                maxValue = Math.max(maxValue, value);
+            }
+            if (minValue > maxValue) {
+                // all values are null
+                minValue = 0;
+                maxValue = 0;
+            }
+
+            // the range is taken as unsigned, so it only needs all 64 bits when it overflows
+            int bitWidth = Long.SIZE - Long.numberOfLeadingZeros(maxValue - minValue);
+            if (bitWidth >= ((FixedWidthType) type).getFixedSize() * Byte.SIZE) {
+                return Optional.empty();
+            }
+
+            long[] packed = new long[toIntExact(((long) positionCount * bitWidth + Long.SIZE - 1) / Long.SIZE)];
+            if (bitWidth > 0) {
+                for (int position = 0; position < positionCount; position++) {
+                    if (valueIsNull != null && valueIsNull[position]) {
+                        continue;
+                    }
+                    long delta = type.getLong(block, position) - minValue;
+                    long bitOffset = (long) position * bitWidth;
+                    int word = (int) (bitOffset >>> 6);
+                    int shift = (int) (bitOffset & 63);
+                    packed[word] |= delta << shift;
+                    if (shift + bitWidth > Long.SIZE) {
+                        packed[word + 1] |= delta >>> (Long.SIZE - shift);
+                    }
+                }
+            }
+            return Optional.of(new PackedValues(positionCount, minValue, bitWidth, packed, Optional.ofNullable(valueIsNull)));
+        }
+
+        public Block unpack(Type type)
+        {
+            long mask = (1L << bitWidth) - 1;
+            int fixedSize = ((FixedWidthType) type).getFixedSize();
+            long[] longValues = fixedSize == Long.BYTES ? new long[positionCount] : null;
+            int[] intValues = fixedSize == Integer.BYTES ? new int[positionCount] : null;
+            short[] shortValues = fixedSize == Short.BYTES ? new short[positionCount] : null;
+            byte[] byteValues = fixedSize == Byte.BYTES ? new byte[positionCount] : null;
+            for (int position = 0; position < positionCount; position++) {
+                long value = 0;
+                if (!valueIsNull.isPresent() || !valueIsNull.get()[position]) {
+                    long delta = 0;
+                    if (bitWidth > 0) {
+                        long bitOffset = (long) position * bitWidth;
+                        int word = (int) (bitOffset >>> 6);
+                        int shift = (int) (bitOffset & 63);
+                        delta = packed[word] >>> shift;
+                        if (shift + bitWidth > Long.SIZE) {
+                            delta |= packed[word + 1] << (Long.SIZE - shift);
+                        }
+                        delta &= mask;
+                    }
+                    value = minValue + delta;
+                }
+                switch (fixedSize) {
+                    case Long.BYTES:
+                        longValues[position] = value;
+                        break;
+                    case Integer.BYTES:
+                        intValues[position] = (int) value;
+                        break;
+                    case Short.BYTES:
+                        shortValues[position] = (short) value;
+                        break;
+                    default:
+                        byteValues[position] = (byte) value;
+                }
+            }
+            switch (fixedSize) {
+                case Long.BYTES:
+                    return new LongArrayBlock(positionCount, valueIsNull, longValues);
+                case Integer.BYTES:
+                    return new IntArrayBlock(positionCount, valueIsNull, intValues);
+                case Short.BYTES:
+                    return new ShortArrayBlock(positionCount, valueIsNull, shortValues);
+                default:
+                    return new ByteArrayBlock(positionCount, valueIsNull, byteValues);
+            }
+        }
+
+        public long getRetainedSizeInBytes()
+        {
+            return sizeOf(packed) + valueIsNull.map(nulls -> sizeOf(nulls)).orElse(0L);
+        }
+    }
+}
@@ -405,7 +405,8 @@ public class MemoryMetadata
         List<MemoryDataFragment> expectedFragments = ImmutableList.copyOf(
                 tableDataFragments.get(memoryTableHandle.getTableId()).values());
 
-        MemoryTableLayoutHandle layoutHandle = new MemoryTableLayoutHandle(memoryTableHandle, expectedFragments);
+        // the predicate is only used to skip chunks on the workers, so all of it remains unenforced
+        MemoryTableLayoutHandle layoutHandle = new MemoryTableLayoutHandle(memoryTableHandle, expectedFragments, constraint.getSummary());
         return new ConnectorTableLayoutResult(getTableLayout(session, layoutHandle), constraint.getSummary());
     }
 
@@ -0,0 +1,103 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.plugin.memory;
+
+import com.facebook.presto.common.Page;
+import com.facebook.presto.common.block.Block;
+import com.facebook.presto.common.predicate.Domain;
+import com.facebook.presto.common.predicate.TupleDomain;
+import com.facebook.presto.common.type.Type;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * An immutable page of a memory table, stored as one {@link MemoryColumnChunk} per column.
+ */
+final class MemoryPageChunk
+{
+    private final int positionCount;
+    private final MemoryColumnChunk[] columns;
+    private final long retainedSizeInBytes;
+
+    private MemoryPageChunk(int positionCount, MemoryColumnChunk[] columns)
+    {
+        this.positionCount = positionCount;
+        this.columns = requireNonNull(columns, "columns is null");
+        long retainedSizeInBytes = 0;
+        for (MemoryColumnChunk column : columns) {
+            retainedSizeInBytes += column.getRetainedSizeInBytes();
+        }
+        this.retainedSizeInBytes = retainedSizeInBytes;
+    }
+
+    /**
+     * Encodes the page. Columns are only encoded when {@code types} describes all channels of the page.
+     */
+    public static MemoryPageChunk encode(Page page, List<Type> types)
+    {
+        boolean typesKnown = types.size() == page.getChannelCount();
+        MemoryColumnChunk[] columns = new MemoryColumnChunk[page.getChannelCount()];
+        for (int channel = 0; channel < columns.length; channel++) {
+            columns[channel] = MemoryColumnChunk.encode(page.getBlock(channel), typesKnown ? Optional.of(types.get(channel)) : Optional.empty());
+        }
+        return new MemoryPageChunk(page.getPositionCount(), columns);
+    }
+
+    public int getPositionCount()
+    {
+        return positionCount;
+    }
+
+    public long getRetainedSizeInBytes()
+    {
+        return retainedSizeInBytes;
+    }
+
+    /**
+     * Returns false when the column statistics prove that no row of this chunk matches the predicate.
+     */
+    public boolean mayMatch(TupleDomain<Integer> predicate)
+    {
+        if (predicate.isNone()) {
+            return false;
+        }
+        Map<Integer, Domain> domains = predicate.getDomains().get();
+        for (Map.Entry<Integer, Domain> entry : domains.entrySet()) {
+            int columnIndex = entry.getKey();
+            if (columnIndex >= columns.length) {
+                continue;
+            }
+            Optional<Domain> columnDomain = columns[columnIndex].getDomain();
+            if (columnDomain.isPresent()
+                    && columnDomain.get().getType().equals(entry.getValue().getType())
+                    && !columnDomain.get().overlaps(entry.getValue())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public Page getColumns(List<Integer> columnIndexes)
+    {
+        Block[] outputBlocks = new Block[columnIndexes.size()];
+        for (int i = 0; i < columnIndexes.size(); i++) {
+            outputBlocks[i] = columns[columnIndexes.get(i)].getBlock();
+        }
+        return new Page(positionCount, outputBlocks);
+    }
+}
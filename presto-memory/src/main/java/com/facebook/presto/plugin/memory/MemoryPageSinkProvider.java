@@ -14,6 +14,7 @@
 package com.facebook.presto.plugin.memory;
 
 import com.facebook.presto.common.Page;
+import com.facebook.presto.common.type.Type;
 import com.facebook.presto.spi.ConnectorInsertTableHandle;
 import com.facebook.presto.spi.ConnectorOutputTableHandle;
 import com.facebook.presto.spi.ConnectorPageSink;
@@ -29,10 +30,12 @@ import io.airlift.slice.Slice;
 import jakarta.inject.Inject;
 
 import java.util.Collection;
+import java.util.List;
 import java.util.concurrent.CompletableFuture;
 
 import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkState;
+import static com.google.common.collect.ImmutableList.toImmutableList;
 import static java.util.Objects.requireNonNull;
 import static java.util.concurrent.CompletableFuture.completedFuture;
 
@@ -67,7 +70,7 @@ public class MemoryPageSinkProvider
 
         pagesStore.cleanUp(memoryOutputTableHandle.getActiveTableIds());
         pagesStore.initialize(tableId);
-        return new MemoryPageSink(pagesStore, currentHostAddress, tableId);
+        return new MemoryPageSink(pagesStore, currentHostAddress, tableId, getColumnTypes(tableHandle));
     }
 
     @Override
@@ -85,7 +88,14 @@ public class MemoryPageSinkProvider
             pagesStore.clearTable(tableId);
         }
         pagesStore.initialize(tableId);
-        return new MemoryPageSink(pagesStore, currentHostAddress, tableId);
+        return new MemoryPageSink(pagesStore, currentHostAddress, tableId, getColumnTypes(tableHandle));
+    }
+
+    private static List<Type> getColumnTypes(MemoryTableHandle tableHandle)
+    {
+        return tableHandle.getColumnHandles().stream()
+                .map(MemoryColumnHandle::getColumnType)
+                .collect(toImmutableList());
     }
 
     private static class MemoryPageSink
@@ -94,19 +104,21 @@ public class MemoryPageSinkProvider
         private final MemoryPagesStore pagesStore;
         private final HostAddress currentHostAddress;
         private final long tableId;
+        private final List<Type> types;
         private long addedRows;
 
-        public MemoryPageSink(MemoryPagesStore pagesStore, HostAddress currentHostAddress, long tableId)
+        public MemoryPageSink(MemoryPagesStore pagesStore, HostAddress currentHostAddress, long tableId, List<Type> types)
         {
             this.pagesStore = requireNonNull(pagesStore, "pagesStore is null");
             this.currentHostAddress = requireNonNull(currentHostAddress, "currentHostAddress is null");
             this.tableId = tableId;
+            this.types = requireNonNull(types, "types is null");
         }
 
         @Override
         public CompletableFuture<?> appendPage(Page page)
         {
-            pagesStore.add(tableId, page);
+            pagesStore.add(tableId, page, types);
             addedRows += page.getPositionCount();
             return NOT_BLOCKED;
         }
@@ -14,6 +14,7 @@
 package com.facebook.presto.plugin.memory;
 
 import com.facebook.presto.common.Page;
+import com.facebook.presto.common.predicate.TupleDomain;
 import com.facebook.presto.spi.ColumnHandle;
 import com.facebook.presto.spi.ConnectorPageSource;
 import com.facebook.presto.spi.ConnectorSession;
@@ -57,12 +58,15 @@ public final class MemoryPageSourceProvider
         List<Integer> columnIndexes = columns.stream()
                 .map(MemoryColumnHandle.class::cast)
                 .map(MemoryColumnHandle::getColumnIndex).collect(toList());
+        TupleDomain<Integer> predicate = memorySplit.getPredicate()
+                .transform(column -> ((MemoryColumnHandle) column).getColumnIndex());
         List<Page> pages = pagesStore.getPages(
                 tableId,
                 partNumber,
                 totalParts,
                 columnIndexes,
-                expectedRows);
+                expectedRows,
+                predicate);
 
         return new FixedPageSource(pages);
     }
@@ -14,25 +14,34 @@
 package com.facebook.presto.plugin.memory;
 
 import com.facebook.presto.common.Page;
-import com.facebook.presto.common.block.Block;
+import com.facebook.presto.common.predicate.TupleDomain;
+import com.facebook.presto.common.type.Type;
 import com.facebook.presto.spi.PrestoException;
 import com.google.common.collect.ImmutableList;
 import com.google.errorprone.annotations.ThreadSafe;
 import com.google.errorprone.annotations.concurrent.GuardedBy;
 import jakarta.inject.Inject;
 
-import java.util.ArrayList;
 import java.util.Collections;
-import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.Queue;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
 
 import static com.facebook.presto.plugin.memory.MemoryErrorCode.MEMORY_LIMIT_EXCEEDED;
 import static com.facebook.presto.plugin.memory.MemoryErrorCode.MISSING_DATA;
 import static java.lang.String.format;
 
+/**
+ * Stores each table as a list of immutable, encoded {@link MemoryPageChunk}s.
+ * <p>
+ * Writers serialize on the store to account memory, while readers only see published
+ * chunks and never take the store lock.
+ */
 @ThreadSafe
 public class MemoryPagesStore
 {
@@ -41,7 +50,7 @@ public class MemoryPagesStore
     @GuardedBy("this")
     private long currentBytes;
 
-    private final Map<Long, TableData> tables = new HashMap<>();
+    private final Map<Long, TableData> tables = new ConcurrentHashMap<>();
 
     @Inject
     public MemoryPagesStore(MemoryConfig config)
@@ -56,50 +65,88 @@ public class MemoryPagesStore
         }
     }
 
-    public synchronized void add(Long tableId, Page page)
+    public void add(Long tableId, Page page)
+    {
+        add(tableId, page, ImmutableList.of());
+    }
+
+    /**
+     * Adds a page to the table. The columns of the page are only encoded when
+     * {@code types} describes all of its channels.
+     */
+    public void add(Long tableId, Page page, List<Type> types)
     {
         if (!contains(tableId)) {
             throw new PrestoException(MISSING_DATA, "Failed to find table on a worker.");
         }
 
         page.compact();
+        // encode outside of the lock, so concurrent writers only serialize on the accounting
+        MemoryPageChunk chunk = MemoryPageChunk.encode(page, types);
 
-        long newSize = currentBytes + page.getRetainedSizeInBytes();
-        if (maxBytes < newSize) {
-            throw new PrestoException(MEMORY_LIMIT_EXCEEDED, format("Memory limit [%d] for memory connector exceeded", maxBytes));
-        }
-        currentBytes = newSize;
+        synchronized (this) {
+            TableData tableData = tables.get(tableId);
+            if (tableData == null) {
+                throw new PrestoException(MISSING_DATA, "Failed to find table on a worker.");
+            }
 
-        TableData tableData = tables.get(tableId);
-        tableData.add(page);
+            long newSize = currentBytes + chunk.getRetainedSizeInBytes();
+            if (maxBytes < newSize) {
+                throw new PrestoException(MEMORY_LIMIT_EXCEEDED, format("Memory limit [%d] for memory connector exceeded", maxBytes));
+            }
+            currentBytes = newSize;
+
+            tableData.add(chunk);
+        }
     }
 
-    public synchronized List<Page> getPages(
+    public List<Page> getPages(
             Long tableId,
             int partNumber,
             int totalParts,
             List<Integer> columnIndexes,
             long expectedRows)
     {
-        if (!contains(tableId)) {
+        return getPages(tableId, partNumber, totalParts, columnIndexes, expectedRows, TupleDomain.all());
+    }
+
+    /**
+     * Returns the pages of this part of the table, skipping chunks whose column statistics
+     * do not match {@code predicate}, which is keyed by column index.
+     */
+    public List<Page> getPages(
+            Long tableId,
+            int partNumber,
+            int totalParts,
+            List<Integer> columnIndexes,
+            long expectedRows,
+            TupleDomain<Integer> predicate)
+    {
+        TableData tableData = tables.get(tableId);
+        if (tableData == null) {
             throw new PrestoException(MISSING_DATA, "Failed to find table on a worker.");
         }
-        TableData tableData = tables.get(tableId);
-        if (tableData.getRows() < expectedRows) {
+        // rows are counted after a chunk is published, so all chunks counted here are visible below
+        long rows = tableData.getRows();
+        if (rows < expectedRows) {
             throw new PrestoException(MISSING_DATA,
-                    format("Expected to find [%s] rows on a worker, but found [%s].", expectedRows, tableData.getRows()));
+                    format("Expected to find [%s] rows on a worker, but found [%s].", expectedRows, rows));
         }
 
         ImmutableList.Builder<Page> partitionedPages = ImmutableList.builder();
 
-        for (int i = partNumber; i < tableData.getPages().size(); i += totalParts) {
-            partitionedPages.add(getColumns(tableData.getPages().get(i), columnIndexes));
+        int chunkIndex = 0;
+        for (MemoryPageChunk chunk : tableData.getChunks()) {
+            if (chunkIndex % totalParts == partNumber && chunk.mayMatch(predicate)) {
+                partitionedPages.add(chunk.getColumns(columnIndexes));
+            }
+            chunkIndex++;
         }
 
         return partitionedPages.build();
     }
 
-    public synchronized boolean contains(Long tableId)
+    public boolean contains(Long tableId)
     {
         return tables.containsKey(tableId);
     }
@@ -108,8 +155,8 @@ public class MemoryPagesStore
     {
         TableData tableData = tables.get(tableId);
         if (tableData != null) {
-            for (Page page : tableData.getPages()) {
-                currentBytes -= page.getRetainedSizeInBytes();
+            for (MemoryPageChunk chunk : tableData.getChunks()) {
+                currentBytes -= chunk.getRetainedSizeInBytes();
             }
             tables.put(tableId, new TableData());
         }
@@ -135,44 +182,33 @@ public class MemoryPagesStore
             Map.Entry<Long, TableData> tablePagesEntry = tableDataIterator.next();
             Long tableId = tablePagesEntry.getKey();
             if (tableId < latestTableId && !activeTableIds.contains(tableId)) {
-                for (Page removedPage : tablePagesEntry.getValue().getPages()) {
-                    currentBytes -= removedPage.getRetainedSizeInBytes();
+                for (MemoryPageChunk removedChunk : tablePagesEntry.getValue().getChunks()) {
+                    currentBytes -= removedChunk.getRetainedSizeInBytes();
                 }
                 tableDataIterator.remove();
             }
         }
     }
 
-    private static Page getColumns(Page page, List<Integer> columnIndexes)
-    {
-        Block[] outputBlocks = new Block[columnIndexes.size()];
-
-        for (int i = 0; i < columnIndexes.size(); i++) {
-            outputBlocks[i] = page.getBlock(columnIndexes.get(i));
-        }
-
-        return new Page(page.getPositionCount(), outputBlocks);
-    }
-
     private static final class TableData
     {
-        private final List<Page> pages = new ArrayList<>();
-        private long rows;
+        private final Queue<MemoryPageChunk> chunks = new ConcurrentLinkedQueue<>();
+        private final AtomicLong rows = new AtomicLong();
 
-        public void add(Page page)
+        public void add(MemoryPageChunk chunk)
         {
-            pages.add(page);
-            rows += page.getPositionCount();
+            chunks.add(chunk);
+            rows.addAndGet(chunk.getPositionCount());
         }
 
-        private List<Page> getPages()
+        private Iterable<MemoryPageChunk> getChunks()
         {
-            return pages;
+            return chunks;
         }
 
         private long getRows()
         {
-            return rows;
+            return rows.get();
         }
     }
 }
@@ -13,6 +13,8 @@
  */
 package com.facebook.presto.plugin.memory;
 
+import com.facebook.presto.common.predicate.TupleDomain;
+import com.facebook.presto.spi.ColumnHandle;
 import com.facebook.presto.spi.ConnectorSplit;
 import com.facebook.presto.spi.HostAddress;
 import com.facebook.presto.spi.NodeProvider;
@@ -36,6 +38,7 @@ public class MemorySplit
     private final int partNumber; // part of the pages on one worker that this splits is responsible
     private final HostAddress address;
     private final long expectedRows;
+    private final TupleDomain<ColumnHandle> predicate;
 
     @JsonCreator
     public MemorySplit(
@@ -43,7 +46,8 @@ public class MemorySplit
             @JsonProperty("partNumber") int partNumber,
             @JsonProperty("totalPartsPerWorker") int totalPartsPerWorker,
             @JsonProperty("address") HostAddress address,
-            @JsonProperty("expectedRows") long expectedRows)
+            @JsonProperty("expectedRows") long expectedRows,
+            @JsonProperty("predicate") TupleDomain<ColumnHandle> predicate)
     {
         checkState(partNumber >= 0, "partNumber must be >= 0");
         checkState(totalPartsPerWorker >= 1, "totalPartsPerWorker must be >= 1");
@@ -54,6 +58,7 @@ public class MemorySplit
         this.totalPartsPerWorker = totalPartsPerWorker;
         this.address = requireNonNull(address, "address is null");
         this.expectedRows = expectedRows;
+        this.predicate = requireNonNull(predicate, "predicate is null");
     }
 
     @JsonProperty
@@ -104,6 +109,12 @@ public class MemorySplit
         return expectedRows;
     }
 
+    @JsonProperty
+    public TupleDomain<ColumnHandle> getPredicate()
+    {
+        return predicate;
+    }
+
     @Override
     public String toString()
     {
@@ -56,7 +56,8 @@ public final class MemorySplitManager
                                 i,
                                 splitsPerNode,
                                 dataFragment.getHostAddress(),
-                                dataFragment.getRows()));
+                                dataFragment.getRows(),
+                                layout.getPredicate()));
             }
         }
         return new FixedSplitSource(splits.build());
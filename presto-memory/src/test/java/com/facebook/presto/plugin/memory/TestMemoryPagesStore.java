@@ -16,6 +16,9 @@ package com.facebook.presto.plugin.memory;
 import com.facebook.airlift.units.DataSize;
 import com.facebook.presto.common.Page;
 import com.facebook.presto.common.block.BlockBuilder;
+import com.facebook.presto.common.predicate.Domain;
+import com.facebook.presto.common.predicate.TupleDomain;
+import com.facebook.presto.common.type.Type;
 import com.facebook.presto.spi.ConnectorInsertTableHandle;
 import com.facebook.presto.spi.ConnectorOutputTableHandle;
 import com.facebook.presto.spi.ConnectorPageSink;
@@ -25,11 +28,17 @@ import com.facebook.presto.spi.PageSinkContext;
 import com.facebook.presto.spi.PrestoException;
 import com.facebook.presto.testing.TestingConnectorSession;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
 import org.testng.annotations.BeforeMethod;
 import org.testng.annotations.Test;
 
+import java.util.List;
+
 import static com.facebook.presto.common.type.BigintType.BIGINT;
+import static com.facebook.presto.common.type.IntegerType.INTEGER;
+import static com.facebook.presto.common.type.VarcharType.VARCHAR;
+import static io.airlift.slice.Slices.utf8Slice;
 import static java.lang.String.format;
 import static org.testng.Assert.assertEquals;
 import static org.testng.Assert.assertFalse;
@@ -119,6 +128,89 @@ public class TestMemoryPagesStore
         insertToTable(0L, createOneMegaBytePage(), 0L);
     }
 
+    @Test
+    public void testEncodedColumns()
+    {
+        createTable(0L, 0L);
+        List<Type> types = ImmutableList.of(BIGINT, BIGINT, VARCHAR, INTEGER);
+        Page first = createEncodablePage(0, 1000);
+        Page second = createEncodablePage(1000, 1000);
+        pagesStore.add(0L, first, types);
+        pagesStore.add(0L, second, types);
+
+        List<Page> pages = pagesStore.getPages(0L, 0, 1, ImmutableList.of(0, 1, 2, 3), 2000);
+        assertEquals(pages.size(), 2);
+        assertPageValues(pages.get(0), 0, 1000);
+        assertPageValues(pages.get(1), 1000, 1000);
+
+        // column subsets and parts
+        List<Page> part = pagesStore.getPages(0L, 1, 2, ImmutableList.of(3, 0), 2000);
+        assertEquals(part.size(), 1);
+        assertEquals(part.get(0).getChannelCount(), 2);
+        assertEquals(BIGINT.getLong(part.get(0).getBlock(1), 0), 1000L);
+    }
+
+    @Test
+    public void testChunkSkipping()
+    {
+        createTable(0L, 0L);
+        List<Type> types = ImmutableList.of(BIGINT, BIGINT, VARCHAR, INTEGER);
+        pagesStore.add(0L, createEncodablePage(0, 1000), types);
+        pagesStore.add(0L, createEncodablePage(1000, 1000), types);
+
+        List<Integer> columns = ImmutableList.of(0);
+        assertEquals(getPages(columns, TupleDomain.withColumnDomains(ImmutableMap.of(0, Domain.singleValue(BIGINT, 1500L)))).size(), 1);
+        assertEquals(getPages(columns, TupleDomain.withColumnDomains(ImmutableMap.of(0, Domain.singleValue(BIGINT, 5000L)))).size(), 0);
+        assertEquals(getPages(columns, TupleDomain.withColumnDomains(ImmutableMap.of(2, Domain.singleValue(VARCHAR, utf8Slice("value_3"))))).size(), 2);
+        assertEquals(getPages(columns, TupleDomain.withColumnDomains(ImmutableMap.of(2, Domain.singleValue(VARCHAR, utf8Slice("zzz"))))).size(), 0);
+        assertEquals(getPages(columns, TupleDomain.withColumnDomains(ImmutableMap.of(3, Domain.onlyNull(INTEGER)))).size(), 2);
+        assertEquals(getPages(columns, TupleDomain.withColumnDomains(ImmutableMap.of(1, Domain.notNull(BIGINT)))).size(), 2);
+        assertEquals(getPages(columns, TupleDomain.none()).size(), 0);
+        assertEquals(getPages(columns, TupleDomain.all()).size(), 2);
+    }
+
+    private List<Page> getPages(List<Integer> columnIndexes, TupleDomain<Integer> predicate)
+    {
+        return pagesStore.getPages(0L, 0, 1, columnIndexes, 0, predicate);
+    }
+
+    private static Page createEncodablePage(int start, int positionCount)
+    {
+        BlockBuilder sequence = BIGINT.createBlockBuilder(null, positionCount);
+        BlockBuilder constant = BIGINT.createBlockBuilder(null, positionCount);
+        BlockBuilder lowCardinality = VARCHAR.createBlockBuilder(null, positionCount);
+        BlockBuilder nullable = INTEGER.createBlockBuilder(null, positionCount);
+        for (int i = start; i < start + positionCount; i++) {
+            BIGINT.writeLong(sequence, i);
+            BIGINT.writeLong(constant, 42);
+            VARCHAR.writeSlice(lowCardinality, utf8Slice("value_" + (i % 5)));
+            if (i % 3 == 0) {
+                nullable.appendNull();
+            }
+            else {
+                INTEGER.writeLong(nullable, -i);
+            }
+        }
+        return new Page(positionCount, sequence.build(), constant.build(), lowCardinality.build(), nullable.build());
+    }
+
+    private static void assertPageValues(Page page, int start, int positionCount)
+    {
+        assertEquals(page.getPositionCount(), positionCount);
+        for (int position = 0; position < positionCount; position++) {
+            int i = start + position;
+            assertEquals(BIGINT.getLong(page.getBlock(0), position), i);
+            assertEquals(BIGINT.getLong(page.getBlock(1), position), 42);
+            assertEquals(VARCHAR.getSlice(page.getBlock(2), position), utf8Slice("value_" + (i % 5)));
+            if (i % 3 == 0) {
+                assertTrue(page.getBlock(3).isNull(position));
+            }
+            else {
+                assertEquals(INTEGER.getLong(page.getBlock(3), position), -i);
+            }
+        }
+    }
+
     private void insertToTable(long tableId, Long... activeTableIds)
     {
         insertToTable(tableId, createPage(), activeTableIds);
@@ -179,8 +271,11 @@ public class TestMemoryPagesStore
     private static Page createOneMegaBytePage()
     {
         BlockBuilder blockBuilder = BIGINT.createFixedSizeBlockBuilder(POSITIONS_PER_PAGE);
+        // distinct values over the whole range of BIGINT, so that the column cannot be encoded
+        long value = 0;
         while (blockBuilder.getRetainedSizeInBytes() < 1024 * 1024) {
-            BIGINT.writeLong(blockBuilder, 42L);
+            value += 0x9E3779B97F4A7C15L;
+            BIGINT.writeLong(blockBuilder, value);
         }
         return new Page(0, blockBuilder.build());
     }
@@ -15,6 +15,8 @@ package com.facebook.presto.orc;
 
 import com.facebook.airlift.units.DataSize;
 import com.google.common.collect.ImmutableMap;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.ListenableFutureTask;
 import io.airlift.slice.BasicSliceInput;
 import io.airlift.slice.ChunkedSliceInput;
 import io.airlift.slice.ChunkedSliceInput.BufferReference;
@@ -25,15 +27,21 @@ import io.airlift.slice.Slices;
 
 import java.io.IOException;
 import java.io.UncheckedIOException;
+import java.util.ArrayList;
 import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.Optional;
+import java.util.concurrent.Executor;
 import java.util.function.Supplier;
 
+import static com.facebook.airlift.concurrent.MoreFutures.getFutureValue;
 import static com.facebook.presto.orc.OrcDataSourceUtils.getDiskRangeSlice;
 import static com.facebook.presto.orc.OrcDataSourceUtils.mergeAdjacentDiskRanges;
 import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Verify.verify;
+import static com.google.common.util.concurrent.Futures.allAsList;
 import static java.lang.Math.toIntExact;
 import static java.util.Objects.requireNonNull;
 
@@ -46,10 +54,27 @@ public abstract class AbstractOrcDataSource
     private final DataSize maxBufferSize;
     private final DataSize streamBufferSize;
     private final boolean lazyReadSmallRanges;
+    private final Optional<Executor> parallelReadExecutor;
     private long readTimeNanos;
     private long readBytes;
 
     public AbstractOrcDataSource(OrcDataSourceId id, long size, DataSize maxMergeDistance, DataSize maxBufferSize, DataSize streamBufferSize, boolean lazyReadSmallRanges)
+    {
+        this(id, size, maxMergeDistance, maxBufferSize, streamBufferSize, lazyReadSmallRanges, Optional.empty());
+    }
+
+    /**
+     * @param parallelReadExecutor when present, the merged ranges of an eager {@link #readFully(Map)} are read
+     * concurrently on this executor, so {@link #readInternal} must support concurrent positional reads
+     */
+    public AbstractOrcDataSource(
+            OrcDataSourceId id,
+            long size,
+            DataSize maxMergeDistance,
+            DataSize maxBufferSize,
+            DataSize streamBufferSize,
+            boolean lazyReadSmallRanges,
+            Optional<Executor> parallelReadExecutor)
     {
         this.id = requireNonNull(id, "id is null");
 
@@ -60,6 +85,7 @@ public abstract class AbstractOrcDataSource
         this.maxBufferSize = requireNonNull(maxBufferSize, "maxBufferSize is null");
         this.streamBufferSize = requireNonNull(streamBufferSize, "streamBufferSize is null");
         this.lazyReadSmallRanges = lazyReadSmallRanges;
+        this.parallelReadExecutor = requireNonNull(parallelReadExecutor, "parallelReadExecutor is null");
     }
 
     protected abstract void readInternal(long position, byte[] buffer, int bufferOffset, int bufferLength)
@@ -152,7 +178,7 @@ public abstract class AbstractOrcDataSource
             return ImmutableMap.of();
         }
 
-        Iterable<DiskRange> mergedRanges = mergeAdjacentDiskRanges(diskRanges.values(), maxMergeDistance, maxBufferSize);
+        List<DiskRange> mergedRanges = mergeAdjacentDiskRanges(diskRanges.values(), maxMergeDistance, maxBufferSize);
 
         ImmutableMap.Builder<K, OrcDataSourceInput> slices = ImmutableMap.builder();
         if (lazyReadSmallRanges) {
@@ -168,13 +194,7 @@ public abstract class AbstractOrcDataSource
             }
         }
         else {
-            Map<DiskRange, byte[]> buffers = new LinkedHashMap<>();
-            for (DiskRange mergedRange : mergedRanges) {
-                // read full range in one request
-                byte[] buffer = new byte[mergedRange.getLength()];
-                readFully(mergedRange.getOffset(), buffer);
-                buffers.put(mergedRange, buffer);
-            }
+            Map<DiskRange, byte[]> buffers = readMergedRanges(mergedRanges);
 
             for (Entry<K, DiskRange> entry : diskRanges.entrySet()) {
                 slices.put(entry.getKey(), new OrcDataSourceInput(getDiskRangeSlice(entry.getValue(), buffers).getInput(), entry.getValue().getLength()));
@@ -186,6 +206,50 @@ public abstract class AbstractOrcDataSource
         return sliceStreams;
     }
 
+    private Map<DiskRange, byte[]> readMergedRanges(List<DiskRange> mergedRanges)
+            throws IOException
+    {
+        Map<DiskRange, byte[]> buffers = new LinkedHashMap<>();
+        for (DiskRange mergedRange : mergedRanges) {
+            buffers.put(mergedRange, new byte[mergedRange.getLength()]);
+        }
+
+        if (!parallelReadExecutor.isPresent() || mergedRanges.size() == 1) {
+            for (Entry<DiskRange, byte[]> entry : buffers.entrySet()) {
+                // read full range in one request
+                readFully(entry.getKey().getOffset(), entry.getValue());
+            }
+            return buffers;
+        }
+
+        // issue all requests at once, so the latency of each round trip to the storage is paid only once
+        long start = System.nanoTime();
+        List<ListenableFuture<?>> futures = new ArrayList<>(buffers.size());
+        long bytes = 0;
+        for (Entry<DiskRange, byte[]> entry : buffers.entrySet()) {
+            DiskRange mergedRange = entry.getKey();
+            byte[] buffer = entry.getValue();
+            ListenableFutureTask<?> task = ListenableFutureTask.create(() -> {
+                readInternal(mergedRange.getOffset(), buffer, 0, buffer.length);
+                return null;
+            });
+            parallelReadExecutor.get().execute(task);
+            futures.add(task);
+            bytes += buffer.length;
+        }
+        try {
+            getFutureValue(allAsList(futures), IOException.class);
+        }
+        catch (IOException | RuntimeException e) {
+            futures.forEach(future -> future.cancel(true));
+            throw e;
+        }
+
+        readTimeNanos += System.nanoTime() - start;
+        readBytes += bytes;
+        return buffers;
+    }
+
     private <K> Map<K, OrcDataSourceInput> readLargeDiskRanges(Map<K, DiskRange> diskRanges)
     {
         if (diskRanges.isEmpty()) {
@@ -17,6 +17,8 @@ import com.facebook.presto.common.Page;
 import com.facebook.presto.common.RuntimeStats;
 import com.facebook.presto.common.block.Block;
 import com.facebook.presto.common.type.Type;
+import com.facebook.presto.orc.cache.DecodedBlockCache;
+import com.facebook.presto.orc.cache.DecodedBlockId;
 import com.facebook.presto.orc.metadata.MetadataReader;
 import com.facebook.presto.orc.metadata.OrcType;
 import com.facebook.presto.orc.metadata.PostScript.HiveWriterVersion;
@@ -36,12 +38,20 @@ import java.util.Map;
 import java.util.Optional;
 
 import static com.facebook.presto.orc.StreamDescriptorFactory.createStreamDescriptor;
+import static java.util.Objects.requireNonNull;
 
 public class OrcBatchRecordReader
         extends AbstractOrcRecordReader<BatchStreamReader>
 {
     private static final int INSTANCE_SIZE = ClassLayout.parseClass(OrcBatchRecordReader.class).instanceSize();
 
+    private final Map<Integer, Type> includedColumns;
+    private final DateTimeZone hiveStorageTimeZone;
+    private final long fileModificationTime;
+    private final DecodedBlockCache decodedBlockCache;
+
+    private int batchSize;
+
     public OrcBatchRecordReader(
             Map<Integer, Type> includedColumns,
             OrcPredicate predicate,
@@ -69,7 +79,8 @@ public class OrcBatchRecordReader
             StripeMetadataSource stripeMetadataSource,
             boolean cacheable,
             RuntimeStats runtimeStats,
-            long fileModificationTime)
+            long fileModificationTime,
+            DecodedBlockCache decodedBlockCache)
             throws OrcCorruptionException
 
     {
@@ -109,12 +120,18 @@ public class OrcBatchRecordReader
                 runtimeStats,
                 Optional.empty(),
                  fileModificationTime);
+
+        this.includedColumns = ImmutableMap.copyOf(includedColumns);
+        this.hiveStorageTimeZone = hiveStorageTimeZone;
+        this.fileModificationTime = fileModificationTime;
+        // only files whose metadata may be cached can have their decoded data cached
+        this.decodedBlockCache = cacheable ? requireNonNull(decodedBlockCache, "decodedBlockCache is null") : DecodedBlockCache.disabled();
     }
 
     public int nextBatch()
             throws IOException
     {
-        int batchSize = prepareNextBatch();
+        batchSize = prepareNextBatch();
         if (batchSize < 0) {
             return batchSize;
         }
@@ -133,7 +150,22 @@ public class OrcBatchRecordReader
     public Block readBlock(int columnIndex)
             throws IOException
     {
-        Block block = getStreamReaders()[columnIndex].readBlock();
+        Block block;
+        if (decodedBlockCache.isEnabled()) {
+            // on a hit the stream reader is not consumed; it skips the batch lazily on its next read
+            DecodedBlockId blockId = new DecodedBlockId(getOrcDataSourceId(), fileModificationTime, getFilePosition(), batchSize, columnIndex, includedColumns.get(columnIndex), hiveStorageTimeZone);
+            Optional<Block> cachedBlock = decodedBlockCache.get(blockId);
+            if (cachedBlock.isPresent()) {
+                block = cachedBlock.get();
+            }
+            else {
+                block = getStreamReaders()[columnIndex].readBlock();
+                decodedBlockCache.put(blockId, block);
+            }
+        }
+        else {
+            block = getStreamReaders()[columnIndex].readBlock();
+        }
         updateMaxCombinedBytesPerRow(columnIndex, block);
         return block;
     }
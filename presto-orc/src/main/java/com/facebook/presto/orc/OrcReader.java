@@ -20,6 +20,7 @@ import com.facebook.presto.common.block.Block;
 import com.facebook.presto.common.predicate.FilterFunction;
 import com.facebook.presto.common.predicate.TupleDomainFilter;
 import com.facebook.presto.common.type.Type;
+import com.facebook.presto.orc.cache.DecodedBlockCache;
 import com.facebook.presto.orc.cache.OrcFileTailSource;
 import com.facebook.presto.orc.cache.StorageOrcFileTailSource;
 import com.facebook.presto.orc.metadata.CompressionKind;
@@ -375,6 +376,20 @@ public class OrcReader
             OrcAggregatedMemoryContext systemMemoryUsage,
             int initialBatchSize)
             throws OrcCorruptionException
+    {
+        return createBatchRecordReader(includedColumns, predicate, offset, length, hiveStorageTimeZone, systemMemoryUsage, initialBatchSize, DecodedBlockCache.disabled());
+    }
+
+    public OrcBatchRecordReader createBatchRecordReader(
+            Map<Integer, Type> includedColumns,
+            OrcPredicate predicate,
+            long offset,
+            long length,
+            DateTimeZone hiveStorageTimeZone,
+            OrcAggregatedMemoryContext systemMemoryUsage,
+            int initialBatchSize,
+            DecodedBlockCache decodedBlockCache)
+            throws OrcCorruptionException
     {
         return new OrcBatchRecordReader(
                 requireNonNull(includedColumns, "includedColumns is null"),
@@ -403,7 +418,8 @@ public class OrcReader
                 stripeMetadataSource,
                 cacheable,
                 runtimeStats,
-                fileModificationTime);
+                fileModificationTime,
+                decodedBlockCache);
     }
 
     public OrcSelectiveRecordReader createSelectiveRecordReader(
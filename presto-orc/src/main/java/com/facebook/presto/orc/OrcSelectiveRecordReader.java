@@ -19,9 +19,9 @@ import com.facebook.presto.common.Subfield;
 import com.facebook.presto.common.block.Block;
 import com.facebook.presto.common.block.BlockLease;
 import com.facebook.presto.common.block.LazyBlock;
-import com.facebook.presto.common.block.LazyBlockLoader;
 import com.facebook.presto.common.block.LongArrayBlock;
 import com.facebook.presto.common.block.RunLengthEncodedBlock;
+import com.facebook.presto.common.block.SelectiveLazyBlockLoader;
 import com.facebook.presto.common.predicate.FilterFunction;
 import com.facebook.presto.common.predicate.TupleDomainFilter;
 import com.facebook.presto.common.predicate.TupleDomainFilter.BigintMultiRange;
@@ -78,6 +78,7 @@ import static com.facebook.presto.orc.OrcReader.MAX_BATCH_SIZE;
 import static com.facebook.presto.orc.StreamDescriptorFactory.createStreamDescriptor;
 import static com.facebook.presto.orc.reader.SelectiveStreamReaders.createStreamReader;
 import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkState;
 import static com.google.common.base.Predicates.not;
 import static com.google.common.base.Verify.verify;
 import static com.google.common.collect.ImmutableList.toImmutableList;
@@ -915,7 +916,7 @@ public class OrcSelectiveRecordReader
     }
 
     private final class OrcBlockLoader
-            implements LazyBlockLoader<LazyBlock>
+            implements SelectiveLazyBlockLoader
     {
         private final SelectiveStreamReader reader;
         @Nullable
@@ -943,8 +944,31 @@ public class OrcSelectiveRecordReader
                 return;
             }
 
+            lazyBlock.setBlock(readBlock(positions, positionCount));
+            loaded = true;
+        }
+
+        @Override
+        public Block load(int[] selectedPositions, int selectedPositionCount)
+        {
+            checkState(!loaded, "block is already loaded");
+            loaded = true;
+            if (selectedPositionCount == 0) {
+                return columnTypes.get(columnIndex).createBlockBuilder(null, 0).build();
+            }
+
+            // the selected positions are positions in the page, which map to rows of the batch through the positions of the page
+            int[] rowPositions = new int[selectedPositionCount];
+            for (int i = 0; i < selectedPositionCount; i++) {
+                rowPositions[i] = positions[selectedPositions[i]];
+            }
+            return readBlock(rowPositions, selectedPositionCount);
+        }
+
+        private Block readBlock(int[] rowPositions, int rowPositionCount)
+        {
             try {
-                reader.read(offset, positions, positionCount);
+                reader.read(offset, rowPositions, rowPositionCount);
             }
             catch (IOException e) {
                 OrcSelectiveRecordReader.this.getOrcDataSourceId().attachToException(e);
@@ -955,15 +979,13 @@ public class OrcSelectiveRecordReader
                 throw e;
             }
 
-            Block block = reader.getBlock(positions, positionCount);
+            Block block = reader.getBlock(rowPositions, rowPositionCount);
             if (coercer != null) {
                 block = coercer.apply(block);
             }
-            lazyBlock.setBlock(block);
 
             updateMaxCombinedBytesPerRow(hiveColumnIndices[columnIndex], block);
-
-            loaded = true;
+            return block;
         }
     }
 
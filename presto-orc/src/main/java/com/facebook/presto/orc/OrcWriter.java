@@ -38,9 +38,11 @@ import com.facebook.presto.orc.metadata.statistics.ColumnStatistics;
 import com.facebook.presto.orc.metadata.statistics.StripeStatistics;
 import com.facebook.presto.orc.proto.DwrfProto;
 import com.facebook.presto.orc.stream.StreamDataOutput;
+import com.facebook.presto.orc.writer.BloomFilterColumnWriter;
 import com.facebook.presto.orc.writer.ColumnWriter;
 import com.facebook.presto.orc.writer.CompressionBufferPool;
 import com.facebook.presto.orc.writer.CompressionBufferPool.LastUsedCompressionBufferPool;
+import com.facebook.presto.orc.writer.CompressionBufferPool.SharedCompressionBufferPool;
 import com.facebook.presto.orc.writer.DictionaryColumnWriter;
 import com.facebook.presto.orc.writer.StreamLayout;
 import com.google.common.annotations.VisibleForTesting;
@@ -62,6 +64,7 @@ import org.openjdk.jol.info.ClassLayout;
 
 import java.io.Closeable;
 import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.time.ZoneId;
 import java.util.ArrayList;
 import java.util.Collections;
@@ -72,6 +75,9 @@ import java.util.Map.Entry;
 import java.util.Optional;
 import java.util.OptionalLong;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
 import java.util.function.Consumer;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
@@ -82,6 +88,7 @@ import static com.facebook.presto.orc.DwrfEncryptionInfo.UNENCRYPTED;
 import static com.facebook.presto.orc.DwrfEncryptionInfo.createNodeToGroupMap;
 import static com.facebook.presto.orc.FlushReason.CLOSED;
 import static com.facebook.presto.orc.OrcEncoding.DWRF;
+import static com.facebook.presto.orc.OrcEncoding.ORC;
 import static com.facebook.presto.orc.OrcReader.validateFile;
 import static com.facebook.presto.orc.metadata.ColumnEncoding.ColumnEncodingKind.DIRECT;
 import static com.facebook.presto.orc.metadata.ColumnEncoding.DEFAULT_SEQUENCE_ID;
@@ -91,9 +98,11 @@ import static com.facebook.presto.orc.metadata.OrcType.createNodeIdToColumnMap;
 import static com.facebook.presto.orc.metadata.OrcType.mapColumnToNode;
 import static com.facebook.presto.orc.metadata.PostScript.MAGIC;
 import static com.facebook.presto.orc.metadata.statistics.ColumnStatistics.mergeColumnStatistics;
+import static com.facebook.presto.orc.writer.BloomFilterColumnWriter.isBloomFilterSupported;
 import static com.facebook.presto.orc.writer.ColumnWriters.createColumnWriter;
 import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkState;
+import static com.google.common.base.Throwables.throwIfUnchecked;
 import static com.google.common.base.Verify.verify;
 import static com.google.common.collect.ImmutableList.toImmutableList;
 import static com.google.common.collect.ImmutableMap.toImmutableMap;
@@ -101,6 +110,9 @@ import static io.airlift.slice.Slices.utf8Slice;
 import static java.lang.Integer.min;
 import static java.lang.Math.toIntExact;
 import static java.util.Objects.requireNonNull;
+import static java.util.concurrent.CompletableFuture.allOf;
+import static java.util.concurrent.CompletableFuture.completedFuture;
+import static java.util.concurrent.CompletableFuture.runAsync;
 import static java.util.stream.Collectors.toList;
 
 public class OrcWriter
@@ -142,6 +154,7 @@ public class OrcWriter
     @Nullable
     private final OrcWriteValidation.OrcWriteValidationBuilder validationBuilder;
     private final CompressionBufferPool compressionBufferPool;
+    private final Optional<Executor> stripeEncodingExecutor;
 
     private int stripeRowCount;
     private int rowGroupRowCount;
@@ -150,6 +163,10 @@ public class OrcWriter
     private long closedStripesRetainedBytes;
     private long previouslyRecordedSizeInBytes;
     private boolean closed;
+    // write of the previous stripe to the data sink, when stripes are written in the background
+    private CompletableFuture<?> pendingStripeWrite = completedFuture(null);
+    private long pendingStripeOffset;
+    private long pendingStripeBytes;
 
     private long numberOfRows;
     private long stripeRawSize;
@@ -211,7 +228,9 @@ public class OrcWriter
         this.dataSink = requireNonNull(dataSink, "dataSink is null");
         this.types = ImmutableList.copyOf(requireNonNull(types, "types is null"));
         this.orcEncoding = requireNonNull(orcEncoding, "orcEncoding is null");
-        this.compressionBufferPool = new LastUsedCompressionBufferPool();
+        // the data encryptors are not known to be thread safe, so encrypted files are encoded on the writer thread
+        this.stripeEncodingExecutor = encryption.isPresent() ? Optional.empty() : options.getStripeEncodingExecutor();
+        this.compressionBufferPool = stripeEncodingExecutor.isPresent() ? new SharedCompressionBufferPool(types.size()) : new LastUsedCompressionBufferPool();
 
         requireNonNull(columnNames, "columnNames is null");
         requireNonNull(inputOrcTypes, "inputOrcTypes is null");
@@ -324,7 +343,6 @@ public class OrcWriter
                     hiveStorageTimeZone,
                     dwrfEncryptionInfo,
                     orcEncoding.createMetadataWriter());
-            columnWriters.add(columnWriter);
 
             if (columnWriter instanceof DictionaryColumnWriter) {
                 dictionaryColumnWriters.add((DictionaryColumnWriter) columnWriter);
@@ -336,6 +354,20 @@ public class OrcWriter
                     }
                 }
             }
+
+            // DWRF has no bloom filter streams
+            if (orcEncoding == ORC && options.getBloomFilterColumns().contains(columnIndex) && isBloomFilterSupported(fieldType)) {
+                columnWriter = new BloomFilterColumnWriter(
+                        columnWriter,
+                        nodeIndex,
+                        DEFAULT_SEQUENCE_ID,
+                        fieldType,
+                        options.getRowGroupMaxRowCount(),
+                        options.getBloomFilterFpp(),
+                        columnWriterOptions,
+                        orcEncoding.createMetadataWriter());
+            }
+            columnWriters.add(columnWriter);
         }
         this.columnWriters = columnWriters.build();
         this.dictionaryMaxMemoryBytes = toIntExact(options.getDictionaryMaxMemory().toBytes());
@@ -376,6 +408,9 @@ public class OrcWriter
      */
     public long getWrittenBytes()
     {
+        if (!pendingStripeWrite.isDone()) {
+            return pendingStripeOffset + pendingStripeBytes;
+        }
         return dataSink.size();
     }
 
@@ -392,6 +427,7 @@ public class OrcWriter
         return INSTANCE_SIZE +
                 columnWritersRetainedBytes +
                 closedStripesRetainedBytes +
+                pendingStripeBytes +
                 dataSink.getRetainedSizeInBytes() +
                 compressionBufferPool.getRetainedBytes() +
                 (validationBuilder == null ? 0 : validationBuilder.getRetainedSize());
@@ -485,6 +521,9 @@ public class OrcWriter
     private void flushStripe(FlushReason flushReason)
             throws IOException
     {
+        // the offset of this stripe is only known once the previous one is in the data sink
+        waitForPendingStripeWrite();
+
         List<DataOutput> outputData = new ArrayList<>();
         long stripeStartOffset = dataSink.size();
         // add header to first stripe (this is not required but nice to have)
@@ -504,7 +543,12 @@ public class OrcWriter
             }
 
             // write all data
-            dataSink.write(outputData);
+            if (stripeEncodingExecutor.isPresent() && flushReason != CLOSED) {
+                writeStripeInBackground(outputData);
+            }
+            else {
+                dataSink.write(outputData);
+            }
         }
         finally {
             // open next stripe
@@ -531,7 +575,60 @@ public class OrcWriter
             dictionaryCompressionOptimizer.finalOptimize(bufferedBytes);
         }
 
-        columnWriters.forEach(ColumnWriter::close);
+        if (stripeEncodingExecutor.isPresent()) {
+            // the streams of every column are encoded and compressed independently
+            CompletableFuture<?>[] closeFutures = columnWriters.stream()
+                    .map(columnWriter -> runAsync(columnWriter::close, stripeEncodingExecutor.get()))
+                    .toArray(CompletableFuture[]::new);
+            try {
+                allOf(closeFutures).join();
+            }
+            catch (CompletionException e) {
+                throwIfUnchecked(e.getCause());
+                throw new RuntimeException(e.getCause());
+            }
+        }
+        else {
+            columnWriters.forEach(ColumnWriter::close);
+        }
+    }
+
+    private void writeStripeInBackground(List<DataOutput> outputData)
+    {
+        // the streams are backed by the buffers of the column writers, which are reset for the next stripe
+        DynamicSliceOutput output = new DynamicSliceOutput(toIntExact(outputData.stream().mapToLong(DataOutput::size).sum()));
+        outputData.forEach(data -> data.writeData(output));
+        Slice stripe = output.slice();
+
+        pendingStripeOffset = dataSink.size();
+        pendingStripeBytes = stripe.length();
+        pendingStripeWrite = runAsync(() -> {
+            try {
+                dataSink.write(ImmutableList.of(createDataOutput(stripe)));
+            }
+            catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }, stripeEncodingExecutor.get());
+    }
+
+    private void waitForPendingStripeWrite()
+            throws IOException
+    {
+        try {
+            pendingStripeWrite.join();
+        }
+        catch (CompletionException e) {
+            if (e.getCause() instanceof UncheckedIOException) {
+                throw ((UncheckedIOException) e.getCause()).getCause();
+            }
+            throwIfUnchecked(e.getCause());
+            throw new IOException(e.getCause());
+        }
+        finally {
+            pendingStripeWrite = completedFuture(null);
+            pendingStripeBytes = 0;
+        }
     }
 
     /**
@@ -22,6 +22,7 @@ import com.google.common.collect.ImmutableSet;
 import java.util.Optional;
 import java.util.OptionalInt;
 import java.util.Set;
+import java.util.concurrent.Executor;
 
 import static com.facebook.airlift.units.DataSize.Unit.BYTE;
 import static com.facebook.airlift.units.DataSize.Unit.KILOBYTE;
@@ -51,6 +52,7 @@ public class OrcWriterOptions
     public static final boolean DEFAULT_STRING_DICTIONARY_SORTING_ENABLED = true;
     public static final boolean DEFAULT_RESET_OUTPUT_BUFFER = false;
     public static final boolean DEFAULT_LAZY_OUTPUT_BUFFER = false;
+    public static final double DEFAULT_BLOOM_FILTER_FPP = 0.05;
     private final OrcWriterFlushPolicy flushPolicy;
     private final int rowGroupMaxRowCount;
     private final DataSize dictionaryMaxMemory;
@@ -83,6 +85,13 @@ public class OrcWriterOptions
      */
     private final Set<Integer> flattenedColumns;
 
+    /**
+     * Contains indexes of columns (not nodes!) for which writer should write bloom filters.
+     */
+    private final Set<Integer> bloomFilterColumns;
+    private final double bloomFilterFpp;
+    private final Optional<Executor> stripeEncodingExecutor;
+
     private OrcWriterOptions(
             OrcWriterFlushPolicy flushPolicy,
             int rowGroupMaxRowCount,
@@ -106,7 +115,10 @@ public class OrcWriterOptions
             boolean mapStatisticsEnabled,
             int maxFlattenedMapKeyCount,
             boolean resetOutputBuffer,
-            boolean lazyOutputBuffer)
+            boolean lazyOutputBuffer,
+            Set<Integer> bloomFilterColumns,
+            double bloomFilterFpp,
+            Optional<Executor> stripeEncodingExecutor)
     {
         requireNonNull(flushPolicy, "flushPolicy is null");
         checkArgument(rowGroupMaxRowCount >= 1, "rowGroupMaxRowCount must be at least 1");
@@ -122,6 +134,9 @@ public class OrcWriterOptions
         requireNonNull(dwrfWriterOptions, "dwrfWriterOptions is null");
         requireNonNull(flattenedColumns, "flattenedColumns is null");
         checkArgument(maxFlattenedMapKeyCount > 0, "maxFlattenedMapKeyCount must be positive: %s", maxFlattenedMapKeyCount);
+        requireNonNull(bloomFilterColumns, "bloomFilterColumns is null");
+        checkArgument(bloomFilterFpp > 0.0 && bloomFilterFpp < 1.0, "bloomFilterFpp must be between 0 and 1 exclusive: %s", bloomFilterFpp);
+        requireNonNull(stripeEncodingExecutor, "stripeEncodingExecutor is null");
 
         this.flushPolicy = flushPolicy;
         this.rowGroupMaxRowCount = rowGroupMaxRowCount;
@@ -146,6 +161,9 @@ public class OrcWriterOptions
         this.maxFlattenedMapKeyCount = maxFlattenedMapKeyCount;
         this.resetOutputBuffer = resetOutputBuffer;
         this.lazyOutputBuffer = lazyOutputBuffer;
+        this.bloomFilterColumns = bloomFilterColumns;
+        this.bloomFilterFpp = bloomFilterFpp;
+        this.stripeEncodingExecutor = stripeEncodingExecutor;
     }
 
     public OrcWriterFlushPolicy getFlushPolicy()
@@ -263,6 +281,25 @@ public class OrcWriterOptions
         return lazyOutputBuffer;
     }
 
+    public Set<Integer> getBloomFilterColumns()
+    {
+        return bloomFilterColumns;
+    }
+
+    public double getBloomFilterFpp()
+    {
+        return bloomFilterFpp;
+    }
+
+    /**
+     * Executor that closes the column writers of a stripe in parallel and writes the finished
+     * stripe to the data sink while the next stripe is being buffered.
+     */
+    public Optional<Executor> getStripeEncodingExecutor()
+    {
+        return stripeEncodingExecutor;
+    }
+
     @Override
     public String toString()
     {
@@ -288,6 +325,9 @@ public class OrcWriterOptions
                 .add("maxFlattenedMapKeyCount", maxFlattenedMapKeyCount)
                 .add("resetOutputBuffer", resetOutputBuffer)
                 .add("lazyOutputBuffer", lazyOutputBuffer)
+                .add("bloomFilterColumns", bloomFilterColumns)
+                .add("bloomFilterFpp", bloomFilterFpp)
+                .add("stripeEncodingExecutor", stripeEncodingExecutor.isPresent())
                 .toString();
     }
 
@@ -328,6 +368,9 @@ public class OrcWriterOptions
         private int maxFlattenedMapKeyCount = DEFAULT_MAX_FLATTENED_MAP_KEY_COUNT;
         private boolean resetOutputBuffer = DEFAULT_RESET_OUTPUT_BUFFER;
         private boolean lazyOutputBuffer = DEFAULT_LAZY_OUTPUT_BUFFER;
+        private Set<Integer> bloomFilterColumns = ImmutableSet.of();
+        private double bloomFilterFpp = DEFAULT_BLOOM_FILTER_FPP;
+        private Optional<Executor> stripeEncodingExecutor = Optional.empty();
 
         public Builder withFlushPolicy(OrcWriterFlushPolicy flushPolicy)
         {
@@ -481,6 +524,24 @@ public class OrcWriterOptions
             return this;
         }
 
+        public Builder withBloomFilterColumns(Set<Integer> bloomFilterColumns)
+        {
+            this.bloomFilterColumns = ImmutableSet.copyOf(bloomFilterColumns);
+            return this;
+        }
+
+        public Builder withBloomFilterFpp(double bloomFilterFpp)
+        {
+            this.bloomFilterFpp = bloomFilterFpp;
+            return this;
+        }
+
+        public Builder withStripeEncodingExecutor(Optional<Executor> stripeEncodingExecutor)
+        {
+            this.stripeEncodingExecutor = requireNonNull(stripeEncodingExecutor, "stripeEncodingExecutor is null");
+            return this;
+        }
+
         public OrcWriterOptions build()
         {
             Optional<DwrfStripeCacheOptions> dwrfWriterOptions;
@@ -514,7 +575,10 @@ public class OrcWriterOptions
                     mapStatisticsEnabled,
                     maxFlattenedMapKeyCount,
                     resetOutputBuffer,
-                    lazyOutputBuffer);
+                    lazyOutputBuffer,
+                    bloomFilterColumns,
+                    bloomFilterFpp,
+                    stripeEncodingExecutor);
         }
     }
 }
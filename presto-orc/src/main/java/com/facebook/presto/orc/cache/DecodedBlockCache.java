@@ -0,0 +1,63 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.orc.cache;
+
+import com.facebook.presto.common.block.Block;
+import com.google.common.cache.Cache;
+
+import java.util.Optional;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Worker local cache of decoded column batches, so repeated scans of the same hot file skip
+ * decompression and decoding. Entries are only valid for the file version they were read from,
+ * which is why the file modification time is part of {@link DecodedBlockId}.
+ */
+public class DecodedBlockCache
+{
+    private static final DecodedBlockCache DISABLED = new DecodedBlockCache(Optional.empty());
+
+    private final Optional<Cache<DecodedBlockId, Block>> cache;
+
+    public DecodedBlockCache(Cache<DecodedBlockId, Block> cache)
+    {
+        this(Optional.of(requireNonNull(cache, "cache is null")));
+    }
+
+    private DecodedBlockCache(Optional<Cache<DecodedBlockId, Block>> cache)
+    {
+        this.cache = cache;
+    }
+
+    public static DecodedBlockCache disabled()
+    {
+        return DISABLED;
+    }
+
+    public boolean isEnabled()
+    {
+        return cache.isPresent();
+    }
+
+    public Optional<Block> get(DecodedBlockId blockId)
+    {
+        return cache.map(blocks -> blocks.getIfPresent(blockId));
+    }
+
+    public void put(DecodedBlockId blockId, Block block)
+    {
+        cache.ifPresent(blocks -> blocks.put(blockId, block));
+    }
+}
@@ -0,0 +1,120 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.orc.cache;
+
+import com.facebook.presto.common.type.Type;
+import com.facebook.presto.orc.OrcDataSourceId;
+import org.joda.time.DateTimeZone;
+
+import java.util.Objects;
+
+import static com.google.common.base.MoreObjects.toStringHelper;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Identifies the decoded values of one column for one batch of rows. The requested type and the
+ * storage time zone are part of the key because they change how the same stream bytes decode.
+ */
+public class DecodedBlockId
+{
+    private final OrcDataSourceId sourceId;
+    private final long fileModificationTime;
+    private final long filePosition;
+    private final int positionCount;
+    private final int column;
+    private final Type type;
+    private final DateTimeZone hiveStorageTimeZone;
+
+    public DecodedBlockId(
+            OrcDataSourceId sourceId,
+            long fileModificationTime,
+            long filePosition,
+            int positionCount,
+            int column,
+            Type type,
+            DateTimeZone hiveStorageTimeZone)
+    {
+        this.sourceId = requireNonNull(sourceId, "sourceId is null");
+        this.fileModificationTime = fileModificationTime;
+        this.filePosition = filePosition;
+        this.positionCount = positionCount;
+        this.column = column;
+        this.type = requireNonNull(type, "type is null");
+        this.hiveStorageTimeZone = requireNonNull(hiveStorageTimeZone, "hiveStorageTimeZone is null");
+    }
+
+    public OrcDataSourceId getSourceId()
+    {
+        return sourceId;
+    }
+
+    public long getFileModificationTime()
+    {
+        return fileModificationTime;
+    }
+
+    public long getFilePosition()
+    {
+        return filePosition;
+    }
+
+    public int getPositionCount()
+    {
+        return positionCount;
+    }
+
+    public int getColumn()
+    {
+        return column;
+    }
+
+    @Override
+    public boolean equals(Object o)
+    {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        DecodedBlockId that = (DecodedBlockId) o;
+        return fileModificationTime == that.fileModificationTime &&
+                filePosition == that.filePosition &&
+                positionCount == that.positionCount &&
+                column == that.column &&
+                Objects.equals(sourceId, that.sourceId) &&
+                Objects.equals(type, that.type) &&
+                Objects.equals(hiveStorageTimeZone, that.hiveStorageTimeZone);
+    }
+
+    @Override
+    public int hashCode()
+    {
+        return Objects.hash(sourceId, fileModificationTime, filePosition, positionCount, column, type, hiveStorageTimeZone);
+    }
+
+    @Override
+    public String toString()
+    {
+        return toStringHelper(this)
+                .add("sourceId", sourceId)
+                .add("fileModificationTime", fileModificationTime)
+                .add("filePosition", filePosition)
+                .add("positionCount", positionCount)
+                .add("column", column)
+                .add("type", type)
+                .add("hiveStorageTimeZone", hiveStorageTimeZone)
+                .toString();
+    }
+}
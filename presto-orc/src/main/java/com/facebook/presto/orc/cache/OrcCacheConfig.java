@@ -41,6 +41,10 @@ public class OrcCacheConfig
     private DataSize rowGroupIndexCacheSize = new DataSize(0, BYTE);
     private Duration rowGroupIndexCacheTtlSinceLastAccess = new Duration(0, SECONDS);
 
+    private boolean decodedBlockCacheEnabled;
+    private DataSize decodedBlockCacheSize = new DataSize(0, BYTE);
+    private Duration decodedBlockCacheTtlSinceLastAccess = new Duration(0, SECONDS);
+
     private boolean dwrfStripeCacheEnabled = true;
     private DataSize expectedFileTailSize = new DataSize(EXPECTED_FOOTER_SIZE_IN_BYTES, BYTE);
 
@@ -194,6 +198,47 @@ public class OrcCacheConfig
         return this;
     }
 
+    public boolean isDecodedBlockCacheEnabled()
+    {
+        return decodedBlockCacheEnabled;
+    }
+
+    @Config("orc.decoded-block-cache-enabled")
+    @ConfigDescription("Enable cache for decoded column batches of hot files")
+    public OrcCacheConfig setDecodedBlockCacheEnabled(boolean decodedBlockCacheEnabled)
+    {
+        this.decodedBlockCacheEnabled = decodedBlockCacheEnabled;
+        return this;
+    }
+
+    @MinDataSize("0B")
+    public DataSize getDecodedBlockCacheSize()
+    {
+        return decodedBlockCacheSize;
+    }
+
+    @Config("orc.decoded-block-cache-size")
+    @ConfigDescription("Size of the decoded column batch cache")
+    public OrcCacheConfig setDecodedBlockCacheSize(DataSize decodedBlockCacheSize)
+    {
+        this.decodedBlockCacheSize = decodedBlockCacheSize;
+        return this;
+    }
+
+    @MinDuration("0s")
+    public Duration getDecodedBlockCacheTtlSinceLastAccess()
+    {
+        return decodedBlockCacheTtlSinceLastAccess;
+    }
+
+    @Config("orc.decoded-block-cache-ttl-since-last-access")
+    @ConfigDescription("Time-to-live for decoded column batch cache entry after last access")
+    public OrcCacheConfig setDecodedBlockCacheTtlSinceLastAccess(Duration decodedBlockCacheTtlSinceLastAccess)
+    {
+        this.decodedBlockCacheTtlSinceLastAccess = decodedBlockCacheTtlSinceLastAccess;
+        return this;
+    }
+
     public boolean isDwrfStripeCacheEnabled()
     {
         return dwrfStripeCacheEnabled;
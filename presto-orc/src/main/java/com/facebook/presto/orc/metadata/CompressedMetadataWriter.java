@@ -16,6 +16,7 @@ package com.facebook.presto.orc.metadata;
 import com.facebook.presto.orc.ColumnWriterOptions;
 import com.facebook.presto.orc.DwrfDataEncryptor;
 import com.facebook.presto.orc.OrcOutputBuffer;
+import com.facebook.presto.orc.metadata.statistics.BloomFilter;
 import io.airlift.slice.DynamicSliceOutput;
 import io.airlift.slice.Slice;
 
@@ -89,6 +90,13 @@ public class CompressedMetadataWriter
         return getSliceOutput();
     }
 
+    public Slice writeBloomFilters(List<BloomFilter> bloomFilters)
+            throws IOException
+    {
+        metadataWriter.writeBloomFilters(buffer, bloomFilters);
+        return getSliceOutput();
+    }
+
     private Slice getSliceOutput()
     {
         buffer.close();
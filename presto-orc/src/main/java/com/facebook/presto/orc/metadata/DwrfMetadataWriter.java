@@ -16,6 +16,7 @@ package com.facebook.presto.orc.metadata;
 import com.facebook.presto.orc.metadata.ColumnEncoding.ColumnEncodingKind;
 import com.facebook.presto.orc.metadata.OrcType.OrcTypeKind;
 import com.facebook.presto.orc.metadata.Stream.StreamKind;
+import com.facebook.presto.orc.metadata.statistics.BloomFilter;
 import com.facebook.presto.orc.metadata.statistics.ColumnStatistics;
 import com.facebook.presto.orc.metadata.statistics.DoubleStatistics;
 import com.facebook.presto.orc.metadata.statistics.IntegerStatistics;
@@ -446,6 +447,12 @@ public class DwrfMetadataWriter
         return writeProtobufObject(output, rowIndexProtobuf);
     }
 
+    @Override
+    public int writeBloomFilters(SliceOutput output, List<BloomFilter> bloomFilters)
+    {
+        throw new UnsupportedOperationException("DWRF does not support bloom filters");
+    }
+
     private static RowIndexEntry toRowGroupIndex(RowGroupIndex rowGroupIndex)
     {
         RowIndexEntry.Builder builder = RowIndexEntry.newBuilder();
@@ -253,7 +253,18 @@ public class OrcMetadataReader
         List<OrcProto.BloomFilter> bloomFilterList = bloomFilter.getBloomFilterList();
         ImmutableList.Builder<HiveBloomFilter> builder = ImmutableList.builder();
         for (OrcProto.BloomFilter orcBloomFilter : bloomFilterList) {
-            builder.add(new HiveBloomFilter(orcBloomFilter.getBitsetList(), orcBloomFilter.getBitsetCount() * 64, orcBloomFilter.getNumHashFunctions()));
+            if (orcBloomFilter.hasUtf8Bitset()) {
+                // BLOOM_FILTER_UTF8 streams store the bit set as little endian longs
+                Slice utf8Bitset = Slices.wrappedBuffer(orcBloomFilter.getUtf8Bitset().toByteArray());
+                long[] bits = new long[utf8Bitset.length() / Long.BYTES];
+                for (int i = 0; i < bits.length; i++) {
+                    bits[i] = utf8Bitset.getLong(i * Long.BYTES);
+                }
+                builder.add(new HiveBloomFilter(bits, bits.length * 64, orcBloomFilter.getNumHashFunctions()));
+            }
+            else {
+                builder.add(new HiveBloomFilter(orcBloomFilter.getBitsetList(), orcBloomFilter.getBitsetCount() * 64, orcBloomFilter.getNumHashFunctions()));
+            }
         }
         return builder.build();
     }
@@ -16,6 +16,7 @@ package com.facebook.presto.orc.metadata;
 import com.facebook.presto.orc.metadata.ColumnEncoding.ColumnEncodingKind;
 import com.facebook.presto.orc.metadata.OrcType.OrcTypeKind;
 import com.facebook.presto.orc.metadata.Stream.StreamKind;
+import com.facebook.presto.orc.metadata.statistics.BloomFilter;
 import com.facebook.presto.orc.metadata.statistics.ColumnStatistics;
 import com.facebook.presto.orc.metadata.statistics.StripeStatistics;
 import com.facebook.presto.orc.proto.OrcProto;
@@ -29,6 +30,7 @@ import com.google.common.collect.ImmutableList;
 import com.google.common.io.CountingOutputStream;
 import io.airlift.slice.Slice;
 import io.airlift.slice.SliceOutput;
+import io.airlift.slice.Slices;
 
 import java.io.IOException;
 import java.io.OutputStream;
@@ -338,6 +340,10 @@ public class OrcMetadataWriter
                 return OrcProto.Stream.Kind.SECONDARY;
             case ROW_INDEX:
                 return OrcProto.Stream.Kind.ROW_INDEX;
+            case BLOOM_FILTER:
+                return OrcProto.Stream.Kind.BLOOM_FILTER;
+            case BLOOM_FILTER_UTF8:
+                return OrcProto.Stream.Kind.BLOOM_FILTER_UTF8;
         }
         throw new IllegalArgumentException("Unsupported stream kind: " + streamKind);
     }
@@ -381,6 +387,32 @@ public class OrcMetadataWriter
         return writeProtobufObject(output, rowIndexProtobuf);
     }
 
+    @Override
+    public int writeBloomFilters(SliceOutput output, List<BloomFilter> bloomFilters)
+            throws IOException
+    {
+        OrcProto.BloomFilterIndex bloomFilterIndexProtobuf = OrcProto.BloomFilterIndex.newBuilder()
+                .addAllBloomFilter(bloomFilters.stream()
+                        .map(OrcMetadataWriter::toBloomFilter)
+                        .collect(toList()))
+                .build();
+        return writeProtobufObject(output, bloomFilterIndexProtobuf);
+    }
+
+    private static OrcProto.BloomFilter toBloomFilter(BloomFilter bloomFilter)
+    {
+        // BLOOM_FILTER_UTF8 streams store the bit set as little endian longs
+        long[] bitSet = bloomFilter.getBitSet();
+        Slice utf8Bitset = Slices.allocate(bitSet.length * Long.BYTES);
+        for (int i = 0; i < bitSet.length; i++) {
+            utf8Bitset.setLong(i * Long.BYTES, bitSet[i]);
+        }
+        return OrcProto.BloomFilter.newBuilder()
+                .setNumHashFunctions(bloomFilter.getNumHashFunctions())
+                .setUtf8Bitset(ByteString.copyFrom(utf8Bitset.getBytes()))
+                .build();
+    }
+
     private static RowIndexEntry toRowGroupIndex(RowGroupIndex rowGroupIndex)
     {
         OrcProto.RowIndexEntry.Builder builder = OrcProto.RowIndexEntry.newBuilder();
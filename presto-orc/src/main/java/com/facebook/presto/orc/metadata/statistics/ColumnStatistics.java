@@ -153,6 +153,23 @@ public class ColumnStatistics
         return bloomFilter;
     }
 
+    public ColumnStatistics withBloomFilter(HiveBloomFilter bloomFilter)
+    {
+        return createColumnStatistics(
+                hasNumberOfValues ? numberOfValues : null,
+                hasRawSize ? rawSize : null,
+                hasStorageSize ? storageSize : null,
+                getBooleanStatistics(),
+                getIntegerStatistics(),
+                getDoubleStatistics(),
+                getStringStatistics(),
+                getDateStatistics(),
+                getDecimalStatistics(),
+                getBinaryStatistics(),
+                getMapStatistics(),
+                bloomFilter);
+    }
+
     protected final long getMembersSizeInBytes()
     {
         return bloomFilter == null ? 0 : bloomFilter.getRetainedSizeInBytes();
@@ -19,6 +19,8 @@ import io.airlift.slice.Slices;
 import java.io.IOException;
 import java.io.InputStream;
 
+import static com.facebook.presto.common.array.BitUnpacker.packedLength;
+import static com.facebook.presto.common.array.BitUnpacker.unpackBigEndian;
 import static com.google.common.base.Preconditions.checkArgument;
 import static io.airlift.slice.SizeOf.SIZE_OF_LONG;
 import static io.airlift.slice.UnsafeSlice.getIntUnchecked;
@@ -80,31 +82,15 @@ public final class LongBitPacker
         }
     }
 
-    private static void unpackGeneric(long[] buffer, int offset, int len, int bitSize, InputStream input)
+    private void unpackGeneric(long[] buffer, int offset, int len, int bitSize, InputStream input)
             throws IOException
     {
-        int bitsLeft = 0;
-        int current = 0;
-
-        for (int i = offset; i < (offset + len); i++) {
-            long result = 0;
-            int bitsLeftToRead = bitSize;
-            while (bitsLeftToRead > bitsLeft) {
-                result <<= bitsLeft;
-                result |= current & ((1 << bitsLeft) - 1);
-                bitsLeftToRead -= bitsLeft;
-                current = input.read();
-                bitsLeft = 8;
-            }
-
-            // handle the left over bits
-            if (bitsLeftToRead > 0) {
-                result <<= bitsLeftToRead;
-                bitsLeft -= bitsLeftToRead;
-                result |= (current >> bitsLeft) & ((1 << bitsLeftToRead) - 1);
-            }
-            buffer[i] = result;
+        int blockReadableBytes = packedLength(len, bitSize);
+        for (int i = 0; i < blockReadableBytes; ) {
+            i += input.read(tmp, i, blockReadableBytes - i);
         }
+        // tmp is larger than any run, so all but the last few values are read a word at a time
+        unpackBigEndian(tmp, 0, buffer, offset, len, bitSize);
     }
 
     private void unpack1(long[] buffer, int offset, int len, InputStream input)
@@ -31,6 +31,8 @@ public class LongInputStreamV2
 {
     private static final int MIN_REPEAT_SIZE = 3;
     private static final int MAX_LITERAL_SIZE = 512;
+    // the patch list length is stored in 5 bits
+    private static final int MAX_PATCH_LIST_LENGTH = 31;
 
     private enum EncodingType
     {
@@ -41,6 +43,8 @@ public class LongInputStreamV2
     private final OrcInputStream input;
     private final boolean signed;
     private final long[] literals = new long[MAX_LITERAL_SIZE];
+    private final long[] unpacked = new long[MAX_LITERAL_SIZE];
+    private final long[] unpackedPatch = new long[MAX_PATCH_LIST_LENGTH];
     private int numLiterals;
     private int used;
     private final boolean skipCorrupt;
@@ -179,12 +183,9 @@ public class LongInputStreamV2
         }
 
         // unpack the data blob
-        long[] unpacked = new long[length];
         packer.unpack(unpacked, 0, length, fb, input);
 
         // unpack the patch blob
-        long[] unpackedPatch = new long[patchListLength];
-
         if ((patchWidth + patchGapWidth) > 64 && !skipCorrupt) {
             throw new OrcCorruptionException(input.getOrcDataSourceId(), "Invalid RLEv2 encoded stream");
         }
@@ -213,7 +214,7 @@ public class LongInputStreamV2
         actualGap += currentGap;
 
         // unpack data blob, patch it (if required), add base to get final result
-        for (int i = 0; i < unpacked.length; i++) {
+        for (int i = 0; i < length; i++) {
             if (i == actualGap) {
                 // extract the patch value
                 long patchedValue = unpacked[i] | (currentPatch << fb);
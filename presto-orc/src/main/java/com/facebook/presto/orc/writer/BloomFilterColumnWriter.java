@@ -0,0 +1,234 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.orc.writer;
+
+import com.facebook.presto.common.block.Block;
+import com.facebook.presto.common.type.Type;
+import com.facebook.presto.common.type.VarbinaryType;
+import com.facebook.presto.common.type.VarcharType;
+import com.facebook.presto.orc.ColumnWriterOptions;
+import com.facebook.presto.orc.checkpoint.StreamCheckpoint;
+import com.facebook.presto.orc.metadata.ColumnEncoding;
+import com.facebook.presto.orc.metadata.CompressedMetadataWriter;
+import com.facebook.presto.orc.metadata.MetadataWriter;
+import com.facebook.presto.orc.metadata.Stream;
+import com.facebook.presto.orc.metadata.statistics.BloomFilter;
+import com.facebook.presto.orc.metadata.statistics.ColumnStatistics;
+import com.facebook.presto.orc.metadata.statistics.HiveBloomFilter;
+import com.facebook.presto.orc.stream.StreamDataOutput;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import io.airlift.slice.Slice;
+import org.openjdk.jol.info.ClassLayout;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static com.facebook.presto.common.type.BigintType.BIGINT;
+import static com.facebook.presto.common.type.DateType.DATE;
+import static com.facebook.presto.common.type.DoubleType.DOUBLE;
+import static com.facebook.presto.common.type.IntegerType.INTEGER;
+import static com.facebook.presto.common.type.RealType.REAL;
+import static com.facebook.presto.common.type.SmallintType.SMALLINT;
+import static com.facebook.presto.common.type.TinyintType.TINYINT;
+import static com.facebook.presto.orc.metadata.Stream.StreamKind.BLOOM_FILTER_UTF8;
+import static com.google.common.base.Preconditions.checkArgument;
+import static java.lang.Float.intBitsToFloat;
+import static java.lang.Math.toIntExact;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Adds a bloom filter per row group to the statistics and index streams of a column. The values
+ * are hashed the same way the Hive ORC writer hashes them, so the filters written to the
+ * BLOOM_FILTER_UTF8 stream can be used by any ORC reader.
+ */
+public class BloomFilterColumnWriter
+        implements ColumnWriter
+{
+    private static final int INSTANCE_SIZE = ClassLayout.parseClass(BloomFilterColumnWriter.class).instanceSize();
+
+    private final ColumnWriter delegate;
+    private final int column;
+    private final int sequence;
+    private final Type type;
+    private final int expectedEntries;
+    private final double fpp;
+    private final CompressedMetadataWriter metadataWriter;
+
+    private final List<BloomFilter> rowGroupBloomFilters = new ArrayList<>();
+    private BloomFilter bloomFilter;
+    private long bloomFiltersRetainedSizeInBytes;
+
+    public BloomFilterColumnWriter(
+            ColumnWriter delegate,
+            int column,
+            int sequence,
+            Type type,
+            int expectedEntries,
+            double fpp,
+            ColumnWriterOptions columnWriterOptions,
+            MetadataWriter metadataWriter)
+    {
+        checkArgument(column >= 0, "column is negative");
+        checkArgument(sequence >= 0, "sequence is negative");
+        checkArgument(expectedEntries > 0, "expectedEntries must be positive");
+        checkArgument(isBloomFilterSupported(type), "Bloom filters are not supported for type %s", type);
+        requireNonNull(columnWriterOptions, "columnWriterOptions is null");
+        requireNonNull(metadataWriter, "metadataWriter is null");
+        this.delegate = requireNonNull(delegate, "delegate is null");
+        this.column = column;
+        this.sequence = sequence;
+        this.type = type;
+        this.expectedEntries = expectedEntries;
+        this.fpp = fpp;
+        this.metadataWriter = new CompressedMetadataWriter(metadataWriter, columnWriterOptions, Optional.empty());
+        this.bloomFilter = new BloomFilter(expectedEntries, fpp);
+    }
+
+    public static boolean isBloomFilterSupported(Type type)
+    {
+        return type.equals(TINYINT) ||
+                type.equals(SMALLINT) ||
+                type.equals(INTEGER) ||
+                type.equals(BIGINT) ||
+                type.equals(DATE) ||
+                type.equals(DOUBLE) ||
+                type.equals(REAL) ||
+                type instanceof VarcharType ||
+                type instanceof VarbinaryType;
+    }
+
+    @Override
+    public List<ColumnWriter> getNestedColumnWriters()
+    {
+        return ImmutableList.<ColumnWriter>builder()
+                .add(delegate)
+                .addAll(delegate.getNestedColumnWriters())
+                .build();
+    }
+
+    @Override
+    public Map<Integer, ColumnEncoding> getColumnEncodings()
+    {
+        return delegate.getColumnEncodings();
+    }
+
+    @Override
+    public void beginRowGroup()
+    {
+        delegate.beginRowGroup();
+    }
+
+    @Override
+    public long writeBlock(Block block)
+    {
+        for (int position = 0; position < block.getPositionCount(); position++) {
+            if (!block.isNull(position)) {
+                addValue(block, position);
+            }
+        }
+        return delegate.writeBlock(block);
+    }
+
+    private void addValue(Block block, int position)
+    {
+        if (type.equals(DOUBLE)) {
+            bloomFilter.addDouble(type.getDouble(block, position));
+        }
+        else if (type.equals(REAL)) {
+            // the Hive writer widens floats to doubles
+            bloomFilter.addDouble(intBitsToFloat(toIntExact(type.getLong(block, position))));
+        }
+        else if (type instanceof VarcharType || type instanceof VarbinaryType) {
+            Slice slice = type.getSlice(block, position);
+            if (slice.hasByteArray()) {
+                bloomFilter.addBytes(slice.byteArray(), slice.byteArrayOffset(), slice.length());
+            }
+            else {
+                bloomFilter.add(slice.getBytes());
+            }
+        }
+        else {
+            bloomFilter.addLong(type.getLong(block, position));
+        }
+    }
+
+    @Override
+    public Map<Integer, ColumnStatistics> finishRowGroup()
+    {
+        Map<Integer, ColumnStatistics> statistics = new HashMap<>(delegate.finishRowGroup());
+        statistics.computeIfPresent(column, (node, columnStatistics) -> columnStatistics.withBloomFilter(new HiveBloomFilter(bloomFilter)));
+
+        rowGroupBloomFilters.add(bloomFilter);
+        bloomFiltersRetainedSizeInBytes += bloomFilter.sizeInBytes();
+        bloomFilter = new BloomFilter(expectedEntries, fpp);
+        return ImmutableMap.copyOf(statistics);
+    }
+
+    @Override
+    public void close()
+    {
+        delegate.close();
+    }
+
+    @Override
+    public Map<Integer, ColumnStatistics> getColumnStripeStatistics()
+    {
+        return delegate.getColumnStripeStatistics();
+    }
+
+    @Override
+    public List<StreamDataOutput> getIndexStreams(Optional<List<? extends StreamCheckpoint>> prependCheckpoints)
+            throws IOException
+    {
+        List<StreamDataOutput> indexStreams = delegate.getIndexStreams(prependCheckpoints);
+        Slice slice = metadataWriter.writeBloomFilters(rowGroupBloomFilters);
+        Stream stream = new Stream(column, sequence, BLOOM_FILTER_UTF8, slice.length(), false);
+        return ImmutableList.<StreamDataOutput>builder()
+                .addAll(indexStreams)
+                .add(new StreamDataOutput(slice, stream))
+                .build();
+    }
+
+    @Override
+    public List<StreamDataOutput> getDataStreams()
+    {
+        return delegate.getDataStreams();
+    }
+
+    @Override
+    public long getBufferedBytes()
+    {
+        return delegate.getBufferedBytes() + bloomFiltersRetainedSizeInBytes;
+    }
+
+    @Override
+    public long getRetainedBytes()
+    {
+        return INSTANCE_SIZE + delegate.getRetainedBytes() + bloomFiltersRetainedSizeInBytes + bloomFilter.sizeInBytes();
+    }
+
+    @Override
+    public void reset()
+    {
+        delegate.reset();
+        rowGroupBloomFilters.clear();
+        bloomFiltersRetainedSizeInBytes = 0;
+        bloomFilter = new BloomFilter(expectedEntries, fpp);
+    }
+}
@@ -14,8 +14,14 @@
 package com.facebook.presto.orc.writer;
 
 import com.facebook.airlift.concurrent.NotThreadSafe;
+import com.facebook.airlift.concurrent.ThreadSafe;
 import org.openjdk.jol.info.ClassLayout;
 
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+
+import static com.google.common.base.Preconditions.checkArgument;
 import static io.airlift.slice.SizeOf.sizeOf;
 import static java.util.Objects.requireNonNull;
 
@@ -58,4 +64,56 @@ public interface CompressionBufferPool
             return INSTANCE_SIZE + sizeOf(lastUsed);
         }
     }
+
+    /**
+     * Pool shared by column writers that are closed concurrently. Up to {@code maxBuffers}
+     * buffers are kept, so every concurrently compressing column can reuse one.
+     */
+    @ThreadSafe
+    class SharedCompressionBufferPool
+            implements CompressionBufferPool
+    {
+        private static final int INSTANCE_SIZE = ClassLayout.parseClass(SharedCompressionBufferPool.class).instanceSize();
+
+        private final int maxBuffers;
+        private final Deque<byte[]> buffers = new ArrayDeque<>();
+        private long buffersRetainedBytes;
+
+        public SharedCompressionBufferPool(int maxBuffers)
+        {
+            checkArgument(maxBuffers > 0, "maxBuffers must be positive");
+            this.maxBuffers = maxBuffers;
+        }
+
+        @Override
+        public synchronized byte[] checkOut(int length)
+        {
+            for (Iterator<byte[]> iterator = buffers.iterator(); iterator.hasNext(); ) {
+                byte[] buffer = iterator.next();
+                if (buffer.length >= length) {
+                    iterator.remove();
+                    buffersRetainedBytes -= sizeOf(buffer);
+                    return buffer;
+                }
+            }
+            return new byte[length];
+        }
+
+        @Override
+        public synchronized void checkIn(byte[] buffer)
+        {
+            requireNonNull(buffer, "buffer is null");
+            if (buffers.size() == maxBuffers) {
+                buffersRetainedBytes -= sizeOf(buffers.removeLast());
+            }
+            buffers.addFirst(buffer);
+            buffersRetainedBytes += sizeOf(buffer);
+        }
+
+        @Override
+        public synchronized long getRetainedBytes()
+        {
+            return INSTANCE_SIZE + buffersRetainedBytes;
+        }
+    }
 }
@@ -0,0 +1,156 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.orc;
+
+import com.facebook.airlift.units.DataSize;
+import com.facebook.presto.common.RuntimeStats;
+import com.facebook.presto.common.block.Block;
+import com.facebook.presto.orc.cache.DecodedBlockCache;
+import com.facebook.presto.orc.cache.DecodedBlockId;
+import com.facebook.presto.orc.cache.StorageOrcFileTailSource;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.ImmutableMap;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+import static com.facebook.airlift.units.DataSize.Unit.MEGABYTE;
+import static com.facebook.presto.common.type.BigintType.BIGINT;
+import static com.facebook.presto.orc.DwrfEncryptionProvider.NO_ENCRYPTION;
+import static com.facebook.presto.orc.NoopOrcAggregatedMemoryContext.NOOP_ORC_AGGREGATED_MEMORY_CONTEXT;
+import static com.facebook.presto.orc.OrcPredicate.TRUE;
+import static com.facebook.presto.orc.OrcReader.MAX_BATCH_SIZE;
+import static com.facebook.presto.orc.OrcTester.Format.ORC_12;
+import static com.facebook.presto.orc.OrcTester.HIVE_STORAGE_TIME_ZONE;
+import static com.facebook.presto.orc.OrcTester.writeOrcColumnPresto;
+import static com.facebook.presto.orc.metadata.CompressionKind.ZLIB;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertSame;
+
+public class TestDecodedBlockCache
+{
+    private static final int ROW_COUNT = 30_000;
+
+    @Test
+    public void testCachedBatchesSkipDecoding()
+            throws Exception
+    {
+        List<Long> values = LongStream.range(0, ROW_COUNT).boxed().collect(Collectors.toList());
+        Cache<DecodedBlockId, Block> cache = CacheBuilder.newBuilder().recordStats().build();
+        DecodedBlockCache decodedBlockCache = new DecodedBlockCache(cache);
+
+        try (TempFile tempFile = new TempFile()) {
+            writeOrcColumnPresto(tempFile.getFile(), ORC_12, ZLIB, BIGINT, values);
+
+            // only every other batch is decoded, so those are the only cached batches
+            int batches = 0;
+            try (OrcBatchRecordReader recordReader = createRecordReader(tempFile, true, 1, decodedBlockCache)) {
+                for (int batchSize = recordReader.nextBatch(); batchSize > 0; batchSize = recordReader.nextBatch()) {
+                    if (batches % 2 == 0) {
+                        recordReader.readBlock(0);
+                    }
+                    batches++;
+                }
+            }
+            assertEquals(cache.size(), (batches + 1) / 2);
+            assertEquals(cache.stats().hitCount(), 0);
+
+            // cache hits must leave the column reader positioned correctly for the misses that follow
+            assertValues(tempFile, true, 1, decodedBlockCache, values);
+            assertEquals(cache.stats().hitCount(), (batches + 1) / 2);
+            assertEquals(cache.size(), batches);
+
+            // a rewritten file does not see the entries of the previous version
+            long hitCount = cache.stats().hitCount();
+            assertValues(tempFile, true, 2, decodedBlockCache, values);
+            assertEquals(cache.stats().hitCount(), hitCount);
+
+            // files that must not be cached are neither read from nor added to the cache
+            cache.invalidateAll();
+            assertValues(tempFile, false, 1, decodedBlockCache, values);
+            assertEquals(cache.size(), 0);
+        }
+    }
+
+    @Test
+    public void testCacheHitReturnsSameBlock()
+            throws Exception
+    {
+        List<Long> values = LongStream.range(0, 100).boxed().collect(Collectors.toList());
+        DecodedBlockCache decodedBlockCache = new DecodedBlockCache(CacheBuilder.newBuilder().build());
+
+        try (TempFile tempFile = new TempFile()) {
+            writeOrcColumnPresto(tempFile.getFile(), ORC_12, ZLIB, BIGINT, values);
+
+            Block first;
+            try (OrcBatchRecordReader recordReader = createRecordReader(tempFile, true, 1, decodedBlockCache)) {
+                assertEquals(recordReader.nextBatch(), values.size());
+                first = recordReader.readBlock(0);
+            }
+            try (OrcBatchRecordReader recordReader = createRecordReader(tempFile, true, 1, decodedBlockCache)) {
+                assertEquals(recordReader.nextBatch(), values.size());
+                assertSame(recordReader.readBlock(0), first);
+            }
+        }
+    }
+
+    private static void assertValues(TempFile tempFile, boolean cacheable, long fileModificationTime, DecodedBlockCache decodedBlockCache, List<Long> expected)
+            throws IOException
+    {
+        try (OrcBatchRecordReader recordReader = createRecordReader(tempFile, cacheable, fileModificationTime, decodedBlockCache)) {
+            int position = 0;
+            for (int batchSize = recordReader.nextBatch(); batchSize > 0; batchSize = recordReader.nextBatch()) {
+                Block block = recordReader.readBlock(0);
+                assertEquals(block.getPositionCount(), batchSize);
+                for (int i = 0; i < batchSize; i++) {
+                    assertEquals(BIGINT.getLong(block, i), (long) expected.get(position + i));
+                }
+                position += batchSize;
+            }
+            assertEquals(position, expected.size());
+        }
+    }
+
+    private static OrcBatchRecordReader createRecordReader(TempFile tempFile, boolean cacheable, long fileModificationTime, DecodedBlockCache decodedBlockCache)
+            throws IOException
+    {
+        OrcDataSource orcDataSource = new FileOrcDataSource(tempFile.getFile(), new DataSize(1, MEGABYTE), new DataSize(1, MEGABYTE), new DataSize(1, MEGABYTE), true);
+        OrcReader orcReader = new OrcReader(
+                orcDataSource,
+                OrcEncoding.ORC,
+                new StorageOrcFileTailSource(),
+                new StorageStripeMetadataSource(),
+                NOOP_ORC_AGGREGATED_MEMORY_CONTEXT,
+                OrcReaderTestingUtils.createDefaultTestConfig(),
+                cacheable,
+                NO_ENCRYPTION,
+                DwrfKeyProvider.EMPTY,
+                new RuntimeStats(),
+                fileModificationTime);
+
+        return orcReader.createBatchRecordReader(
+                ImmutableMap.of(0, BIGINT),
+                TRUE,
+                0,
+                orcDataSource.getSize(),
+                HIVE_STORAGE_TIME_ZONE,
+                new TestingHiveOrcAggregatedMemoryContext(),
+                MAX_BATCH_SIZE,
+                decodedBlockCache);
+    }
+}
@@ -29,22 +29,27 @@ import com.facebook.presto.orc.writer.StreamLayoutFactory.ColumnSizeLayoutFactor
 import com.facebook.presto.orc.writer.StreamLayoutFactory.StreamSizeLayoutFactory;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
 import io.airlift.slice.Slices;
 import org.testng.annotations.DataProvider;
 import org.testng.annotations.Test;
 
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.nio.file.Files;
 import java.util.Comparator;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.OptionalInt;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
 import java.util.function.Consumer;
 import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
+import static com.facebook.airlift.concurrent.Threads.daemonThreadsNamed;
 import static com.facebook.airlift.testing.Assertions.assertGreaterThanOrEqual;
 import static com.facebook.airlift.units.DataSize.Unit.MEGABYTE;
 import static com.facebook.presto.common.type.VarcharType.VARCHAR;
@@ -59,6 +64,8 @@ import static com.facebook.presto.orc.TestingOrcPredicate.ORC_STRIPE_SIZE;
 import static com.facebook.presto.orc.metadata.CompressionKind.NONE;
 import static com.facebook.presto.orc.metadata.CompressionKind.ZLIB;
 import static com.facebook.presto.orc.metadata.CompressionKind.ZSTD;
+import static com.facebook.presto.orc.metadata.Stream.StreamKind.BLOOM_FILTER_UTF8;
+import static java.util.concurrent.Executors.newFixedThreadPool;
 import static org.testng.Assert.assertEquals;
 import static org.testng.Assert.assertFalse;
 
@@ -179,6 +186,107 @@ public class TestOrcWriter
         }
     }
 
+    @Test
+    public void testBloomFilterStreams()
+            throws IOException
+    {
+        OrcWriterOptions orcWriterOptions = OrcWriterOptions.builder()
+                .withRowGroupMaxRowCount(ORC_ROW_GROUP_SIZE)
+                .withBloomFilterColumns(ImmutableSet.of(0))
+                .build();
+        for (OrcWriteValidationMode validationMode : OrcWriteValidationMode.values()) {
+            TempFile tempFile = new TempFile();
+            OrcWriter writer = new OrcWriter(
+                    new OutputStreamDataSink(new FileOutputStream(tempFile.getFile())),
+                    ImmutableList.of("test1", "test2"),
+                    ImmutableList.of(VARCHAR, VARCHAR),
+                    ORC,
+                    NONE,
+                    Optional.empty(),
+                    NO_ENCRYPTION,
+                    orcWriterOptions,
+                    ImmutableMap.of(),
+                    HIVE_STORAGE_TIME_ZONE,
+                    true,
+                    validationMode,
+                    NOOP_WRITER_STATS);
+
+            BlockBuilder blockBuilder = VARCHAR.createBlockBuilder(null, 3 * ORC_ROW_GROUP_SIZE);
+            for (int i = 0; i < 3 * ORC_ROW_GROUP_SIZE; i++) {
+                VARCHAR.writeString(blockBuilder, String.valueOf(i));
+            }
+            Block block = blockBuilder.build();
+            writer.write(new Page(block, block));
+            writer.close();
+
+            for (StripeFooter stripeFooter : OrcTester.getStripes(tempFile.getFile(), ORC)) {
+                List<Integer> bloomFilterColumns = stripeFooter.getStreams().stream()
+                        .filter(stream -> stream.getStreamKind() == BLOOM_FILTER_UTF8)
+                        .map(Stream::getColumn)
+                        .collect(Collectors.toList());
+                assertEquals(bloomFilterColumns, ImmutableList.of(1));
+            }
+        }
+    }
+
+    @Test
+    public void testParallelStripeEncoding()
+            throws IOException
+    {
+        ExecutorService executor = newFixedThreadPool(4, daemonThreadsNamed("test-orc-write-%s"));
+        try {
+            for (OrcEncoding encoding : ImmutableList.of(ORC, DWRF)) {
+                byte[] serial = writeStripes(encoding, Optional.empty());
+                byte[] parallel = writeStripes(encoding, Optional.of(executor));
+                assertEquals(parallel, serial);
+            }
+        }
+        finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static byte[] writeStripes(OrcEncoding encoding, Optional<Executor> stripeEncodingExecutor)
+            throws IOException
+    {
+        TempFile tempFile = new TempFile();
+        OrcWriter writer = new OrcWriter(
+                new OutputStreamDataSink(new FileOutputStream(tempFile.getFile())),
+                ImmutableList.of("test1", "test2"),
+                ImmutableList.of(VARCHAR, VARCHAR),
+                encoding,
+                ZLIB,
+                Optional.empty(),
+                NO_ENCRYPTION,
+                OrcWriterOptions.builder()
+                        .withFlushPolicy(DefaultOrcWriterFlushPolicy.builder()
+                                .withStripeMinSize(new DataSize(0, MEGABYTE))
+                                .withStripeMaxRowCount(ORC_ROW_GROUP_SIZE)
+                                .build())
+                        .withRowGroupMaxRowCount(ORC_ROW_GROUP_SIZE)
+                        .withStripeEncodingExecutor(stripeEncodingExecutor)
+                        .build(),
+                ImmutableMap.of(),
+                HIVE_STORAGE_TIME_ZONE,
+                false,
+                null,
+                NOOP_WRITER_STATS);
+
+        // every page fills a stripe, so the next page is buffered while the previous stripe is written
+        for (int page = 0; page < 5; page++) {
+            BlockBuilder blockBuilder = VARCHAR.createBlockBuilder(null, ORC_ROW_GROUP_SIZE);
+            for (int i = 0; i < ORC_ROW_GROUP_SIZE; i++) {
+                VARCHAR.writeString(blockBuilder, String.valueOf(page * ORC_ROW_GROUP_SIZE + i));
+            }
+            Block block = blockBuilder.build();
+            writer.write(new Page(block, block));
+        }
+        writer.close();
+
+        assertEquals(OrcTester.getStripes(tempFile.getFile(), encoding).size(), 5);
+        return Files.readAllBytes(tempFile.getFile().toPath());
+    }
+
     @Test(expectedExceptions = IOException.class, expectedExceptionsMessageRegExp = "Dummy exception from mocked instance")
     public void testVerifyNoIllegalStateException()
             throws IOException
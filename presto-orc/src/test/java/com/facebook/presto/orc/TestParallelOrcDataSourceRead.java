@@ -0,0 +1,117 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.orc;
+
+import com.facebook.airlift.units.DataSize;
+import com.google.common.collect.ImmutableMap;
+import io.airlift.slice.Slice;
+import io.airlift.slice.Slices;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+
+import static com.facebook.airlift.concurrent.Threads.daemonThreadsNamed;
+import static com.facebook.airlift.units.DataSize.Unit.BYTE;
+import static com.facebook.airlift.units.DataSize.Unit.MEGABYTE;
+import static java.util.concurrent.Executors.newFixedThreadPool;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+public class TestParallelOrcDataSourceRead
+{
+    private final ExecutorService executor = newFixedThreadPool(4, daemonThreadsNamed("test-parallel-orc-read-%s"));
+
+    @AfterClass(alwaysRun = true)
+    public void tearDown()
+    {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void testReadMergedRangesConcurrently()
+            throws IOException
+    {
+        byte[] data = new byte[100_000];
+        new Random(0).nextBytes(data);
+        Set<Long> readPositions = ConcurrentHashMap.newKeySet();
+        ByteArrayOrcDataSource dataSource = new ByteArrayOrcDataSource(data, readPositions, Optional.of(executor));
+
+        // the gaps between the ranges are larger than the merge distance, so every range is a separate read
+        Map<String, DiskRange> diskRanges = ImmutableMap.of(
+                "a", new DiskRange(0, 100),
+                "b", new DiskRange(10_000, 1_000),
+                "c", new DiskRange(50_000, 10),
+                "d", new DiskRange(99_000, 1_000));
+        Map<String, OrcDataSourceInput> inputs = dataSource.readFully(diskRanges);
+
+        for (Map.Entry<String, DiskRange> entry : diskRanges.entrySet()) {
+            DiskRange diskRange = entry.getValue();
+            Slice actual = inputs.get(entry.getKey()).getInput().readSlice(diskRange.getLength());
+            assertEquals(actual, Slices.wrappedBuffer(data, (int) diskRange.getOffset(), diskRange.getLength()));
+        }
+        assertEquals(readPositions.size(), 4);
+        assertTrue(readPositions.contains(99_000L));
+        assertEquals(dataSource.getReadBytes(), 2_110);
+    }
+
+    @Test(expectedExceptions = IOException.class, expectedExceptionsMessageRegExp = "read past end of data")
+    public void testReadFailurePropagates()
+            throws IOException
+    {
+        ByteArrayOrcDataSource dataSource = new ByteArrayOrcDataSource(new byte[1_000], ConcurrentHashMap.newKeySet(), Optional.of(executor));
+        dataSource.readFully(ImmutableMap.of(
+                "a", new DiskRange(0, 10),
+                "b", new DiskRange(900, 200)));
+    }
+
+    private static class ByteArrayOrcDataSource
+            extends AbstractOrcDataSource
+    {
+        private final byte[] data;
+        private final Set<Long> readPositions;
+
+        public ByteArrayOrcDataSource(byte[] data, Set<Long> readPositions, Optional<Executor> parallelReadExecutor)
+        {
+            super(
+                    new OrcDataSourceId("test"),
+                    data.length,
+                    new DataSize(100, BYTE),
+                    new DataSize(1, MEGABYTE),
+                    new DataSize(1, MEGABYTE),
+                    false,
+                    parallelReadExecutor);
+            this.data = data;
+            this.readPositions = readPositions;
+        }
+
+        @Override
+        protected void readInternal(long position, byte[] buffer, int bufferOffset, int bufferLength)
+                throws IOException
+        {
+            if (position + bufferLength > data.length) {
+                throw new IOException("read past end of data");
+            }
+            readPositions.add(position);
+            System.arraycopy(data, (int) position, buffer, bufferOffset, bufferLength);
+        }
+    }
+}
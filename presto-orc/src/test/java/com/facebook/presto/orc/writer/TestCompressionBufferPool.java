@@ -14,6 +14,7 @@
 package com.facebook.presto.orc.writer;
 
 import com.facebook.presto.orc.writer.CompressionBufferPool.LastUsedCompressionBufferPool;
+import com.facebook.presto.orc.writer.CompressionBufferPool.SharedCompressionBufferPool;
 import org.testng.annotations.Test;
 
 import static org.testng.Assert.assertEquals;
@@ -58,6 +59,32 @@ public class TestCompressionBufferPool
         verifyBuffer(buffer3, 2000);
     }
 
+    @Test
+    public void testSharedBufferPool()
+    {
+        CompressionBufferPool bufferPool = new SharedCompressionBufferPool(2);
+        byte[] buffer1 = bufferPool.checkOut(1000);
+        byte[] buffer2 = bufferPool.checkOut(100);
+        verifyBuffer(buffer1, 1000);
+        verifyBuffer(buffer2, 100);
+        assertNotSame(buffer1, buffer2);
+        bufferPool.checkIn(buffer2);
+        bufferPool.checkIn(buffer1);
+
+        // a checked in buffer is handed out only when it is large enough
+        assertSame(bufferPool.checkOut(500), buffer1);
+        assertSame(bufferPool.checkOut(50), buffer2);
+
+        // the pool keeps at most the configured number of buffers, evicting the least recently checked in
+        bufferPool.checkIn(buffer1);
+        bufferPool.checkIn(buffer2);
+        bufferPool.checkIn(new byte[10]);
+        byte[] buffer3 = bufferPool.checkOut(1000);
+        assertNotSame(buffer3, buffer1);
+        verifyBuffer(buffer3, 1000);
+        assertSame(bufferPool.checkOut(100), buffer2);
+    }
+
     private void verifyBuffer(byte[] buffer, int expectedLength)
     {
         assertNotNull(buffer);
@@ -16,6 +16,7 @@ package com.facebook.presto.parquet.batchreader;
 import com.facebook.presto.common.block.Block;
 import com.facebook.presto.common.block.IntArrayBlock;
 import com.facebook.presto.common.block.RunLengthEncodedBlock;
+import com.facebook.presto.common.predicate.TupleDomainFilter;
 import com.facebook.presto.parquet.ColumnReader;
 import com.facebook.presto.parquet.DataPage;
 import com.facebook.presto.parquet.DictionaryPage;
@@ -40,15 +41,19 @@ import java.util.Optional;
 import static com.facebook.presto.parquet.ParquetErrorCode.PARQUET_IO_READ_ERROR;
 import static com.facebook.presto.parquet.batchreader.decoders.Decoders.readFlatPage;
 import static com.google.common.base.Preconditions.checkArgument;
+import static io.airlift.slice.SizeOf.sizeOf;
+import static java.lang.Float.intBitsToFloat;
 import static java.lang.String.format;
 import static java.util.Objects.requireNonNull;
+import static org.apache.parquet.schema.PrimitiveType.PrimitiveTypeName.FLOAT;
 
 public class Int32FlatBatchReader
-        implements ColumnReader
+        implements ColumnReader, SelectiveBatchReader
 {
     private static final int INSTANCE_SIZE = ClassLayout.parseClass(Int32FlatBatchReader.class).instanceSize();
 
     private final RichColumnDescriptor columnDescriptor;
+    private final boolean floatValues;
 
     protected Field field;
     protected int nextBatchSize;
@@ -60,9 +65,18 @@ public class Int32FlatBatchReader
     private int readOffset;
     private PageReader pageReader;
 
+    // values and positions buffered by the latest selective read
+    private int[] readValues = new int[0];
+    private boolean[] readNulls = new boolean[0];
+    private int[] readPositions = new int[0];
+    private int readCount;
+    private boolean[] isNullBuffer = new boolean[0];
+    private int[] valueBuffer = new int[0];
+
     public Int32FlatBatchReader(RichColumnDescriptor columnDescriptor)
     {
         this.columnDescriptor = requireNonNull(columnDescriptor, "columnDescriptor is null");
+        this.floatValues = columnDescriptor.getPrimitiveType().getPrimitiveTypeName() == FLOAT;
     }
 
     @Override
@@ -121,7 +135,80 @@ public class Int32FlatBatchReader
                 (definitionLevelDecoder == null ? 0 : definitionLevelDecoder.getRetainedSizeInBytes()) +
                 (valuesDecoder == null ? 0 : valuesDecoder.getRetainedSizeInBytes()) +
                 (dictionary == null ? 0 : dictionary.getRetainedSizeInBytes()) +
-                (pageReader == null ? 0 : pageReader.getRetainedSizeInBytes());
+                (pageReader == null ? 0 : pageReader.getRetainedSizeInBytes()) +
+                sizeOf(readValues) +
+                sizeOf(readNulls) +
+                sizeOf(readPositions) +
+                sizeOf(isNullBuffer) +
+                sizeOf(valueBuffer);
+    }
+
+    @Override
+    public int read(int[] positions, int positionCount, TupleDomainFilter filter)
+    {
+        checkArgument(positionCount == 0 || positions[positionCount - 1] < nextBatchSize, "positions exceed the batch size");
+        readCount = 0;
+        try {
+            seek();
+            ensureReadCapacity(positionCount);
+
+            int index = 0;
+            int batchPosition = 0;
+            while (index < positionCount) {
+                if (remainingCountInPage == 0 && !readNextPage()) {
+                    throw new ParquetDecodingException("Still remaining to be read in current batch.");
+                }
+
+                int chunkEnd = Math.min(batchPosition + remainingCountInPage, nextBatchSize);
+                if (field.isRequired()) {
+                    index = readChunkWithoutNull(positions, positionCount, index, batchPosition, chunkEnd, filter);
+                }
+                else {
+                    index = readChunkWithNull(positions, positionCount, index, batchPosition, chunkEnd, filter);
+                }
+                remainingCountInPage -= chunkEnd - batchPosition;
+                batchPosition = chunkEnd;
+            }
+
+            // the values after the last position are skipped along with the next batch
+            readOffset = nextBatchSize - batchPosition;
+            nextBatchSize = 0;
+        }
+        catch (IOException exception) {
+            throw new PrestoException(PARQUET_IO_READ_ERROR, "Error reading Parquet column " + columnDescriptor, exception);
+        }
+        return readCount;
+    }
+
+    @Override
+    public int[] getReadPositions()
+    {
+        return readPositions;
+    }
+
+    @Override
+    public Block getBlock(int[] positions, int positionCount)
+    {
+        int[] values = new int[positionCount];
+        boolean[] isNull = new boolean[positionCount];
+        int nullCount = 0;
+        int readIndex = 0;
+        for (int i = 0; i < positionCount; i++) {
+            while (readPositions[readIndex] != positions[i]) {
+                readIndex++;
+            }
+            values[i] = readValues[readIndex];
+            isNull[i] = readNulls[readIndex];
+            if (isNull[i]) {
+                nullCount++;
+            }
+            readIndex++;
+        }
+
+        if (positionCount > 0 && nullCount == positionCount) {
+            return RunLengthEncodedBlock.create(field.getType(), null, positionCount);
+        }
+        return new IntArrayBlock(positionCount, nullCount == 0 ? Optional.empty() : Optional.of(isNull), values);
     }
 
     protected boolean readNextPage()
@@ -226,6 +313,122 @@ public class Int32FlatBatchReader
         return new ColumnChunk(block, new int[0], new int[0]);
     }
 
+    private int readChunkWithoutNull(int[] positions, int positionCount, int index, int chunkStart, int chunkEnd, TupleDomainFilter filter)
+            throws IOException
+    {
+        int nextPosition = chunkStart;
+        while (index < positionCount && positions[index] < chunkEnd) {
+            int runStart = positions[index];
+            int runEnd = getRunEnd(positions, positionCount, index, chunkEnd);
+            int runLength = runEnd - runStart;
+            valuesDecoder.skip(runStart - nextPosition);
+
+            // decode the run in place; the values that pass the filter are compacted to the front
+            int valueIndex = readCount;
+            valuesDecoder.readNext(readValues, valueIndex, runLength);
+            for (int i = 0; i < runLength; i++) {
+                int value = readValues[valueIndex + i];
+                if (filter == null || testValue(filter, value)) {
+                    readValues[readCount] = value;
+                    readNulls[readCount] = false;
+                    readPositions[readCount] = runStart + i;
+                    readCount++;
+                }
+            }
+
+            index += runLength;
+            nextPosition = runEnd;
+        }
+        valuesDecoder.skip(chunkEnd - nextPosition);
+        return index;
+    }
+
+    private int readChunkWithNull(int[] positions, int positionCount, int index, int chunkStart, int chunkEnd, TupleDomainFilter filter)
+            throws IOException
+    {
+        int chunkSize = chunkEnd - chunkStart;
+        if (isNullBuffer.length < chunkSize) {
+            isNullBuffer = new boolean[chunkSize];
+        }
+        definitionLevelDecoder.readNext(isNullBuffer, 0, chunkSize);
+
+        int nextPosition = chunkStart;
+        while (index < positionCount && positions[index] < chunkEnd) {
+            int runStart = positions[index];
+            int runEnd = getRunEnd(positions, positionCount, index, chunkEnd);
+            valuesDecoder.skip(countNonNull(isNullBuffer, nextPosition - chunkStart, runStart - chunkStart));
+
+            int nonNullCount = countNonNull(isNullBuffer, runStart - chunkStart, runEnd - chunkStart);
+            if (valueBuffer.length < nonNullCount) {
+                valueBuffer = new int[nonNullCount];
+            }
+            valuesDecoder.readNext(valueBuffer, 0, nonNullCount);
+
+            int valueIndex = 0;
+            for (int position = runStart; position < runEnd; position++) {
+                if (isNullBuffer[position - chunkStart]) {
+                    if (filter == null || filter.testNull()) {
+                        readValues[readCount] = 0;
+                        readNulls[readCount] = true;
+                        readPositions[readCount] = position;
+                        readCount++;
+                    }
+                }
+                else {
+                    int value = valueBuffer[valueIndex++];
+                    if (filter == null || testValue(filter, value)) {
+                        readValues[readCount] = value;
+                        readNulls[readCount] = false;
+                        readPositions[readCount] = position;
+                        readCount++;
+                    }
+                }
+            }
+
+            index += runEnd - runStart;
+            nextPosition = runEnd;
+        }
+        valuesDecoder.skip(countNonNull(isNullBuffer, nextPosition - chunkStart, chunkSize));
+        return index;
+    }
+
+    private boolean testValue(TupleDomainFilter filter, int value)
+    {
+        if (floatValues) {
+            return filter.testFloat(intBitsToFloat(value));
+        }
+        return filter.testLong(value);
+    }
+
+    private void ensureReadCapacity(int positionCount)
+    {
+        if (readValues.length < positionCount) {
+            readValues = new int[positionCount];
+            readNulls = new boolean[positionCount];
+            readPositions = new int[positionCount];
+        }
+    }
+
+    private static int getRunEnd(int[] positions, int positionCount, int index, int chunkEnd)
+    {
+        int runEnd = positions[index] + 1;
+        for (int i = index + 1; i < positionCount && positions[i] == runEnd && runEnd < chunkEnd; i++) {
+            runEnd++;
+        }
+        return runEnd;
+    }
+
+    private static int countNonNull(boolean[] isNull, int start, int end)
+    {
+        int count = 0;
+        for (int i = start; i < end; i++) {
+            if (!isNull[i]) {
+                count++;
+            }
+        }
+        return count;
+    }
+
     private void seek()
             throws IOException
     {
@@ -0,0 +1,55 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.parquet.batchreader;
+
+import com.facebook.presto.common.block.Block;
+import com.facebook.presto.common.predicate.TupleDomainFilter;
+
+import java.io.IOException;
+
+/**
+ * Reader of a flat column that decodes a subset of the positions of a batch and can apply a filter
+ * while decoding.
+ */
+public interface SelectiveBatchReader
+{
+    /**
+     * Decode the values at the specified positions of the batch set up by the latest
+     * prepareNextRead(), apply the filter and buffer the values that pass it. The values at the
+     * other positions of the batch are skipped.
+     *
+     * @param positions Monotonically increasing positions to read
+     * @param positionCount Number of valid positions in the positions array; may be less than the
+     *                      size of the array
+     * @param filter Filter to apply to the values, or null to keep all the positions
+     * @return the number of positions that passed the filter
+     */
+    int read(int[] positions, int positionCount, TupleDomainFilter filter)
+            throws IOException;
+
+    /**
+     * @return an array of positions that passed the filter during most recent read(); the return
+     *      value of read() is the number of valid entries in this array
+     */
+    int[] getReadPositions();
+
+    /**
+     * Return a subset of the values buffered during most recent read() for the specified positions.
+     *
+     * @param positions Monotonically increasing positions to return; must be a subset of the
+     *                  positions returned from getReadPositions()
+     * @param positionCount Number of valid positions in the positions array
+     */
+    Block getBlock(int[] positions, int positionCount);
+}
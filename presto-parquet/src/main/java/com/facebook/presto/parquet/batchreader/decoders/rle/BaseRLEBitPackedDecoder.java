@@ -13,8 +13,6 @@
  */
 package com.facebook.presto.parquet.batchreader.decoders.rle;
 
-import org.apache.parquet.column.values.bitpacking.BytePacker;
-import org.apache.parquet.column.values.bitpacking.Packer;
 import org.apache.parquet.io.ParquetDecodingException;
 import org.openjdk.jol.info.ClassLayout;
 
@@ -22,11 +20,13 @@ import java.io.DataInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 
+import static com.facebook.presto.common.array.BitUnpacker.unpackLittleEndian;
 import static com.facebook.presto.parquet.batchreader.decoders.rle.BaseRLEBitPackedDecoder.Mode.PACKED;
 import static com.facebook.presto.parquet.batchreader.decoders.rle.BaseRLEBitPackedDecoder.Mode.RLE;
 import static com.google.common.base.Preconditions.checkArgument;
 import static io.airlift.slice.SizeOf.sizeOf;
 import static java.lang.Math.ceil;
+import static java.util.Arrays.fill;
 import static org.apache.parquet.bytes.BytesUtils.readIntLittleEndianPaddedOnBitWidth;
 import static org.apache.parquet.bytes.BytesUtils.readUnsignedVarInt;
 
@@ -36,8 +36,8 @@ public abstract class BaseRLEBitPackedDecoder
 
     private final boolean rleOnlyMode;
     private final int bitWidth;
-    private final BytePacker packer;
     private final InputStream inputStream;
+    private byte[] packedBuffer = new byte[0];
 
     protected Mode mode;
     protected int currentCount;
@@ -49,13 +49,11 @@ public abstract class BaseRLEBitPackedDecoder
         checkArgument(bitWidth >= 0 && bitWidth <= 32, "bitWidth must be >= 0 and <= 32");
         this.bitWidth = bitWidth;
         if (bitWidth != 0) {
-            this.packer = Packer.LITTLE_ENDIAN.newBytePacker(bitWidth);
             this.inputStream = inputStream;
             this.rleOnlyMode = false;
         }
         else {
             this.rleOnlyMode = true;
-            this.packer = null;
             this.inputStream = null;
             this.mode = RLE;
             this.currentValue = 0;
@@ -67,7 +65,6 @@ public abstract class BaseRLEBitPackedDecoder
     {
         this.rleOnlyMode = true;
         this.bitWidth = 0;
-        this.packer = null;
         this.inputStream = null;
         this.mode = RLE;
         this.currentValue = rleValue;
@@ -76,7 +73,7 @@ public abstract class BaseRLEBitPackedDecoder
 
     public long getRetainedSizeInBytes()
     {
-        return INSTANCE_SIZE + sizeOf(currentBuffer);
+        return INSTANCE_SIZE + sizeOf(currentBuffer) + sizeOf(packedBuffer);
     }
 
     protected boolean decode()
@@ -102,18 +99,21 @@ public abstract class BaseRLEBitPackedDecoder
             case PACKED:
                 int numGroups = header >>> 1;
                 currentCount = numGroups * 8;
-                currentBuffer = new int[currentCount];
-                byte[] bytes = new byte[numGroups * bitWidth];
+                // runs of the same length are common, so the buffers are reused between runs
+                if (currentBuffer == null || currentBuffer.length != currentCount) {
+                    currentBuffer = new int[currentCount];
+                }
+                int packedLength = numGroups * bitWidth;
+                if (packedBuffer.length < packedLength) {
+                    packedBuffer = new byte[packedLength];
+                }
                 int bytesToRead = (int) ceil((double) (currentCount * bitWidth) / 8.0D);
                 bytesToRead = Math.min(bytesToRead, inputStream.available());
                 DataInputStream dataInputStream = new DataInputStream(inputStream);
-                dataInputStream.readFully(bytes, 0, bytesToRead);
-                int valueIndex = 0;
-
-                for (int byteIndex = 0; valueIndex < currentCount; byteIndex += bitWidth) {
-                    packer.unpack8Values(bytes, byteIndex, currentBuffer, valueIndex);
-                    valueIndex += 8;
-                }
+                dataInputStream.readFully(packedBuffer, 0, bytesToRead);
+                // a truncated last run is padded with zeros
+                fill(packedBuffer, bytesToRead, packedLength, (byte) 0);
+                unpackLittleEndian(packedBuffer, 0, currentBuffer, 0, currentCount, bitWidth);
                 return true;
             default:
                 throw new ParquetDecodingException("not a valid mode " + mode);
@@ -17,6 +17,7 @@ import com.facebook.presto.parquet.ParquetDataSourceId;
 import com.facebook.presto.spi.WarningCollector;
 import org.apache.parquet.column.ColumnDescriptor;
 import org.apache.parquet.column.statistics.Statistics;
+import org.apache.parquet.column.values.bloomfilter.BloomFilter;
 import org.apache.parquet.internal.filter2.columnindex.ColumnIndexStore;
 
 import java.util.Map;
@@ -43,6 +44,12 @@ public interface Predicate
         {
             return true;
         }
+
+        @Override
+        public boolean matches(ColumnDescriptor column, BloomFilter bloomFilter)
+        {
+            return true;
+        }
     };
 
     /**
@@ -73,4 +80,14 @@ public interface Predicate
      * @param columnIndexStore column index (statistics) store
      */
     boolean matches(long numberOfRows, Optional<ColumnIndexStore> columnIndexStore);
+
+    /**
+     * Should the Parquet Reader process a file section with the specified bloom filter. Bloom
+     * filters have no false negatives, so the section can be skipped if none of the values the
+     * predicate allows for the column is in the filter.
+     *
+     * @param column the column the bloom filter was written for
+     * @param bloomFilter the bloom filter of the column in the file section
+     */
+    boolean matches(ColumnDescriptor column, BloomFilter bloomFilter);
 }
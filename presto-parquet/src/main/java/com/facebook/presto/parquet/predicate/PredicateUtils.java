@@ -13,6 +13,9 @@
  */
 package com.facebook.presto.parquet.predicate;
 
+import com.facebook.presto.common.predicate.Domain;
+import com.facebook.presto.common.predicate.Range;
+import com.facebook.presto.common.predicate.SortedRangeSet;
 import com.facebook.presto.common.predicate.TupleDomain;
 import com.facebook.presto.common.type.Type;
 import com.facebook.presto.parquet.DictionaryPage;
@@ -31,7 +34,10 @@ import org.apache.parquet.column.ColumnDescriptor;
 import org.apache.parquet.column.Encoding;
 import org.apache.parquet.column.EncodingStats;
 import org.apache.parquet.column.statistics.Statistics;
+import org.apache.parquet.column.values.bloomfilter.BlockSplitBloomFilter;
+import org.apache.parquet.column.values.bloomfilter.BloomFilter;
 import org.apache.parquet.crypto.HiddenColumnChunkMetaData;
+import org.apache.parquet.format.BloomFilterHeader;
 import org.apache.parquet.format.DictionaryPageHeader;
 import org.apache.parquet.format.PageHeader;
 import org.apache.parquet.format.PageType;
@@ -64,6 +70,10 @@ import static org.apache.parquet.column.Encoding.RLE;
 
 public final class PredicateUtils
 {
+    // the header is a small thrift struct of a few fields
+    private static final int BLOOM_FILTER_HEADER_SIZE = 64;
+    private static final int MAX_DISCRETE_VALUES = 1000;
+
     private PredicateUtils()
     {
     }
@@ -117,6 +127,29 @@ public final class PredicateUtils
             Optional<ColumnIndexStore> columnIndexStore,
             boolean readColumnIndex,
             Optional<WarningCollector> warningCollector)
+    {
+        return predicateMatches(
+                parquetPredicate,
+                block,
+                dataSource,
+                descriptorsByPath,
+                parquetTupleDomain,
+                columnIndexStore,
+                readColumnIndex,
+                warningCollector,
+                false);
+    }
+
+    public static boolean predicateMatches(
+            Predicate parquetPredicate,
+            BlockMetaData block,
+            ParquetDataSource dataSource,
+            Map<List<String>, RichColumnDescriptor> descriptorsByPath,
+            TupleDomain<ColumnDescriptor> parquetTupleDomain,
+            Optional<ColumnIndexStore> columnIndexStore,
+            boolean readColumnIndex,
+            Optional<WarningCollector> warningCollector,
+            boolean readBloomFilter)
     {
         Map<ColumnDescriptor, Statistics<?>> columnStatistics = getStatistics(block, descriptorsByPath);
         if (!parquetPredicate.matches(block.getRowCount(), columnStatistics, dataSource.getId(), warningCollector)) {
@@ -128,7 +161,12 @@ public final class PredicateUtils
             return false;
         }
 
-        return dictionaryPredicatesMatch(parquetPredicate, block, dataSource, descriptorsByPath, parquetTupleDomain);
+        if (!dictionaryPredicatesMatch(parquetPredicate, block, dataSource, descriptorsByPath, parquetTupleDomain)) {
+            return false;
+        }
+
+        // Bloom filters need an extra read per column, so they are only checked for the row groups that pass all other filters
+        return !readBloomFilter || bloomFilterPredicatesMatch(parquetPredicate, block, dataSource, descriptorsByPath, parquetTupleDomain);
     }
 
     private static Map<ColumnDescriptor, Statistics<?>> getStatistics(BlockMetaData blockMetadata, Map<List<String>, RichColumnDescriptor> descriptorsByPath)
@@ -152,7 +190,9 @@ public final class PredicateUtils
             if (!HiddenColumnChunkMetaData.isHiddenColumn(columnMetaData)) {
                 RichColumnDescriptor descriptor = descriptorsByPath.get(Arrays.asList(columnMetaData.getPath().toArray()));
                 if (descriptor != null && isOnlyDictionaryEncodingPages(columnMetaData) && isColumnPredicate(descriptor, parquetTupleDomain)) {
-                    byte[] buffer = new byte[toIntExact(columnMetaData.getTotalSize())];
+                    // the dictionary page precedes the first data page, so only the bytes up to it are needed
+                    long dictionaryPageSize = columnMetaData.getFirstDataPageOffset() - columnMetaData.getStartingPos();
+                    byte[] buffer = new byte[toIntExact(dictionaryPageSize > 0 ? dictionaryPageSize : columnMetaData.getTotalSize())];
                     dataSource.readFully(columnMetaData.getStartingPos(), buffer);
                     //  Early abort, predicate already filters block so no more dictionaries need be read
                     if (!parquetPredicate.matches(new DictionaryDescriptor(descriptor, readDictionaryPage(buffer, columnMetaData.getCodec())))) {
@@ -164,6 +204,92 @@ public final class PredicateUtils
         return true;
     }
 
+    private static boolean bloomFilterPredicatesMatch(Predicate parquetPredicate, BlockMetaData blockMetadata, ParquetDataSource dataSource, Map<List<String>, RichColumnDescriptor> descriptorsByPath, TupleDomain<ColumnDescriptor> parquetTupleDomain)
+    {
+        for (ColumnChunkMetaData columnMetaData : blockMetadata.getColumns()) {
+            if (!HiddenColumnChunkMetaData.isHiddenColumn(columnMetaData) && columnMetaData.getBloomFilterOffset() >= 0 && !columnMetaData.isEncrypted()) {
+                RichColumnDescriptor descriptor = descriptorsByPath.get(Arrays.asList(columnMetaData.getPath().toArray()));
+                // columns with only dictionary encoded pages were already checked against the exact set of values
+                if (descriptor != null && !isOnlyDictionaryEncodingPages(columnMetaData) && isDiscreteColumnPredicate(descriptor, parquetTupleDomain)) {
+                    Optional<BloomFilter> bloomFilter = readBloomFilter(dataSource, columnMetaData);
+                    if (bloomFilter.isPresent() && !parquetPredicate.matches(descriptor, bloomFilter.get())) {
+                        return false;
+                    }
+                }
+            }
+        }
+        return true;
+    }
+
+    @VisibleForTesting
+    public static Optional<BloomFilter> readBloomFilter(ParquetDataSource dataSource, ColumnChunkMetaData columnMetaData)
+    {
+        try {
+            long offset = columnMetaData.getBloomFilterOffset();
+            // files written before the bloom filter length was added to the footer need a separate read for the bitset
+            int length = columnMetaData.getBloomFilterLength();
+            byte[] buffer = new byte[length > 0 ? length : BLOOM_FILTER_HEADER_SIZE];
+            dataSource.readFully(offset, buffer);
+
+            ByteArrayInputStream inputStream = new ByteArrayInputStream(buffer);
+            BloomFilterHeader header = Util.readBloomFilterHeader(inputStream);
+            if (!header.getAlgorithm().isSetBLOCK() || !header.getHash().isSetXXHASH() || !header.getCompression().isSetUNCOMPRESSED()) {
+                return Optional.empty();
+            }
+            int numBytes = header.getNumBytes();
+            if (numBytes <= 0 || numBytes > BlockSplitBloomFilter.UPPER_BOUND_BYTES) {
+                return Optional.empty();
+            }
+
+            int headerSize = buffer.length - inputStream.available();
+            byte[] bitset;
+            if (buffer.length - headerSize >= numBytes) {
+                bitset = Arrays.copyOfRange(buffer, headerSize, headerSize + numBytes);
+            }
+            else {
+                bitset = new byte[numBytes];
+                dataSource.readFully(offset + headerSize, bitset);
+            }
+            return Optional.of(new BlockSplitBloomFilter(bitset));
+        }
+        catch (IOException | RuntimeException ignored) {
+            // OK to ignore exception when reading bloom filters, the row group is read in that case
+            return Optional.empty();
+        }
+    }
+
+    private static boolean isDiscreteColumnPredicate(ColumnDescriptor columnDescriptor, TupleDomain<ColumnDescriptor> parquetTupleDomain)
+    {
+        verify(parquetTupleDomain.getDomains().isPresent(), "parquetTupleDomain is empty");
+        Domain domain = parquetTupleDomain.getDomains().get().get(columnDescriptor);
+        // null values are not added to bloom filters
+        return domain != null && !domain.isNullAllowed() && getDiscreteValues(domain).isPresent();
+    }
+
+    /**
+     * Returns the values of a domain that only consists of single values, e.g. the domain of an
+     * equality or IN predicate.
+     */
+    public static Optional<List<Object>> getDiscreteValues(Domain domain)
+    {
+        if (!(domain.getValues() instanceof SortedRangeSet)) {
+            return Optional.empty();
+        }
+
+        List<Range> ranges = ((SortedRangeSet) domain.getValues()).getOrderedRanges();
+        if (ranges.isEmpty() || ranges.size() > MAX_DISCRETE_VALUES) {
+            return Optional.empty();
+        }
+        ImmutableList.Builder<Object> values = ImmutableList.builder();
+        for (Range range : ranges) {
+            if (!range.isSingleValue()) {
+                return Optional.empty();
+            }
+            values.add(range.getSingleValue());
+        }
+        return Optional.of(values.build());
+    }
+
     private static Optional<DictionaryPage> readDictionaryPage(byte[] data, CompressionCodecName codecName)
     {
         try {
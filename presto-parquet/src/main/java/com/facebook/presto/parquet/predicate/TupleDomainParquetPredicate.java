@@ -31,6 +31,7 @@ import io.airlift.slice.Slice;
 import io.airlift.slice.Slices;
 import org.apache.parquet.column.ColumnDescriptor;
 import org.apache.parquet.column.statistics.Statistics;
+import org.apache.parquet.column.values.bloomfilter.BloomFilter;
 import org.apache.parquet.filter2.predicate.FilterApi;
 import org.apache.parquet.filter2.predicate.FilterPredicate;
 import org.apache.parquet.filter2.predicate.UserDefinedPredicate;
@@ -38,6 +39,9 @@ import org.apache.parquet.hadoop.metadata.ColumnPath;
 import org.apache.parquet.internal.column.columnindex.ColumnIndex;
 import org.apache.parquet.internal.filter2.columnindex.ColumnIndexStore;
 import org.apache.parquet.io.api.Binary;
+import org.apache.parquet.schema.LogicalTypeAnnotation;
+import org.apache.parquet.schema.LogicalTypeAnnotation.DecimalLogicalTypeAnnotation;
+import org.apache.parquet.schema.LogicalTypeAnnotation.IntLogicalTypeAnnotation;
 import org.apache.parquet.schema.PrimitiveType;
 import org.apache.parquet.schema.PrimitiveType.PrimitiveTypeName;
 
@@ -48,6 +52,7 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.OptionalLong;
 import java.util.function.Function;
 
 import static com.facebook.presto.common.type.BigintType.BIGINT;
@@ -58,11 +63,15 @@ import static com.facebook.presto.common.type.IntegerType.INTEGER;
 import static com.facebook.presto.common.type.RealType.REAL;
 import static com.facebook.presto.common.type.SmallintType.SMALLINT;
 import static com.facebook.presto.common.type.TinyintType.TINYINT;
+import static com.facebook.presto.common.type.VarbinaryType.VARBINARY;
 import static com.facebook.presto.common.type.Varchars.isVarcharType;
 import static com.facebook.presto.parquet.ParquetWarningCode.PARQUET_FILE_STATISTICS_CORRUPTION;
+import static com.facebook.presto.parquet.predicate.PredicateUtils.getDiscreteValues;
 import static com.facebook.presto.parquet.predicate.PredicateUtils.isStatisticsOverflow;
 import static com.google.common.base.Preconditions.checkArgument;
 import static java.lang.Float.floatToRawIntBits;
+import static java.lang.Float.intBitsToFloat;
+import static java.lang.Math.toIntExact;
 import static java.lang.String.format;
 import static java.nio.ByteOrder.LITTLE_ENDIAN;
 import static java.util.Objects.requireNonNull;
@@ -357,6 +366,82 @@ public class TupleDomainParquetPredicate
         return effectivePredicateDomain == null || effectivePredicateMatches(effectivePredicateDomain, dictionary);
     }
 
+    @Override
+    public boolean matches(ColumnDescriptor column, BloomFilter bloomFilter)
+    {
+        requireNonNull(column, "column is null");
+        requireNonNull(bloomFilter, "bloomFilter is null");
+        if (effectivePredicate.isNone()) {
+            return false;
+        }
+
+        Map<ColumnDescriptor, Domain> effectivePredicateDomains = effectivePredicate.getDomains()
+                .orElseThrow(() -> new IllegalStateException("Effective predicate other than none should have domains"));
+
+        Domain effectivePredicateDomain = effectivePredicateDomains.get(column);
+        // null values are not added to bloom filters
+        if (effectivePredicateDomain == null || effectivePredicateDomain.isNullAllowed()) {
+            return true;
+        }
+
+        Optional<List<Object>> values = getDiscreteValues(effectivePredicateDomain);
+        if (!values.isPresent()) {
+            return true;
+        }
+        for (Object value : values.get()) {
+            OptionalLong hash = getBloomFilterHash(column, effectivePredicateDomain.getType(), value, bloomFilter);
+            if (!hash.isPresent() || bloomFilter.findHash(hash.getAsLong())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Hashes the value the way the writer hashed the values of the physical type of the column, or
+     * returns empty if the type is not known to be written without a conversion.
+     */
+    private static OptionalLong getBloomFilterHash(ColumnDescriptor column, Type type, Object value, BloomFilter bloomFilter)
+    {
+        PrimitiveType primitiveType = column.getPrimitiveType();
+        LogicalTypeAnnotation annotation = primitiveType.getLogicalTypeAnnotation();
+        if (annotation instanceof DecimalLogicalTypeAnnotation || (annotation instanceof IntLogicalTypeAnnotation && !((IntLogicalTypeAnnotation) annotation).isSigned())) {
+            return OptionalLong.empty();
+        }
+
+        PrimitiveTypeName physicalType = primitiveType.getPrimitiveTypeName();
+        if (physicalType == INT32 && (type.equals(INTEGER) || type.equals(SMALLINT) || type.equals(TINYINT) || type.equals(DATE))) {
+            long longValue = (long) value;
+            if (longValue < Integer.MIN_VALUE || longValue > Integer.MAX_VALUE) {
+                return OptionalLong.empty();
+            }
+            return OptionalLong.of(bloomFilter.hash((int) longValue));
+        }
+        if (physicalType == INT64 && type.equals(BIGINT)) {
+            return OptionalLong.of(bloomFilter.hash((long) value));
+        }
+        // the writer hashes the exact bits, so values that compare equal with different encodings (0.0 and -0.0) or
+        // NaN, which has many encodings, cannot be probed
+        if (physicalType == PrimitiveTypeName.DOUBLE && type.equals(DOUBLE)) {
+            double doubleValue = (double) value;
+            if (doubleValue == 0 || Double.isNaN(doubleValue)) {
+                return OptionalLong.empty();
+            }
+            return OptionalLong.of(bloomFilter.hash(doubleValue));
+        }
+        if (physicalType == FLOAT && type.equals(REAL)) {
+            float floatValue = intBitsToFloat(toIntExact((long) value));
+            if (floatValue == 0 || Float.isNaN(floatValue)) {
+                return OptionalLong.empty();
+            }
+            return OptionalLong.of(bloomFilter.hash(floatValue));
+        }
+        if (physicalType == BINARY && (isVarcharType(type) || type.equals(VARBINARY))) {
+            return OptionalLong.of(bloomFilter.hash(Binary.fromConstantByteArray(((Slice) value).getBytes())));
+        }
+        return OptionalLong.empty();
+    }
+
     @Override
     public boolean matches(long numberOfRows, Optional<ColumnIndexStore> columnIndexStore)
     {
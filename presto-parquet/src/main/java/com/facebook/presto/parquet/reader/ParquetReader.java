@@ -21,6 +21,8 @@ import com.facebook.presto.common.block.IntArrayBlock;
 import com.facebook.presto.common.block.LongArrayBlock;
 import com.facebook.presto.common.block.RowBlock;
 import com.facebook.presto.common.block.RunLengthEncodedBlock;
+import com.facebook.presto.common.predicate.TupleDomainFilter;
+import com.facebook.presto.common.type.DecimalType;
 import com.facebook.presto.common.type.MapType;
 import com.facebook.presto.common.type.Type;
 import com.facebook.presto.common.type.TypeSignatureParameter;
@@ -36,6 +38,7 @@ import com.facebook.presto.parquet.ParquetResultVerifierUtils;
 import com.facebook.presto.parquet.PrimitiveField;
 import com.facebook.presto.parquet.RichColumnDescriptor;
 import com.facebook.presto.parquet.VariantField;
+import com.facebook.presto.parquet.batchreader.SelectiveBatchReader;
 import com.facebook.presto.parquet.predicate.Predicate;
 import com.facebook.presto.parquet.predicate.TupleDomainParquetPredicate;
 import com.facebook.presto.parquet.reader.ColumnIndexFilterUtils.OffsetRange;
@@ -80,19 +83,27 @@ import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 import static com.facebook.presto.common.type.BigintType.BIGINT;
+import static com.facebook.presto.common.type.BooleanType.BOOLEAN;
+import static com.facebook.presto.common.type.Chars.isCharType;
+import static com.facebook.presto.common.type.DateType.DATE;
+import static com.facebook.presto.common.type.DoubleType.DOUBLE;
 import static com.facebook.presto.common.type.IntegerType.INTEGER;
+import static com.facebook.presto.common.type.RealType.REAL;
 import static com.facebook.presto.common.type.SmallintType.SMALLINT;
 import static com.facebook.presto.common.type.StandardTypes.ARRAY;
 import static com.facebook.presto.common.type.StandardTypes.MAP;
 import static com.facebook.presto.common.type.StandardTypes.ROW;
+import static com.facebook.presto.common.type.TimestampType.TIMESTAMP;
 import static com.facebook.presto.common.type.TinyintType.TINYINT;
 import static com.facebook.presto.common.type.VarbinaryType.VARBINARY;
 import static com.facebook.presto.common.type.VarcharType.VARCHAR;
+import static com.facebook.presto.common.type.Varchars.isVarcharType;
 import static com.facebook.presto.parquet.ParquetValidationUtils.validateParquet;
 import static com.facebook.presto.parquet.reader.ListColumnReader.calculateCollectionOffsets;
 import static com.google.common.base.Preconditions.checkArgument;
 import static io.airlift.slice.SizeOf.sizeOf;
 import static io.airlift.slice.Slices.utf8Slice;
+import static java.lang.Float.intBitsToFloat;
 import static java.lang.Math.max;
 import static java.lang.Math.min;
 import static java.lang.Math.toIntExact;
@@ -119,6 +130,7 @@ public class ParquetReader
     private final boolean enableVerification;
     private final FilterPredicate filter;
     private final ColumnReader[] columnReaders;
+    private final SelectiveBatchReader[] selectiveReaders;
     private final long maxReadBlockBytes;
     private final List<ColumnIndexStore> blockIndexStores;
     private final List<RowRanges> blockRowRanges;
@@ -167,6 +179,7 @@ public class ParquetReader
         this.batchReadEnabled = batchReadEnabled;
         columns = messageColumnIO.getLeaves();
         columnReaders = new ColumnReader[columns.size()];
+        selectiveReaders = new SelectiveBatchReader[columns.size()];
         this.enableVerification = enableVerification;
         verificationColumnReaders = enableVerification ? new ColumnReader[columns.size()] : null;
         maxBytesPerCell = new long[columns.size()];
@@ -341,61 +354,7 @@ public class ParquetReader
         int fieldId = field.getId();
         ColumnReader columnReader = columnReaders[fieldId];
         if (!columnReader.isInitialized()) {
-            validateParquet(currentBlockMetadata.getRowCount() > 0, "Row group has 0 rows");
-            ColumnChunkMetaData columnChunkMetaData = getColumnChunkMetaData(columnDescriptor);
-            long startingPosition = columnChunkMetaData.getStartingPos();
-            int columnChunkSize = toIntExact(columnChunkMetaData.getTotalSize());
-
-            if (shouldUseColumnIndex(columnChunkMetaData.getPath())) {
-                OffsetIndex offsetIndex = blockIndexStores.get(currentBlock).getOffsetIndex(columnChunkMetaData.getPath());
-                OffsetIndex filteredOffsetIndex = ColumnIndexFilterUtils.filterOffsetIndex(offsetIndex, currentGroupRowRanges, blocks.get(currentBlock).getRowCount());
-                List<OffsetRange> offsetRanges = ColumnIndexFilterUtils.calculateOffsetRanges(filteredOffsetIndex, columnChunkMetaData, offsetIndex.getOffset(0), startingPosition);
-                List<OffsetRange> consecutiveRanges = concatRanges(offsetRanges);
-                int consecutiveRangesSize = consecutiveRanges.stream().mapToInt(range -> (int) range.getLength()).sum();
-                PageReader pageReader = createPageReader(
-                        dataSourceAsInputStream(startingPosition, consecutiveRanges),
-                        consecutiveRangesSize,
-                        columnChunkMetaData,
-                        columnDescriptor,
-                        Optional.of(filteredOffsetIndex),
-                        pageReaderMemoryContext);
-
-                columnReader.init(pageReader, field, currentGroupRowRanges, timezone);
-
-                if (enableVerification) {
-                    ColumnReader verificationColumnReader = verificationColumnReaders[field.getId()];
-                    PageReader pageReaderVerification = createPageReader(
-                            dataSourceAsInputStream(startingPosition, consecutiveRanges),
-                            consecutiveRangesSize,
-                            columnChunkMetaData,
-                            columnDescriptor,
-                            Optional.of(filteredOffsetIndex),
-                            verificationPageReaderMemoryContext);
-                    verificationColumnReader.init(pageReaderVerification, field, currentGroupRowRanges, timezone);
-                }
-            }
-            else {
-                PageReader pageReader = createPageReader(
-                        dataSourceAsInputStream(startingPosition, columnChunkSize),
-                        columnChunkSize,
-                        columnChunkMetaData,
-                        columnDescriptor,
-                        Optional.empty(),
-                        pageReaderMemoryContext);
-                columnReader.init(pageReader, field, null, timezone);
-
-                if (enableVerification) {
-                    ColumnReader verificationColumnReader = verificationColumnReaders[field.getId()];
-                    PageReader pageReaderVerification = createPageReader(
-                            dataSourceAsInputStream(startingPosition, columnChunkSize),
-                            columnChunkSize,
-                            columnChunkMetaData,
-                            columnDescriptor,
-                            Optional.empty(),
-                            verificationPageReaderMemoryContext);
-                    verificationColumnReader.init(pageReaderVerification, field, null, timezone);
-                }
-            }
+            initializeColumnReader(field);
         }
 
         ColumnChunk columnChunk = columnReader.readNext(timezone);
@@ -418,6 +377,69 @@ public class ParquetReader
         return columnChunk;
     }
 
+    private void initializeColumnReader(PrimitiveField field)
+            throws IOException
+    {
+        ColumnDescriptor columnDescriptor = field.getDescriptor();
+        ColumnReader columnReader = columnReaders[field.getId()];
+
+        validateParquet(currentBlockMetadata.getRowCount() > 0, "Row group has 0 rows");
+        ColumnChunkMetaData columnChunkMetaData = getColumnChunkMetaData(columnDescriptor);
+        long startingPosition = columnChunkMetaData.getStartingPos();
+        int columnChunkSize = toIntExact(columnChunkMetaData.getTotalSize());
+
+        if (shouldUseColumnIndex(columnChunkMetaData.getPath())) {
+            OffsetIndex offsetIndex = blockIndexStores.get(currentBlock).getOffsetIndex(columnChunkMetaData.getPath());
+            OffsetIndex filteredOffsetIndex = ColumnIndexFilterUtils.filterOffsetIndex(offsetIndex, currentGroupRowRanges, blocks.get(currentBlock).getRowCount());
+            List<OffsetRange> offsetRanges = ColumnIndexFilterUtils.calculateOffsetRanges(filteredOffsetIndex, columnChunkMetaData, offsetIndex.getOffset(0), startingPosition);
+            List<OffsetRange> consecutiveRanges = concatRanges(offsetRanges);
+            int consecutiveRangesSize = consecutiveRanges.stream().mapToInt(range -> (int) range.getLength()).sum();
+            PageReader pageReader = createPageReader(
+                    dataSourceAsInputStream(startingPosition, consecutiveRanges),
+                    consecutiveRangesSize,
+                    columnChunkMetaData,
+                    columnDescriptor,
+                    Optional.of(filteredOffsetIndex),
+                    pageReaderMemoryContext);
+
+            columnReader.init(pageReader, field, currentGroupRowRanges, timezone);
+
+            if (enableVerification) {
+                ColumnReader verificationColumnReader = verificationColumnReaders[field.getId()];
+                PageReader pageReaderVerification = createPageReader(
+                        dataSourceAsInputStream(startingPosition, consecutiveRanges),
+                        consecutiveRangesSize,
+                        columnChunkMetaData,
+                        columnDescriptor,
+                        Optional.of(filteredOffsetIndex),
+                        verificationPageReaderMemoryContext);
+                verificationColumnReader.init(pageReaderVerification, field, currentGroupRowRanges, timezone);
+            }
+        }
+        else {
+            PageReader pageReader = createPageReader(
+                    dataSourceAsInputStream(startingPosition, columnChunkSize),
+                    columnChunkSize,
+                    columnChunkMetaData,
+                    columnDescriptor,
+                    Optional.empty(),
+                    pageReaderMemoryContext);
+            columnReader.init(pageReader, field, null, timezone);
+
+            if (enableVerification) {
+                ColumnReader verificationColumnReader = verificationColumnReaders[field.getId()];
+                PageReader pageReaderVerification = createPageReader(
+                        dataSourceAsInputStream(startingPosition, columnChunkSize),
+                        columnChunkSize,
+                        columnChunkMetaData,
+                        columnDescriptor,
+                        Optional.empty(),
+                        verificationPageReaderMemoryContext);
+                verificationColumnReader.init(pageReaderVerification, field, null, timezone);
+            }
+        }
+    }
+
     private InputStream dataSourceAsInputStream(long startingPosition, List<OffsetRange> offsetRanges)
     {
         List<InputStream> inputStreams = new ArrayList<>();
@@ -532,6 +554,7 @@ public class ParquetReader
         for (PrimitiveColumnIO columnIO : columns) {
             RichColumnDescriptor column = new RichColumnDescriptor(columnIO.getColumnDescriptor(), columnIO.getType().asPrimitiveType());
             columnReaders[columnIO.getId()] = ColumnReaderFactory.createReader(column, batchReadEnabled);
+            selectiveReaders[columnIO.getId()] = null;
 
             if (enableVerification) {
                 verificationColumnReaders[columnIO.getId()] = ColumnReaderFactory.createReader(column, false);
@@ -545,6 +568,80 @@ public class ParquetReader
         return readColumnChunk(field).getBlock();
     }
 
+    /**
+     * Read the values of a field at the specified positions of the current batch. The values of
+     * flat columns at the other positions are skipped rather than decoded where the column reader
+     * allows it.
+     */
+    public Block readBlock(Field field, int[] positions, int positionCount)
+            throws IOException
+    {
+        if (field instanceof PrimitiveField && isFlatColumn((PrimitiveField) field)) {
+            SelectiveBatchReader reader = getSelectiveReader((PrimitiveField) field);
+            reader.read(positions, positionCount, null);
+            return reader.getBlock(positions, positionCount);
+        }
+
+        Block block = readBlock(field);
+        if (positionCount == block.getPositionCount()) {
+            return block;
+        }
+        return block.copyPositions(positions, 0, positionCount);
+    }
+
+    /**
+     * Return the reader of a flat column positioned at the current batch, which decodes only the
+     * requested positions of the batch and applies a filter to their values. Batch readers of
+     * fixed width columns evaluate the filter while decoding; other columns are read as a whole
+     * block and filtered afterwards.
+     */
+    public SelectiveBatchReader getSelectiveReader(PrimitiveField field)
+            throws IOException
+    {
+        checkArgument(isFlatColumn(field), "Selective reads are only supported for flat columns: %s", field.getDescriptor());
+
+        int fieldId = field.getId();
+        if (!columnReaders[fieldId].isInitialized()) {
+            initializeColumnReader(field);
+        }
+
+        if (selectiveReaders[fieldId] == null) {
+            ColumnReader columnReader = columnReaders[fieldId];
+            if (columnReader instanceof SelectiveBatchReader && !enableVerification && isDecodedAsOutputType(field)) {
+                selectiveReaders[fieldId] = (SelectiveBatchReader) columnReader;
+            }
+            else {
+                selectiveReaders[fieldId] = new BlockSelectiveReader(field);
+            }
+        }
+        return selectiveReaders[fieldId];
+    }
+
+    private static boolean isFlatColumn(PrimitiveField field)
+    {
+        return field.getDescriptor().getPath().length == 1;
+    }
+
+    /**
+     * Whether the batch reader produces blocks of the field type, so that typeCoercion() is not needed
+     */
+    private static boolean isDecodedAsOutputType(PrimitiveField field)
+    {
+        Type type = field.getType();
+        switch (field.getDescriptor().getPrimitiveType().getPrimitiveTypeName()) {
+            case INT32:
+                return INTEGER.equals(type) || DATE.equals(type);
+            case FLOAT:
+                return REAL.equals(type);
+            case INT64:
+                return BIGINT.equals(type);
+            case DOUBLE:
+                return DOUBLE.equals(type);
+            default:
+                return false;
+        }
+    }
+
     private ColumnChunk readVariant(VariantField field)
             throws IOException
     {
@@ -674,6 +771,88 @@ public class ParquetReader
         return newBlockBuilder.build();
     }
 
+    /**
+     * Selective reader over a column reader that can only read whole batches
+     */
+    private final class BlockSelectiveReader
+            implements SelectiveBatchReader
+    {
+        private final PrimitiveField field;
+        private Block block;
+        private int[] readPositions = new int[0];
+
+        private BlockSelectiveReader(PrimitiveField field)
+        {
+            this.field = requireNonNull(field, "field is null");
+        }
+
+        @Override
+        public int read(int[] positions, int positionCount, TupleDomainFilter filter)
+                throws IOException
+        {
+            block = readPrimitive(field).getBlock();
+            if (readPositions.length < positionCount) {
+                readPositions = new int[positionCount];
+            }
+
+            int outputCount = 0;
+            for (int i = 0; i < positionCount; i++) {
+                int position = positions[i];
+                if (filter == null || testPosition(filter, field.getType(), block, position)) {
+                    readPositions[outputCount] = position;
+                    outputCount++;
+                }
+            }
+            return outputCount;
+        }
+
+        @Override
+        public int[] getReadPositions()
+        {
+            return readPositions;
+        }
+
+        @Override
+        public Block getBlock(int[] positions, int positionCount)
+        {
+            if (positionCount == block.getPositionCount()) {
+                return block;
+            }
+            return block.copyPositions(positions, 0, positionCount);
+        }
+    }
+
+    static boolean testPosition(TupleDomainFilter filter, Type type, Block block, int position)
+    {
+        if (block.isNull(position)) {
+            return filter.testNull();
+        }
+
+        if (BIGINT.equals(type) || INTEGER.equals(type) || SMALLINT.equals(type) || TINYINT.equals(type) || DATE.equals(type) || TIMESTAMP.equals(type)) {
+            return filter.testLong(type.getLong(block, position));
+        }
+        if (BOOLEAN.equals(type)) {
+            return filter.testBoolean(type.getBoolean(block, position));
+        }
+        if (DOUBLE.equals(type)) {
+            return filter.testDouble(type.getDouble(block, position));
+        }
+        if (REAL.equals(type)) {
+            return filter.testFloat(intBitsToFloat(toIntExact(type.getLong(block, position))));
+        }
+        if (type instanceof DecimalType) {
+            if (((DecimalType) type).isShort()) {
+                return filter.testLong(block.getLong(position));
+            }
+            return filter.testDecimal(block.getLong(position, 0), block.getLong(position, Long.BYTES));
+        }
+        if (isVarcharType(type) || isCharType(type) || VARBINARY.equals(type)) {
+            Slice slice = type.getSlice(block, position);
+            return filter.testBytes(slice.getBytes(), 0, slice.length());
+        }
+        throw new UnsupportedOperationException("Unsupported filter column type: " + type);
+    }
+
     private static <T> List<T> listWithNulls(int size)
     {
         return Stream.generate(() -> (T) null).limit(size).collect(Collectors.toCollection(ArrayList<T>::new));
@@ -0,0 +1,418 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.parquet.reader;
+
+import com.facebook.presto.common.Page;
+import com.facebook.presto.common.block.Block;
+import com.facebook.presto.common.block.LazyBlock;
+import com.facebook.presto.common.block.LazyBlockLoader;
+import com.facebook.presto.common.block.RunLengthEncodedBlock;
+import com.facebook.presto.common.predicate.FilterFunction;
+import com.facebook.presto.common.predicate.TupleDomainFilter;
+import com.facebook.presto.common.type.DecimalType;
+import com.facebook.presto.common.type.Type;
+import com.facebook.presto.parquet.Field;
+import com.facebook.presto.parquet.ParquetDataSource;
+import com.facebook.presto.parquet.PrimitiveField;
+import com.facebook.presto.parquet.batchreader.SelectiveBatchReader;
+import com.facebook.presto.spi.PrestoException;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static com.facebook.presto.common.type.BigintType.BIGINT;
+import static com.facebook.presto.common.type.BooleanType.BOOLEAN;
+import static com.facebook.presto.common.type.Chars.isCharType;
+import static com.facebook.presto.common.type.DateType.DATE;
+import static com.facebook.presto.common.type.DoubleType.DOUBLE;
+import static com.facebook.presto.common.type.IntegerType.INTEGER;
+import static com.facebook.presto.common.type.RealType.REAL;
+import static com.facebook.presto.common.type.SmallintType.SMALLINT;
+import static com.facebook.presto.common.type.TimestampType.TIMESTAMP;
+import static com.facebook.presto.common.type.TinyintType.TINYINT;
+import static com.facebook.presto.common.type.VarbinaryType.VARBINARY;
+import static com.facebook.presto.common.type.Varchars.isVarcharType;
+import static com.facebook.presto.parquet.ParquetErrorCode.PARQUET_IO_READ_ERROR;
+import static com.facebook.presto.parquet.reader.ParquetReader.testPosition;
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkState;
+import static com.google.common.collect.ImmutableMap.toImmutableMap;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Reads pages of a Parquet file applying range filters to columns and filter functions to rows
+ * before the remaining columns are decoded.
+ * <p>
+ * The filtered columns are read one at a time, each at the positions that passed the previous
+ * filters, in the order of the lowest cost per dropped position observed so far. Columns used by
+ * filter functions are read at the positions that passed all range filters, and the other columns
+ * are loaded lazily at the positions that passed all filters.
+ */
+public class ParquetSelectiveReader
+        implements Closeable
+{
+    private final ParquetReader parquetReader;
+    private final List<Type> types;
+    private final List<Optional<Field>> fields;
+    private final Map<Integer, Block> constantValues;
+    private final List<Integer> outputChannels;
+    private final List<ColumnFilter> columnFilters;
+    private final Map<Integer, PrimitiveField> filteredFields;
+    private final List<FilterFunction> filterFunctions;
+    // a filter on a constant or missing column rejects its value; no row can pass it
+    private final boolean rejectAll;
+
+    private int[] positions = new int[0];
+    private int[] rows = new int[0];
+    private RuntimeException[] errors = new RuntimeException[0];
+    private int batchId;
+    private long completedPositions;
+
+    /**
+     * @param types types of all channels
+     * @param fields fields of the channels read from the file; empty for constant and missing columns
+     * @param constantValues single position blocks with the values of constant channels
+     * @param filters range filters by channel
+     * @param filterFunctions filters with input channels relative to {@code types}
+     * @param outputChannels channels of the returned pages
+     */
+    public ParquetSelectiveReader(
+            ParquetReader parquetReader,
+            List<Type> types,
+            List<Optional<Field>> fields,
+            Map<Integer, Block> constantValues,
+            Map<Integer, TupleDomainFilter> filters,
+            List<FilterFunction> filterFunctions,
+            List<Integer> outputChannels)
+    {
+        this.parquetReader = requireNonNull(parquetReader, "parquetReader is null");
+        this.types = ImmutableList.copyOf(requireNonNull(types, "types is null"));
+        this.fields = ImmutableList.copyOf(requireNonNull(fields, "fields is null"));
+        this.constantValues = ImmutableMap.copyOf(requireNonNull(constantValues, "constantValues is null"));
+        this.filterFunctions = ImmutableList.copyOf(requireNonNull(filterFunctions, "filterFunctions is null"));
+        this.outputChannels = ImmutableList.copyOf(requireNonNull(outputChannels, "outputChannels is null"));
+        checkArgument(types.size() == fields.size(), "types and fields must correspond one-to-one");
+
+        boolean rejectAll = false;
+        ImmutableList.Builder<ColumnFilter> columnFilters = ImmutableList.builder();
+        for (Map.Entry<Integer, TupleDomainFilter> entry : requireNonNull(filters, "filters is null").entrySet()) {
+            int channel = entry.getKey();
+            TupleDomainFilter filter = entry.getValue();
+            Optional<Field> field = fields.get(channel);
+            if (field.isPresent()) {
+                checkArgument(field.get() instanceof PrimitiveField, "Filters are only supported on primitive columns: %s", field.get());
+                checkArgument(isSupportedFilterType(types.get(channel)), "Unsupported filter column type: %s", types.get(channel));
+                columnFilters.add(new ColumnFilter(channel, (PrimitiveField) field.get(), filter));
+            }
+            else if (constantValues.containsKey(channel)) {
+                rejectAll |= !testPosition(filter, types.get(channel), constantValues.get(channel), 0);
+            }
+            else {
+                rejectAll |= !filter.testNull();
+            }
+        }
+        this.columnFilters = new ArrayList<>(columnFilters.build());
+        this.filteredFields = this.columnFilters.stream()
+                .collect(toImmutableMap(ColumnFilter::getChannel, ColumnFilter::getField));
+        this.rejectAll = rejectAll;
+    }
+
+    public static boolean isSupportedFilterType(Type type)
+    {
+        return BIGINT.equals(type) ||
+                INTEGER.equals(type) ||
+                SMALLINT.equals(type) ||
+                TINYINT.equals(type) ||
+                DATE.equals(type) ||
+                TIMESTAMP.equals(type) ||
+                BOOLEAN.equals(type) ||
+                DOUBLE.equals(type) ||
+                REAL.equals(type) ||
+                type instanceof DecimalType ||
+                isVarcharType(type) ||
+                isCharType(type) ||
+                VARBINARY.equals(type);
+    }
+
+    /**
+     * @return the next page, which may have no rows, or null if the file is exhausted
+     */
+    public Page getNextPage()
+            throws IOException
+    {
+        if (rejectAll) {
+            return null;
+        }
+
+        batchId++;
+        int batchSize = parquetReader.nextBatch();
+        if (batchSize <= 0) {
+            return null;
+        }
+        completedPositions += batchSize;
+
+        positions = ensureCapacity(positions, batchSize);
+        for (int i = 0; i < batchSize; i++) {
+            positions[i] = i;
+        }
+
+        int positionCount = batchSize;
+        for (ColumnFilter columnFilter : columnFilters) {
+            long start = System.nanoTime();
+            SelectiveBatchReader reader = parquetReader.getSelectiveReader(columnFilter.getField());
+            int outputCount = reader.read(positions, positionCount, columnFilter.getFilter());
+            System.arraycopy(reader.getReadPositions(), 0, positions, 0, outputCount);
+            columnFilter.getStats().update(positionCount, outputCount, System.nanoTime() - start);
+            positionCount = outputCount;
+            if (positionCount == 0) {
+                break;
+            }
+        }
+        // filters are reordered after every batch, so the order only lags the observed costs by one batch
+        columnFilters.sort(Comparator.comparingDouble(columnFilter -> columnFilter.getStats().getElapsedNanosPerDroppedPosition()));
+
+        if (positionCount == 0) {
+            return new Page(0);
+        }
+
+        Block[] filterInputs = new Block[types.size()];
+        if (!filterFunctions.isEmpty()) {
+            positionCount = applyFilterFunctions(filterInputs, positionCount);
+            if (positionCount == 0) {
+                return new Page(0);
+            }
+        }
+
+        int[] outputPositions = Arrays.copyOf(positions, positionCount);
+        Block[] blocks = new Block[outputChannels.size()];
+        for (int i = 0; i < blocks.length; i++) {
+            int channel = outputChannels.get(i);
+            blocks[i] = getOutputBlock(channel, filterInputs[channel], outputPositions, positionCount);
+        }
+        return new Page(positionCount, blocks);
+    }
+
+    private int applyFilterFunctions(Block[] filterInputs, int positionCount)
+            throws IOException
+    {
+        for (FilterFunction function : filterFunctions) {
+            for (int channel : function.getInputChannels()) {
+                if (filterInputs[channel] == null) {
+                    filterInputs[channel] = readBlock(channel, positions, positionCount);
+                }
+            }
+        }
+
+        rows = ensureCapacity(rows, positionCount);
+        for (int i = 0; i < positionCount; i++) {
+            rows[i] = i;
+        }
+        if (errors.length < positionCount) {
+            errors = new RuntimeException[positionCount];
+        }
+        Arrays.fill(errors, 0, positionCount, null);
+
+        int rowCount = positionCount;
+        for (FilterFunction function : filterFunctions) {
+            int[] inputs = function.getInputChannels();
+            Block[] inputBlocks = new Block[inputs.length];
+            for (int i = 0; i < inputs.length; i++) {
+                inputBlocks[i] = filterInputs[inputs[i]];
+            }
+            rowCount = function.filter(new Page(positionCount, inputBlocks), rows, rowCount, errors);
+            if (rowCount == 0) {
+                break;
+            }
+        }
+
+        for (int i = 0; i < rowCount; i++) {
+            if (errors[i] != null) {
+                throw errors[i];
+            }
+        }
+
+        if (rowCount < positionCount) {
+            for (int channel = 0; channel < filterInputs.length; channel++) {
+                if (filterInputs[channel] != null) {
+                    filterInputs[channel] = filterInputs[channel].copyPositions(rows, 0, rowCount);
+                }
+            }
+            for (int i = 0; i < rowCount; i++) {
+                positions[i] = positions[rows[i]];
+            }
+        }
+        return rowCount;
+    }
+
+    private Block getOutputBlock(int channel, Block filterInput, int[] outputPositions, int positionCount)
+            throws IOException
+    {
+        if (filterInput != null) {
+            return filterInput;
+        }
+        Optional<Field> field = fields.get(channel);
+        if (field.isPresent() && !filteredFields.containsKey(channel)) {
+            return new LazyBlock(positionCount, new ParquetBlockLoader(field.get(), outputPositions, positionCount));
+        }
+        return readBlock(channel, outputPositions, positionCount);
+    }
+
+    private Block readBlock(int channel, int[] positions, int positionCount)
+            throws IOException
+    {
+        Block constantValue = constantValues.get(channel);
+        if (constantValue != null) {
+            return new RunLengthEncodedBlock(constantValue, positionCount);
+        }
+
+        Optional<Field> field = fields.get(channel);
+        if (!field.isPresent()) {
+            return RunLengthEncodedBlock.create(types.get(channel), null, positionCount);
+        }
+
+        PrimitiveField filteredField = filteredFields.get(channel);
+        if (filteredField != null) {
+            // the column was read while filtering; the positions are a subset of the ones read
+            return parquetReader.getSelectiveReader(filteredField).getBlock(positions, positionCount);
+        }
+        return parquetReader.readBlock(field.get(), positions, positionCount);
+    }
+
+    public long getCompletedPositions()
+    {
+        return completedPositions;
+    }
+
+    public long getSystemMemoryUsage()
+    {
+        return parquetReader.getSystemMemoryUsage();
+    }
+
+    public ParquetDataSource getDataSource()
+    {
+        return parquetReader.getDataSource();
+    }
+
+    @Override
+    public void close()
+            throws IOException
+    {
+        parquetReader.close();
+    }
+
+    private static int[] ensureCapacity(int[] buffer, int capacity)
+    {
+        if (buffer.length < capacity) {
+            return new int[capacity];
+        }
+        return buffer;
+    }
+
+    private final class ParquetBlockLoader
+            implements LazyBlockLoader<LazyBlock>
+    {
+        private final int expectedBatchId = batchId;
+        private final Field field;
+        private final int[] positions;
+        private final int positionCount;
+        private boolean loaded;
+
+        public ParquetBlockLoader(Field field, int[] positions, int positionCount)
+        {
+            this.field = requireNonNull(field, "field is null");
+            this.positions = requireNonNull(positions, "positions is null");
+            this.positionCount = positionCount;
+        }
+
+        @Override
+        public void load(LazyBlock lazyBlock)
+        {
+            if (loaded) {
+                return;
+            }
+
+            checkState(batchId == expectedBatchId, "Block of a previous batch cannot be loaded");
+
+            try {
+                lazyBlock.setBlock(parquetReader.readBlock(field, positions, positionCount));
+            }
+            catch (IOException e) {
+                throw new PrestoException(PARQUET_IO_READ_ERROR, "Error reading Parquet column " + field, e);
+            }
+            loaded = true;
+        }
+    }
+
+    private static final class ColumnFilter
+    {
+        private final int channel;
+        private final PrimitiveField field;
+        private final TupleDomainFilter filter;
+        private final FilterStats stats = new FilterStats();
+
+        private ColumnFilter(int channel, PrimitiveField field, TupleDomainFilter filter)
+        {
+            this.channel = channel;
+            this.field = requireNonNull(field, "field is null");
+            this.filter = requireNonNull(filter, "filter is null");
+        }
+
+        public int getChannel()
+        {
+            return channel;
+        }
+
+        public PrimitiveField getField()
+        {
+            return field;
+        }
+
+        public TupleDomainFilter getFilter()
+        {
+            return filter;
+        }
+
+        public FilterStats getStats()
+        {
+            return stats;
+        }
+    }
+
+    private static final class FilterStats
+    {
+        private long inputPositions;
+        private long outputPositions;
+        private long elapsedNanos;
+
+        public void update(int inputPositions, int outputPositions, long elapsedNanos)
+        {
+            this.inputPositions += inputPositions;
+            this.outputPositions += outputPositions;
+            this.elapsedNanos += elapsedNanos;
+        }
+
+        public double getElapsedNanosPerDroppedPosition()
+        {
+            return (double) elapsedNanos / (1 + inputPositions - outputPositions);
+        }
+    }
+}
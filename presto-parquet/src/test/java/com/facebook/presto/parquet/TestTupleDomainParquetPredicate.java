@@ -36,6 +36,9 @@ import org.apache.parquet.column.statistics.FloatStatistics;
 import org.apache.parquet.column.statistics.IntStatistics;
 import org.apache.parquet.column.statistics.LongStatistics;
 import org.apache.parquet.column.statistics.Statistics;
+import org.apache.parquet.column.values.bloomfilter.BlockSplitBloomFilter;
+import org.apache.parquet.column.values.bloomfilter.BloomFilter;
+import org.apache.parquet.io.api.Binary;
 import org.apache.parquet.schema.PrimitiveType;
 import org.testng.annotations.DataProvider;
 import org.testng.annotations.Test;
@@ -394,6 +397,54 @@ public class TestTupleDomainParquetPredicate
         assertTrue(parquetPredicate.matches(new DictionaryDescriptor(column, Optional.of(page))));
     }
 
+    @Test
+    public void testBigintMatchesWithBloomFilter()
+    {
+        RichColumnDescriptor column = new RichColumnDescriptor(
+                new ColumnDescriptor(new String[] {"path"}, INT64, 0, 0),
+                new PrimitiveType(OPTIONAL, INT64, "Test column"));
+        BloomFilter bloomFilter = new BlockSplitBloomFilter(1024);
+        for (long value = 0; value < 100; value++) {
+            bloomFilter.insertHash(bloomFilter.hash(value * 2));
+        }
+
+        assertTrue(bigintPredicate(column, Domain.create(ValueSet.of(BIGINT, 41L, 42L), false)).matches(column, bloomFilter));
+        assertFalse(bigintPredicate(column, Domain.create(ValueSet.of(BIGINT, 41L, 43L, 1001L), false)).matches(column, bloomFilter));
+        // null values and ranges can not be checked against the bloom filter
+        assertTrue(bigintPredicate(column, Domain.create(ValueSet.of(BIGINT, 41L), true)).matches(column, bloomFilter));
+        assertTrue(bigintPredicate(column, Domain.create(ValueSet.ofRanges(range(BIGINT, 1001L, true, 1003L, true)), false)).matches(column, bloomFilter));
+        // the values of other columns do not prune the bloom filter
+        ColumnDescriptor otherColumn = new ColumnDescriptor(new String[] {"other"}, INT64, 0, 0);
+        assertTrue(bigintPredicate(otherColumn, Domain.create(ValueSet.of(BIGINT, 41L), false)).matches(column, bloomFilter));
+    }
+
+    @Test
+    public void testVarcharMatchesWithBloomFilter()
+    {
+        ColumnDescriptor columnDescriptor = new ColumnDescriptor(new String[] {"path"}, new PrimitiveType(OPTIONAL, BINARY, 0, ""), 0, 0);
+        RichColumnDescriptor column = new RichColumnDescriptor(columnDescriptor, new PrimitiveType(OPTIONAL, BINARY, "Test column"));
+        BloomFilter bloomFilter = new BlockSplitBloomFilter(1024);
+        bloomFilter.insertHash(bloomFilter.hash(Binary.fromString("presto")));
+
+        assertTrue(new TupleDomainParquetPredicate(getEffectivePredicate(column, createVarcharType(255), utf8Slice("presto")), singletonList(column)).matches(column, bloomFilter));
+        assertFalse(new TupleDomainParquetPredicate(getEffectivePredicate(column, createVarcharType(255), utf8Slice("parquet")), singletonList(column)).matches(column, bloomFilter));
+    }
+
+    @Test
+    public void testDoubleMatchesWithBloomFilter()
+    {
+        ColumnDescriptor columnDescriptor = new ColumnDescriptor(new String[] {"path"}, PrimitiveTypeName.DOUBLE, 0, 0);
+        RichColumnDescriptor column = new RichColumnDescriptor(columnDescriptor, new PrimitiveType(OPTIONAL, PrimitiveTypeName.DOUBLE, "Test column"));
+        BloomFilter bloomFilter = new BlockSplitBloomFilter(1024);
+        bloomFilter.insertHash(bloomFilter.hash(-0.0));
+        bloomFilter.insertHash(bloomFilter.hash(1.5));
+
+        assertTrue(doublePredicate(column, 1.5).matches(column, bloomFilter));
+        assertFalse(doublePredicate(column, 2.5).matches(column, bloomFilter));
+        // 0.0 equals -0.0 but is hashed differently, so it can not be checked against the bloom filter
+        assertTrue(doublePredicate(column, 0.0).matches(column, bloomFilter));
+    }
+
     @Test
     public void testGetRange()
     {
@@ -408,6 +459,18 @@ public class TestTupleDomainParquetPredicate
         assertEquals(range3.getHigh().getValue(), 2.0);
     }
 
+    private static TupleDomainParquetPredicate bigintPredicate(ColumnDescriptor column, Domain domain)
+    {
+        RichColumnDescriptor richColumn = new RichColumnDescriptor(column, new PrimitiveType(OPTIONAL, INT64, "Test column"));
+        return new TupleDomainParquetPredicate(withColumnDomains(ImmutableMap.of(column, domain)), singletonList(richColumn));
+    }
+
+    private static TupleDomainParquetPredicate doublePredicate(RichColumnDescriptor column, double value)
+    {
+        ColumnDescriptor predicateColumn = new ColumnDescriptor(column.getPath(), column.getType(), 0, 0);
+        return new TupleDomainParquetPredicate(withColumnDomains(ImmutableMap.of(predicateColumn, singleValue(DOUBLE, value))), singletonList(column));
+    }
+
     private TupleDomain<ColumnDescriptor> getEffectivePredicate(RichColumnDescriptor column, VarcharType type, Slice value)
     {
         ColumnDescriptor predicateColumn = new ColumnDescriptor(column.getPath(), column.getType(), 0, 0);
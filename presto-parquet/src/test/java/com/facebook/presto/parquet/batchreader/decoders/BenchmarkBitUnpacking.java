@@ -0,0 +1,109 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.parquet.batchreader.decoders;
+
+import org.apache.parquet.column.values.bitpacking.BytePacker;
+import org.apache.parquet.column.values.bitpacking.Packer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.VerboseMode;
+
+import java.util.Arrays;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import static com.facebook.presto.common.array.BitUnpacker.packedLength;
+import static com.facebook.presto.common.array.BitUnpacker.unpackLittleEndian;
+import static com.google.common.base.Preconditions.checkState;
+
+@SuppressWarnings("MethodMayBeStatic")
+@State(Scope.Thread)
+@Fork(2)
+@Warmup(iterations = 5, time = 500, timeUnit = TimeUnit.MILLISECONDS)
+@Measurement(iterations = 5, time = 500, timeUnit = TimeUnit.MILLISECONDS)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@BenchmarkMode(Mode.AverageTime)
+public class BenchmarkBitUnpacking
+{
+    private static final int VALUES = 4096;
+
+    @Benchmark
+    @OperationsPerInvocation(VALUES)
+    public Object bytePacker(BenchmarkData data)
+    {
+        for (int byteIndex = 0, valueIndex = 0; valueIndex < VALUES; byteIndex += data.bitWidth, valueIndex += 8) {
+            data.packer.unpack8Values(data.input, byteIndex, data.output, valueIndex);
+        }
+        return data.output;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(VALUES)
+    public Object bitUnpacker(BenchmarkData data)
+    {
+        unpackLittleEndian(data.input, 0, data.output, 0, VALUES, data.bitWidth);
+        return data.output;
+    }
+
+    @State(Scope.Thread)
+    public static class BenchmarkData
+    {
+        private final int[] output = new int[VALUES];
+
+        @Param({"1", "2", "3", "4", "5", "7", "8", "11", "13", "16", "17", "20", "24", "27", "32"})
+        private int bitWidth;
+
+        private BytePacker packer;
+        private byte[] input;
+
+        @Setup
+        public void setup()
+        {
+            packer = Packer.LITTLE_ENDIAN.newBytePacker(bitWidth);
+            input = new byte[packedLength(VALUES, bitWidth)];
+            ThreadLocalRandom.current().nextBytes(input);
+        }
+    }
+
+    public static void main(String[] args)
+            throws Throwable
+    {
+        // assure the benchmarks are valid before running
+        BenchmarkData data = new BenchmarkData();
+        data.bitWidth = 13;
+        data.setup();
+        BenchmarkBitUnpacking benchmark = new BenchmarkBitUnpacking();
+        int[] expected = ((int[]) benchmark.bytePacker(data)).clone();
+        checkState(Arrays.equals((int[]) benchmark.bitUnpacker(data), expected), "bitUnpacker and bytePacker results differ");
+
+        Options options = new OptionsBuilder()
+                .verbosity(VerboseMode.NORMAL)
+                .include(".*" + BenchmarkBitUnpacking.class.getSimpleName() + ".*")
+                .build();
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,182 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.parquet.reader;
+
+import com.facebook.airlift.units.DataSize;
+import com.facebook.presto.common.Page;
+import com.facebook.presto.common.block.Block;
+import com.facebook.presto.common.predicate.TupleDomainFilter;
+import com.facebook.presto.common.predicate.TupleDomainFilter.BigintRange;
+import com.facebook.presto.common.type.Type;
+import com.facebook.presto.parquet.Field;
+import com.facebook.presto.parquet.ParquetDataSource;
+import com.facebook.presto.parquet.ParquetDataSourceId;
+import com.facebook.presto.parquet.cache.MetadataReader;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.apache.parquet.example.data.simple.SimpleGroup;
+import org.apache.parquet.hadoop.metadata.BlockMetaData;
+import org.apache.parquet.hadoop.metadata.ParquetMetadata;
+import org.apache.parquet.io.MessageColumnIO;
+import org.apache.parquet.schema.MessageType;
+import org.apache.parquet.schema.PrimitiveType;
+import org.joda.time.DateTimeZone;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static com.facebook.presto.common.type.BigintType.BIGINT;
+import static com.facebook.presto.common.type.IntegerType.INTEGER;
+import static com.facebook.presto.common.type.VarcharType.VARCHAR;
+import static com.facebook.presto.memory.context.AggregatedMemoryContext.newSimpleAggregatedMemoryContext;
+import static com.facebook.presto.parquet.ParquetTypeUtils.getColumnIO;
+import static com.facebook.presto.parquet.ParquetTypeUtils.lookupColumnByName;
+import static com.facebook.presto.parquet.reader.TestEncryption.constructField;
+import static org.apache.parquet.schema.PrimitiveType.PrimitiveTypeName.BINARY;
+import static org.apache.parquet.schema.PrimitiveType.PrimitiveTypeName.INT32;
+import static org.apache.parquet.schema.PrimitiveType.PrimitiveTypeName.INT64;
+import static org.apache.parquet.schema.Type.Repetition.OPTIONAL;
+import static org.apache.parquet.schema.Type.Repetition.REQUIRED;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+public class TestParquetSelectiveReader
+{
+    private static final List<Type> TYPES = ImmutableList.of(BIGINT, INTEGER, VARCHAR);
+    private static final List<String> NAMES = ImmutableList.of("id", "bal", "name");
+
+    private final Configuration conf = new Configuration(false);
+
+    @Test
+    public void testFilters()
+            throws IOException
+    {
+        TestFile inputFile = new TestFileBuilder(conf, createSchema())
+                .withNumRecord(10000)
+                .withCodec("GZIP")
+                .withPageSize(1000)
+                .build();
+
+        Map<Integer, TupleDomainFilter> filters = ImmutableMap.of(
+                0, BigintRange.of(0, 49999, false),
+                1, BigintRange.of(0, 4999, false));
+        for (boolean batchReadEnabled : new boolean[] {true, false}) {
+            assertRows(inputFile, batchReadEnabled, filters, ImmutableList.of(0, 1, 2));
+            assertRows(inputFile, batchReadEnabled, filters, ImmutableList.of(2));
+            assertRows(inputFile, batchReadEnabled, ImmutableMap.of(1, BigintRange.of(0, 99, false)), ImmutableList.of(1, 0));
+            assertRows(inputFile, batchReadEnabled, ImmutableMap.of(), ImmutableList.of(0, 2));
+            // no value of the column passes
+            assertRows(inputFile, batchReadEnabled, ImmutableMap.of(0, BigintRange.of(-10, -1, false)), ImmutableList.of(0, 1, 2));
+        }
+    }
+
+    @Test
+    public void testDictionaryFilters()
+            throws IOException
+    {
+        TestFile inputFile = new TestFileBuilder(conf, createSchema())
+                .withNumRecord(10000)
+                .withCodec("GZIP")
+                .withPageSize(1000)
+                .withDictionaryEnabled()
+                .build();
+
+        Map<Integer, TupleDomainFilter> filters = ImmutableMap.of(1, BigintRange.of(5000, 5999, false));
+        assertRows(inputFile, true, filters, ImmutableList.of(0, 1, 2));
+        assertRows(inputFile, false, filters, ImmutableList.of(0, 1, 2));
+    }
+
+    private void assertRows(TestFile inputFile, boolean batchReadEnabled, Map<Integer, TupleDomainFilter> filters, List<Integer> outputChannels)
+            throws IOException
+    {
+        List<List<Object>> expected = new ArrayList<>();
+        for (SimpleGroup group : inputFile.getFileContent()) {
+            List<Object> values = ImmutableList.of(group.getLong("id", 0), group.getInteger("bal", 0), group.getString("name", 0));
+            if (filters.entrySet().stream().allMatch(entry -> entry.getValue().testLong(((Number) values.get(entry.getKey())).longValue()))) {
+                expected.add(outputChannels.stream().map(values::get).collect(ImmutableList.toImmutableList()));
+            }
+        }
+
+        List<List<Object>> actual = new ArrayList<>();
+        try (ParquetSelectiveReader reader = createReader(inputFile, batchReadEnabled, filters, outputChannels)) {
+            for (Page page = reader.getNextPage(); page != null; page = reader.getNextPage()) {
+                assertEquals(page.getChannelCount(), page.getPositionCount() == 0 ? 0 : outputChannels.size());
+                for (int position = 0; position < page.getPositionCount(); position++) {
+                    ImmutableList.Builder<Object> row = ImmutableList.builder();
+                    for (int channel = 0; channel < outputChannels.size(); channel++) {
+                        Type type = TYPES.get(outputChannels.get(channel));
+                        Block block = page.getBlock(channel);
+                        row.add(type == VARCHAR ? type.getSlice(block, position).toStringUtf8() : type.getObjectValue(null, block, position));
+                    }
+                    actual.add(row.build());
+                }
+            }
+        }
+        assertEquals(actual, expected);
+        assertTrue(filters.isEmpty() || actual.size() < inputFile.getFileContent().length);
+    }
+
+    private ParquetSelectiveReader createReader(TestFile inputFile, boolean batchReadEnabled, Map<Integer, TupleDomainFilter> filters, List<Integer> outputChannels)
+            throws IOException
+    {
+        Path path = new Path(inputFile.getFileName());
+        FileSystem fileSystem = path.getFileSystem(conf);
+        ParquetDataSource dataSource = new MockParquetDataSource(new ParquetDataSourceId(path.toString()), fileSystem.open(path));
+        ParquetMetadata parquetMetadata = MetadataReader.readFooter(dataSource, inputFile.getFileSize(), Optional.empty(), false).getParquetMetadata();
+        MessageType fileSchema = parquetMetadata.getFileMetaData().getSchema();
+        MessageColumnIO messageColumn = getColumnIO(fileSchema, fileSchema);
+
+        ImmutableList.Builder<Long> blockStarts = ImmutableList.builder();
+        long nextStart = 0;
+        for (BlockMetaData block : parquetMetadata.getBlocks()) {
+            blockStarts.add(nextStart);
+            nextStart += block.getRowCount();
+        }
+        ParquetReader parquetReader = new ParquetReader(
+                messageColumn,
+                parquetMetadata.getBlocks(),
+                Optional.of(blockStarts.build()),
+                dataSource,
+                newSimpleAggregatedMemoryContext(),
+                new DataSize(100000, DataSize.Unit.BYTE),
+                batchReadEnabled,
+                false,
+                null,
+                null,
+                false,
+                Optional.empty(),
+                Optional.of(DateTimeZone.UTC));
+
+        ImmutableList.Builder<Optional<Field>> fields = ImmutableList.builder();
+        for (int channel = 0; channel < TYPES.size(); channel++) {
+            fields.add(constructField(TYPES.get(channel), lookupColumnByName(messageColumn, NAMES.get(channel))));
+        }
+        return new ParquetSelectiveReader(parquetReader, TYPES, fields.build(), ImmutableMap.of(), filters, ImmutableList.of(), outputChannels);
+    }
+
+    private static MessageType createSchema()
+    {
+        return new MessageType("schema",
+                new PrimitiveType(REQUIRED, INT64, "id"),
+                new PrimitiveType(OPTIONAL, INT32, "bal"),
+                new PrimitiveType(OPTIONAL, BINARY, "name"));
+    }
+}
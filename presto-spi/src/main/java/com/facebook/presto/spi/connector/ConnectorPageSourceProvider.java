@@ -54,4 +54,14 @@ public interface ConnectorPageSourceProvider
     {
         return createPageSource(transactionHandle, session, split, columns, splitContext);
     }
+
+    /**
+     * Returns true if table scans of concurrent queries that read {@code split} may share one page
+     * source. This requires the page sources created for the split to return its rows in the same
+     * order every time.
+     */
+    default boolean supportsSharedScans(ConnectorSplit split)
+    {
+        return false;
+    }
 }
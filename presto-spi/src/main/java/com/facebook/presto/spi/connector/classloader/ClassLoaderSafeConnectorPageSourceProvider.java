@@ -65,4 +65,12 @@ public class ClassLoaderSafeConnectorPageSourceProvider
             return delegate.createPageSource(transactionHandle, session, split, layout, columns, splitContext, runtimeStats);
         }
     }
+
+    @Override
+    public boolean supportsSharedScans(ConnectorSplit split)
+    {
+        try (ThreadContextClassLoader ignored = new ThreadContextClassLoader(classLoader)) {
+            return delegate.supportsSharedScans(split);
+        }
+    }
 }
@@ -70,6 +70,8 @@ public interface StandardFunctionResolution
 
     boolean isCountIfFunction(FunctionHandle functionHandle);
 
+    boolean isSumFunction(FunctionHandle functionHandle);
+
     FunctionHandle countFunction();
 
     FunctionHandle countFunction(Type valueType);
@@ -0,0 +1,260 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.spi.page;
+
+import io.airlift.slice.Slice;
+import io.airlift.slice.SliceOutput;
+import io.airlift.slice.Slices;
+import org.openjdk.jol.info.ClassLayout;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.Charset;
+
+import static io.airlift.slice.SizeOf.SIZE_OF_BYTE;
+import static io.airlift.slice.SizeOf.SIZE_OF_DOUBLE;
+import static io.airlift.slice.SizeOf.SIZE_OF_FLOAT;
+import static io.airlift.slice.SizeOf.SIZE_OF_INT;
+import static io.airlift.slice.SizeOf.SIZE_OF_LONG;
+import static io.airlift.slice.SizeOf.SIZE_OF_SHORT;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * A {@link SliceOutput} that starts writing into a given slice, such as a pooled buffer, and
+ * moves to a larger, newly allocated slice once that one is full. The initial slice is never
+ * written beyond its length.
+ */
+final class GrowableSliceOutput
+        extends SliceOutput
+{
+    private static final int INSTANCE_SIZE = ClassLayout.parseClass(GrowableSliceOutput.class).instanceSize();
+
+    private Slice slice;
+    private int size;
+
+    GrowableSliceOutput(Slice initialSlice)
+    {
+        this.slice = requireNonNull(initialSlice, "initialSlice is null");
+    }
+
+    @Override
+    public void reset()
+    {
+        size = 0;
+    }
+
+    @Override
+    public void reset(int position)
+    {
+        if (position < 0 || position > size) {
+            throw new IndexOutOfBoundsException("position is out of range: " + position);
+        }
+        size = position;
+    }
+
+    @Override
+    public int size()
+    {
+        return size;
+    }
+
+    @Override
+    public long getRetainedSize()
+    {
+        return slice.getRetainedSize() + INSTANCE_SIZE;
+    }
+
+    @Override
+    public boolean isWritable()
+    {
+        return writableBytes() > 0;
+    }
+
+    @Override
+    public int writableBytes()
+    {
+        return slice.length() - size;
+    }
+
+    @Override
+    public void writeByte(int value)
+    {
+        ensureWritable(SIZE_OF_BYTE);
+        slice.setByte(size, value);
+        size += SIZE_OF_BYTE;
+    }
+
+    @Override
+    public void writeShort(int value)
+    {
+        ensureWritable(SIZE_OF_SHORT);
+        slice.setShort(size, value);
+        size += SIZE_OF_SHORT;
+    }
+
+    @Override
+    public void writeInt(int value)
+    {
+        ensureWritable(SIZE_OF_INT);
+        slice.setInt(size, value);
+        size += SIZE_OF_INT;
+    }
+
+    @Override
+    public void writeLong(long value)
+    {
+        ensureWritable(SIZE_OF_LONG);
+        slice.setLong(size, value);
+        size += SIZE_OF_LONG;
+    }
+
+    @Override
+    public void writeFloat(float value)
+    {
+        ensureWritable(SIZE_OF_FLOAT);
+        slice.setFloat(size, value);
+        size += SIZE_OF_FLOAT;
+    }
+
+    @Override
+    public void writeDouble(double value)
+    {
+        ensureWritable(SIZE_OF_DOUBLE);
+        slice.setDouble(size, value);
+        size += SIZE_OF_DOUBLE;
+    }
+
+    @Override
+    public void writeBytes(byte[] source)
+    {
+        writeBytes(source, 0, source.length);
+    }
+
+    @Override
+    public void writeBytes(byte[] source, int sourceIndex, int length)
+    {
+        ensureWritable(length);
+        slice.setBytes(size, source, sourceIndex, length);
+        size += length;
+    }
+
+    @Override
+    public void writeBytes(Slice source)
+    {
+        writeBytes(source, 0, source.length());
+    }
+
+    @Override
+    public void writeBytes(Slice source, int sourceIndex, int length)
+    {
+        ensureWritable(length);
+        slice.setBytes(size, source, sourceIndex, length);
+        size += length;
+    }
+
+    @Override
+    public void writeBytes(InputStream in, int length)
+            throws IOException
+    {
+        ensureWritable(length);
+        slice.setBytes(size, in, length);
+        size += length;
+    }
+
+    @Override
+    public GrowableSliceOutput appendLong(long value)
+    {
+        writeLong(value);
+        return this;
+    }
+
+    @Override
+    public GrowableSliceOutput appendDouble(double value)
+    {
+        writeDouble(value);
+        return this;
+    }
+
+    @Override
+    public GrowableSliceOutput appendInt(int value)
+    {
+        writeInt(value);
+        return this;
+    }
+
+    @Override
+    public GrowableSliceOutput appendShort(int value)
+    {
+        writeShort(value);
+        return this;
+    }
+
+    @Override
+    public GrowableSliceOutput appendByte(int value)
+    {
+        writeByte(value);
+        return this;
+    }
+
+    @Override
+    public GrowableSliceOutput appendBytes(byte[] source, int sourceIndex, int length)
+    {
+        writeBytes(source, sourceIndex, length);
+        return this;
+    }
+
+    @Override
+    public GrowableSliceOutput appendBytes(byte[] source)
+    {
+        writeBytes(source);
+        return this;
+    }
+
+    @Override
+    public GrowableSliceOutput appendBytes(Slice source)
+    {
+        writeBytes(source);
+        return this;
+    }
+
+    @Override
+    public Slice slice()
+    {
+        return slice.slice(0, size);
+    }
+
+    @Override
+    public Slice getUnderlyingSlice()
+    {
+        return slice;
+    }
+
+    @Override
+    public String toString()
+    {
+        return "GrowableSliceOutput{size=" + size + ", capacity=" + slice.length() + "}";
+    }
+
+    @Override
+    public String toString(Charset charset)
+    {
+        return slice.toString(0, size, charset);
+    }
+
+    private void ensureWritable(int length)
+    {
+        // copies the written bytes into a new slice, leaving the initial one untouched
+        slice = Slices.ensureSize(slice, size + length);
+    }
+}
@@ -0,0 +1,111 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.spi.page;
+
+import java.util.ArrayDeque;
+
+import static java.lang.Integer.numberOfLeadingZeros;
+import static java.lang.String.format;
+
+/**
+ * Pool of scratch buffers used while serializing pages. Buffers are handed out in power of two
+ * size classes, so a buffer released by one serde can be borrowed by any other serde that needs
+ * a buffer of the same class. The pool retains at most {@code maxRetainedBytes}; buffers released
+ * beyond that, or larger than {@code maxBufferSize}, are left to the garbage collector.
+ * <p>
+ * This class is thread safe.
+ */
+public final class PageBufferPool
+{
+    private static final int MIN_BUFFER_SIZE_BITS = 12;
+    private static final int MIN_BUFFER_SIZE = 1 << MIN_BUFFER_SIZE_BITS;
+
+    private final int maxBufferSize;
+    private final long maxRetainedBytes;
+    private final ArrayDeque<byte[]>[] sizeClasses;
+
+    private long retainedBytes;
+
+    @SuppressWarnings("unchecked")
+    public PageBufferPool(int maxBufferSize, long maxRetainedBytes)
+    {
+        if (maxBufferSize < MIN_BUFFER_SIZE || Integer.bitCount(maxBufferSize) != 1) {
+            throw new IllegalArgumentException(format("maxBufferSize must be a power of two of at least %s", MIN_BUFFER_SIZE));
+        }
+        if (maxRetainedBytes < 0) {
+            throw new IllegalArgumentException("maxRetainedBytes is negative");
+        }
+        this.maxBufferSize = maxBufferSize;
+        this.maxRetainedBytes = maxRetainedBytes;
+        this.sizeClasses = new ArrayDeque[sizeClass(maxBufferSize) + 1];
+        for (int i = 0; i < sizeClasses.length; i++) {
+            sizeClasses[i] = new ArrayDeque<>();
+        }
+    }
+
+    /**
+     * Returns a buffer of at least {@code minLength} bytes. The content of the buffer is undefined.
+     */
+    public byte[] borrow(int minLength)
+    {
+        if (minLength < 0) {
+            throw new IllegalArgumentException("minLength is negative");
+        }
+        if (minLength > maxBufferSize) {
+            return new byte[minLength];
+        }
+        int sizeClass = sizeClass(minLength);
+        synchronized (this) {
+            byte[] buffer = sizeClasses[sizeClass].pollFirst();
+            if (buffer != null) {
+                retainedBytes -= buffer.length;
+                return buffer;
+            }
+        }
+        return new byte[MIN_BUFFER_SIZE << sizeClass];
+    }
+
+    /**
+     * Returns a buffer obtained from {@link #borrow} to the pool. The caller must not use the
+     * buffer afterwards.
+     */
+    public void release(byte[] buffer)
+    {
+        int length = buffer.length;
+        if (length < MIN_BUFFER_SIZE || length > maxBufferSize || Integer.bitCount(length) != 1) {
+            return;
+        }
+        synchronized (this) {
+            if (retainedBytes + length > maxRetainedBytes) {
+                return;
+            }
+            sizeClasses[sizeClass(length)].addFirst(buffer);
+            retainedBytes += length;
+        }
+    }
+
+    public synchronized long getRetainedSizeInBytes()
+    {
+        return retainedBytes;
+    }
+
+    private static int sizeClass(int length)
+    {
+        if (length <= MIN_BUFFER_SIZE) {
+            return 0;
+        }
+        // index of the smallest power of two that is at least length
+        return (Integer.SIZE - numberOfLeadingZeros(length - 1)) - MIN_BUFFER_SIZE_BITS;
+    }
+}
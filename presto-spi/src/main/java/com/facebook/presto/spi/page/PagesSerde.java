@@ -45,6 +45,7 @@ public class PagesSerde
     private final Optional<PageDecompressor> decompressor;
     private final Optional<SpillCipher> spillCipher;
     private final boolean checksumEnabled;
+    private final Optional<PageBufferPool> bufferPool;
 
     private byte[] compressionBuffer;
 
@@ -54,6 +55,21 @@ public class PagesSerde
     }
 
     public PagesSerde(BlockEncodingSerde blockEncodingSerde, Optional<PageCompressor> compressor, Optional<PageDecompressor> decompressor, Optional<SpillCipher> spillCipher, boolean checksumEnabled)
+    {
+        this(blockEncodingSerde, compressor, decompressor, spillCipher, checksumEnabled, Optional.empty());
+    }
+
+    /**
+     * When {@code bufferPool} is present, the serialization and compression buffers are borrowed from it
+     * for the duration of a single page instead of being allocated or retained by this serde.
+     */
+    public PagesSerde(
+            BlockEncodingSerde blockEncodingSerde,
+            Optional<PageCompressor> compressor,
+            Optional<PageDecompressor> decompressor,
+            Optional<SpillCipher> spillCipher,
+            boolean checksumEnabled,
+            Optional<PageBufferPool> bufferPool)
     {
         this.blockEncodingSerde = requireNonNull(blockEncodingSerde, "blockEncodingSerde is null");
         checkArgument(compressor.isPresent() == decompressor.isPresent(), "compressor and decompressor must both be present or both be absent");
@@ -62,20 +78,35 @@ public class PagesSerde
         this.spillCipher = requireNonNull(spillCipher, "spillCipher is null");
         checkState(!spillCipher.isPresent() || !spillCipher.get().isDestroyed(), "spillCipher is already destroyed");
         this.checksumEnabled = checksumEnabled;
+        this.bufferPool = requireNonNull(bufferPool, "bufferPool is null");
     }
 
     public SerializedPage serialize(Page page)
     {
-        SliceOutput serializationBuffer = new DynamicSliceOutput(toIntExact(page.getSizeInBytes() + Integer.BYTES)); // block length is an int
-        writeRawPage(page, serializationBuffer, blockEncodingSerde);
+        int estimatedSize = toIntExact(page.getSizeInBytes() + Integer.BYTES); // block length is an int
+        // the serialized form is only an intermediate result when the page is compressed or encrypted
+        if (bufferPool.isPresent() && (compressor.isPresent() || spillCipher.isPresent())) {
+            byte[] buffer = bufferPool.get().borrow(estimatedSize);
+            try {
+                // the size of a serialized page is not known upfront, so the output moves to an unpooled slice if the page outgrows the buffer
+                SliceOutput output = new GrowableSliceOutput(Slices.wrappedBuffer(buffer));
+                writeRawPage(page, output, blockEncodingSerde);
+                return wrapSlice(output.slice(), page.getPositionCount(), true);
+            }
+            finally {
+                bufferPool.get().release(buffer);
+            }
+        }
 
-        return wrapSlice(serializationBuffer.slice(), page.getPositionCount());
+        SliceOutput output = new DynamicSliceOutput(estimatedSize);
+        writeRawPage(page, output, blockEncodingSerde);
+        return wrapSlice(output.slice(), page.getPositionCount(), false);
     }
 
     public SerializedPage serialize(Slice slice, int positionCount)
     {
         checkArgument(slice.isCompact(), "slice is not compact");
-        return wrapSlice(slice, positionCount);
+        return wrapSlice(slice, positionCount, false);
     }
 
     public Page deserialize(SerializedPage serializedPage)
@@ -115,25 +146,33 @@ public class PagesSerde
         return sizeOf(compressionBuffer);
     }
 
-    private SerializedPage wrapSlice(Slice slice, int positionCount)
+    private SerializedPage wrapSlice(Slice slice, int positionCount, boolean sliceIsReused)
     {
         int uncompressedSize = slice.length();
         byte markers = PageCodecMarker.none();
 
         if (compressor.isPresent()) {
             int maxCompressedSize = compressor.get().maxCompressedLength(uncompressedSize);
-            compressionBuffer = ensureCapacity(compressionBuffer, maxCompressedSize);
-            int compressedSize = compressor.get().compress(
-                    (byte[]) slice.getBase(),
-                    (int) (slice.getAddress() - ARRAY_BYTE_BASE_OFFSET),
-                    uncompressedSize,
-                    compressionBuffer,
-                    0,
-                    maxCompressedSize);
-
-            if (compressedSize / (double) uncompressedSize <= MINIMUM_COMPRESSION_RATIO) {
-                slice = Slices.copyOf(Slices.wrappedBuffer(compressionBuffer, 0, compressedSize));
-                markers = COMPRESSED.set(markers);
+            byte[] buffer = bufferPool.isPresent() ? bufferPool.get().borrow(maxCompressedSize) : ensureCompressionBufferCapacity(maxCompressedSize);
+            try {
+                int compressedSize = compressor.get().compress(
+                        (byte[]) slice.getBase(),
+                        (int) (slice.getAddress() - ARRAY_BYTE_BASE_OFFSET),
+                        uncompressedSize,
+                        buffer,
+                        0,
+                        maxCompressedSize);
+
+                if (compressedSize / (double) uncompressedSize <= MINIMUM_COMPRESSION_RATIO) {
+                    slice = Slices.copyOf(Slices.wrappedBuffer(buffer, 0, compressedSize));
+                    markers = COMPRESSED.set(markers);
+                    sliceIsReused = false;
+                }
+            }
+            finally {
+                if (bufferPool.isPresent()) {
+                    bufferPool.get().release(buffer);
+                }
             }
         }
 
@@ -141,7 +180,7 @@ public class PagesSerde
             slice = Slices.wrappedBuffer(spillCipher.get().encrypt(slice.toByteBuffer()));
             markers = ENCRYPTED.set(markers);
         }
-        else if (!slice.isCompact()) {
+        else if (sliceIsReused || !slice.isCompact()) {
             slice = Slices.copyOf(slice);
         }
 
@@ -168,12 +207,12 @@ public class PagesSerde
         }
     }
 
-    private static byte[] ensureCapacity(byte[] buffer, int capacity)
+    private byte[] ensureCompressionBufferCapacity(int capacity)
     {
-        if (buffer == null || buffer.length < capacity) {
-            return new byte[capacity];
+        if (compressionBuffer == null || compressionBuffer.length < capacity) {
+            compressionBuffer = new byte[capacity];
         }
 
-        return buffer;
+        return compressionBuffer;
     }
 }
@@ -0,0 +1,76 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.spi.page;
+
+import org.testng.annotations.Test;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNotSame;
+import static org.testng.Assert.assertSame;
+
+public class TestPageBufferPool
+{
+    @Test
+    public void testSizeClasses()
+    {
+        PageBufferPool pool = new PageBufferPool(1 << 16, 1 << 20);
+        assertEquals(pool.borrow(0).length, 4096);
+        assertEquals(pool.borrow(4096).length, 4096);
+        assertEquals(pool.borrow(4097).length, 8192);
+        assertEquals(pool.borrow(1 << 16).length, 1 << 16);
+        // buffers larger than the largest size class are allocated exactly
+        assertEquals(pool.borrow((1 << 16) + 1).length, (1 << 16) + 1);
+    }
+
+    @Test
+    public void testReuse()
+    {
+        PageBufferPool pool = new PageBufferPool(1 << 16, 1 << 20);
+        byte[] buffer = pool.borrow(5000);
+        pool.release(buffer);
+        assertEquals(pool.getRetainedSizeInBytes(), 8192);
+
+        assertSame(pool.borrow(6000), buffer);
+        assertEquals(pool.getRetainedSizeInBytes(), 0);
+
+        pool.release(buffer);
+        assertNotSame(pool.borrow(10_000), buffer);
+        assertNotSame(pool.borrow(100), buffer);
+        assertEquals(pool.getRetainedSizeInBytes(), 8192);
+    }
+
+    @Test
+    public void testRetainedBytesLimit()
+    {
+        PageBufferPool pool = new PageBufferPool(1 << 16, 10_000);
+        byte[] first = pool.borrow(8192);
+        byte[] second = pool.borrow(8192);
+        pool.release(first);
+        pool.release(second);
+        assertEquals(pool.getRetainedSizeInBytes(), 8192);
+
+        // buffers not handed out by the pool are ignored
+        pool.release(new byte[5000]);
+        assertEquals(pool.getRetainedSizeInBytes(), 8192);
+
+        assertSame(pool.borrow(8192), first);
+        assertNotSame(pool.borrow(8192), second);
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void testInvalidMaxBufferSize()
+    {
+        new PageBufferPool(5000, 1 << 20);
+    }
+}